@@ -0,0 +1,25 @@
+#!/bin/bash
+
+# Payment Gateway - JMH Benchmark Runner
+# Builds the benchmark jar, runs the suite and compares the results with the committed baseline.
+#
+# Usage: scripts/run-benchmarks.sh [benchmark-regex] [--update-baseline]
+# Regressions beyond BENCHMARK_MAX_REGRESSION_PERCENT (default 10) fail the script.
+
+BASELINE=src/test/resources/benchmark/baseline.json
+RESULTS=target/jmh-result.json
+FILTER=${1:-com.talentica.paymentgateway.benchmark}
+
+echo "=== Payment Gateway Benchmarks ==="
+
+mvn -B -q -Pbenchmark -DskipTests package || { echo "❌ Benchmark build failed"; exit 1; }
+
+java -jar target/benchmarks.jar "$FILTER" -rf json -rff "$RESULTS" || { echo "❌ Benchmark run failed"; exit 1; }
+
+if [ "$2" == "--update-baseline" ]; then
+    java -cp target/benchmarks.jar com.talentica.paymentgateway.benchmark.BenchmarkBaseline "$RESULTS" "$BASELINE" --update
+    exit $?
+fi
+
+java -cp target/benchmarks.jar com.talentica.paymentgateway.benchmark.BenchmarkBaseline \
+    "$RESULTS" "$BASELINE" "${BENCHMARK_MAX_REGRESSION_PERCENT:-10}"
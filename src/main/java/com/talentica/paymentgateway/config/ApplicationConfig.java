@@ -2,12 +2,18 @@ package com.talentica.paymentgateway.config;
 
 import io.micrometer.core.aop.TimedAspect;
 import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.coyote.ProtocolHandler;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
@@ -29,6 +35,7 @@ import java.util.concurrent.Executor;
  * @author Payment Gateway Team
  * @version 1.0.0
  */
+@Slf4j
 @Configuration
 @EnableAsync
 @EnableConfigurationProperties(ApplicationConfig.AppProperties.class)
@@ -36,11 +43,24 @@ public class ApplicationConfig {
 
     /**
      * Configure async task executor for background processing.
+     * With {@code app.threads.virtual-enabled} on a JDK 21+ runtime each task runs on its
+     * own virtual thread, bounded by {@code app.threads.async-concurrency-limit}; otherwise
+     * the bounded platform thread pool is used.
      * 
-     * @return Configured thread pool task executor
+     * @param appProperties Application properties
+     * @return Configured task executor
      */
     @Bean(name = "taskExecutor")
-    public Executor taskExecutor() {
+    public Executor taskExecutor(AppProperties appProperties) {
+        AppProperties.Threads threads = appProperties.getThreads();
+        if (threads.isVirtualEnabled() && isVirtualThreadRuntime()) {
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("PaymentGateway-Async-VT-");
+            executor.setVirtualThreads(true);
+            executor.setConcurrencyLimit(threads.getAsyncConcurrencyLimit());
+            executor.setTaskTerminationTimeout(30000);
+            return executor;
+        }
+
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
         executor.setCorePoolSize(5);
         executor.setMaxPoolSize(20);
@@ -53,6 +73,37 @@ public class ApplicationConfig {
         return executor;
     }
 
+    /**
+     * Run servlet request handling on virtual threads so requests blocked on the
+     * Authorize.Net SDK's synchronous HTTP call do not occupy Tomcat platform threads.
+     * 
+     * @return Tomcat protocol handler customizer
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "app.threads", name = "virtual-enabled", havingValue = "true")
+    public TomcatProtocolHandlerCustomizer<ProtocolHandler> virtualThreadProtocolHandlerCustomizer() {
+        return protocolHandler -> {
+            if (isVirtualThreadRuntime()) {
+                protocolHandler.setExecutor(new VirtualThreadTaskExecutor("PaymentGateway-Http-VT-"));
+                log.info("Servlet request handling configured for virtual threads");
+            }
+        };
+    }
+
+    /**
+     * Virtual threads are final in JDK 21. The build targets 17, so the mode is decided at runtime.
+     * 
+     * @return true if the running JVM supports virtual threads
+     */
+    static boolean isVirtualThreadRuntime() {
+        if (Runtime.version().feature() >= 21) {
+            return true;
+        }
+        log.warn("Virtual thread mode requested but JVM {} does not support it; using platform threads",
+                Runtime.version());
+        return false;
+    }
+
     /**
      * Configure CORS for cross-origin requests.
      * 
@@ -136,6 +187,7 @@ public class ApplicationConfig {
         private Payment payment = new Payment();
         private AuthorizeNet authorizeNet = new AuthorizeNet();
         private Cors cors = new Cors();
+        private Threads threads = new Threads();
 
         // Getters and setters
         public String getName() { return name; }
@@ -168,10 +220,14 @@ public class ApplicationConfig {
         public Cors getCors() { return cors; }
         public void setCors(Cors cors) { this.cors = cors; }
 
+        public Threads getThreads() { return threads; }
+        public void setThreads(Threads threads) { this.threads = threads; }
+
         public static class Jwt {
             private String secret;
             private long expiration;
             private long refreshExpiration;
+            private int claimsCacheSize = 10_000;
 
             public String getSecret() { return secret; }
             public void setSecret(String secret) { this.secret = secret; }
@@ -181,12 +237,16 @@ public class ApplicationConfig {
 
             public long getRefreshExpiration() { return refreshExpiration; }
             public void setRefreshExpiration(long refreshExpiration) { this.refreshExpiration = refreshExpiration; }
+
+            public int getClaimsCacheSize() { return claimsCacheSize; }
+            public void setClaimsCacheSize(int claimsCacheSize) { this.claimsCacheSize = claimsCacheSize; }
         }
 
         public static class RateLimit {
             private boolean enabled;
             private int defaultLimit;
             private int burstLimit;
+            private LocalTier localTier = new LocalTier();
 
             public boolean isEnabled() { return enabled; }
             public void setEnabled(boolean enabled) { this.enabled = enabled; }
@@ -196,6 +256,35 @@ public class ApplicationConfig {
 
             public int getBurstLimit() { return burstLimit; }
             public void setBurstLimit(int burstLimit) { this.burstLimit = burstLimit; }
+
+            public LocalTier getLocalTier() { return localTier; }
+            public void setLocalTier(LocalTier localTier) { this.localTier = localTier; }
+
+            /**
+             * In-process token tier that leases batches of tokens from the Redis bucket.
+             */
+            public static class LocalTier {
+                private boolean enabled = false;
+                private int leaseSize = 50;
+                private double maxLeaseFraction = 0.05;
+                private double refillThreshold = 0.2;
+                private int maxBuckets = 100_000;
+
+                public boolean isEnabled() { return enabled; }
+                public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+                public int getLeaseSize() { return leaseSize; }
+                public void setLeaseSize(int leaseSize) { this.leaseSize = leaseSize; }
+
+                public double getMaxLeaseFraction() { return maxLeaseFraction; }
+                public void setMaxLeaseFraction(double maxLeaseFraction) { this.maxLeaseFraction = maxLeaseFraction; }
+
+                public double getRefillThreshold() { return refillThreshold; }
+                public void setRefillThreshold(double refillThreshold) { this.refillThreshold = refillThreshold; }
+
+                public int getMaxBuckets() { return maxBuckets; }
+                public void setMaxBuckets(int maxBuckets) { this.maxBuckets = maxBuckets; }
+            }
         }
 
         public static class Correlation {
@@ -302,5 +391,24 @@ public class ApplicationConfig {
             public long getMaxAge() { return maxAge; }
             public void setMaxAge(long maxAge) { this.maxAge = maxAge; }
         }
+
+        public static class Threads {
+            private boolean virtualEnabled = false;
+            private int asyncConcurrencyLimit = 200;
+            private boolean pinningDiagnosticsEnabled = true;
+            private long pinningThresholdMs = 20;
+
+            public boolean isVirtualEnabled() { return virtualEnabled; }
+            public void setVirtualEnabled(boolean virtualEnabled) { this.virtualEnabled = virtualEnabled; }
+
+            public int getAsyncConcurrencyLimit() { return asyncConcurrencyLimit; }
+            public void setAsyncConcurrencyLimit(int asyncConcurrencyLimit) { this.asyncConcurrencyLimit = asyncConcurrencyLimit; }
+
+            public boolean isPinningDiagnosticsEnabled() { return pinningDiagnosticsEnabled; }
+            public void setPinningDiagnosticsEnabled(boolean pinningDiagnosticsEnabled) { this.pinningDiagnosticsEnabled = pinningDiagnosticsEnabled; }
+
+            public long getPinningThresholdMs() { return pinningThresholdMs; }
+            public void setPinningThresholdMs(long pinningThresholdMs) { this.pinningThresholdMs = pinningThresholdMs; }
+        }
     }
 }
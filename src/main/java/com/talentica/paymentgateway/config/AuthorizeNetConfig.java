@@ -22,6 +22,8 @@ import jakarta.validation.constraints.NotNull;
 @Validated
 public class AuthorizeNetConfig {
 
+    private static final String XML_API_PATH = "/xml/v1/request.api";
+
     @NotBlank(message = "Authorize.Net API Login ID is required")
     private String apiLoginId;
 
@@ -45,6 +47,12 @@ public class AuthorizeNetConfig {
      */
     @Bean
     public Environment authorizeNetEnvironment() {
+        if (environment == AuthNetEnvironment.CUSTOM) {
+            String hostUrl = baseUrl.endsWith(XML_API_PATH) 
+                ? baseUrl.substring(0, baseUrl.length() - XML_API_PATH.length()) 
+                : baseUrl;
+            return Environment.createEnvironment(hostUrl, hostUrl);
+        }
         return environment == AuthNetEnvironment.PRODUCTION 
             ? Environment.PRODUCTION 
             : Environment.SANDBOX;
@@ -122,9 +130,11 @@ public class AuthorizeNetConfig {
 
     /**
      * Enum for Authorize.Net environment types.
+     * CUSTOM targets the configured base URL, e.g. a local stand-in used by load tests.
      */
     public enum AuthNetEnvironment {
         SANDBOX,
-        PRODUCTION
+        PRODUCTION,
+        CUSTOM
     }
 }
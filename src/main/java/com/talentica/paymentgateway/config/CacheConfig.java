@@ -5,7 +5,10 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.jsontype.BasicPolymorphicTypeValidator;
 import com.fasterxml.jackson.databind.jsontype.PolymorphicTypeValidator;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.talentica.paymentgateway.config.cache.TwoLevelCacheManager;
+import com.talentica.paymentgateway.config.properties.CacheProperties;
 import com.talentica.paymentgateway.constants.CacheConstants;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
@@ -14,6 +17,9 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
@@ -25,6 +31,8 @@ import java.util.Map;
 /**
  * Spring Cache configuration with Redis backend.
  * Provides centralized cache management with TTL settings for different cache regions.
+ * Unless disabled, each node serves hits from a local Caffeine cache in front of Redis and
+ * drops local entries when another node announces a change over Redis pub/sub.
  * 
  * @author Payment Gateway Team
  * @version 1.0.0
@@ -35,10 +43,45 @@ import java.util.Map;
 public class CacheConfig {
 
     /**
-     * Configure Redis-based cache manager with custom TTL settings.
+     * Configure the cache manager: Redis with custom TTL settings, behind a local cache when enabled.
      */
     @Bean
-    public CacheManager cacheManager(RedisConnectionFactory connectionFactory) {
+    public CacheManager cacheManager(RedisConnectionFactory connectionFactory, CacheProperties cacheProperties,
+                                     MeterRegistry meterRegistry) {
+        if (!cacheProperties.getLocal().isEnabled()) {
+            return redisCacheManager(connectionFactory, true);
+        }
+
+        // The two-level manager applies transaction awareness around both levels
+        RedisCacheManager redisCacheManager = redisCacheManager(connectionFactory, false);
+        redisCacheManager.afterPropertiesSet();
+
+        TwoLevelCacheManager cacheManager = new TwoLevelCacheManager(redisCacheManager,
+                new StringRedisTemplate(connectionFactory), cacheProperties.getLocal().getInvalidationChannel(),
+                localCacheSpecs(), localCacheSpec(CacheConstants.DEFAULT_L1_MAX_SIZE, Duration.ofHours(1).toSeconds()),
+                meterRegistry);
+        cacheManager.setTransactionAware(true);
+        return cacheManager;
+    }
+
+    /**
+     * Subscribe to cache invalidations published by other nodes.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "app.cache.local.enabled", havingValue = "true", matchIfMissing = true)
+    public RedisMessageListenerContainer cacheInvalidationListenerContainer(RedisConnectionFactory connectionFactory,
+                                                                            CacheManager cacheManager,
+                                                                            CacheProperties cacheProperties) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        if (cacheManager instanceof TwoLevelCacheManager twoLevelCacheManager) {
+            container.addMessageListener(twoLevelCacheManager,
+                    new ChannelTopic(cacheProperties.getLocal().getInvalidationChannel()));
+        }
+        return container;
+    }
+
+    private RedisCacheManager redisCacheManager(RedisConnectionFactory connectionFactory, boolean transactionAware) {
         // Create ObjectMapper with polymorphic type handling for security
         PolymorphicTypeValidator ptv = BasicPolymorphicTypeValidator.builder()
                 .allowIfBaseType(Object.class)
@@ -89,10 +132,39 @@ public class CacheConfig {
         cacheConfigurations.put(CacheConstants.ANALYTICS_CACHE, 
                 defaultConfig.entryTtl(Duration.ofSeconds(CacheConstants.ANALYTICS_CACHE_TTL)));
 
-        return RedisCacheManager.builder(connectionFactory)
+        RedisCacheManager.RedisCacheManagerBuilder builder = RedisCacheManager.builder(connectionFactory)
                 .cacheDefaults(defaultConfig)
-                .withInitialCacheConfigurations(cacheConfigurations)
-                .transactionAware()
-                .build();
+                .withInitialCacheConfigurations(cacheConfigurations);
+        if (transactionAware) {
+            builder.transactionAware();
+        }
+        return builder.build();
+    }
+
+    /**
+     * Local cache sizes per cache; local entries never outlive the Redis TTL or L1_MAX_TTL.
+     */
+    private static Map<String, TwoLevelCacheManager.LocalCacheSpec> localCacheSpecs() {
+        Map<String, TwoLevelCacheManager.LocalCacheSpec> specs = new HashMap<>();
+        specs.put(CacheConstants.API_KEY_VALIDATION_CACHE,
+                localCacheSpec(CacheConstants.API_KEY_L1_MAX_SIZE, CacheConstants.API_KEY_CACHE_TTL));
+        specs.put(CacheConstants.CLIENT_PERMISSIONS_CACHE,
+                localCacheSpec(CacheConstants.PERMISSIONS_L1_MAX_SIZE, CacheConstants.PERMISSIONS_CACHE_TTL));
+        specs.put(CacheConstants.CUSTOMER_PROFILES_CACHE,
+                localCacheSpec(CacheConstants.CUSTOMER_L1_MAX_SIZE, CacheConstants.CUSTOMER_CACHE_TTL));
+        specs.put(CacheConstants.SUBSCRIPTION_PLANS_CACHE,
+                localCacheSpec(CacheConstants.SUBSCRIPTION_PLAN_L1_MAX_SIZE, CacheConstants.SUBSCRIPTION_PLAN_CACHE_TTL));
+        specs.put(CacheConstants.PAYMENT_METHODS_CACHE,
+                localCacheSpec(CacheConstants.PAYMENT_METHOD_L1_MAX_SIZE, CacheConstants.PAYMENT_METHOD_CACHE_TTL));
+        specs.put(CacheConstants.USER_DETAILS_CACHE,
+                localCacheSpec(CacheConstants.USER_L1_MAX_SIZE, CacheConstants.USER_CACHE_TTL));
+        specs.put(CacheConstants.ANALYTICS_CACHE,
+                localCacheSpec(CacheConstants.ANALYTICS_L1_MAX_SIZE, CacheConstants.ANALYTICS_CACHE_TTL));
+        return specs;
+    }
+
+    private static TwoLevelCacheManager.LocalCacheSpec localCacheSpec(long maximumSize, long ttlSeconds) {
+        return new TwoLevelCacheManager.LocalCacheSpec(maximumSize,
+                Duration.ofSeconds(Math.min(ttlSeconds, CacheConstants.L1_MAX_TTL)));
     }
 }
@@ -0,0 +1,222 @@
+package com.talentica.paymentgateway.config.cache;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+
+/**
+ * Cache that serves reads from a local Caffeine cache and falls back to a shared remote cache.
+ *
+ * Writes and evictions go to the remote cache first, then to the local one, and are then
+ * announced so that other nodes drop their local copy. Values loaded from the remote cache
+ * are kept locally until they expire or an invalidation arrives.
+ *
+ * Local entries are keyed by the string form of the cache key, which is also how the
+ * Redis cache builds its keys, so an invalidation names the same entry on every node.
+ *
+ * @author Payment Gateway Team
+ * @version 1.0.0
+ */
+public class TwoLevelCache implements Cache {
+
+    private final String name;
+    private final com.github.benmanes.caffeine.cache.Cache<String, Object> local;
+    private final Cache remote;
+    private final BiConsumer<String, String> invalidationPublisher;
+
+    private final LevelStats localStats = new LevelStats();
+    private final LevelStats remoteStats = new LevelStats();
+
+    /**
+     * @param invalidationPublisher Called with the cache name and the changed key, or a null key when the cache was cleared
+     */
+    TwoLevelCache(String name, com.github.benmanes.caffeine.cache.Cache<String, Object> local, Cache remote,
+                  BiConsumer<String, String> invalidationPublisher) {
+        this.name = name;
+        this.local = local;
+        this.remote = remote;
+        this.invalidationPublisher = invalidationPublisher;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return local;
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        String localKey = localKey(key);
+        Object value = local.getIfPresent(localKey);
+        if (value != null) {
+            localStats.hits.increment();
+            return new SimpleValueWrapper(value);
+        }
+        localStats.misses.increment();
+
+        ValueWrapper wrapper = remote.get(key);
+        if (wrapper == null) {
+            remoteStats.misses.increment();
+            return null;
+        }
+        remoteStats.hits.increment();
+        if (wrapper.get() != null) {
+            local.put(localKey, wrapper.get());
+        }
+        return wrapper;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        Object value = wrapper != null ? wrapper.get() : null;
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException(
+                "Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        String localKey = localKey(key);
+        Object value = local.getIfPresent(localKey);
+        if (value != null) {
+            localStats.hits.increment();
+            return (T) value;
+        }
+        localStats.misses.increment();
+
+        boolean[] loaded = new boolean[1];
+        T result = remote.get(key, () -> {
+            loaded[0] = true;
+            return valueLoader.call();
+        });
+        (loaded[0] ? remoteStats.misses : remoteStats.hits).increment();
+        if (result != null) {
+            local.put(localKey, result);
+        }
+        return result;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        remote.put(key, value);
+        String localKey = localKey(key);
+        if (value != null) {
+            local.put(localKey, value);
+        } else {
+            local.invalidate(localKey);
+        }
+        invalidationPublisher.accept(name, localKey);
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        ValueWrapper existing = remote.putIfAbsent(key, value);
+        String localKey = localKey(key);
+        if (existing == null) {
+            if (value != null) {
+                local.put(localKey, value);
+            }
+            invalidationPublisher.accept(name, localKey);
+        } else if (existing.get() != null) {
+            local.put(localKey, existing.get());
+        }
+        return existing;
+    }
+
+    @Override
+    public void evict(Object key) {
+        remote.evict(key);
+        String localKey = localKey(key);
+        local.invalidate(localKey);
+        invalidationPublisher.accept(name, localKey);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        boolean evicted = remote.evictIfPresent(key);
+        String localKey = localKey(key);
+        local.invalidate(localKey);
+        invalidationPublisher.accept(name, localKey);
+        return evicted;
+    }
+
+    @Override
+    public void clear() {
+        remote.clear();
+        local.invalidateAll();
+        invalidationPublisher.accept(name, null);
+    }
+
+    @Override
+    public boolean invalidate() {
+        boolean invalidated = remote.invalidate();
+        local.invalidateAll();
+        invalidationPublisher.accept(name, null);
+        return invalidated;
+    }
+
+    /**
+     * Drops a local entry after another node changed it.
+     */
+    void evictLocal(String localKey) {
+        local.invalidate(localKey);
+    }
+
+    /**
+     * Drops all local entries after another node cleared the cache.
+     */
+    void clearLocal() {
+        local.invalidateAll();
+    }
+
+    long localSize() {
+        return local.estimatedSize();
+    }
+
+    LevelStats localStats() {
+        return localStats;
+    }
+
+    LevelStats remoteStats() {
+        return remoteStats;
+    }
+
+    private static String localKey(Object key) {
+        return String.valueOf(key);
+    }
+
+    /**
+     * Hit and miss counts of one cache level. Remote counts cover local misses only.
+     */
+    static final class LevelStats {
+
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+
+        long hits() {
+            return hits.sum();
+        }
+
+        long misses() {
+            return misses.sum();
+        }
+
+        double hitRatio() {
+            long hitCount = hits.sum();
+            long total = hitCount + misses.sum();
+            return total == 0 ? 0.0 : (double) hitCount / total;
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package com.talentica.paymentgateway.config.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.transaction.AbstractTransactionSupportingCacheManager;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Cache manager that puts a size-bounded local cache in front of each cache of a shared manager.
+ *
+ * Every node keeps its own local copies, so a change made on one node is published on a Redis
+ * channel and the other nodes drop the entry on receipt. Pub/sub delivery is best effort: a
+ * node that misses a message serves the old value until its local entry expires, which is why
+ * local TTLs are kept short.
+ *
+ * Hits and misses are counted per cache and level and published with the hit ratio.
+ *
+ * @author Payment Gateway Team
+ * @version 1.0.0
+ */
+@Slf4j
+public class TwoLevelCacheManager extends AbstractTransactionSupportingCacheManager implements MessageListener {
+
+    static final String LEVEL_LOCAL = "l1";
+    static final String LEVEL_REMOTE = "l2";
+
+    private final CacheManager remote;
+    private final StringRedisTemplate redisTemplate;
+    private final String channel;
+    private final Map<String, LocalCacheSpec> specs;
+    private final LocalCacheSpec defaultSpec;
+    private final MeterRegistry meterRegistry;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final Map<String, TwoLevelCache> twoLevelCaches = new ConcurrentHashMap<>();
+
+    /**
+     * @param remote Initialized manager of the shared caches
+     * @param redisTemplate Template used to publish invalidations
+     * @param channel Redis channel for invalidations
+     * @param specs Local cache sizing by cache name
+     * @param defaultSpec Local cache sizing for caches without their own spec
+     */
+    public TwoLevelCacheManager(CacheManager remote, StringRedisTemplate redisTemplate, String channel,
+                                Map<String, LocalCacheSpec> specs, LocalCacheSpec defaultSpec,
+                                MeterRegistry meterRegistry) {
+        this.remote = remote;
+        this.redisTemplate = redisTemplate;
+        this.channel = channel;
+        this.specs = Map.copyOf(specs);
+        this.defaultSpec = defaultSpec;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected Collection<? extends Cache> loadCaches() {
+        List<Cache> caches = new ArrayList<>();
+        for (String name : remote.getCacheNames()) {
+            Cache cache = remote.getCache(name);
+            if (cache != null) {
+                caches.add(twoLevel(cache));
+            }
+        }
+        return caches;
+    }
+
+    @Override
+    protected Cache getMissingCache(String name) {
+        Cache cache = remote.getCache(name);
+        return cache != null ? twoLevel(cache) : null;
+    }
+
+    /**
+     * Applies an invalidation published by another node to the local caches.
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        CacheInvalidation invalidation = CacheInvalidation.decode(new String(message.getBody(), StandardCharsets.UTF_8));
+        if (invalidation == null) {
+            log.warn("Ignoring malformed cache invalidation on channel {}", channel);
+            return;
+        }
+        if (nodeId.equals(invalidation.origin())) {
+            return;
+        }
+        TwoLevelCache cache = twoLevelCaches.get(invalidation.cacheName());
+        if (cache == null) {
+            return;
+        }
+        if (invalidation.key() == null) {
+            cache.clearLocal();
+        } else {
+            cache.evictLocal(invalidation.key());
+        }
+    }
+
+    String nodeId() {
+        return nodeId;
+    }
+
+    private TwoLevelCache twoLevel(Cache remoteCache) {
+        String name = remoteCache.getName();
+        return twoLevelCaches.computeIfAbsent(name, key -> {
+            LocalCacheSpec spec = specs.getOrDefault(name, defaultSpec);
+            TwoLevelCache cache = new TwoLevelCache(name,
+                Caffeine.newBuilder()
+                    .maximumSize(spec.maximumSize())
+                    .expireAfterWrite(spec.timeToLive())
+                    .build(),
+                remoteCache, this::publish);
+            registerMetrics(cache);
+            return cache;
+        });
+    }
+
+    private void publish(String cacheName, String key) {
+        try {
+            redisTemplate.convertAndSend(channel, new CacheInvalidation(nodeId, cacheName, key).encode());
+        } catch (Exception e) {
+            // Other nodes keep their local copy until it expires
+            log.warn("Could not publish cache invalidation - Cache: {}, Error: {}", cacheName, e.getMessage());
+        }
+    }
+
+    private void registerMetrics(TwoLevelCache cache) {
+        registerLevel(cache, LEVEL_LOCAL, cache.localStats());
+        registerLevel(cache, LEVEL_REMOTE, cache.remoteStats());
+        Gauge.builder("cache.level.size", cache, TwoLevelCache::localSize)
+                .tag("cache", cache.getName())
+                .tag("level", LEVEL_LOCAL)
+                .description("Estimated number of entries in the local cache")
+                .register(meterRegistry);
+    }
+
+    private void registerLevel(TwoLevelCache cache, String level, TwoLevelCache.LevelStats stats) {
+        countRequests(cache.getName(), level, "hit", stats, TwoLevelCache.LevelStats::hits);
+        countRequests(cache.getName(), level, "miss", stats, TwoLevelCache.LevelStats::misses);
+        Gauge.builder("cache.level.hit.ratio", stats, TwoLevelCache.LevelStats::hitRatio)
+                .tag("cache", cache.getName())
+                .tag("level", level)
+                .description("Share of lookups answered by this cache level")
+                .register(meterRegistry);
+    }
+
+    private void countRequests(String cacheName, String level, String result, TwoLevelCache.LevelStats stats,
+                               ToDoubleFunction<TwoLevelCache.LevelStats> count) {
+        FunctionCounter.builder("cache.level.requests", stats, count)
+                .tag("cache", cacheName)
+                .tag("level", level)
+                .tag("result", result)
+                .description("Cache lookups by level and result")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Size bound and time to live of a local cache.
+     */
+    public record LocalCacheSpec(long maximumSize, Duration timeToLive) {
+    }
+
+    /**
+     * Invalidation message: the publishing node, the cache and the changed key, or no key when
+     * the whole cache was cleared. Encoded as {@code origin|cache|Kkey} or {@code origin|cache|C}.
+     */
+    record CacheInvalidation(String origin, String cacheName, String key) {
+
+        String encode() {
+            return origin + '|' + cacheName + '|' + (key == null ? "C" : "K" + key);
+        }
+
+        static CacheInvalidation decode(String message) {
+            String[] parts = message.split("\\|", 3);
+            if (parts.length != 3 || parts[2].isEmpty()) {
+                return null;
+            }
+            return switch (parts[2].charAt(0)) {
+                case 'C' -> new CacheInvalidation(parts[0], parts[1], null);
+                case 'K' -> new CacheInvalidation(parts[0], parts[1], parts[2].substring(1));
+                default -> null;
+            };
+        }
+    }
+}
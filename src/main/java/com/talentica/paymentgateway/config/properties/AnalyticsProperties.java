@@ -0,0 +1,88 @@
+package com.talentica.paymentgateway.config.properties;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.validation.annotation.Validated;
+
+/**
+ * Type-safe configuration properties for analytics.
+ *
+ * @author Payment Gateway Team
+ * @version 1.0.0
+ */
+@Data
+@Validated
+@Configuration
+@ConfigurationProperties(prefix = "app.analytics")
+public class AnalyticsProperties {
+
+    /**
+     * Pre-aggregated transaction rollup settings.
+     */
+    @NotNull
+    private Rollups rollups = new Rollups();
+
+    /**
+     * Cursor-paginated transaction search settings.
+     */
+    @NotNull
+    private Search search = new Search();
+
+    @Data
+    public static class Rollups {
+        /**
+         * Maintain and read the hourly/daily rollup tables. When disabled, analytics
+         * aggregates the transactions table directly.
+         */
+        private boolean enabled = true;
+
+        /**
+         * How often buffered rollup deltas are written to the database.
+         */
+        @Min(100)
+        private long flushIntervalMs = 1000;
+
+        /**
+         * Hours whose transactions changed more recently than this are left alone by the
+         * backfill and the consistency checker, since their deltas may still be in flight.
+         * Must comfortably exceed the flush interval.
+         */
+        @Min(1)
+        private int quietPeriodMinutes = 10;
+
+        /**
+         * Number of hourly buckets rebuilt per backfill transaction.
+         */
+        @Min(1)
+        private int backfillChunkHours = 24;
+
+        /**
+         * How often the consistency checker runs; 0 disables the periodic check.
+         */
+        @Min(0)
+        private int checkIntervalMinutes = 60;
+
+        /**
+         * How far back the periodic consistency check looks.
+         */
+        @Min(1)
+        private int checkLookbackHours = 48;
+
+        /**
+         * Rebuild drifted buckets automatically after a periodic check.
+         */
+        private boolean repairEnabled = true;
+    }
+
+    @Data
+    public static class Search {
+        /**
+         * Exact counts stop at this many rows; larger totals are reported as a lower bound.
+         */
+        @Min(1)
+        private long exactCountLimit = 10000;
+    }
+}
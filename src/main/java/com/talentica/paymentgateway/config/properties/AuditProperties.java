@@ -0,0 +1,94 @@
+package com.talentica.paymentgateway.config.properties;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.validation.annotation.Validated;
+
+/**
+ * Type-safe configuration properties for the audit trail.
+ *
+ * @author Payment Gateway Team
+ * @version 1.0.0
+ */
+@Data
+@Validated
+@Configuration
+@ConfigurationProperties(prefix = "app.audit")
+public class AuditProperties {
+
+    /**
+     * Asynchronous writer of audit events to the audit_logs table.
+     */
+    @NotNull
+    private Writer writer = new Writer();
+
+    /**
+     * What a request thread does when the audit buffer is full.
+     */
+    public enum OverflowPolicy {
+        /** Wait for space, up to the block timeout, then drop. */
+        BLOCK,
+        /** Drop the event and count it. */
+        DROP,
+        /** Append the event to the spill directory for later replay. */
+        SPILL
+    }
+
+    @Data
+    public static class Writer {
+        /**
+         * Write audit events to the database. When disabled, requests are audited in the log only.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Events buffered in memory between request threads and the writer; rounded up to a power of two.
+         */
+        @Min(16)
+        private int bufferSize = 8192;
+
+        /**
+         * Events per JDBC batch insert. A full batch is written immediately.
+         */
+        @Min(1)
+        private int batchSize = 500;
+
+        /**
+         * Longest time a buffered event waits before a partial batch is written.
+         */
+        @Min(1)
+        private long flushIntervalMs = 200;
+
+        @NotNull
+        private OverflowPolicy overflowPolicy = OverflowPolicy.SPILL;
+
+        /**
+         * Longest time a request thread waits for buffer space under the BLOCK policy.
+         */
+        @Min(0)
+        private long blockTimeoutMs = 50;
+
+        /**
+         * Directory of spilled events: overflow under the SPILL policy and batches the database
+         * rejected. Files left here are replayed on startup.
+         */
+        @NotBlank
+        private String spillDirectory = "data/audit-spill";
+
+        /**
+         * Spilled bytes kept on disk; further events are dropped until the files are replayed.
+         */
+        @Min(1)
+        private long spillMaxBytes = 256L * 1024 * 1024;
+
+        /**
+         * How often spilled files are retried while the writer is idle.
+         */
+        @Min(1000)
+        private long spillReplayIntervalMs = 30_000;
+    }
+}
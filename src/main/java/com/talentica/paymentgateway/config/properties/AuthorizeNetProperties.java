@@ -1,6 +1,10 @@
 package com.talentica.paymentgateway.config.properties;
 
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
 import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
@@ -52,6 +56,30 @@ public class AuthorizeNetProperties {
      */
     private boolean enableLogging = false;
 
+    /**
+     * Background provisioning of CIM customer profiles.
+     */
+    @NotNull
+    private ProfileProvisioning profileProvisioning = new ProfileProvisioning();
+
+    /**
+     * Shared HTTP client all gateway calls go through.
+     */
+    @NotNull
+    private Transport transport = new Transport();
+
+    /**
+     * Hedged requests for idempotent reads.
+     */
+    @NotNull
+    private Hedging hedging = new Hedging();
+
+    /**
+     * Cache of transaction details looked up at Authorize.Net.
+     */
+    @NotNull
+    private DetailsCache detailsCache = new DetailsCache();
+
     /**
      * Check if running in sandbox mode.
      */
@@ -65,4 +93,230 @@ public class AuthorizeNetProperties {
     public boolean isProduction() {
         return "PRODUCTION".equalsIgnoreCase(environment);
     }
+
+    @Data
+    public static class ProfileProvisioning {
+        /**
+         * Create CIM profiles for paying customers in the background. When disabled, profiles
+         * are only created through the customer API.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Threads making createCustomerProfile calls.
+         */
+        @Min(1)
+        private int workerThreads = 2;
+
+        /**
+         * Customers queued or in flight at most; further requests are left to the sweep.
+         */
+        @Min(1)
+        private int maxPending = 10000;
+
+        /**
+         * Attempts per provisioning request, including the first.
+         */
+        @Min(1)
+        private int maxAttempts = 5;
+
+        /**
+         * Delay before the first retry.
+         */
+        @Min(1)
+        private long initialBackoffMs = 1000;
+
+        /**
+         * Upper bound for the delay between retries.
+         */
+        @Min(1)
+        private long maxBackoffMs = 60000;
+
+        /**
+         * Factor applied to the delay after each failed attempt.
+         */
+        @DecimalMin("1.0")
+        private double backoffMultiplier = 2.0;
+
+        /**
+         * How often customers with transactions but no profile are looked up and queued,
+         * covering requests lost to a restart; 0 disables the sweep.
+         */
+        @Min(0)
+        private int sweepIntervalMinutes = 15;
+
+        /**
+         * Customers created more recently than this are left to their own provisioning request.
+         */
+        @Min(0)
+        private int sweepGraceMinutes = 10;
+
+        /**
+         * Customers read per sweep query.
+         */
+        @Min(1)
+        private int sweepPageSize = 500;
+
+        /**
+         * How long the sweep leaves alone a customer whose attempts were all used up.
+         */
+        @Min(0)
+        private int exhaustedCooldownMinutes = 1440;
+    }
+
+    @Data
+    public static class Transport {
+        /**
+         * Time allowed to open a TCP connection to the gateway.
+         */
+        @Min(1)
+        private int connectTimeoutMs = 5000;
+
+        /**
+         * Longest wait for response data once a request was sent. A createTransaction call
+         * that times out may still have been processed; pending recovery resolves it.
+         */
+        @Min(1)
+        private int readTimeoutMs = 30000;
+
+        /**
+         * Longest wait for a free pooled connection before the call fails.
+         */
+        @Min(1)
+        private int connectionRequestTimeoutMs = 2000;
+
+        /**
+         * Connections kept open to the gateway at most.
+         */
+        @Min(1)
+        private int maxConnections = 50;
+
+        /**
+         * How long an idle connection is kept for reuse.
+         */
+        @Min(1)
+        private int keepAliveSeconds = 30;
+
+        /**
+         * Pooled connections idle for longer than this are checked before reuse.
+         */
+        @Min(1)
+        private int validateAfterInactivityMs = 2000;
+
+        /**
+         * Connections are closed after this long, so DNS changes of the gateway are picked up.
+         */
+        @Min(1)
+        private int connectionTimeToLiveMinutes = 10;
+
+        /**
+         * TLS sessions cached for resumption; resumed handshakes skip the key exchange.
+         */
+        @Min(1)
+        private int tlsSessionCacheSize = 100;
+
+        /**
+         * How long a cached TLS session may be resumed.
+         */
+        @Min(1)
+        private int tlsSessionTimeoutSeconds = 3600;
+    }
+
+    @Data
+    public static class Hedging {
+        /**
+         * Send a second request for slow idempotent reads (transaction details, customer
+         * profiles) and use whichever response arrives first. Writes are never hedged.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Percentile of recent response times after which the hedge is sent.
+         */
+        @DecimalMin("50.0")
+        @DecimalMax("99.9")
+        private double delayPercentile = 95.0;
+
+        /**
+         * Lower bound for the hedge delay.
+         */
+        @Min(1)
+        private long minDelayMs = 50;
+
+        /**
+         * Upper bound for the hedge delay.
+         */
+        @Min(1)
+        private long maxDelayMs = 2000;
+
+        /**
+         * Hedge delay used until enough response times were observed.
+         */
+        @Min(1)
+        private long initialDelayMs = 1000;
+
+        /**
+         * Response times needed before the delay follows the percentile.
+         */
+        @Min(1)
+        private int minSamples = 50;
+
+        /**
+         * Recent response times kept per operation.
+         */
+        @Min(1)
+        private int windowSize = 1000;
+
+        /**
+         * Hedges sent at most, as a percentage of reads.
+         */
+        @DecimalMin("0.0")
+        @DecimalMax("100.0")
+        private double maxHedgePercent = 5.0;
+
+        /**
+         * Unused hedges that may accumulate, allowing short bursts above the percentage.
+         */
+        @Min(1)
+        private int burst = 10;
+    }
+
+    @Data
+    public static class DetailsCache {
+        /**
+         * Serve transaction detail lookups from memory where possible.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Transactions kept; least valuable entries are evicted beyond this.
+         */
+        @Min(1)
+        private long maximumSize = 10000;
+
+        /**
+         * How long details of a transaction that can still change (pending capture,
+         * settlement or review) are served before being looked up again. Details of
+         * settled, refunded, voided or declined transactions never expire.
+         */
+        @Min(0)
+        private long pendingTtlSeconds = 30;
+
+        /**
+         * Load the details of transactions named in payment webhooks ahead of lookups.
+         */
+        private boolean warmFromWebhooks = true;
+
+        /**
+         * Threads loading details for webhooks.
+         */
+        @Min(1)
+        private int warmThreads = 2;
+
+        /**
+         * Webhook loads waiting for a thread; further ones are dropped.
+         */
+        @Min(1)
+        private int warmQueueCapacity = 1000;
+    }
 }
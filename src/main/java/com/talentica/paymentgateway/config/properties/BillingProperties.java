@@ -0,0 +1,84 @@
+package com.talentica.paymentgateway.config.properties;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.validation.annotation.Validated;
+
+/**
+ * Type-safe configuration properties for subscription billing.
+ *
+ * @author Payment Gateway Team
+ * @version 1.0.0
+ */
+@Data
+@Validated
+@Configuration
+@ConfigurationProperties(prefix = "app.billing")
+public class BillingProperties {
+
+    /**
+     * Partitioned billing run settings.
+     */
+    @NotNull
+    private Run run = new Run();
+
+    @Data
+    public static class Run {
+        /**
+         * Bill due subscriptions through checkpointed, partitioned billing runs.
+         */
+        private boolean enabled = true;
+
+        /**
+         * How often each node looks for a run to start or join.
+         */
+        @Min(1)
+        private int pollIntervalSeconds = 60;
+
+        /**
+         * Number of subscription id ranges a new run is split into. Nodes lease whole
+         * partitions, so this bounds how many nodes can work on one run.
+         */
+        @Min(1)
+        @Max(4096)
+        private int partitions = 16;
+
+        /**
+         * Partitions one node works on at the same time.
+         */
+        @Min(1)
+        private int concurrentPartitions = 2;
+
+        /**
+         * Subscriptions claimed per keyset page; progress is checkpointed after each page.
+         */
+        @Min(1)
+        private int chunkSize = 200;
+
+        /**
+         * Subscriptions billed concurrently per node. No connection is held during a
+         * gateway call; each borrows one for its short claim and record transactions.
+         */
+        @Min(1)
+        private int parallelism = 4;
+
+        /**
+         * How long a partition lease lasts without a checkpoint before another node may
+         * take the partition over.
+         */
+        @Min(30)
+        private int leaseSeconds = 300;
+
+        /**
+         * How long a claim on one subscription holds while it is charged. Must exceed the
+         * longest purchase, including a wait on a duplicate with the same idempotency key,
+         * or another attempt may claim the subscription and replay the charge.
+         */
+        @Min(60)
+        private int subscriptionClaimSeconds = 300;
+    }
+}
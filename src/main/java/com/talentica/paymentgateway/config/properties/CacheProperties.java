@@ -0,0 +1,43 @@
+package com.talentica.paymentgateway.config.properties;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.validation.annotation.Validated;
+
+/**
+ * Type-safe configuration properties for the application caches.
+ * Cache names, sizes and TTLs are defined in CacheConstants.
+ *
+ * @author Payment Gateway Team
+ * @version 1.0.0
+ */
+@Data
+@Validated
+@Configuration
+@ConfigurationProperties(prefix = "app.cache")
+public class CacheProperties {
+
+    /**
+     * Per-node local cache in front of Redis.
+     */
+    @NotNull
+    private Local local = new Local();
+
+    @Data
+    public static class Local {
+        /**
+         * Serve cache hits from an in-process cache before going to Redis.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Redis pub/sub channel on which nodes announce evictions and updates, so that
+         * the other nodes drop their local copies.
+         */
+        @NotBlank
+        private String invalidationChannel = "cache:invalidation";
+    }
+}
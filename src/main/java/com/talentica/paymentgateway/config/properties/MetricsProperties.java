@@ -0,0 +1,63 @@
+package com.talentica.paymentgateway.config.properties;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.validation.annotation.Validated;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Type-safe configuration properties for application metrics.
+ *
+ * @author Payment Gateway Team
+ * @version 1.0.0
+ */
+@Data
+@Validated
+@Configuration
+@ConfigurationProperties(prefix = "app.metrics")
+public class MetricsProperties {
+
+    /**
+     * Limits on the tag values of meters tagged with request-supplied data.
+     */
+    @NotNull
+    private Cardinality cardinality = new Cardinality();
+
+    @Data
+    public static class Cardinality {
+        /**
+         * Hard limit on the number of series registered through the bounded meter cache.
+         * Further tag combinations are recorded under the "other" series.
+         */
+        @Min(1)
+        private int maxSeries = 5000;
+
+        /**
+         * Distinct values kept per tag; less frequent values are recorded as "other".
+         */
+        @Min(1)
+        private int defaultTopK = 50;
+
+        /**
+         * Per-tag overrides of the top-K limit, keyed by tag name.
+         */
+        private Map<String, Integer> topK = new HashMap<>();
+
+        /**
+         * Per-tag allow-lists, keyed by tag name. Values outside the list are recorded as "other".
+         */
+        private Map<String, List<String>> allowedValues = new HashMap<>();
+
+        /**
+         * How often the top-K values of each tag are re-ranked against recent traffic.
+         */
+        @Min(1)
+        private int rebalanceIntervalSeconds = 300;
+    }
+}
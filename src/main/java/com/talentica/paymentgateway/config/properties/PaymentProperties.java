@@ -0,0 +1,76 @@
+package com.talentica.paymentgateway.config.properties;
+
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.validation.annotation.Validated;
+
+/**
+ * Type-safe configuration properties for payment processing.
+ *
+ * @author Payment Gateway Team
+ * @version 1.0.0
+ */
+@Data
+@Validated
+@Configuration
+@ConfigurationProperties(prefix = "app.payment")
+public class PaymentProperties {
+
+    /**
+     * Coalescing of concurrent requests that share an idempotency key.
+     */
+    @NotNull
+    private Idempotency idempotency = new Idempotency();
+
+    @Data
+    public static class Idempotency {
+        /**
+         * Let only the first of concurrent requests with the same idempotency key reach the
+         * gateway; the others wait for and replay its response.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Claim keys in Redis so duplicates on other nodes wait too. Without it duplicates
+         * are coalesced per node, and across nodes by the unique key in the database.
+         */
+        private boolean redisEnabled = true;
+
+        /**
+         * How long a claim on a key holds without a result. Must exceed the longest gateway
+         * call, including connect and read timeouts, or a slow attempt loses its claim.
+         */
+        @Min(1)
+        private int leaseSeconds = 90;
+
+        /**
+         * How long a response is kept in Redis for replay. Later retries are answered from
+         * the stored transaction.
+         */
+        @Min(1)
+        private int resultTtlMinutes = 1440;
+
+        /**
+         * How long a duplicate waits for the first request before failing with an
+         * in-progress error. At least the lease, so a duplicate does not give up on a
+         * request that may still be at the gateway.
+         */
+        @Min(1)
+        private int waitTimeoutSeconds = 90;
+
+        /**
+         * How often a duplicate on another node checks Redis for the result.
+         */
+        @Min(1)
+        private int pollIntervalMs = 100;
+
+        @AssertTrue(message = "wait-timeout-seconds must be at least lease-seconds")
+        public boolean isWaitCoveringLease() {
+            return waitTimeoutSeconds >= leaseSeconds;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.talentica.paymentgateway.config.properties;
+
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.validation.annotation.Validated;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Type-safe configuration properties for request/response logging.
+ *
+ * @author Payment Gateway Team
+ * @version 1.0.0
+ */
+@Data
+@Validated
+@Configuration
+@ConfigurationProperties(prefix = "app.request-logging")
+public class RequestLoggingProperties {
+
+    /**
+     * Body sampling on high-volume endpoints.
+     */
+    @NotNull
+    private BodySampling bodySampling = new BodySampling();
+
+    @Data
+    public static class BodySampling {
+        /**
+         * Log the masked response body for only a sample of the requests to the listed paths.
+         * Request and response metadata is always logged.
+         */
+        private boolean enabled = false;
+
+        /**
+         * URI prefixes of the sampled endpoints.
+         */
+        private List<String> pathPrefixes = new ArrayList<>();
+
+        /**
+         * Fraction of requests to the sampled endpoints whose body is logged.
+         */
+        @DecimalMin("0.0")
+        @DecimalMax("1.0")
+        private double rate = 0.01;
+    }
+}
@@ -7,6 +7,9 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.validation.annotation.Validated;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Type-safe configuration properties for webhook processing.
  * Replaces @Value annotations with validated configuration beans.
@@ -50,6 +53,18 @@ public class WebhookProperties {
     @NotNull
     private Cleanup cleanup = new Cleanup();
 
+    /**
+     * Outbound delivery circuit breaker settings.
+     */
+    @NotNull
+    private CircuitBreaker circuitBreaker = new CircuitBreaker();
+
+    /**
+     * Inbound webhook inbox settings.
+     */
+    @NotNull
+    private Inbox inbox = new Inbox();
+
     /**
      * Signature verification configuration.
      */
@@ -69,6 +84,11 @@ public class WebhookProperties {
          * Enable/disable signature verification.
          */
         private boolean enabled = true;
+
+        /**
+         * Previous secrets still accepted while a secret rotation is in progress.
+         */
+        private List<String> additionalSecrets = new ArrayList<>();
     }
 
     /**
@@ -86,6 +106,22 @@ public class WebhookProperties {
          */
         @Min(1)
         private int windowMinutes = 60;
+
+        /**
+         * Use Redis SET NX as the cluster-wide record of seen events when Redis is available.
+         */
+        private boolean redisEnabled = true;
+
+        /**
+         * Events expected per detection window; sizes the in-memory Bloom filter.
+         */
+        @Min(1)
+        private int bloomExpectedInsertions = 100000;
+
+        /**
+         * Target false-positive rate of the in-memory Bloom filter.
+         */
+        private double bloomFalsePositiveRate = 0.001;
     }
 
     /**
@@ -139,6 +175,207 @@ public class WebhookProperties {
          */
         @Min(1)
         private int timeoutSeconds = 30;
+
+        /**
+         * Event-driven retry scheduler settings.
+         */
+        @NotNull
+        private Scheduler scheduler = new Scheduler();
+    }
+
+    /**
+     * Event-driven retry scheduler configuration.
+     */
+    @Data
+    public static class Scheduler {
+        /**
+         * Enable the in-memory delay queue scheduler (replaces the periodic retry sweep).
+         */
+        private boolean enabled = true;
+
+        /**
+         * How often due retries are claimed from the database (in milliseconds).
+         */
+        @Min(100)
+        private long pollIntervalMs = 5000;
+
+        /**
+         * Claim retries due within this many seconds, so they fire on time from memory.
+         */
+        @Min(0)
+        private int lookaheadSeconds = 60;
+
+        /**
+         * How long claimed retries are hidden from other nodes (in seconds).
+         * Must exceed the lookahead plus the delivery timeout.
+         */
+        @Min(1)
+        private int leaseSeconds = 300;
+
+        /**
+         * Maximum rows claimed per database round trip.
+         */
+        @Min(1)
+        private int pageSize = 200;
+
+        /**
+         * Maximum retries held in memory on this node.
+         */
+        @Min(1)
+        private int maxQueued = 2000;
+
+        /**
+         * Maximum concurrent deliveries on this node.
+         */
+        @Min(1)
+        private int maxInFlight = 16;
+
+        /**
+         * Maximum concurrent deliveries to a single endpoint URL.
+         */
+        @Min(1)
+        private int maxConcurrentPerEndpoint = 2;
+
+        /**
+         * Delay before re-checking a retry whose endpoint is at its concurrency cap (in milliseconds).
+         */
+        @Min(1)
+        private long endpointBusyDelayMs = 1000;
+    }
+
+    /**
+     * Per-endpoint circuit breaker and bulkhead configuration for outbound delivery.
+     */
+    @Data
+    public static class CircuitBreaker {
+        /**
+         * Number of most recent calls per endpoint used to compute failure and slow-call rates.
+         */
+        @Min(1)
+        private int slidingWindowSize = 20;
+
+        /**
+         * Minimum calls in the window before the rates are evaluated.
+         */
+        @Min(1)
+        private int minimumCalls = 5;
+
+        /**
+         * Failure rate (percent) at which the breaker opens.
+         */
+        @Min(1)
+        private int failureRateThreshold = 50;
+
+        /**
+         * Calls slower than this (in milliseconds) count as slow.
+         */
+        @Min(1)
+        private long slowCallDurationMs = 5000;
+
+        /**
+         * Slow-call rate (percent) at which the breaker opens.
+         */
+        @Min(1)
+        private int slowCallRateThreshold = 80;
+
+        /**
+         * Time an open breaker rejects calls before allowing probes (in seconds).
+         */
+        @Min(0)
+        private int waitDurationOpenSeconds = 300;
+
+        /**
+         * Probe calls allowed while half-open; their outcome decides whether to close.
+         */
+        @Min(1)
+        private int halfOpenPermits = 2;
+
+        /**
+         * Maximum concurrent deliveries to a single endpoint (bulkhead).
+         */
+        @Min(1)
+        private int maxConcurrentCallsPerEndpoint = 4;
+
+        /**
+         * Time after which an unused endpoint's breaker and gauges are dropped (in minutes).
+         * Keep it above the open wait duration so an open breaker is not forgotten early.
+         */
+        @Min(1)
+        private int idleEvictionMinutes = 60;
+    }
+
+    /**
+     * Durable inbox for inbound Authorize.Net webhooks.
+     */
+    @Data
+    public static class Inbox {
+        /**
+         * Acknowledge webhooks once they are stored in the inbox and process them in the
+         * background; when disabled, webhooks are processed before responding.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Consumer threads draining the inbox on this node.
+         */
+        @Min(1)
+        private int consumers = 4;
+
+        /**
+         * Maximum events claimed per database round trip.
+         */
+        @Min(1)
+        private int batchSize = 100;
+
+        /**
+         * How long an idle consumer waits before polling again (in milliseconds).
+         * Events accepted on this node wake a consumer immediately.
+         */
+        @Min(10)
+        private long pollIntervalMs = 1000;
+
+        /**
+         * How long a claimed event is hidden from other consumers (in seconds).
+         */
+        @Min(1)
+        private int leaseSeconds = 60;
+
+        /**
+         * Processing attempts before an event is dead-lettered.
+         */
+        @Min(1)
+        private int maxAttempts = 10;
+
+        /**
+         * Delay before the first reprocessing attempt (in milliseconds); doubles per attempt.
+         */
+        @Min(1)
+        private long initialBackoffMs = 1000;
+
+        /**
+         * Upper bound for the reprocessing delay (in milliseconds).
+         */
+        @Min(1)
+        private long maxBackoffMs = 300000;
+
+        /**
+         * How often queue depth and lag are sampled (in seconds).
+         */
+        @Min(1)
+        private int lagSampleIntervalSeconds = 10;
+
+        /**
+         * How long processed events are kept (in hours). Redeliveries of an event still in
+         * the inbox are rejected as duplicates.
+         */
+        @Min(1)
+        private int retentionHours = 72;
+
+        /**
+         * Maximum processed events deleted per sampling tick.
+         */
+        @Min(1)
+        private int purgeBatchSize = 1000;
     }
 
     /**
@@ -162,5 +399,28 @@ public class WebhookProperties {
          */
         @Min(1)
         private int failedRetentionDays = 30;
+
+        /**
+         * Maximum rows deleted per purge statement (and per transaction).
+         */
+        @Min(1)
+        private int batchSize = 5000;
+
+        /**
+         * Pause between purge batches (in milliseconds) to limit I/O and replication lag.
+         */
+        @Min(0)
+        private long batchPauseMs = 100;
+
+        /**
+         * Time budget for a single cleanup run (in minutes); remaining rows wait for the next run.
+         */
+        @Min(1)
+        private int maxRunMinutes = 60;
+
+        /**
+         * Drop fully expired partitions when the webhooks table is range-partitioned.
+         */
+        private boolean partitionDropEnabled = true;
     }
 }
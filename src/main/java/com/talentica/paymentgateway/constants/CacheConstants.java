@@ -30,4 +30,18 @@ public final class CacheConstants {
     public static final long PAYMENT_METHOD_CACHE_TTL = 900; // 15 minutes
     public static final long USER_CACHE_TTL = 1800; // 30 minutes
     public static final long ANALYTICS_CACHE_TTL = 300; // 5 minutes
+
+    // Local (L1) cache sizes, in entries per node
+    public static final long API_KEY_L1_MAX_SIZE = 10000;
+    public static final long PERMISSIONS_L1_MAX_SIZE = 10000;
+    public static final long CUSTOMER_L1_MAX_SIZE = 5000;
+    public static final long SUBSCRIPTION_PLAN_L1_MAX_SIZE = 500;
+    public static final long PAYMENT_METHOD_L1_MAX_SIZE = 5000;
+    public static final long USER_L1_MAX_SIZE = 5000;
+    public static final long ANALYTICS_L1_MAX_SIZE = 200;
+    public static final long DEFAULT_L1_MAX_SIZE = 1000;
+
+    // Local (L1) entries expire after the cache TTL or this cap, whichever is shorter.
+    // Bounds how long a node can serve a stale value if an invalidation message is lost.
+    public static final long L1_MAX_TTL = 60; // 1 minute
 }
@@ -5,6 +5,10 @@ import com.talentica.paymentgateway.dto.analytics.*;
 import com.talentica.paymentgateway.dto.metrics.DashboardMetrics;
 import com.talentica.paymentgateway.service.AnalyticsService;
 import com.talentica.paymentgateway.service.MetricsService;
+import com.talentica.paymentgateway.service.ReportExportService;
+import com.talentica.paymentgateway.service.TransactionRollupBackfillService;
+import com.talentica.paymentgateway.service.TransactionRollupConsistencyChecker;
+import com.talentica.paymentgateway.service.TransactionSearchService;
 import com.talentica.paymentgateway.util.CorrelationIdUtil;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -18,9 +22,13 @@ import jakarta.validation.Valid;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.ZonedDateTime;
 import java.util.Arrays;
@@ -50,10 +58,22 @@ public class AnalyticsController {
 
     private final AnalyticsService analyticsService;
     private final MetricsService metricsService;
-
-    public AnalyticsController(AnalyticsService analyticsService, MetricsService metricsService) {
+    private final ReportExportService reportExportService;
+    private final TransactionRollupBackfillService rollupBackfillService;
+    private final TransactionRollupConsistencyChecker rollupConsistencyChecker;
+    private final TransactionSearchService transactionSearchService;
+
+    public AnalyticsController(AnalyticsService analyticsService, MetricsService metricsService,
+                               ReportExportService reportExportService,
+                               TransactionRollupBackfillService rollupBackfillService,
+                               TransactionRollupConsistencyChecker rollupConsistencyChecker,
+                               TransactionSearchService transactionSearchService) {
         this.analyticsService = analyticsService;
         this.metricsService = metricsService;
+        this.reportExportService = reportExportService;
+        this.rollupBackfillService = rollupBackfillService;
+        this.rollupConsistencyChecker = rollupConsistencyChecker;
+        this.transactionSearchService = transactionSearchService;
     }
 
     /**
@@ -118,6 +138,43 @@ public class AnalyticsController {
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * Search transactions page by page with a continuation cursor.
+     */
+    @PostMapping("/transactions/search")
+    @Operation(
+        summary = "Search transactions",
+        description = "Returns matching transactions ordered by creation time, one page at a time. " +
+                     "Pass the nextCursor of a response as the cursor of the next request, with the same filters. " +
+                     "Deep pages cost the same as the first. A total can be requested for the first page, " +
+                     "either as an estimate or as an exact count up to a limit."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Page of transactions returned",
+                    content = @Content(schema = @Schema(implementation = TransactionSearchResponse.class))),
+        @ApiResponse(responseCode = "400", description = "Invalid request parameters or cursor"),
+        @ApiResponse(responseCode = "401", description = "Authentication required"),
+        @ApiResponse(responseCode = "403", description = "Insufficient permissions"),
+        @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @PreAuthorize("hasRole('ADMIN') or hasRole('ANALYST') or hasRole('USER')")
+    public ResponseEntity<TransactionSearchResponse> searchTransactions(
+            @Valid @RequestBody TransactionSearchRequest request) {
+
+        String correlationId = CorrelationIdUtil.getOrGenerate();
+        log.info("Transaction search request - CorrelationId: {}, Continuation: {}",
+                   correlationId, request.getCursor() != null);
+
+        metricsService.recordAnalyticsRequest("transaction_search");
+
+        TransactionSearchResponse response = transactionSearchService.search(request);
+
+        log.info("Transaction search completed - CorrelationId: {}, Records: {}, HasMore: {}",
+                   correlationId, response.getTransactions().size(), response.isHasMore());
+
+        return ResponseEntity.ok(response);
+    }
+
     /**
      * Get real-time analytics dashboard metrics.
      */
@@ -385,6 +442,121 @@ public class AnalyticsController {
         return ResponseEntity.ok(response.getExportInfo());
     }
 
+    /**
+     * Stream matching transactions as a CSV download.
+     */
+    @PostMapping("/export/csv")
+    @Operation(
+        summary = "Stream transactions as CSV",
+        description = "Streams every transaction matching the filters as CSV, optionally gzip-compressed. " +
+                     "Rows are written as they are read, so large date ranges do not need to fit in memory."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "CSV stream started"),
+        @ApiResponse(responseCode = "400", description = "Missing or invalid date range"),
+        @ApiResponse(responseCode = "401", description = "Authentication required"),
+        @ApiResponse(responseCode = "403", description = "Insufficient permissions"),
+        @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @PreAuthorize("hasRole('ADMIN') or hasRole('ANALYST')")
+    public ResponseEntity<StreamingResponseBody> streamTransactionsCsv(
+            @Valid @RequestBody TransactionReportRequest request,
+            @Parameter(description = "Gzip-compress the CSV")
+            @RequestParam(defaultValue = "false") boolean gzip) {
+
+        String correlationId = CorrelationIdUtil.getOrGenerate();
+        log.info("CSV export request - CorrelationId: {}, Period: {} to {}, Gzip: {}",
+                   correlationId, request.getStartDate(), request.getEndDate(), gzip);
+
+        reportExportService.validateStreamingRequest(request);
+        metricsService.recordAnalyticsRequest("export_csv");
+
+        String fileName = reportExportService.generateFileName("CSV", "transactions") + (gzip ? ".gz" : "");
+        StreamingResponseBody body = outputStream -> {
+            long rows = reportExportService.writeTransactionsCsv(request, outputStream, gzip);
+            log.info("CSV export completed - CorrelationId: {}, Rows: {}", correlationId, rows);
+        };
+
+        return ResponseEntity.ok()
+                           .header("X-Correlation-ID", correlationId)
+                           .header(HttpHeaders.CONTENT_DISPOSITION,
+                                   ContentDisposition.attachment().filename(fileName).build().toString())
+                           .contentType(gzip ? MediaType.parseMediaType("application/gzip")
+                                             : MediaType.parseMediaType("text/csv"))
+                           .body(body);
+    }
+
+    /**
+     * Rebuild the transaction rollups for a period from the transactions table.
+     */
+    @PostMapping("/rollups/backfill")
+    @Operation(
+        summary = "Backfill transaction rollups",
+        description = "Recomputes the hourly and daily transaction rollups overlapping the period from the " +
+                     "transactions table, in chunks. Hours changed within the quiet period are skipped."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Backfill completed"),
+        @ApiResponse(responseCode = "400", description = "Invalid date parameters"),
+        @ApiResponse(responseCode = "401", description = "Authentication required"),
+        @ApiResponse(responseCode = "403", description = "Insufficient permissions"),
+        @ApiResponse(responseCode = "409", description = "Transaction rollups are disabled")
+    })
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<TransactionRollupBackfillService.BackfillResult> backfillRollups(
+            @Parameter(description = "Backfill start date", example = "2025-01-01T00:00:00Z")
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) ZonedDateTime startDate,
+            @Parameter(description = "Backfill end date", example = "2025-01-31T23:59:59Z")
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) ZonedDateTime endDate) {
+
+        String correlationId = CorrelationIdUtil.getOrGenerate();
+        log.info("Rollup backfill request - CorrelationId: {}, Period: {} to {}",
+                   correlationId, startDate, endDate);
+
+        metricsService.recordAnalyticsRequest("rollup_backfill");
+        TransactionRollupBackfillService.BackfillResult result = rollupBackfillService.backfill(startDate, endDate);
+
+        return ResponseEntity.ok()
+                           .header("X-Correlation-ID", correlationId)
+                           .body(result);
+    }
+
+    /**
+     * Compare the transaction rollups for a period with the transactions table.
+     */
+    @GetMapping("/rollups/consistency")
+    @Operation(
+        summary = "Check transaction rollup consistency",
+        description = "Reports hourly and daily rollup buckets whose counts or volumes differ from the " +
+                     "transactions table. Does not repair anything; use the backfill endpoint for that."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Consistency check completed"),
+        @ApiResponse(responseCode = "400", description = "Invalid date parameters"),
+        @ApiResponse(responseCode = "401", description = "Authentication required"),
+        @ApiResponse(responseCode = "403", description = "Insufficient permissions"),
+        @ApiResponse(responseCode = "409", description = "Transaction rollups are disabled")
+    })
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<TransactionRollupConsistencyChecker.ConsistencyReport> checkRollupConsistency(
+            @Parameter(description = "Check start date", example = "2025-01-01T00:00:00Z")
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) ZonedDateTime startDate,
+            @Parameter(description = "Check end date", example = "2025-01-31T23:59:59Z")
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) ZonedDateTime endDate) {
+
+        String correlationId = CorrelationIdUtil.getOrGenerate();
+        log.info("Rollup consistency request - CorrelationId: {}, Period: {} to {}",
+                   correlationId, startDate, endDate);
+
+        metricsService.recordAnalyticsRequest("rollup_consistency");
+        TransactionRollupConsistencyChecker.ConsistencyReport report =
+            rollupConsistencyChecker.check(startDate, endDate);
+
+        return ResponseEntity.ok()
+                           .header("X-Correlation-ID", correlationId)
+                           .body(report);
+    }
+
     // Helper methods
 
     private AnalyticsDashboardRequest createQuickDashboardRequest(String period) {
@@ -272,13 +272,16 @@ public class AuthController {
     /**
      * User logout endpoint.
      * 
+     * @param authorization Authorization header carrying the access token
      * @return Logout confirmation
      */
     @PostMapping("/logout")
     @Operation(summary = "User logout", description = "Invalidate user session")
-    public ResponseEntity<?> logout() {
-        // In a stateless JWT system, logout is typically handled client-side
-        // Here you could add token to blacklist if needed
+    public ResponseEntity<?> logout(@RequestHeader(value = "Authorization", required = false) String authorization) {
+        // Stateless tokens stay valid until they expire, so revoke the presented one
+        if (authorization != null && authorization.startsWith("Bearer ")) {
+            jwtService.revokeToken(authorization.substring("Bearer ".length()));
+        }
         return ResponseEntity.ok(Map.of("message", "Logged out successfully"));
     }
 
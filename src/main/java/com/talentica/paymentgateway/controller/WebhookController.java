@@ -2,7 +2,9 @@ package com.talentica.paymentgateway.controller;
 
 import com.talentica.paymentgateway.dto.webhook.AuthorizeNetWebhookRequest;
 import com.talentica.paymentgateway.dto.webhook.WebhookResponse;
+import com.talentica.paymentgateway.filter.RawBodyCaptureFilter;
 import com.talentica.paymentgateway.service.MetricsService;
+import com.talentica.paymentgateway.service.WebhookInboxService;
 import com.talentica.paymentgateway.service.WebhookProcessingService;
 import com.talentica.paymentgateway.util.CorrelationIdUtil;
 
@@ -27,6 +29,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.util.Enumeration;
 import java.util.HashMap;
@@ -39,7 +42,7 @@ import java.util.concurrent.CompletableFuture;
  * 
  * Features:
  * - Signature verification for security
- * - Asynchronous processing for scalability  
+ * - Durable inbox: events are acknowledged once stored and processed in the background
  * - Duplicate event detection
  * - Comprehensive logging and metrics
  * - Industry-standard webhook response handling
@@ -57,6 +60,9 @@ public class WebhookController {
     @Autowired
     private WebhookProcessingService webhookProcessingService;
     
+    @Autowired
+    private WebhookInboxService webhookInboxService;
+    
     @Autowired
     private MetricsService metricsService;
     
@@ -209,18 +215,21 @@ public class WebhookController {
             // Extract headers for signature verification
             Map<String, String> headers = extractHeaders(request);
             
-            // Get raw payload for signature verification
-            String rawPayload = extractRawPayload(request, webhookRequest);
+            // Signatures are computed over the bytes Authorize.Net sent, not the parsed payload
+            byte[] rawBody = extractRawBody(request);
             
             // Record webhook received metric
             metricsService.incrementWebhookReceived(eventType);
             
-            // Process webhook asynchronously
-            CompletableFuture<WebhookResponse> futureResponse = webhookProcessingService
-                .processWebhookAsync(webhookRequest, headers, rawPayload);
-            
-            // Wait for processing to complete (with timeout handling)
-            WebhookResponse response = futureResponse.get();
+            WebhookResponse response;
+            if (webhookInboxService.isEnabled()) {
+                // Store and acknowledge; inbox consumers apply the event in the background
+                response = webhookInboxService.accept(webhookRequest, headers, rawBody, correlationId);
+            } else {
+                CompletableFuture<WebhookResponse> futureResponse = webhookProcessingService
+                    .processWebhookAsync(webhookRequest, headers, new String(rawBody, StandardCharsets.UTF_8));
+                response = futureResponse.get();
+            }
             
             // Determine HTTP status based on response
             HttpStatus httpStatus = determineHttpStatus(response);
@@ -370,21 +379,14 @@ public class WebhookController {
     }
     
     /**
-     * Extracts raw payload for signature verification.
-     * In a real implementation, this would require access to the raw request body.
-     * For now, we'll serialize the webhook request back to JSON.
+     * Gets the request body captured by {@link RawBodyCaptureFilter}.
      */
-    private String extractRawPayload(HttpServletRequest request, AuthorizeNetWebhookRequest webhookRequest) {
-        try {
-            // In production, you would capture the raw request body before JSON parsing
-            // For this implementation, we'll use the parsed object
-            com.fasterxml.jackson.databind.ObjectMapper mapper = new com.fasterxml.jackson.databind.ObjectMapper();
-            mapper.registerModule(new com.fasterxml.jackson.datatype.jsr310.JavaTimeModule());
-            return mapper.writeValueAsString(webhookRequest);
-        } catch (Exception e) {
-            log.warn("Could not extract raw payload for signature verification: {}", e.getMessage());
-            return "";
+    private byte[] extractRawBody(HttpServletRequest request) {
+        byte[] rawBody = RawBodyCaptureFilter.getRawBody(request);
+        if (rawBody == null) {
+            throw new IllegalStateException("Raw webhook body was not captured");
         }
+        return rawBody;
     }
     
     /**
@@ -0,0 +1,28 @@
+package com.talentica.paymentgateway.dto.analytics;
+
+import com.talentica.paymentgateway.entity.PaymentStatus;
+import com.talentica.paymentgateway.entity.TransactionType;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZonedDateTime;
+import java.util.UUID;
+
+/**
+ * Flat projection of a transaction for streaming exports.
+ * Selected directly by JPQL, so rows are never attached to the persistence context.
+ * 
+ * @author Payment Gateway Team
+ * @version 1.0.0
+ */
+public record TransactionExportRow(
+    String transactionId,
+    UUID customerId,
+    BigDecimal amount,
+    String currency,
+    PaymentStatus status,
+    TransactionType transactionType,
+    LocalDateTime createdAt,
+    ZonedDateTime processedAt
+) {
+}
@@ -0,0 +1,32 @@
+package com.talentica.paymentgateway.dto.analytics;
+
+import com.talentica.paymentgateway.entity.PaymentStatus;
+import com.talentica.paymentgateway.entity.TransactionType;
+
+import java.math.BigDecimal;
+
+/**
+ * Transaction count and volume for one combination of status, type, currency and
+ * Authorize.Net response code over a period, as read from the analytics rollups.
+ *
+ * @param status payment status, or {@code null} if unknown
+ * @param transactionType transaction type, or {@code null} if unknown
+ * @param currency currency code (defaults to USD)
+ * @param responseCode Authorize.Net response code, or empty if none was recorded
+ * @param transactionCount number of transactions
+ * @param totalAmount sum of transaction amounts
+ */
+public record TransactionRollupTotals(
+        PaymentStatus status,
+        TransactionType transactionType,
+        String currency,
+        String responseCode,
+        long transactionCount,
+        BigDecimal totalAmount) {
+
+    public TransactionRollupTotals {
+        currency = currency != null ? currency : "USD";
+        responseCode = responseCode != null ? responseCode : "";
+        totalAmount = totalAmount != null ? totalAmount : BigDecimal.ZERO;
+    }
+}
@@ -0,0 +1,81 @@
+package com.talentica.paymentgateway.dto.analytics;
+
+import com.talentica.paymentgateway.entity.PaymentStatus;
+import com.talentica.paymentgateway.entity.TransactionType;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.ZonedDateTime;
+import java.util.UUID;
+
+/**
+ * DTO for cursor-paginated transaction search.
+ * Pages are ordered by creation time; the cursor from one response fetches the next page.
+ *
+ * @author Payment Gateway Team
+ * @version 1.0.0
+ */
+@Data
+@Schema(description = "Transaction search request with filters and continuation cursor")
+public class TransactionSearchRequest {
+
+    @Schema(description = "Start of the creation time range (inclusive)")
+    private ZonedDateTime startDate;
+
+    @Schema(description = "End of the creation time range (inclusive)")
+    private ZonedDateTime endDate;
+
+    @Schema(description = "Filter by customer ID")
+    private UUID customerId;
+
+    @Schema(description = "Filter by order ID")
+    private UUID orderId;
+
+    @Schema(description = "Filter by payment status")
+    private PaymentStatus status;
+
+    @Schema(description = "Filter by transaction type")
+    private TransactionType transactionType;
+
+    @Schema(description = "Minimum transaction amount")
+    private BigDecimal minAmount;
+
+    @Schema(description = "Maximum transaction amount")
+    private BigDecimal maxAmount;
+
+    @Schema(description = "Currency filter (e.g., USD, EUR)")
+    private String currency;
+
+    @Schema(description = "Page size")
+    @Min(value = 1, message = "Page size must be positive")
+    @Max(value = 1000, message = "Page size must not exceed 1000")
+    private Integer size = 50;
+
+    @Schema(description = "Sort direction by creation time (ASC, DESC)", allowableValues = {"ASC", "DESC"})
+    @Pattern(regexp = "(?i)ASC|DESC", message = "Sort direction must be ASC or DESC")
+    private String sortDirection = "DESC";
+
+    @Schema(description = "Cursor returned as nextCursor by the previous page; omit for the first page")
+    private String cursor;
+
+    @Schema(description = "Total count to compute on the first page (NONE, ESTIMATE, EXACT)")
+    @NotNull
+    private CountMode countMode = CountMode.NONE;
+
+    /**
+     * How the total number of matching transactions is computed.
+     */
+    public enum CountMode {
+        /** No total; the cheapest option */
+        NONE,
+        /** Planner row estimate; constant time, may be off for selective filters */
+        ESTIMATE,
+        /** Exact count up to the configured limit */
+        EXACT
+    }
+}
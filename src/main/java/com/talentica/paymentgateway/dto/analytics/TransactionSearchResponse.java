@@ -0,0 +1,36 @@
+package com.talentica.paymentgateway.dto.analytics;
+
+import com.talentica.paymentgateway.entity.Transaction;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * DTO for one page of a cursor-paginated transaction search.
+ *
+ * @author Payment Gateway Team
+ * @version 1.0.0
+ */
+@Data
+@Schema(description = "Page of transactions with the cursor for the next page")
+public class TransactionSearchResponse {
+
+    @Schema(description = "Transactions on this page, in sort order")
+    private List<Transaction> transactions;
+
+    @Schema(description = "Requested page size")
+    private int pageSize;
+
+    @Schema(description = "Whether more transactions follow this page")
+    private boolean hasMore;
+
+    @Schema(description = "Cursor for the next page; null on the last page")
+    private String nextCursor;
+
+    @Schema(description = "Total matching transactions, if a count was requested on the first page")
+    private Long totalCount;
+
+    @Schema(description = "Whether totalCount is exact rather than an estimate or a lower bound")
+    private boolean totalCountExact;
+}
@@ -84,6 +84,13 @@ public class Subscription extends BaseEntity {
     @Column(name = "metadata")
     private Map<String, Object> metadata = new HashMap<>();
 
+    // Written only by SubscriptionRepository's billing claim queries
+    @Column(name = "billing_claim", length = 64, insertable = false, updatable = false)
+    private String billingClaim;
+
+    @Column(name = "billing_claimed_until", insertable = false, updatable = false)
+    private ZonedDateTime billingClaimedUntil;
+
     // Relationships
     @OneToMany(mappedBy = "subscription", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private List<SubscriptionInvoice> invoices = new ArrayList<>();
@@ -214,6 +221,14 @@ public class Subscription extends BaseEntity {
         this.metadata = metadata;
     }
 
+    public String getBillingClaim() {
+        return billingClaim;
+    }
+
+    public ZonedDateTime getBillingClaimedUntil() {
+        return billingClaimedUntil;
+    }
+
     public List<SubscriptionInvoice> getInvoices() {
         return invoices;
     }
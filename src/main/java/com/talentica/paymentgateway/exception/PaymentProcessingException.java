@@ -55,6 +55,16 @@ public class PaymentProcessingException extends RuntimeException {
         this.errorResponse = null;
     }
 
+    /**
+     * Constructs a PaymentProcessingException with a message, error code, cause, and correlation ID.
+     */
+    public PaymentProcessingException(String message, String errorCode, Throwable cause, String correlationId) {
+        super(message, cause);
+        this.correlationId = correlationId;
+        this.errorCode = errorCode;
+        this.errorResponse = null;
+    }
+
     /**
      * Constructs a PaymentProcessingException with a PaymentErrorResponse.
      */
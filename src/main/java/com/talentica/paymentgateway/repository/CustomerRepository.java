@@ -5,6 +5,7 @@ import com.talentica.paymentgateway.entity.User;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -227,4 +228,28 @@ public interface CustomerRepository extends JpaRepository<Customer, UUID> {
      * Find customer by Authorize.Net customer profile ID.
      */
     Optional<Customer> findByAuthorizeNetCustomerProfileId(String authorizeNetCustomerProfileId);
+
+    /**
+     * Record a newly created Authorize.Net customer profile, unless the customer already has one.
+     *
+     * @return number of rows updated (0 or 1)
+     */
+    @Modifying
+    @Query("UPDATE Customer c SET c.authorizeNetCustomerProfileId = :profileId WHERE c.id = :customerId " +
+           "AND (c.authorizeNetCustomerProfileId IS NULL OR c.authorizeNetCustomerProfileId = '')")
+    int assignAuthorizeNetCustomerProfileId(@Param("customerId") UUID customerId,
+                                            @Param("profileId") String profileId);
+
+    /**
+     * IDs of customers with transactions but no Authorize.Net customer profile, created before
+     * the given time, in ID order after the given ID.
+     */
+    @Query(value = "SELECT c.id FROM customers c WHERE " +
+           "(c.authorizenet_customer_profile_id IS NULL OR c.authorizenet_customer_profile_id = '') " +
+           "AND c.created_at < :createdBefore AND c.id > :afterId " +
+           "AND EXISTS (SELECT 1 FROM transactions t WHERE t.customer_id = c.id) " +
+           "ORDER BY c.id LIMIT :limit", nativeQuery = true)
+    List<UUID> findIdsMissingAuthorizeNetProfile(@Param("createdBefore") ZonedDateTime createdBefore,
+                                                 @Param("afterId") UUID afterId,
+                                                 @Param("limit") int limit);
 }
@@ -7,6 +7,7 @@ import com.talentica.paymentgateway.entity.SubscriptionStatus;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -82,6 +83,32 @@ public interface SubscriptionRepository extends JpaRepository<Subscription, UUID
     @Query("SELECT s FROM Subscription s WHERE s.nextBillingDate <= :currentDate AND s.status = 'ACTIVE'")
     List<Subscription> findSubscriptionsDueForBilling(@Param("currentDate") ZonedDateTime currentDate);
 
+    /**
+     * Claim one subscription for billing if it is still active, due at the cutoff and not
+     * claimed by an attempt whose lease is still running. Must run inside a transaction;
+     * the claim holds once that commits, without a row lock.
+     *
+     * @return number of rows claimed (0 or 1)
+     */
+    @Modifying
+    @Query(value = "UPDATE subscriptions SET billing_claim = :claim, " +
+           "billing_claimed_until = now() + :leaseSeconds * INTERVAL '1 second' " +
+           "WHERE id = :id AND status = CAST('ACTIVE' AS subscription_status) AND next_billing_date <= :cutoff " +
+           "AND (billing_claimed_until IS NULL OR billing_claimed_until < now())", nativeQuery = true)
+    int claimForBilling(@Param("id") UUID id, @Param("cutoff") ZonedDateTime cutoff,
+                        @Param("claim") String claim, @Param("leaseSeconds") int leaseSeconds);
+
+    /**
+     * Release a billing claim, unless its lease ran out and another attempt claimed the
+     * subscription since.
+     *
+     * @return number of rows released (0 or 1)
+     */
+    @Modifying
+    @Query(value = "UPDATE subscriptions SET billing_claim = NULL, billing_claimed_until = NULL " +
+           "WHERE id = :id AND billing_claim = :claim", nativeQuery = true)
+    int releaseBillingClaim(@Param("id") UUID id, @Param("claim") String claim);
+
     /**
      * Find subscriptions ending trial period.
      */
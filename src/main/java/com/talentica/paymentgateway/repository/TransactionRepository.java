@@ -1,22 +1,30 @@
 package com.talentica.paymentgateway.repository;
 
+import com.talentica.paymentgateway.dto.analytics.TransactionExportRow;
+import com.talentica.paymentgateway.dto.analytics.TransactionRollupTotals;
 import com.talentica.paymentgateway.entity.Customer;
 import com.talentica.paymentgateway.entity.Order;
 import com.talentica.paymentgateway.entity.PaymentStatus;
 import com.talentica.paymentgateway.entity.Transaction;
 import com.talentica.paymentgateway.entity.TransactionType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.time.ZonedDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 /**
  * Repository interface for Transaction entity.
@@ -86,6 +94,27 @@ public interface TransactionRepository extends JpaRepository<Transaction, UUID>
      */
     List<Transaction> findByParentTransaction(Transaction parentTransaction);
 
+    /**
+     * Find transactions in the given statuses within a date range, with their payment
+     * methods. Used for row-level analysis of a small subset, such as failed payments.
+     */
+    @Query("SELECT t FROM Transaction t LEFT JOIN FETCH t.paymentMethod " +
+           "WHERE t.status IN :statuses AND t.createdAt >= :startDate AND t.createdAt < :endDate")
+    List<Transaction> findByStatusInCreatedBetween(@Param("statuses") Collection<PaymentStatus> statuses,
+                                                   @Param("startDate") LocalDateTime startDate,
+                                                   @Param("endDate") LocalDateTime endDate);
+
+    /**
+     * Count and volume per status, type, currency and response code within a date range.
+     * Analytics reads the rollup tables instead; this is the fallback when they are disabled.
+     */
+    @Query("SELECT new com.talentica.paymentgateway.dto.analytics.TransactionRollupTotals(" +
+           "t.status, t.transactionType, t.currency, t.authnetResponseCode, COUNT(t), SUM(t.amount)) " +
+           "FROM Transaction t WHERE t.createdAt >= :startDate AND t.createdAt < :endDate " +
+           "GROUP BY t.status, t.transactionType, t.currency, t.authnetResponseCode")
+    List<TransactionRollupTotals> aggregateBetween(@Param("startDate") LocalDateTime startDate,
+                                                   @Param("endDate") LocalDateTime endDate);
+
     /**
      * Find transactions within date range.
      */
@@ -93,6 +122,35 @@ public interface TransactionRepository extends JpaRepository<Transaction, UUID>
     List<Transaction> findTransactionsBetween(@Param("startDate") ZonedDateTime startDate,
                                             @Param("endDate") ZonedDateTime endDate);
 
+    /**
+     * Stream export rows for a date range with optional filters, ordered by creation time.
+     * Must be consumed inside a read-only transaction so the driver can use a server-side cursor.
+     */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query("SELECT new com.talentica.paymentgateway.dto.analytics.TransactionExportRow(" +
+           "t.transactionId, c.id, t.amount, t.currency, t.status, t.transactionType, t.createdAt, t.processedAt) " +
+           "FROM Transaction t LEFT JOIN t.customer c " +
+           "WHERE t.createdAt >= :startDate AND t.createdAt < :endDate " +
+           "AND (:status IS NULL OR t.status = :status) " +
+           "AND (:transactionType IS NULL OR t.transactionType = :transactionType) " +
+           "AND (:customerId IS NULL OR c.id = :customerId) " +
+           "AND (:currency IS NULL OR t.currency = :currency) " +
+           "AND (:minAmount IS NULL OR t.amount >= :minAmount) " +
+           "AND (:maxAmount IS NULL OR t.amount <= :maxAmount) " +
+           "ORDER BY t.createdAt, t.id")
+    Stream<TransactionExportRow> streamForExport(@Param("startDate") LocalDateTime startDate,
+                                                 @Param("endDate") LocalDateTime endDate,
+                                                 @Param("status") PaymentStatus status,
+                                                 @Param("transactionType") TransactionType transactionType,
+                                                 @Param("customerId") UUID customerId,
+                                                 @Param("currency") String currency,
+                                                 @Param("minAmount") BigDecimal minAmount,
+                                                 @Param("maxAmount") BigDecimal maxAmount);
+
     /**
      * Find successful transactions (authorized, captured, or settled).
      */
@@ -232,10 +290,11 @@ public interface TransactionRepository extends JpaRepository<Transaction, UUID>
     List<Transaction> findByPaymentMethodId(@Param("paymentMethodId") UUID paymentMethodId);
 
     /**
-     * Find pending transactions older than specified hours.
+     * Find pending transactions older than the cutoff, oldest first, one page at a time.
      */
-    @Query("SELECT t FROM Transaction t WHERE t.status = 'PENDING' AND t.createdAt < :cutoffTime")
-    List<Transaction> findPendingTransactionsOlderThan(@Param("cutoffTime") ZonedDateTime cutoffTime);
+    @Query("SELECT t FROM Transaction t WHERE t.status = 'PENDING' AND t.createdAt < :cutoffTime ORDER BY t.createdAt")
+    List<Transaction> findPendingTransactionsOlderThan(@Param("cutoffTime") ZonedDateTime cutoffTime,
+                                                       Pageable pageable);
 
     /**
      * Find duplicate transactions by amount and customer within time window.
@@ -5,11 +5,13 @@ import com.talentica.paymentgateway.entity.WebhookStatus;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.ZonedDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -63,6 +65,23 @@ public interface WebhookRepository extends JpaRepository<Webhook, UUID> {
            "w.attempts < w.max_attempts AND w.status IN (CAST('FAILED' AS webhook_status), CAST('RETRYING' AS webhook_status))", nativeQuery = true)
     List<Webhook> findWebhooksReadyForRetry();
 
+    /**
+     * Claim a page of webhooks whose retry is due before the horizon, skipping rows
+     * already locked by another node. Must run inside a transaction.
+     */
+    @Query(value = "SELECT * FROM webhooks w WHERE w.next_attempt_at <= :horizon AND " +
+           "w.attempts < w.max_attempts AND w.status IN (CAST('FAILED' AS webhook_status), CAST('RETRYING' AS webhook_status)) " +
+           "ORDER BY w.next_attempt_at LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<Webhook> claimWebhooksDueBefore(@Param("horizon") ZonedDateTime horizon, @Param("limit") int limit);
+
+    /**
+     * Push the next attempt of claimed webhooks to the end of the claim lease, so other
+     * nodes only pick them up again if this node never delivers them.
+     */
+    @Modifying
+    @Query("UPDATE Webhook w SET w.nextAttemptAt = :leaseUntil WHERE w.id IN :ids")
+    int leaseForRetry(@Param("ids") Collection<UUID> ids, @Param("leaseUntil") ZonedDateTime leaseUntil);
+
     /**
      * Find failed webhooks with max attempts reached.
      */
@@ -261,6 +280,29 @@ public interface WebhookRepository extends JpaRepository<Webhook, UUID> {
     @Query(value = "DELETE FROM webhooks WHERE status = CAST('FAILED' AS webhook_status) AND attempts >= max_attempts AND created_at < :cutoffDate", nativeQuery = true)
     void deleteOldFailedWebhooks(@Param("cutoffDate") ZonedDateTime cutoffDate);
 
+    /**
+     * Delete up to batchSize delivered webhooks older than the cutoff.
+     * Rows locked by a concurrent writer are skipped and picked up by a later batch.
+     *
+     * @return Number of rows deleted
+     */
+    @Modifying
+    @Query(value = "DELETE FROM webhooks WHERE id IN (" +
+           "SELECT id FROM webhooks WHERE status = CAST('DELIVERED' AS webhook_status) AND delivered_at < :cutoffDate " +
+           "LIMIT :batchSize FOR UPDATE SKIP LOCKED)", nativeQuery = true)
+    int deleteDeliveredWebhooksBatch(@Param("cutoffDate") ZonedDateTime cutoffDate, @Param("batchSize") int batchSize);
+
+    /**
+     * Delete up to batchSize permanently failed webhooks created before the cutoff.
+     *
+     * @return Number of rows deleted
+     */
+    @Modifying
+    @Query(value = "DELETE FROM webhooks WHERE id IN (" +
+           "SELECT id FROM webhooks WHERE status = CAST('FAILED' AS webhook_status) AND attempts >= max_attempts " +
+           "AND created_at < :cutoffDate LIMIT :batchSize FOR UPDATE SKIP LOCKED)", nativeQuery = true)
+    int deleteFailedWebhooksBatch(@Param("cutoffDate") ZonedDateTime cutoffDate, @Param("batchSize") int batchSize);
+
     /**
      * Find webhooks for cleanup (old and processed).
      */
@@ -292,6 +334,36 @@ public interface WebhookRepository extends JpaRepository<Webhook, UUID> {
                                                             @Param("eventType") String eventType,
                                                             @Param("createdAfter") ZonedDateTime createdAfter);
 
+    /**
+     * Check for a webhook by event ID and event type created after a date (duplicate detection fallback).
+     */
+    @Query("SELECT COUNT(w) > 0 FROM Webhook w WHERE w.eventId = :eventId AND w.eventType = :eventType AND w.createdAt >= :createdAfter")
+    boolean existsByEventIdAndEventTypeAndCreatedAtAfter(@Param("eventId") String eventId,
+                                                         @Param("eventType") String eventType,
+                                                         @Param("createdAfter") ZonedDateTime createdAfter);
+
+    /**
+     * Records an inbound event unless it is already recorded. A conflict on the unique
+     * (event_id, event_type) index inserts nothing and, unlike a failed insert, leaves the
+     * surrounding transaction usable.
+     *
+     * @return 1 if the event was recorded, 0 if it already was
+     */
+    @Modifying
+    @Query(value = "INSERT INTO webhooks (webhook_id, event_type, event_id, endpoint_url, status, request_headers, " +
+           "request_body, correlation_id, scheduled_at, next_attempt_at) " +
+           "VALUES (:webhookId, :eventType, :eventId, :endpointUrl, CAST('PROCESSING' AS webhook_status), " +
+           "CAST(:requestHeaders AS jsonb), CAST(:requestBody AS jsonb), :correlationId, :scheduledAt, :scheduledAt) " +
+           "ON CONFLICT (event_id, event_type) DO NOTHING", nativeQuery = true)
+    int insertInboundEventIfAbsent(@Param("webhookId") String webhookId,
+                                   @Param("eventType") String eventType,
+                                   @Param("eventId") String eventId,
+                                   @Param("endpointUrl") String endpointUrl,
+                                   @Param("requestHeaders") String requestHeaders,
+                                   @Param("requestBody") String requestBody,
+                                   @Param("correlationId") String correlationId,
+                                   @Param("scheduledAt") ZonedDateTime scheduledAt);
+
     /**
      * Count webhooks created since a specific date.
      */
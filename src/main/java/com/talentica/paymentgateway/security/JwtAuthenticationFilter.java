@@ -1,5 +1,6 @@
 package com.talentica.paymentgateway.security;
 
+import com.talentica.paymentgateway.service.JwtClaims;
 import com.talentica.paymentgateway.service.JwtService;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -23,11 +24,12 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.UUID;
-import java.util.stream.Collectors;
 
 /**
  * JWT Authentication Filter to handle JWT token validation and user authentication.
  * Processes incoming requests and validates JWT tokens from Authorization header.
+ * The token is verified once and its claims are exposed to the rest of the chain as the
+ * {@link #CLAIMS_ATTRIBUTE} request attribute.
  * 
  * @author Payment Gateway Team
  * @version 1.0.0
@@ -35,6 +37,8 @@ import java.util.stream.Collectors;
 @Slf4j
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
+
+    public static final String CLAIMS_ATTRIBUTE = JwtAuthenticationFilter.class.getName() + ".claims";
     
     private static final String AUTHORIZATION_HEADER = "Authorization";
     private static final String BEARER_PREFIX = "Bearer ";
@@ -79,43 +83,39 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             } else {
                 final String jwt = authHeader.substring(BEARER_PREFIX.length());
                 try {
-                    // Extract username from token
-                    final String username = jwtService.extractUsername(jwt);
+                    // Verify the token once; the claims carry everything the filter needs
+                    final JwtClaims claims = jwtService.parseToken(jwt);
+                    final String username = claims.subject();
                     
                     // Check if user is not already authenticated
                     if (StringUtils.hasText(username) && SecurityContextHolder.getContext().getAuthentication() == null) {
                         // Validate if it's an access token
-                        if (!jwtService.isAccessToken(jwt)) {
+                        if (!claims.isAccessToken()) {
                             log.warn("Invalid token type provided. Expected access token for user: {}", username);
                         } else {
                             // Create user details from token
-                            UserDetails userDetails = createUserDetailsFromToken(jwt, username);
+                            UserDetails userDetails = createUserDetailsFromClaims(claims);
+                            
+                            // Create authentication token
+                            UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
+                                    userDetails,
+                                    null,
+                                    userDetails.getAuthorities()
+                            );
+                            
+                            // Set authentication details
+                            authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                            
+                            // Set authentication in security context
+                            SecurityContextHolder.getContext().setAuthentication(authToken);
+                            request.setAttribute(CLAIMS_ATTRIBUTE, claims);
                             
-                            // Validate token
-                            if (jwtService.isTokenValid(jwt, userDetails)) {
-                                // Create authentication token
-                                UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                                        userDetails,
-                                        null,
-                                        userDetails.getAuthorities()
-                                );
-                                
-                                // Set authentication details
-                                authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                                
-                                // Set authentication in security context
-                                SecurityContextHolder.getContext().setAuthentication(authToken);
-                                
-                                // Add user information to MDC for logging
-                                MDC.put("username", username);
-                                MDC.put("userId", jwtService.extractUserId(jwt));
-                                
-                                log.info("Successfully authenticated user: {} for request: {} {}", 
-                                          username, request.getMethod(), request.getRequestURI());
-                            } else {
-                                log.warn("Invalid JWT token for user: {} on request: {} {}", 
-                                          username, request.getMethod(), request.getRequestURI());
-                            }
+                            // Add user information to MDC for logging
+                            MDC.put("username", username);
+                            MDC.put("userId", claims.userId());
+                            
+                            log.info("Successfully authenticated user: {} for request: {} {}", 
+                                      username, request.getMethod(), request.getRequestURI());
                         }
                     } else {
                         log.debug("User already authenticated or invalid username in token");
@@ -180,54 +180,30 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     }
 
     /**
-     * Create UserDetails from JWT token.
+     * Create UserDetails from verified JWT claims.
      * 
-     * @param jwt JWT token
-     * @param username Username
+     * @param claims Verified claims
      * @return UserDetails object
      */
-    private UserDetails createUserDetailsFromToken(String jwt, String username) {
-        try {
-            // Extract authorities from token
-            String authoritiesString = jwtService.extractAuthorities(jwt);
-            List<SimpleGrantedAuthority> authorities = Collections.emptyList();
-            
-            if (StringUtils.hasText(authoritiesString)) {
-                // Parse authorities string (format: [ROLE_USER, ROLE_ADMIN])
-                String cleanAuthorities = authoritiesString.replaceAll("[\\[\\]\\s]", "");
-                if (StringUtils.hasText(cleanAuthorities)) {
-                    authorities = Arrays.stream(cleanAuthorities.split(","))
-                            .filter(StringUtils::hasText)
-                            .map(String::trim)
-                            .map(SimpleGrantedAuthority::new)
-                            .collect(Collectors.toList());
-                }
-                log.debug("Parsed authorities for user {}: {}", username, authorities);
-            }
-            
-            // Default authority if none found
-            if (authorities.isEmpty()) {
-                authorities = Collections.singletonList(new SimpleGrantedAuthority("ROLE_USER"));
-            }
-            
-            return User.builder()
-                    .username(username)
-                    .password("") // Password not needed for JWT authentication
-                    .authorities(authorities)
-                    .accountExpired(false)
-                    .accountLocked(false)
-                    .credentialsExpired(false)
-                    .disabled(false)
-                    .build();
-                    
-        } catch (Exception e) {
-            log.warn("Error creating user details from token: {}", e.getMessage());
-            // Return basic user with default role
-            return User.builder()
-                    .username(username)
-                    .password("")
-                    .authorities(Collections.singletonList(new SimpleGrantedAuthority("ROLE_USER")))
-                    .build();
+    private UserDetails createUserDetailsFromClaims(JwtClaims claims) {
+        List<SimpleGrantedAuthority> authorities = claims.authorities().stream()
+                .map(SimpleGrantedAuthority::new)
+                .toList();
+        log.debug("Parsed authorities for user {}: {}", claims.subject(), authorities);
+        
+        // Default authority if none found
+        if (authorities.isEmpty()) {
+            authorities = Collections.singletonList(new SimpleGrantedAuthority("ROLE_USER"));
         }
+        
+        return User.builder()
+                .username(claims.subject())
+                .password("") // Password not needed for JWT authentication
+                .authorities(authorities)
+                .accountExpired(false)
+                .accountLocked(false)
+                .credentialsExpired(false)
+                .disabled(false)
+                .build();
     }
 }
@@ -1,8 +1,11 @@
 package com.talentica.paymentgateway.security;
 
-import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.talentica.paymentgateway.config.properties.RequestLoggingProperties;
+import com.talentica.paymentgateway.service.AuditEvent;
+import com.talentica.paymentgateway.service.AuditLogWriter;
+import com.talentica.paymentgateway.service.JwtClaims;
+import com.talentica.paymentgateway.util.SensitiveDataMasker;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -11,6 +14,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.core.Ordered;
 import org.springframework.core.annotation.Order;
 import org.springframework.lang.NonNull;
@@ -21,10 +25,9 @@ import org.springframework.web.util.ContentCachingRequestWrapper;
 import org.springframework.web.util.ContentCachingResponseWrapper;
 
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.util.*;
-import java.util.regex.Pattern;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * Request/Response Logging Filter with Security Considerations.
@@ -35,7 +38,9 @@ import java.util.regex.Pattern;
  * 
  * Features:
  * - Request/response body logging with size limits
- * - Automatic PII and sensitive data masking
+ * - Automatic PII and sensitive data masking, streamed in a single pass
+ * - Body sampling on high-volume endpoints
+ * - Audit trail entries for auditable requests, written asynchronously
  * - Configurable exclusion patterns for endpoints
  * - Performance metrics integration
  * - Security-aware header filtering
@@ -52,11 +57,14 @@ public class RequestResponseLoggingFilter extends OncePerRequestFilter {
     private static final Logger paymentLogger = LoggerFactory.getLogger("PAYMENT");
     
     private static final int MAX_PAYLOAD_LENGTH = 10000;
-    private static final String MASKED_VALUE = "***MASKED***";
+    private static final String MASKED_VALUE = SensitiveDataMasker.MASKED_VALUE;
     
     private final ObjectMapper objectMapper;
+    private final SensitiveDataMasker dataMasker;
+    private final RequestLoggingProperties.BodySampling bodySampling;
+    private final AuditLogWriter auditLogWriter;
     
-    // Sensitive field patterns for masking
+    // Sensitive field names for masking, matched ignoring case
     private static final Set<String> SENSITIVE_FIELDS = Set.of(
         "password", "cardNumber", "cvv", "cvv2", "cvc", "cvc2", "securityCode", 
         "transactionKey", "apiKey", "token", "authToken", "accessToken", 
@@ -69,12 +77,17 @@ public class RequestResponseLoggingFilter extends OncePerRequestFilter {
         "x-access-token", "x-refresh-token", "x-session-id"
     );
     
-    // Patterns for sensitive data in URLs or text
-    private static final Pattern CREDIT_CARD_PATTERN = Pattern.compile("\\b\\d{4}[\\s-]?\\d{4}[\\s-]?\\d{4}[\\s-]?\\d{4}\\b");
-    private static final Pattern SSN_PATTERN = Pattern.compile("\\b\\d{3}-\\d{2}-\\d{4}\\b");
-    
     public RequestResponseLoggingFilter(ObjectMapper objectMapper) {
+        this(objectMapper, new RequestLoggingProperties(), null);
+    }
+
+    @Autowired
+    public RequestResponseLoggingFilter(ObjectMapper objectMapper, RequestLoggingProperties properties,
+                                        AuditLogWriter auditLogWriter) {
         this.objectMapper = objectMapper;
+        this.dataMasker = new SensitiveDataMasker(objectMapper.getFactory(), SENSITIVE_FIELDS, MAX_PAYLOAD_LENGTH);
+        this.bodySampling = properties.getBodySampling();
+        this.auditLogWriter = auditLogWriter;
     }
 
     @Override
@@ -151,9 +164,9 @@ public class RequestResponseLoggingFilter extends OncePerRequestFilter {
             // Skip request body logging to avoid consuming the stream
             // TODO: Implement proper request body logging that doesn't interfere with controllers
             // if (shouldLogRequestBody(request)) {
-            //     String requestBody = getRequestBody(request);
+            //     String requestBody = dataMasker.maskBody(request.getContentAsByteArray());
             //     if (StringUtils.hasText(requestBody)) {
-            //         requestLog.put("body", maskSensitiveDataInJson(requestBody));
+            //         requestLog.put("body", requestBody);
             //     }
             // }
             
@@ -200,9 +213,13 @@ public class RequestResponseLoggingFilter extends OncePerRequestFilter {
             
             // Add response body if appropriate
             if (shouldLogResponseBody(request, response)) {
-                String responseBody = getResponseBody(response);
-                if (StringUtils.hasText(responseBody)) {
-                    responseLog.put("body", maskSensitiveDataInJson(responseBody));
+                if (isBodySampledOut(request)) {
+                    responseLog.put("bodySampledOut", true);
+                } else {
+                    String responseBody = dataMasker.maskBody(response.getContentAsByteArray());
+                    if (StringUtils.hasText(responseBody)) {
+                        responseLog.put("body", responseBody);
+                    }
                 }
             }
             
@@ -214,12 +231,81 @@ public class RequestResponseLoggingFilter extends OncePerRequestFilter {
             } else {
                 log.info("Response: {}", objectMapper.writeValueAsString(responseLog));
             }
+
+            if (isAuditableEndpoint(request) || isErrorStatus(response.getStatus())) {
+                publishAuditEvent(request, response, correlationId, endTime, duration);
+            }
             
         } catch (Exception e) {
             log.warn("Failed to log response [correlationId={}]: {}", correlationId, e.getMessage());
         }
     }
 
+    /**
+     * Queue an audit trail entry for the request; the audit writer inserts it off this thread.
+     */
+    private void publishAuditEvent(HttpServletRequest request, HttpServletResponse response,
+                                   String correlationId, Instant endTime, long duration) {
+        if (auditLogWriter == null || !auditLogWriter.isEnabled()) {
+            return;
+        }
+
+        Map<String, Object> details = new HashMap<>();
+        details.put("uri", request.getRequestURI());
+        details.put("queryString", maskSensitiveData(request.getQueryString()));
+        details.put("status", response.getStatus());
+        details.put("durationMs", duration);
+
+        auditLogWriter.publish(AuditEvent.builder()
+            .entityType("API_REQUEST")
+            .entityId(UUID.randomUUID())
+            .action(request.getMethod())
+            .userId(authenticatedUserId(request))
+            .ipAddress(toIpLiteral(getClientIpAddress(request)))
+            .userAgent(request.getHeader("User-Agent"))
+            .correlationId(correlationId)
+            .newValues(details)
+            .createdAt(endTime)
+            .build());
+    }
+
+    /**
+     * User ID from the verified JWT claims the authentication filter left on the request.
+     */
+    private UUID authenticatedUserId(HttpServletRequest request) {
+        if (request.getAttribute(JwtAuthenticationFilter.CLAIMS_ATTRIBUTE) instanceof JwtClaims claims
+                && StringUtils.hasText(claims.userId())) {
+            try {
+                return UUID.fromString(claims.userId());
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * The address if it is an IPv4 or IPv6 literal, so a forged forwarding header cannot make
+     * the audit insert fail.
+     */
+    private String toIpLiteral(String address) {
+        if (address == null || address.isEmpty() || address.length() > 45) {
+            return null;
+        }
+        boolean ipv6 = address.indexOf(':') >= 0;
+        if (!ipv6 && address.indexOf('.') < 0) {
+            return null;
+        }
+        for (int i = 0; i < address.length(); i++) {
+            char c = address.charAt(i);
+            boolean valid = c == '.' || (ipv6 ? c == ':' || Character.digit(c, 16) >= 0 : c >= '0' && c <= '9');
+            if (!valid) {
+                return null;
+            }
+        }
+        return address;
+    }
+
     /**
      * Get filtered request headers excluding sensitive information.
      */
@@ -261,97 +347,6 @@ public class RequestResponseLoggingFilter extends OncePerRequestFilter {
         return filteredHeaders;
     }
 
-    /**
-     * Get request body with size limitations.
-     */
-    private String getRequestBody(ContentCachingRequestWrapper request) {
-        byte[] content = request.getContentAsByteArray();
-        if (content.length == 0) {
-            return null;
-        }
-        
-        if (content.length > MAX_PAYLOAD_LENGTH) {
-            String truncated = new String(content, 0, MAX_PAYLOAD_LENGTH, StandardCharsets.UTF_8);
-            return truncated + "... [TRUNCATED - Original size: " + content.length + " bytes]";
-        }
-        
-        return new String(content, StandardCharsets.UTF_8);
-    }
-
-    /**
-     * Get response body with size limitations.
-     */
-    private String getResponseBody(ContentCachingResponseWrapper response) {
-        byte[] content = response.getContentAsByteArray();
-        if (content.length == 0) {
-            return null;
-        }
-        
-        if (content.length > MAX_PAYLOAD_LENGTH) {
-            String truncated = new String(content, 0, MAX_PAYLOAD_LENGTH, StandardCharsets.UTF_8);
-            return truncated + "... [TRUNCATED - Original size: " + content.length + " bytes]";
-        }
-        
-        return new String(content, StandardCharsets.UTF_8);
-    }
-
-    /**
-     * Mask sensitive data in JSON content.
-     */
-    private String maskSensitiveDataInJson(String jsonContent) {
-        if (!StringUtils.hasText(jsonContent)) {
-            return jsonContent;
-        }
-        
-        try {
-            JsonNode jsonNode = objectMapper.readTree(jsonContent);
-            maskSensitiveFieldsInNode(jsonNode);
-            String maskedJson = objectMapper.writeValueAsString(jsonNode);
-            
-            // Additional pattern-based masking for any remaining sensitive data
-            return maskSensitiveDataWithPatterns(maskedJson);
-            
-        } catch (Exception e) {
-            // If JSON parsing fails, apply pattern-based masking to the raw string
-            return maskSensitiveDataWithPatterns(jsonContent);
-        }
-    }
-
-    /**
-     * Recursively mask sensitive fields in JSON node.
-     */
-    private void maskSensitiveFieldsInNode(JsonNode node) {
-        if (node.isObject()) {
-            ObjectNode objectNode = (ObjectNode) node;
-            objectNode.fieldNames().forEachRemaining(fieldName -> {
-                if (isSensitiveField(fieldName)) {
-                    objectNode.put(fieldName, MASKED_VALUE);
-                } else {
-                    maskSensitiveFieldsInNode(objectNode.get(fieldName));
-                }
-            });
-        } else if (node.isArray()) {
-            for (JsonNode arrayItem : node) {
-                maskSensitiveFieldsInNode(arrayItem);
-            }
-        }
-    }
-
-    /**
-     * Mask sensitive data using regex patterns.
-     */
-    private String maskSensitiveDataWithPatterns(String content) {
-        if (!StringUtils.hasText(content)) {
-            return content;
-        }
-        
-        String masked = content;
-        masked = CREDIT_CARD_PATTERN.matcher(masked).replaceAll("****-****-****-****");
-        masked = SSN_PATTERN.matcher(masked).replaceAll("***-**-****");
-        
-        return masked;
-    }
-
     /**
      * Apply general sensitive data masking to any string.
      */
@@ -360,7 +355,7 @@ public class RequestResponseLoggingFilter extends OncePerRequestFilter {
             return data;
         }
         
-        return maskSensitiveDataWithPatterns(data);
+        return dataMasker.maskText(data);
     }
 
     /**
@@ -387,13 +382,6 @@ public class RequestResponseLoggingFilter extends OncePerRequestFilter {
         return SENSITIVE_HEADERS.contains(headerName.toLowerCase());
     }
 
-    /**
-     * Check if field is sensitive and should be masked.
-     */
-    private boolean isSensitiveField(String fieldName) {
-        return SENSITIVE_FIELDS.contains(fieldName.toLowerCase());
-    }
-
     /**
      * Check if logging should be skipped for this request.
      */
@@ -439,6 +427,22 @@ public class RequestResponseLoggingFilter extends OncePerRequestFilter {
                response.getStatus() < 300; // Only log successful responses by default
     }
 
+    /**
+     * Check if the response body is left out of the log by sampling on a high-volume endpoint.
+     */
+    private boolean isBodySampledOut(HttpServletRequest request) {
+        if (!bodySampling.isEnabled()) {
+            return false;
+        }
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        for (String prefix : bodySampling.getPathPrefixes()) {
+            if (path.startsWith(prefix)) {
+                return ThreadLocalRandom.current().nextDouble() >= bodySampling.getRate();
+            }
+        }
+        return false;
+    }
+
     /**
      * Check if endpoint is payment-related.
      */
@@ -16,8 +16,11 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.util.*;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 /**
@@ -30,6 +33,9 @@ import java.util.stream.Collectors;
  * - Failed payment analysis and fraud detection
  * - Compliance reporting and audit trails
  * 
+ * Period totals (revenue, failure rates, error codes, audit volume) are read from the
+ * pre-aggregated transaction rollups rather than by loading transactions.
+ * 
  * @author Payment Gateway Team
  * @version 1.0.0
  */
@@ -39,16 +45,22 @@ import java.util.stream.Collectors;
 @ConditionalOnProperty(name = "app.features.analytics", havingValue = "true", matchIfMissing = true)
 public class AnalyticsService {
 
+    private static final Set<PaymentStatus> FAILED_STATUSES =
+        EnumSet.of(PaymentStatus.FAILED, PaymentStatus.VOIDED, PaymentStatus.CANCELLED);
+
     private final TransactionRepository transactionRepository;
     private final SubscriptionRepository subscriptionRepository;
     private final CustomerRepository customerRepository;
+    private final TransactionRollupService transactionRollupService;
 
     public AnalyticsService(TransactionRepository transactionRepository,
                            SubscriptionRepository subscriptionRepository,
-                           CustomerRepository customerRepository) {
+                           CustomerRepository customerRepository,
+                           TransactionRollupService transactionRollupService) {
         this.transactionRepository = transactionRepository;
         this.subscriptionRepository = subscriptionRepository;
         this.customerRepository = customerRepository;
+        this.transactionRollupService = transactionRollupService;
     }
 
     /**
@@ -223,13 +235,13 @@ public class AnalyticsService {
      * Generate comprehensive revenue metrics.
      */
     public RevenueMetrics generateRevenueMetrics(ZonedDateTime startDate, ZonedDateTime endDate) {
+        List<TransactionRollupTotals> totals = transactionRollupService.totals(startDate, endDate);
+
         // Calculate total revenue from successful transactions
-        BigDecimal totalRevenue = transactionRepository.sumAmountByStatus(PaymentStatus.SETTLED.name());
-        if (totalRevenue == null) totalRevenue = BigDecimal.ZERO;
+        BigDecimal totalRevenue = sumAmount(totals, t -> t.status() == PaymentStatus.SETTLED);
 
         // Calculate refunded amount
-        BigDecimal refundedAmount = transactionRepository.sumAmountByStatus(PaymentStatus.REFUNDED.name());
-        if (refundedAmount == null) refundedAmount = BigDecimal.ZERO;
+        BigDecimal refundedAmount = sumAmount(totals, t -> t.status() == PaymentStatus.REFUNDED);
 
         // Calculate net revenue
         BigDecimal netRevenue = totalRevenue.subtract(refundedAmount);
@@ -272,31 +284,32 @@ public class AnalyticsService {
         analysis.setPeriodStart(startDate);
         analysis.setPeriodEnd(endDate);
 
-        // Get failed transactions
-        List<Transaction> failedTransactions = transactionRepository.findTransactionsBetween(startDate, endDate)
-            .stream()
-            .filter(t -> isFailedStatus(t.getStatus()))
+        // Period totals come from the rollups
+        List<TransactionRollupTotals> totals = transactionRollupService.totals(startDate, endDate);
+        List<TransactionRollupTotals> failedTotals = totals.stream()
+            .filter(t -> isFailedStatus(t.status()))
             .collect(Collectors.toList());
 
         // Basic statistics
-        analysis.setTotalFailedPayments(failedTransactions.size());
-        
-        BigDecimal totalFailedAmount = failedTransactions.stream()
-            .map(Transaction::getAmount)
-            .reduce(BigDecimal.ZERO, BigDecimal::add);
-        analysis.setTotalFailedAmount(totalFailedAmount);
+        long failedCount = sumCount(failedTotals, t -> true);
+        analysis.setTotalFailedPayments(failedCount);
+        analysis.setTotalFailedAmount(sumAmount(failedTotals, t -> true));
 
         // Calculate failure rate
-        long totalTransactions = transactionRepository.countTransactionsCreatedToday(); // Use appropriate method
+        long totalTransactions = sumCount(totals, t -> true);
         double failureRate = totalTransactions > 0 ? 
-            (double) failedTransactions.size() / totalTransactions * 100 : 0.0;
+            (double) failedCount / totalTransactions * 100 : 0.0;
         analysis.setFailureRate(failureRate);
 
         // Analyze error codes
         Map<String, FailedPaymentAnalysis.FailureCodeAnalysis> errorCodeBreakdown = 
-            analyzeErrorCodes(failedTransactions);
+            analyzeErrorCodes(failedTotals, failedCount);
         analysis.setErrorCodeBreakdown(errorCodeBreakdown);
 
+        // Payment method and fraud heuristics need the failed rows themselves
+        List<Transaction> failedTransactions = transactionRepository.findByStatusInCreatedBetween(
+            FAILED_STATUSES, toLocal(startDate), toLocal(endDate));
+
         // Analyze payment methods
         Map<String, Long> paymentMethodBreakdown = analyzePaymentMethodFailures(failedTransactions);
         analysis.setPaymentMethodBreakdown(paymentMethodBreakdown);
@@ -311,7 +324,7 @@ public class AnalyticsService {
         analysis.setRecommendations(recommendations);
 
         log.info("Failed payment analysis completed - CorrelationId: {}, Failed: {}", 
-                   correlationId, failedTransactions.size());
+                   correlationId, failedCount);
 
         return analysis;
     }
@@ -460,29 +473,25 @@ public class AnalyticsService {
     }
 
     private Map<String, FailedPaymentAnalysis.FailureCodeAnalysis> analyzeErrorCodes(
-            List<Transaction> failedTransactions) {
+            List<TransactionRollupTotals> failedTotals, long failedCount) {
         
-        Map<String, List<Transaction>> codeGroups = failedTransactions.stream()
-            .filter(t -> t.getAuthnetResponseCode() != null)
-            .collect(Collectors.groupingBy(Transaction::getAuthnetResponseCode));
+        Map<String, List<TransactionRollupTotals>> codeGroups = failedTotals.stream()
+            .filter(t -> !t.responseCode().isEmpty())
+            .collect(Collectors.groupingBy(TransactionRollupTotals::responseCode));
 
         return codeGroups.entrySet().stream()
             .collect(Collectors.toMap(
                 Map.Entry::getKey,
                 entry -> {
                     String code = entry.getKey();
-                    List<Transaction> transactions = entry.getValue();
+                    long count = sumCount(entry.getValue(), t -> true);
                     
                     FailedPaymentAnalysis.FailureCodeAnalysis analysis = 
                         new FailedPaymentAnalysis.FailureCodeAnalysis();
                     analysis.setErrorCode(code);
-                    analysis.setCount(transactions.size());
-                    analysis.setPercentage((double) transactions.size() / failedTransactions.size() * 100);
-                    
-                    BigDecimal totalAmount = transactions.stream()
-                        .map(Transaction::getAmount)
-                        .reduce(BigDecimal.ZERO, BigDecimal::add);
-                    analysis.setTotalAmount(totalAmount);
+                    analysis.setCount(count);
+                    analysis.setPercentage((double) count / failedCount * 100);
+                    analysis.setTotalAmount(sumAmount(entry.getValue(), t -> true));
                     
                     // Set description and recommendations based on code
                     setErrorCodeDetails(analysis, code);
@@ -544,14 +553,11 @@ public class AnalyticsService {
         ComplianceReport.TransactionAuditSummary summary = 
             new ComplianceReport.TransactionAuditSummary();
 
-        List<Transaction> transactions = transactionRepository.findTransactionsBetween(startDate, endDate);
-        summary.setTotalTransactions(transactions.size());
-        summary.setAuditedTransactions(transactions.size()); // Assume all are audited
-        
-        BigDecimal totalVolume = transactions.stream()
-            .map(Transaction::getAmount)
-            .reduce(BigDecimal.ZERO, BigDecimal::add);
-        summary.setTotalVolume(totalVolume);
+        List<TransactionRollupTotals> totals = transactionRollupService.totals(startDate, endDate);
+        long totalTransactions = sumCount(totals, t -> true);
+        summary.setTotalTransactions(totalTransactions);
+        summary.setAuditedTransactions(totalTransactions); // Assume all are audited
+        summary.setTotalVolume(sumAmount(totals, t -> true));
         
         summary.setAuditCoverage(100.0);
         
@@ -622,6 +628,27 @@ public class AnalyticsService {
     }
 
     // Utility methods
+    private static long sumCount(List<TransactionRollupTotals> totals, Predicate<TransactionRollupTotals> filter) {
+        return totals.stream()
+            .filter(filter)
+            .mapToLong(TransactionRollupTotals::transactionCount)
+            .sum();
+    }
+
+    private static BigDecimal sumAmount(List<TransactionRollupTotals> totals, Predicate<TransactionRollupTotals> filter) {
+        return totals.stream()
+            .filter(filter)
+            .map(TransactionRollupTotals::totalAmount)
+            .reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+
+    /**
+     * Transaction timestamps are stored as server-local date-times.
+     */
+    private static LocalDateTime toLocal(ZonedDateTime dateTime) {
+        return dateTime.withZoneSameInstant(ZoneId.systemDefault()).toLocalDateTime();
+    }
+
     private boolean isSuccessfulStatus(PaymentStatus status) {
         return status == PaymentStatus.AUTHORIZED || 
                status == PaymentStatus.CAPTURED || 
@@ -629,9 +656,7 @@ public class AnalyticsService {
     }
 
     private boolean isFailedStatus(PaymentStatus status) {
-        return status == PaymentStatus.FAILED || 
-               status == PaymentStatus.VOIDED || 
-               status == PaymentStatus.CANCELLED;
+        return status != null && FAILED_STATUSES.contains(status);
     }
 
     private void setErrorCodeDetails(FailedPaymentAnalysis.FailureCodeAnalysis analysis, String code) {
@@ -0,0 +1,51 @@
+package com.talentica.paymentgateway.service;
+
+import lombok.Builder;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * An audit trail entry waiting to be written to the audit_logs table.
+ *
+ * The ID is assigned when the event is created, so an event replayed from a spill file
+ * after a crash is inserted at most once.
+ *
+ * @param id Audit log ID; generated if null
+ * @param entityType Type of the audited entity, e.g. API_REQUEST
+ * @param entityId ID of the audited entity
+ * @param action Action performed
+ * @param userId Acting user, if known
+ * @param apiKeyId Acting API key, if known
+ * @param ipAddress Client IP address, if known
+ * @param userAgent Client user agent, if known
+ * @param correlationId Request correlation ID, if known
+ * @param oldValues Values before the change; empty if none
+ * @param newValues Values after the change; empty if none
+ * @param createdAt When the action happened; now if null
+ *
+ * @author Payment Gateway Team
+ * @version 1.0.0
+ */
+@Builder
+public record AuditEvent(UUID id,
+                         String entityType,
+                         UUID entityId,
+                         String action,
+                         UUID userId,
+                         UUID apiKeyId,
+                         String ipAddress,
+                         String userAgent,
+                         String correlationId,
+                         Map<String, Object> oldValues,
+                         Map<String, Object> newValues,
+                         Instant createdAt) {
+
+    public AuditEvent {
+        id = id != null ? id : UUID.randomUUID();
+        oldValues = oldValues != null ? oldValues : Map.of();
+        newValues = newValues != null ? newValues : Map.of();
+        createdAt = createdAt != null ? createdAt : Instant.now();
+    }
+}
@@ -0,0 +1,294 @@
+package com.talentica.paymentgateway.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.talentica.paymentgateway.config.properties.AuditProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Writes audit events to the audit_logs table off the request thread.
+ *
+ * Request threads publish events into a bounded lock-free ring buffer. A single writer
+ * thread drains it and inserts with JDBC batches, as soon as a batch is full or once the
+ * oldest buffered event has waited the flush interval. When the buffer is full, the
+ * configured overflow policy applies: wait briefly, drop, or spill to a local file.
+ *
+ * Batches the database rejects are spilled as well. A batch failing on a constraint is
+ * retried row by row, so one bad event does not take the rest with it. Spilled files are
+ * replayed when the writer starts and retried while it is idle; event IDs are fixed at
+ * creation, so a replay interrupted by a crash inserts nothing twice.
+ *
+ * Events still in memory are lost if the process dies without shutting down.
+ *
+ * @author Payment Gateway Team
+ * @version 1.0.0
+ */
+@Slf4j
+@Service
+public class AuditLogWriter {
+
+    static final String INSERT_SQL =
+        "INSERT INTO audit_logs (id, entity_type, entity_id, action, user_id, api_key_id, ip_address, " +
+        "user_agent, correlation_id, old_values, new_values, created_at) " +
+        "VALUES (?, ?, ?, ?, ?, ?, CAST(? AS INET), ?, ?, CAST(? AS JSONB), CAST(? AS JSONB), ?) " +
+        "ON CONFLICT (id) DO NOTHING";
+
+    private static final long BLOCK_BACKOFF_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final MetricsService metricsService;
+    private final AuditProperties.Writer config;
+    private final long flushIntervalNanos;
+
+    private MpscRingBuffer<AuditEvent> buffer;
+    private AuditSpillStore spillStore;
+    private Thread writerThread;
+    private volatile boolean running;
+    private long nextReplayAt;
+
+    public AuditLogWriter(JdbcTemplate jdbcTemplate,
+                          TransactionTemplate transactionTemplate,
+                          ObjectMapper objectMapper,
+                          MetricsService metricsService,
+                          AuditProperties auditProperties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.metricsService = metricsService;
+        this.config = auditProperties.getWriter();
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(config.getFlushIntervalMs());
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        if (!config.isEnabled()) {
+            log.info("Audit writer disabled; requests are audited in the log only");
+            return;
+        }
+
+        buffer = new MpscRingBuffer<>(config.getBufferSize());
+        spillStore = new AuditSpillStore(Path.of(config.getSpillDirectory()), config.getSpillMaxBytes(), objectMapper);
+        spillStore.open();
+        metricsService.registerAuditWriterGauges(buffer::size, spillStore::spilledBytes);
+
+        running = true;
+        writerThread = new Thread(this::runWriter, "audit-log-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+        log.info("Audit writer started - BufferSize: {}, BatchSize: {}, FlushInterval: {}ms, Overflow: {}",
+            buffer.capacity(), config.getBatchSize(), config.getFlushIntervalMs(), config.getOverflowPolicy());
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (writerThread == null) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(writerThread);
+        // The writer drains the buffer before it exits
+        writerThread.join(TimeUnit.SECONDS.toMillis(10));
+        if (writerThread.isAlive()) {
+            log.warn("Audit writer did not finish within 10s; {} events still buffered", buffer.size());
+        }
+    }
+
+    public boolean isEnabled() {
+        return config.isEnabled();
+    }
+
+    /**
+     * Queues an event for writing. Never throws; an event that cannot be queued is spilled
+     * or dropped according to the overflow policy.
+     *
+     * @return true if the event was buffered or spilled
+     */
+    public boolean publish(AuditEvent event) {
+        if (buffer == null) {
+            return false;
+        }
+        if (running) {
+            boolean wasEmpty = buffer.isEmpty();
+            if (buffer.offer(event)) {
+                wakeWriter(wasEmpty);
+                return true;
+            }
+        }
+        return overflow(event);
+    }
+
+    int buffered() {
+        return buffer != null ? buffer.size() : 0;
+    }
+
+    private boolean overflow(AuditEvent event) {
+        switch (config.getOverflowPolicy()) {
+            case BLOCK -> {
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(config.getBlockTimeoutMs());
+                while (running && System.nanoTime() - deadline < 0) {
+                    LockSupport.unpark(writerThread);
+                    LockSupport.parkNanos(this, BLOCK_BACKOFF_NANOS);
+                    if (buffer.offer(event)) {
+                        return true;
+                    }
+                }
+            }
+            case SPILL -> {
+                if (spillStore.append(List.of(event))) {
+                    metricsService.recordAuditEvents("spilled", 1);
+                    return true;
+                }
+            }
+            case DROP -> {
+                // Counted below
+            }
+        }
+        metricsService.recordAuditEvents("dropped", 1);
+        return false;
+    }
+
+    private void wakeWriter(boolean wasEmpty) {
+        // The first event starts the flush interval; a full batch is written without waiting for it
+        if (wasEmpty || buffer.size() == config.getBatchSize()) {
+            LockSupport.unpark(writerThread);
+        }
+    }
+
+    private void runWriter() {
+        replaySpilled();
+
+        int batchSize = config.getBatchSize();
+        List<AuditEvent> batch = new ArrayList<>(batchSize);
+        long deadline = System.nanoTime();
+        while (true) {
+            boolean stopping = !running;
+            boolean wasEmpty = batch.isEmpty();
+            buffer.drain(batch::add, batchSize - batch.size());
+            long now = System.nanoTime();
+            if (wasEmpty && !batch.isEmpty()) {
+                deadline = now + flushIntervalNanos;
+            }
+
+            if (batch.size() >= batchSize || (!batch.isEmpty() && (stopping || now - deadline >= 0))) {
+                writeSafely(batch);
+                batch.clear();
+            } else if (batch.isEmpty()) {
+                if (stopping) {
+                    return;
+                }
+                if (spillStore.hasSpilled() && now - nextReplayAt >= 0) {
+                    replaySpilled();
+                }
+                LockSupport.parkNanos(this, flushIntervalNanos);
+            } else {
+                LockSupport.parkNanos(this, deadline - now);
+            }
+        }
+    }
+
+    /**
+     * Inserts a batch; on failure its events are spilled for replay, or dropped if that fails too.
+     */
+    private void writeSafely(List<AuditEvent> batch) {
+        try {
+            write(batch);
+            metricsService.recordAuditEvents("written", batch.size());
+        } catch (RuntimeException e) {
+            log.warn("Failed to write {} audit events, spilling them: {}", batch.size(), e.getMessage());
+            if (spillStore.append(batch)) {
+                metricsService.recordAuditEvents("spilled", batch.size());
+            } else {
+                log.error("Dropped {} audit events that could not be written or spilled", batch.size());
+                metricsService.recordAuditEvents("dropped", batch.size());
+            }
+        }
+    }
+
+    /**
+     * Inserts events in one transaction. A constraint violation falls back to inserting the
+     * events one at a time, skipping those the database rejects.
+     */
+    void write(List<AuditEvent> events) {
+        List<Object[]> args = new ArrayList<>(events.size());
+        for (AuditEvent event : events) {
+            args.add(toRow(event));
+        }
+
+        long startedAt = System.nanoTime();
+        try {
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(INSERT_SQL, args));
+        } catch (DataIntegrityViolationException e) {
+            int rejected = 0;
+            for (int i = 0; i < events.size(); i++) {
+                try {
+                    jdbcTemplate.update(INSERT_SQL, args.get(i));
+                } catch (DataIntegrityViolationException rowFailure) {
+                    rejected++;
+                    log.error("Audit event {} rejected by the database: {}", events.get(i).id(),
+                        rowFailure.getMostSpecificCause().getMessage());
+                }
+            }
+            metricsService.recordAuditEvents("rejected", rejected);
+        }
+        metricsService.recordAuditFlush(Duration.ofNanos(System.nanoTime() - startedAt));
+    }
+
+    /**
+     * Writes spilled files, oldest first, deleting each once its events are in the database.
+     * Stops at the first failure and retries after the replay interval.
+     */
+    void replaySpilled() {
+        nextReplayAt = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(config.getSpillReplayIntervalMs());
+        try {
+            for (Path file : spillStore.rotate()) {
+                List<AuditEvent> events = spillStore.read(file);
+                for (int from = 0; from < events.size(); from += config.getBatchSize()) {
+                    write(events.subList(from, Math.min(events.size(), from + config.getBatchSize())));
+                }
+                spillStore.delete(file);
+                metricsService.recordAuditEvents("replayed", events.size());
+                log.info("Replayed {} spilled audit events from {}", events.size(), file.getFileName());
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warn("Audit spill replay stopped, retrying in {}ms: {}", config.getSpillReplayIntervalMs(),
+                e.getMessage());
+        }
+    }
+
+    private Object[] toRow(AuditEvent event) {
+        return new Object[] {
+            event.id(), event.entityType(), event.entityId(), event.action(), event.userId(), event.apiKeyId(),
+            event.ipAddress(), event.userAgent(), event.correlationId(),
+            toJson(event.oldValues()), toJson(event.newValues()), Timestamp.from(event.createdAt())
+        };
+    }
+
+    private String toJson(Map<String, Object> values) {
+        if (values.isEmpty()) {
+            return null;
+        }
+        try {
+            return objectMapper.writeValueAsString(values);
+        } catch (JsonProcessingException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.talentica.paymentgateway.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Audit events spilled to local files, one JSON object per line.
+ *
+ * Events are appended to an active file and flushed to the OS after every append, so they
+ * survive a process crash. {@link #rotate()} closes the active file and returns every file
+ * ready for replay, including files left active by a previous process. A line cut short by
+ * a crash is skipped on read. Files are deleted only after their events have been written.
+ *
+ * @author Payment Gateway Team
+ * @version 1.0.0
+ */
+@Slf4j
+class AuditSpillStore {
+
+    static final String READY_SUFFIX = ".jsonl";
+    static final String ACTIVE_SUFFIX = ".jsonl.active";
+
+    private final Path directory;
+    private final long maxBytes;
+    private final ObjectWriter writer;
+    private final ObjectReader reader;
+    private final AtomicLong spilledBytes = new AtomicLong();
+    private final AtomicInteger fileSequence = new AtomicInteger();
+
+    private BufferedWriter activeWriter;
+
+    AuditSpillStore(Path directory, long maxBytes, ObjectMapper objectMapper) {
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+        this.writer = objectMapper.writerFor(AuditEvent.class);
+        this.reader = objectMapper.readerFor(AuditEvent.class);
+    }
+
+    /**
+     * Creates the directory and accounts for files left by a previous process.
+     */
+    synchronized void open() throws IOException {
+        Files.createDirectories(directory);
+        long existing = 0;
+        for (Path file : listFiles("*" + READY_SUFFIX + "*")) {
+            existing += Files.size(file);
+        }
+        spilledBytes.set(existing);
+    }
+
+    /**
+     * Appends events to the active file.
+     *
+     * @return false if the spill limit is reached or the write failed; nothing is written then
+     */
+    synchronized boolean append(List<AuditEvent> events) {
+        if (spilledBytes.get() >= maxBytes) {
+            return false;
+        }
+        try {
+            StringBuilder lines = new StringBuilder(events.size() * 512);
+            for (AuditEvent event : events) {
+                lines.append(writer.writeValueAsString(event)).append('\n');
+            }
+            if (activeWriter == null) {
+                Path activeFile = directory.resolve("audit-" + System.currentTimeMillis() + "-"
+                    + fileSequence.incrementAndGet() + ACTIVE_SUFFIX);
+                activeWriter = Files.newBufferedWriter(activeFile, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            }
+            activeWriter.append(lines);
+            activeWriter.flush();
+            spilledBytes.addAndGet(lines.length());  // chars; close enough for the limit
+            return true;
+        } catch (IOException e) {
+            log.error("Failed to spill {} audit events to {}: {}", events.size(), directory, e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Closes the active file and returns all spill files ready for replay, oldest first.
+     */
+    synchronized List<Path> rotate() throws IOException {
+        if (activeWriter != null) {
+            activeWriter.close();
+            activeWriter = null;
+        }
+        // Active files are either ours, just closed, or left by a process that died
+        for (Path file : listFiles("*" + ACTIVE_SUFFIX)) {
+            String name = file.getFileName().toString();
+            Path ready = file.resolveSibling(name.substring(0, name.length() - ".active".length()));
+            Files.move(file, ready, StandardCopyOption.ATOMIC_MOVE);
+        }
+        List<Path> ready = listFiles("*" + READY_SUFFIX);
+        ready.sort(null);
+        return ready;
+    }
+
+    /**
+     * Events in a spill file. Lines that cannot be parsed are skipped.
+     */
+    List<AuditEvent> read(Path file) throws IOException {
+        List<AuditEvent> events = new ArrayList<>();
+        int lineNumber = 0;
+        for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            try {
+                events.add(reader.readValue(line));
+            } catch (JsonProcessingException e) {
+                log.warn("Skipping unreadable audit event at {}:{}: {}", file.getFileName(), lineNumber,
+                    e.getOriginalMessage());
+            }
+        }
+        return events;
+    }
+
+    void delete(Path file) throws IOException {
+        long size = Files.size(file);
+        Files.delete(file);
+        spilledBytes.updateAndGet(bytes -> Math.max(0, bytes - size));
+    }
+
+    /**
+     * Whether anything is spilled, as of the last append, rotate or delete.
+     */
+    boolean hasSpilled() {
+        return spilledBytes.get() > 0;
+    }
+
+    long spilledBytes() {
+        return spilledBytes.get();
+    }
+
+    private List<Path> listFiles(String glob) throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, glob)) {
+            stream.forEach(files::add);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        return files;
+    }
+}
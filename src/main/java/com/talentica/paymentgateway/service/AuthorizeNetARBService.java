@@ -4,12 +4,7 @@ import com.talentica.paymentgateway.entity.Customer;
 import com.talentica.paymentgateway.entity.PaymentMethod;
 import com.talentica.paymentgateway.entity.SubscriptionPlan;
 import com.talentica.paymentgateway.exception.PaymentProcessingException;
-import net.authorize.Environment;
 import net.authorize.api.contract.v1.*;
-import net.authorize.api.controller.ARBCreateSubscriptionController;
-import net.authorize.api.controller.ARBGetSubscriptionController;
-import net.authorize.api.controller.ARBCancelSubscriptionController;
-import net.authorize.api.controller.base.ApiOperationBase;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
@@ -29,20 +24,19 @@ import javax.xml.datatype.XMLGregorianCalendar;
 public class AuthorizeNetARBService {
 
     private final MerchantAuthenticationType merchant;
-    private final Environment environment;
+    private final AuthorizeNetTransport authorizeNetTransport;
 
     public AuthorizeNetARBService(
             @Value("${app.authorize-net.api-login-id}") String apiLoginId,
             @Value("${app.authorize-net.transaction-key}") String transactionKey,
-            @Value("${app.authorize-net.environment}") String env) {
+            AuthorizeNetTransport authorizeNetTransport) {
         
         this.merchant = new MerchantAuthenticationType();
         this.merchant.setName(apiLoginId);
         this.merchant.setTransactionKey(transactionKey);
         
-        this.environment = "sandbox".equalsIgnoreCase(env) ? Environment.SANDBOX : Environment.PRODUCTION;
-        
-        log.info("AuthorizeNetARBService initialized - Environment: {}", this.environment);
+        // The transport targets the environment configured in AuthorizeNetConfig
+        this.authorizeNetTransport = authorizeNetTransport;
     }
 
     /**
@@ -55,8 +49,6 @@ public class AuthorizeNetARBService {
      */
     public String createARBSubscription(Customer customer, SubscriptionPlan plan, PaymentMethod paymentMethod) {
         try {
-            ApiOperationBase.setEnvironment(environment);
-            
             // Create subscription request
             ARBSubscriptionType subscription = new ARBSubscriptionType();
             
@@ -152,10 +144,7 @@ public class AuthorizeNetARBService {
                        customer.getCustomerId(), plan.getPlanCode());
             
             // Execute the request
-            ARBCreateSubscriptionController controller = new ARBCreateSubscriptionController(request);
-            controller.execute();
-            
-            ARBCreateSubscriptionResponse response = controller.getApiResponse();
+            ARBCreateSubscriptionResponse response = authorizeNetTransport.execute(request, ARBCreateSubscriptionResponse.class);
             
             if (response != null && response.getMessages().getResultCode() == MessageTypeEnum.OK) {
                 String subscriptionId = response.getSubscriptionId();
@@ -187,16 +176,11 @@ public class AuthorizeNetARBService {
      */
     public ARBGetSubscriptionResponse getARBSubscription(String subscriptionId) {
         try {
-            ApiOperationBase.setEnvironment(environment);
-            
             ARBGetSubscriptionRequest request = new ARBGetSubscriptionRequest();
             request.setMerchantAuthentication(merchant);
             request.setSubscriptionId(subscriptionId);
             
-            ARBGetSubscriptionController controller = new ARBGetSubscriptionController(request);
-            controller.execute();
-            
-            return controller.getApiResponse();
+            return authorizeNetTransport.execute(request, ARBGetSubscriptionResponse.class);
             
         } catch (Exception e) {
             log.error("Error getting ARB subscription: {}", subscriptionId, e);
@@ -212,16 +196,11 @@ public class AuthorizeNetARBService {
      */
     public boolean cancelARBSubscription(String subscriptionId) {
         try {
-            ApiOperationBase.setEnvironment(environment);
-            
             ARBCancelSubscriptionRequest request = new ARBCancelSubscriptionRequest();
             request.setMerchantAuthentication(merchant);
             request.setSubscriptionId(subscriptionId);
             
-            ARBCancelSubscriptionController controller = new ARBCancelSubscriptionController(request);
-            controller.execute();
-            
-            ARBCancelSubscriptionResponse response = controller.getApiResponse();
+            ARBCancelSubscriptionResponse response = authorizeNetTransport.execute(request, ARBCancelSubscriptionResponse.class);
             
             if (response != null && response.getMessages().getResultCode() == MessageTypeEnum.OK) {
                 log.info("✅ ARB subscription cancelled successfully - Subscription ID: {}", subscriptionId);
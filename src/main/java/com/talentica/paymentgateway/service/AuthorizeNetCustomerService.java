@@ -5,18 +5,7 @@ import com.talentica.paymentgateway.dto.payment.PaymentMethodRequest;
 import com.talentica.paymentgateway.entity.Customer;
 import com.talentica.paymentgateway.exception.PaymentProcessingException;
 import com.talentica.paymentgateway.util.CorrelationIdUtil;
-import net.authorize.Environment;
 import net.authorize.api.contract.v1.*;
-import net.authorize.api.controller.CreateCustomerProfileController;
-import net.authorize.api.controller.CreateCustomerPaymentProfileController;
-import net.authorize.api.controller.GetCustomerProfileController;
-import net.authorize.api.controller.GetCustomerPaymentProfileController;
-import net.authorize.api.controller.UpdateCustomerProfileController;
-import net.authorize.api.controller.UpdateCustomerPaymentProfileController;
-import net.authorize.api.controller.DeleteCustomerProfileController;
-import net.authorize.api.controller.DeleteCustomerPaymentProfileController;
-import net.authorize.api.controller.ValidateCustomerPaymentProfileController;
-import net.authorize.api.controller.base.ApiOperationBase;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
@@ -34,12 +23,12 @@ import org.springframework.stereotype.Service;
 public class AuthorizeNetCustomerService {
 
     private final MerchantAuthenticationType merchant;
-    private final Environment environment;
+    private final AuthorizeNetTransport authorizeNetTransport;
 
     public AuthorizeNetCustomerService(MerchantAuthenticationType merchant,
-                                     Environment environment) {
+                                     AuthorizeNetTransport authorizeNetTransport) {
         this.merchant = merchant;
-        this.environment = environment;
+        this.authorizeNetTransport = authorizeNetTransport;
     }
 
     /**
@@ -54,9 +43,6 @@ public class AuthorizeNetCustomerService {
         String correlationId = CorrelationIdUtil.getOrGenerate();
         
         try {
-            // Set the environment for this operation
-            ApiOperationBase.setEnvironment(environment);
-            
             // Create customer profile request
             CustomerProfileType profile = new CustomerProfileType();
             profile.setMerchantCustomerId(customer.getCustomerId());
@@ -86,10 +72,7 @@ public class AuthorizeNetCustomerService {
                        customer.getCustomerId(), customer.getEmail(), correlationId);
             
             // Execute the request
-            CreateCustomerProfileController controller = new CreateCustomerProfileController(apiRequest);
-            controller.execute();
-            
-            CreateCustomerProfileResponse response = controller.getApiResponse();
+            CreateCustomerProfileResponse response = authorizeNetTransport.execute(apiRequest, CreateCustomerProfileResponse.class);
             
             if (response != null) {
                 if (response.getMessages().getResultCode() == MessageTypeEnum.OK) {
@@ -134,9 +117,6 @@ public class AuthorizeNetCustomerService {
                    customerProfileId, paymentMethod.getType(), correlationId);
 
         try {
-            // Set API credentials and environment
-            ApiOperationBase.setEnvironment(environment);
-
             // Create payment profile
             CustomerPaymentProfileType paymentProfile = new CustomerPaymentProfileType();
             
@@ -169,10 +149,7 @@ public class AuthorizeNetCustomerService {
             apiRequest.setCustomerProfileId(customerProfileId);
             apiRequest.setPaymentProfile(paymentProfile);
 
-            CreateCustomerPaymentProfileController controller = new CreateCustomerPaymentProfileController(apiRequest);
-            controller.execute();
-
-            CreateCustomerPaymentProfileResponse response = controller.getApiResponse();
+            CreateCustomerPaymentProfileResponse response = authorizeNetTransport.execute(apiRequest, CreateCustomerPaymentProfileResponse.class);
 
             if (response != null && response.getMessages().getResultCode() == MessageTypeEnum.OK) {
                 String paymentProfileId = response.getCustomerPaymentProfileId();
@@ -212,16 +189,11 @@ public class AuthorizeNetCustomerService {
                    customerProfileId, correlationId);
 
         try {
-            ApiOperationBase.setEnvironment(environment);
-
             GetCustomerProfileRequest apiRequest = new GetCustomerProfileRequest();
             apiRequest.setMerchantAuthentication(merchant);
             apiRequest.setCustomerProfileId(customerProfileId);
 
-            GetCustomerProfileController controller = new GetCustomerProfileController(apiRequest);
-            controller.execute();
-
-            GetCustomerProfileResponse response = controller.getApiResponse();
+            GetCustomerProfileResponse response = authorizeNetTransport.executeRead(apiRequest, GetCustomerProfileResponse.class);
 
             if (response != null && response.getMessages().getResultCode() == MessageTypeEnum.OK) {
                 CustomerProfileMaskedType profile = response.getProfile();
@@ -269,17 +241,12 @@ public class AuthorizeNetCustomerService {
                    customerProfileId, paymentProfileId, correlationId);
 
         try {
-            ApiOperationBase.setEnvironment(environment);
-
             GetCustomerPaymentProfileRequest apiRequest = new GetCustomerPaymentProfileRequest();
             apiRequest.setMerchantAuthentication(merchant);
             apiRequest.setCustomerProfileId(customerProfileId);
             apiRequest.setCustomerPaymentProfileId(paymentProfileId);
 
-            GetCustomerPaymentProfileController controller = new GetCustomerPaymentProfileController(apiRequest);
-            controller.execute();
-
-            GetCustomerPaymentProfileResponse response = controller.getApiResponse();
+            GetCustomerPaymentProfileResponse response = authorizeNetTransport.executeRead(apiRequest, GetCustomerPaymentProfileResponse.class);
 
             if (response != null && response.getMessages().getResultCode() == MessageTypeEnum.OK) {
                 CustomerPaymentProfileMaskedType paymentProfile = response.getPaymentProfile();
@@ -327,8 +294,6 @@ public class AuthorizeNetCustomerService {
                    customerProfileId, customer.getCustomerId(), correlationId);
 
         try {
-            ApiOperationBase.setEnvironment(environment);
-
             CustomerProfileExType profile = new CustomerProfileExType();
             profile.setCustomerProfileId(customerProfileId);
             profile.setMerchantCustomerId(customer.getCustomerId());
@@ -351,10 +316,7 @@ public class AuthorizeNetCustomerService {
             apiRequest.setMerchantAuthentication(merchant);
             apiRequest.setProfile(profile);
 
-            UpdateCustomerProfileController controller = new UpdateCustomerProfileController(apiRequest);
-            controller.execute();
-
-            UpdateCustomerProfileResponse response = controller.getApiResponse();
+            UpdateCustomerProfileResponse response = authorizeNetTransport.execute(apiRequest, UpdateCustomerProfileResponse.class);
 
             if (response != null && response.getMessages().getResultCode() == MessageTypeEnum.OK) {
                 log.info("Successfully updated customer profile - Profile ID: {}, CorrelationId: {}", 
@@ -397,8 +359,6 @@ public class AuthorizeNetCustomerService {
                    customerProfileId, paymentProfileId, correlationId);
 
         try {
-            ApiOperationBase.setEnvironment(environment);
-
             CustomerPaymentProfileExType paymentProfile = new CustomerPaymentProfileExType();
             paymentProfile.setCustomerPaymentProfileId(paymentProfileId);
             
@@ -432,10 +392,7 @@ public class AuthorizeNetCustomerService {
             apiRequest.setPaymentProfile(paymentProfile);
             apiRequest.setValidationMode(ValidationModeEnum.TEST_MODE);
 
-            UpdateCustomerPaymentProfileController controller = new UpdateCustomerPaymentProfileController(apiRequest);
-            controller.execute();
-
-            UpdateCustomerPaymentProfileResponse response = controller.getApiResponse();
+            UpdateCustomerPaymentProfileResponse response = authorizeNetTransport.execute(apiRequest, UpdateCustomerPaymentProfileResponse.class);
 
             if (response != null && response.getMessages().getResultCode() == MessageTypeEnum.OK) {
                 log.info("Successfully updated payment profile - Profile ID: {}, CorrelationId: {}", 
@@ -474,16 +431,11 @@ public class AuthorizeNetCustomerService {
                    customerProfileId, correlationId);
 
         try {
-            ApiOperationBase.setEnvironment(environment);
-
             DeleteCustomerProfileRequest apiRequest = new DeleteCustomerProfileRequest();
             apiRequest.setMerchantAuthentication(merchant);
             apiRequest.setCustomerProfileId(customerProfileId);
 
-            DeleteCustomerProfileController controller = new DeleteCustomerProfileController(apiRequest);
-            controller.execute();
-
-            DeleteCustomerProfileResponse response = controller.getApiResponse();
+            DeleteCustomerProfileResponse response = authorizeNetTransport.execute(apiRequest, DeleteCustomerProfileResponse.class);
 
             if (response != null && response.getMessages().getResultCode() == MessageTypeEnum.OK) {
                 log.info("Successfully deleted customer profile - Profile ID: {}, CorrelationId: {}", 
@@ -530,17 +482,12 @@ public class AuthorizeNetCustomerService {
                    customerProfileId, paymentProfileId, correlationId);
 
         try {
-            ApiOperationBase.setEnvironment(environment);
-
             DeleteCustomerPaymentProfileRequest apiRequest = new DeleteCustomerPaymentProfileRequest();
             apiRequest.setMerchantAuthentication(merchant);
             apiRequest.setCustomerProfileId(customerProfileId);
             apiRequest.setCustomerPaymentProfileId(paymentProfileId);
 
-            DeleteCustomerPaymentProfileController controller = new DeleteCustomerPaymentProfileController(apiRequest);
-            controller.execute();
-
-            DeleteCustomerPaymentProfileResponse response = controller.getApiResponse();
+            DeleteCustomerPaymentProfileResponse response = authorizeNetTransport.execute(apiRequest, DeleteCustomerPaymentProfileResponse.class);
 
             if (response != null && response.getMessages().getResultCode() == MessageTypeEnum.OK) {
                 log.info("Successfully deleted payment profile - Profile ID: {}, CorrelationId: {}", 
@@ -587,18 +534,13 @@ public class AuthorizeNetCustomerService {
                    customerProfileId, paymentProfileId, correlationId);
 
         try {
-            ApiOperationBase.setEnvironment(environment);
-
             ValidateCustomerPaymentProfileRequest apiRequest = new ValidateCustomerPaymentProfileRequest();
             apiRequest.setMerchantAuthentication(merchant);
             apiRequest.setCustomerProfileId(customerProfileId);
             apiRequest.setCustomerPaymentProfileId(paymentProfileId);
             apiRequest.setValidationMode(ValidationModeEnum.TEST_MODE);
 
-            ValidateCustomerPaymentProfileController controller = new ValidateCustomerPaymentProfileController(apiRequest);
-            controller.execute();
-
-            ValidateCustomerPaymentProfileResponse response = controller.getApiResponse();
+            ValidateCustomerPaymentProfileResponse response = authorizeNetTransport.execute(apiRequest, ValidateCustomerPaymentProfileResponse.class);
 
             if (response != null && response.getMessages().getResultCode() == MessageTypeEnum.OK) {
                 log.info("Payment profile validation successful - Profile ID: {}, CorrelationId: {}", 
@@ -0,0 +1,436 @@
+package com.talentica.paymentgateway.service;
+
+import com.talentica.paymentgateway.config.properties.AuthorizeNetProperties;
+import com.talentica.paymentgateway.exception.PaymentProcessingException;
+import com.talentica.paymentgateway.util.CorrelationIdUtil;
+import lombok.extern.slf4j.Slf4j;
+import net.authorize.Environment;
+import net.authorize.api.contract.v1.ANetApiRequest;
+import net.authorize.api.contract.v1.ANetApiResponse;
+import net.authorize.api.contract.v1.ErrorResponse;
+import net.authorize.api.contract.v1.GetCustomerPaymentProfileRequest;
+import net.authorize.api.contract.v1.GetCustomerProfileRequest;
+import net.authorize.api.contract.v1.GetTransactionDetailsRequest;
+import net.authorize.api.contract.v1.MessageTypeEnum;
+import net.authorize.api.contract.v1.ObjectFactory;
+import org.apache.hc.client5.http.ConnectTimeoutException;
+import org.apache.hc.client5.http.classic.methods.HttpPost;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.client5.http.ssl.SSLConnectionSocketFactoryBuilder;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.io.entity.ByteArrayEntity;
+import org.apache.hc.core5.http.io.entity.EntityUtils;
+import org.apache.hc.core5.io.CloseMode;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.slf4j.MDC;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSessionContext;
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.JAXBIntrospector;
+import javax.xml.bind.Marshaller;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.ConnectException;
+import java.net.NoRouteToHostException;
+import java.net.UnknownHostException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends Authorize.Net API requests over one shared, pooled HTTP client.
+ *
+ * The SDK controllers open a new HTTP client, connection and thread for every call, with
+ * timeouts only settable through JVM-wide system properties. This transport takes the same
+ * SDK contract objects, marshals them with a single JAXB context and posts them to the XML
+ * API over kept-alive connections with explicit connect and read timeouts. TLS sessions are
+ * cached, so new connections resume the handshake. Automatic retries are disabled: a
+ * createTransaction request must never be sent twice.
+ *
+ * Idempotent reads can be hedged through {@link #executeRead}: when the response is later
+ * than usual for the operation, a second request is sent and whichever answers first is used.
+ * Only the request types listed in {@link #HEDGEABLE_READS} are accepted there.
+ *
+ * Every call is timed per operation into {@link MetricsService#recordAuthorizeNetCall}.
+ *
+ * @author Payment Gateway Team
+ * @version 1.0.0
+ */
+@Slf4j
+@Component
+public class AuthorizeNetTransport {
+
+    static final String OUTCOME_OK = "ok";
+    static final String OUTCOME_ERROR = "error";
+    static final String OUTCOME_TIMEOUT = "timeout";
+    static final String OUTCOME_FAILED = "failed";
+
+    /**
+     * Error code of a call Authorize.Net answered with an error response instead of processing it.
+     */
+    public static final String ERROR_REJECTED = "AUTHNET_REQUEST_REJECTED";
+
+    /**
+     * Error code of a call that failed before a connection to Authorize.Net was established.
+     */
+    public static final String ERROR_NOT_SENT = "AUTHNET_REQUEST_NOT_SENT";
+
+    static final String HEDGE_WON = "won";
+    static final String HEDGE_LOST = "lost";
+    static final String HEDGE_BUDGET_EXHAUSTED = "budget_exhausted";
+    static final String HEDGE_REJECTED = "rejected";
+
+    /**
+     * Reads without side effects at the gateway, safe to send twice.
+     */
+    static final Set<Class<? extends ANetApiRequest>> HEDGEABLE_READS = Set.of(
+        GetTransactionDetailsRequest.class,
+        GetCustomerProfileRequest.class,
+        GetCustomerPaymentProfileRequest.class);
+
+    private static final String API_PATH = "/xml/v1/request.api";
+    private static final ContentType XML = ContentType.create("text/xml", StandardCharsets.UTF_8);
+
+    private final MetricsService metricsService;
+    private final String endpoint;
+    private final JAXBContext jaxbContext;
+    private final PoolingHttpClientConnectionManager connectionManager;
+    private final CloseableHttpClient httpClient;
+    // Both null when hedging is disabled
+    private final ReadHedgingPolicy hedgingPolicy;
+    private final ThreadPoolExecutor hedgeExecutor;
+
+    public AuthorizeNetTransport(Environment environment,
+                                 AuthorizeNetProperties authorizeNetProperties,
+                                 MetricsService metricsService) {
+        this.metricsService = metricsService;
+        this.endpoint = environment.getXmlBaseUrl() + API_PATH;
+        AuthorizeNetProperties.Transport config = authorizeNetProperties.getTransport();
+
+        try {
+            // Covers every request and response type of the API; thread-safe once built
+            this.jaxbContext = JAXBContext.newInstance(ObjectFactory.class);
+        } catch (JAXBException e) {
+            throw new IllegalStateException("Failed to initialise Authorize.Net XML binding", e);
+        }
+
+        this.connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+            .setSSLSocketFactory(SSLConnectionSocketFactoryBuilder.create()
+                .setSslContext(sslContext(config))
+                .build())
+            .setMaxConnTotal(config.getMaxConnections())
+            // All calls go to a single host
+            .setMaxConnPerRoute(config.getMaxConnections())
+            .setDefaultConnectionConfig(ConnectionConfig.custom()
+                .setConnectTimeout(Timeout.ofMilliseconds(config.getConnectTimeoutMs()))
+                .setSocketTimeout(Timeout.ofMilliseconds(config.getReadTimeoutMs()))
+                .setValidateAfterInactivity(TimeValue.ofMilliseconds(config.getValidateAfterInactivityMs()))
+                .setTimeToLive(TimeValue.ofMinutes(config.getConnectionTimeToLiveMinutes()))
+                .build())
+            .build();
+
+        TimeValue keepAlive = TimeValue.ofSeconds(config.getKeepAliveSeconds());
+        this.httpClient = HttpClients.custom()
+            .setConnectionManager(connectionManager)
+            .setDefaultRequestConfig(RequestConfig.custom()
+                .setConnectionRequestTimeout(Timeout.ofMilliseconds(config.getConnectionRequestTimeoutMs()))
+                .setResponseTimeout(Timeout.ofMilliseconds(config.getReadTimeoutMs()))
+                .build())
+            .setKeepAliveStrategy((response, context) -> keepAlive)
+            .evictExpiredConnections()
+            .evictIdleConnections(keepAlive)
+            .disableAutomaticRetries()
+            .build();
+
+        metricsService.registerAuthorizeNetConnectionPoolGauges(
+            () -> connectionManager.getTotalStats().getLeased(),
+            () -> connectionManager.getTotalStats().getAvailable(),
+            () -> connectionManager.getTotalStats().getPending());
+
+        AuthorizeNetProperties.Hedging hedging = authorizeNetProperties.getHedging();
+        if (hedging.isEnabled()) {
+            this.hedgingPolicy = new ReadHedgingPolicy(hedging, metricsService::registerAuthorizeNetHedgeDelayGauge);
+            AtomicInteger threadNumber = new AtomicInteger();
+            // One thread per in-flight attempt; no more attempts than pooled connections
+            this.hedgeExecutor = new ThreadPoolExecutor(0, config.getMaxConnections(), 60, TimeUnit.SECONDS,
+                new SynchronousQueue<>(), runnable -> {
+                    Thread thread = new Thread(runnable, "authnet-read-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        } else {
+            this.hedgingPolicy = null;
+            this.hedgeExecutor = null;
+        }
+
+        log.info("Authorize.Net transport initialized - Endpoint: {}, MaxConnections: {}, ConnectTimeout: {}ms, ReadTimeout: {}ms",
+                   endpoint, config.getMaxConnections(), config.getConnectTimeoutMs(), config.getReadTimeoutMs());
+    }
+
+    @PreDestroy
+    public void close() {
+        if (hedgeExecutor != null) {
+            hedgeExecutor.shutdownNow();
+        }
+        httpClient.close(CloseMode.GRACEFUL);
+    }
+
+    /**
+     * Sends a request and returns the gateway's response.
+     *
+     * @param request SDK request, with merchant authentication set
+     * @param responseType Response type of the operation, e.g. CreateTransactionResponse
+     * @return Parsed response; callers still check its result code
+     * @throws PaymentProcessingException if the call failed, timed out or the gateway
+     *         rejected the request as malformed
+     */
+    public <S extends ANetApiResponse> S execute(ANetApiRequest request, Class<S> responseType) {
+        String operation = operationName(request);
+        long startedAt = System.nanoTime();
+        String outcome = OUTCOME_FAILED;
+        try {
+            Object parsed = post(marshal(request));
+            if (parsed instanceof ErrorResponse errorResponse) {
+                outcome = OUTCOME_ERROR;
+                throw new PaymentProcessingException("Authorize.Net rejected " + operation + ": "
+                    + firstMessage(errorResponse), ERROR_REJECTED, CorrelationIdUtil.get());
+            }
+            if (!responseType.isInstance(parsed)) {
+                throw new PaymentProcessingException("Unexpected Authorize.Net response to " + operation + ": "
+                    + parsed.getClass().getSimpleName(), CorrelationIdUtil.get());
+            }
+            S response = responseType.cast(parsed);
+            outcome = isOk(response) ? OUTCOME_OK : OUTCOME_ERROR;
+            return response;
+        } catch (ConnectTimeoutException e) {
+            outcome = OUTCOME_TIMEOUT;
+            throw new PaymentProcessingException("Authorize.Net " + operation + " connect timed out", ERROR_NOT_SENT, e,
+                CorrelationIdUtil.get());
+        } catch (ConnectException | NoRouteToHostException | UnknownHostException e) {
+            throw new PaymentProcessingException("Authorize.Net " + operation + " connect failed: " + e.getMessage(),
+                ERROR_NOT_SENT, e, CorrelationIdUtil.get());
+        } catch (InterruptedIOException e) {
+            outcome = OUTCOME_TIMEOUT;
+            throw new PaymentProcessingException("Authorize.Net " + operation + " call timed out", e,
+                CorrelationIdUtil.get());
+        } catch (IOException | JAXBException e) {
+            throw new PaymentProcessingException("Authorize.Net " + operation + " call failed: " + e.getMessage(), e,
+                CorrelationIdUtil.get());
+        } finally {
+            long elapsed = System.nanoTime() - startedAt;
+            metricsService.recordAuthorizeNetCall(operation, outcome, Duration.ofNanos(elapsed));
+            if (hedgingPolicy != null && !OUTCOME_FAILED.equals(outcome) && !OUTCOME_TIMEOUT.equals(outcome)
+                && HEDGEABLE_READS.contains(request.getClass())) {
+                hedgingPolicy.recordLatency(operation, elapsed);
+            }
+        }
+    }
+
+    /**
+     * Whether a failed {@link #execute} call certainly did not make Authorize.Net process the
+     * request: it was rejected, or never sent. After any other failure, such as a read
+     * timeout, the gateway may have processed it.
+     */
+    public static boolean isNotProcessed(Throwable error) {
+        return error instanceof PaymentProcessingException e
+            && (ERROR_REJECTED.equals(e.getErrorCode()) || ERROR_NOT_SENT.equals(e.getErrorCode()));
+    }
+
+    /**
+     * Sends an idempotent read, hedged when hedging is enabled. If no response arrived after
+     * the operation's hedge delay and the hedge budget allows, the same request is sent
+     * again; the first response to arrive is returned. The other request is not aborted,
+     * its response is discarded.
+     *
+     * @param request SDK request of one of the {@link #HEDGEABLE_READS}
+     * @param responseType Response type of the operation
+     * @return Parsed response; callers still check its result code
+     * @throws IllegalArgumentException if the request type is not a hedgeable read
+     * @throws PaymentProcessingException if every request sent failed
+     */
+    public <S extends ANetApiResponse> S executeRead(ANetApiRequest request, Class<S> responseType) {
+        if (!HEDGEABLE_READS.contains(request.getClass())) {
+            throw new IllegalArgumentException(operationName(request) + " is not an idempotent read");
+        }
+        if (hedgingPolicy == null) {
+            return execute(request, responseType);
+        }
+
+        String operation = operationName(request);
+        long startedAt = System.nanoTime();
+        hedgingPolicy.recordRead();
+        try {
+            S response = hedged(operation, request, responseType, startedAt);
+            metricsService.recordAuthorizeNetRead(operation, Duration.ofNanos(System.nanoTime() - startedAt));
+            return response;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PaymentProcessingException("Interrupted waiting for Authorize.Net " + operation, e,
+                CorrelationIdUtil.get());
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new PaymentProcessingException("Authorize.Net " + operation + " call failed", e.getCause(),
+                CorrelationIdUtil.get());
+        }
+    }
+
+    private <S extends ANetApiResponse> S hedged(String operation, ANetApiRequest request, Class<S> responseType,
+                                                 long startedAt) throws InterruptedException, ExecutionException {
+        CompletableFuture<S> primary = submit(request, responseType);
+        if (primary == null) {
+            // Every attempt thread is busy; calling the gateway directly is no worse than before
+            return execute(request, responseType);
+        }
+        try {
+            return primary.get(hedgingPolicy.hedgeDelayNanos(operation), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException slow) {
+            // Fall through and hedge
+        }
+
+        if (!hedgingPolicy.tryAcquireHedge()) {
+            metricsService.recordAuthorizeNetHedge(operation, HEDGE_BUDGET_EXHAUSTED);
+            return primary.get();
+        }
+        CompletableFuture<S> hedge = submit(request, responseType);
+        if (hedge == null) {
+            metricsService.recordAuthorizeNetHedge(operation, HEDGE_REJECTED);
+            return primary.get();
+        }
+
+        CompletableFuture<Attempt<S>> first = new CompletableFuture<>();
+        AtomicInteger failures = new AtomicInteger();
+        primary.whenComplete((response, error) -> settle(first, failures, response, error, false));
+        hedge.whenComplete((response, error) -> settle(first, failures, response, error, true));
+
+        Attempt<S> winner = first.get();
+        if (winner.hedge()) {
+            metricsService.recordAuthorizeNetHedge(operation, HEDGE_WON);
+            long answeredAt = System.nanoTime();
+            // How much the caller gained shows once the original request completes
+            primary.thenRun(() -> metricsService.recordAuthorizeNetHedgeSaving(operation,
+                Duration.ofNanos(System.nanoTime() - answeredAt)));
+        } else {
+            metricsService.recordAuthorizeNetHedge(operation, HEDGE_LOST);
+        }
+        return winner.response();
+    }
+
+    /**
+     * Runs one attempt on the hedge executor.
+     *
+     * @return the pending attempt, or null if no thread was free
+     */
+    private <S extends ANetApiResponse> CompletableFuture<S> submit(ANetApiRequest request, Class<S> responseType) {
+        Map<String, String> mdc = MDC.getCopyOfContextMap();
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                if (mdc != null) {
+                    MDC.setContextMap(mdc);
+                }
+                try {
+                    return execute(request, responseType);
+                } finally {
+                    MDC.clear();
+                }
+            }, hedgeExecutor);
+        } catch (RejectedExecutionException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Completes with the first successful attempt, or with the last failure if both failed.
+     */
+    private static <S> void settle(CompletableFuture<Attempt<S>> first, AtomicInteger failures,
+                                   S response, Throwable error, boolean hedge) {
+        if (error == null) {
+            first.complete(new Attempt<>(response, hedge));
+        } else if (failures.incrementAndGet() == 2) {
+            first.completeExceptionally(error instanceof CompletionException && error.getCause() != null
+                ? error.getCause() : error);
+        }
+    }
+
+    private record Attempt<S>(S response, boolean hedge) {
+    }
+
+    /**
+     * Operation name used as metric tag, e.g. CreateTransaction or ARBGetSubscription.
+     */
+    static String operationName(ANetApiRequest request) {
+        String name = request.getClass().getSimpleName();
+        return name.endsWith("Request") ? name.substring(0, name.length() - "Request".length()) : name;
+    }
+
+    private byte[] marshal(ANetApiRequest request) throws JAXBException {
+        Marshaller marshaller = jaxbContext.createMarshaller();
+        marshaller.setProperty(Marshaller.JAXB_ENCODING, StandardCharsets.UTF_8.name());
+        ByteArrayOutputStream xml = new ByteArrayOutputStream(1024);
+        marshaller.marshal(request, xml);
+        return xml.toByteArray();
+    }
+
+    private Object post(byte[] xml) throws IOException, JAXBException {
+        HttpPost post = new HttpPost(endpoint);
+        post.setEntity(new ByteArrayEntity(xml, XML));
+        byte[] body = httpClient.execute(post, response -> {
+            byte[] content = response.getEntity() != null ? EntityUtils.toByteArray(response.getEntity()) : new byte[0];
+            if (response.getCode() != 200) {
+                throw new IOException("HTTP " + response.getCode() + " from Authorize.Net");
+            }
+            return content;
+        });
+        // The gateway prefixes responses with a byte order mark, which the XML parser skips
+        return JAXBIntrospector.getValue(jaxbContext.createUnmarshaller().unmarshal(new ByteArrayInputStream(body)));
+    }
+
+    private static SSLContext sslContext(AuthorizeNetProperties.Transport config) {
+        try {
+            SSLContext sslContext = SSLContext.getInstance("TLS");
+            sslContext.init(null, null, null);
+            SSLSessionContext sessions = sslContext.getClientSessionContext();
+            sessions.setSessionCacheSize(config.getTlsSessionCacheSize());
+            sessions.setSessionTimeout(config.getTlsSessionTimeoutSeconds());
+            return sslContext;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Failed to initialise TLS for Authorize.Net", e);
+        }
+    }
+
+    private static boolean isOk(ANetApiResponse response) {
+        return response.getMessages() != null && response.getMessages().getResultCode() == MessageTypeEnum.OK;
+    }
+
+    private static String firstMessage(ANetApiResponse response) {
+        if (response.getMessages() == null || response.getMessages().getMessage().isEmpty()) {
+            return "no message";
+        }
+        var message = response.getMessages().getMessage().get(0);
+        return message.getCode() + " " + message.getText();
+    }
+}
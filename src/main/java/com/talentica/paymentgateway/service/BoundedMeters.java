@@ -0,0 +1,345 @@
+package com.talentica.paymentgateway.service;
+
+import com.talentica.paymentgateway.config.properties.MetricsProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Registered-once meters whose tag values are kept to a bounded set.
+ *
+ * Meters are built and registered on first use and then served from a map, so recording
+ * does not allocate a builder or look the meter up in the registry. Each tag value passes
+ * through a guard before the lookup:
+ * - Tags with an allow-list keep listed values only.
+ * - Other tags keep their top-K most frequent values. The kept set is re-ranked each
+ *   interval with a Space-Saving summary of the values that did not make it; a value that
+ *   drops out has its series removed.
+ * Values that are not kept are recorded under "other". Registration also stops at a hard
+ * series limit shared by all families, after which new combinations go to "other".
+ *
+ * @author Payment Gateway Team
+ * @version 1.0.0
+ */
+@Slf4j
+class BoundedMeters {
+
+    static final String OTHER = "other";
+
+    private final MeterRegistry registry;
+    private final MetricsProperties.Cardinality config;
+    private final LongSupplier nanoClock;
+    private final AtomicInteger series = new AtomicInteger();
+    private final AtomicBoolean limitReached = new AtomicBoolean();
+
+    BoundedMeters(MeterRegistry registry, MetricsProperties.Cardinality config) {
+        this(registry, config, System::nanoTime);
+    }
+
+    BoundedMeters(MeterRegistry registry, MetricsProperties.Cardinality config, LongSupplier nanoClock) {
+        this.registry = registry;
+        this.config = config;
+        this.nanoClock = nanoClock;
+        Gauge.builder("metrics.cardinality.series", series, AtomicInteger::get)
+                .description("Series registered through the bounded meter cache")
+                .register(registry);
+    }
+
+    /**
+     * Counters named {@code name} tagged with the given keys.
+     *
+     * @param allowLists Code-level allow-lists by tag key, for tags with a known value set
+     */
+    Family<Counter> counters(String name, String description, Map<String, Set<String>> allowLists, String... tagKeys) {
+        return new Family<>(name, tagKeys, allowLists,
+            tags -> Counter.builder(name).tags(tags).description(description).register(registry));
+    }
+
+    /**
+     * Timers named {@code name} tagged with the given keys.
+     *
+     * @param allowLists Code-level allow-lists by tag key, for tags with a known value set
+     */
+    Family<Timer> timers(String name, String description, Map<String, Set<String>> allowLists, String... tagKeys) {
+        return new Family<>(name, tagKeys, allowLists,
+            tags -> Timer.builder(name).tags(tags).description(description).register(registry));
+    }
+
+    int seriesCount() {
+        return series.get();
+    }
+
+    /**
+     * Meters sharing a name, with one or two guarded tags.
+     */
+    final class Family<M extends Meter> {
+
+        private final String name;
+        private final String[] tagKeys;
+        private final TagGuard[] guards;
+        private final Function<Tags, M> factory;
+        private final Counter folded;
+        private final ConcurrentHashMap<String, M> byValue = new ConcurrentHashMap<>();
+        private final ConcurrentHashMap<String, ConcurrentHashMap<String, M>> byPair = new ConcurrentHashMap<>();
+
+        private Family(String name, String[] tagKeys, Map<String, Set<String>> allowLists, Function<Tags, M> factory) {
+            if (tagKeys.length < 1 || tagKeys.length > 2) {
+                throw new IllegalArgumentException("Bounded meters support one or two tags: " + name);
+            }
+            this.name = name;
+            this.tagKeys = tagKeys;
+            this.factory = factory;
+            this.guards = new TagGuard[tagKeys.length];
+            for (int i = 0; i < tagKeys.length; i++) {
+                int position = i;
+                guards[i] = new TagGuard(tagKeys[i], allowList(tagKeys[i], allowLists),
+                    config.getTopK().getOrDefault(tagKeys[i], config.getDefaultTopK()),
+                    value -> evict(position, value));
+            }
+            this.folded = Counter.builder("metrics.cardinality.folded")
+                    .tag("meter", name)
+                    .description("Recordings whose tag values were folded into the other series")
+                    .register(registry);
+        }
+
+        /**
+         * Meter for a single-tag family.
+         */
+        M get(String value) {
+            String kept = resolve(0, value);
+            M meter = byValue.get(kept);
+            if (meter == null) {
+                meter = byValue.computeIfAbsent(kept, key -> register(Tags.of(tagKeys[0], key)));
+            }
+            return meter;
+        }
+
+        /**
+         * Meter for a two-tag family.
+         */
+        M get(String first, String second) {
+            String keptFirst = resolve(0, first);
+            String keptSecond = resolve(1, second);
+            ConcurrentHashMap<String, M> inner = byPair.get(keptFirst);
+            if (inner == null) {
+                inner = byPair.computeIfAbsent(keptFirst, key -> new ConcurrentHashMap<>());
+            }
+            M meter = inner.get(keptSecond);
+            if (meter == null) {
+                meter = inner.computeIfAbsent(keptSecond,
+                    key -> register(Tags.of(tagKeys[0], keptFirst, tagKeys[1], key)));
+            }
+            return meter;
+        }
+
+        private String resolve(int position, String value) {
+            String kept = guards[position].resolve(value);
+            if (OTHER.equals(kept) && !OTHER.equals(value)) {
+                folded.increment();
+            }
+            return kept;
+        }
+
+        private M register(Tags tags) {
+            // The all-other series of each family is always allowed and not counted
+            boolean otherSeries = tags.stream().allMatch(tag -> OTHER.equals(tag.getValue()));
+            if (!otherSeries && series.incrementAndGet() > config.getMaxSeries()) {
+                series.decrementAndGet();
+                if (limitReached.compareAndSet(false, true)) {
+                    log.warn("Metric series limit {} reached; new tag combinations are recorded as other",
+                        config.getMaxSeries());
+                }
+                return otherMeter();
+            }
+            return factory.apply(tags);
+        }
+
+        private M otherMeter() {
+            Tags tags = Tags.empty();
+            for (String key : tagKeys) {
+                tags = tags.and(key, OTHER);
+            }
+            // Registering an existing id returns the registered meter
+            return factory.apply(tags);
+        }
+
+        private void evict(int position, String value) {
+            List<M> evicted = new ArrayList<>();
+            if (tagKeys.length == 1) {
+                M meter = byValue.remove(value);
+                if (meter != null) {
+                    evicted.add(meter);
+                }
+            } else if (position == 0) {
+                Map<String, M> inner = byPair.remove(value);
+                if (inner != null) {
+                    evicted.addAll(inner.values());
+                }
+            } else {
+                for (ConcurrentHashMap<String, M> inner : byPair.values()) {
+                    M meter = inner.remove(value);
+                    if (meter != null) {
+                        evicted.add(meter);
+                    }
+                }
+            }
+            for (M meter : evicted) {
+                // Combinations past the series limit share the other series, which stays
+                boolean otherSeries = meter.getId().getTags().stream().allMatch(tag -> OTHER.equals(tag.getValue()));
+                if (!otherSeries && registry.remove(meter) != null) {
+                    series.decrementAndGet();
+                }
+            }
+            log.debug("Demoted {}={} from {}; {} series removed", tagKeys[position], value, name, evicted.size());
+        }
+
+        private Set<String> allowList(String tagKey, Map<String, Set<String>> allowLists) {
+            List<String> configured = config.getAllowedValues().get(tagKey);
+            if (configured != null) {
+                return Set.copyOf(configured);
+            }
+            return allowLists.get(tagKey);
+        }
+    }
+
+    /**
+     * Decides which values of one tag keep their own series.
+     */
+    private final class TagGuard {
+
+        private final String key;
+        private final Set<String> allowed;
+        private final int limit;
+        private final Consumer<String> onDemote;
+        private final ConcurrentHashMap<String, LongAdder> kept = new ConcurrentHashMap<>();
+        // Space-Saving summary of values outside the kept set, guarded by this
+        private final Map<String, long[]> candidates = new HashMap<>();
+        private long nextRebalanceNanos;
+
+        TagGuard(String key, Set<String> allowed, int limit, Consumer<String> onDemote) {
+            this.key = key;
+            this.allowed = allowed;
+            this.limit = limit;
+            this.onDemote = onDemote;
+            this.nextRebalanceNanos = nanoClock.getAsLong() + rebalanceIntervalNanos();
+        }
+
+        String resolve(String value) {
+            if (value == null || OTHER.equals(value)) {
+                return OTHER;
+            }
+            if (allowed != null) {
+                return allowed.contains(value) ? value : OTHER;
+            }
+            LongAdder hits = kept.get(value);
+            if (hits != null) {
+                hits.increment();
+                return value;
+            }
+            return admitOrFold(value);
+        }
+
+        private synchronized String admitOrFold(String value) {
+            LongAdder hits = kept.get(value);
+            if (hits == null && kept.size() < limit) {
+                hits = new LongAdder();
+                kept.put(value, hits);
+            }
+            if (hits != null) {
+                hits.increment();
+                return value;
+            }
+
+            offer(value);
+            long now = nanoClock.getAsLong();
+            if (now - nextRebalanceNanos >= 0) {
+                rebalance();
+                nextRebalanceNanos = now + rebalanceIntervalNanos();
+                if (kept.containsKey(value)) {
+                    return value;
+                }
+            }
+            return OTHER;
+        }
+
+        private void offer(String value) {
+            long[] count = candidates.get(value);
+            if (count != null) {
+                count[0]++;
+                return;
+            }
+            if (candidates.size() < limit) {
+                candidates.put(value, new long[] {1});
+                return;
+            }
+            // Replace the least frequent candidate, inheriting its count as the error bound
+            Map.Entry<String, long[]> min = null;
+            for (Map.Entry<String, long[]> entry : candidates.entrySet()) {
+                if (min == null || entry.getValue()[0] < min.getValue()[0]) {
+                    min = entry;
+                }
+            }
+            long inherited = min.getValue()[0];
+            candidates.remove(min.getKey());
+            candidates.put(value, new long[] {inherited + 1});
+        }
+
+        /**
+         * Swaps kept values for more frequent candidates, then starts a new counting window.
+         */
+        private void rebalance() {
+            List<Map.Entry<String, long[]>> ranked = new ArrayList<>(candidates.entrySet());
+            ranked.sort(Comparator.comparingLong((Map.Entry<String, long[]> entry) -> entry.getValue()[0]).reversed());
+
+            Set<String> demoted = new HashSet<>();
+            for (Map.Entry<String, long[]> candidate : ranked) {
+                Map.Entry<String, LongAdder> weakest = null;
+                for (Map.Entry<String, LongAdder> entry : kept.entrySet()) {
+                    if (weakest == null || entry.getValue().sum() < weakest.getValue().sum()) {
+                        weakest = entry;
+                    }
+                }
+                if (weakest == null || candidate.getValue()[0] <= weakest.getValue().sum()) {
+                    break;
+                }
+                kept.remove(weakest.getKey());
+                demoted.add(weakest.getKey());
+                LongAdder hits = new LongAdder();
+                hits.add(candidate.getValue()[0]);
+                kept.put(candidate.getKey(), hits);
+            }
+
+            candidates.clear();
+            kept.values().forEach(LongAdder::reset);
+            for (String value : demoted) {
+                onDemote.accept(value);
+            }
+            if (!demoted.isEmpty()) {
+                log.info("Re-ranked tag {}: {} values demoted to other", key, demoted.size());
+            }
+        }
+
+        private long rebalanceIntervalNanos() {
+            return config.getRebalanceIntervalSeconds() * 1_000_000_000L;
+        }
+    }
+}
@@ -0,0 +1,284 @@
+package com.talentica.paymentgateway.service;
+
+import com.talentica.paymentgateway.config.properties.AuthorizeNetProperties;
+import com.talentica.paymentgateway.entity.Customer;
+import com.talentica.paymentgateway.exception.PaymentProcessingException;
+import com.talentica.paymentgateway.repository.CustomerRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Creates Authorize.Net CIM customer profiles in the background, off the checkout path.
+ *
+ * Payments enqueue customers that have no profile yet; the request is handed to a small
+ * worker pool once the enclosing transaction commits. Requests are coalesced per customer,
+ * so repeated purchases while a profile is being created cause a single gateway call.
+ * Failed calls are retried with exponential backoff and jitter. A periodic sweep queues
+ * paying customers still without a profile, which covers requests lost to a restart or
+ * whose attempts were used up.
+ *
+ * If a previous attempt created the profile but failed to record it, Authorize.Net reports
+ * a duplicate with the existing profile ID, which is then recorded instead.
+ *
+ * @author Payment Gateway Team
+ * @version 1.0.0
+ */
+@Slf4j
+@Service
+public class CustomerProfileProvisioningService {
+
+    static final String OUTCOME_CREATED = "created";
+    static final String OUTCOME_EXISTING = "existing";
+    static final String OUTCOME_SKIPPED = "skipped";
+    static final String OUTCOME_COALESCED = "coalesced";
+    static final String OUTCOME_REJECTED = "rejected";
+    static final String OUTCOME_RETRIED = "retried";
+    static final String OUTCOME_FAILED = "failed";
+
+    private static final Pattern DUPLICATE_PROFILE = Pattern.compile("duplicate record with ID (\\d+)");
+    private static final UUID FIRST_ID = new UUID(0L, 0L);
+
+    private final CustomerRepository customerRepository;
+    private final AuthorizeNetCustomerService authorizeNetCustomerService;
+    private final TransactionTemplate transactionTemplate;
+    private final MetricsService metricsService;
+    private final AuthorizeNetProperties.ProfileProvisioning config;
+
+    // Customers queued, in flight or waiting for a retry
+    private final Map<UUID, Boolean> pending = new ConcurrentHashMap<>();
+    // Customers whose attempts were used up, left alone by the sweep until the cooldown ends
+    private final Map<UUID, Instant> exhausted = new ConcurrentHashMap<>();
+
+    private ScheduledThreadPoolExecutor workers;
+
+    public CustomerProfileProvisioningService(CustomerRepository customerRepository,
+                                              AuthorizeNetCustomerService authorizeNetCustomerService,
+                                              TransactionTemplate transactionTemplate,
+                                              MetricsService metricsService,
+                                              AuthorizeNetProperties authorizeNetProperties) {
+        this.customerRepository = customerRepository;
+        this.authorizeNetCustomerService = authorizeNetCustomerService;
+        this.transactionTemplate = transactionTemplate;
+        this.metricsService = metricsService;
+        this.config = authorizeNetProperties.getProfileProvisioning();
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!config.isEnabled()) {
+            log.info("CIM profile provisioning disabled; profiles are only created through the customer API");
+            return;
+        }
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        workers = new ScheduledThreadPoolExecutor(config.getWorkerThreads(), runnable -> {
+            Thread thread = new Thread(runnable, "cim-profile-provisioning-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        workers.setRemoveOnCancelPolicy(true);
+        metricsService.registerCustomerProfileProvisioningGauge(pending::size);
+
+        if (config.getSweepIntervalMinutes() > 0) {
+            workers.scheduleWithFixedDelay(this::sweepSafely, config.getSweepIntervalMinutes(),
+                config.getSweepIntervalMinutes(), TimeUnit.MINUTES);
+        }
+        log.info("CIM profile provisioning started - Workers: {}, MaxAttempts: {}, SweepInterval: {}min",
+                   config.getWorkerThreads(), config.getMaxAttempts(), config.getSweepIntervalMinutes());
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (workers != null) {
+            // Pending customers are picked up again by the next purchase or sweep
+            workers.shutdownNow();
+        }
+    }
+
+    /**
+     * Queues a customer for profile creation once the current transaction commits, or
+     * immediately when there is none. Never blocks and never throws.
+     */
+    public void enqueue(UUID customerId) {
+        if (workers == null || customerId == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // The worker must see the committed customer; a rolled back one needs no profile
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    submit(customerId);
+                }
+            });
+        } else {
+            submit(customerId);
+        }
+    }
+
+    int pending() {
+        return pending.size();
+    }
+
+    /**
+     * @return true if a new provisioning request was started for the customer
+     */
+    boolean submit(UUID customerId) {
+        if (pending.size() >= config.getMaxPending()) {
+            metricsService.recordCustomerProfileProvisioning(OUTCOME_REJECTED);
+            return false;
+        }
+        if (pending.putIfAbsent(customerId, Boolean.TRUE) != null) {
+            metricsService.recordCustomerProfileProvisioning(OUTCOME_COALESCED);
+            return false;
+        }
+        try {
+            workers.execute(() -> attempt(customerId, 1));
+            return true;
+        } catch (RejectedExecutionException e) {
+            pending.remove(customerId);
+            metricsService.recordCustomerProfileProvisioning(OUTCOME_REJECTED);
+            return false;
+        }
+    }
+
+    /**
+     * Runs one provisioning attempt, scheduling the next one on failure until the attempts
+     * are used up.
+     */
+    void attempt(UUID customerId, int attempt) {
+        try {
+            provision(customerId);
+            exhausted.remove(customerId);
+        } catch (RuntimeException e) {
+            if (attempt < config.getMaxAttempts() && scheduleRetry(customerId, attempt + 1)) {
+                metricsService.recordCustomerProfileProvisioning(OUTCOME_RETRIED);
+                log.warn("CIM profile creation failed for customer {} (attempt {}/{}), retrying: {}",
+                           customerId, attempt, config.getMaxAttempts(), e.getMessage());
+                return;
+            }
+            exhausted.put(customerId, Instant.now());
+            metricsService.recordCustomerProfileProvisioning(OUTCOME_FAILED);
+            log.error("CIM profile creation failed for customer {} after {} attempts: {}",
+                        customerId, attempt, e.getMessage());
+        }
+        pending.remove(customerId);
+    }
+
+    /**
+     * Queues paying customers that still have no profile, page by page.
+     *
+     * @return number of customers queued
+     */
+    int sweepOnce() {
+        Instant cooldownStart = Instant.now().minus(config.getExhaustedCooldownMinutes(), ChronoUnit.MINUTES);
+        exhausted.values().removeIf(gaveUpAt -> gaveUpAt.isBefore(cooldownStart));
+
+        ZonedDateTime createdBefore = ZonedDateTime.now().minusMinutes(config.getSweepGraceMinutes());
+        UUID afterId = FIRST_ID;
+        int queued = 0;
+        while (pending.size() < config.getMaxPending()) {
+            List<UUID> page = customerRepository.findIdsMissingAuthorizeNetProfile(
+                createdBefore, afterId, config.getSweepPageSize());
+            for (UUID customerId : page) {
+                if (!exhausted.containsKey(customerId) && !pending.containsKey(customerId) && submit(customerId)) {
+                    queued++;
+                }
+            }
+            if (page.size() < config.getSweepPageSize()) {
+                break;
+            }
+            afterId = page.get(page.size() - 1);
+        }
+        if (queued > 0) {
+            log.info("CIM profile sweep queued {} customers without a profile", queued);
+        }
+        return queued;
+    }
+
+    long backoffMillis(int failedAttempts) {
+        double delay = config.getInitialBackoffMs() * Math.pow(config.getBackoffMultiplier(), failedAttempts - 1);
+        long capped = (long) Math.min(delay, config.getMaxBackoffMs());
+        // Up to 20% jitter either way, so customers failing together do not retry together
+        return Math.max(1, (long) (capped * ThreadLocalRandom.current().nextDouble(0.8, 1.2)));
+    }
+
+    private void provision(UUID customerId) {
+        Optional<Customer> found = customerRepository.findById(customerId);
+        if (found.isEmpty() || hasProfile(found.get())) {
+            metricsService.recordCustomerProfileProvisioning(OUTCOME_SKIPPED);
+            return;
+        }
+
+        String outcome = OUTCOME_CREATED;
+        String profileId;
+        try {
+            profileId = authorizeNetCustomerService.createCustomerProfile(found.get(), null);
+        } catch (PaymentProcessingException e) {
+            Matcher duplicate = DUPLICATE_PROFILE.matcher(String.valueOf(e.getMessage()));
+            if (!duplicate.find()) {
+                throw e;
+            }
+            profileId = duplicate.group(1);
+            outcome = OUTCOME_EXISTING;
+        }
+        if (profileId == null || profileId.isBlank()) {
+            throw new IllegalStateException("Authorize.Net returned no customer profile ID");
+        }
+
+        String assignedProfileId = profileId;
+        Integer updated = transactionTemplate.execute(status ->
+            customerRepository.assignAuthorizeNetCustomerProfileId(customerId, assignedProfileId));
+        if (updated != null && updated == 1) {
+            metricsService.recordCustomerProfileProvisioning(outcome);
+            log.info("CIM profile recorded for customer {} - ProfileId: {}, Outcome: {}", customerId, profileId, outcome);
+        } else {
+            // The customer API assigned a profile meanwhile
+            metricsService.recordCustomerProfileProvisioning(OUTCOME_SKIPPED);
+            log.warn("Customer {} already had a CIM profile; profile {} was not recorded", customerId, profileId);
+        }
+    }
+
+    private boolean scheduleRetry(UUID customerId, int nextAttempt) {
+        try {
+            workers.schedule(() -> attempt(customerId, nextAttempt), backoffMillis(nextAttempt - 1), TimeUnit.MILLISECONDS);
+            return true;
+        } catch (RejectedExecutionException e) {
+            return false;
+        }
+    }
+
+    private void sweepSafely() {
+        try {
+            sweepOnce();
+        } catch (Exception e) {
+            log.error("Error sweeping customers without a CIM profile: {}", e.getMessage(), e);
+        }
+    }
+
+    private static boolean hasProfile(Customer customer) {
+        return customer.getAuthorizeNetCustomerProfileId() != null
+            && !customer.getAuthorizeNetCustomerProfileId().isBlank();
+    }
+}
@@ -0,0 +1,326 @@
+package com.talentica.paymentgateway.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.talentica.paymentgateway.config.properties.PaymentProperties;
+import com.talentica.paymentgateway.dto.payment.PaymentResponse;
+import com.talentica.paymentgateway.exception.PaymentProcessingException;
+import com.talentica.paymentgateway.util.CorrelationIdUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Single-flight execution of payment requests that share an idempotency key.
+ *
+ * The first request for a key runs; concurrent duplicates wait for its response instead of
+ * racing it to the gateway:
+ * - On this node duplicates join the running attempt in memory.
+ * - Across nodes the first request claims the key with an atomic Redis {@code SET NX} that
+ *   expires after the lease. Its response replaces the claim and is replayed for the result
+ *   TTL. Duplicates on other nodes poll Redis for it.
+ *
+ * Each claim carries a random token. The response is stored, and a failed request's claim
+ * deleted, by Lua scripts that first check the key still holds that token. A request that
+ * outlives its lease therefore cannot overwrite or delete the claim of a later request.
+ *
+ * Duplicates neither query nor write the database while the first request runs. They only
+ * run the request themselves when that cannot charge the card twice:
+ * - If the first request failed before the gateway processed it, its claim is released and
+ *   a duplicate runs in its place.
+ * - If it failed with an unknown outcome, such as a read timeout, the duplicate gets that
+ *   failure, or an outcome-unknown error on another node, until the lease expires. Later
+ *   retries are answered from the PENDING transaction recovery settles.
+ * - If the wait times out, which the lease bounds, the duplicate gets an in-progress error.
+ * - If Redis is unavailable, a duplicate runs the request. The transaction row carries the
+ *   idempotency key under a unique constraint and is committed before the gateway is called,
+ *   so the duplicate either finds it or loses the insert and returns the first request's row.
+ *
+ * @author Payment Gateway Team
+ * @version 1.0.0
+ */
+@Slf4j
+@Service
+public class IdempotentRequestCoordinator {
+
+    static final String KEY_PREFIX = "payment:idempotency:";
+    // Prefix of a claim's value; the rest is the claiming request's token
+    static final String IN_FLIGHT = "in-flight:";
+    // Replaces the claim of a request that failed after the gateway may have processed it
+    static final String OUTCOME_UNKNOWN = "outcome-unknown:";
+
+    public static final String ERROR_IN_PROGRESS = "IDEMPOTENT_REQUEST_IN_PROGRESS";
+    public static final String ERROR_OUTCOME_UNKNOWN = "IDEMPOTENT_REQUEST_OUTCOME_UNKNOWN";
+
+    static final String OUTCOME_EXECUTED = "executed";
+    static final String OUTCOME_JOINED = "joined";
+    static final String OUTCOME_REPLAYED = "replayed";
+    static final String OUTCOME_FALLBACK = "fallback";
+    static final String OUTCOME_UNRESOLVED = "unresolved";
+
+    // Replaces the claim with the response (ARGV[2], TTL ARGV[3] ms) if the key still holds ARGV[1]
+    static final DefaultRedisScript<Long> STORE_IF_CLAIMED = new DefaultRedisScript<>("""
+            if redis.call('GET', KEYS[1]) == ARGV[1] then
+                redis.call('SET', KEYS[1], ARGV[2], 'PX', tonumber(ARGV[3]))
+                return 1
+            end
+            return 0
+            """, Long.class);
+
+    // Deletes the key if it still holds the claim ARGV[1]
+    static final DefaultRedisScript<Long> RELEASE_IF_CLAIMED = new DefaultRedisScript<>("""
+            if redis.call('GET', KEYS[1]) == ARGV[1] then
+                return redis.call('DEL', KEYS[1])
+            end
+            return 0
+            """, Long.class);
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final MetricsService metricsService;
+    private final PaymentProperties.Idempotency config;
+
+    // Attempts running on this node by idempotency key
+    private final Map<String, CompletableFuture<PaymentResponse>> inFlight = new ConcurrentHashMap<>();
+
+    @Autowired
+    public IdempotentRequestCoordinator(@Autowired(required = false) RedisTemplate<String, Object> redisTemplate,
+                                        ObjectMapper objectMapper,
+                                        MetricsService metricsService,
+                                        PaymentProperties paymentProperties) {
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.metricsService = metricsService;
+        this.config = paymentProperties.getIdempotency();
+    }
+
+    /**
+     * Runs the request unless a request with the same idempotency key is already running,
+     * in which case that request's response is returned.
+     *
+     * @param idempotencyKey Client supplied key; requests without one always run
+     * @param request The payment request, including its own idempotency check
+     * @return the response of whichever request ran
+     */
+    public PaymentResponse execute(String idempotencyKey, Supplier<PaymentResponse> request) {
+        if (!config.isEnabled() || idempotencyKey == null || idempotencyKey.isBlank()) {
+            return request.get();
+        }
+
+        CompletableFuture<PaymentResponse> attempt = new CompletableFuture<>();
+        CompletableFuture<PaymentResponse> running = inFlight.putIfAbsent(idempotencyKey, attempt);
+        if (running != null) {
+            return join(idempotencyKey, running, request);
+        }
+
+        try {
+            PaymentResponse response = claimAndRun(idempotencyKey, request);
+            attempt.complete(response);
+            return response;
+        } catch (RuntimeException e) {
+            attempt.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(idempotencyKey, attempt);
+        }
+    }
+
+    int inFlight() {
+        return inFlight.size();
+    }
+
+    private PaymentResponse join(String idempotencyKey, CompletableFuture<PaymentResponse> running,
+                                 Supplier<PaymentResponse> request) {
+        try {
+            PaymentResponse response = running.get(config.getWaitTimeoutSeconds(), TimeUnit.SECONDS);
+            metricsService.recordIdempotentRequest(OUTCOME_JOINED);
+            return response;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PaymentProcessingException("Interrupted waiting for the request with the same idempotency key",
+                e, CorrelationIdUtil.get());
+        } catch (ExecutionException e) {
+            if (isNotProcessed(e.getCause())) {
+                // The gateway never processed the first request, so this one may
+                log.info("Request with idempotency key {} was not processed, running duplicate", idempotencyKey);
+                metricsService.recordIdempotentRequest(OUTCOME_FALLBACK);
+                return request.get();
+            }
+            metricsService.recordIdempotentRequest(OUTCOME_UNRESOLVED);
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new PaymentProcessingException("Request with the same idempotency key failed",
+                ERROR_OUTCOME_UNKNOWN, e.getCause(), CorrelationIdUtil.get());
+        } catch (TimeoutException e) {
+            metricsService.recordIdempotentRequest(OUTCOME_UNRESOLVED);
+            throw inProgress(idempotencyKey);
+        }
+    }
+
+    private PaymentResponse claimAndRun(String idempotencyKey, Supplier<PaymentResponse> request) {
+        String claim = IN_FLIGHT + UUID.randomUUID();
+        Boolean claimed = claim(idempotencyKey, claim);
+        if (Boolean.FALSE.equals(claimed)) {
+            PaymentResponse replayed = awaitResult(idempotencyKey);
+            if (replayed != null) {
+                metricsService.recordIdempotentRequest(OUTCOME_REPLAYED);
+                return replayed;
+            }
+            // The claim was released without a result, or Redis could not be read
+            metricsService.recordIdempotentRequest(OUTCOME_FALLBACK);
+            return request.get();
+        }
+
+        metricsService.recordIdempotentRequest(OUTCOME_EXECUTED);
+        PaymentResponse response;
+        try {
+            response = request.get();
+        } catch (RuntimeException e) {
+            if (isNotProcessed(e)) {
+                // Nothing was charged; let duplicates and retries run on their own
+                release(idempotencyKey, claimed, claim);
+            } else {
+                // The card may have been charged; hold duplicates off until the lease expires
+                markOutcomeUnknown(idempotencyKey, claimed, claim);
+            }
+            throw e;
+        }
+        store(idempotencyKey, response, claimed, claim);
+        return response;
+    }
+
+    /**
+     * @return true if this node now owns the key, false if another request does, null if
+     *         Redis is unavailable
+     */
+    private Boolean claim(String idempotencyKey, String claim) {
+        if (redisTemplate == null || !config.isRedisEnabled()) {
+            return null;
+        }
+        try {
+            return redisTemplate.opsForValue()
+                .setIfAbsent(KEY_PREFIX + idempotencyKey, claim, Duration.ofSeconds(config.getLeaseSeconds()));
+        } catch (Exception e) {
+            log.warn("Redis unavailable for idempotency key {}, running without a claim: {}",
+                       idempotencyKey, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Polls Redis until the owner's response appears.
+     *
+     * @return the response, or null if the claim was released without one or Redis could not
+     *         be read
+     * @throws PaymentProcessingException if the owner failed with an unknown outcome or the
+     *         wait timed out
+     */
+    private PaymentResponse awaitResult(String idempotencyKey) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(config.getWaitTimeoutSeconds());
+        try {
+            while (true) {
+                Object value = redisTemplate.opsForValue().get(KEY_PREFIX + idempotencyKey);
+                if (value == null) {
+                    return null;
+                }
+                if (value.toString().startsWith(OUTCOME_UNKNOWN)) {
+                    metricsService.recordIdempotentRequest(OUTCOME_UNRESOLVED);
+                    throw new PaymentProcessingException(
+                        "Request with the same idempotency key failed after reaching the gateway; retry later",
+                        ERROR_OUTCOME_UNKNOWN, CorrelationIdUtil.get());
+                }
+                if (!value.toString().startsWith(IN_FLIGHT)) {
+                    return objectMapper.readValue(value.toString(), PaymentResponse.class);
+                }
+                if (System.nanoTime() >= deadline) {
+                    metricsService.recordIdempotentRequest(OUTCOME_UNRESOLVED);
+                    throw inProgress(idempotencyKey);
+                }
+                Thread.sleep(config.getPollIntervalMs());
+            }
+        } catch (PaymentProcessingException e) {
+            throw e;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PaymentProcessingException("Interrupted waiting for the request with the same idempotency key",
+                e, CorrelationIdUtil.get());
+        } catch (Exception e) {
+            log.warn("Could not read result for idempotency key {}: {}", idempotencyKey, e.getMessage());
+            return null;
+        }
+    }
+
+    private void store(String idempotencyKey, PaymentResponse response, Boolean claimed, String claim) {
+        if (claimed == null || response == null) {
+            return;
+        }
+        try {
+            Long stored = redisTemplate.execute(STORE_IF_CLAIMED, List.of(KEY_PREFIX + idempotencyKey), claim,
+                objectMapper.writeValueAsString(response), Duration.ofMinutes(config.getResultTtlMinutes()).toMillis());
+            if (!Long.valueOf(1).equals(stored)) {
+                // The lease expired and the key is free or belongs to a later request
+                log.warn("Claim on idempotency key {} was lost before its result was stored", idempotencyKey);
+            }
+        } catch (JsonProcessingException | RuntimeException e) {
+            // Duplicates time out on the claim; retries after the lease are answered from the database
+            log.warn("Could not store result for idempotency key {}: {}", idempotencyKey, e.getMessage());
+        }
+    }
+
+    private void markOutcomeUnknown(String idempotencyKey, Boolean claimed, String claim) {
+        if (claimed == null) {
+            return;
+        }
+        try {
+            redisTemplate.execute(STORE_IF_CLAIMED, List.of(KEY_PREFIX + idempotencyKey), claim,
+                OUTCOME_UNKNOWN + claim.substring(IN_FLIGHT.length()),
+                Duration.ofSeconds(config.getLeaseSeconds()).toMillis());
+        } catch (Exception e) {
+            // The claim stays in place and expires with the lease
+            log.warn("Could not mark idempotency key {} as outcome unknown: {}", idempotencyKey, e.getMessage());
+        }
+    }
+
+    private void release(String idempotencyKey, Boolean claimed, String claim) {
+        if (claimed == null) {
+            return;
+        }
+        try {
+            redisTemplate.execute(RELEASE_IF_CLAIMED, List.of(KEY_PREFIX + idempotencyKey), claim);
+        } catch (Exception e) {
+            log.warn("Could not release idempotency key {}: {}", idempotencyKey, e.getMessage());
+        }
+    }
+
+    private PaymentProcessingException inProgress(String idempotencyKey) {
+        log.info("Request with idempotency key {} is still in progress", idempotencyKey);
+        return new PaymentProcessingException("A request with the same idempotency key is still in progress; retry later",
+            ERROR_IN_PROGRESS, CorrelationIdUtil.get());
+    }
+
+    /**
+     * True if the request, or the failure it was wrapped in, was not processed by the gateway.
+     */
+    private static boolean isNotProcessed(Throwable error) {
+        for (Throwable t = error; t != null; t = t.getCause()) {
+            if (AuthorizeNetTransport.isNotProcessed(t)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
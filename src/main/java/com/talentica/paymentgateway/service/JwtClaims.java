@@ -0,0 +1,44 @@
+package com.talentica.paymentgateway.service;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Claims of a JWT whose signature and expiry have been verified.
+ *
+ * @param subject Username the token was issued to
+ * @param userId User ID claim, if present
+ * @param tokenType access or refresh
+ * @param authorities Granted authority names, possibly empty
+ * @param issuedAt Issue time, if present
+ * @param expiresAt Expiry time
+ *
+ * @author Payment Gateway Team
+ * @version 1.0.0
+ */
+public record JwtClaims(String subject,
+                        String userId,
+                        String tokenType,
+                        List<String> authorities,
+                        Instant issuedAt,
+                        Instant expiresAt) {
+
+    static final String ACCESS_TOKEN_TYPE = "access";
+    static final String REFRESH_TOKEN_TYPE = "refresh";
+
+    public JwtClaims {
+        authorities = authorities != null ? List.copyOf(authorities) : List.of();
+    }
+
+    public boolean isAccessToken() {
+        return ACCESS_TOKEN_TYPE.equals(tokenType);
+    }
+
+    public boolean isRefreshToken() {
+        return REFRESH_TOKEN_TYPE.equals(tokenType);
+    }
+
+    public boolean isExpired(Instant now) {
+        return expiresAt != null && !now.isBefore(expiresAt);
+    }
+}
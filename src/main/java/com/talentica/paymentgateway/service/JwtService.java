@@ -6,18 +6,29 @@ import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
 import io.jsonwebtoken.security.SignatureException;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
 
 import javax.crypto.SecretKey;
+import java.time.Clock;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.function.Function;
 
 /**
  * JWT Service for token generation, validation, and management.
  * Handles access tokens and refresh tokens with proper security measures.
+ *
+ * Tokens are verified once: {@link #parseToken(String)} checks the signature and expiry and
+ * returns typed claims, which are cached by token hash until the token expires. The claim
+ * accessors read from those claims, so a request that asks for several claims parses its
+ * token at most once. Revoked tokens are rejected until they expire.
  * 
  * @author Payment Gateway Team
  * @version 1.0.0
@@ -27,15 +38,73 @@ import java.util.function.Function;
 public class JwtService {
 
     private static final String TOKEN_TYPE_CLAIM = "token_type";
-    private static final String ACCESS_TOKEN_TYPE = "access";
-    private static final String REFRESH_TOKEN_TYPE = "refresh";
+    private static final String ACCESS_TOKEN_TYPE = JwtClaims.ACCESS_TOKEN_TYPE;
+    private static final String REFRESH_TOKEN_TYPE = JwtClaims.REFRESH_TOKEN_TYPE;
     private static final String AUTHORITIES_CLAIM = "authorities";
     private static final String USER_ID_CLAIM = "user_id";
     
     private final ApplicationConfig.AppProperties appProperties;
+    private final Clock clock;
+    private final VerifiedTokenCache tokenCache;
 
+    // Derived from the configured secret; rebuilt if the secret changes
+    private volatile SigningKey signingKey;
+
+    @Autowired
     public JwtService(ApplicationConfig.AppProperties appProperties) {
+        this(appProperties, Clock.systemUTC());
+    }
+
+    JwtService(ApplicationConfig.AppProperties appProperties, Clock clock) {
         this.appProperties = appProperties;
+        this.clock = clock;
+        this.tokenCache = new VerifiedTokenCache(appProperties.getJwt().getClaimsCacheSize(), clock);
+    }
+
+    /**
+     * Verify a token and return its claims, from the cache when it was verified before.
+     *
+     * @param token JWT token
+     * @return Verified claims
+     * @throws JwtException if the token is invalid, expired or revoked
+     * @throws IllegalArgumentException if the token is empty
+     */
+    public JwtClaims parseToken(String token) {
+        if (!StringUtils.hasText(token)) {
+            log.warn("JWT token compact is invalid: token is empty");
+            throw new IllegalArgumentException("JWT token is empty");
+        }
+        String key = VerifiedTokenCache.key(token);
+        JwtClaims claims = tokenCache.get(key);
+        if (claims != null) {
+            return claims;
+        }
+        if (tokenCache.isRevoked(key)) {
+            log.warn("JWT token has been revoked");
+            throw new JwtException("JWT token has been revoked");
+        }
+        claims = toJwtClaims(extractAllClaims(token));
+        tokenCache.put(key, claims);
+        return claims;
+    }
+
+    /**
+     * Reject a token until it expires, for example on logout.
+     * Revocation applies to this instance only.
+     *
+     * @param token JWT token
+     * @return true if the token was valid and is now revoked
+     */
+    public boolean revokeToken(String token) {
+        JwtClaims claims;
+        try {
+            claims = parseToken(token);
+        } catch (JwtException | IllegalArgumentException e) {
+            return false;
+        }
+        tokenCache.revoke(VerifiedTokenCache.key(token), claims.expiresAt());
+        log.info("Revoked JWT token for user: {}", claims.subject());
+        return true;
     }
 
     /**
@@ -77,7 +146,7 @@ public class JwtService {
      * @return Username
      */
     public String extractUsername(String token) {
-        return extractClaim(token, Claims::getSubject);
+        return parseToken(token).subject();
     }
 
     /**
@@ -87,7 +156,7 @@ public class JwtService {
      * @return User ID
      */
     public String extractUserId(String token) {
-        return extractClaim(token, claims -> claims.get(USER_ID_CLAIM, String.class));
+        return parseToken(token).userId();
     }
 
     /**
@@ -107,7 +176,7 @@ public class JwtService {
      * @return Token type
      */
     public String extractTokenType(String token) {
-        return extractClaim(token, claims -> claims.get(TOKEN_TYPE_CLAIM, String.class));
+        return parseToken(token).tokenType();
     }
 
     /**
@@ -132,8 +201,8 @@ public class JwtService {
      */
     public boolean isTokenValid(String token, UserDetails userDetails) {
         try {
-            final String username = extractUsername(token);
-            return (username.equals(userDetails.getUsername())) && !isTokenExpired(token);
+            JwtClaims claims = parseToken(token);
+            return claims.subject().equals(userDetails.getUsername()) && !claims.isExpired(clock.instant());
         } catch (Exception e) {
             log.warn("Token validation failed: {}", e.getMessage());
             return false;
@@ -179,7 +248,7 @@ public class JwtService {
      * @return True if expired
      */
     private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+        return parseToken(token).isExpired(clock.instant());
     }
 
     /**
@@ -189,7 +258,7 @@ public class JwtService {
      * @return Expiration date
      */
     private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+        return Date.from(parseToken(token).expiresAt());
     }
 
     /**
@@ -201,9 +270,7 @@ public class JwtService {
      */
     private Claims extractAllClaims(String token) {
         try {
-            return Jwts.parser()
-                    .verifyWith(getSignInKey())
-                    .build()
+            return signingKey().parser()
                     .parseSignedClaims(token)
                     .getPayload();
         } catch (ExpiredJwtException e) {
@@ -249,11 +316,65 @@ public class JwtService {
                 .claim(AUTHORITIES_CLAIM, userDetails.getAuthorities().toString())
                 .issuedAt(now)
                 .expiration(expirationDate)
-                .signWith(getSignInKey(), Jwts.SIG.HS256);
+                .signWith(signingKey().key(), Jwts.SIG.HS256);
 
         return builder.compact();
     }
 
+    /**
+     * Map verified claims to their typed form.
+     *
+     * @param claims Verified claims
+     * @return Typed claims
+     */
+    private static JwtClaims toJwtClaims(Claims claims) {
+        return new JwtClaims(
+                claims.getSubject(),
+                claims.get(USER_ID_CLAIM, String.class),
+                claims.get(TOKEN_TYPE_CLAIM, String.class),
+                parseAuthorities(claims.get(AUTHORITIES_CLAIM, String.class)),
+                claims.getIssuedAt() != null ? claims.getIssuedAt().toInstant() : null,
+                claims.getExpiration() != null ? claims.getExpiration().toInstant() : null);
+    }
+
+    /**
+     * Parse an authorities claim (format: [ROLE_USER, ROLE_ADMIN]).
+     *
+     * @param authorities Authorities claim
+     * @return Authority names
+     */
+    private static List<String> parseAuthorities(String authorities) {
+        if (!StringUtils.hasText(authorities)) {
+            return List.of();
+        }
+        return Arrays.stream(authorities.replaceAll("[\\[\\]\\s]", "").split(","))
+                .filter(StringUtils::hasText)
+                .toList();
+    }
+
+    /**
+     * Signing key and parser for the configured secret, built once per secret.
+     *
+     * @return Current signing key
+     */
+    private SigningKey signingKey() {
+        String secret = appProperties.getJwt().getSecret();
+        SigningKey current = signingKey;
+        if (current == null || !Objects.equals(current.secret(), secret)) {
+            SecretKey key = getSignInKey();
+            current = new SigningKey(secret, key, Jwts.parser().verifyWith(key).build());
+            if (signingKey != null) {
+                // Tokens verified under the previous secret must be verified again
+                tokenCache.clearVerified();
+            }
+            signingKey = current;
+        }
+        return current;
+    }
+
+    private record SigningKey(String secret, SecretKey key, JwtParser parser) {
+    }
+
     /**
      * Get signing key for JWT tokens.
      * 
@@ -0,0 +1,210 @@
+package com.talentica.paymentgateway.service;
+
+import com.talentica.paymentgateway.config.ApplicationConfig;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-process first tier of the rate limiter.
+ *
+ * Each identifier gets a local token bucket filled with tokens leased in batches from
+ * the shared Redis bucket. Requests consume local tokens with a lock-free CAS, so only
+ * lease refills reach Redis. The next lease is prefetched asynchronously once the local
+ * bucket drops below the refill threshold. A request only waits on Redis when its bucket
+ * is empty and the global bucket is not known to be exhausted.
+ *
+ * Leased tokens are already deducted from the global bucket, so the tokens held here
+ * bound how far local decisions can drift from the global limit.
+ *
+ * @author Payment Gateway Team
+ * @version 1.0.0
+ */
+@Slf4j
+class LocalRateLimitTier {
+
+    /**
+     * Takes up to {@code tokens} tokens from the global bucket.
+     */
+    @FunctionalInterface
+    interface LeaseSource {
+        Lease lease(String identifier, int tokens, int requestsPerHour, int burstCapacity);
+    }
+
+    /**
+     * Result of a lease: tokens granted, tokens left globally and the window reset time.
+     */
+    record Lease(int granted, int remaining, Instant resetTime) {
+    }
+
+    private final LeaseSource leaseSource;
+    private final Executor refillExecutor;
+    private final MetricsService metricsService;
+    private final ApplicationConfig.AppProperties.RateLimit.LocalTier config;
+    private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+
+    LocalRateLimitTier(LeaseSource leaseSource, Executor refillExecutor, MetricsService metricsService,
+                       ApplicationConfig.AppProperties.RateLimit.LocalTier config) {
+        this.leaseSource = leaseSource;
+        this.refillExecutor = refillExecutor;
+        this.metricsService = metricsService;
+        this.config = config;
+        if (metricsService != null) {
+            metricsService.registerRateLimitLocalTokensGauge(this::heldTokens);
+        }
+    }
+
+    /**
+     * Decide a request locally, leasing from Redis only when the local bucket is empty.
+     *
+     * @throws RuntimeException if a synchronous lease fails; the caller decides fail-open/closed
+     */
+    RateLimitService.RateLimitResult tryAcquire(String identifier, int requestsPerHour, int burstCapacity) {
+        Bucket bucket = buckets.computeIfAbsent(identifier, key -> new Bucket());
+        rollWindowIfExpired(bucket);
+
+        if (bucket.tryTake()) {
+            prefetchIfLow(bucket, identifier, requestsPerHour, burstCapacity);
+            return allowed(bucket, requestsPerHour);
+        }
+
+        if (bucket.globallyExhausted) {
+            recordLocalRejection();
+            return new RateLimitService.RateLimitResult(false, requestsPerHour, 0, bucket.resetTime);
+        }
+
+        // Slow path: one thread per bucket leases while the others re-check after it
+        synchronized (bucket) {
+            if (!bucket.tryTake()) {
+                if (!bucket.globallyExhausted) {
+                    refill(bucket, identifier, requestsPerHour, burstCapacity, "sync");
+                }
+                if (!bucket.tryTake()) {
+                    recordLocalRejection();
+                    return new RateLimitService.RateLimitResult(false, requestsPerHour, 0, bucket.resetTime);
+                }
+            }
+        }
+        evictExpiredBucketsIfFull();
+        return allowed(bucket, requestsPerHour);
+    }
+
+    /**
+     * Drop local state for an identifier, e.g. after its Redis bucket was reset.
+     */
+    void reset(String identifier) {
+        buckets.remove(identifier);
+    }
+
+    long heldTokens() {
+        long held = 0;
+        for (Bucket bucket : buckets.values()) {
+            held += Math.max(0, bucket.tokens.get());
+        }
+        return held;
+    }
+
+    int leaseSizeFor(int requestsPerHour) {
+        int cap = Math.max(1, (int) (requestsPerHour * config.getMaxLeaseFraction()));
+        return Math.max(1, Math.min(config.getLeaseSize(), cap));
+    }
+
+    private void rollWindowIfExpired(Bucket bucket) {
+        Instant resetTime = bucket.resetTime;
+        if (resetTime != null && !Instant.now().isBefore(resetTime)) {
+            synchronized (bucket) {
+                if (bucket.resetTime == resetTime) {
+                    int unused = bucket.tokens.getAndSet(0);
+                    if (unused > 0 && metricsService != null) {
+                        metricsService.recordRateLimitLeaseExpired(unused);
+                    }
+                    bucket.globallyExhausted = false;
+                    bucket.resetTime = null;
+                }
+            }
+        }
+    }
+
+    private void prefetchIfLow(Bucket bucket, String identifier, int requestsPerHour, int burstCapacity) {
+        int lowWatermark = (int) Math.ceil(leaseSizeFor(requestsPerHour) * config.getRefillThreshold());
+        if (bucket.tokens.get() > lowWatermark || bucket.globallyExhausted
+                || !bucket.refillInFlight.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            refillExecutor.execute(() -> {
+                try {
+                    refill(bucket, identifier, requestsPerHour, burstCapacity, "async");
+                } catch (Exception e) {
+                    log.warn("Async rate limit lease failed for identifier {}: {}", identifier, e.getMessage());
+                } finally {
+                    bucket.refillInFlight.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            bucket.refillInFlight.set(false);
+        }
+    }
+
+    private void refill(Bucket bucket, String identifier, int requestsPerHour, int burstCapacity, String mode) {
+        Lease lease = leaseSource.lease(identifier, leaseSizeFor(requestsPerHour), requestsPerHour, burstCapacity);
+        bucket.tokens.addAndGet(lease.granted());
+        bucket.globalRemaining = lease.remaining();
+        bucket.globallyExhausted = lease.remaining() <= 0;
+        bucket.resetTime = lease.resetTime();
+        if (metricsService != null) {
+            metricsService.recordRateLimitLeaseRefill(mode, lease.granted());
+        }
+    }
+
+    private void recordLocalRejection() {
+        if (metricsService != null) {
+            metricsService.recordRateLimitLocalRejection();
+        }
+    }
+
+    private RateLimitService.RateLimitResult allowed(Bucket bucket, int requestsPerHour) {
+        int remaining = Math.max(0, bucket.globalRemaining + bucket.tokens.get());
+        Instant resetTime = bucket.resetTime != null ? bucket.resetTime : Instant.now().plusSeconds(3600);
+        return new RateLimitService.RateLimitResult(true, requestsPerHour, remaining, resetTime);
+    }
+
+    private void evictExpiredBucketsIfFull() {
+        if (buckets.size() <= config.getMaxBuckets()) {
+            return;
+        }
+        Instant now = Instant.now();
+        buckets.entrySet().removeIf(entry -> {
+            Instant resetTime = entry.getValue().resetTime;
+            return resetTime == null || !now.isBefore(resetTime);
+        });
+    }
+
+    /**
+     * Local token bucket for a single identifier.
+     */
+    static final class Bucket {
+        final AtomicInteger tokens = new AtomicInteger();
+        final AtomicBoolean refillInFlight = new AtomicBoolean();
+        volatile int globalRemaining;
+        volatile boolean globallyExhausted;
+        volatile Instant resetTime;
+
+        boolean tryTake() {
+            int current;
+            do {
+                current = tokens.get();
+                if (current <= 0) {
+                    return false;
+                }
+            } while (!tokens.compareAndSet(current, current - 1));
+            return true;
+        }
+    }
+}
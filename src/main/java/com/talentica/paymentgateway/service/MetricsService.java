@@ -1,19 +1,27 @@
 package com.talentica.paymentgateway.service;
 
+import com.talentica.paymentgateway.config.properties.MetricsProperties;
 import com.talentica.paymentgateway.entity.PaymentStatus;
 import com.talentica.paymentgateway.entity.TransactionType;
 import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
 import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
 import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
 
 /**
  * Metrics Service for Payment Gateway Operations.
@@ -22,6 +30,10 @@ import java.util.concurrent.atomic.AtomicLong;
  * and operational insights. Tracks payment volumes, success rates, error rates,
  * and performance metrics using Micrometer.
  * 
+ * Meters tagged with request-supplied values (API key IDs, error codes, webhook event
+ * types) are registered once through {@link BoundedMeters}, which caps their tag
+ * cardinality and keeps recording off the registry lookup path.
+ * 
  * @author Payment Gateway Team
  * @version 1.0.0
  */
@@ -71,8 +83,28 @@ public class MetricsService {
     private final AtomicLong totalPaymentVolume = new AtomicLong(0);
     private final AtomicInteger databaseConnectionsActive = new AtomicInteger(0);
     private final ConcurrentHashMap<String, AtomicInteger> paymentMethodCounts = new ConcurrentHashMap<>();
+    
+    // Meters tagged with request-supplied values
+    private final BoundedMeters boundedMeters;
+    private final BoundedMeters.Family<Counter> paymentErrorsByType;
+    private final BoundedMeters.Family<Counter> rateLimitExceededByType;
+    private final BoundedMeters.Family<Counter> apiKeyUsageByKey;
+    private final BoundedMeters.Family<Counter> webhooksReceived;
+    private final BoundedMeters.Family<Counter> webhooksProcessed;
+    private final BoundedMeters.Family<Counter> webhookDuplicates;
+    private final BoundedMeters.Family<Timer> webhookProcessingDuration;
+    private final BoundedMeters.Family<Counter> webhookDeliverySuccesses;
+    private final BoundedMeters.Family<Counter> webhookDeliveryFailures;
+    private final BoundedMeters.Family<Timer> webhookDeliveryAttempts;
+    private final BoundedMeters.Family<Counter> webhookMaxAttemptsReached;
+    private final Counter webhookSignatureFailures;
 
     public MetricsService(MeterRegistry meterRegistry) {
+        this(meterRegistry, new MetricsProperties());
+    }
+
+    @Autowired
+    public MetricsService(MeterRegistry meterRegistry, MetricsProperties metricsProperties) {
         this.meterRegistry = meterRegistry;
         
         // Initialize payment operation counters
@@ -189,6 +221,35 @@ public class MetricsService {
         Gauge.builder("database.connections.active", databaseConnectionsActive, AtomicInteger::doubleValue)
                 .description("Number of active database connections")
                 .register(meterRegistry);
+        
+        // Initialize meters tagged with request-supplied values
+        this.boundedMeters = new BoundedMeters(meterRegistry, metricsProperties.getCardinality());
+        this.paymentErrorsByType = boundedMeters.counters("payment.errors.by.type",
+                "Payment errors by type and code", Map.of(), "error.type", "error.code");
+        this.rateLimitExceededByType = boundedMeters.counters("rate.limit.exceeded.by.type",
+                "Rate limit exceeded by identifier type", Map.of("type", Set.of("api_key", "user", "ip")), "type");
+        this.apiKeyUsageByKey = boundedMeters.counters("api.key.usage.by.key",
+                "API key usage by key ID", Map.of(), "key_id");
+        this.webhooksReceived = boundedMeters.counters("webhook.received.total",
+                "Total webhooks received by event type", Map.of(), "event_type");
+        this.webhooksProcessed = boundedMeters.counters("webhook.processed.total",
+                "Total webhooks processed by event type and status", Map.of(), "event_type", "status");
+        this.webhookDuplicates = boundedMeters.counters("webhook.duplicates.total",
+                "Total duplicate webhooks by event type", Map.of(), "event_type");
+        this.webhookProcessingDuration = boundedMeters.timers("webhook.processing.duration",
+                "Webhook processing duration by event type", Map.of(), "event_type");
+        this.webhookDeliverySuccesses = boundedMeters.counters("webhook.delivery.success.total",
+                "Total successful webhook deliveries", Map.of(), "event_type");
+        this.webhookDeliveryFailures = boundedMeters.counters("webhook.delivery.failures.total",
+                "Total failed webhook deliveries", Map.of(), "event_type", "failure_type");
+        this.webhookDeliveryAttempts = boundedMeters.timers("webhook.delivery.attempts",
+                "Number of attempts for webhook delivery", Map.of("result", Set.of("success", "failure")),
+                "event_type", "result");
+        this.webhookMaxAttemptsReached = boundedMeters.counters("webhook.max.attempts.reached.total",
+                "Total webhooks that reached max retry attempts", Map.of(), "event_type");
+        this.webhookSignatureFailures = Counter.builder("webhook.signature.failures.total")
+                .description("Total webhook signature verification failures")
+                .register(meterRegistry);
     }
 
     // Payment metrics methods
@@ -294,12 +355,7 @@ public void recordPaymentCompletion(PaymentStatus status, BigDecimal amount, Dur
         paymentErrorsTotal.increment();
         activePaymentProcessing.decrementAndGet();
         
-        Counter.builder("payment.errors.by.type")
-                .tag("error.type", errorType)
-                .tag("error.code", errorCode)
-                .description("Payment errors by type and code")
-                .register(meterRegistry)
-                .increment();
+        paymentErrorsByType.get(errorType, errorCode).increment();
     }
 
     // Authentication metrics methods
@@ -362,13 +418,61 @@ public void recordPaymentCompletion(PaymentStatus status, BigDecimal amount, Dur
         String identifierType = identifier.startsWith("api:") ? "api_key" : 
                                identifier.startsWith("user:") ? "user" : "ip";
         
-        Counter.builder("rate.limit.exceeded.by.type")
-                .tag("type", identifierType)
-                .description("Rate limit exceeded by identifier type")
+        rateLimitExceededByType.get(identifierType).increment();
+    }
+
+    /**
+     * Record a token lease taken from the Redis rate limit bucket by the local tier.
+     * 
+     * @param mode sync (request waited for the lease) or async (prefetched)
+     * @param grantedTokens Tokens granted by Redis
+     */
+    public void recordRateLimitLeaseRefill(String mode, int grantedTokens) {
+        Counter.builder("rate.limit.lease.refills.total")
+                .tag("mode", mode)
+                .description("Token leases taken from the Redis rate limit bucket")
+                .register(meterRegistry)
+                .increment();
+        Counter.builder("rate.limit.lease.tokens.granted")
+                .description("Tokens granted to the local rate limit tier")
+                .register(meterRegistry)
+                .increment(grantedTokens);
+    }
+
+    /**
+     * Record a request rejected by the local tier without a Redis round trip.
+     */
+    public void recordRateLimitLocalRejection() {
+        Counter.builder("rate.limit.local.rejections.total")
+                .description("Requests rejected locally after the global bucket was exhausted")
                 .register(meterRegistry)
                 .increment();
     }
 
+    /**
+     * Record leased tokens discarded unused when the rate limit window rolled over.
+     * 
+     * @param unusedTokens Tokens that were deducted globally but never consumed
+     */
+    public void recordRateLimitLeaseExpired(int unusedTokens) {
+        Counter.builder("rate.limit.lease.tokens.expired")
+                .description("Leased tokens discarded unused at window rollover")
+                .register(meterRegistry)
+                .increment(unusedTokens);
+    }
+
+    /**
+     * Register the gauge of tokens currently held by the local tier, i.e. the maximum
+     * drift between local decisions and the global Redis limit.
+     * 
+     * @param heldTokens Supplier of the number of locally held tokens
+     */
+    public void registerRateLimitLocalTokensGauge(Supplier<Number> heldTokens) {
+        Gauge.builder("rate.limit.local.tokens.held", heldTokens)
+                .description("Tokens leased from Redis but not yet consumed locally")
+                .register(meterRegistry);
+    }
+
     /**
      * Record API key usage.
      * 
@@ -377,11 +481,7 @@ public void recordPaymentCompletion(PaymentStatus status, BigDecimal amount, Dur
     public void recordApiKeyUsage(String apiKeyId) {
         apiKeyUsageTotal.increment();
         
-        Counter.builder("api.key.usage.by.key")
-                .tag("key_id", apiKeyId)
-                .description("API key usage by key ID")
-                .register(meterRegistry)
-                .increment();
+        apiKeyUsageByKey.get(apiKeyId).increment();
     }
 
     // System health metrics methods
@@ -490,11 +590,7 @@ public void recordPaymentCompletion(PaymentStatus status, BigDecimal amount, Dur
      * @param eventType Webhook event type
      */
     public void incrementWebhookReceived(String eventType) {
-        Counter.builder("webhook.received.total")
-                .tag("event_type", eventType)
-                .description("Total webhooks received by event type")
-                .register(meterRegistry)
-                .increment();
+        webhooksReceived.get(eventType).increment();
     }
 
     /**
@@ -504,22 +600,14 @@ public void recordPaymentCompletion(PaymentStatus status, BigDecimal amount, Dur
      * @param status Processing status
      */
     public void incrementWebhookProcessed(String eventType, String status) {
-        Counter.builder("webhook.processed.total")
-                .tag("event_type", eventType)
-                .tag("status", status)
-                .description("Total webhooks processed by event type and status")
-                .register(meterRegistry)
-                .increment();
+        webhooksProcessed.get(eventType, status).increment();
     }
 
     /**
      * Record webhook signature failure.
      */
     public void incrementWebhookSignatureFailure() {
-        Counter.builder("webhook.signature.failures.total")
-                .description("Total webhook signature verification failures")
-                .register(meterRegistry)
-                .increment();
+        webhookSignatureFailures.increment();
     }
 
     /**
@@ -528,11 +616,7 @@ public void recordPaymentCompletion(PaymentStatus status, BigDecimal amount, Dur
      * @param eventType Webhook event type
      */
     public void incrementWebhookDuplicate(String eventType) {
-        Counter.builder("webhook.duplicates.total")
-                .tag("event_type", eventType)
-                .description("Total duplicate webhooks by event type")
-                .register(meterRegistry)
-                .increment();
+        webhookDuplicates.get(eventType).increment();
     }
 
     /**
@@ -542,11 +626,7 @@ public void recordPaymentCompletion(PaymentStatus status, BigDecimal amount, Dur
      * @param processingTimeMs Processing time in milliseconds
      */
     public void recordWebhookProcessingTime(String eventType, long processingTimeMs) {
-        Timer.builder("webhook.processing.duration")
-                .tag("event_type", eventType)
-                .description("Webhook processing duration by event type")
-                .register(meterRegistry)
-                .record(Duration.ofMillis(processingTimeMs));
+        webhookProcessingDuration.get(eventType).record(Duration.ofMillis(processingTimeMs));
     }
 
     /**
@@ -556,18 +636,8 @@ public void recordPaymentCompletion(PaymentStatus status, BigDecimal amount, Dur
      * @param attempts Number of attempts required
      */
     public void incrementWebhookDeliverySuccess(String eventType, int attempts) {
-        Counter.builder("webhook.delivery.success.total")
-                .tag("event_type", eventType)
-                .description("Total successful webhook deliveries")
-                .register(meterRegistry)
-                .increment();
-
-        Timer.builder("webhook.delivery.attempts")
-                .tag("event_type", eventType)
-                .tag("result", "success")
-                .description("Number of attempts for webhook delivery")
-                .register(meterRegistry)
-                .record(attempts, java.util.concurrent.TimeUnit.SECONDS);
+        webhookDeliverySuccesses.get(eventType).increment();
+        webhookDeliveryAttempts.get(eventType, "success").record(attempts, java.util.concurrent.TimeUnit.SECONDS);
     }
 
     /**
@@ -578,30 +648,129 @@ public void recordPaymentCompletion(PaymentStatus status, BigDecimal amount, Dur
      * @param failureType Type of failure
      */
     public void incrementWebhookDeliveryFailure(String eventType, int attempts, String failureType) {
-        Counter.builder("webhook.delivery.failures.total")
-                .tag("event_type", eventType)
-                .tag("failure_type", failureType)
-                .description("Total failed webhook deliveries")
+        webhookDeliveryFailures.get(eventType, failureType).increment();
+        webhookDeliveryAttempts.get(eventType, "failure").record(attempts, java.util.concurrent.TimeUnit.SECONDS);
+    }
+
+    /**
+     * Record webhook max attempts reached.
+     * 
+     * @param eventType Webhook event type
+     */
+    public void incrementWebhookMaxAttemptsReached(String eventType) {
+        webhookMaxAttemptsReached.get(eventType).increment();
+    }
+
+    /**
+     * Register gauges for the webhook retry scheduler.
+     * 
+     * @param queueDepth Supplier of retries waiting in memory
+     * @param inFlight Supplier of deliveries currently running
+     */
+    public void registerWebhookRetrySchedulerGauges(Supplier<Number> queueDepth, Supplier<Number> inFlight) {
+        Gauge.builder("webhook.retry.queue.depth", queueDepth)
+                .description("Claimed webhook retries waiting for their due time")
+                .register(meterRegistry);
+
+        Gauge.builder("webhook.retry.inflight", inFlight)
+                .description("Webhook retry deliveries currently running")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Record webhook retries claimed from the database.
+     * 
+     * @param count Number of rows claimed
+     */
+    public void recordWebhookRetriesClaimed(int count) {
+        Counter.builder("webhook.retry.claimed.total")
+                .description("Webhook retries claimed by this node")
+                .register(meterRegistry)
+                .increment(count);
+    }
+
+    /**
+     * Record a webhook retry that was not dispatched when due.
+     * 
+     * @param reason Reason (endpoint_busy, rejected, lease_expired)
+     */
+    public void recordWebhookRetryDeferred(String reason) {
+        Counter.builder("webhook.retry.deferred.total")
+                .tag("reason", reason)
+                .description("Webhook retries deferred or released instead of dispatched")
                 .register(meterRegistry)
                 .increment();
+    }
 
-        Timer.builder("webhook.delivery.attempts")
-                .tag("event_type", eventType)
-                .tag("result", "failure")
-                .description("Number of attempts for webhook delivery")
+    /**
+     * Record how late a webhook retry was dispatched relative to its due time.
+     * 
+     * @param lag Dispatch time minus due time
+     */
+    public void recordWebhookRetryDispatchLag(Duration lag) {
+        Timer.builder("webhook.retry.dispatch.lag")
+                .description("Delay between a webhook retry's due time and its dispatch")
                 .register(meterRegistry)
-                .record(attempts, java.util.concurrent.TimeUnit.SECONDS);
+                .record(lag.isNegative() ? Duration.ZERO : lag);
     }
 
     /**
-     * Record webhook max attempts reached.
+     * Register gauges for a webhook endpoint's circuit breaker.
      * 
-     * @param eventType Webhook event type
+     * @param endpoint Endpoint URL without query string
+     * @param state Supplier of the breaker state (0 closed, 1 half-open, 2 open)
+     * @param failureRate Supplier of the failure rate (percent) in the sliding window
+     * @param bulkheadInUse Supplier of concurrent deliveries to the endpoint
+     * @return the registered gauges, to pass to {@link #removeMeters} when the breaker is dropped
      */
-    public void incrementWebhookMaxAttemptsReached(String eventType) {
-        Counter.builder("webhook.max.attempts.reached.total")
-                .tag("event_type", eventType)
-                .description("Total webhooks that reached max retry attempts")
+    public List<Meter> registerWebhookCircuitBreakerGauges(String endpoint, Supplier<Number> state,
+                                                           Supplier<Number> failureRate, Supplier<Number> bulkheadInUse) {
+        return List.of(
+            Gauge.builder("webhook.circuit.breaker.state", state)
+                    .tag("endpoint", endpoint)
+                    .description("Webhook endpoint circuit breaker state (0 closed, 1 half-open, 2 open)")
+                    .register(meterRegistry),
+            Gauge.builder("webhook.circuit.breaker.failure.rate", failureRate)
+                    .tag("endpoint", endpoint)
+                    .description("Failure rate (percent) in the endpoint's sliding window")
+                    .register(meterRegistry),
+            Gauge.builder("webhook.bulkhead.inflight", bulkheadInUse)
+                    .tag("endpoint", endpoint)
+                    .description("Concurrent webhook deliveries to the endpoint")
+                    .register(meterRegistry));
+    }
+
+    /**
+     * Remove meters registered for something that no longer exists.
+     * 
+     * @param meters Meters returned at registration
+     */
+    public void removeMeters(List<Meter> meters) {
+        meters.forEach(meterRegistry::remove);
+    }
+
+    /**
+     * Record a webhook circuit breaker state transition.
+     * 
+     * @param toState State entered (CLOSED, HALF_OPEN, OPEN)
+     */
+    public void recordWebhookCircuitBreakerTransition(String toState) {
+        Counter.builder("webhook.circuit.breaker.transitions.total")
+                .tag("state", toState)
+                .description("Webhook circuit breaker state transitions")
+                .register(meterRegistry)
+                .increment();
+    }
+
+    /**
+     * Record a webhook delivery rejected before reaching the endpoint.
+     * 
+     * @param reason Rejection reason (circuit_open, bulkhead_full)
+     */
+    public void recordWebhookCircuitBreakerRejection(String reason) {
+        Counter.builder("webhook.circuit.breaker.rejected.total")
+                .tag("reason", reason)
+                .description("Webhook deliveries rejected by the circuit breaker or bulkhead")
                 .register(meterRegistry)
                 .increment();
     }
@@ -618,6 +787,544 @@ public void recordPaymentCompletion(PaymentStatus status, BigDecimal amount, Dur
                 .increment(cleanedCount);
     }
 
+    /**
+     * Record one webhook purge batch.
+     * 
+     * @param category Purged category (delivered, failed, partition)
+     * @param rows Rows removed by the batch
+     * @param duration Batch duration including its transaction
+     */
+    public void recordWebhookCleanupBatch(String category, long rows, Duration duration) {
+        Counter.builder("webhook.cleanup.rows")
+                .tag("category", category)
+                .description("Expired webhook rows removed by the purge engine")
+                .register(meterRegistry)
+                .increment(rows);
+
+        Timer.builder("webhook.cleanup.batch.duration")
+                .tag("category", category)
+                .description("Duration of a single webhook purge batch")
+                .register(meterRegistry)
+                .record(duration);
+    }
+
+    /**
+     * Record a completed webhook cleanup run.
+     * 
+     * @param rows Total rows removed by the run
+     * @param elapsed Run duration
+     */
+    public void recordWebhookCleanupRun(long rows, Duration elapsed) {
+        incrementWebhookCleanup((int) Math.min(rows, Integer.MAX_VALUE));
+
+        double seconds = Math.max(elapsed.toMillis(), 1) / 1000.0;
+        DistributionSummary.builder("webhook.cleanup.rows.per.second")
+                .description("Webhook purge throughput per cleanup run")
+                .register(meterRegistry)
+                .record(rows / seconds);
+    }
+
+    /**
+     * Register gauges for the inbound webhook inbox backlog.
+     *
+     * @param depth Supplier of unprocessed inbox events
+     * @param oldestAgeSeconds Supplier of the age of the oldest unprocessed event
+     */
+    public void registerWebhookInboxGauges(Supplier<Number> depth, Supplier<Number> oldestAgeSeconds) {
+        Gauge.builder("webhook.inbox.depth", depth)
+                .description("Inbound webhook events waiting in the inbox")
+                .register(meterRegistry);
+
+        Gauge.builder("webhook.inbox.oldest.age.seconds", oldestAgeSeconds)
+                .description("Age of the oldest unprocessed inbound webhook event")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Record a batch of inbox events claimed by a consumer.
+     *
+     * @param events Events claimed
+     */
+    public void recordWebhookInboxBatch(int events) {
+        DistributionSummary.builder("webhook.inbox.batch.size")
+                .description("Inbound webhook events claimed per inbox batch")
+                .register(meterRegistry)
+                .record(events);
+    }
+
+    /**
+     * Record the outcome of processing an inbox event.
+     *
+     * @param outcome Processing outcome (processed, retry, dead_lettered)
+     * @param lag Time since the event was acknowledged
+     */
+    public void recordWebhookInboxEvent(String outcome, Duration lag) {
+        Counter.builder("webhook.inbox.drained")
+                .tag("outcome", outcome)
+                .description("Inbound webhook events drained from the inbox")
+                .register(meterRegistry)
+                .increment();
+
+        Timer.builder("webhook.inbox.lag")
+                .tag("outcome", outcome)
+                .description("Time from webhook acknowledgement to processing")
+                .register(meterRegistry)
+                .record(lag);
+    }
+
+    /**
+     * Record a webhook duplicate detection decision.
+     *
+     * @param layer Layer that decided: bloom, redis or database
+     * @param duplicate Whether the event was a duplicate
+     */
+    public void recordWebhookDedupeDecision(String layer, boolean duplicate) {
+        Counter.builder("webhook.dedupe.decisions")
+                .tag("layer", layer)
+                .tag("result", duplicate ? "duplicate" : "first_seen")
+                .description("Webhook duplicate detection decisions by deciding layer")
+                .register(meterRegistry)
+                .increment();
+    }
+
+    /**
+     * Increment counter for first-time webhook events the Bloom filter reported as seen.
+     */
+    public void incrementWebhookDedupeBloomFalsePositive() {
+        Counter.builder("webhook.dedupe.bloom.false.positives")
+                .description("First-time webhook events reported as seen by the Bloom filter")
+                .register(meterRegistry)
+                .increment();
+    }
+
+    /**
+     * Register gauges for the webhook dedupe Bloom filter false-positive rate.
+     *
+     * @param observedRate Supplier of the observed rate over first-time events
+     * @param expectedRate Supplier of the rate implied by the filter's current fill
+     */
+    public void registerWebhookDedupeGauges(Supplier<Number> observedRate, Supplier<Number> expectedRate) {
+        Gauge.builder("webhook.dedupe.bloom.false.positive.rate", observedRate)
+                .description("Observed share of first-time webhook events reported as seen by the Bloom filter")
+                .register(meterRegistry);
+
+        Gauge.builder("webhook.dedupe.bloom.expected.false.positive.rate", expectedRate)
+                .description("False-positive rate implied by the webhook dedupe Bloom filter fill")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Register a gauge for transaction rollup deltas waiting to be flushed.
+     * 
+     * @param pendingBuckets Supplier of buffered hourly buckets
+     */
+    public void registerTransactionRollupPendingGauge(Supplier<Number> pendingBuckets) {
+        Gauge.builder("analytics.rollup.pending.buckets", pendingBuckets)
+                .description("Hourly rollup buckets with deltas not yet written")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Record a transaction rollup flush.
+     * 
+     * @param buckets Hourly buckets written
+     * @param duration Flush duration including its transaction
+     */
+    public void recordTransactionRollupFlush(int buckets, Duration duration) {
+        Counter.builder("analytics.rollup.flush.buckets")
+                .description("Hourly rollup buckets written by flushes")
+                .register(meterRegistry)
+                .increment(buckets);
+
+        Timer.builder("analytics.rollup.flush.duration")
+                .description("Duration of transaction rollup flushes")
+                .register(meterRegistry)
+                .record(duration);
+    }
+
+    /**
+     * Record a failed transaction rollup flush; its deltas are retried.
+     */
+    public void recordTransactionRollupFlushFailure() {
+        Counter.builder("analytics.rollup.flush.failures")
+                .description("Transaction rollup flushes that failed and were requeued")
+                .register(meterRegistry)
+                .increment();
+    }
+
+    /**
+     * Record a transaction change that could not be turned into a rollup delta.
+     * 
+     * @param reason Why the delta was skipped
+     */
+    public void recordTransactionRollupDeltaSkipped(String reason) {
+        Counter.builder("analytics.rollup.delta.skipped")
+                .tag("reason", reason)
+                .description("Transaction changes not applied to the rollups incrementally")
+                .register(meterRegistry)
+                .increment();
+    }
+
+    /**
+     * Record a transaction rollup backfill run.
+     * 
+     * @param hoursRebuilt Hourly buckets rebuilt
+     * @param elapsed Run duration
+     */
+    public void recordTransactionRollupBackfill(int hoursRebuilt, Duration elapsed) {
+        Counter.builder("analytics.rollup.backfill.hours")
+                .description("Hourly rollup buckets rebuilt from the transactions table")
+                .register(meterRegistry)
+                .increment(hoursRebuilt);
+
+        Timer.builder("analytics.rollup.backfill.duration")
+                .description("Duration of transaction rollup backfill runs")
+                .register(meterRegistry)
+                .record(elapsed);
+    }
+
+    /**
+     * Record a transaction rollup consistency check.
+     * 
+     * @param driftedHours Hourly buckets that did not match the transactions table
+     * @param driftedDays Daily buckets that did not match their hourly buckets
+     * @param elapsed Check duration
+     */
+    public void recordTransactionRollupCheck(int driftedHours, int driftedDays, Duration elapsed) {
+        Counter.builder("analytics.rollup.drift.buckets")
+                .tag("granularity", "hourly")
+                .description("Rollup buckets found inconsistent by the consistency checker")
+                .register(meterRegistry)
+                .increment(driftedHours);
+
+        Counter.builder("analytics.rollup.drift.buckets")
+                .tag("granularity", "daily")
+                .description("Rollup buckets found inconsistent by the consistency checker")
+                .register(meterRegistry)
+                .increment(driftedDays);
+
+        Timer.builder("analytics.rollup.check.duration")
+                .description("Duration of transaction rollup consistency checks")
+                .register(meterRegistry)
+                .record(elapsed);
+    }
+
+    /**
+     * Register the audit buffer gauges.
+     * 
+     * @param buffered Events waiting in memory for the audit writer
+     * @param spilledBytes Bytes of audit events spilled to disk awaiting replay
+     */
+    public void registerAuditWriterGauges(Supplier<Number> buffered, Supplier<Number> spilledBytes) {
+        Gauge.builder("audit.buffer.size", buffered)
+                .description("Audit events buffered in memory")
+                .register(meterRegistry);
+        Gauge.builder("audit.spill.bytes", spilledBytes)
+                .description("Audit events spilled to disk awaiting replay, in bytes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Record audit events by outcome.
+     * 
+     * @param outcome What happened to the events (written, spilled, replayed, dropped, rejected)
+     * @param count Number of events
+     */
+    public void recordAuditEvents(String outcome, int count) {
+        if (count == 0) {
+            return;
+        }
+        Counter.builder("audit.events")
+                .tag("outcome", outcome)
+                .description("Audit events handled by the audit writer")
+                .register(meterRegistry)
+                .increment(count);
+    }
+
+    /**
+     * Record an audit batch insert.
+     * 
+     * @param duration Duration of the batch insert including its transaction
+     */
+    public void recordAuditFlush(Duration duration) {
+        Timer.builder("audit.flush.duration")
+                .description("Duration of audit log batch inserts")
+                .register(meterRegistry)
+                .record(duration);
+    }
+
+    /**
+     * Register the gauge for background CIM profile provisioning.
+     *
+     * @param pending Supplier of customers queued or being provisioned
+     */
+    public void registerCustomerProfileProvisioningGauge(Supplier<Number> pending) {
+        Gauge.builder("customer.profile.provisioning.pending", pending)
+                .description("Customers waiting for an Authorize.Net customer profile")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Record the outcome of a CIM profile provisioning request.
+     *
+     * @param outcome Outcome (created, existing, skipped, coalesced, rejected, retried, failed)
+     */
+    public void recordCustomerProfileProvisioning(String outcome) {
+        Counter.builder("customer.profile.provisioning.total")
+                .tag("outcome", outcome)
+                .description("Authorize.Net customer profile provisioning requests by outcome")
+                .register(meterRegistry)
+                .increment();
+    }
+
+    /**
+     * Record the latency of one Authorize.Net API call, with a histogram per operation.
+     *
+     * @param operation API operation, e.g. CreateTransaction
+     * @param outcome Call outcome (ok, error, timeout, failed)
+     * @param duration Time from sending the request to parsing the response
+     */
+    public void recordAuthorizeNetCall(String operation, String outcome, Duration duration) {
+        Timer.builder("authorize.net.request.duration")
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .description("Authorize.Net API call latency")
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofMillis(10))
+                .maximumExpectedValue(Duration.ofMinutes(1))
+                .register(meterRegistry)
+                .record(duration);
+    }
+
+    /**
+     * Register gauges for the connection pool shared by Authorize.Net calls.
+     *
+     * @param leased Supplier of connections in use
+     * @param available Supplier of idle connections kept for reuse
+     * @param pending Supplier of calls waiting for a connection
+     */
+    public void registerAuthorizeNetConnectionPoolGauges(Supplier<Number> leased, Supplier<Number> available,
+                                                         Supplier<Number> pending) {
+        Gauge.builder("authorize.net.connections", leased)
+                .tag("state", "leased")
+                .description("Connections to Authorize.Net by state")
+                .register(meterRegistry);
+        Gauge.builder("authorize.net.connections", available)
+                .tag("state", "available")
+                .description("Connections to Authorize.Net by state")
+                .register(meterRegistry);
+        Gauge.builder("authorize.net.connections", pending)
+                .tag("state", "pending")
+                .description("Connections to Authorize.Net by state")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Record the latency of an idempotent Authorize.Net read as seen by the caller, i.e.
+     * including the benefit of hedging.
+     *
+     * @param operation API operation, e.g. GetTransactionDetails
+     * @param duration Time until the first response was available
+     */
+    public void recordAuthorizeNetRead(String operation, Duration duration) {
+        Timer.builder("authorize.net.read.duration")
+                .tag("operation", operation)
+                .description("Latency of idempotent Authorize.Net reads, hedging included")
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofMillis(10))
+                .maximumExpectedValue(Duration.ofMinutes(1))
+                .register(meterRegistry)
+                .record(duration);
+    }
+
+    /**
+     * Record a hedging decision for an Authorize.Net read.
+     *
+     * @param operation API operation, e.g. GetTransactionDetails
+     * @param outcome Outcome (won, lost, budget_exhausted, rejected)
+     */
+    public void recordAuthorizeNetHedge(String operation, String outcome) {
+        Counter.builder("authorize.net.hedge.total")
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .description("Hedged Authorize.Net reads by outcome")
+                .register(meterRegistry)
+                .increment();
+    }
+
+    /**
+     * Record how much sooner a winning hedge answered than the original request.
+     *
+     * @param operation API operation, e.g. GetTransactionDetails
+     * @param saved Original request latency minus hedged read latency
+     */
+    public void recordAuthorizeNetHedgeSaving(String operation, Duration saved) {
+        Timer.builder("authorize.net.hedge.saved")
+                .tag("operation", operation)
+                .description("Latency saved by hedged Authorize.Net reads")
+                .register(meterRegistry)
+                .record(saved.isNegative() ? Duration.ZERO : saved);
+    }
+
+    /**
+     * Register a gauge for the current hedge delay of an Authorize.Net read operation.
+     *
+     * @param operation API operation, e.g. GetTransactionDetails
+     * @param delayMillis Supplier of the delay after which a hedge is sent
+     */
+    public void registerAuthorizeNetHedgeDelayGauge(String operation, Supplier<Number> delayMillis) {
+        Gauge.builder("authorize.net.hedge.delay", delayMillis)
+                .tag("operation", operation)
+                .description("Delay after which a slow Authorize.Net read is hedged, in milliseconds")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Record a transaction details cache lookup or webhook load.
+     *
+     * @param result Result (hit, miss, warmed, warm_failed, warm_rejected)
+     */
+    public void recordTransactionDetailsCache(String result) {
+        Counter.builder("authorize.net.details.cache")
+                .tag("result", result)
+                .description("Authorize.Net transaction details cache lookups and webhook loads by result")
+                .register(meterRegistry)
+                .increment();
+    }
+
+    /**
+     * Register the transaction details cache size gauge.
+     *
+     * @param size Supplier of the number of cached transactions
+     */
+    public void registerTransactionDetailsCacheGauge(Supplier<Number> size) {
+        Gauge.builder("authorize.net.details.cache.size", size)
+                .description("Authorize.Net transactions with cached details")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Record how a payment request with an idempotency key was answered.
+     *
+     * @param outcome Outcome (executed, joined, replayed, fallback)
+     */
+    public void recordIdempotentRequest(String outcome) {
+        Counter.builder("payment.idempotency.requests")
+                .tag("outcome", outcome)
+                .description("Payment requests with an idempotency key by how they were answered")
+                .register(meterRegistry)
+                .increment();
+    }
+
+    /**
+     * Record one keyset page processed by a billing run on this node.
+     *
+     * @param paid Invoices created and paid
+     * @param failed Invoices created with a declined payment
+     * @param skipped Subscriptions no longer due or already billed
+     * @param errors Subscriptions that failed with an exception
+     * @param duration Page duration including the gateway calls
+     */
+    public void recordBillingRunPage(int paid, int failed, int skipped, int errors, Duration duration) {
+        incrementBillingRunSubscriptions("paid", paid);
+        incrementBillingRunSubscriptions("failed", failed);
+        incrementBillingRunSubscriptions("skipped", skipped);
+        incrementBillingRunSubscriptions("error", errors);
+
+        Timer.builder("billing.run.page.duration")
+                .description("Duration of a billing run page")
+                .register(meterRegistry)
+                .record(duration);
+    }
+
+    /**
+     * Record a completed billing run across all nodes.
+     *
+     * @param invoices Invoices created by the run
+     * @param elapsed Time from run creation to completion
+     */
+    public void recordBillingRunCompleted(long invoices, Duration elapsed) {
+        Timer.builder("billing.run.duration")
+                .description("Duration of completed billing runs")
+                .register(meterRegistry)
+                .record(elapsed);
+
+        double seconds = Math.max(elapsed.toMillis(), 1) / 1000.0;
+        DistributionSummary.builder("billing.run.invoices.per.second")
+                .description("Invoice throughput per billing run")
+                .register(meterRegistry)
+                .record(invoices / seconds);
+    }
+
+    private void incrementBillingRunSubscriptions(String outcome, int count) {
+        if (count == 0) {
+            return;
+        }
+        Counter.builder("billing.run.subscriptions")
+                .tag("outcome", outcome)
+                .description("Subscriptions processed by billing runs")
+                .register(meterRegistry)
+                .increment(count);
+    }
+
+    /**
+     * Record a completed streaming report export.
+     * 
+     * @param format Export format (csv, csv_gzip)
+     * @param rows Rows written
+     * @param elapsed Export duration
+     */
+    public void recordReportExport(String format, long rows, Duration elapsed) {
+        Counter.builder("report.export.rows")
+                .tag("format", format)
+                .description("Rows written by streaming report exports")
+                .register(meterRegistry)
+                .increment(rows);
+
+        Timer.builder("report.export.duration")
+                .tag("format", format)
+                .description("Duration of streaming report exports")
+                .register(meterRegistry)
+                .record(elapsed);
+    }
+
+    /**
+     * Record an expired webhook partition being dropped.
+     */
+    public void recordWebhookPartitionDropped() {
+        Counter.builder("webhook.cleanup.partitions.dropped.total")
+                .description("Expired webhook partitions detached and dropped")
+                .register(meterRegistry)
+                .increment();
+    }
+
+    /**
+     * Record the outcome of recovering a transaction left in PENDING.
+     * 
+     * @param outcome Recovery outcome (e.g. reconciled, pending_review, failed)
+     */
+    public void recordPendingTransactionRecovery(String outcome) {
+        Counter.builder("payment.pending.recovery.total")
+                .tag("outcome", outcome)
+                .description("Stale PENDING transactions processed by the recovery sweep")
+                .register(meterRegistry)
+                .increment();
+    }
+
+    /**
+     * Record a virtual thread pinned to its carrier thread.
+     * 
+     * @param source Code area holding the monitor (authorize_net_sdk, application, other)
+     * @param duration How long the carrier was pinned
+     */
+    public void recordVirtualThreadPinned(String source, Duration duration) {
+        Timer.builder("jvm.virtual.threads.pinned")
+                .tag("source", source)
+                .description("Virtual thread pinning events above the diagnostic threshold")
+                .register(meterRegistry)
+                .record(duration);
+    }
+
     // Subscription metrics
     public void recordSubscriptionCreated(String planCode) {
         Counter.builder("subscriptions.created")
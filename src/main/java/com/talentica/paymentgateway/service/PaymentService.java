@@ -10,20 +10,21 @@ import com.talentica.paymentgateway.repository.OrderRepository;
 import com.talentica.paymentgateway.repository.CustomerRepository;
 import com.talentica.paymentgateway.util.AuthorizeNetMapper;
 import lombok.extern.slf4j.Slf4j;
-import net.authorize.Environment;
 import net.authorize.api.contract.v1.*;
-import net.authorize.api.controller.CreateTransactionController;
-import net.authorize.api.controller.GetTransactionDetailsController;
-import net.authorize.api.controller.base.ApiOperationBase;
 
 import org.slf4j.MDC;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
 import java.time.Duration;
 import java.time.Instant;
 import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -37,48 +38,71 @@ import java.util.UUID;
  * - Transaction logging and audit trail
  * - Integration with Authorize.Net SDK
  * 
+ * Payment operations run as a three-phase pipeline so that no database connection is
+ * held while the blocking Authorize.Net round trip is in flight:
+ * 1. a short transaction persists the PENDING {@link Transaction}
+ * 2. the gateway call runs with no transaction open
+ * 3. a short transaction applies the gateway result
+ * Rows left in PENDING by a crash between phases are picked up by
+ * {@link PendingTransactionRecoveryService}.
+ * 
  * @author Payment Gateway Team
  * @version 1.0.0
  */
 @Slf4j
 @Service
-@Transactional
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
 public class PaymentService {
 
+    /**
+     * Response data key of the invoice number a purchase or authorization was sent with.
+     */
+    static final String GATEWAY_INVOICE_NUMBER = "gatewayInvoiceNumber";
+
+    // Authorize.Net's maximum page size for transaction lists
+    private static final int UNSETTLED_PAGE_SIZE = 1000;
+    private static final int UNSETTLED_MAX_PAGES = 10;
+
     private final AuthorizeNetConfig config;
     private final MerchantAuthenticationType merchant;
-    private final Environment environment;
+    private final AuthorizeNetTransport authorizeNetTransport;
     private final AuthorizeNetMapper mapper;
     private final TransactionRepository transactionRepository;
     private final PaymentMethodRepository paymentMethodRepository;
     private final OrderRepository orderRepository;
     private final CustomerRepository customerRepository;
     private final MetricsService metricsService;
-    private final AuthorizeNetCustomerService authorizeNetCustomerService;
+    private final CustomerProfileProvisioningService profileProvisioningService;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionDetailsCache transactionDetailsCache;
+    private final IdempotentRequestCoordinator idempotentRequestCoordinator;
 
     public PaymentService(AuthorizeNetConfig config,
                          MerchantAuthenticationType merchant,
-                         Environment environment,
+                         AuthorizeNetTransport authorizeNetTransport,
                          AuthorizeNetMapper mapper,
                          TransactionRepository transactionRepository,
                          PaymentMethodRepository paymentMethodRepository,
                          OrderRepository orderRepository,
                          CustomerRepository customerRepository,
                          MetricsService metricsService,
-                         AuthorizeNetCustomerService authorizeNetCustomerService) {
+                         CustomerProfileProvisioningService profileProvisioningService,
+                         TransactionTemplate transactionTemplate,
+                         TransactionDetailsCache transactionDetailsCache,
+                         IdempotentRequestCoordinator idempotentRequestCoordinator) {
         this.config = config;
         this.merchant = merchant;
-        this.environment = environment;
+        this.authorizeNetTransport = authorizeNetTransport;
         this.mapper = mapper;
         this.transactionRepository = transactionRepository;
         this.paymentMethodRepository = paymentMethodRepository;
         this.orderRepository = orderRepository;
         this.customerRepository = customerRepository;
         this.metricsService = metricsService;
-        this.authorizeNetCustomerService = authorizeNetCustomerService;
-        
-        // Set environment for Authorize.Net SDK
-        ApiOperationBase.setEnvironment(environment);
+        this.profileProvisioningService = profileProvisioningService;
+        this.transactionTemplate = transactionTemplate;
+        this.transactionDetailsCache = transactionDetailsCache;
+        this.idempotentRequestCoordinator = idempotentRequestCoordinator;
     }
 
     /**
@@ -89,6 +113,11 @@ public class PaymentService {
      * @throws PaymentProcessingException if payment processing fails
      */
     public PaymentResponse processPurchase(PurchaseRequest request) {
+        // Concurrent retries with the same key wait for the first attempt instead of racing it
+        return idempotentRequestCoordinator.execute(request.getIdempotencyKey(), () -> purchase(request));
+    }
+
+    private PaymentResponse purchase(PurchaseRequest request) {
         String correlationId = getOrGenerateCorrelationId();
         String transactionId = mapper.generateTransactionId();
         Instant startTime = Instant.now();
@@ -116,22 +145,29 @@ public class PaymentService {
             }
         }
 
+        boolean requestSent = false;
         try {
             // Validate payment method
             validatePaymentMethod(request.getPaymentMethod());
 
-            // Create transaction entity
-            Transaction transaction = createTransactionEntity(request, transactionId, 
-                                                            TransactionType.PURCHASE, correlationId);
-            transaction = transactionRepository.save(transaction);
-
-            // Map to Authorize.Net request
+            // Map to Authorize.Net request, with an invoice number the recovery sweep can find it by
             CreateTransactionRequest authNetRequest = mapper.mapToPurchaseTransaction(request, merchant);
-            
-            // Execute payment
-            CreateTransactionController controller = new CreateTransactionController(authNetRequest);
-            controller.execute();
-            CreateTransactionResponse response = controller.getApiResponse();
+            String invoiceNumber = tagInvoiceNumber(authNetRequest, transactionId);
+
+            // Phase 1: persist the PENDING transaction in a short transaction
+            Transaction transaction;
+            try {
+                transaction = transactionTemplate.execute(status -> transactionRepository.save(withGatewayInvoiceNumber(
+                    createTransactionEntity(request, transactionId, TransactionType.PURCHASE, correlationId), invoiceNumber)));
+            } catch (DataIntegrityViolationException e) {
+                Transaction first = findConcurrentDuplicate(request.getIdempotencyKey(), e);
+                metricsService.recordTransaction(TransactionType.PURCHASE, Duration.between(startTime, Instant.now()));
+                return buildResponseFromTransaction(first);
+            }
+
+            // Phase 2: execute payment with no transaction open
+            requestSent = true;
+            CreateTransactionResponse response = executeGatewayTransaction(authNetRequest);
 
             // Process response
             PaymentResponse paymentResponse = mapper.mapToPaymentResponse(
@@ -148,9 +184,8 @@ public class PaymentService {
                 paymentResponse.setCustomerProfileId(customer.getAuthorizeNetCustomerProfileId());
             }
 
-            // Update transaction with results
-            updateTransactionFromResponse(transaction, paymentResponse, response);
-            transactionRepository.save(transaction);
+            // Phase 3: update transaction with results
+            applyGatewayResult(transaction, paymentResponse, response, null, null);
 
             log.info("Purchase transaction completed - TransactionId: {}, Status: {}, Success: {}", 
                        transactionId, paymentResponse.getStatus(), paymentResponse.getSuccess());
@@ -172,8 +207,8 @@ public class PaymentService {
             metricsService.recordPaymentCompletion(PaymentStatus.FAILED, request.getAmount(), processingTime);
             metricsService.recordPaymentError("processing_exception", e.getClass().getSimpleName());
             
-            // Update transaction status to failed
-            updateTransactionStatus(transactionId, PaymentStatus.FAILED, e.getMessage());
+            // Mark the transaction failed unless the card may have been charged
+            recordGatewayFailure(transactionId, requestSent, e);
             
             throw new PaymentProcessingException("Purchase transaction failed", e, correlationId);
         }
@@ -187,6 +222,10 @@ public class PaymentService {
      * @throws PaymentProcessingException if authorization fails
      */
     public PaymentResponse processAuthorization(AuthorizeRequest request) {
+        return idempotentRequestCoordinator.execute(request.getIdempotencyKey(), () -> authorize(request));
+    }
+
+    private PaymentResponse authorize(AuthorizeRequest request) {
         String correlationId = getOrGenerateCorrelationId();
         String transactionId = mapper.generateTransactionId();
         
@@ -204,22 +243,27 @@ public class PaymentService {
             }
         }
 
+        boolean requestSent = false;
         try {
             // Validate payment method
             validatePaymentMethod(request.getPaymentMethod());
 
-            // Create transaction entity
-            Transaction transaction = createTransactionEntity(request, transactionId, 
-                                                            TransactionType.AUTHORIZE, correlationId);
-            transaction = transactionRepository.save(transaction);
-
-            // Map to Authorize.Net request
+            // Map to Authorize.Net request, with an invoice number the recovery sweep can find it by
             CreateTransactionRequest authNetRequest = mapper.mapToAuthorizeTransaction(request, merchant);
-            
-            // Execute authorization
-            CreateTransactionController controller = new CreateTransactionController(authNetRequest);
-            controller.execute();
-            CreateTransactionResponse response = controller.getApiResponse();
+            String invoiceNumber = tagInvoiceNumber(authNetRequest, transactionId);
+
+            // Phase 1: persist the PENDING transaction in a short transaction
+            Transaction transaction;
+            try {
+                transaction = transactionTemplate.execute(status -> transactionRepository.save(withGatewayInvoiceNumber(
+                    createTransactionEntity(request, transactionId, TransactionType.AUTHORIZE, correlationId), invoiceNumber)));
+            } catch (DataIntegrityViolationException e) {
+                return buildResponseFromTransaction(findConcurrentDuplicate(request.getIdempotencyKey(), e));
+            }
+
+            // Phase 2: execute authorization with no transaction open
+            requestSent = true;
+            CreateTransactionResponse response = executeGatewayTransaction(authNetRequest);
 
             // Process response
             PaymentResponse paymentResponse = mapper.mapToPaymentResponse(
@@ -228,9 +272,8 @@ public class PaymentService {
             // Set the amount from the original request
             paymentResponse.setAmount(request.getAmount());
 
-            // Update transaction with results
-            updateTransactionFromResponse(transaction, paymentResponse, response);
-            transactionRepository.save(transaction);
+            // Phase 3: update transaction with results
+            applyGatewayResult(transaction, paymentResponse, response, null, null);
 
             log.info("Authorization transaction completed - TransactionId: {}, Status: {}, Success: {}", 
                        transactionId, paymentResponse.getStatus(), paymentResponse.getSuccess());
@@ -241,8 +284,8 @@ public class PaymentService {
             log.error("Authorization transaction failed - TransactionId: {}, Error: {}", 
                         transactionId, e.getMessage(), e);
             
-            // Update transaction status to failed
-            updateTransactionStatus(transactionId, PaymentStatus.FAILED, e.getMessage());
+            // Mark the transaction failed unless the authorization may have gone through
+            recordGatewayFailure(transactionId, requestSent, e);
             
             throw new PaymentProcessingException("Authorization transaction failed", e, correlationId);
         }
@@ -262,22 +305,23 @@ public class PaymentService {
         log.info("Processing capture request - AuthTransactionId: {}, Amount: {}, CorrelationId: {}", 
                    request.getTransactionId(), request.getAmount(), correlationId);
 
-        // Find original authorization transaction
-        Optional<Transaction> originalTransaction = transactionRepository
-            .findByTransactionId(request.getTransactionId());
-        
-        if (originalTransaction.isEmpty()) {
-            throw new PaymentProcessingException("Original authorization transaction not found: " + 
-                                               request.getTransactionId(), correlationId);
-        }
+        // Phase 1: validate the original authorization and persist the PENDING capture
+        PreparedGatewayCall prepared = transactionTemplate.execute(status -> {
+            // Find original authorization transaction
+            Optional<Transaction> originalTransaction = transactionRepository
+                .findByTransactionId(request.getTransactionId());
+            
+            if (originalTransaction.isEmpty()) {
+                throw new PaymentProcessingException("Original authorization transaction not found: " + 
+                                                   request.getTransactionId(), correlationId);
+            }
 
-        Transaction authTransaction = originalTransaction.get();
-        if (authTransaction.getStatus() != PaymentStatus.AUTHORIZED) {
-            throw new PaymentProcessingException("Transaction is not in authorized status: " + 
-                                               authTransaction.getStatus(), correlationId);
-        }
+            Transaction authTransaction = originalTransaction.get();
+            if (authTransaction.getStatus() != PaymentStatus.AUTHORIZED) {
+                throw new PaymentProcessingException("Transaction is not in authorized status: " + 
+                                                   authTransaction.getStatus(), correlationId);
+            }
 
-        try {
             // Create capture transaction entity
             Transaction transaction = createBasicTransactionEntity(transactionId, TransactionType.CAPTURE, 
                                                                  request.getAmount() != null ? request.getAmount() : authTransaction.getAmount(),
@@ -291,11 +335,15 @@ public class PaymentService {
             // Map to Authorize.Net request
             CreateTransactionRequest authNetRequest = mapper.mapToCaptureTransaction(
                 request, authTransaction.getAuthnetTransactionId(), merchant);
-            
-            // Execute capture
-            CreateTransactionController controller = new CreateTransactionController(authNetRequest);
-            controller.execute();
-            CreateTransactionResponse response = controller.getApiResponse();
+
+            return new PreparedGatewayCall(transaction, authTransaction, authNetRequest,
+                authTransaction.getPaymentMethod() != null ? 
+                    convertToPaymentMethodRequest(authTransaction.getPaymentMethod()) : null);
+        });
+
+        try {
+            // Phase 2: execute capture with no transaction open
+            CreateTransactionResponse response = executeGatewayTransaction(prepared.gatewayRequest());
 
             // Log detailed Authorize.Net response for debugging
             log.info("Authorize.Net Capture Response - TransactionId: {}, ResultCode: {}, MessageCount: {}", 
@@ -324,21 +372,14 @@ public class PaymentService {
 
             // Process response
             PaymentResponse paymentResponse = mapper.mapToPaymentResponse(
-                response, transactionId, "CAPTURE", authTransaction.getPaymentMethod() != null ? 
-                    convertToPaymentMethodRequest(authTransaction.getPaymentMethod()) : null, correlationId);
+                response, transactionId, "CAPTURE", prepared.paymentMethod(), correlationId);
             
             // Set the amount from the capture request
-            paymentResponse.setAmount(request.getAmount() != null ? request.getAmount() : authTransaction.getAmount());
+            paymentResponse.setAmount(request.getAmount() != null ? request.getAmount() : prepared.parentTransaction().getAmount());
 
-            // Update transaction with results
-            updateTransactionFromResponse(transaction, paymentResponse, response);
-            transactionRepository.save(transaction);
-
-            // Update original authorization status if capture was successful
-            if (paymentResponse.getSuccess()) {
-                authTransaction.setStatus(PaymentStatus.CAPTURED);
-                transactionRepository.save(authTransaction);
-            }
+            // Phase 3: update transaction with results, and the original authorization if capture was successful
+            applyGatewayResult(prepared.transaction(), paymentResponse, response, prepared.parentTransaction(),
+                paymentResponse.getSuccess() ? PaymentStatus.CAPTURED : null);
 
             log.info("Capture transaction completed - TransactionId: {}, Status: {}, Success: {}", 
                        transactionId, paymentResponse.getStatus(), paymentResponse.getSuccess());
@@ -349,8 +390,8 @@ public class PaymentService {
             log.error("Capture transaction failed - TransactionId: {}, Error: {}", 
                         transactionId, e.getMessage(), e);
             
-            // Update transaction status to failed
-            updateTransactionStatus(transactionId, PaymentStatus.FAILED, e.getMessage());
+            // Mark the transaction failed unless the capture may have gone through
+            recordGatewayFailure(transactionId, true, e);
             
             throw new PaymentProcessingException("Capture transaction failed", e, correlationId);
         }
@@ -370,22 +411,23 @@ public class PaymentService {
         log.info("Processing void request - OriginalTransactionId: {}, CorrelationId: {}", 
                    request.getTransactionId(), correlationId);
 
-        // Find original transaction
-        Optional<Transaction> originalTransaction = transactionRepository
-            .findByTransactionId(request.getTransactionId());
-        
-        if (originalTransaction.isEmpty()) {
-            throw new PaymentProcessingException("Original transaction not found: " + 
-                                               request.getTransactionId(), correlationId);
-        }
+        // Phase 1: validate the original transaction and persist the PENDING void
+        PreparedGatewayCall prepared = transactionTemplate.execute(status -> {
+            // Find original transaction
+            Optional<Transaction> originalTransaction = transactionRepository
+                .findByTransactionId(request.getTransactionId());
+            
+            if (originalTransaction.isEmpty()) {
+                throw new PaymentProcessingException("Original transaction not found: " + 
+                                                   request.getTransactionId(), correlationId);
+            }
 
-        Transaction origTransaction = originalTransaction.get();
-        if (origTransaction.getStatus() != PaymentStatus.AUTHORIZED) {
-            throw new PaymentProcessingException("Only authorized transactions can be voided: " + 
-                                               origTransaction.getStatus(), correlationId);
-        }
+            Transaction origTransaction = originalTransaction.get();
+            if (origTransaction.getStatus() != PaymentStatus.AUTHORIZED) {
+                throw new PaymentProcessingException("Only authorized transactions can be voided: " + 
+                                                   origTransaction.getStatus(), correlationId);
+            }
 
-        try {
             // Create void transaction entity - use original amount since voids don't have separate amounts
             Transaction transaction = createBasicTransactionEntity(transactionId, TransactionType.VOID, 
                                                                  origTransaction.getAmount(), correlationId, request.getIdempotencyKey());
@@ -398,11 +440,14 @@ public class PaymentService {
             // Map to Authorize.Net request
             CreateTransactionRequest authNetRequest = mapper.mapToVoidTransaction(
                 request, origTransaction.getAuthnetTransactionId(), merchant);
-            
-            // Execute void
-            CreateTransactionController controller = new CreateTransactionController(authNetRequest);
-            controller.execute();
-            CreateTransactionResponse response = controller.getApiResponse();
+
+            // Void transactions don't need payment method details
+            return new PreparedGatewayCall(transaction, origTransaction, authNetRequest, null);
+        });
+
+        try {
+            // Phase 2: execute void with no transaction open
+            CreateTransactionResponse response = executeGatewayTransaction(prepared.gatewayRequest());
 
             // Log detailed Authorize.Net response for debugging
             log.info("Authorize.Net Void Response - TransactionId: {}, ResultCode: {}, MessageCount: {}", 
@@ -431,20 +476,14 @@ public class PaymentService {
 
             // Process response - void transactions don't need payment method details, pass null
             PaymentResponse paymentResponse = mapper.mapToPaymentResponse(
-                response, transactionId, "VOID", null, correlationId);
+                response, transactionId, "VOID", prepared.paymentMethod(), correlationId);
             
             // Set original amount for void transactions (voids reference the original amount)
-            paymentResponse.setAmount(origTransaction.getAmount());
-
-            // Update transaction with results
-            updateTransactionFromResponse(transaction, paymentResponse, response);
-            transactionRepository.save(transaction);
+            paymentResponse.setAmount(prepared.parentTransaction().getAmount());
 
-            // Update original transaction status if void was successful
-            if (paymentResponse.getSuccess()) {
-                origTransaction.setStatus(PaymentStatus.VOIDED);
-                transactionRepository.save(origTransaction);
-            }
+            // Phase 3: update transaction with results, and the original transaction if void was successful
+            applyGatewayResult(prepared.transaction(), paymentResponse, response, prepared.parentTransaction(),
+                paymentResponse.getSuccess() ? PaymentStatus.VOIDED : null);
 
             log.info("Void transaction completed - TransactionId: {}, Status: {}, Success: {}", 
                        transactionId, paymentResponse.getStatus(), paymentResponse.getSuccess());
@@ -455,8 +494,8 @@ public class PaymentService {
             log.error("Void transaction failed - TransactionId: {}, Error: {}", 
                         transactionId, e.getMessage(), e);
             
-            // Update transaction status to failed
-            updateTransactionStatus(transactionId, PaymentStatus.FAILED, e.getMessage());
+            // Mark the transaction failed unless the void may have gone through
+            recordGatewayFailure(transactionId, true, e);
             
             throw new PaymentProcessingException("Void transaction failed", e, correlationId);
         }
@@ -487,32 +526,33 @@ public class PaymentService {
             }
         }
 
-        // Find original transaction with payment method eagerly loaded
-        Optional<Transaction> originalTransaction = transactionRepository
-            .findByTransactionIdWithPaymentMethod(request.getTransactionId());
-        
-        if (originalTransaction.isEmpty()) {
-            throw new PaymentProcessingException("Original transaction not found: " + 
-                                               request.getTransactionId(), correlationId);
-        }
+        // Phase 1: validate the original transaction and persist the PENDING refund
+        PreparedGatewayCall prepared = transactionTemplate.execute(status -> {
+            // Find original transaction with payment method eagerly loaded
+            Optional<Transaction> originalTransaction = transactionRepository
+                .findByTransactionIdWithPaymentMethod(request.getTransactionId());
+            
+            if (originalTransaction.isEmpty()) {
+                throw new PaymentProcessingException("Original transaction not found: " + 
+                                                   request.getTransactionId(), correlationId);
+            }
 
-        Transaction origTransaction = originalTransaction.get();
-        if (origTransaction.getStatus() != PaymentStatus.CAPTURED && 
-            origTransaction.getStatus() != PaymentStatus.SETTLED) {
-            throw new PaymentProcessingException("Only captured/settled transactions can be refunded: " + 
-                                               origTransaction.getStatus(), correlationId);
-        }
+            Transaction origTransaction = originalTransaction.get();
+            if (origTransaction.getStatus() != PaymentStatus.CAPTURED && 
+                origTransaction.getStatus() != PaymentStatus.SETTLED) {
+                throw new PaymentProcessingException("Only captured/settled transactions can be refunded: " + 
+                                                   origTransaction.getStatus(), correlationId);
+            }
 
-        // Determine refund amount (full refund if amount not specified)
-        BigDecimal refundAmount = request.getAmount() != null ? 
-            request.getAmount() : origTransaction.getAmount();
+            // Determine refund amount (full refund if amount not specified)
+            BigDecimal refundAmount = request.getAmount() != null ? 
+                request.getAmount() : origTransaction.getAmount();
 
-        // Validate refund amount
-        if (refundAmount.compareTo(origTransaction.getAmount()) > 0) {
-            throw new PaymentProcessingException("Refund amount cannot exceed original transaction amount", correlationId);
-        }
+            // Validate refund amount
+            if (refundAmount.compareTo(origTransaction.getAmount()) > 0) {
+                throw new PaymentProcessingException("Refund amount cannot exceed original transaction amount", correlationId);
+            }
 
-        try {
             // Create refund transaction entity
             Transaction transaction = createBasicTransactionEntity(transactionId, TransactionType.REFUND, 
                                                                  refundAmount, correlationId, request.getIdempotencyKey());
@@ -547,11 +587,18 @@ public class PaymentService {
             // Map to Authorize.Net request
             CreateTransactionRequest authNetRequest = mapper.mapToRefundTransaction(
                 request, origTransaction.getAuthnetTransactionId(), origTransaction.getPaymentMethod(), merchant);
-            
-            // Execute refund
-            CreateTransactionController controller = new CreateTransactionController(authNetRequest);
-            controller.execute();
-            CreateTransactionResponse response = controller.getApiResponse();
+
+            return new PreparedGatewayCall(transaction, origTransaction, authNetRequest,
+                origTransaction.getPaymentMethod() != null ? 
+                    convertToPaymentMethodRequest(origTransaction.getPaymentMethod()) : null);
+        });
+
+        BigDecimal originalAmount = prepared.parentTransaction().getAmount();
+        BigDecimal refundAmount = request.getAmount() != null ? request.getAmount() : originalAmount;
+
+        try {
+            // Phase 2: execute refund with no transaction open
+            CreateTransactionResponse response = executeGatewayTransaction(prepared.gatewayRequest());
 
             // Log detailed Authorize.Net response for debugging
             log.info("Authorize.Net Refund Response - TransactionId: {}, ResultCode: {}, MessageCount: {}", 
@@ -580,26 +627,16 @@ public class PaymentService {
 
             // Process response
             PaymentResponse paymentResponse = mapper.mapToPaymentResponse(
-                response, transactionId, "REFUND", origTransaction.getPaymentMethod() != null ? 
-                    convertToPaymentMethodRequest(origTransaction.getPaymentMethod()) : null, correlationId);
+                response, transactionId, "REFUND", prepared.paymentMethod(), correlationId);
             
             // Set the refund amount
             paymentResponse.setAmount(refundAmount);
 
-            // Update transaction with results
-            updateTransactionFromResponse(transaction, paymentResponse, response);
-            transactionRepository.save(transaction);
-
-            // Update original transaction status if refund was successful
-            if (paymentResponse.getSuccess()) {
-                // Check if this is a full refund
-                if (refundAmount.compareTo(origTransaction.getAmount()) == 0) {
-                    origTransaction.setStatus(PaymentStatus.REFUNDED);
-                } else {
-                    origTransaction.setStatus(PaymentStatus.PARTIALLY_REFUNDED);
-                }
-                transactionRepository.save(origTransaction);
-            }
+            // Phase 3: update transaction with results, and the original transaction if refund was successful
+            PaymentStatus originalStatus = refundAmount.compareTo(originalAmount) == 0 
+                ? PaymentStatus.REFUNDED : PaymentStatus.PARTIALLY_REFUNDED;
+            applyGatewayResult(prepared.transaction(), paymentResponse, response, prepared.parentTransaction(),
+                paymentResponse.getSuccess() ? originalStatus : null);
 
             log.info("Refund transaction completed - TransactionId: {}, Status: {}, Success: {}, Amount: {}", 
                        transactionId, paymentResponse.getStatus(), paymentResponse.getSuccess(), refundAmount);
@@ -610,8 +647,8 @@ public class PaymentService {
             log.error("Refund transaction failed - TransactionId: {}, Error: {}", 
                         transactionId, e.getMessage(), e);
             
-            // Update transaction status to failed
-            updateTransactionStatus(transactionId, PaymentStatus.FAILED, e.getMessage());
+            // Mark the transaction failed unless the refund may have gone through
+            recordGatewayFailure(transactionId, true, e);
             
             throw new PaymentProcessingException("Refund transaction failed", e, correlationId);
         }
@@ -676,15 +713,8 @@ public class PaymentService {
                    authnetTransactionId, correlationId);
 
         try {
-            // Create transaction details request
-            GetTransactionDetailsRequest request = new GetTransactionDetailsRequest();
-            request.setMerchantAuthentication(merchant);
-            request.setTransId(authnetTransactionId);
-
-            // Execute the request
-            GetTransactionDetailsController controller = new GetTransactionDetailsController(request);
-            controller.execute();
-            GetTransactionDetailsResponse response = controller.getApiResponse();
+            // Settled, refunded and voided transactions are served from the cache
+            GetTransactionDetailsResponse response = transactionDetailsCache.lookup(authnetTransactionId);
 
             if (response == null) {
                 throw new PaymentProcessingException("No response from Authorize.Net for transaction: " + authnetTransactionId, correlationId);
@@ -980,19 +1010,11 @@ log.info("Authorize.Net Refund Response - TransactionId: {}, ResultCode: {}, Mes
                        customer.getCustomerId(),
                        customer.getAuthorizeNetCustomerProfileId());
             
-            // Check if existing customer needs Authorize.Net profile creation
+            // Profiles are created in the background so checkout makes a single gateway call
             if (customer.getAuthorizeNetCustomerProfileId() == null || customer.getAuthorizeNetCustomerProfileId().trim().isEmpty()) {
-                log.info("🔧 EXISTING CUSTOMER MISSING AUTHNET PROFILE - Creating CIM profile for: {}", customer.getEmail());
-                try {
-                    String customerProfileId = authorizeNetCustomerService.createCustomerProfile(customer, customerRequest);
-                    customer.setAuthorizeNetCustomerProfileId(customerProfileId);
-                    customer = customerRepository.save(customer);
-                    log.info("✅ CIM PROFILE CREATED for existing customer - Profile ID: {}, Customer ID: {}", 
-                               customerProfileId, customer.getCustomerId());
-                } catch (Exception e) {
-                    log.error("❌ Failed to create CIM profile for existing customer: {} - Error: {}", 
-                                customer.getCustomerId(), e.getMessage(), e);
-                }
+                log.info("Existing customer has no Authorize.Net profile, queuing CIM profile creation - Customer ID: {}",
+                           customer.getCustomerId());
+                profileProvisioningService.enqueue(customer.getId());
             }
             
             return customer;
@@ -1025,22 +1047,11 @@ log.info("Authorize.Net Refund Response - TransactionId: {}, ResultCode: {}, Mes
         }
 
         customer = customerRepository.save(customer);
-        log.info("🆕 CREATING NEW CUSTOMER - ID: {}, Email: {}, About to create AuthNet profile...", customer.getId(), customer.getEmail());
+        log.info("🆕 CREATED NEW CUSTOMER - ID: {}, Email: {}", customer.getId(), customer.getEmail());
         
-        // Create Authorize.Net customer profile - THIS IS THE CRITICAL FIX
-        // This makes customers appear in the Authorize.Net portal for subscription management
-        try {
-            String customerProfileId = authorizeNetCustomerService.createCustomerProfile(customer, customerRequest);
-            customer.setAuthorizeNetCustomerProfileId(customerProfileId);
-            customer = customerRepository.save(customer);
-            log.info("🎯 SOLUTION IMPLEMENTED: Customer profile created in Authorize.Net - Profile ID: {}, Customer ID: {}", 
-                       customerProfileId, customer.getCustomerId());
-        } catch (Exception e) {
-            log.error("⚠️ Failed to create Authorize.Net customer profile for customer: {} - Error: {}", 
-                        customer.getCustomerId(), e.getMessage(), e);
-            // Continue without failing the payment - customer profile creation is optional for basic payments
-            // but required for subscriptions to appear in portal
-        }
+        // The Authorize.Net customer profile, which makes the customer visible in the portal for
+        // subscription management, is created in the background after this transaction commits
+        profileProvisioningService.enqueue(customer.getId());
         
         return customer;
     }
@@ -1107,6 +1118,96 @@ log.info("Authorize.Net Refund Response - TransactionId: {}, ResultCode: {}, Mes
         return response;
     }
 
+    /**
+     * Lists Authorize.Net transactions not settled yet that were submitted after the given
+     * time, newest first. Used to find transactions whose gateway id was never recorded.
+     * At most {@value #UNSETTLED_MAX_PAGES} pages of {@value #UNSETTLED_PAGE_SIZE} are read.
+     *
+     * @throws PaymentProcessingException if Authorize.Net cannot be queried
+     */
+    public List<TransactionSummaryType> findUnsettledAuthNetTransactions(ZonedDateTime submittedAfter) {
+        List<TransactionSummaryType> transactions = new ArrayList<>();
+        for (int page = 1; page <= UNSETTLED_MAX_PAGES; page++) {
+            GetUnsettledTransactionListRequest request = new GetUnsettledTransactionListRequest();
+            request.setMerchantAuthentication(merchant);
+            TransactionListSorting sorting = new TransactionListSorting();
+            sorting.setOrderBy(TransactionListOrderFieldEnum.SUBMIT_TIME_UTC);
+            sorting.setOrderDescending(true);
+            request.setSorting(sorting);
+            Paging paging = new Paging();
+            paging.setLimit(UNSETTLED_PAGE_SIZE);
+            paging.setOffset(page);
+            request.setPaging(paging);
+
+            GetUnsettledTransactionListResponse response = authorizeNetTransport.execute(request,
+                GetUnsettledTransactionListResponse.class);
+            if (response.getMessages().getResultCode() != MessageTypeEnum.OK) {
+                throw new PaymentProcessingException("Authorize.Net error listing unsettled transactions: "
+                    + response.getMessages().getMessage().get(0).getText(), getOrGenerateCorrelationId());
+            }
+            List<TransactionSummaryType> pageTransactions = response.getTransactions() != null
+                ? response.getTransactions().getTransaction() : List.of();
+            for (TransactionSummaryType transaction : pageTransactions) {
+                if (submittedAt(transaction).isBefore(submittedAfter)) {
+                    return transactions;
+                }
+                transactions.add(transaction);
+            }
+            if (pageTransactions.size() < UNSETTLED_PAGE_SIZE) {
+                return transactions;
+            }
+        }
+        log.warn("Unsettled transaction list truncated at {} transactions", transactions.size());
+        return transactions;
+    }
+
+    static ZonedDateTime submittedAt(TransactionSummaryType transaction) {
+        return transaction.getSubmitTimeUTC().toGregorianCalendar().toZonedDateTime();
+    }
+
+    /**
+     * Sends our transaction id as the invoice number when the client gave none, so the
+     * gateway transaction can be found again if its result is never recorded.
+     *
+     * @return the invoice number the request is sent with
+     */
+    private static String tagInvoiceNumber(CreateTransactionRequest authNetRequest, String transactionId) {
+        if (authNetRequest == null || authNetRequest.getTransactionRequest() == null) {
+            return null;
+        }
+        TransactionRequestType transactionRequest = authNetRequest.getTransactionRequest();
+        if (transactionRequest.getOrder() == null) {
+            transactionRequest.setOrder(new OrderType());
+        }
+        if (transactionRequest.getOrder().getInvoiceNumber() == null) {
+            transactionRequest.getOrder().setInvoiceNumber(transactionId);
+        }
+        return transactionRequest.getOrder().getInvoiceNumber();
+    }
+
+    private static Transaction withGatewayInvoiceNumber(Transaction transaction, String invoiceNumber) {
+        if (invoiceNumber != null) {
+            transaction.getResponseData().put(GATEWAY_INVOICE_NUMBER, invoiceNumber);
+        }
+        return transaction;
+    }
+
+    /**
+     * Finds the transaction a concurrent request with the same idempotency key stored first.
+     * That request goes to the gateway; this one must not.
+     *
+     * @throws DataIntegrityViolationException the given one, if the key is not why the insert failed
+     */
+    private Transaction findConcurrentDuplicate(String idempotencyKey, DataIntegrityViolationException e) {
+        Optional<Transaction> first = idempotencyKey != null
+            ? transactionRepository.findByIdempotencyKey(idempotencyKey) : Optional.empty();
+        if (first.isEmpty()) {
+            throw e;
+        }
+        log.info("Returning concurrently stored transaction for idempotency key: {}", idempotencyKey);
+        return first.get();
+    }
+
     private String getOrGenerateCorrelationId() {
         String correlationId = MDC.get("correlationId");
         if (correlationId == null) {
@@ -1227,6 +1328,7 @@ log.info("Authorize.Net Refund Response - TransactionId: {}, ResultCode: {}, Mes
         transaction.setCurrency(request.getCurrency());
         transaction.setStatus(PaymentStatus.PENDING);
         transaction.setCorrelationId(correlationId);
+        transaction.setIdempotencyKey(request.getIdempotencyKey());
         
         // Find or create customer
         Customer customer = findOrCreateCustomer(request.getCustomer());
@@ -1284,22 +1386,77 @@ log.info("Authorize.Net Refund Response - TransactionId: {}, ResultCode: {}, Mes
         transaction.setProcessedAt(ZonedDateTime.now());
     }
 
+    /**
+     * Executes a transaction request against Authorize.Net. Callers must not hold an open
+     * database transaction, otherwise a pooled connection sits idle for the whole round trip.
+     */
+    private CreateTransactionResponse executeGatewayTransaction(CreateTransactionRequest authNetRequest) {
+        return authorizeNetTransport.execute(authNetRequest, CreateTransactionResponse.class);
+    }
+
+    /**
+     * Applies the gateway result to the pending transaction, and the new status to its parent
+     * when one is given, in a single short database transaction.
+     */
+    private void applyGatewayResult(Transaction transaction, PaymentResponse paymentResponse,
+                                    CreateTransactionResponse authNetResponse,
+                                    Transaction parentTransaction, PaymentStatus parentStatus) {
+        transactionTemplate.executeWithoutResult(status -> {
+            updateTransactionFromResponse(transaction, paymentResponse, authNetResponse);
+            transactionRepository.save(transaction);
+
+            if (parentTransaction != null && parentStatus != null) {
+                parentTransaction.setStatus(parentStatus);
+                transactionRepository.save(parentTransaction);
+            }
+        });
+    }
+
+    /**
+     * Records a failed payment call on its PENDING transaction. Only a call that was never
+     * sent, or that Authorize.Net rejected outright, is marked FAILED. After a timeout, or a
+     * failure once the response was in, the gateway may have processed the request; the row
+     * stays PENDING with the error noted, for {@link PendingTransactionRecoveryService} to
+     * reconcile.
+     */
+    private void recordGatewayFailure(String transactionId, boolean requestSent, Exception e) {
+        if (!requestSent || AuthorizeNetTransport.isNotProcessed(e)) {
+            updateTransactionStatus(transactionId, PaymentStatus.FAILED, e.getMessage());
+            return;
+        }
+        log.warn("Gateway outcome unknown, leaving transaction PENDING for recovery - TransactionId: {}", transactionId);
+        updateTransactionStatus(transactionId, PaymentStatus.PENDING, e.getMessage());
+    }
+
     private void updateTransactionStatus(String transactionId, PaymentStatus status, String errorMessage) {
         try {
-            Optional<Transaction> transactionOpt = transactionRepository.findByTransactionId(transactionId);
-            if (transactionOpt.isPresent()) {
-                Transaction transaction = transactionOpt.get();
-                transaction.setStatus(status);
-                if (errorMessage != null) {
-                    transaction.getResponseData().put("errorMessage", errorMessage);
+            transactionTemplate.executeWithoutResult(txStatus -> {
+                Optional<Transaction> transactionOpt = transactionRepository.findByTransactionId(transactionId);
+                if (transactionOpt.isPresent()) {
+                    Transaction transaction = transactionOpt.get();
+                    transaction.setStatus(status);
+                    if (errorMessage != null) {
+                        transaction.getResponseData().put("errorMessage", errorMessage);
+                    }
+                    if (status != PaymentStatus.PENDING) {
+                        transaction.setProcessedAt(ZonedDateTime.now());
+                    }
+                    transactionRepository.save(transaction);
                 }
-                transaction.setProcessedAt(ZonedDateTime.now());
-                transactionRepository.save(transaction);
-            }
+            });
         } catch (Exception e) {
             log.error("Failed to update transaction status - TransactionId: {}, Status: {}, Error: {}", 
                         transactionId, status, e.getMessage());
         }
     }
 
-}
\ No newline at end of file
+    /**
+     * State carried from the first (persist) phase to the gateway call and result phase.
+     */
+    private record PreparedGatewayCall(Transaction transaction,
+                                       Transaction parentTransaction,
+                                       CreateTransactionRequest gatewayRequest,
+                                       PaymentMethodRequest paymentMethod) {
+    }
+
+}
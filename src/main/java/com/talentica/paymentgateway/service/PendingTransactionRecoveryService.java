@@ -0,0 +1,212 @@
+package com.talentica.paymentgateway.service;
+
+import com.talentica.paymentgateway.dto.payment.PaymentResponse;
+import com.talentica.paymentgateway.entity.PaymentStatus;
+import com.talentica.paymentgateway.entity.Transaction;
+import com.talentica.paymentgateway.entity.TransactionType;
+import com.talentica.paymentgateway.repository.TransactionRepository;
+import lombok.extern.slf4j.Slf4j;
+import net.authorize.api.contract.v1.TransactionSummaryType;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Recovers transactions left in PENDING by the three-phase payment pipeline.
+ *
+ * {@link PaymentService} commits a PENDING row before calling Authorize.Net and records
+ * the result in a second short transaction. If the process stops in between, the call
+ * times out or the result cannot be written, the row stays PENDING without the gateway
+ * transaction id. This sweep picks up rows older than the configured threshold and
+ * reconciles them against Authorize.Net:
+ * - Purchases and authorizations are looked up in the unsettled transaction list, read
+ *   once per sweep, by the invoice number they were sent with.
+ * - Rows whose gateway id is known are reconciled by that id.
+ * Anything not found exactly once, including captures, voids and refunds, is moved to
+ * PENDING_REVIEW for manual reconciliation.
+ *
+ * @author Payment Gateway Team
+ * @version 1.0.0
+ */
+@Slf4j
+@Service
+public class PendingTransactionRecoveryService {
+
+    // Gateway transactions that can be found by invoice number
+    private static final Set<TransactionType> FINDABLE_BY_INVOICE = Set.of(TransactionType.PURCHASE,
+        TransactionType.AUTHORIZE);
+
+    // Allowance for clock skew between us and Authorize.Net
+    private static final long SUBMIT_TIME_SLACK_MINUTES = 5;
+
+    private final TransactionRepository transactionRepository;
+    private final PaymentService paymentService;
+    private final MetricsService metricsService;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.payment.recovery.enabled:true}")
+    private boolean recoveryEnabled;
+
+    @Value("${app.payment.recovery.stale-after-minutes:15}")
+    private int staleAfterMinutes;
+
+    @Value("${app.payment.recovery.batch-size:100}")
+    private int batchSize;
+
+    public PendingTransactionRecoveryService(TransactionRepository transactionRepository,
+                                             PaymentService paymentService,
+                                             MetricsService metricsService,
+                                             TransactionTemplate transactionTemplate) {
+        this.transactionRepository = transactionRepository;
+        this.paymentService = paymentService;
+        this.metricsService = metricsService;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    /**
+     * Scheduled sweep over stale PENDING transactions.
+     */
+    @Scheduled(fixedDelayString = "${app.payment.recovery.fixed-delay-ms:300000}")
+    public void recoverStalePendingTransactions() {
+        if (!recoveryEnabled) {
+            return;
+        }
+
+        // Oldest first, one batch per tick; after an outage the backlog drains over several ticks
+        ZonedDateTime cutoffTime = ZonedDateTime.now().minusMinutes(staleAfterMinutes);
+        List<Transaction> staleTransactions = transactionRepository.findPendingTransactionsOlderThan(cutoffTime,
+            PageRequest.of(0, batchSize));
+        if (staleTransactions.isEmpty()) {
+            return;
+        }
+
+        log.warn("Recovering {} PENDING transactions older than {} minutes", staleTransactions.size(), staleAfterMinutes);
+
+        Map<String, List<TransactionSummaryType>> unsettledByInvoice = listUnsettledByInvoice(staleTransactions);
+        staleTransactions.forEach(transaction -> recoverTransaction(transaction, unsettledByInvoice));
+    }
+
+    /**
+     * Unsettled Authorize.Net transactions by invoice number, reaching back to the oldest
+     * row that has to be looked up.
+     *
+     * @return the transactions, empty if no row needs them, or null if Authorize.Net could not be queried
+     */
+    private Map<String, List<TransactionSummaryType>> listUnsettledByInvoice(List<Transaction> staleTransactions) {
+        ZonedDateTime oldest = staleTransactions.stream()
+            .filter(transaction -> transaction.getAuthnetTransactionId() == null && invoiceNumber(transaction) != null)
+            .map(PendingTransactionRecoveryService::createdAt)
+            .min(Comparator.comparing(ZonedDateTime::toInstant))
+            .orElse(null);
+        if (oldest == null) {
+            return Map.of();
+        }
+        try {
+            return paymentService.findUnsettledAuthNetTransactions(oldest.minusMinutes(SUBMIT_TIME_SLACK_MINUTES))
+                .stream()
+                .filter(summary -> summary.getInvoiceNumber() != null)
+                .collect(Collectors.groupingBy(TransactionSummaryType::getInvoiceNumber));
+        } catch (Exception e) {
+            log.error("Failed to list unsettled Authorize.Net transactions: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private void recoverTransaction(Transaction transaction, Map<String, List<TransactionSummaryType>> unsettledByInvoice) {
+        String transactionId = transaction.getTransactionId();
+        try {
+            String authnetTransactionId = transaction.getAuthnetTransactionId();
+            if (authnetTransactionId == null && invoiceNumber(transaction) != null) {
+                if (unsettledByInvoice == null) {
+                    // Tried again on the next sweep
+                    metricsService.recordPendingTransactionRecovery("failed");
+                    return;
+                }
+                authnetTransactionId = findByInvoiceNumber(transaction, unsettledByInvoice);
+            }
+
+            if (authnetTransactionId != null) {
+                // Gateway call runs outside any database transaction
+                PaymentResponse gatewayState = paymentService.getAuthNetTransactionDetails(authnetTransactionId);
+                PaymentStatus resolvedStatus = PaymentStatus.valueOf(gatewayState.getStatus());
+                if (resolveIfStillPending(transactionId, resolvedStatus, authnetTransactionId,
+                        "Reconciled with Authorize.Net")) {
+                    log.info("Recovered PENDING transaction - TransactionId: {}, Status: {}", transactionId, resolvedStatus);
+                    metricsService.recordPendingTransactionRecovery("reconciled");
+                }
+            } else if (resolveIfStillPending(transactionId, PaymentStatus.PENDING_REVIEW, null,
+                    "Gateway outcome unknown; manual reconciliation required")) {
+                log.warn("PENDING transaction moved to review - TransactionId: {}", transactionId);
+                metricsService.recordPendingTransactionRecovery("pending_review");
+            }
+        } catch (Exception e) {
+            log.error("Failed to recover PENDING transaction - TransactionId: {}, Error: {}",
+                        transactionId, e.getMessage());
+            metricsService.recordPendingTransactionRecovery("failed");
+        }
+    }
+
+    /**
+     * The gateway transaction sent with the row's invoice number no earlier than the row was
+     * created, if there is exactly one. Clients may reuse their own invoice numbers.
+     */
+    private String findByInvoiceNumber(Transaction transaction,
+                                       Map<String, List<TransactionSummaryType>> unsettledByInvoice) {
+        ZonedDateTime earliest = createdAt(transaction).minusMinutes(SUBMIT_TIME_SLACK_MINUTES);
+        List<TransactionSummaryType> matches = unsettledByInvoice.getOrDefault(invoiceNumber(transaction), List.of())
+            .stream()
+            .filter(summary -> !PaymentService.submittedAt(summary).isBefore(earliest))
+            .toList();
+        if (matches.size() > 1) {
+            log.warn("{} Authorize.Net transactions match PENDING transaction {} by invoice number",
+                       matches.size(), transaction.getTransactionId());
+        }
+        return matches.size() == 1 ? matches.get(0).getTransId() : null;
+    }
+
+    private static String invoiceNumber(Transaction transaction) {
+        TransactionType type = transaction.getTransactionType();
+        if (type == null || !FINDABLE_BY_INVOICE.contains(type) || transaction.getResponseData() == null) {
+            return null;
+        }
+        Object invoiceNumber = transaction.getResponseData().get(PaymentService.GATEWAY_INVOICE_NUMBER);
+        return invoiceNumber != null ? invoiceNumber.toString() : null;
+    }
+
+    private static ZonedDateTime createdAt(Transaction transaction) {
+        // Timestamps are written in the JVM's zone
+        return transaction.getCreatedAt().atZone(ZoneId.systemDefault());
+    }
+
+    /**
+     * Re-reads the row and applies the status only if it is still PENDING, so a payment
+     * whose result phase completes concurrently is never overwritten.
+     */
+    private boolean resolveIfStillPending(String transactionId, PaymentStatus status, String authnetTransactionId,
+                                          String note) {
+        Boolean updated = transactionTemplate.execute(txStatus -> transactionRepository.findByTransactionId(transactionId)
+            .filter(current -> current.getStatus() == PaymentStatus.PENDING)
+            .map(current -> {
+                current.setStatus(status);
+                if (authnetTransactionId != null) {
+                    current.setAuthnetTransactionId(authnetTransactionId);
+                }
+                current.getResponseData().put("recoveryNote", note);
+                current.getResponseData().put("recoveredAt", ZonedDateTime.now().toString());
+                transactionRepository.save(current);
+                return true;
+            })
+            .orElse(false));
+        return Boolean.TRUE.equals(updated);
+    }
+}
@@ -8,15 +8,23 @@ import org.springframework.data.redis.core.script.DefaultRedisScript;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 
+import jakarta.annotation.PreDestroy;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 
 /**
  * Rate Limiting Service using Redis for distributed rate limiting.
  * Implements token bucket algorithm for rate limiting with burst capacity.
  * 
+ * When {@code app.rate-limit.local-tier.enabled} is set, requests are decided by a
+ * {@link LocalRateLimitTier} that leases batches of tokens from the Redis bucket, so
+ * Redis is called once per lease instead of once per request.
+ * 
  * @author Payment Gateway Team
  * @version 1.0.0
  */
@@ -32,12 +40,46 @@ public class RateLimitService {
     
     // Lua script for atomic rate limiting check and update
     private final DefaultRedisScript<Long> rateLimitScript;
+    
+    // Lua script granting a batch of tokens to the local tier
+    private final DefaultRedisScript<List> leaseScript;
+    
+    private final ExecutorService leaseExecutor;
+    private final LocalRateLimitTier localTier;
 
-    public RateLimitService(@Autowired(required = false) RedisTemplate<String, Object> redisTemplate, 
+    public RateLimitService(RedisTemplate<String, Object> redisTemplate, 
                            ApplicationConfig.AppProperties appProperties) {
+        this(redisTemplate, appProperties, null);
+    }
+
+    @Autowired
+    public RateLimitService(@Autowired(required = false) RedisTemplate<String, Object> redisTemplate, 
+                           ApplicationConfig.AppProperties appProperties,
+                           MetricsService metricsService) {
         this.redisTemplate = redisTemplate;
         this.appProperties = appProperties;
         this.rateLimitScript = createRateLimitScript();
+        this.leaseScript = createLeaseScript();
+        
+        ApplicationConfig.AppProperties.RateLimit.LocalTier localTierConfig = appProperties.getRateLimit().getLocalTier();
+        if (redisTemplate != null && localTierConfig != null && localTierConfig.isEnabled()) {
+            this.leaseExecutor = Executors.newFixedThreadPool(2, runnable -> {
+                Thread thread = new Thread(runnable, "RateLimit-Lease");
+                thread.setDaemon(true);
+                return thread;
+            });
+            this.localTier = new LocalRateLimitTier(this::leaseTokens, leaseExecutor, metricsService, localTierConfig);
+        } else {
+            this.leaseExecutor = null;
+            this.localTier = null;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (leaseExecutor != null) {
+            leaseExecutor.shutdownNow();
+        }
     }
 
     /**
@@ -65,6 +107,14 @@ public class RateLimitService {
                 return new RateLimitResult(true, requestsPerHour, requestsPerHour, Instant.now().plusSeconds(3600));
             }
             
+            if (localTier != null) {
+                RateLimitResult result = localTier.tryAcquire(identifier, requestsPerHour, burstCapacity);
+                if (!result.isAllowed()) {
+                    log.warn("Rate limit exceeded for identifier: {} (limit: {})", identifier, requestsPerHour);
+                }
+                return result;
+            }
+            
             String key = RATE_LIMIT_KEY_PREFIX + identifier;
             long currentTime = Instant.now().getEpochSecond();
             
@@ -159,6 +209,9 @@ public class RateLimitService {
         }
         
         try {
+            if (localTier != null) {
+                localTier.reset(identifier);
+            }
             String key = RATE_LIMIT_KEY_PREFIX + identifier;
             Boolean deleted = redisTemplate.delete(key);
             log.info("Reset rate limit for identifier: {}", identifier);
@@ -234,6 +287,69 @@ public class RateLimitService {
         return Instant.now().plusSeconds(3600);
     }
 
+    /**
+     * Lease a batch of tokens from the Redis bucket for the local tier.
+     * 
+     * @param identifier Unique identifier
+     * @param tokens Number of tokens requested
+     * @param requestsPerHour Number of requests allowed per hour
+     * @param burstCapacity Burst capacity
+     * @return Lease with granted tokens, tokens left globally and window reset time
+     */
+    LocalRateLimitTier.Lease leaseTokens(String identifier, int tokens, int requestsPerHour, int burstCapacity) {
+        String key = RATE_LIMIT_KEY_PREFIX + identifier;
+        List<?> reply = redisTemplate.execute(
+                leaseScript,
+                Collections.singletonList(key),
+                requestsPerHour,
+                tokens,
+                3600L // 1 hour window
+        );
+        if (reply == null || reply.size() < 3) {
+            throw new IllegalStateException("Rate limit lease script returned no result for identifier: " + identifier);
+        }
+        
+        int granted = ((Number) reply.get(0)).intValue();
+        int remaining = ((Number) reply.get(1)).intValue();
+        long ttl = ((Number) reply.get(2)).longValue();
+        return new LocalRateLimitTier.Lease(granted, remaining, Instant.now().plusSeconds(Math.max(ttl, 1)));
+    }
+
+    /**
+     * Create Lua script granting up to the requested number of tokens in one round trip.
+     * Uses the same key and window semantics as {@link #createRateLimitScript()}.
+     * 
+     * @return Redis Lua script returning {granted, remaining, ttl}
+     */
+    private DefaultRedisScript<List> createLeaseScript() {
+        DefaultRedisScript<List> script = new DefaultRedisScript<>();
+        script.setScriptText("""
+                local key = KEYS[1]
+                local limit = tonumber(ARGV[1])
+                local requested = tonumber(ARGV[2])
+                local window = tonumber(ARGV[3])
+                
+                local current_value = redis.call('GET', key)
+                local ttl = redis.call('TTL', key)
+                
+                -- Start a new window if the key is missing or has no expiry
+                if current_value == false or ttl == -1 then
+                    local granted = math.min(requested, limit)
+                    redis.call('SET', key, limit - granted, 'EX', window)
+                    return {granted, limit - granted, window}
+                end
+                
+                local current = tonumber(current_value)
+                local granted = math.max(0, math.min(requested, current))
+                if granted > 0 then
+                    redis.call('SET', key, current - granted, 'KEEPTTL')
+                end
+                return {granted, current - granted, ttl}
+                """);
+        script.setResultType(List.class);
+        return script;
+    }
+
     /**
      * Create Lua script for atomic rate limiting operations.
      * 
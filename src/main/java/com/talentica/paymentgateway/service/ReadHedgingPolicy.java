@@ -0,0 +1,134 @@
+package com.talentica.paymentgateway.service;
+
+import com.talentica.paymentgateway.config.properties.AuthorizeNetProperties;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+/**
+ * Decides when a hedged Authorize.Net read sends its second request, and whether it may.
+ *
+ * The delay follows the configured percentile (p95 by default) of recent response times of
+ * the operation, so only the slowest few percent of reads are hedged, clamped to the
+ * configured bounds. Until enough responses were seen the initial delay applies.
+ *
+ * Hedges are paid for from a budget: every read earns the configured percentage of a hedge,
+ * every hedge spends a whole one, and unspent hedges accumulate up to the burst size. When
+ * the gateway slows down as a whole the budget runs dry instead of doubling its load.
+ *
+ * @author Payment Gateway Team
+ * @version 1.0.0
+ */
+class ReadHedgingPolicy {
+
+    // Budget is kept in ten-thousandths of a hedge
+    private static final long HEDGE_COST = 10_000L;
+    // Percentile is recomputed after this many new samples
+    private static final int RECOMPUTE_EVERY = 16;
+
+    private final AuthorizeNetProperties.Hedging config;
+    private final BiConsumer<String, Supplier<Number>> onNewOperation;
+    private final Map<String, LatencyWindow> windows = new ConcurrentHashMap<>();
+    private final AtomicLong budget;
+    private final long earnedPerRead;
+    private final long maxBudget;
+
+    /**
+     * @param onNewOperation called once per operation when its first response is recorded,
+     *        with a supplier of the operation's current hedge delay in milliseconds
+     */
+    ReadHedgingPolicy(AuthorizeNetProperties.Hedging config, BiConsumer<String, Supplier<Number>> onNewOperation) {
+        this.config = config;
+        this.onNewOperation = onNewOperation;
+        this.earnedPerRead = Math.round(config.getMaxHedgePercent() * HEDGE_COST / 100.0);
+        this.maxBudget = config.getBurst() * HEDGE_COST;
+        this.budget = new AtomicLong(maxBudget);
+    }
+
+    void recordLatency(String operation, long nanos) {
+        windows.computeIfAbsent(operation, this::newWindow).record(nanos);
+    }
+
+    /**
+     * @return how long a read of the operation waits before its hedge is sent
+     */
+    long hedgeDelayNanos(String operation) {
+        LatencyWindow window = windows.get(operation);
+        long delay = window != null && window.count() >= config.getMinSamples()
+            ? window.percentile(config.getDelayPercentile())
+            : TimeUnit.MILLISECONDS.toNanos(config.getInitialDelayMs());
+        return Math.max(TimeUnit.MILLISECONDS.toNanos(config.getMinDelayMs()),
+            Math.min(delay, TimeUnit.MILLISECONDS.toNanos(config.getMaxDelayMs())));
+    }
+
+    /**
+     * Earns the share of a hedge due for one read.
+     */
+    void recordRead() {
+        budget.accumulateAndGet(earnedPerRead, (current, earned) -> Math.min(maxBudget, current + earned));
+    }
+
+    /**
+     * @return true if a hedge may be sent; the hedge is then paid for
+     */
+    boolean tryAcquireHedge() {
+        long current;
+        do {
+            current = budget.get();
+            if (current < HEDGE_COST) {
+                return false;
+            }
+        } while (!budget.compareAndSet(current, current - HEDGE_COST));
+        return true;
+    }
+
+    private LatencyWindow newWindow(String operation) {
+        onNewOperation.accept(operation, () -> TimeUnit.NANOSECONDS.toMillis(hedgeDelayNanos(operation)));
+        return new LatencyWindow(config.getWindowSize());
+    }
+
+    /**
+     * The most recent response times of one operation.
+     */
+    private static final class LatencyWindow {
+
+        private final long[] samples;
+        private int next;
+        private int count;
+        private int sinceRecompute = RECOMPUTE_EVERY;
+        private double cachedFor = Double.NaN;
+        private long cached;
+
+        LatencyWindow(int size) {
+            this.samples = new long[size];
+        }
+
+        synchronized void record(long nanos) {
+            samples[next] = nanos;
+            next = (next + 1) % samples.length;
+            count = Math.min(count + 1, samples.length);
+            sinceRecompute++;
+        }
+
+        synchronized int count() {
+            return count;
+        }
+
+        synchronized long percentile(double percentile) {
+            if (sinceRecompute >= RECOMPUTE_EVERY || percentile != cachedFor) {
+                long[] sorted = Arrays.copyOf(samples, count);
+                Arrays.sort(sorted);
+                int index = (int) Math.ceil(percentile / 100.0 * count) - 1;
+                cached = sorted[Math.max(0, Math.min(count - 1, index))];
+                cachedFor = percentile;
+                sinceRecompute = 0;
+            }
+            return cached;
+        }
+    }
+}
@@ -1,16 +1,30 @@
 package com.talentica.paymentgateway.service;
 
+import com.talentica.paymentgateway.dto.analytics.TransactionExportRow;
+import com.talentica.paymentgateway.dto.analytics.TransactionReportRequest;
 import com.talentica.paymentgateway.dto.analytics.TransactionReportResponse;
 import com.talentica.paymentgateway.entity.Transaction;
+import com.talentica.paymentgateway.repository.TransactionRepository;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.io.BufferedWriter;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.io.PrintWriter;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.Iterator;
 import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
 
 /**
  * Service for exporting reports in various formats (CSV, PDF, Excel).
@@ -24,6 +38,16 @@ import java.util.List;
 public class ReportExportService {
 
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
+    private static final String CSV_HEADER = "Transaction ID,Customer ID,Amount,Currency,Status,Type,Created At,Processed At";
+    private static final int STREAM_BUFFER_SIZE = 64 * 1024;
+
+    private final TransactionRepository transactionRepository;
+    private final MetricsService metricsService;
+
+    public ReportExportService(TransactionRepository transactionRepository, MetricsService metricsService) {
+        this.transactionRepository = transactionRepository;
+        this.metricsService = metricsService;
+    }
 
     /**
      * Export transaction data to CSV format.
@@ -32,23 +56,15 @@ public class ReportExportService {
         log.info("Exporting {} transactions to CSV", transactions.size());
         
         try (ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-             PrintWriter writer = new PrintWriter(outputStream)) {
+             Writer writer = new OutputStreamWriter(outputStream, StandardCharsets.UTF_8)) {
             
             // Write CSV header
-            writer.println("Transaction ID,Customer ID,Amount,Currency,Status,Type,Created At,Processed At");
+            writer.write(CSV_HEADER);
+            writer.write('\n');
             
             // Write transaction data
             for (Transaction transaction : transactions) {
-                writer.println(String.format("%s,%s,%s,%s,%s,%s,%s,%s",
-                    escapeCsvValue(transaction.getTransactionId()),
-                    transaction.getCustomer() != null ? transaction.getCustomer().getId().toString() : "",
-                    transaction.getAmount() != null ? transaction.getAmount().toString() : "0",
-                    transaction.getCurrency() != null ? transaction.getCurrency() : "USD",
-                    transaction.getStatus() != null ? transaction.getStatus().toString() : "",
-                    transaction.getTransactionType() != null ? transaction.getTransactionType().toString() : "",
-                    transaction.getCreatedAt() != null ? transaction.getCreatedAt().format(DATE_FORMATTER) : "",
-                    transaction.getProcessedAt() != null ? transaction.getProcessedAt().format(DATE_FORMATTER) : ""
-                ));
+                writeCsvRow(writer, toExportRow(transaction));
             }
             
             writer.flush();
@@ -60,6 +76,54 @@ public class ReportExportService {
         }
     }
 
+    /**
+     * Stream matching transactions as CSV straight to the given output stream.
+     * Rows are read through a server-side cursor and written as they arrive, so memory
+     * use does not depend on the size of the date range. The caller owns the stream;
+     * with gzip enabled the compressed stream is finished but not closed.
+     *
+     * @return number of rows written
+     */
+    @Transactional(readOnly = true)
+    public long writeTransactionsCsv(TransactionReportRequest request, OutputStream outputStream, boolean gzip)
+            throws IOException {
+        validateStreamingRequest(request);
+        long startedAt = System.nanoTime();
+        GZIPOutputStream gzipStream = gzip ? new GZIPOutputStream(outputStream, STREAM_BUFFER_SIZE) : null;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(
+            gzipStream != null ? gzipStream : outputStream, StandardCharsets.UTF_8), STREAM_BUFFER_SIZE);
+
+        long rows = 0;
+        try (Stream<TransactionExportRow> exportRows = transactionRepository.streamForExport(
+                toLocal(request.getStartDate()),
+                toLocal(request.getEndDate()),
+                request.getStatus(),
+                request.getTransactionType(),
+                request.getCustomerId(),
+                request.getCurrency(),
+                request.getMinAmount(),
+                request.getMaxAmount())) {
+
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+            Iterator<TransactionExportRow> iterator = exportRows.iterator();
+            while (iterator.hasNext()) {
+                writeCsvRow(writer, iterator.next());
+                rows++;
+            }
+        }
+
+        writer.flush();
+        if (gzipStream != null) {
+            gzipStream.finish();
+        }
+
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - startedAt);
+        metricsService.recordReportExport(gzip ? "csv_gzip" : "csv", rows, elapsed);
+        log.info("Streamed {} transactions to CSV in {}ms (gzip: {})", rows, elapsed.toMillis(), gzip);
+        return rows;
+    }
+
     /**
      * Export transaction data to PDF format.
      */
@@ -165,8 +229,72 @@ public class ReportExportService {
         }
     }
 
+    /**
+     * Streaming exports commit the response before the first row is read, so the request
+     * has to be rejected up front rather than part-way through the download.
+     */
+    public void validateStreamingRequest(TransactionReportRequest request) {
+        if (request.getStartDate() == null || request.getEndDate() == null) {
+            throw new IllegalArgumentException("Start date and end date are required for CSV export");
+        }
+        if (request.getStartDate().isAfter(request.getEndDate())) {
+            throw new IllegalArgumentException("Start date must be before end date");
+        }
+    }
+
     // Helper methods
 
+    private static TransactionExportRow toExportRow(Transaction transaction) {
+        return new TransactionExportRow(
+            transaction.getTransactionId(),
+            transaction.getCustomer() != null ? transaction.getCustomer().getId() : null,
+            transaction.getAmount(),
+            transaction.getCurrency(),
+            transaction.getStatus(),
+            transaction.getTransactionType(),
+            transaction.getCreatedAt(),
+            transaction.getProcessedAt());
+    }
+
+    /**
+     * Appends one CSV line field by field, avoiding per-row format parsing and temporary strings.
+     */
+    private void writeCsvRow(Writer writer, TransactionExportRow row) throws IOException {
+        writer.write(escapeCsvValue(row.transactionId()));
+        writer.write(',');
+        if (row.customerId() != null) {
+            writer.write(row.customerId().toString());
+        }
+        writer.write(',');
+        writer.write(row.amount() != null ? row.amount().toString() : "0");
+        writer.write(',');
+        writer.write(row.currency() != null ? row.currency() : "USD");
+        writer.write(',');
+        if (row.status() != null) {
+            writer.write(row.status().name());
+        }
+        writer.write(',');
+        if (row.transactionType() != null) {
+            writer.write(row.transactionType().name());
+        }
+        writer.write(',');
+        if (row.createdAt() != null) {
+            DATE_FORMATTER.formatTo(row.createdAt(), writer);
+        }
+        writer.write(',');
+        if (row.processedAt() != null) {
+            DATE_FORMATTER.formatTo(row.processedAt(), writer);
+        }
+        writer.write('\n');
+    }
+
+    /**
+     * Transaction timestamps are stored as server-local date-times.
+     */
+    private static java.time.LocalDateTime toLocal(ZonedDateTime dateTime) {
+        return dateTime.withZoneSameInstant(ZoneId.systemDefault()).toLocalDateTime();
+    }
+
     private String escapeCsvValue(String value) {
         if (value == null) {
             return "";
@@ -0,0 +1,158 @@
+package com.talentica.paymentgateway.service;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+/**
+ * Time-windowed Bloom filter for recently seen keys.
+ *
+ * Two generations are kept: keys are added to the current one and looked up in both.
+ * The current generation becomes the previous one every window, so a key is remembered
+ * for at least one full window and at most two. Lookups never give false negatives
+ * within the window; false positives occur at roughly the configured rate.
+ *
+ * Bits are set with atomic operations, so the filter is safe for concurrent use.
+ *
+ * @author Payment Gateway Team
+ * @version 1.0.0
+ */
+class RotatingBloomFilter {
+
+    private final int bitCount;
+    private final int hashCount;
+    private final long windowNanos;
+    private final LongSupplier nanoClock;
+
+    private volatile Generation current;
+    private volatile Generation previous;
+    private volatile long rotateAtNanos;
+
+    RotatingBloomFilter(int expectedInsertions, double falsePositiveRate, Duration window) {
+        this(expectedInsertions, falsePositiveRate, window, System::nanoTime);
+    }
+
+    RotatingBloomFilter(int expectedInsertions, double falsePositiveRate, Duration window, LongSupplier nanoClock) {
+        double bits = -expectedInsertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2));
+        this.bitCount = (int) Math.max(64, Math.min(Integer.MAX_VALUE - 63, Math.ceil(bits)));
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / expectedInsertions * Math.log(2)));
+        this.windowNanos = window.toNanos();
+        this.nanoClock = nanoClock;
+        this.current = new Generation(bitCount);
+        this.previous = new Generation(bitCount);
+        this.rotateAtNanos = nanoClock.getAsLong() + windowNanos;
+    }
+
+    /**
+     * True if the key may have been added within the window; false if it definitely was not.
+     */
+    boolean mightContain(String key) {
+        rotateIfDue();
+        long hash1 = hash(key);
+        long hash2 = mix(hash1 ^ 0x9E3779B97F4A7C15L);
+        return current.containsAll(hash1, hash2) || previous.containsAll(hash1, hash2);
+    }
+
+    /**
+     * Records the key in the current generation.
+     */
+    void put(String key) {
+        rotateIfDue();
+        long hash1 = hash(key);
+        long hash2 = mix(hash1 ^ 0x9E3779B97F4A7C15L);
+        current.setAll(hash1, hash2);
+    }
+
+    /**
+     * False-positive probability implied by the keys held in both generations.
+     */
+    double expectedFalsePositiveRate() {
+        return 1 - (1 - current.falsePositiveRate()) * (1 - previous.falsePositiveRate());
+    }
+
+    int bitCount() {
+        return bitCount;
+    }
+
+    int hashCount() {
+        return hashCount;
+    }
+
+    private void rotateIfDue() {
+        long now = nanoClock.getAsLong();
+        if (now - rotateAtNanos < 0) {
+            return;
+        }
+        synchronized (this) {
+            if (now - rotateAtNanos < 0) {
+                return;
+            }
+            // After an idle gap longer than a window both generations have expired
+            previous = now - rotateAtNanos >= windowNanos ? new Generation(bitCount) : current;
+            current = new Generation(bitCount);
+            rotateAtNanos = now + windowNanos;
+        }
+    }
+
+    private static long hash(String key) {
+        // FNV-1a over the UTF-16 code units, finalised with the MurmurHash3 mixer
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            hash ^= key.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return mix(hash);
+    }
+
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return value;
+    }
+
+    private final class Generation {
+
+        private final AtomicLongArray words;
+        private final AtomicLong insertions = new AtomicLong();
+
+        Generation(int bits) {
+            this.words = new AtomicLongArray((bits + 63) >>> 6);
+        }
+
+        boolean containsAll(long hash1, long hash2) {
+            for (int i = 0; i < hashCount; i++) {
+                int bit = index(hash1, hash2, i);
+                if ((words.get(bit >>> 6) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        void setAll(long hash1, long hash2) {
+            for (int i = 0; i < hashCount; i++) {
+                int bit = index(hash1, hash2, i);
+                long mask = 1L << bit;
+                int word = bit >>> 6;
+                long value = words.get(word);
+                while ((value & mask) == 0 && !words.compareAndSet(word, value, value | mask)) {
+                    value = words.get(word);
+                }
+            }
+            insertions.incrementAndGet();
+        }
+
+        double falsePositiveRate() {
+            return Math.pow(1 - Math.exp(-hashCount * (double) insertions.get() / bitCount), hashCount);
+        }
+
+        private int index(long hash1, long hash2, int i) {
+            // Kirsch-Mitzenmacher double hashing
+            return (int) Long.remainderUnsigned(hash1 + i * hash2, bitCount);
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.talentica.paymentgateway.service;
 
+import com.talentica.paymentgateway.config.properties.BillingProperties;
 import com.talentica.paymentgateway.dto.payment.PurchaseRequest;
 import com.talentica.paymentgateway.dto.payment.PaymentMethodRequest;
 import com.talentica.paymentgateway.dto.payment.PaymentResponse;
@@ -11,7 +12,9 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
 import java.time.ZonedDateTime;
@@ -48,34 +51,53 @@ public class SubscriptionBillingEngine {
     private final PaymentService paymentService;
     private final MetricsService metricsService;
     private final NotificationService notificationService;
+    private final TransactionTemplate transactionTemplate;
+    private final BillingProperties.Run billingRunConfig;
 
     public SubscriptionBillingEngine(SubscriptionRepository subscriptionRepository,
                                    SubscriptionInvoiceRepository invoiceRepository,
                                    PaymentService paymentService,
                                    MetricsService metricsService,
-                                   NotificationService notificationService) {
+                                   NotificationService notificationService,
+                                   TransactionTemplate transactionTemplate,
+                                   BillingProperties billingProperties) {
         this.subscriptionRepository = subscriptionRepository;
         this.invoiceRepository = invoiceRepository;
         this.paymentService = paymentService;
         this.metricsService = metricsService;
         this.notificationService = notificationService;
+        this.transactionTemplate = transactionTemplate;
+        this.billingRunConfig = billingProperties.getRun();
     }
 
     /**
      * Processes all subscriptions due for billing.
      * Scheduled to run every hour during business hours.
+     * 
+     * Bills serially in one pass and only when {@code app.billing.run.enabled} is off;
+     * otherwise {@link SubscriptionBillingRunService} bills the same subscriptions. Each
+     * subscription is claimed and billed through {@link #billDueSubscription} like in a
+     * billing run, in its own short transactions, so nodes running this job at the same
+     * time skip each other's subscriptions.
      */
     @Scheduled(cron = "0 0 * * * *") // Every hour
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public void processDueBilling() {
+        if (billingRunConfig.isEnabled()) {
+            log.debug("Skipping scheduled billing process, partitioned billing runs are enabled");
+            return;
+        }
+
         log.info("Starting scheduled billing process");
         
-        List<Subscription> dueSubscriptions = subscriptionRepository.findSubscriptionsDueForBilling(ZonedDateTime.now());
+        ZonedDateTime cutoff = ZonedDateTime.now();
+        List<Subscription> dueSubscriptions = subscriptionRepository.findSubscriptionsDueForBilling(cutoff);
         
         log.info("Found {} subscriptions due for billing", dueSubscriptions.size());
         
         for (Subscription subscription : dueSubscriptions) {
             try {
-                processSubscriptionBilling(subscription);
+                billDueSubscription(subscription.getId(), cutoff);
             } catch (Exception e) {
                 log.error("Error processing billing for subscription: {}", 
                            subscription.getSubscriptionId(), e);
@@ -116,31 +138,96 @@ public class SubscriptionBillingEngine {
      * Scheduled to run daily at 6 AM.
      */
     @Scheduled(cron = "0 0 6 * * *") // Daily at 6 AM
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public void processSubscriptionLifecycle() {
         log.info("Starting subscription lifecycle process");
         
         // Handle trial expirations
-        handleTrialExpirations();
-        
-        // Handle past due subscriptions
-        handlePastDueSubscriptions();
-        
-        // Handle scheduled cancellations
-        handleScheduledCancellations();
+        List<Subscription> trialsEnded = transactionTemplate.execute(status -> handleTrialExpirations());
+
+        // Bill the first period outside the lifecycle transaction, like any other charge
+        for (Subscription subscription : trialsEnded) {
+            try {
+                processSubscriptionBilling(subscription);
+            } catch (Exception e) {
+                log.error("Error billing subscription after trial: {}", subscription.getSubscriptionId(), e);
+            }
+        }
         
-        // Handle scheduled plan changes
-        handleScheduledPlanChanges();
+        transactionTemplate.executeWithoutResult(status -> {
+            // Handle past due subscriptions
+            handlePastDueSubscriptions();
+
+            // Handle scheduled cancellations
+            handleScheduledCancellations();
+
+            // Handle scheduled plan changes
+            handleScheduledPlanChanges();
+        });
         
         log.info("Completed subscription lifecycle process");
     }
 
     /**
-     * Processes billing for a specific subscription.
+     * Processes billing for a specific subscription. The current period is billed now,
+     * whatever its next billing date.
      * 
      * @param subscription Subscription to bill
      */
     @Async
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public CompletableFuture<Void> processSubscriptionBilling(Subscription subscription) {
+        billDueSubscription(subscription.getId(), subscription.getNextBillingDate());
+        return CompletableFuture.completedFuture(null);
+    }
+
+    /**
+     * Bills one due subscription in three steps, the same shape as {@link PaymentService}:
+     * 1. A short transaction claims the subscription and creates its invoice, PROCESSING.
+     * 2. The invoice is charged with no transaction open.
+     * 3. A second short transaction records the result on the invoice and subscription,
+     *    and releases the claim.
+     * 
+     * The claim is a token with a lease on the subscription row, so no row lock or
+     * connection is held during the gateway call. Another attempt can claim the
+     * subscription only once the lease has run out. An attempt that stopped after step 1
+     * leaves its invoice PROCESSING; the next one charges it under the same idempotency
+     * key, and is answered from the stored transaction instead of charging again.
+     * 
+     * A subscription claimed elsewhere, no longer active or no longer due at the cutoff
+     * is skipped.
+     * 
+     * @param subscriptionId Subscription to bill
+     * @param cutoff Billing run cutoff
+     * @return Billing outcome
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public BillingOutcome billDueSubscription(UUID subscriptionId, ZonedDateTime cutoff) {
+        String claim = UUID.randomUUID().toString();
+
+        // Phase 1: claim the subscription and open its invoice in a short transaction
+        BillingAttempt attempt = transactionTemplate.execute(status -> startBilling(subscriptionId, cutoff, claim));
+        if (attempt == null) {
+            return BillingOutcome.SKIPPED;
+        }
+
+        try {
+            // Phase 2: charge with no transaction open
+            boolean paymentSuccessful = chargeInvoice(attempt);
+
+            // Phase 3: record the result and release the claim
+            return transactionTemplate.execute(status -> recordBilling(attempt, claim, paymentSuccessful));
+        } catch (Exception e) {
+            throw billingError(attempt.subscriptionReference(), attempt.planCode(), e);
+        }
+    }
+
+    private BillingAttempt startBilling(UUID subscriptionId, ZonedDateTime cutoff, String claim) {
+        if (subscriptionRepository.claimForBilling(subscriptionId, cutoff, claim,
+                billingRunConfig.getSubscriptionClaimSeconds()) == 0) {
+            return null;
+        }
+        Subscription subscription = subscriptionRepository.findById(subscriptionId).orElseThrow();
         String correlationId = CorrelationIdUtil.getOrGenerate();
         
         log.info("Processing billing for subscription: {} - CorrelationId: {}", 
@@ -151,49 +238,101 @@ public class SubscriptionBillingEngine {
             if (!subscription.isActive()) {
                 log.warn("Skipping billing for inactive subscription: {}", 
                            subscription.getSubscriptionId());
-                return CompletableFuture.completedFuture(null);
+                subscriptionRepository.releaseBillingClaim(subscriptionId, claim);
+                return null;
             }
 
+            List<SubscriptionInvoice> periodInvoices = findPeriodInvoices(subscription);
+
             // Check if already billed for current period
-            if (isAlreadyBilled(subscription)) {
+            if (isAlreadyBilled(periodInvoices)) {
                 log.info("Subscription already billed for current period: {}", 
                            subscription.getSubscriptionId());
-                return CompletableFuture.completedFuture(null);
+                subscriptionRepository.releaseBillingClaim(subscriptionId, claim);
+                return null;
             }
 
-            // Create invoice
-            SubscriptionInvoice invoice = createBillingInvoice(subscription);
-            
-            // Attempt payment
-            boolean paymentSuccessful = attemptPayment(invoice);
-            
-            if (paymentSuccessful) {
-                // Advance billing cycle
-                subscription.advanceBillingCycle();
-                subscriptionRepository.save(subscription);
-                
-                // Send success notification
-                notificationService.sendBillingSuccessNotification(subscription, invoice);
-                
-                // Record metrics
-                metricsService.recordSuccessfulBilling(subscription.getPlan().getPlanCode(), invoice.getAmount());
-                
-                log.info("Billing successful for subscription: {}", subscription.getSubscriptionId());
+            // Resume an invoice whose attempt stopped before recording its result, or create one
+            SubscriptionInvoice invoice = periodInvoices.stream()
+                .filter(inv -> "PROCESSING".equals(inv.getStatus()))
+                .findFirst()
+                .orElse(null);
+            if (invoice != null) {
+                log.info("Resuming payment of invoice: {} for subscription: {}",
+                           invoice.getInvoiceNumber(), subscription.getSubscriptionId());
             } else {
-                // Handle failed payment
-                handleFailedPayment(subscription, invoice);
-                
-                log.warn("Billing failed for subscription: {}", subscription.getSubscriptionId());
+                invoice = createBillingInvoice(subscription);
+                invoice.markAsProcessing();
+                invoice = invoiceRepository.save(invoice);
             }
 
+            return new BillingAttempt(subscriptionId, subscription.getSubscriptionId(),
+                subscription.getPlan().getPlanCode(), invoice.getId(), invoice.getInvoiceNumber(),
+                createPaymentRequest(invoice, subscription.getPaymentMethod()));
+
         } catch (Exception e) {
-            log.error("Error processing billing for subscription: {}", 
-                        subscription.getSubscriptionId(), e);
-            metricsService.recordBillingError(subscription.getPlan().getPlanCode());
-            throw new PaymentProcessingException("Billing processing failed", "BILLING_ERROR", e);
+            throw billingError(subscription.getSubscriptionId(), subscription.getPlan().getPlanCode(), e);
         }
+    }
 
-        return CompletableFuture.completedFuture(null);
+    private boolean chargeInvoice(BillingAttempt attempt) {
+        try {
+            PaymentResponse paymentResponse = paymentService.processPurchase(attempt.paymentRequest());
+            if (paymentResponse.getSuccess()) {
+                log.info("Payment successful for invoice: {}", attempt.invoiceNumber());
+                return true;
+            }
+            log.warn("Payment failed for invoice: {} - Reason: {}", 
+                       attempt.invoiceNumber(), paymentResponse.getMessage());
+            return false;
+        } catch (Exception e) {
+            log.error("Error processing payment for invoice: {}", attempt.invoiceNumber(), e);
+            return false;
+        }
+    }
+
+    private BillingOutcome recordBilling(BillingAttempt attempt, String claim, boolean paymentSuccessful) {
+        if (subscriptionRepository.releaseBillingClaim(attempt.subscriptionId(), claim) == 0) {
+            // The lease ran out and a later attempt resumed the invoice; it records the result
+            log.warn("Billing claim on subscription {} was lost before its result was recorded",
+                       attempt.subscriptionReference());
+            return BillingOutcome.SKIPPED;
+        }
+        Subscription subscription = subscriptionRepository.findById(attempt.subscriptionId()).orElseThrow();
+        SubscriptionInvoice invoice = invoiceRepository.findById(attempt.invoiceId()).orElseThrow();
+
+        if (paymentSuccessful) {
+            invoice.markAsPaid(null); // TODO: Link to actual transaction
+            invoiceRepository.save(invoice);
+
+            // Advance billing cycle
+            subscription.advanceBillingCycle();
+            subscriptionRepository.save(subscription);
+            
+            // Send success notification
+            notificationService.sendBillingSuccessNotification(subscription, invoice);
+            
+            // Record metrics
+            metricsService.recordSuccessfulBilling(subscription.getPlan().getPlanCode(), invoice.getAmount());
+            
+            log.info("Billing successful for subscription: {}", subscription.getSubscriptionId());
+            return BillingOutcome.PAID;
+        }
+
+        invoice.markAsFailed();
+        invoiceRepository.save(invoice);
+
+        // Handle failed payment
+        handleFailedPayment(subscription, invoice);
+        
+        log.warn("Billing failed for subscription: {}", subscription.getSubscriptionId());
+        return BillingOutcome.FAILED;
+    }
+
+    private PaymentProcessingException billingError(String subscriptionReference, String planCode, Exception e) {
+        log.error("Error processing billing for subscription: {}", subscriptionReference, e);
+        metricsService.recordBillingError(planCode);
+        return new PaymentProcessingException("Billing processing failed", "BILLING_ERROR", e);
     }
 
     /**
@@ -395,21 +534,24 @@ public class SubscriptionBillingEngine {
         metricsService.recordSubscriptionCancelledForNonPayment(subscription.getPlan().getPlanCode());
     }
 
-    private boolean isAlreadyBilled(Subscription subscription) {
+    private List<SubscriptionInvoice> findPeriodInvoices(Subscription subscription) {
+        return invoiceRepository.findBySubscriptionAndPeriodStartAndPeriodEnd(
+            subscription, 
+            subscription.getCurrentPeriodStart(), 
+            subscription.getCurrentPeriodEnd());
+    }
+
+    private boolean isAlreadyBilled(List<SubscriptionInvoice> periodInvoices) {
         // Check if there's already a pending or paid invoice for current period
-        List<SubscriptionInvoice> periodInvoices = invoiceRepository
-            .findBySubscriptionAndPeriodStartAndPeriodEnd(
-                subscription, 
-                subscription.getCurrentPeriodStart(), 
-                subscription.getCurrentPeriodEnd());
-        
         return periodInvoices.stream()
             .anyMatch(inv -> "PENDING".equals(inv.getStatus()) || 
-                           "PAID".equals(inv.getStatus()) || 
-                           "PROCESSING".equals(inv.getStatus()));
+                           "PAID".equals(inv.getStatus()));
     }
 
-    private void handleTrialExpirations() {
+    /**
+     * @return the subscriptions whose trial ended, to be billed once this transaction commits
+     */
+    private List<Subscription> handleTrialExpirations() {
         List<Subscription> trialExpiringSubscriptions = subscriptionRepository
             .findSubscriptionsEndingTrial(ZonedDateTime.now());
         
@@ -423,10 +565,8 @@ public class SubscriptionBillingEngine {
             
             // Send trial expiration notification
             notificationService.sendTrialExpirationNotification(subscription);
-            
-            // Process immediate billing
-            processSubscriptionBilling(subscription);
         }
+        return trialExpiringSubscriptions;
     }
 
     private void handlePastDueSubscriptions() {
@@ -492,4 +632,23 @@ public class SubscriptionBillingEngine {
         return "INV_" + System.currentTimeMillis() + "_" + 
                UUID.randomUUID().toString().replace("-", "").substring(0, 8);
     }
+
+    /**
+     * A claimed subscription's invoice, ready to be charged.
+     */
+    private record BillingAttempt(UUID subscriptionId, String subscriptionReference, String planCode,
+                                  UUID invoiceId, String invoiceNumber, PurchaseRequest paymentRequest) {
+    }
+
+    /**
+     * Result of billing one subscription.
+     */
+    public enum BillingOutcome {
+        /** Invoice created and paid; billing cycle advanced. */
+        PAID,
+        /** Invoice created but payment declined; retry scheduled. */
+        FAILED,
+        /** Nothing billed: inactive, already billed, claimed elsewhere or no longer due. */
+        SKIPPED
+    }
 }
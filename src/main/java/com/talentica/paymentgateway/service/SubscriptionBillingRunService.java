@@ -0,0 +1,452 @@
+package com.talentica.paymentgateway.service;
+
+import com.talentica.paymentgateway.config.properties.BillingProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.lang.management.ManagementFactory;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs subscription billing as partitioned, checkpointed billing runs.
+ *
+ * Each hour's run covers the active subscriptions due at the start of that hour and is
+ * split into contiguous subscription id ranges. Nodes lease one partition at a time
+ * ({@code FOR UPDATE SKIP LOCKED}) and walk it in keyset pages ordered by id, billing
+ * each page with a bounded worker pool. After every page the partition's cursor and
+ * counters are checkpointed and its lease renewed; a node that stops mid-run leaves the
+ * lease to expire, and whichever node claims the partition next continues after the
+ * last checkpointed id. The partition lease is what keeps nodes off each other's pages;
+ * pages themselves are plain reads. Re-billing a page after a crash is harmless: each
+ * subscription is claimed and re-checked by {@link SubscriptionBillingEngine#billDueSubscription},
+ * and one claimed by an attempt still running is left out of the page.
+ *
+ * Runs left unfinished are resumed, oldest first, on every poll.
+ *
+ * @author Payment Gateway Team
+ * @version 1.0.0
+ */
+@Slf4j
+@Service
+public class SubscriptionBillingRunService {
+
+    static final String STATUS_RUNNING = "RUNNING";
+    static final String STATUS_COMPLETED = "COMPLETED";
+
+    private static final DateTimeFormatter RUN_ID_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmm'Z'");
+
+    private static final String ANY_DUE_SQL =
+        "SELECT EXISTS (SELECT 1 FROM subscriptions WHERE status = CAST('ACTIVE' AS subscription_status) " +
+        "AND next_billing_date <= ?)";
+
+    private static final String INSERT_RUN_SQL =
+        "INSERT INTO billing_runs (run_id, cutoff, status, partition_count) VALUES (?, ?, 'RUNNING', ?) " +
+        "ON CONFLICT (run_id) DO NOTHING";
+
+    private static final String INSERT_PARTITION_SQL =
+        "INSERT INTO billing_run_partitions (run_id, partition_no, range_start, range_end) VALUES (?, ?, ?, ?) " +
+        "ON CONFLICT (run_id, partition_no) DO NOTHING";
+
+    private static final String OPEN_RUNS_SQL =
+        "SELECT run_id, cutoff FROM billing_runs WHERE status = 'RUNNING' ORDER BY cutoff";
+
+    private static final String CLAIM_PARTITION_SQL =
+        "UPDATE billing_run_partitions p SET lease_owner = ?, lease_until = now() + ? * INTERVAL '1 second' " +
+        "FROM (SELECT run_id, partition_no FROM billing_run_partitions " +
+        "WHERE run_id = ? AND completed_at IS NULL AND (lease_until IS NULL OR lease_until < now()) " +
+        "ORDER BY partition_no LIMIT 1 FOR UPDATE SKIP LOCKED) free " +
+        "WHERE p.run_id = free.run_id AND p.partition_no = free.partition_no " +
+        "RETURNING p.partition_no, p.range_start, p.range_end, p.last_subscription_id";
+
+    private static final String CHECKPOINT_SQL =
+        "UPDATE billing_run_partitions SET last_subscription_id = ?, " +
+        "lease_until = now() + ? * INTERVAL '1 second', " +
+        "invoices_paid = invoices_paid + ?, invoices_failed = invoices_failed + ?, " +
+        "subscriptions_skipped = subscriptions_skipped + ?, billing_errors = billing_errors + ?, " +
+        "completed_at = CASE WHEN ? THEN now() ELSE NULL END " +
+        "WHERE run_id = ? AND partition_no = ? AND lease_owner = ?";
+
+    private static final String COMPLETE_RUN_SQL =
+        "UPDATE billing_runs r SET status = 'COMPLETED', completed_at = now(), " +
+        "invoices_paid = t.paid, invoices_failed = t.failed, " +
+        "subscriptions_skipped = t.skipped, billing_errors = t.errors " +
+        "FROM (SELECT SUM(invoices_paid) AS paid, SUM(invoices_failed) AS failed, " +
+        "SUM(subscriptions_skipped) AS skipped, SUM(billing_errors) AS errors " +
+        "FROM billing_run_partitions WHERE run_id = ?) t " +
+        "WHERE r.run_id = ? AND r.status = 'RUNNING' AND NOT EXISTS " +
+        "(SELECT 1 FROM billing_run_partitions p WHERE p.run_id = r.run_id AND p.completed_at IS NULL)";
+
+    private static final String SUMMARY_SQL =
+        "SELECT r.run_id, r.cutoff, r.status, r.partition_count, r.started_at, r.completed_at, " +
+        "COUNT(p.completed_at) AS completed_partitions, " +
+        "COALESCE(SUM(p.invoices_paid), 0) AS invoices_paid, COALESCE(SUM(p.invoices_failed), 0) AS invoices_failed, " +
+        "COALESCE(SUM(p.subscriptions_skipped), 0) AS subscriptions_skipped, " +
+        "COALESCE(SUM(p.billing_errors), 0) AS billing_errors " +
+        "FROM billing_runs r LEFT JOIN billing_run_partitions p ON p.run_id = r.run_id " +
+        "WHERE r.run_id = ? GROUP BY r.run_id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final SubscriptionBillingEngine billingEngine;
+    private final MetricsService metricsService;
+    private final BillingProperties.Run config;
+
+    private final String workerId;
+    private final ExecutorService billingPool;
+    private final ExecutorService partitionPool;
+    private ScheduledExecutorService coordinator;
+    private volatile boolean running = true;
+
+    public SubscriptionBillingRunService(JdbcTemplate jdbcTemplate,
+                                         TransactionTemplate transactionTemplate,
+                                         SubscriptionBillingEngine billingEngine,
+                                         MetricsService metricsService,
+                                         BillingProperties billingProperties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.billingEngine = billingEngine;
+        this.metricsService = metricsService;
+        this.config = billingProperties.getRun();
+        this.workerId = ManagementFactory.getRuntimeMXBean().getName() + "/" + UUID.randomUUID().toString().substring(0, 8);
+        // Threads are only created once work is submitted
+        this.billingPool = Executors.newFixedThreadPool(config.getParallelism(), daemonThreads("billing-run-worker-"));
+        this.partitionPool = Executors.newFixedThreadPool(config.getConcurrentPartitions(),
+            daemonThreads("billing-run-partition-"));
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!config.isEnabled()) {
+            log.info("Partitioned billing runs disabled");
+            return;
+        }
+        coordinator = Executors.newSingleThreadScheduledExecutor(daemonThreads("billing-run-coordinator-"));
+        coordinator.scheduleWithFixedDelay(this::pollSafely, config.getPollIntervalSeconds(),
+            config.getPollIntervalSeconds(), TimeUnit.SECONDS);
+        log.info("Billing run coordinator started - Worker: {}, Partitions: {}, ChunkSize: {}, Parallelism: {}",
+                   workerId, config.getPartitions(), config.getChunkSize(), config.getParallelism());
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        if (coordinator != null) {
+            coordinator.shutdownNow();
+        }
+        // Let in-flight charges finish; the current page is simply not checkpointed
+        partitionPool.shutdown();
+        billingPool.shutdown();
+        billingPool.awaitTermination(30, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Starts or joins the run for the given cutoff and works on it until no partition is
+     * left to claim.
+     *
+     * @return the run's progress, or empty if nothing was due and no run exists
+     */
+    public Optional<BillingRunSummary> runDueBilling(ZonedDateTime cutoff) {
+        OffsetDateTime runCutoff = cutoff.toOffsetDateTime();
+        String runId = createRunIfDue(runCutoff);
+        Optional<BillingRunSummary> run = findRun(runId);
+        if (run.isPresent() && STATUS_RUNNING.equals(run.get().status())) {
+            work(runId, runCutoff);
+            run = findRun(runId);
+        }
+        return run;
+    }
+
+    public Optional<BillingRunSummary> findRun(String runId) {
+        return jdbcTemplate.query(SUMMARY_SQL, (rs, rowNum) -> mapSummary(rs), runId).stream().findFirst();
+    }
+
+    /**
+     * One coordinator tick: create the run for the current hour if anything is due, then
+     * work on every unfinished run, oldest first.
+     */
+    void poll() {
+        createRunIfDue(ZonedDateTime.now(ZoneOffset.UTC).truncatedTo(ChronoUnit.HOURS).toOffsetDateTime());
+        List<OpenRun> openRuns = jdbcTemplate.query(OPEN_RUNS_SQL, (rs, rowNum) ->
+            new OpenRun(rs.getString("run_id"), rs.getObject("cutoff", OffsetDateTime.class)));
+        for (OpenRun openRun : openRuns) {
+            if (!running) {
+                return;
+            }
+            work(openRun.runId(), openRun.cutoff());
+        }
+    }
+
+    private String createRunIfDue(OffsetDateTime cutoff) {
+        String runId = runId(cutoff);
+        Boolean due = jdbcTemplate.queryForObject(ANY_DUE_SQL, Boolean.class, cutoff);
+        if (!Boolean.TRUE.equals(due)) {
+            return runId;
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            if (jdbcTemplate.update(INSERT_RUN_SQL, runId, cutoff, config.getPartitions()) == 0) {
+                return;
+            }
+            List<Object[]> partitions = new ArrayList<>();
+            List<PartitionRange> ranges = partitionRanges(config.getPartitions());
+            for (int partitionNo = 0; partitionNo < ranges.size(); partitionNo++) {
+                PartitionRange range = ranges.get(partitionNo);
+                partitions.add(new Object[] {runId, partitionNo, range.start(), range.end()});
+            }
+            jdbcTemplate.batchUpdate(INSERT_PARTITION_SQL, partitions);
+            log.info("Billing run created - RunId: {}, Cutoff: {}, Partitions: {}", runId, cutoff, ranges.size());
+        });
+        return runId;
+    }
+
+    /**
+     * Works on a run with up to {@code concurrentPartitions} partitions at a time, then
+     * marks it completed if this node finished its last partition.
+     */
+    private void work(String runId, OffsetDateTime cutoff) {
+        List<CompletableFuture<Void>> workers = new ArrayList<>();
+        for (int i = 0; i < config.getConcurrentPartitions(); i++) {
+            workers.add(CompletableFuture.runAsync(() -> drainPartitions(runId, cutoff), partitionPool));
+        }
+        CompletableFuture.allOf(workers.toArray(CompletableFuture[]::new)).join();
+        completeRunIfDone(runId);
+    }
+
+    private void drainPartitions(String runId, OffsetDateTime cutoff) {
+        while (running) {
+            Optional<PartitionLease> lease = claimPartition(runId);
+            if (lease.isEmpty()) {
+                return;
+            }
+            processPartition(runId, cutoff, lease.get());
+        }
+    }
+
+    private Optional<PartitionLease> claimPartition(String runId) {
+        return jdbcTemplate.query(CLAIM_PARTITION_SQL, (rs, rowNum) -> new PartitionLease(
+                rs.getInt("partition_no"),
+                rs.getObject("range_start", UUID.class),
+                rs.getObject("range_end", UUID.class),
+                rs.getObject("last_subscription_id", UUID.class)),
+            workerId, config.getLeaseSeconds(), runId).stream().findFirst();
+    }
+
+    /**
+     * Bills a leased partition page by page from its last checkpoint.
+     *
+     * @return number of subscriptions processed
+     */
+    int processPartition(String runId, OffsetDateTime cutoff, PartitionLease lease) {
+        UUID lastId = lease.lastSubscriptionId();
+        int processed = 0;
+        while (running) {
+            List<UUID> page = claimPage(cutoff, lease, lastId);
+            boolean exhausted = page.size() < config.getChunkSize();
+            PageResult result = page.isEmpty() ? PageResult.EMPTY : billPage(page, cutoff.toZonedDateTime());
+            if (!page.isEmpty()) {
+                lastId = page.get(page.size() - 1);
+            }
+            if (!checkpoint(runId, lease.partitionNo(), lastId, result, exhausted)) {
+                log.warn("Billing run partition lease lost - RunId: {}, Partition: {}", runId, lease.partitionNo());
+                break;
+            }
+            processed += page.size();
+            if (exhausted) {
+                log.debug("Billing run partition completed - RunId: {}, Partition: {}", runId, lease.partitionNo());
+                break;
+            }
+        }
+        return processed;
+    }
+
+    /**
+     * Next keyset page of due subscriptions in the partition, leaving out those another
+     * attempt holds a billing claim on.
+     */
+    private List<UUID> claimPage(OffsetDateTime cutoff, PartitionLease lease, UUID lastId) {
+        boolean afterCursor = lastId != null;
+        List<Object> args = new ArrayList<>();
+        args.add(cutoff);
+        args.add(afterCursor ? lastId : lease.rangeStart());
+        if (lease.rangeEnd() != null) {
+            args.add(lease.rangeEnd());
+        }
+        args.add(config.getChunkSize());
+        String sql = pageSql(afterCursor, lease.rangeEnd() != null);
+        return jdbcTemplate.queryForList(sql, UUID.class, args.toArray());
+    }
+
+    private PageResult billPage(List<UUID> subscriptionIds, ZonedDateTime cutoff) {
+        long startedAt = System.nanoTime();
+        List<CompletableFuture<SubscriptionBillingEngine.BillingOutcome>> outcomes = subscriptionIds.stream()
+            .map(id -> CompletableFuture.supplyAsync(() -> billingEngine.billDueSubscription(id, cutoff), billingPool)
+                .exceptionally(e -> {
+                    log.error("Error billing subscription {} in billing run: {}", id, e.getMessage());
+                    return null;
+                }))
+            .toList();
+
+        int paid = 0;
+        int failed = 0;
+        int skipped = 0;
+        int errors = 0;
+        for (CompletableFuture<SubscriptionBillingEngine.BillingOutcome> outcome : outcomes) {
+            SubscriptionBillingEngine.BillingOutcome result = outcome.join();
+            if (result == null) {
+                errors++;
+            } else {
+                switch (result) {
+                    case PAID -> paid++;
+                    case FAILED -> failed++;
+                    case SKIPPED -> skipped++;
+                }
+            }
+        }
+        PageResult result = new PageResult(paid, failed, skipped, errors);
+        metricsService.recordBillingRunPage(paid, failed, skipped, errors, Duration.ofNanos(System.nanoTime() - startedAt));
+        return result;
+    }
+
+    private boolean checkpoint(String runId, int partitionNo, UUID lastId, PageResult result, boolean completed) {
+        return jdbcTemplate.update(CHECKPOINT_SQL, lastId, config.getLeaseSeconds(),
+            result.paid(), result.failed(), result.skipped(), result.errors(), completed,
+            runId, partitionNo, workerId) > 0;
+    }
+
+    private void completeRunIfDone(String runId) {
+        if (jdbcTemplate.update(COMPLETE_RUN_SQL, runId, runId) == 0) {
+            return;
+        }
+        findRun(runId).ifPresent(run -> {
+            Duration elapsed = run.elapsed();
+            metricsService.recordBillingRunCompleted(run.invoices(), elapsed);
+            log.info("Billing run completed - RunId: {}, Paid: {}, Failed: {}, Skipped: {}, Errors: {}, " +
+                     "Elapsed: {}s, Throughput: {} invoices/s",
+                       run.runId(), run.invoicesPaid(), run.invoicesFailed(), run.subscriptionsSkipped(),
+                       run.billingErrors(), elapsed.toSeconds(), String.format("%.1f", run.invoicesPerSecond()));
+        });
+    }
+
+    private void pollSafely() {
+        try {
+            poll();
+        } catch (Exception e) {
+            log.error("Error running subscription billing: {}", e.getMessage(), e);
+        }
+    }
+
+    static String runId(OffsetDateTime cutoff) {
+        return "billing-" + cutoff.withOffsetSameInstant(ZoneOffset.UTC).format(RUN_ID_FORMAT);
+    }
+
+    static String pageSql(boolean afterCursor, boolean bounded) {
+        return "SELECT id FROM subscriptions WHERE status = CAST('ACTIVE' AS subscription_status) " +
+               "AND next_billing_date <= ? AND (billing_claimed_until IS NULL OR billing_claimed_until < now()) " +
+               "AND id " + (afterCursor ? ">" : ">=") + " ?" +
+               (bounded ? " AND id < ?" : "") +
+               " ORDER BY id LIMIT ?";
+    }
+
+    /**
+     * Splits the UUID space into contiguous ranges by its leading 32 bits. PostgreSQL
+     * orders UUIDs bytewise, so each range is one index range scan.
+     */
+    static List<PartitionRange> partitionRanges(int partitions) {
+        List<PartitionRange> ranges = new ArrayList<>(partitions);
+        for (int i = 0; i < partitions; i++) {
+            UUID end = i + 1 < partitions ? rangeBoundary(i + 1, partitions) : null;
+            ranges.add(new PartitionRange(rangeBoundary(i, partitions), end));
+        }
+        return ranges;
+    }
+
+    private static UUID rangeBoundary(int index, int partitions) {
+        long leadingBits = (1L << 32) * index / partitions;
+        return new UUID(leadingBits << 32, 0L);
+    }
+
+    private static BillingRunSummary mapSummary(ResultSet rs) throws SQLException {
+        return new BillingRunSummary(
+            rs.getString("run_id"),
+            rs.getObject("cutoff", OffsetDateTime.class),
+            rs.getString("status"),
+            rs.getInt("partition_count"),
+            rs.getInt("completed_partitions"),
+            rs.getLong("invoices_paid"),
+            rs.getLong("invoices_failed"),
+            rs.getLong("subscriptions_skipped"),
+            rs.getLong("billing_errors"),
+            rs.getObject("started_at", OffsetDateTime.class),
+            rs.getObject("completed_at", OffsetDateTime.class));
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    record PartitionRange(UUID start, UUID end) {
+    }
+
+    record PartitionLease(int partitionNo, UUID rangeStart, UUID rangeEnd, UUID lastSubscriptionId) {
+    }
+
+    private record OpenRun(String runId, OffsetDateTime cutoff) {
+    }
+
+    record PageResult(int paid, int failed, int skipped, int errors) {
+        static final PageResult EMPTY = new PageResult(0, 0, 0, 0);
+    }
+
+    /**
+     * Progress of a billing run across all nodes.
+     */
+    public record BillingRunSummary(String runId, OffsetDateTime cutoff, String status, int partitions,
+                                    int completedPartitions, long invoicesPaid, long invoicesFailed,
+                                    long subscriptionsSkipped, long billingErrors,
+                                    OffsetDateTime startedAt, OffsetDateTime completedAt) {
+
+        /**
+         * Invoices created so far, paid or declined.
+         */
+        public long invoices() {
+            return invoicesPaid + invoicesFailed;
+        }
+
+        public Duration elapsed() {
+            OffsetDateTime end = completedAt != null ? completedAt : OffsetDateTime.now();
+            return Duration.between(startedAt, end);
+        }
+
+        public double invoicesPerSecond() {
+            double seconds = Math.max(elapsed().toMillis(), 1) / 1000.0;
+            return invoices() / seconds;
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package com.talentica.paymentgateway.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.talentica.paymentgateway.config.properties.AuthorizeNetProperties;
+import lombok.extern.slf4j.Slf4j;
+import net.authorize.api.contract.v1.GetTransactionDetailsRequest;
+import net.authorize.api.contract.v1.GetTransactionDetailsResponse;
+import net.authorize.api.contract.v1.MerchantAuthenticationType;
+import net.authorize.api.contract.v1.MessageTypeEnum;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Transaction details looked up at Authorize.Net, by Authorize.Net transaction ID.
+ *
+ * Once a transaction is settled, refunded, voided or declined Authorize.Net never changes
+ * it again, so its details are kept until evicted for size. Details of transactions still
+ * pending capture, settlement or review are kept for a short TTL only. Error responses are
+ * never cached.
+ *
+ * Payment webhooks announce that a transaction changed; its cached details are dropped and
+ * loaded again in the background, so the lookups that typically follow a webhook are hits.
+ *
+ * Cached responses are shared between callers and must not be modified.
+ *
+ * @author Payment Gateway Team
+ * @version 1.0.0
+ */
+@Slf4j
+@Component
+public class TransactionDetailsCache {
+
+    static final String RESULT_HIT = "hit";
+    static final String RESULT_MISS = "miss";
+    static final String RESULT_WARMED = "warmed";
+    static final String RESULT_WARM_FAILED = "warm_failed";
+    static final String RESULT_WARM_REJECTED = "warm_rejected";
+
+    /**
+     * Transaction statuses Authorize.Net never moves a transaction out of.
+     */
+    static final Set<String> FINAL_STATUSES = Set.of(
+        "settledSuccessfully",
+        "refundSettledSuccessfully",
+        "voided",
+        "declined",
+        "expired",
+        "failedReview",
+        "generalError",
+        "communicationError");
+
+    private final MerchantAuthenticationType merchant;
+    private final AuthorizeNetTransport authorizeNetTransport;
+    private final MetricsService metricsService;
+    private final AuthorizeNetProperties.DetailsCache config;
+    // Null when caching is disabled
+    private final Cache<String, GetTransactionDetailsResponse> cache;
+
+    // Transactions with a webhook load queued or running
+    private final Map<String, Boolean> warming = new ConcurrentHashMap<>();
+
+    private ThreadPoolExecutor warmers;
+
+    public TransactionDetailsCache(MerchantAuthenticationType merchant,
+                                   AuthorizeNetTransport authorizeNetTransport,
+                                   MetricsService metricsService,
+                                   AuthorizeNetProperties authorizeNetProperties) {
+        this.merchant = merchant;
+        this.authorizeNetTransport = authorizeNetTransport;
+        this.metricsService = metricsService;
+        this.config = authorizeNetProperties.getDetailsCache();
+
+        if (config.isEnabled()) {
+            this.cache = Caffeine.newBuilder()
+                .maximumSize(config.getMaximumSize())
+                .expireAfter(untilFinalOrTtl())
+                .build();
+            metricsService.registerTransactionDetailsCacheGauge(cache::estimatedSize);
+        } else {
+            this.cache = null;
+        }
+    }
+
+    @PostConstruct
+    public void start() {
+        if (cache == null || !config.isWarmFromWebhooks()) {
+            return;
+        }
+        AtomicInteger threadNumber = new AtomicInteger();
+        warmers = new ThreadPoolExecutor(config.getWarmThreads(), config.getWarmThreads(), 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(config.getWarmQueueCapacity()), runnable -> {
+                Thread thread = new Thread(runnable, "authnet-details-warm-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (warmers != null) {
+            warmers.shutdownNow();
+        }
+    }
+
+    /**
+     * Details of the transaction, from the cache or from Authorize.Net.
+     *
+     * @return the gateway response, which may carry an error result code
+     */
+    public GetTransactionDetailsResponse lookup(String authnetTransactionId) {
+        if (cache != null) {
+            GetTransactionDetailsResponse cached = cache.getIfPresent(authnetTransactionId);
+            if (cached != null) {
+                metricsService.recordTransactionDetailsCache(RESULT_HIT);
+                return cached;
+            }
+            metricsService.recordTransactionDetailsCache(RESULT_MISS);
+        }
+        return load(authnetTransactionId);
+    }
+
+    /**
+     * Drops the transaction's cached details and loads them again in the background.
+     * Called for payment webhooks; never blocks and never throws.
+     */
+    public void warm(String authnetTransactionId) {
+        if (cache == null || authnetTransactionId == null || authnetTransactionId.isBlank()) {
+            return;
+        }
+        // Whatever is cached predates the change the webhook announces
+        cache.invalidate(authnetTransactionId);
+        if (warmers == null || warming.putIfAbsent(authnetTransactionId, Boolean.TRUE) != null) {
+            return;
+        }
+        try {
+            warmers.execute(() -> warmNow(authnetTransactionId));
+        } catch (RejectedExecutionException e) {
+            warming.remove(authnetTransactionId);
+            metricsService.recordTransactionDetailsCache(RESULT_WARM_REJECTED);
+        }
+    }
+
+    int warming() {
+        return warming.size();
+    }
+
+    static boolean isFinal(GetTransactionDetailsResponse response) {
+        return FINAL_STATUSES.contains(response.getTransaction().getTransactionStatus());
+    }
+
+    private void warmNow(String authnetTransactionId) {
+        try {
+            load(authnetTransactionId);
+            metricsService.recordTransactionDetailsCache(RESULT_WARMED);
+        } catch (RuntimeException e) {
+            // The next lookup goes to Authorize.Net as without the cache
+            metricsService.recordTransactionDetailsCache(RESULT_WARM_FAILED);
+            log.warn("Failed to load Authorize.Net transaction {} for the details cache: {}",
+                       authnetTransactionId, e.getMessage());
+        } finally {
+            warming.remove(authnetTransactionId);
+        }
+    }
+
+    private GetTransactionDetailsResponse load(String authnetTransactionId) {
+        GetTransactionDetailsRequest request = new GetTransactionDetailsRequest();
+        request.setMerchantAuthentication(merchant);
+        request.setTransId(authnetTransactionId);
+
+        GetTransactionDetailsResponse response = authorizeNetTransport.executeRead(request,
+            GetTransactionDetailsResponse.class);
+        if (cache != null && isCacheable(response)) {
+            cache.put(authnetTransactionId, response);
+        }
+        return response;
+    }
+
+    private boolean isCacheable(GetTransactionDetailsResponse response) {
+        if (response == null || response.getMessages() == null
+            || response.getMessages().getResultCode() != MessageTypeEnum.OK || response.getTransaction() == null) {
+            return false;
+        }
+        return isFinal(response) || config.getPendingTtlSeconds() > 0;
+    }
+
+    private Expiry<String, GetTransactionDetailsResponse> untilFinalOrTtl() {
+        return new Expiry<>() {
+            @Override
+            public long expireAfterCreate(String key, GetTransactionDetailsResponse value, long currentTime) {
+                return isFinal(value) ? Long.MAX_VALUE : TimeUnit.SECONDS.toNanos(config.getPendingTtlSeconds());
+            }
+
+            @Override
+            public long expireAfterUpdate(String key, GetTransactionDetailsResponse value, long currentTime,
+                                          long currentDuration) {
+                return expireAfterCreate(key, value, currentTime);
+            }
+
+            @Override
+            public long expireAfterRead(String key, GetTransactionDetailsResponse value, long currentTime,
+                                        long currentDuration) {
+                return currentDuration;
+            }
+        };
+    }
+}
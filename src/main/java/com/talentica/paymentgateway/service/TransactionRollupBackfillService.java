@@ -0,0 +1,245 @@
+package com.talentica.paymentgateway.service;
+
+import com.talentica.paymentgateway.config.properties.AnalyticsProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.TreeSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rebuilds transaction rollup buckets from the {@code transactions} table.
+ *
+ * Hourly buckets are recomputed chunk by chunk, each chunk in its own transaction
+ * holding the rollup advisory lock exclusively, so no flush can interleave with the
+ * delete-and-reinsert. Daily buckets are then re-derived from the hourly rows of every
+ * day the chunk touches. Hours containing transactions changed within the quiet period
+ * are left as they are, because deltas for them may still be buffered on some node;
+ * the next run or the periodic consistency check picks them up.
+ *
+ * The consistency check runs on its own timer and, when enabled, rebuilds whatever
+ * buckets it finds drifted.
+ *
+ * @author Payment Gateway Team
+ * @version 1.0.0
+ */
+@Slf4j
+@Service
+public class TransactionRollupBackfillService {
+
+    private static final String HOT_HOURS_SUBQUERY =
+        "SELECT date_trunc('hour', created_at AT TIME ZONE 'UTC') FROM transactions " +
+        "WHERE created_at >= ? AND created_at < ? AND updated_at >= ?";
+
+    private static final String COUNT_HOT_HOURS_SQL =
+        "SELECT COUNT(DISTINCT date_trunc('hour', created_at AT TIME ZONE 'UTC')) FROM transactions " +
+        "WHERE created_at >= ? AND created_at < ? AND updated_at >= ?";
+
+    private static final String DELETE_HOURLY_SQL =
+        "DELETE FROM transaction_rollups_hourly WHERE bucket_start >= ? AND bucket_start < ? " +
+        "AND bucket_start NOT IN (" + HOT_HOURS_SUBQUERY + ")";
+
+    private static final String INSERT_HOURLY_SQL =
+        "INSERT INTO transaction_rollups_hourly " +
+        "(bucket_start, status, transaction_type, currency, response_code, transaction_count, total_amount, updated_at) " +
+        "SELECT date_trunc('hour', created_at AT TIME ZONE 'UTC'), " +
+        "COALESCE(CAST(status AS VARCHAR), 'UNKNOWN'), COALESCE(CAST(transaction_type AS VARCHAR), 'UNKNOWN'), " +
+        "COALESCE(currency, 'USD'), COALESCE(authnet_response_code, ''), " +
+        "COUNT(*), COALESCE(SUM(amount), 0), CURRENT_TIMESTAMP " +
+        "FROM transactions WHERE created_at >= ? AND created_at < ? " +
+        "AND date_trunc('hour', created_at AT TIME ZONE 'UTC') NOT IN (" + HOT_HOURS_SUBQUERY + ") " +
+        "GROUP BY 1, 2, 3, 4, 5";
+
+    private static final String DELETE_DAILY_SQL =
+        "DELETE FROM transaction_rollups_daily WHERE bucket_start >= ? AND bucket_start < ?";
+
+    private static final String INSERT_DAILY_SQL =
+        "INSERT INTO transaction_rollups_daily " +
+        "(bucket_start, status, transaction_type, currency, response_code, transaction_count, total_amount, updated_at) " +
+        "SELECT date_trunc('day', bucket_start), status, transaction_type, currency, response_code, " +
+        "SUM(transaction_count), SUM(total_amount), CURRENT_TIMESTAMP " +
+        "FROM transaction_rollups_hourly WHERE bucket_start >= ? AND bucket_start < ? " +
+        "GROUP BY 1, 2, 3, 4, 5";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionRollupService rollupService;
+    private final TransactionRollupConsistencyChecker consistencyChecker;
+    private final MetricsService metricsService;
+    private final AnalyticsProperties.Rollups config;
+
+    private ScheduledExecutorService checkScheduler;
+
+    public TransactionRollupBackfillService(JdbcTemplate jdbcTemplate,
+                                            TransactionTemplate transactionTemplate,
+                                            TransactionRollupService rollupService,
+                                            TransactionRollupConsistencyChecker consistencyChecker,
+                                            MetricsService metricsService,
+                                            AnalyticsProperties analyticsProperties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.rollupService = rollupService;
+        this.consistencyChecker = consistencyChecker;
+        this.metricsService = metricsService;
+        this.config = analyticsProperties.getRollups();
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!config.isEnabled() || config.getCheckIntervalMinutes() <= 0) {
+            return;
+        }
+        checkScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "transaction-rollup-check");
+            thread.setDaemon(true);
+            return thread;
+        });
+        checkScheduler.scheduleWithFixedDelay(this::checkAndRepairSafely, config.getCheckIntervalMinutes(),
+            config.getCheckIntervalMinutes(), TimeUnit.MINUTES);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (checkScheduler != null) {
+            checkScheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * Rebuilds every hourly and daily bucket overlapping the given period.
+     *
+     * @throws IllegalStateException if rollups are disabled
+     * @throws IllegalArgumentException if the period is empty
+     */
+    public BackfillResult backfill(ZonedDateTime startDate, ZonedDateTime endDate) {
+        requireEnabled();
+        if (startDate == null || endDate == null || !startDate.isBefore(endDate)) {
+            throw new IllegalArgumentException("Start date must be before end date");
+        }
+
+        long startedAt = System.nanoTime();
+        LocalDateTime from = TransactionRollupService.toUtc(startDate).truncatedTo(ChronoUnit.HOURS);
+        LocalDateTime to = TransactionRollupService.ceil(TransactionRollupService.toUtc(endDate), ChronoUnit.HOURS);
+
+        int hoursRebuilt = 0;
+        int hoursSkipped = 0;
+        for (LocalDateTime chunkStart = from; chunkStart.isBefore(to); ) {
+            LocalDateTime chunkEnd = min(chunkStart.plusHours(config.getBackfillChunkHours()), to);
+            int skipped = rebuildHours(chunkStart, chunkEnd);
+            hoursSkipped += skipped;
+            hoursRebuilt += (int) ChronoUnit.HOURS.between(chunkStart, chunkEnd) - skipped;
+            chunkStart = chunkEnd;
+        }
+
+        BackfillResult result = new BackfillResult(from, to, hoursRebuilt, hoursSkipped,
+            Duration.ofNanos(System.nanoTime() - startedAt));
+        metricsService.recordTransactionRollupBackfill(hoursRebuilt, result.elapsed());
+        log.info("Transaction rollup backfill completed - Range: {} to {} UTC, Rebuilt: {}h, Skipped: {}h, Elapsed: {}ms",
+                   from, to, hoursRebuilt, hoursSkipped, result.elapsed().toMillis());
+        return result;
+    }
+
+    /**
+     * Runs the consistency check over the configured lookback window and, if repair is
+     * enabled, rebuilds the buckets found drifted.
+     */
+    public TransactionRollupConsistencyChecker.ConsistencyReport checkAndRepair() {
+        requireEnabled();
+        ZonedDateTime now = ZonedDateTime.now();
+        TransactionRollupConsistencyChecker.ConsistencyReport report =
+            consistencyChecker.check(now.minusHours(config.getCheckLookbackHours()), now);
+        if (report.isConsistent() || !config.isRepairEnabled()) {
+            return report;
+        }
+
+        log.warn("Repairing drifted transaction rollups - Hours: {}, Days: {}",
+                   report.driftedHours().size(), report.driftedDays().size());
+        repairHours(report.driftedHours());
+        repairDays(report.driftedDays());
+        return report;
+    }
+
+    /**
+     * Rebuilds one chunk of hourly buckets and the daily buckets it touches.
+     *
+     * @return number of hours skipped because they changed within the quiet period
+     */
+    int rebuildHours(LocalDateTime from, LocalDateTime to) {
+        OffsetDateTime createdFrom = from.atOffset(ZoneOffset.UTC);
+        OffsetDateTime createdTo = to.atOffset(ZoneOffset.UTC);
+        OffsetDateTime quietCutoff = OffsetDateTime.now().minusMinutes(config.getQuietPeriodMinutes());
+
+        Integer skipped = transactionTemplate.execute(status -> {
+            lockExclusively();
+            Integer hotHours = jdbcTemplate.queryForObject(COUNT_HOT_HOURS_SQL, Integer.class,
+                createdFrom, createdTo, quietCutoff);
+            jdbcTemplate.update(DELETE_HOURLY_SQL, from, to, createdFrom, createdTo, quietCutoff);
+            jdbcTemplate.update(INSERT_HOURLY_SQL, createdFrom, createdTo, createdFrom, createdTo, quietCutoff);
+            rebuildDaysFromHourly(from.truncatedTo(ChronoUnit.DAYS), TransactionRollupService.ceil(to, ChronoUnit.DAYS));
+            return hotHours;
+        });
+        return skipped != null ? skipped : 0;
+    }
+
+    private void repairHours(Collection<LocalDateTime> hours) {
+        for (LocalDateTime hour : new TreeSet<>(hours)) {
+            rebuildHours(hour, hour.plusHours(1));
+        }
+    }
+
+    private void repairDays(Collection<LocalDateTime> days) {
+        for (LocalDateTime day : new TreeSet<>(days)) {
+            transactionTemplate.executeWithoutResult(status -> {
+                lockExclusively();
+                rebuildDaysFromHourly(day, day.plusDays(1));
+            });
+        }
+    }
+
+    private void rebuildDaysFromHourly(LocalDateTime fromDay, LocalDateTime toDay) {
+        jdbcTemplate.update(DELETE_DAILY_SQL, fromDay, toDay);
+        jdbcTemplate.update(INSERT_DAILY_SQL, fromDay, toDay);
+    }
+
+    private void lockExclusively() {
+        jdbcTemplate.execute("SELECT pg_advisory_xact_lock(" + TransactionRollupService.ROLLUP_LOCK_ID + ")");
+    }
+
+    private void checkAndRepairSafely() {
+        try {
+            checkAndRepair();
+        } catch (Exception e) {
+            log.error("Error checking transaction rollups: {}", e.getMessage(), e);
+        }
+    }
+
+    private void requireEnabled() {
+        if (!rollupService.isEnabled()) {
+            throw new IllegalStateException("Transaction rollups are disabled");
+        }
+    }
+
+    private static LocalDateTime min(LocalDateTime a, LocalDateTime b) {
+        return a.isBefore(b) ? a : b;
+    }
+
+    /**
+     * Outcome of a backfill run. Bucket bounds are UTC.
+     */
+    public record BackfillResult(LocalDateTime from, LocalDateTime to, int hoursRebuilt, int hoursSkipped,
+                                 Duration elapsed) {
+    }
+}
@@ -0,0 +1,185 @@
+package com.talentica.paymentgateway.service;
+
+import com.talentica.paymentgateway.config.properties.AnalyticsProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Compares the transaction rollups with the {@code transactions} table.
+ *
+ * Hourly buckets are checked against a fresh aggregate of the source rows; hours with
+ * transactions changed within the quiet period are skipped because their deltas may
+ * still be buffered. Daily buckets are checked against the sum of their hourly buckets.
+ * Everything is read in one repeatable-read snapshot, so a flush committing mid-check
+ * cannot show up as drift.
+ *
+ * @author Payment Gateway Team
+ * @version 1.0.0
+ */
+@Slf4j
+@Service
+public class TransactionRollupConsistencyChecker {
+
+    private static final String SOURCE_HOURLY_SQL =
+        "SELECT date_trunc('hour', created_at AT TIME ZONE 'UTC') AS bucket_start, " +
+        "COALESCE(CAST(status AS VARCHAR), 'UNKNOWN') AS status, " +
+        "COALESCE(CAST(transaction_type AS VARCHAR), 'UNKNOWN') AS transaction_type, " +
+        "COALESCE(currency, 'USD') AS currency, COALESCE(authnet_response_code, '') AS response_code, " +
+        "COUNT(*) AS transaction_count, COALESCE(SUM(amount), 0) AS total_amount " +
+        "FROM transactions WHERE created_at >= ? AND created_at < ? " +
+        "GROUP BY 1, 2, 3, 4, 5";
+
+    private static final String HOT_HOURS_SQL =
+        "SELECT DISTINCT date_trunc('hour', created_at AT TIME ZONE 'UTC') FROM transactions " +
+        "WHERE created_at >= ? AND created_at < ? AND updated_at >= ?";
+
+    private static final String ROLLUP_HOURLY_SQL =
+        "SELECT bucket_start, status, transaction_type, currency, response_code, transaction_count, total_amount " +
+        "FROM transaction_rollups_hourly WHERE bucket_start >= ? AND bucket_start < ?";
+
+    private static final String HOURLY_BY_DAY_SQL =
+        "SELECT date_trunc('day', bucket_start) AS bucket_start, status, transaction_type, currency, response_code, " +
+        "SUM(transaction_count) AS transaction_count, SUM(total_amount) AS total_amount " +
+        "FROM transaction_rollups_hourly WHERE bucket_start >= ? AND bucket_start < ? " +
+        "GROUP BY 1, 2, 3, 4, 5";
+
+    private static final String ROLLUP_DAILY_SQL =
+        "SELECT bucket_start, status, transaction_type, currency, response_code, transaction_count, total_amount " +
+        "FROM transaction_rollups_daily WHERE bucket_start >= ? AND bucket_start < ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final MetricsService metricsService;
+    private final AnalyticsProperties.Rollups config;
+
+    public TransactionRollupConsistencyChecker(JdbcTemplate jdbcTemplate,
+                                               MetricsService metricsService,
+                                               AnalyticsProperties analyticsProperties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.metricsService = metricsService;
+        this.config = analyticsProperties.getRollups();
+    }
+
+    /**
+     * Checks every hourly bucket overlapping the given period, and every daily bucket of
+     * the days it touches.
+     *
+     * @throws IllegalStateException if rollups are disabled
+     * @throws IllegalArgumentException if the period is empty
+     */
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public ConsistencyReport check(ZonedDateTime startDate, ZonedDateTime endDate) {
+        if (!config.isEnabled()) {
+            throw new IllegalStateException("Transaction rollups are disabled");
+        }
+        if (startDate == null || endDate == null || !startDate.isBefore(endDate)) {
+            throw new IllegalArgumentException("Start date must be before end date");
+        }
+
+        long startedAt = System.nanoTime();
+        LocalDateTime from = TransactionRollupService.toUtc(startDate).truncatedTo(ChronoUnit.HOURS);
+        LocalDateTime to = TransactionRollupService.ceil(TransactionRollupService.toUtc(endDate), ChronoUnit.HOURS);
+        OffsetDateTime createdFrom = from.atOffset(ZoneOffset.UTC);
+        OffsetDateTime createdTo = to.atOffset(ZoneOffset.UTC);
+        OffsetDateTime quietCutoff = OffsetDateTime.now().minusMinutes(config.getQuietPeriodMinutes());
+
+        Set<LocalDateTime> hotHours = new HashSet<>(jdbcTemplate.queryForList(HOT_HOURS_SQL, LocalDateTime.class,
+            createdFrom, createdTo, quietCutoff));
+        Set<LocalDateTime> driftedHours = diffBuckets(
+            queryBuckets(SOURCE_HOURLY_SQL, createdFrom, createdTo),
+            queryBuckets(ROLLUP_HOURLY_SQL, from, to));
+        driftedHours.removeAll(hotHours);
+
+        LocalDateTime fromDay = from.truncatedTo(ChronoUnit.DAYS);
+        LocalDateTime toDay = TransactionRollupService.ceil(to, ChronoUnit.DAYS);
+        Set<LocalDateTime> driftedDays = diffBuckets(
+            queryBuckets(HOURLY_BY_DAY_SQL, fromDay, toDay),
+            queryBuckets(ROLLUP_DAILY_SQL, fromDay, toDay));
+
+        int checkedHours = (int) ChronoUnit.HOURS.between(from, to);
+        ConsistencyReport report = new ConsistencyReport(from, to, checkedHours - hotHours.size(), hotHours.size(),
+            List.copyOf(driftedHours), List.copyOf(driftedDays));
+        metricsService.recordTransactionRollupCheck(driftedHours.size(), driftedDays.size(),
+            Duration.ofNanos(System.nanoTime() - startedAt));
+        if (!report.isConsistent()) {
+            log.warn("Transaction rollup drift detected - Range: {} to {} UTC, Hours: {}, Days: {}",
+                       from, to, driftedHours, driftedDays);
+        }
+        return report;
+    }
+
+    private Map<TransactionRollupService.RollupKey, TransactionRollupService.Delta> queryBuckets(
+            String sql, Object from, Object to) {
+        Map<TransactionRollupService.RollupKey, TransactionRollupService.Delta> buckets = new HashMap<>();
+        jdbcTemplate.query(sql, (ResultSet rs) -> {
+            TransactionRollupService.Delta delta = new TransactionRollupService.Delta(
+                rs.getLong("transaction_count"), rs.getBigDecimal("total_amount"));
+            // Rows whose deltas netted out to zero are equivalent to no row
+            if (!delta.isZero()) {
+                buckets.put(mapKey(rs), delta);
+            }
+        }, from, to);
+        return buckets;
+    }
+
+    /**
+     * Buckets whose rows differ in count or volume between the two sides.
+     */
+    static Set<LocalDateTime> diffBuckets(Map<TransactionRollupService.RollupKey, TransactionRollupService.Delta> expected,
+                                          Map<TransactionRollupService.RollupKey, TransactionRollupService.Delta> actual) {
+        Set<LocalDateTime> drifted = new TreeSet<>();
+        Set<TransactionRollupService.RollupKey> keys = new HashSet<>(expected.keySet());
+        keys.addAll(actual.keySet());
+        for (TransactionRollupService.RollupKey key : keys) {
+            if (!sameTotals(expected.get(key), actual.get(key))) {
+                drifted.add(key.bucketStart());
+            }
+        }
+        return drifted;
+    }
+
+    private static boolean sameTotals(TransactionRollupService.Delta expected, TransactionRollupService.Delta actual) {
+        if (expected == null || actual == null) {
+            return Objects.equals(expected, actual);
+        }
+        return expected.count() == actual.count() && expected.amount().compareTo(actual.amount()) == 0;
+    }
+
+    private static TransactionRollupService.RollupKey mapKey(ResultSet rs) throws SQLException {
+        return new TransactionRollupService.RollupKey(
+            rs.getObject("bucket_start", LocalDateTime.class),
+            rs.getString("status"),
+            rs.getString("transaction_type"),
+            rs.getString("currency"),
+            rs.getString("response_code"));
+    }
+
+    /**
+     * Outcome of a consistency check. Bucket bounds are UTC.
+     */
+    public record ConsistencyReport(LocalDateTime from, LocalDateTime to, int checkedHours, int skippedHours,
+                                    List<LocalDateTime> driftedHours, List<LocalDateTime> driftedDays) {
+
+        public boolean isConsistent() {
+            return driftedHours.isEmpty() && driftedDays.isEmpty();
+        }
+    }
+}
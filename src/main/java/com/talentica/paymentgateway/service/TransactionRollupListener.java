@@ -0,0 +1,149 @@
+package com.talentica.paymentgateway.service;
+
+import com.talentica.paymentgateway.entity.PaymentStatus;
+import com.talentica.paymentgateway.entity.Transaction;
+import com.talentica.paymentgateway.entity.TransactionType;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * Feeds committed {@link Transaction} changes into {@link TransactionRollupService}.
+ *
+ * Registered as a Hibernate post-commit listener, so rolled-back changes never reach
+ * the rollups and the payment transaction itself does no extra work. Updates compare
+ * the loaded state with the flushed state: a status change becomes -1 on the old
+ * bucket and +1 on the new one, and updates that do not touch a rolled-up property
+ * produce no delta at all.
+ *
+ * @author Payment Gateway Team
+ * @version 1.0.0
+ */
+@Slf4j
+@Component
+public class TransactionRollupListener implements PostCommitInsertEventListener,
+        PostCommitUpdateEventListener, PostCommitDeleteEventListener {
+
+    static final String SKIPPED_NO_OLD_STATE = "no_old_state";
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final TransactionRollupService rollupService;
+    private final MetricsService metricsService;
+
+    public TransactionRollupListener(EntityManagerFactory entityManagerFactory,
+                                     TransactionRollupService rollupService,
+                                     MetricsService metricsService) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.rollupService = rollupService;
+        this.metricsService = metricsService;
+    }
+
+    @PostConstruct
+    public void register() {
+        if (!rollupService.isEnabled()) {
+            return;
+        }
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+            .getServiceRegistry()
+            .getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_COMMIT_INSERT, this);
+        registry.appendListeners(EventType.POST_COMMIT_UPDATE, this);
+        registry.appendListeners(EventType.POST_COMMIT_DELETE, this);
+        log.info("Transaction rollup listener registered");
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return Transaction.class.isAssignableFrom(persister.getMappedClass());
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        if (event.getEntity() instanceof Transaction) {
+            RolledUpState state = RolledUpState.of(event.getPersister(), event.getState());
+            rollupService.addDelta(state.key(), 1, state.amount());
+        }
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        if (!(event.getEntity() instanceof Transaction)) {
+            return;
+        }
+        if (event.getOldState() == null) {
+            // Detached update without a loaded snapshot; the consistency checker repairs the bucket
+            metricsService.recordTransactionRollupDeltaSkipped(SKIPPED_NO_OLD_STATE);
+            log.debug("Rollup delta skipped for transaction without loaded state: {}", event.getId());
+            return;
+        }
+
+        RolledUpState before = RolledUpState.of(event.getPersister(), event.getOldState());
+        RolledUpState after = RolledUpState.of(event.getPersister(), event.getState());
+        if (before.key().equals(after.key())) {
+            rollupService.addDelta(after.key(), 0, after.amount().subtract(before.amount()));
+        } else {
+            rollupService.addDelta(before.key(), -1, before.amount().negate());
+            rollupService.addDelta(after.key(), 1, after.amount());
+        }
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        if (event.getEntity() instanceof Transaction) {
+            RolledUpState state = RolledUpState.of(event.getPersister(), event.getDeletedState());
+            rollupService.addDelta(state.key(), -1, state.amount().negate());
+        }
+    }
+
+    @Override
+    public void onPostInsertCommitFailed(PostInsertEvent event) {
+        // Nothing was committed, so there is nothing to roll up
+    }
+
+    @Override
+    public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+        // Nothing was committed, so there is nothing to roll up
+    }
+
+    @Override
+    public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+        // Nothing was committed, so there is nothing to roll up
+    }
+
+    /**
+     * The rolled-up properties of one entity state snapshot.
+     */
+    record RolledUpState(TransactionRollupService.RollupKey key, BigDecimal amount) {
+
+        static RolledUpState of(EntityPersister persister, Object[] state) {
+            LocalDateTime createdAt = (LocalDateTime) property(persister, state, "createdAt");
+            PaymentStatus status = (PaymentStatus) property(persister, state, "status");
+            TransactionType transactionType = (TransactionType) property(persister, state, "transactionType");
+            String currency = (String) property(persister, state, "currency");
+            String responseCode = (String) property(persister, state, "authnetResponseCode");
+            BigDecimal amount = (BigDecimal) property(persister, state, "amount");
+            return new RolledUpState(
+                TransactionRollupService.RollupKey.of(createdAt, status, transactionType, currency, responseCode),
+                Objects.requireNonNullElse(amount, BigDecimal.ZERO));
+        }
+
+        private static Object property(EntityPersister persister, Object[] state, String name) {
+            return state[persister.getEntityMetamodel().getPropertyIndex(name)];
+        }
+    }
+}
@@ -0,0 +1,329 @@
+package com.talentica.paymentgateway.service;
+
+import com.talentica.paymentgateway.config.properties.AnalyticsProperties;
+import com.talentica.paymentgateway.dto.analytics.TransactionRollupTotals;
+import com.talentica.paymentgateway.entity.PaymentStatus;
+import com.talentica.paymentgateway.entity.TransactionType;
+import com.talentica.paymentgateway.repository.TransactionRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Maintains and reads the hourly and daily transaction rollup tables.
+ *
+ * Every committed insert, update or delete of a {@code Transaction} is turned into a
+ * count/volume delta by {@link TransactionRollupListener} and merged into an in-memory
+ * buffer keyed by bucket and dimensions, so a burst of payments touching the same
+ * bucket costs one row update rather than one per payment. A background flusher writes
+ * the buffer to both tables in a single transaction with batched upserts, in key order
+ * so concurrent flushes from several nodes cannot deadlock. A failed flush puts its
+ * deltas back into the buffer.
+ *
+ * Buffered deltas are lost if the process dies before a flush; the consistency checker
+ * detects the resulting drift and the backfill rebuilds the affected buckets.
+ *
+ * @author Payment Gateway Team
+ * @version 1.0.0
+ */
+@Slf4j
+@Service
+public class TransactionRollupService {
+
+    /**
+     * Advisory lock taken shared by flushes and exclusively by bucket rebuilds, so a
+     * rebuild never interleaves with a flush touching the same rows.
+     */
+    static final long ROLLUP_LOCK_ID = 7_243_145_001L;
+
+    static final String UNKNOWN = "UNKNOWN";
+
+    private static final String HOURLY_UPSERT = upsertSql("transaction_rollups_hourly");
+    private static final String DAILY_UPSERT = upsertSql("transaction_rollups_daily");
+
+    private static final String TOTALS_SQL =
+        "SELECT status, transaction_type, currency, response_code, " +
+        "SUM(transaction_count) AS transaction_count, SUM(total_amount) AS total_amount " +
+        "FROM (" +
+        "  SELECT status, transaction_type, currency, response_code, transaction_count, total_amount " +
+        "  FROM transaction_rollups_daily WHERE bucket_start >= ? AND bucket_start < ? " +
+        "  UNION ALL " +
+        "  SELECT status, transaction_type, currency, response_code, transaction_count, total_amount " +
+        "  FROM transaction_rollups_hourly " +
+        "  WHERE (bucket_start >= ? AND bucket_start < ?) OR (bucket_start >= ? AND bucket_start < ?)" +
+        ") buckets " +
+        "GROUP BY status, transaction_type, currency, response_code";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionRepository transactionRepository;
+    private final MetricsService metricsService;
+    private final AnalyticsProperties.Rollups config;
+
+    private final Map<RollupKey, Delta> pending = new ConcurrentHashMap<>();
+    private ScheduledExecutorService flusher;
+
+    public TransactionRollupService(JdbcTemplate jdbcTemplate,
+                                    TransactionTemplate transactionTemplate,
+                                    TransactionRepository transactionRepository,
+                                    MetricsService metricsService,
+                                    AnalyticsProperties analyticsProperties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.transactionRepository = transactionRepository;
+        this.metricsService = metricsService;
+        this.config = analyticsProperties.getRollups();
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!config.isEnabled()) {
+            log.info("Transaction rollups disabled; analytics aggregates the transactions table directly");
+            return;
+        }
+
+        metricsService.registerTransactionRollupPendingGauge(pending::size);
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "transaction-rollup-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flushSafely, config.getFlushIntervalMs(),
+            config.getFlushIntervalMs(), TimeUnit.MILLISECONDS);
+        log.info("Transaction rollup flusher started - FlushInterval: {}ms", config.getFlushIntervalMs());
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (flusher == null) {
+            return;
+        }
+        flusher.shutdown();
+        flusher.awaitTermination(5, TimeUnit.SECONDS);
+        // Write whatever the last interval buffered
+        flushSafely();
+    }
+
+    public boolean isEnabled() {
+        return config.isEnabled();
+    }
+
+    /**
+     * Totals per status, type, currency and response code for transactions created in
+     * the given period. The period is widened to whole UTC hours; whole days inside it
+     * are read from the daily table and the remaining hours from the hourly table.
+     * Changes committed within the last flush interval may not be visible yet.
+     */
+    public List<TransactionRollupTotals> totals(ZonedDateTime startDate, ZonedDateTime endDate) {
+        if (!config.isEnabled()) {
+            return transactionRepository.aggregateBetween(toLocal(startDate), toLocal(endDate));
+        }
+
+        LocalDateTime from = toUtc(startDate).truncatedTo(ChronoUnit.HOURS);
+        LocalDateTime to = ceil(toUtc(endDate), ChronoUnit.HOURS);
+        LocalDateTime firstDay = ceil(from, ChronoUnit.DAYS);
+        LocalDateTime lastDay = to.truncatedTo(ChronoUnit.DAYS);
+        if (!firstDay.isBefore(lastDay)) {
+            // No whole day in range: the hourly table covers all of it
+            firstDay = to;
+            lastDay = to;
+        }
+
+        return jdbcTemplate.query(TOTALS_SQL, (rs, rowNum) -> mapTotals(rs),
+            firstDay, lastDay, from, firstDay, lastDay, to);
+    }
+
+    /**
+     * Adds a delta for one bucket. Called after the change has committed.
+     */
+    void addDelta(RollupKey key, long countDelta, BigDecimal amountDelta) {
+        if (countDelta == 0 && amountDelta.signum() == 0) {
+            return;
+        }
+        pending.merge(key, new Delta(countDelta, amountDelta), Delta::plus);
+    }
+
+    int pendingKeys() {
+        return pending.size();
+    }
+
+    /**
+     * Writes all buffered deltas to the hourly and daily tables.
+     *
+     * @return number of hourly buckets written
+     */
+    int flush() {
+        Map<RollupKey, Delta> batch = drainPending();
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        long startedAt = System.nanoTime();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.execute("SELECT pg_advisory_xact_lock_shared(" + ROLLUP_LOCK_ID + ")");
+                jdbcTemplate.batchUpdate(HOURLY_UPSERT, toBatchArgs(batch));
+                jdbcTemplate.batchUpdate(DAILY_UPSERT, toBatchArgs(toDaily(batch)));
+            });
+        } catch (RuntimeException e) {
+            batch.forEach((key, delta) -> pending.merge(key, delta, Delta::plus));
+            metricsService.recordTransactionRollupFlushFailure();
+            throw e;
+        }
+
+        metricsService.recordTransactionRollupFlush(batch.size(), Duration.ofNanos(System.nanoTime() - startedAt));
+        return batch.size();
+    }
+
+    private void flushSafely() {
+        try {
+            flush();
+        } catch (Exception e) {
+            log.error("Error flushing transaction rollups ({} buckets pending): {}", pending.size(), e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Removes buffered deltas key by key; a delta merged concurrently after its key was
+     * removed simply starts a new entry for the next flush.
+     */
+    private Map<RollupKey, Delta> drainPending() {
+        Map<RollupKey, Delta> batch = new TreeMap<>();
+        for (RollupKey key : pending.keySet()) {
+            Delta delta = pending.remove(key);
+            if (delta != null && !delta.isZero()) {
+                batch.put(key, delta);
+            }
+        }
+        return batch;
+    }
+
+    private static Map<RollupKey, Delta> toDaily(Map<RollupKey, Delta> hourly) {
+        Map<RollupKey, Delta> daily = new TreeMap<>();
+        hourly.forEach((key, delta) -> daily.merge(key.toDaily(), delta, Delta::plus));
+        return daily;
+    }
+
+    private static List<Object[]> toBatchArgs(Map<RollupKey, Delta> rows) {
+        List<Object[]> args = new ArrayList<>(rows.size());
+        rows.forEach((key, delta) -> args.add(new Object[] {
+            key.bucketStart(), key.status(), key.transactionType(), key.currency(), key.responseCode(),
+            delta.count(), delta.amount()
+        }));
+        return args;
+    }
+
+    private static TransactionRollupTotals mapTotals(ResultSet rs) throws SQLException {
+        return new TransactionRollupTotals(
+            parseEnum(PaymentStatus.class, rs.getString("status")),
+            parseEnum(TransactionType.class, rs.getString("transaction_type")),
+            rs.getString("currency"),
+            rs.getString("response_code"),
+            rs.getLong("transaction_count"),
+            rs.getBigDecimal("total_amount"));
+    }
+
+    private static <E extends Enum<E>> E parseEnum(Class<E> type, String value) {
+        if (value == null || UNKNOWN.equals(value)) {
+            return null;
+        }
+        try {
+            return Enum.valueOf(type, value);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static String upsertSql(String table) {
+        return "INSERT INTO " + table + " (bucket_start, status, transaction_type, currency, response_code, " +
+               "transaction_count, total_amount, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, CURRENT_TIMESTAMP) " +
+               "ON CONFLICT (bucket_start, status, transaction_type, currency, response_code) DO UPDATE SET " +
+               "transaction_count = " + table + ".transaction_count + EXCLUDED.transaction_count, " +
+               "total_amount = " + table + ".total_amount + EXCLUDED.total_amount, " +
+               "updated_at = CURRENT_TIMESTAMP";
+    }
+
+    /**
+     * Transaction timestamps are stored as server-local date-times.
+     */
+    private static LocalDateTime toLocal(ZonedDateTime dateTime) {
+        return dateTime.withZoneSameInstant(ZoneId.systemDefault()).toLocalDateTime();
+    }
+
+    static LocalDateTime toUtc(ZonedDateTime dateTime) {
+        return dateTime.withZoneSameInstant(ZoneOffset.UTC).toLocalDateTime();
+    }
+
+    static LocalDateTime ceil(LocalDateTime dateTime, ChronoUnit unit) {
+        LocalDateTime floor = dateTime.truncatedTo(unit);
+        return floor.equals(dateTime) ? floor : floor.plus(1, unit);
+    }
+
+    /**
+     * Rollup bucket and dimensions. {@code bucketStart} is the UTC start of the hour (or
+     * day, for daily rows) the transaction was created in.
+     */
+    record RollupKey(LocalDateTime bucketStart, String status, String transactionType,
+                     String currency, String responseCode) implements Comparable<RollupKey> {
+
+        private static final Comparator<RollupKey> ORDER = Comparator.comparing(RollupKey::bucketStart)
+            .thenComparing(RollupKey::status)
+            .thenComparing(RollupKey::transactionType)
+            .thenComparing(RollupKey::currency)
+            .thenComparing(RollupKey::responseCode);
+
+        static RollupKey of(LocalDateTime createdAt, PaymentStatus status, TransactionType transactionType,
+                            String currency, String responseCode) {
+            LocalDateTime created = createdAt != null ? createdAt : LocalDateTime.now();
+            return new RollupKey(
+                toUtc(created.atZone(ZoneId.systemDefault())).truncatedTo(ChronoUnit.HOURS),
+                status != null ? status.name() : UNKNOWN,
+                transactionType != null ? transactionType.name() : UNKNOWN,
+                currency != null ? currency : "USD",
+                responseCode != null ? responseCode : "");
+        }
+
+        RollupKey toDaily() {
+            return new RollupKey(bucketStart.truncatedTo(ChronoUnit.DAYS), status, transactionType,
+                currency, responseCode);
+        }
+
+        @Override
+        public int compareTo(RollupKey other) {
+            return ORDER.compare(this, other);
+        }
+    }
+
+    record Delta(long count, BigDecimal amount) {
+
+        Delta plus(Delta other) {
+            return new Delta(count + other.count, amount.add(other.amount));
+        }
+
+        boolean isZero() {
+            return count == 0 && amount.signum() == 0;
+        }
+    }
+}
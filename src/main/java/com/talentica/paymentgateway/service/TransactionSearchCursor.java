@@ -0,0 +1,49 @@
+package com.talentica.paymentgateway.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Position of the last transaction returned by a search page, handed to clients as an
+ * opaque continuation token. The next page resumes strictly after this (created_at, id).
+ *
+ * Only the position and sort direction are encoded; clients send the same filters with
+ * every page.
+ *
+ * @param createdAt creation time of the last transaction on the page
+ * @param id ID of the last transaction on the page
+ * @param ascending whether the search runs oldest first
+ *
+ * @author Payment Gateway Team
+ * @version 1.0.0
+ */
+public record TransactionSearchCursor(Instant createdAt, UUID id, boolean ascending) {
+
+    private static final String VERSION = "1";
+
+    public String encode() {
+        String value = VERSION + ':' + (ascending ? 'A' : 'D') + ':' + createdAt.getEpochSecond() + ':'
+            + createdAt.getNano() + ':' + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * @throws IllegalArgumentException if the token was not produced by {@link #encode()}
+     */
+    public static TransactionSearchCursor decode(String token) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.US_ASCII)
+                .split(":", -1);
+            if (parts.length != 5 || !VERSION.equals(parts[0]) || !("A".equals(parts[1]) || "D".equals(parts[1]))) {
+                throw new IllegalArgumentException("Unrecognised cursor format");
+            }
+            Instant createdAt = Instant.ofEpochSecond(Long.parseLong(parts[2]), Long.parseLong(parts[3]));
+            return new TransactionSearchCursor(createdAt, UUID.fromString(parts[4]), "A".equals(parts[1]));
+        } catch (IllegalArgumentException | DateTimeException e) {
+            throw new IllegalArgumentException("Invalid search cursor", e);
+        }
+    }
+}
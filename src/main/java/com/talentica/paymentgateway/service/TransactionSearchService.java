@@ -0,0 +1,230 @@
+package com.talentica.paymentgateway.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.talentica.paymentgateway.config.properties.AnalyticsProperties;
+import com.talentica.paymentgateway.dto.analytics.TransactionSearchRequest;
+import com.talentica.paymentgateway.dto.analytics.TransactionSearchResponse;
+import com.talentica.paymentgateway.entity.Transaction;
+import com.talentica.paymentgateway.repository.TransactionRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Cursor-paginated transaction search.
+ *
+ * Pages are ordered by (created_at, id) and each page resumes strictly after the last row
+ * of the previous one, so a page costs one index range scan no matter how deep it is,
+ * unlike OFFSET pagination which reads and discards every earlier row. The page query
+ * only reads keys, answered from the covering indexes added in V13; the entities for the
+ * page are then loaded by ID.
+ *
+ * Totals are optional and only computed for the first page: a planner estimate, or an
+ * exact count capped at {@code app.analytics.search.exact-count-limit}.
+ *
+ * @author Payment Gateway Team
+ * @version 1.0.0
+ */
+@Slf4j
+@Service
+public class TransactionSearchService {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionRepository transactionRepository;
+    private final ObjectMapper objectMapper;
+    private final AnalyticsProperties.Search config;
+
+    public TransactionSearchService(JdbcTemplate jdbcTemplate,
+                                    TransactionRepository transactionRepository,
+                                    ObjectMapper objectMapper,
+                                    AnalyticsProperties analyticsProperties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionRepository = transactionRepository;
+        this.objectMapper = objectMapper;
+        this.config = analyticsProperties.getSearch();
+    }
+
+    /**
+     * Returns the page of matching transactions after the request cursor.
+     *
+     * @throws IllegalArgumentException if the cursor is invalid or was issued for the other sort direction
+     */
+    @Transactional(readOnly = true)
+    public TransactionSearchResponse search(TransactionSearchRequest request) {
+        boolean ascending = "ASC".equalsIgnoreCase(request.getSortDirection());
+        TransactionSearchCursor after = null;
+        if (request.getCursor() != null && !request.getCursor().isBlank()) {
+            after = TransactionSearchCursor.decode(request.getCursor());
+            if (after.ascending() != ascending) {
+                throw new IllegalArgumentException("Search cursor was issued for the other sort direction");
+            }
+        }
+        int size = request.getSize();
+
+        List<Object> filterArgs = new ArrayList<>();
+        String filters = filterSql(request, filterArgs);
+        List<Object> pageArgs = new ArrayList<>(filterArgs);
+        if (after != null) {
+            pageArgs.add(Timestamp.from(after.createdAt()));
+            pageArgs.add(after.id());
+        }
+        // One extra row tells whether another page follows
+        pageArgs.add(size + 1);
+
+        List<TransactionSearchCursor> keys = jdbcTemplate.query(pageSql(filters, after != null, ascending),
+            (rs, rowNum) -> new TransactionSearchCursor(rs.getTimestamp("created_at").toInstant(),
+                rs.getObject("id", UUID.class), ascending),
+            pageArgs.toArray());
+        boolean hasMore = keys.size() > size;
+        List<TransactionSearchCursor> page = hasMore ? keys.subList(0, size) : keys;
+
+        TransactionSearchResponse response = new TransactionSearchResponse();
+        response.setTransactions(load(page));
+        response.setPageSize(size);
+        response.setHasMore(hasMore);
+        response.setNextCursor(hasMore ? page.get(page.size() - 1).encode() : null);
+        if (after == null) {
+            count(request.getCountMode(), filters, filterArgs, response);
+        }
+        return response;
+    }
+
+    /**
+     * WHERE clause for the request filters, adding their bind values to args. Only filters
+     * that are set become predicates, so the planner sees a query it can match to an index.
+     */
+    static String filterSql(TransactionSearchRequest request, List<Object> args) {
+        // Rows without a creation time have no position to resume from
+        StringBuilder sql = new StringBuilder("t.created_at IS NOT NULL");
+        if (request.getCustomerId() != null) {
+            sql.append(" AND t.customer_id = ?");
+            args.add(request.getCustomerId());
+        }
+        if (request.getOrderId() != null) {
+            sql.append(" AND t.order_id = ?");
+            args.add(request.getOrderId());
+        }
+        if (request.getStatus() != null) {
+            sql.append(" AND t.status = CAST(? AS payment_status)");
+            args.add(request.getStatus().name());
+        }
+        if (request.getTransactionType() != null) {
+            sql.append(" AND t.transaction_type = CAST(? AS transaction_type)");
+            args.add(request.getTransactionType().name());
+        }
+        if (request.getCurrency() != null && !request.getCurrency().isBlank()) {
+            sql.append(" AND t.currency = ?");
+            args.add(request.getCurrency().toUpperCase());
+        }
+        if (request.getStartDate() != null) {
+            sql.append(" AND t.created_at >= ?");
+            args.add(Timestamp.from(request.getStartDate().toInstant()));
+        }
+        if (request.getEndDate() != null) {
+            sql.append(" AND t.created_at <= ?");
+            args.add(Timestamp.from(request.getEndDate().toInstant()));
+        }
+        if (request.getMinAmount() != null) {
+            sql.append(" AND t.amount >= ?");
+            args.add(request.getMinAmount());
+        }
+        if (request.getMaxAmount() != null) {
+            sql.append(" AND t.amount <= ?");
+            args.add(request.getMaxAmount());
+        }
+        return sql.toString();
+    }
+
+    static String pageSql(String filters, boolean afterCursor, boolean ascending) {
+        String direction = ascending ? "ASC" : "DESC";
+        return "SELECT t.id, t.created_at FROM transactions t WHERE " + filters +
+               (afterCursor ? " AND (t.created_at, t.id) " + (ascending ? ">" : "<") + " (?, ?)" : "") +
+               " ORDER BY t.created_at " + direction + ", t.id " + direction + " LIMIT ?";
+    }
+
+    static String countSql(String filters) {
+        return "SELECT COUNT(*) FROM (SELECT 1 FROM transactions t WHERE " + filters + " LIMIT ?) capped";
+    }
+
+    static String estimateSql(String filters) {
+        return "EXPLAIN (FORMAT JSON) SELECT 1 FROM transactions t WHERE " + filters;
+    }
+
+    /**
+     * Row estimate of the top plan node from EXPLAIN (FORMAT JSON) output.
+     */
+    long planRows(String plan) {
+        try {
+            JsonNode rows = objectMapper.readTree(plan).path(0).path("Plan").path("Plan Rows");
+            if (!rows.isNumber()) {
+                throw new IllegalStateException("Query plan has no row estimate");
+            }
+            return rows.asLong();
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unreadable query plan", e);
+        }
+    }
+
+    private void count(TransactionSearchRequest.CountMode mode, String filters, List<Object> filterArgs,
+                       TransactionSearchResponse response) {
+        switch (mode) {
+            case NONE -> {
+                // Not requested
+            }
+            case ESTIMATE -> {
+                try {
+                    String plan = jdbcTemplate.queryForObject(estimateSql(filters), String.class, filterArgs.toArray());
+                    response.setTotalCount(planRows(plan));
+                } catch (DataAccessException | IllegalStateException e) {
+                    // Best effort: the page is still useful without a total
+                    log.warn("Could not estimate transaction search total: {}", e.getMessage());
+                }
+            }
+            case EXACT -> {
+                long limit = config.getExactCountLimit();
+                List<Object> args = new ArrayList<>(filterArgs);
+                args.add(limit + 1);
+                Long counted = jdbcTemplate.queryForObject(countSql(filters), Long.class, args.toArray());
+                long total = counted != null ? counted : 0;
+                response.setTotalCount(Math.min(total, limit));
+                response.setTotalCountExact(total <= limit);
+            }
+        }
+    }
+
+    /**
+     * Loads the page's transactions in page order. Rows deleted since the key query are skipped.
+     */
+    private List<Transaction> load(List<TransactionSearchCursor> page) {
+        if (page.isEmpty()) {
+            return List.of();
+        }
+        List<UUID> ids = new ArrayList<>(page.size());
+        for (TransactionSearchCursor key : page) {
+            ids.add(key.id());
+        }
+        Map<UUID, Transaction> byId = new HashMap<>();
+        for (Transaction transaction : transactionRepository.findAllById(ids)) {
+            byId.put(transaction.getId(), transaction);
+        }
+        List<Transaction> transactions = new ArrayList<>(page.size());
+        for (UUID id : ids) {
+            Transaction transaction = byId.get(id);
+            if (transaction != null) {
+                transactions.add(transaction);
+            }
+        }
+        return transactions;
+    }
+}
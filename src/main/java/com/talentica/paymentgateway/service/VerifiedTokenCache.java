@@ -0,0 +1,125 @@
+package com.talentica.paymentgateway.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.function.Function;
+
+/**
+ * Verified JWT claims by token hash, held until the token expires.
+ *
+ * Entries are keyed by the SHA-256 of the token, so the cache never holds a usable token.
+ * Revoked tokens are remembered, also until they expire, and are never served or cached again.
+ * Both maps are bounded by size. A revocation evicted for size stops applying, so the bound
+ * has to cover the tokens revoked within one token lifetime.
+ *
+ * @author Payment Gateway Team
+ * @version 1.0.0
+ */
+class VerifiedTokenCache {
+
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    });
+
+    private final Clock clock;
+    private final Cache<String, JwtClaims> verified;
+    private final Cache<String, Instant> revoked;
+
+    VerifiedTokenCache(int maximumSize, Clock clock) {
+        this.clock = clock;
+        this.verified = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(this.<JwtClaims>untilExpiry(JwtClaims::expiresAt))
+                .build();
+        this.revoked = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(this.<Instant>untilExpiry(expiresAt -> expiresAt))
+                .build();
+    }
+
+    /**
+     * Cache key for a token.
+     */
+    static String key(String token) {
+        byte[] digest = SHA_256.get().digest(token.getBytes(StandardCharsets.UTF_8));
+        return Base64.getEncoder().withoutPadding().encodeToString(digest);
+    }
+
+    /**
+     * Cached claims for the token key, or null if not cached, expired or revoked.
+     */
+    JwtClaims get(String key) {
+        JwtClaims claims = verified.getIfPresent(key);
+        if (claims == null) {
+            return null;
+        }
+        // Expiry is coarse in the cache; never serve claims past their exp
+        if (claims.isExpired(clock.instant())) {
+            verified.invalidate(key);
+            return null;
+        }
+        return claims;
+    }
+
+    void put(String key, JwtClaims claims) {
+        if (claims.expiresAt() != null && revoked.getIfPresent(key) == null) {
+            verified.put(key, claims);
+        }
+    }
+
+    boolean isRevoked(String key) {
+        return revoked.getIfPresent(key) != null;
+    }
+
+    /**
+     * Drops the token's claims and rejects it until it expires.
+     */
+    void revoke(String key, Instant expiresAt) {
+        revoked.put(key, expiresAt);
+        verified.invalidate(key);
+    }
+
+    /**
+     * Drops all verified claims, for example after the signing key changed.
+     */
+    void clearVerified() {
+        verified.invalidateAll();
+    }
+
+    long size() {
+        return verified.estimatedSize();
+    }
+
+    private <V> Expiry<String, V> untilExpiry(Function<V, Instant> expiresAt) {
+        return new Expiry<>() {
+            @Override
+            public long expireAfterCreate(String key, V value, long currentTime) {
+                Duration remaining = Duration.between(clock.instant(), expiresAt.apply(value));
+                return Math.max(0, remaining.toNanos());
+            }
+
+            @Override
+            public long expireAfterUpdate(String key, V value, long currentTime, long currentDuration) {
+                return expireAfterCreate(key, value, currentTime);
+            }
+
+            @Override
+            public long expireAfterRead(String key, V value, long currentTime, long currentDuration) {
+                return currentDuration;
+            }
+        };
+    }
+}
@@ -0,0 +1,104 @@
+package com.talentica.paymentgateway.service;
+
+import com.talentica.paymentgateway.config.ApplicationConfig;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Pinning diagnostics for the virtual thread execution mode.
+ *
+ * A virtual thread that blocks while holding a monitor (e.g. inside the Authorize.Net
+ * SDK's synchronized sections) pins its carrier thread, which quietly reduces the
+ * concurrency virtual threads are meant to provide. This monitor streams the JFR
+ * {@code jdk.VirtualThreadPinned} event, attributes each occurrence to the SDK, the
+ * application or other code, and records it through {@link MetricsService}.
+ *
+ * @author Payment Gateway Team
+ * @version 1.0.0
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "app.threads", name = "virtual-enabled", havingValue = "true")
+public class VirtualThreadPinningMonitor {
+
+    static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    static final String SOURCE_SDK = "authorize_net_sdk";
+    static final String SOURCE_APPLICATION = "application";
+    static final String SOURCE_OTHER = "other";
+
+    private final MetricsService metricsService;
+    private final ApplicationConfig.AppProperties.Threads threads;
+
+    private RecordingStream recordingStream;
+
+    public VirtualThreadPinningMonitor(MetricsService metricsService, ApplicationConfig.AppProperties appProperties) {
+        this.metricsService = metricsService;
+        this.threads = appProperties.getThreads();
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!threads.isPinningDiagnosticsEnabled() || Runtime.version().feature() < 21) {
+            return;
+        }
+
+        recordingStream = new RecordingStream();
+        recordingStream.enable(PINNED_EVENT)
+            .withThreshold(Duration.ofMillis(threads.getPinningThresholdMs()))
+            .withStackTrace();
+        recordingStream.onEvent(PINNED_EVENT, this::onPinned);
+        recordingStream.startAsync();
+
+        log.info("Virtual thread pinning diagnostics started - Threshold: {}ms", threads.getPinningThresholdMs());
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (recordingStream != null) {
+            recordingStream.close();
+        }
+    }
+
+    private void onPinned(RecordedEvent event) {
+        List<String> frameClasses = event.getStackTrace() == null ? List.of() : event.getStackTrace().getFrames().stream()
+            .map(RecordedFrame::getMethod)
+            .map(method -> method.getType().getName())
+            .toList();
+        String source = classifyPinningSource(frameClasses);
+
+        metricsService.recordVirtualThreadPinned(source, event.getDuration());
+        log.warn("Virtual thread pinned - Source: {}, Duration: {}ms, Frame: {}",
+                   source, event.getDuration().toMillis(), firstNonJdkFrame(frameClasses));
+    }
+
+    /**
+     * Attributes a pinning stack (innermost frame first) to the first recognised code area.
+     */
+    static String classifyPinningSource(List<String> frameClasses) {
+        for (String className : frameClasses) {
+            if (className.startsWith("net.authorize.")) {
+                return SOURCE_SDK;
+            }
+            if (className.startsWith("com.talentica.")) {
+                return SOURCE_APPLICATION;
+            }
+        }
+        return SOURCE_OTHER;
+    }
+
+    private static String firstNonJdkFrame(List<String> frameClasses) {
+        return frameClasses.stream()
+            .filter(name -> !name.startsWith("java.") && !name.startsWith("jdk.") && !name.startsWith("sun."))
+            .findFirst()
+            .orElse(frameClasses.isEmpty() ? "unknown" : frameClasses.get(0));
+    }
+}
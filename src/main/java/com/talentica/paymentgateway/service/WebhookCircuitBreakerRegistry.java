@@ -0,0 +1,348 @@
+package com.talentica.paymentgateway.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.talentica.paymentgateway.config.properties.WebhookProperties;
+import io.micrometer.core.instrument.Meter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.net.URI;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.function.LongSupplier;
+
+/**
+ * Thread-safe registry of per-endpoint circuit breakers and bulkheads for outbound
+ * webhook delivery.
+ *
+ * Each endpoint gets a breaker that tracks the outcome of its most recent calls in a
+ * count-based sliding window. The breaker opens when the failure rate or the slow-call
+ * rate crosses its threshold, rejects calls while open, and after the wait duration lets
+ * a limited number of probe calls through (half-open); their outcome decides whether it
+ * closes again. Independently, a per-endpoint bulkhead caps concurrent deliveries so a
+ * single slow merchant endpoint cannot occupy every delivery thread.
+ *
+ * Endpoints are keyed by URL without the query string, so URLs that differ only in their
+ * query share a breaker. A breaker not used for the configured idle time is dropped along
+ * with its gauges; the next call to the endpoint starts a fresh one.
+ *
+ * Breaker state, failure rate and bulkhead usage are exported as gauges through
+ * {@link MetricsService}.
+ *
+ * @author Payment Gateway Team
+ * @version 1.0.0
+ */
+@Slf4j
+@Service
+public class WebhookCircuitBreakerRegistry {
+
+    static final String REJECTED_CIRCUIT_OPEN = "circuit_open";
+    static final String REJECTED_BULKHEAD_FULL = "bulkhead_full";
+
+    private final WebhookProperties.CircuitBreaker config;
+    private final MetricsService metricsService;
+    private final Cache<String, EndpointCircuitBreaker> breakers;
+
+    @Autowired
+    public WebhookCircuitBreakerRegistry(WebhookProperties webhookProperties, MetricsService metricsService) {
+        this(webhookProperties, metricsService, System::nanoTime);
+    }
+
+    WebhookCircuitBreakerRegistry(WebhookProperties webhookProperties, MetricsService metricsService,
+                                  LongSupplier nanoClock) {
+        this.config = webhookProperties.getCircuitBreaker();
+        this.metricsService = metricsService;
+        // The eviction listener runs before the key can be loaded again, so a new breaker
+        // for the endpoint never finds the old one's gauges still registered
+        this.breakers = Caffeine.newBuilder()
+                .expireAfterAccess(Duration.ofMinutes(config.getIdleEvictionMinutes()))
+                .ticker(nanoClock::getAsLong)
+                .<String, EndpointCircuitBreaker>evictionListener((endpoint, breaker, cause) ->
+                    metricsService.removeMeters(breaker.gauges))
+                .build();
+    }
+
+    /**
+     * Asks permission to call an endpoint. A granted permit holds a bulkhead slot (and a
+     * half-open probe slot, if applicable) and must be released once the call finishes.
+     *
+     * @return the permit, or a rejection naming the reason
+     */
+    public Permit tryAcquire(String endpointUrl) {
+        EndpointCircuitBreaker breaker = breakerFor(endpointUrl);
+        if (!breaker.tryAcquirePermission()) {
+            metricsService.recordWebhookCircuitBreakerRejection(REJECTED_CIRCUIT_OPEN);
+            return Permit.rejected(REJECTED_CIRCUIT_OPEN);
+        }
+        if (!breaker.bulkhead.tryAcquire()) {
+            breaker.releasePermission();
+            metricsService.recordWebhookCircuitBreakerRejection(REJECTED_BULKHEAD_FULL);
+            return Permit.rejected(REJECTED_BULKHEAD_FULL);
+        }
+        return new Permit(breaker, null);
+    }
+
+    /**
+     * Records a call the endpoint handled (including non-retryable 4xx responses).
+     */
+    public void recordSuccess(String endpointUrl, Duration duration) {
+        breakerFor(endpointUrl).onOutcome(false, isSlow(duration));
+    }
+
+    /**
+     * Records a call that failed because of the endpoint (5xx, 429, timeout).
+     */
+    public void recordFailure(String endpointUrl, Duration duration) {
+        breakerFor(endpointUrl).onOutcome(true, isSlow(duration));
+    }
+
+    /**
+     * Records a call whose outcome says nothing about the endpoint's health.
+     */
+    public void recordIgnored(String endpointUrl) {
+        breakerFor(endpointUrl).releasePermission();
+    }
+
+    /**
+     * Point-in-time view of every breaker, for the retry statistics endpoint.
+     */
+    public Map<String, BreakerSnapshot> snapshot() {
+        Map<String, BreakerSnapshot> snapshot = new ConcurrentHashMap<>();
+        breakers.asMap().forEach((endpoint, breaker) -> snapshot.put(endpoint, breaker.snapshot()));
+        return snapshot;
+    }
+
+    State stateOf(String endpointUrl) {
+        EndpointCircuitBreaker breaker = breakers.getIfPresent(metricsEndpoint(endpointUrl));
+        return breaker != null ? breaker.currentState() : State.CLOSED;
+    }
+
+    /**
+     * Drops idle breakers now rather than on a later access.
+     */
+    void evictIdle() {
+        breakers.cleanUp();
+    }
+
+    private boolean isSlow(Duration duration) {
+        return duration != null && duration.toMillis() >= config.getSlowCallDurationMs();
+    }
+
+    private EndpointCircuitBreaker breakerFor(String endpointUrl) {
+        return breakers.get(metricsEndpoint(endpointUrl), endpoint -> {
+            EndpointCircuitBreaker breaker = new EndpointCircuitBreaker(endpoint);
+            breaker.gauges = metricsService.registerWebhookCircuitBreakerGauges(endpoint,
+                () -> breaker.currentState().ordinal(), breaker::failureRate, breaker::bulkheadInUse);
+            return breaker;
+        });
+    }
+
+    /**
+     * Endpoint key for breakers and metric tags. Drops query strings, which may carry
+     * merchant tokens.
+     */
+    static String metricsEndpoint(String endpointUrl) {
+        try {
+            URI uri = URI.create(endpointUrl);
+            return uri.getScheme() + "://" + uri.getAuthority() + (uri.getPath() != null ? uri.getPath() : "");
+        } catch (IllegalArgumentException | NullPointerException e) {
+            return "invalid";
+        }
+    }
+
+    /**
+     * Breaker states; ordinals are the values exported by the state gauge.
+     */
+    public enum State {
+        CLOSED, HALF_OPEN, OPEN
+    }
+
+    /**
+     * Breaker state exposed through {@link WebhookRetryService#getRetryStatistics()}.
+     */
+    public record BreakerSnapshot(State state, int bufferedCalls, int failedCalls, double failureRate,
+                                  double slowCallRate, int bulkheadInUse, Instant lastFailureTime) {
+    }
+
+    /**
+     * Permission to make one call. Release it exactly once, after the outcome is recorded.
+     */
+    public static final class Permit implements AutoCloseable {
+        private final EndpointCircuitBreaker breaker;
+        private final String rejectionReason;
+        private boolean released;
+
+        private Permit(EndpointCircuitBreaker breaker, String rejectionReason) {
+            this.breaker = breaker;
+            this.rejectionReason = rejectionReason;
+        }
+
+        static Permit rejected(String reason) {
+            return new Permit(null, reason);
+        }
+
+        public boolean isGranted() {
+            return breaker != null;
+        }
+
+        public String getRejectionReason() {
+            return rejectionReason;
+        }
+
+        @Override
+        public void close() {
+            if (breaker != null && !released) {
+                released = true;
+                breaker.bulkhead.release();
+            }
+        }
+    }
+
+    /**
+     * Count-based sliding window breaker for a single endpoint. State changes are rare and
+     * the critical sections tiny, so the window is guarded by the breaker's monitor.
+     */
+    private final class EndpointCircuitBreaker {
+        private final String endpointUrl;
+        private final Semaphore bulkhead;
+        private List<Meter> gauges = List.of();
+        private final boolean[] failedWindow;
+        private final boolean[] slowWindow;
+
+        private int windowIndex;
+        private int bufferedCalls;
+        private int failedCalls;
+        private int slowCalls;
+
+        private volatile State state = State.CLOSED;
+        private Instant openedAt;
+        private int halfOpenPermitsLeft;
+        private int halfOpenCompleted;
+        private int halfOpenFailed;
+        private int halfOpenSlow;
+        private Instant lastFailureTime;
+
+        EndpointCircuitBreaker(String endpointUrl) {
+            this.endpointUrl = endpointUrl;
+            this.bulkhead = new Semaphore(config.getMaxConcurrentCallsPerEndpoint());
+            this.failedWindow = new boolean[config.getSlidingWindowSize()];
+            this.slowWindow = new boolean[config.getSlidingWindowSize()];
+        }
+
+        synchronized boolean tryAcquirePermission() {
+            if (state == State.OPEN) {
+                if (Instant.now().isBefore(openedAt.plusSeconds(config.getWaitDurationOpenSeconds()))) {
+                    return false;
+                }
+                transitionTo(State.HALF_OPEN);
+            }
+            if (state == State.HALF_OPEN) {
+                if (halfOpenPermitsLeft <= 0) {
+                    return false;
+                }
+                halfOpenPermitsLeft--;
+            }
+            return true;
+        }
+
+        synchronized void releasePermission() {
+            if (state == State.HALF_OPEN && halfOpenPermitsLeft < config.getHalfOpenPermits()) {
+                halfOpenPermitsLeft++;
+            }
+        }
+
+        synchronized void onOutcome(boolean failed, boolean slow) {
+            if (failed) {
+                lastFailureTime = Instant.now();
+            }
+            switch (state) {
+                case CLOSED -> recordInWindow(failed, slow);
+                case HALF_OPEN -> recordProbe(failed, slow);
+                case OPEN -> {
+                    // Late result of a call started before the breaker opened
+                }
+            }
+        }
+
+        private void recordInWindow(boolean failed, boolean slow) {
+            if (bufferedCalls == failedWindow.length) {
+                failedCalls -= failedWindow[windowIndex] ? 1 : 0;
+                slowCalls -= slowWindow[windowIndex] ? 1 : 0;
+            } else {
+                bufferedCalls++;
+            }
+            failedWindow[windowIndex] = failed;
+            slowWindow[windowIndex] = slow;
+            failedCalls += failed ? 1 : 0;
+            slowCalls += slow ? 1 : 0;
+            windowIndex = (windowIndex + 1) % failedWindow.length;
+
+            if (bufferedCalls >= Math.min(config.getMinimumCalls(), failedWindow.length)
+                    && exceedsThresholds(failedCalls, slowCalls, bufferedCalls)) {
+                transitionTo(State.OPEN);
+            }
+        }
+
+        private void recordProbe(boolean failed, boolean slow) {
+            halfOpenCompleted++;
+            halfOpenFailed += failed ? 1 : 0;
+            halfOpenSlow += slow ? 1 : 0;
+            if (halfOpenCompleted >= config.getHalfOpenPermits()) {
+                transitionTo(exceedsThresholds(halfOpenFailed, halfOpenSlow, halfOpenCompleted) ? State.OPEN : State.CLOSED);
+            }
+        }
+
+        private boolean exceedsThresholds(int failed, int slow, int total) {
+            return failed * 100.0 / total >= config.getFailureRateThreshold()
+                || slow * 100.0 / total >= config.getSlowCallRateThreshold();
+        }
+
+        private void transitionTo(State target) {
+            State previous = state;
+            state = target;
+            switch (target) {
+                case OPEN -> openedAt = Instant.now();
+                case HALF_OPEN -> {
+                    halfOpenPermitsLeft = config.getHalfOpenPermits();
+                    halfOpenCompleted = 0;
+                    halfOpenFailed = 0;
+                    halfOpenSlow = 0;
+                }
+                case CLOSED -> resetWindow();
+            }
+            metricsService.recordWebhookCircuitBreakerTransition(target.name());
+            log.info("Webhook circuit breaker {} -> {} for endpoint {}", previous, target, endpointUrl);
+        }
+
+        private void resetWindow() {
+            windowIndex = 0;
+            bufferedCalls = 0;
+            failedCalls = 0;
+            slowCalls = 0;
+        }
+
+        State currentState() {
+            return state;
+        }
+
+        synchronized double failureRate() {
+            return bufferedCalls == 0 ? 0.0 : failedCalls * 100.0 / bufferedCalls;
+        }
+
+        int bulkheadInUse() {
+            return config.getMaxConcurrentCallsPerEndpoint() - bulkhead.availablePermits();
+        }
+
+        synchronized BreakerSnapshot snapshot() {
+            double slowCallRate = bufferedCalls == 0 ? 0.0 : slowCalls * 100.0 / bufferedCalls;
+            return new BreakerSnapshot(state, bufferedCalls, failedCalls, failureRate(), slowCallRate,
+                bulkheadInUse(), lastFailureTime);
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package com.talentica.paymentgateway.service;
+
+import com.talentica.paymentgateway.config.properties.WebhookProperties;
+import com.talentica.paymentgateway.repository.WebhookRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Chunked purge engine for expired webhook records.
+ *
+ * Expired rows are removed with set-based {@code DELETE ... WHERE id IN (SELECT ... LIMIT n)}
+ * statements, each in its own short transaction, with a configurable pause between
+ * batches so the purge does not monopolise I/O, locks or replication bandwidth. A run
+ * stops when no expired rows remain or its time budget is spent; anything left over is
+ * picked up by the next run.
+ *
+ * If the {@code webhooks} table has been converted to time-range partitions, partitions
+ * whose range lies entirely before the retention cutoff and that hold only expired rows
+ * are detached and dropped before the row-level purge, which is far cheaper than deleting
+ * their rows.
+ *
+ * @author Payment Gateway Team
+ * @version 1.0.0
+ */
+@Slf4j
+@Service
+public class WebhookCleanupService {
+
+    static final String CATEGORY_DELIVERED = "delivered";
+    static final String CATEGORY_FAILED = "failed";
+    static final String CATEGORY_PARTITION = "partition";
+
+    private static final String IS_PARTITIONED_SQL =
+        "SELECT EXISTS (SELECT 1 FROM pg_partitioned_table WHERE partrelid = to_regclass('webhooks'))";
+
+    // Child partitions with the upper bound of their FOR VALUES FROM (...) TO (...) range
+    private static final String EXPIRED_PARTITIONS_SQL =
+        "SELECT quote_ident(n.nspname) || '.' || quote_ident(c.relname) AS partition_name " +
+        "FROM pg_inherits i " +
+        "JOIN pg_class c ON c.oid = i.inhrelid " +
+        "JOIN pg_namespace n ON n.oid = c.relnamespace " +
+        "WHERE i.inhparent = to_regclass('webhooks') " +
+        "AND substring(pg_get_expr(c.relpartbound, c.oid) FROM 'TO \\(''([^'']+)''\\)')::timestamptz <= ?";
+
+    private static final String EXPIRED_PREDICATE =
+        "(status = 'DELIVERED' AND delivered_at < ?) OR " +
+        "(status = 'FAILED' AND attempts >= max_attempts AND created_at < ?)";
+
+    private final WebhookRepository webhookRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final MetricsService metricsService;
+    private final WebhookProperties.Cleanup config;
+
+    public WebhookCleanupService(WebhookRepository webhookRepository,
+                                 JdbcTemplate jdbcTemplate,
+                                 TransactionTemplate transactionTemplate,
+                                 MetricsService metricsService,
+                                 WebhookProperties webhookProperties) {
+        this.webhookRepository = webhookRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.metricsService = metricsService;
+        this.config = webhookProperties.getCleanup();
+    }
+
+    /**
+     * Purges delivered and permanently failed webhooks past their retention period.
+     * Must be called outside an existing transaction so every batch commits on its own.
+     *
+     * @return rows removed per category and the elapsed time
+     */
+    public CleanupResult purgeExpiredWebhooks() {
+        Instant startedAt = Instant.now();
+        Instant deadline = startedAt.plus(Duration.ofMinutes(config.getMaxRunMinutes()));
+        ZonedDateTime deliveredCutoff = ZonedDateTime.now().minusDays(config.getDeliveredRetentionDays());
+        ZonedDateTime failedCutoff = ZonedDateTime.now().minusDays(config.getFailedRetentionDays());
+
+        long partitionRows = config.isPartitionDropEnabled()
+            ? dropExpiredPartitions(deliveredCutoff, failedCutoff)
+            : 0;
+
+        long delivered = purgeInBatches(CATEGORY_DELIVERED, deadline,
+            batchSize -> webhookRepository.deleteDeliveredWebhooksBatch(deliveredCutoff, batchSize));
+        long failed = purgeInBatches(CATEGORY_FAILED, deadline,
+            batchSize -> webhookRepository.deleteFailedWebhooksBatch(failedCutoff, batchSize));
+
+        CleanupResult result = new CleanupResult(delivered, failed, partitionRows,
+            Duration.between(startedAt, Instant.now()));
+        metricsService.recordWebhookCleanupRun(result.totalRows(), result.elapsed());
+        log.info("Webhook cleanup finished - Delivered: {}, Failed: {}, PartitionRows: {}, Elapsed: {}ms",
+                   delivered, failed, partitionRows, result.elapsed().toMillis());
+        return result;
+    }
+
+    /**
+     * Runs one delete batch per transaction until a short batch shows the backlog is
+     * drained, the deadline passes or the thread is interrupted.
+     */
+    long purgeInBatches(String category, Instant deadline, IntUnaryOperator deleteBatch) {
+        int batchSize = config.getBatchSize();
+        long total = 0;
+
+        while (true) {
+            long batchStart = System.nanoTime();
+            Integer deleted = transactionTemplate.execute(status -> deleteBatch.applyAsInt(batchSize));
+            int rows = deleted != null ? deleted : 0;
+            total += rows;
+            metricsService.recordWebhookCleanupBatch(category, rows, Duration.ofNanos(System.nanoTime() - batchStart));
+
+            if (rows < batchSize) {
+                break;
+            }
+            if (!Instant.now().isBefore(deadline)) {
+                log.warn("Webhook cleanup time budget exhausted - Category: {}, Deleted so far: {}", category, total);
+                break;
+            }
+            if (!pauseBetweenBatches()) {
+                break;
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Detaches and drops partitions whose range ends before the later retention cutoff and
+     * which hold no row that must still be retained.
+     *
+     * @return number of rows removed with the dropped partitions; 0 when the table is not partitioned
+     */
+    long dropExpiredPartitions(ZonedDateTime deliveredCutoff, ZonedDateTime failedCutoff) {
+        try {
+            Boolean partitioned = jdbcTemplate.queryForObject(IS_PARTITIONED_SQL, Boolean.class);
+            if (!Boolean.TRUE.equals(partitioned)) {
+                return 0;
+            }
+
+            Timestamp deliveredTs = Timestamp.from(deliveredCutoff.toInstant());
+            Timestamp failedTs = Timestamp.from(failedCutoff.toInstant());
+            Timestamp boundary = deliveredTs.before(failedTs) ? deliveredTs : failedTs;
+
+            long droppedRows = 0;
+            List<String> candidates = jdbcTemplate.queryForList(EXPIRED_PARTITIONS_SQL, String.class, boundary);
+            for (String partition : candidates) {
+                droppedRows += dropPartitionIfFullyExpired(partition, deliveredTs, failedTs);
+            }
+            return droppedRows;
+        } catch (DataAccessException e) {
+            log.warn("Webhook partition cleanup skipped: {}", e.getMessage());
+            return 0;
+        }
+    }
+
+    private long dropPartitionIfFullyExpired(String partition, Timestamp deliveredTs, Timestamp failedTs) {
+        // Expired rows never become retainable again, so this check stays valid until the drop
+        Map<String, Object> counts = jdbcTemplate.queryForMap(
+            "SELECT count(*) AS total, count(*) FILTER (WHERE NOT COALESCE(" + EXPIRED_PREDICATE + ", false)) AS retained " +
+            "FROM " + partition, deliveredTs, failedTs);
+        long total = ((Number) counts.get("total")).longValue();
+        long retained = ((Number) counts.get("retained")).longValue();
+        if (retained > 0) {
+            log.debug("Keeping webhook partition {} - {} rows still within retention", partition, retained);
+            return 0;
+        }
+
+        long startedAt = System.nanoTime();
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.execute("SET LOCAL lock_timeout = '5s'");
+            jdbcTemplate.execute("ALTER TABLE webhooks DETACH PARTITION " + partition);
+            jdbcTemplate.execute("DROP TABLE " + partition);
+        });
+        metricsService.recordWebhookPartitionDropped();
+        metricsService.recordWebhookCleanupBatch(CATEGORY_PARTITION, total, Duration.ofNanos(System.nanoTime() - startedAt));
+        log.info("Dropped expired webhook partition {} ({} rows)", partition, total);
+        return total;
+    }
+
+    private boolean pauseBetweenBatches() {
+        long pauseMs = config.getBatchPauseMs();
+        if (pauseMs <= 0) {
+            return true;
+        }
+        try {
+            Thread.sleep(pauseMs);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Webhook cleanup interrupted between batches");
+            return false;
+        }
+    }
+
+    /**
+     * Outcome of a cleanup run.
+     */
+    public record CleanupResult(long deliveredRows, long failedRows, long partitionRows, Duration elapsed) {
+
+        public long totalRows() {
+            return deliveredRows + failedRows + partitionRows;
+        }
+    }
+}
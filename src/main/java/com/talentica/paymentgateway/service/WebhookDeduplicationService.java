@@ -0,0 +1,159 @@
+package com.talentica.paymentgateway.service;
+
+import com.talentica.paymentgateway.config.properties.WebhookProperties;
+import com.talentica.paymentgateway.repository.WebhookRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Layered duplicate detection for inbound webhook events.
+ *
+ * Layers, cheapest first:
+ * - An in-memory rotating Bloom filter of events seen by this instance in the detection window.
+ * - An atomic Redis {@code SET NX} with the window as TTL, the cluster-wide record of seen events.
+ * - A database lookup, used only when Redis is unavailable and the Bloom filter reports a
+ *   possible duplicate.
+ *
+ * A first-time event therefore never reaches the database here. Bloom filter hits are always
+ * confirmed by Redis or the database, so a false positive costs a lookup but never drops an
+ * event; the observed false-positive rate is published as a gauge.
+ *
+ * These layers only save work. The final check is the unique (event_id, event_type) index on
+ * webhooks: {@link WebhookProcessingService} records each event with an insert that skips on
+ * conflict, and skips the event if it was already recorded. An event another instance saw
+ * while Redis was unavailable is therefore still applied once.
+ *
+ * @author Payment Gateway Team
+ * @version 1.0.0
+ */
+@Slf4j
+@Service
+public class WebhookDeduplicationService {
+
+    static final String KEY_PREFIX = "webhook:dedupe:";
+
+    static final String LAYER_BLOOM = "bloom";
+    static final String LAYER_REDIS = "redis";
+    static final String LAYER_DATABASE = "database";
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final WebhookRepository webhookRepository;
+    private final MetricsService metricsService;
+    private final WebhookProperties.DuplicateDetection config;
+    private final RotatingBloomFilter bloomFilter;
+
+    private final AtomicLong firstSeenEvents = new AtomicLong();
+    private final AtomicLong bloomFalsePositives = new AtomicLong();
+
+    @Autowired
+    public WebhookDeduplicationService(@Autowired(required = false) RedisTemplate<String, Object> redisTemplate,
+                                       WebhookRepository webhookRepository,
+                                       MetricsService metricsService,
+                                       WebhookProperties webhookProperties) {
+        this.redisTemplate = redisTemplate;
+        this.webhookRepository = webhookRepository;
+        this.metricsService = metricsService;
+        this.config = webhookProperties.getDuplicateDetection();
+        this.bloomFilter = new RotatingBloomFilter(config.getBloomExpectedInsertions(),
+            config.getBloomFalsePositiveRate(), Duration.ofMinutes(config.getWindowMinutes()));
+        metricsService.registerWebhookDedupeGauges(this::observedFalsePositiveRate,
+            bloomFilter::expectedFalsePositiveRate);
+    }
+
+    /**
+     * Checks whether the event was already seen in the detection window, and records it if not.
+     *
+     * @param eventId Webhook notification ID
+     * @param eventType Webhook event type
+     * @return true if the event is a duplicate
+     */
+    public boolean isDuplicate(String eventId, String eventType) {
+        String key = eventType + ":" + eventId;
+        boolean seenLocally = bloomFilter.mightContain(key);
+
+        boolean duplicate;
+        String layer;
+        Boolean claimed = claimInRedis(key);
+        if (claimed != null) {
+            duplicate = !claimed;
+            layer = LAYER_REDIS;
+        } else if (seenLocally) {
+            duplicate = existsInDatabase(eventId, eventType);
+            layer = LAYER_DATABASE;
+        } else {
+            duplicate = false;
+            layer = LAYER_BLOOM;
+        }
+
+        if (!duplicate) {
+            bloomFilter.put(key);
+            firstSeenEvents.incrementAndGet();
+            if (seenLocally) {
+                bloomFalsePositives.incrementAndGet();
+                metricsService.incrementWebhookDedupeBloomFalsePositive();
+            }
+        }
+
+        metricsService.recordWebhookDedupeDecision(layer, duplicate);
+        return duplicate;
+    }
+
+    /**
+     * Forgets an event whose processing failed so that a redelivery is not rejected.
+     * The Bloom filter cannot forget; a redelivery is confirmed against Redis instead.
+     *
+     * @param eventId Webhook notification ID
+     * @param eventType Webhook event type
+     */
+    public void release(String eventId, String eventType) {
+        if (!redisAvailable()) {
+            return;
+        }
+        try {
+            redisTemplate.delete(KEY_PREFIX + eventType + ":" + eventId);
+        } catch (Exception e) {
+            log.warn("Could not release webhook dedupe key - EventID: {}, Error: {}", eventId, e.getMessage());
+        }
+    }
+
+    /**
+     * Share of first-time events the Bloom filter wrongly reported as seen.
+     */
+    double observedFalsePositiveRate() {
+        long firstSeen = firstSeenEvents.get();
+        return firstSeen == 0 ? 0.0 : (double) bloomFalsePositives.get() / firstSeen;
+    }
+
+    /**
+     * Atomically records the event in Redis.
+     *
+     * @return true if this call recorded it, false if it was already present, null if Redis is unavailable
+     */
+    private Boolean claimInRedis(String key) {
+        if (!redisAvailable()) {
+            return null;
+        }
+        try {
+            return redisTemplate.opsForValue()
+                .setIfAbsent(KEY_PREFIX + key, "1", Duration.ofMinutes(config.getWindowMinutes()));
+        } catch (Exception e) {
+            log.warn("Redis unavailable for webhook duplicate detection, falling back: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private boolean existsInDatabase(String eventId, String eventType) {
+        ZonedDateTime cutoffTime = ZonedDateTime.now().minusMinutes(config.getWindowMinutes());
+        return webhookRepository.existsByEventIdAndEventTypeAndCreatedAtAfter(eventId, eventType, cutoffTime);
+    }
+
+    private boolean redisAvailable() {
+        return redisTemplate != null && config.isRedisEnabled();
+    }
+}
@@ -0,0 +1,357 @@
+package com.talentica.paymentgateway.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.talentica.paymentgateway.config.properties.WebhookProperties;
+import com.talentica.paymentgateway.dto.webhook.AuthorizeNetWebhookRequest;
+import com.talentica.paymentgateway.dto.webhook.WebhookResponse;
+import com.talentica.paymentgateway.util.WebhookSignatureVerifier;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.MDC;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Durable inbox for inbound Authorize.Net webhooks.
+ *
+ * The webhook endpoint only verifies the signature and appends the event to the
+ * {@code webhook_inbox} table, so Authorize.Net is acknowledged without waiting for
+ * transaction updates and retry storms cannot tie up request or executor threads.
+ * Redeliveries are turned away first by {@link WebhookDeduplicationService}, in memory or
+ * by Redis, the same as on the synchronous path; the inbox's unique (event_id, event_type)
+ * key remains the final check.
+ * A pool of consumer threads drains the inbox in batches: each claim leases only the
+ * oldest unprocessed event of every ordering key (the Authorize.Net transaction id),
+ * so events for one transaction are applied strictly in arrival order while events for
+ * different transactions are processed concurrently, on this node and on others.
+ *
+ * An event is marked processed in the same transaction that applies it. Failed events
+ * are retried with exponential backoff and dead-lettered after {@code maxAttempts};
+ * events leased by a node that stops are picked up again once their lease expires.
+ *
+ * @author Payment Gateway Team
+ * @version 1.0.0
+ */
+@Slf4j
+@Service
+public class WebhookInboxService {
+
+    static final String OUTCOME_PROCESSED = "processed";
+    static final String OUTCOME_RETRY = "retry";
+    static final String OUTCOME_DEAD_LETTERED = "dead_lettered";
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private static final String APPEND_SQL =
+        "INSERT INTO webhook_inbox (event_id, event_type, ordering_key, payload, correlation_id) " +
+        "VALUES (?, ?, ?, ?, ?) ON CONFLICT (event_id, event_type) DO NOTHING";
+
+    private static final String CLAIM_SQL =
+        "UPDATE webhook_inbox SET lease_owner = ?, lease_until = now() + ? * INTERVAL '1 second', " +
+        "attempts = attempts + 1 " +
+        "WHERE id IN (SELECT i.id FROM webhook_inbox i " +
+        "WHERE i.processed_at IS NULL AND i.available_at <= now() " +
+        "AND (i.lease_until IS NULL OR i.lease_until < now()) " +
+        "AND NOT EXISTS (SELECT 1 FROM webhook_inbox e WHERE e.ordering_key = i.ordering_key " +
+        "AND e.id < i.id AND e.processed_at IS NULL) " +
+        "ORDER BY i.id LIMIT ? FOR UPDATE SKIP LOCKED) " +
+        "RETURNING id, event_id, event_type, payload, correlation_id, received_at, attempts";
+
+    private static final String COMPLETE_SQL =
+        "UPDATE webhook_inbox SET status = 'PROCESSED', processed_at = now(), lease_owner = NULL, " +
+        "lease_until = NULL, last_error = NULL WHERE id = ? AND lease_owner = ?";
+
+    private static final String FAIL_SQL =
+        "UPDATE webhook_inbox SET lease_owner = NULL, lease_until = NULL, last_error = ?, " +
+        "available_at = now() + ? * INTERVAL '1 millisecond', " +
+        "status = CASE WHEN ? THEN 'DEAD' ELSE status END, " +
+        "processed_at = CASE WHEN ? THEN now() ELSE NULL END " +
+        "WHERE id = ? AND lease_owner = ?";
+
+    private static final String BACKLOG_SQL =
+        "SELECT COUNT(*) AS depth, MIN(received_at) AS oldest FROM webhook_inbox WHERE processed_at IS NULL";
+
+    private static final String PURGE_SQL =
+        "DELETE FROM webhook_inbox WHERE id IN (SELECT id FROM webhook_inbox " +
+        "WHERE processed_at < now() - ? * INTERVAL '1 hour' LIMIT ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final WebhookProcessingService webhookProcessingService;
+    private final WebhookDeduplicationService webhookDeduplicationService;
+    private final WebhookSignatureVerifier signatureVerifier;
+    private final ObjectMapper objectMapper;
+    private final MetricsService metricsService;
+    private final WebhookProperties.Inbox config;
+    private final boolean duplicateDetectionEnabled;
+
+    private final String consumerId;
+    private final Object workSignal = new Object();
+    private final AtomicLong backlogDepth = new AtomicLong();
+    private final AtomicLong oldestEventAgeSeconds = new AtomicLong();
+
+    private final List<Thread> consumers = new ArrayList<>();
+    private ScheduledExecutorService sampler;
+    private volatile boolean running;
+
+    public WebhookInboxService(JdbcTemplate jdbcTemplate,
+                               TransactionTemplate transactionTemplate,
+                               WebhookProcessingService webhookProcessingService,
+                               WebhookDeduplicationService webhookDeduplicationService,
+                               WebhookSignatureVerifier signatureVerifier,
+                               ObjectMapper objectMapper,
+                               MetricsService metricsService,
+                               WebhookProperties webhookProperties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.webhookProcessingService = webhookProcessingService;
+        this.webhookDeduplicationService = webhookDeduplicationService;
+        this.signatureVerifier = signatureVerifier;
+        this.objectMapper = objectMapper;
+        this.metricsService = metricsService;
+        this.config = webhookProperties.getInbox();
+        this.duplicateDetectionEnabled = webhookProperties.getDuplicateDetection().isEnabled();
+        this.consumerId = ManagementFactory.getRuntimeMXBean().getName() + "/" + UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!config.isEnabled()) {
+            log.info("Webhook inbox disabled; webhooks are processed before they are acknowledged");
+            return;
+        }
+
+        metricsService.registerWebhookInboxGauges(backlogDepth::get, oldestEventAgeSeconds::get);
+        running = true;
+
+        for (int i = 1; i <= config.getConsumers(); i++) {
+            Thread consumer = new Thread(this::consumeLoop, "webhook-inbox-consumer-" + i);
+            consumer.setDaemon(true);
+            consumer.start();
+            consumers.add(consumer);
+        }
+
+        sampler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "webhook-inbox-sampler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        sampler.scheduleWithFixedDelay(this::sampleSafely, 0, config.getLagSampleIntervalSeconds(), TimeUnit.SECONDS);
+
+        log.info("Webhook inbox started - Consumers: {}, BatchSize: {}, MaxAttempts: {}",
+                   config.getConsumers(), config.getBatchSize(), config.getMaxAttempts());
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (sampler != null) {
+            sampler.shutdownNow();
+        }
+        // A consumer stopped mid-batch leaves its leases to expire; the events are processed again elsewhere
+        consumers.forEach(Thread::interrupt);
+    }
+
+    public boolean isEnabled() {
+        return config.isEnabled();
+    }
+
+    /**
+     * Verifies and stores an inbound webhook for background processing.
+     *
+     * @param webhookRequest Parsed webhook payload
+     * @param headers HTTP headers for signature verification
+     * @param rawBody Raw webhook request body; verified and stored as received
+     * @param correlationId Correlation ID of the inbound request
+     * @return success once stored, or a signature or duplicate response
+     */
+    public WebhookResponse accept(AuthorizeNetWebhookRequest webhookRequest, Map<String, String> headers,
+                                  byte[] rawBody, String correlationId) {
+        String eventId = webhookRequest.getNotificationId();
+
+        if (!signatureVerifier.verifySignature(headers, rawBody)) {
+            log.error("Webhook signature verification failed - EventID: {}", eventId);
+            metricsService.incrementWebhookSignatureFailure();
+            return WebhookResponse.signatureError(eventId, correlationId);
+        }
+
+        // Most redeliveries are turned away here without a database write
+        if (duplicateDetectionEnabled
+                && webhookDeduplicationService.isDuplicate(eventId, webhookRequest.getEventType())) {
+            log.warn("Duplicate webhook event detected - EventID: {}, Type: {}", eventId, webhookRequest.getEventType());
+            metricsService.incrementWebhookDuplicate(webhookRequest.getEventType());
+            return WebhookResponse.duplicateEvent(eventId, correlationId);
+        }
+
+        String orderingKey = webhookRequest.getTransactionId() != null ? webhookRequest.getTransactionId() : eventId;
+        int inserted;
+        try {
+            inserted = jdbcTemplate.update(APPEND_SQL, eventId, webhookRequest.getEventType(), orderingKey,
+                new String(rawBody, StandardCharsets.UTF_8), correlationId);
+        } catch (RuntimeException e) {
+            // Not stored; let the redelivery through
+            if (duplicateDetectionEnabled) {
+                webhookDeduplicationService.release(eventId, webhookRequest.getEventType());
+            }
+            throw e;
+        }
+        if (inserted == 0) {
+            log.warn("Duplicate webhook event detected - EventID: {}, Type: {}", eventId, webhookRequest.getEventType());
+            metricsService.incrementWebhookDuplicate(webhookRequest.getEventType());
+            return WebhookResponse.duplicateEvent(eventId, correlationId);
+        }
+
+        synchronized (workSignal) {
+            workSignal.notify();
+        }
+        return WebhookResponse.success(eventId, correlationId, "Webhook accepted for processing");
+    }
+
+    /**
+     * Claims one batch of ready events and processes it.
+     *
+     * @return number of events claimed
+     */
+    int drainOnce() {
+        List<InboxEvent> batch = jdbcTemplate.query(CLAIM_SQL, (rs, rowNum) -> new InboxEvent(
+                rs.getLong("id"),
+                rs.getString("event_id"),
+                rs.getString("event_type"),
+                rs.getString("payload"),
+                rs.getString("correlation_id"),
+                rs.getObject("received_at", OffsetDateTime.class).toInstant(),
+                rs.getInt("attempts")),
+            consumerId, config.getLeaseSeconds(), config.getBatchSize());
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        metricsService.recordWebhookInboxBatch(batch.size());
+        // A batch holds at most one event per ordering key, so its order does not matter
+        for (InboxEvent event : batch) {
+            process(event);
+        }
+        return batch.size();
+    }
+
+    private void process(InboxEvent event) {
+        try {
+            MDC.put("correlationId", event.correlationId());
+            AuthorizeNetWebhookRequest webhookRequest =
+                objectMapper.readValue(event.payload(), AuthorizeNetWebhookRequest.class);
+
+            transactionTemplate.executeWithoutResult(status -> {
+                webhookProcessingService.processWebhookEvent(webhookRequest, event.correlationId());
+                if (jdbcTemplate.update(COMPLETE_SQL, event.id(), consumerId) == 0) {
+                    // Lease expired and the event was claimed again; let that consumer apply it
+                    throw new IllegalStateException("Inbox lease lost for event " + event.eventId());
+                }
+            });
+
+            metricsService.incrementWebhookProcessed(event.eventType(), "success");
+            metricsService.recordWebhookInboxEvent(OUTCOME_PROCESSED, Duration.between(event.receivedAt(), Instant.now()));
+        } catch (Exception e) {
+            fail(event, e);
+        } finally {
+            MDC.remove("correlationId");
+        }
+    }
+
+    private void fail(InboxEvent event, Exception error) {
+        boolean deadLetter = event.attempts() >= config.getMaxAttempts();
+        long backoffMs = backoffMs(event.attempts());
+        String message = error.getMessage() != null ? error.getMessage() : error.getClass().getSimpleName();
+        if (message.length() > MAX_ERROR_LENGTH) {
+            message = message.substring(0, MAX_ERROR_LENGTH);
+        }
+
+        jdbcTemplate.update(FAIL_SQL, message, backoffMs, deadLetter, deadLetter, event.id(), consumerId);
+        metricsService.incrementWebhookProcessed(event.eventType(), "error");
+        metricsService.recordWebhookInboxEvent(deadLetter ? OUTCOME_DEAD_LETTERED : OUTCOME_RETRY,
+            Duration.between(event.receivedAt(), Instant.now()));
+
+        if (deadLetter) {
+            log.error("Webhook inbox event dead-lettered after {} attempts - EventID: {}, Type: {}, Error: {}",
+                        event.attempts(), event.eventId(), event.eventType(), message);
+        } else {
+            log.warn("Webhook inbox event failed, retrying in {}ms - EventID: {}, Attempt: {}, Error: {}",
+                       backoffMs, event.eventId(), event.attempts(), message);
+        }
+    }
+
+    long backoffMs(int attempts) {
+        int exponent = Math.min(Math.max(attempts - 1, 0), 30);
+        return Math.min(config.getInitialBackoffMs() << exponent, config.getMaxBackoffMs());
+    }
+
+    /**
+     * Refreshes the backlog gauges and purges processed events past their retention.
+     */
+    void sample() {
+        jdbcTemplate.query(BACKLOG_SQL, rs -> {
+            backlogDepth.set(rs.getLong("depth"));
+            OffsetDateTime oldest = rs.getObject("oldest", OffsetDateTime.class);
+            oldestEventAgeSeconds.set(oldest != null
+                ? Math.max(Duration.between(oldest.toInstant(), Instant.now()).toSeconds(), 0) : 0);
+        });
+
+        int purged = jdbcTemplate.update(PURGE_SQL, config.getRetentionHours(), config.getPurgeBatchSize());
+        if (purged > 0) {
+            log.debug("Purged {} processed webhook inbox events", purged);
+        }
+    }
+
+    private void consumeLoop() {
+        while (running) {
+            try {
+                if (drainOnce() == 0) {
+                    synchronized (workSignal) {
+                        workSignal.wait(config.getPollIntervalMs());
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.error("Error draining webhook inbox: {}", e.getMessage(), e);
+                sleepQuietly(config.getPollIntervalMs());
+            }
+        }
+    }
+
+    private void sampleSafely() {
+        try {
+            sample();
+        } catch (Exception e) {
+            log.warn("Error sampling webhook inbox backlog: {}", e.getMessage());
+        }
+    }
+
+    private void sleepQuietly(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    record InboxEvent(long id, String eventId, String eventType, String payload, String correlationId,
+                      Instant receivedAt, int attempts) {
+    }
+}
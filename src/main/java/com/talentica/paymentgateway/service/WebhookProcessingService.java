@@ -1,5 +1,7 @@
 package com.talentica.paymentgateway.service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.talentica.paymentgateway.dto.webhook.AuthorizeNetWebhookRequest;
 import com.talentica.paymentgateway.dto.webhook.WebhookResponse;
 import com.talentica.paymentgateway.entity.*;
@@ -17,6 +19,8 @@ import org.springframework.retry.annotation.Retryable;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.util.StringUtils;
 
 import java.math.BigDecimal;
@@ -56,12 +60,18 @@ public class WebhookProcessingService {
     @Autowired
     private MetricsService metricsService;
     
+    @Autowired
+    private WebhookDeduplicationService webhookDeduplicationService;
+    
+    @Autowired
+    private TransactionDetailsCache transactionDetailsCache;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
     @Value("${app.webhook.duplicate-detection.enabled:true}")
     private boolean duplicateDetectionEnabled;
     
-    @Value("${app.webhook.duplicate-detection.window-minutes:60}")
-    private int duplicateDetectionWindowMinutes;
-    
     @Value("${app.webhook.processing.timeout-seconds:30}")
     private int processingTimeoutSeconds;
     
@@ -91,6 +101,7 @@ public class WebhookProcessingService {
         
         String correlationId = CorrelationIdUtil.getOrGenerate();
         String eventId = webhookRequest.getNotificationId();
+        boolean recordedForDedupe = false;
         
         try {
             // Set correlation ID for this processing thread
@@ -115,9 +126,13 @@ public class WebhookProcessingService {
                 return CompletableFuture.completedFuture(
                     WebhookResponse.duplicateEvent(eventId, correlationId));
             }
+            recordedForDedupe = duplicateDetectionEnabled;
             
             // Process the webhook event
             WebhookResponse response = processWebhookEvent(webhookRequest, correlationId);
+            if (response.isDuplicate()) {
+                return CompletableFuture.completedFuture(response);
+            }
             
             // Record successful processing
             metricsService.incrementWebhookProcessed(webhookRequest.getEventType(), "success");
@@ -133,6 +148,11 @@ public class WebhookProcessingService {
             
             metricsService.incrementWebhookProcessed(webhookRequest.getEventType(), "error");
             
+            // Let the redelivery through; the event was not applied
+            if (recordedForDedupe) {
+                webhookDeduplicationService.release(eventId, webhookRequest.getEventType());
+            }
+            
             return CompletableFuture.completedFuture(
                 WebhookResponse.processingError(eventId, correlationId, 
                                               "Internal processing error", e));
@@ -141,6 +161,23 @@ public class WebhookProcessingService {
         }
     }
     
+    /**
+     * Warms the transaction's cached details once the webhook's updates are committed, so the
+     * reload runs outside the database transaction and is skipped when the event rolls back.
+     */
+    private void warmDetailsAfterCommit(String authnetTransactionId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    transactionDetailsCache.warm(authnetTransactionId);
+                }
+            });
+        } else {
+            transactionDetailsCache.warm(authnetTransactionId);
+        }
+    }
+
     /**
      * Processes a webhook event and updates transaction status.
      * 
@@ -155,9 +192,18 @@ public class WebhookProcessingService {
         String eventType = webhookRequest.getEventType();
         
         try {
-            // Create webhook record for audit trail
+            // Record the event for the audit trail; the unique event index makes this the final duplicate check
             Webhook webhook = createWebhookRecord(webhookRequest, correlationId);
-            webhook = webhookRepository.save(webhook);
+            if (!recordInboundEvent(webhook)) {
+                log.warn("Webhook event already recorded, skipping - EventID: {}, Type: {}", eventId, eventType);
+                metricsService.incrementWebhookDuplicate(eventType);
+                return WebhookResponse.duplicateEvent(eventId, correlationId);
+            }
+            
+            // The transaction changed at Authorize.Net; reload its details ahead of lookups
+            if (webhookRequest.isPaymentEvent()) {
+                warmDetailsAfterCommit(webhookRequest.getTransactionId());
+            }
             
             // Process based on event type
             switch (eventType) {
@@ -430,6 +476,24 @@ public class WebhookProcessingService {
         return WebhookResponse.success(eventId, correlationId, "Fraud event processed successfully");
     }
     
+    /**
+     * Inserts the audit row unless the event is already recorded. The row is rolled back with
+     * the rest of the processing if that fails, so a redelivery is not taken for a duplicate.
+     *
+     * @return false if the event was already recorded
+     */
+    private boolean recordInboundEvent(Webhook webhook) {
+        try {
+            return webhookRepository.insertInboundEventIfAbsent(webhook.getWebhookId(), webhook.getEventType(),
+                webhook.getEventId(), webhook.getEndpointUrl(),
+                objectMapper.writeValueAsString(webhook.getRequestHeaders()),
+                objectMapper.writeValueAsString(webhook.getRequestBody()),
+                webhook.getCorrelationId(), webhook.getScheduledAt()) > 0;
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize webhook record", e);
+        }
+    }
+    
     /**
      * Creates a webhook record for audit trail.
      */
@@ -459,29 +523,15 @@ public class WebhookProcessingService {
     
     /**
      * Checks if the webhook event is a duplicate.
+     * Most first-time events are decided in memory or by Redis without a database query.
      */
     private boolean isDuplicateEvent(AuthorizeNetWebhookRequest webhookRequest) {
         if (!duplicateDetectionEnabled) {
             return false;
         }
         
-        String eventId = webhookRequest.getNotificationId();
-        String eventType = webhookRequest.getEventType();
-        
-        // Check for duplicate events within the detection window
-        ZonedDateTime cutoffTime = ZonedDateTime.now().minusMinutes(duplicateDetectionWindowMinutes);
-        
-        List<Webhook> recentWebhooks = webhookRepository.findByEventIdAndEventTypeAndCreatedAtAfter(
-            eventId, eventType, cutoffTime);
-        
-        boolean isDuplicate = !recentWebhooks.isEmpty();
-        
-        if (isDuplicate) {
-            log.warn("Duplicate webhook event detected - EventID: {}, Type: {}, Previous events: {}", 
-                       eventId, eventType, recentWebhooks.size());
-        }
-        
-        return isDuplicate;
+        return webhookDeduplicationService.isDuplicate(
+            webhookRequest.getNotificationId(), webhookRequest.getEventType());
     }
     
     /**
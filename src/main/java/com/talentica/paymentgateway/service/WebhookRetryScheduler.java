@@ -0,0 +1,265 @@
+package com.talentica.paymentgateway.service;
+
+import com.talentica.paymentgateway.config.properties.WebhookProperties;
+import com.talentica.paymentgateway.entity.Webhook;
+import com.talentica.paymentgateway.repository.WebhookRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Event-driven scheduler for webhook delivery retries.
+ *
+ * Instead of sweeping every retryable webhook every few minutes, each node claims the
+ * retries that fall due within a short lookahead window in bounded pages
+ * ({@code FOR UPDATE SKIP LOCKED}), so several nodes can share the backlog without
+ * contention. Claimed rows get their {@code next_attempt_at} pushed to the end of a
+ * lease; if this node stops before delivering them, another node claims them once the
+ * lease runs out. The claimed retries wait in a {@link DelayQueue} and are dispatched
+ * at their due time, subject to a node-wide in-flight cap and a per-endpoint
+ * concurrency cap so a backlog never floods the task executor or a single merchant.
+ *
+ * @author Payment Gateway Team
+ * @version 1.0.0
+ */
+@Slf4j
+@Service
+public class WebhookRetryScheduler {
+
+    static final String DEFERRED_ENDPOINT_BUSY = "endpoint_busy";
+    static final String DEFERRED_REJECTED = "rejected";
+    static final String DEFERRED_LEASE_EXPIRED = "lease_expired";
+
+    private final WebhookRepository webhookRepository;
+    private final WebhookRetryService webhookRetryService;
+    private final TransactionTemplate transactionTemplate;
+    private final MetricsService metricsService;
+    private final WebhookProperties.Scheduler config;
+
+    private final DelayQueue<ScheduledRetry> queue = new DelayQueue<>();
+    private final Map<String, AtomicInteger> inFlightByEndpoint = new ConcurrentHashMap<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Semaphore deliveryPermits;
+
+    private ScheduledExecutorService poller;
+    private Thread dispatcher;
+    private volatile boolean running;
+
+    public WebhookRetryScheduler(WebhookRepository webhookRepository,
+                                 WebhookRetryService webhookRetryService,
+                                 TransactionTemplate transactionTemplate,
+                                 MetricsService metricsService,
+                                 WebhookProperties webhookProperties) {
+        this.webhookRepository = webhookRepository;
+        this.webhookRetryService = webhookRetryService;
+        this.transactionTemplate = transactionTemplate;
+        this.metricsService = metricsService;
+        this.config = webhookProperties.getRetry().getScheduler();
+        this.deliveryPermits = new Semaphore(config.getMaxInFlight());
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!config.isEnabled()) {
+            log.info("Webhook retry scheduler disabled; retries rely on the periodic sweep");
+            return;
+        }
+
+        metricsService.registerWebhookRetrySchedulerGauges(queue::size, inFlight::get);
+        running = true;
+
+        poller = Executors.newSingleThreadScheduledExecutor(runnable -> daemon(runnable, "webhook-retry-poller"));
+        poller.scheduleWithFixedDelay(this::pollSafely, 0, config.getPollIntervalMs(), TimeUnit.MILLISECONDS);
+
+        dispatcher = daemon(this::dispatchLoop, "webhook-retry-dispatcher");
+        dispatcher.start();
+
+        log.info("Webhook retry scheduler started - PollInterval: {}ms, Lookahead: {}s, MaxInFlight: {}, PerEndpoint: {}",
+                   config.getPollIntervalMs(), config.getLookaheadSeconds(),
+                   config.getMaxInFlight(), config.getMaxConcurrentPerEndpoint());
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (poller != null) {
+            poller.shutdownNow();
+        }
+        if (dispatcher != null) {
+            dispatcher.interrupt();
+        }
+        // Queued retries are simply abandoned: their leases expire and another node claims them
+        queue.clear();
+    }
+
+    int queueDepth() {
+        return queue.size();
+    }
+
+    int inFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * Claims due retries page by page until a short page is returned or the in-memory
+     * queue is full.
+     *
+     * @return number of retries claimed
+     */
+    int pollOnce() {
+        int claimedTotal = 0;
+        while (true) {
+            int capacity = config.getMaxQueued() - queue.size();
+            if (capacity <= 0) {
+                break;
+            }
+            int limit = Math.min(config.getPageSize(), capacity);
+            int claimed = claimPage(limit);
+            claimedTotal += claimed;
+            if (claimed < limit) {
+                break;
+            }
+        }
+        return claimedTotal;
+    }
+
+    private int claimPage(int limit) {
+        ZonedDateTime now = ZonedDateTime.now();
+        ZonedDateTime horizon = now.plusSeconds(config.getLookaheadSeconds());
+        ZonedDateTime leaseUntil = now.plusSeconds(config.getLeaseSeconds());
+
+        // The loaded entities keep their original next attempt time; only the row is leased
+        List<Webhook> claimed = transactionTemplate.execute(status -> {
+            List<Webhook> page = webhookRepository.claimWebhooksDueBefore(horizon, limit);
+            if (!page.isEmpty()) {
+                List<UUID> ids = page.stream().map(Webhook::getId).toList();
+                webhookRepository.leaseForRetry(ids, leaseUntil);
+            }
+            return page;
+        });
+        if (claimed == null || claimed.isEmpty()) {
+            return 0;
+        }
+
+        Instant leaseExpiry = leaseUntil.toInstant();
+        for (Webhook webhook : claimed) {
+            Instant dueAt = webhook.getNextAttemptAt() != null ? webhook.getNextAttemptAt().toInstant() : Instant.now();
+            queue.offer(new ScheduledRetry(webhook, dueAt, leaseExpiry, dueAt));
+        }
+        metricsService.recordWebhookRetriesClaimed(claimed.size());
+        log.debug("Claimed {} webhook retries due before {}", claimed.size(), horizon);
+        return claimed.size();
+    }
+
+    /**
+     * Dispatches one due retry, waiting for a node-wide delivery permit if necessary.
+     * Retries whose endpoint is at its concurrency cap are put back with a short delay.
+     */
+    void dispatch(ScheduledRetry retry) throws InterruptedException {
+        Webhook webhook = retry.webhook();
+        Instant now = Instant.now();
+        if (!now.isBefore(retry.leaseUntil())) {
+            // Another node may already have claimed it again
+            metricsService.recordWebhookRetryDeferred(DEFERRED_LEASE_EXPIRED);
+            return;
+        }
+
+        deliveryPermits.acquire();
+        AtomicInteger endpointInFlight = inFlightByEndpoint.computeIfAbsent(
+            webhook.getEndpointUrl(), url -> new AtomicInteger());
+        if (endpointInFlight.incrementAndGet() > config.getMaxConcurrentPerEndpoint()) {
+            endpointInFlight.decrementAndGet();
+            deliveryPermits.release();
+            requeue(retry, DEFERRED_ENDPOINT_BUSY);
+            return;
+        }
+
+        inFlight.incrementAndGet();
+        metricsService.recordWebhookRetryDispatchLag(Duration.between(retry.dueAt(), Instant.now()));
+        try {
+            CompletableFuture<Void> delivery = webhookRetryService.retryWebhookDeliveryAsync(webhook);
+            delivery.whenComplete((result, error) -> release(endpointInFlight));
+        } catch (RuntimeException e) {
+            // Task executor saturated: give the slot back and try again shortly
+            release(endpointInFlight);
+            requeue(retry, DEFERRED_REJECTED);
+            log.warn("Webhook retry dispatch rejected - WebhookID: {}, Error: {}", webhook.getWebhookId(), e.getMessage());
+        }
+    }
+
+    private void release(AtomicInteger endpointInFlight) {
+        endpointInFlight.decrementAndGet();
+        inFlight.decrementAndGet();
+        deliveryPermits.release();
+    }
+
+    private void requeue(ScheduledRetry retry, String reason) {
+        metricsService.recordWebhookRetryDeferred(reason);
+        Instant notBefore = Instant.now().plusMillis(config.getEndpointBusyDelayMs());
+        queue.offer(new ScheduledRetry(retry.webhook(), retry.dueAt(), retry.leaseUntil(), notBefore));
+    }
+
+    private void pollSafely() {
+        try {
+            pollOnce();
+        } catch (Exception e) {
+            log.error("Error claiming webhook retries: {}", e.getMessage(), e);
+        }
+    }
+
+    private void dispatchLoop() {
+        while (running) {
+            try {
+                dispatch(queue.take());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.error("Error dispatching webhook retry: {}", e.getMessage(), e);
+            }
+        }
+    }
+
+    private static Thread daemon(Runnable runnable, String name) {
+        Thread thread = new Thread(runnable, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    /**
+     * A claimed retry ordered by the earliest time it may be dispatched.
+     */
+    record ScheduledRetry(Webhook webhook, Instant dueAt, Instant leaseUntil, Instant notBefore) implements Delayed {
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(Duration.between(Instant.now(), notBefore));
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            if (other instanceof ScheduledRetry retry) {
+                return notBefore.compareTo(retry.notBefore);
+            }
+            return Long.compare(getDelay(TimeUnit.NANOSECONDS), other.getDelay(TimeUnit.NANOSECONDS));
+        }
+    }
+}
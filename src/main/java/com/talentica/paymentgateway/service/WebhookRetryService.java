@@ -15,6 +15,7 @@ import org.springframework.retry.annotation.Retryable;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.client.HttpClientErrorException;
@@ -55,6 +56,12 @@ public class WebhookRetryService {
     @Autowired
     private RestTemplate restTemplate;
     
+    @Autowired
+    private WebhookCleanupService webhookCleanupService;
+    
+    @Autowired
+    private WebhookCircuitBreakerRegistry circuitBreakerRegistry;
+    
     @Value("${app.webhook.retry.max-attempts:5}")
     private int maxRetryAttempts;
     
@@ -73,24 +80,23 @@ public class WebhookRetryService {
     @Value("${app.webhook.retry.timeout-seconds:30}")
     private int timeoutSeconds;
     
+    @Value("${app.webhook.retry.scheduler.enabled:true}")
+    private boolean retrySchedulerEnabled;
+    
     @Value("${app.webhook.cleanup.enabled:true}")
     private boolean cleanupEnabled;
     
-    @Value("${app.webhook.cleanup.delivered-retention-days:7}")
-    private int deliveredRetentionDays;
-    
-    @Value("${app.webhook.cleanup.failed-retention-days:30}")
-    private int failedRetentionDays;
-    
-    // Circuit breaker state for problematic endpoints
-    private final Map<String, EndpointCircuitBreaker> circuitBreakers = new HashMap<>();
-    
     /**
      * Processes webhook delivery retries on a scheduled basis.
-     * Runs every 5 minutes to check for webhooks ready for retry.
+     * Runs every 5 minutes to check for webhooks ready for retry. Only used when the
+     * event-driven {@link WebhookRetryScheduler} is disabled.
      */
     @Scheduled(fixedDelay = 300000) // 5 minutes
     public void processRetries() {
+        if (retrySchedulerEnabled) {
+            return;
+        }
+        
         try {
             log.debug("Starting scheduled webhook retry processing");
             
@@ -122,6 +128,7 @@ public class WebhookRetryService {
      * Runs daily at 2 AM to clean up old webhook records.
      */
     @Scheduled(cron = "0 0 2 * * *") // Daily at 2 AM
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public void cleanupOldWebhooks() {
         if (!cleanupEnabled) {
             log.debug("Webhook cleanup is disabled");
@@ -131,23 +138,8 @@ public class WebhookRetryService {
         try {
             log.info("Starting webhook cleanup process");
             
-            ZonedDateTime deliveredCutoff = ZonedDateTime.now().minusDays(deliveredRetentionDays);
-            ZonedDateTime failedCutoff = ZonedDateTime.now().minusDays(failedRetentionDays);
-            
-            List<Webhook> webhooksToCleanup = webhookRepository.findWebhooksForCleanup(
-                deliveredCutoff, failedCutoff);
-            
-            if (!webhooksToCleanup.isEmpty()) {
-                log.info("Cleaning up {} old webhook records", webhooksToCleanup.size());
-                
-                for (Webhook webhook : webhooksToCleanup) {
-                    webhookRepository.delete(webhook);
-                }
-                
-                metricsService.incrementWebhookCleanup(webhooksToCleanup.size());
-            }
-            
-            log.info("Webhook cleanup completed");
+            // Purges in short batched transactions, so it must not run inside this service's transaction
+            webhookCleanupService.purgeExpiredWebhooks();
             
         } catch (Exception e) {
             log.error("Error in webhook cleanup process: {}", e.getMessage(), e);
@@ -171,18 +163,20 @@ public class WebhookRetryService {
                        webhook.getWebhookId(), webhook.getAttempts() + 1, 
                        webhook.getMaxAttempts(), webhook.getEndpointUrl());
             
-            // Check circuit breaker for this endpoint
-            EndpointCircuitBreaker circuitBreaker = getOrCreateCircuitBreaker(webhook.getEndpointUrl());
-            if (circuitBreaker.isOpen()) {
-                log.warn("Circuit breaker is open for endpoint: {}, skipping retry", 
-                           webhook.getEndpointUrl());
-                scheduleNextRetry(webhook, "Circuit breaker is open");
-                return CompletableFuture.completedFuture(null);
+            // Check circuit breaker and bulkhead for this endpoint
+            try (WebhookCircuitBreakerRegistry.Permit permit = circuitBreakerRegistry.tryAcquire(webhook.getEndpointUrl())) {
+                if (!permit.isGranted()) {
+                    log.warn("Delivery rejected for endpoint: {} ({}), skipping retry", 
+                               webhook.getEndpointUrl(), permit.getRejectionReason());
+                    scheduleNextRetry(webhook, WebhookCircuitBreakerRegistry.REJECTED_BULKHEAD_FULL.equals(permit.getRejectionReason())
+                        ? "Endpoint bulkhead is full" : "Circuit breaker is open");
+                    return CompletableFuture.completedFuture(null);
+                }
+                
+                // Attempt webhook delivery
+                deliverWebhook(webhook);
             }
             
-            // Attempt webhook delivery
-            deliverWebhook(webhook);
-            
             return CompletableFuture.completedFuture(null);
             
         } catch (Exception e) {
@@ -201,6 +195,7 @@ public class WebhookRetryService {
                maxAttempts = 2, 
                backoff = @Backoff(delay = 1000))
     public void deliverWebhook(Webhook webhook) {
+        long startedAt = System.nanoTime();
         try {
             // Mark webhook as processing
             webhook.markAsProcessing();
@@ -234,24 +229,36 @@ public class WebhookRetryService {
                 String.class
             );
             
+            // Record success in circuit breaker
+            circuitBreakerRegistry.recordSuccess(webhook.getEndpointUrl(), elapsedSince(startedAt));
+            
             // Process successful response
             handleSuccessfulDelivery(webhook, response);
             
-            // Record success in circuit breaker
-            EndpointCircuitBreaker circuitBreaker = getOrCreateCircuitBreaker(webhook.getEndpointUrl());
-            circuitBreaker.recordSuccess();
-            
         } catch (HttpClientErrorException e) {
+            // The endpoint answered; only 429 says it is struggling
+            if (e.getStatusCode() == HttpStatus.TOO_MANY_REQUESTS) {
+                circuitBreakerRegistry.recordFailure(webhook.getEndpointUrl(), elapsedSince(startedAt));
+            } else {
+                circuitBreakerRegistry.recordSuccess(webhook.getEndpointUrl(), elapsedSince(startedAt));
+            }
             handleClientError(webhook, e);
         } catch (HttpServerErrorException e) {
+            circuitBreakerRegistry.recordFailure(webhook.getEndpointUrl(), elapsedSince(startedAt));
             handleServerError(webhook, e);
         } catch (ResourceAccessException e) {
+            circuitBreakerRegistry.recordFailure(webhook.getEndpointUrl(), elapsedSince(startedAt));
             handleTimeoutError(webhook, e);
         } catch (Exception e) {
+            circuitBreakerRegistry.recordIgnored(webhook.getEndpointUrl());
             handleUnknownError(webhook, e);
         }
     }
     
+    private static Duration elapsedSince(long startedAtNanos) {
+        return Duration.ofNanos(System.nanoTime() - startedAtNanos);
+    }
+    
     /**
      * Handles successful webhook delivery.
      */
@@ -322,10 +329,6 @@ public class WebhookRetryService {
                    webhook.getWebhookId(), e.getStatusCode().value(), 
                    webhook.getAttempts(), webhook.getMaxAttempts());
         
-        // Record failure in circuit breaker
-        EndpointCircuitBreaker circuitBreaker = getOrCreateCircuitBreaker(webhook.getEndpointUrl());
-        circuitBreaker.recordFailure();
-        
         metricsService.incrementWebhookDeliveryFailure(webhook.getEventType(), 
                                                       webhook.getAttempts(), "server_error");
     }
@@ -343,10 +346,6 @@ public class WebhookRetryService {
                    webhook.getWebhookId(), webhook.getAttempts(), 
                    webhook.getMaxAttempts(), e.getMessage());
         
-        // Record failure in circuit breaker
-        EndpointCircuitBreaker circuitBreaker = getOrCreateCircuitBreaker(webhook.getEndpointUrl());
-        circuitBreaker.recordFailure();
-        
         metricsService.incrementWebhookDeliveryFailure(webhook.getEventType(), 
                                                       webhook.getAttempts(), "timeout");
     }
@@ -412,14 +411,6 @@ public class WebhookRetryService {
         return Math.max(1, (int) delay); // Minimum 1 minute delay
     }
     
-    /**
-     * Gets or creates a circuit breaker for an endpoint.
-     */
-    private EndpointCircuitBreaker getOrCreateCircuitBreaker(String endpointUrl) {
-        return circuitBreakers.computeIfAbsent(endpointUrl, 
-            url -> new EndpointCircuitBreaker(url, 5, Duration.ofMinutes(5)));
-    }
-    
     /**
      * Gets retry statistics for monitoring.
      */
@@ -434,67 +425,19 @@ public class WebhookRetryService {
         
         // Circuit breaker states
         Map<String, Object> circuitBreakerStates = new HashMap<>();
-        for (Map.Entry<String, EndpointCircuitBreaker> entry : circuitBreakers.entrySet()) {
-            EndpointCircuitBreaker cb = entry.getValue();
+        for (Map.Entry<String, WebhookCircuitBreakerRegistry.BreakerSnapshot> entry : circuitBreakerRegistry.snapshot().entrySet()) {
+            WebhookCircuitBreakerRegistry.BreakerSnapshot cb = entry.getValue();
             Map<String, Object> cbState = new HashMap<>();
-            cbState.put("state", cb.isOpen() ? "OPEN" : "CLOSED");
-            cbState.put("failures", cb.getFailureCount());
-            cbState.put("lastFailure", cb.getLastFailureTime());
+            cbState.put("state", cb.state().name());
+            cbState.put("failures", cb.failedCalls());
+            cbState.put("failureRate", cb.failureRate());
+            cbState.put("slowCallRate", cb.slowCallRate());
+            cbState.put("bulkheadInUse", cb.bulkheadInUse());
+            cbState.put("lastFailure", cb.lastFailureTime());
             circuitBreakerStates.put(entry.getKey(), cbState);
         }
         stats.put("circuitBreakers", circuitBreakerStates);
         
         return stats;
     }
-    
-    /**
-     * Simple circuit breaker implementation for webhook endpoints.
-     */
-    private static class EndpointCircuitBreaker {
-        private final String endpointUrl;
-        private final int failureThreshold;
-        private final Duration timeout;
-        private int failureCount = 0;
-        private ZonedDateTime lastFailureTime;
-        private boolean isOpen = false;
-        
-        public EndpointCircuitBreaker(String endpointUrl, int failureThreshold, Duration timeout) {
-            this.endpointUrl = endpointUrl;
-            this.failureThreshold = failureThreshold;
-            this.timeout = timeout;
-        }
-        
-        public void recordSuccess() {
-            this.failureCount = 0;
-            this.isOpen = false;
-        }
-        
-        public void recordFailure() {
-            this.failureCount++;
-            this.lastFailureTime = ZonedDateTime.now();
-            
-            if (this.failureCount >= this.failureThreshold) {
-                this.isOpen = true;
-            }
-        }
-        
-        public boolean isOpen() {
-            if (isOpen && lastFailureTime != null) {
-                // Check if timeout period has passed
-                if (ZonedDateTime.now().isAfter(lastFailureTime.plus(timeout))) {
-                    isOpen = false; // Half-open state
-                    failureCount = 0;
-                }
-            }
-            return isOpen;
-        }
-        
-        public int getFailureCount() {
-            return failureCount;
-        }
-        
-        public ZonedDateTime getLastFailureTime() {
-            return lastFailureTime;
-        }
-    }
 }
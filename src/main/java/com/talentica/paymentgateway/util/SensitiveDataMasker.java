@@ -0,0 +1,353 @@
+package com.talentica.paymentgateway.util;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Masks sensitive data in logged request and response bodies.
+ *
+ * JSON bodies are streamed from parser to generator in a single pass:
+ * - The values of sensitive fields are replaced, whole subtrees included.
+ * - String values and long integers are scanned for card numbers and SSNs.
+ * Other bodies and query strings are scanned as text.
+ *
+ * Card numbers are runs of 13 to 19 digits, optionally grouped by single spaces or hyphens,
+ * that start with a card industry digit (2-6) and pass the Luhn check. All but the last four
+ * digits are masked. SSNs are masked in the 123-45-6789 form.
+ *
+ * Values are scanned in place from the parser's buffer, so nothing is allocated for a value
+ * that needs no masking.
+ *
+ * @author Payment Gateway Team
+ * @version 1.0.0
+ */
+public final class SensitiveDataMasker {
+
+    public static final String MASKED_VALUE = "***MASKED***";
+    static final String MASKED_SSN = "***-**-****";
+
+    private static final int MIN_CARD_DIGITS = 13;
+    private static final int MAX_CARD_DIGITS = 19;
+    private static final int SSN_DIGITS = 9;
+    private static final int VISIBLE_CARD_DIGITS = 4;
+
+    private final JsonFactory jsonFactory;
+    private final Set<String> sensitiveFields;
+    private final int maxLength;
+
+    /**
+     * @param sensitiveFields Field names whose values are always masked, matched ignoring case
+     * @param maxLength Body bytes to mask and log; the rest is replaced by a truncation note
+     */
+    public SensitiveDataMasker(JsonFactory jsonFactory, Collection<String> sensitiveFields, int maxLength) {
+        this.jsonFactory = jsonFactory;
+        TreeSet<String> fields = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+        fields.addAll(sensitiveFields);
+        this.sensitiveFields = fields;
+        this.maxLength = maxLength;
+    }
+
+    /**
+     * Masked, possibly truncated copy of a body.
+     *
+     * @param content Body bytes, UTF-8
+     * @return Masked body, or null for an empty body
+     */
+    public String maskBody(byte[] content) {
+        if (content == null || content.length == 0) {
+            return null;
+        }
+        if (startsLikeJson(content)) {
+            try {
+                return maskJson(content);
+            } catch (IOException e) {
+                // Not JSON after all; mask it as text
+            }
+        }
+        int length = Math.min(content.length, maxLength);
+        String masked = maskText(new String(content, 0, length, StandardCharsets.UTF_8));
+        return length < content.length ? masked + truncationNote(content.length) : masked;
+    }
+
+    /**
+     * Text with card numbers and SSNs masked.
+     *
+     * @param text Text to scan, may be null
+     * @return Masked text, the same instance if nothing was masked
+     */
+    public String maskText(String text) {
+        if (text == null) {
+            return null;
+        }
+        StringBuilder masked = maskDigitRuns(text);
+        return masked != null ? masked.toString() : text;
+    }
+
+    private String maskJson(byte[] content) throws IOException {
+        StringWriter out = new StringWriter(Math.min(content.length, maxLength) + 64);
+        boolean truncated = false;
+        try (JsonParser parser = jsonFactory.createParser(content);
+             JsonGenerator generator = jsonFactory.createGenerator(out)) {
+            // A truncated body is logged as cut, not as closed JSON
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_JSON_CONTENT);
+            JsonToken token;
+            while ((token = parser.nextToken()) != null) {
+                if (parser.currentTokenLocation().getByteOffset() >= maxLength) {
+                    truncated = true;
+                    break;
+                }
+                switch (token) {
+                    case FIELD_NAME -> {
+                        String name = parser.currentName();
+                        generator.writeFieldName(name);
+                        if (sensitiveFields.contains(name)) {
+                            parser.nextToken();
+                            parser.skipChildren();
+                            generator.writeString(MASKED_VALUE);
+                        }
+                    }
+                    case VALUE_STRING -> writeString(parser, generator);
+                    case VALUE_NUMBER_INT -> writeInteger(parser, generator);
+                    default -> generator.copyCurrentEvent(parser);
+                }
+            }
+        }
+        return truncated ? out + truncationNote(content.length) : out.toString();
+    }
+
+    private static void writeString(JsonParser parser, JsonGenerator generator) throws IOException {
+        char[] chars = parser.getTextCharacters();
+        int offset = parser.getTextOffset();
+        int length = parser.getTextLength();
+        if (countDigits(chars, offset, length) >= SSN_DIGITS) {
+            StringBuilder masked = maskDigitRuns(CharBuffer.wrap(chars, offset, length));
+            if (masked != null) {
+                generator.writeString(masked.toString());
+                return;
+            }
+        }
+        generator.writeString(chars, offset, length);
+    }
+
+    private static void writeInteger(JsonParser parser, JsonGenerator generator) throws IOException {
+        int length = parser.getTextLength();
+        if (length >= MIN_CARD_DIGITS && length <= MAX_CARD_DIGITS) {
+            StringBuilder masked = maskDigitRuns(
+                CharBuffer.wrap(parser.getTextCharacters(), parser.getTextOffset(), length));
+            if (masked != null) {
+                generator.writeString(masked.toString());
+                return;
+            }
+        }
+        generator.copyCurrentEvent(parser);
+    }
+
+    /**
+     * Masks card numbers and SSNs in one pass over the text.
+     *
+     * @return The masked text, or null if nothing was masked
+     */
+    static StringBuilder maskDigitRuns(CharSequence text) {
+        MaskedCopy copy = null;
+        int length = text.length();
+        int i = 0;
+        while (i < length) {
+            if (!isDigit(text.charAt(i)) || (i > 0 && isWordChar(text.charAt(i - 1)))) {
+                i++;
+                continue;
+            }
+
+            // A run of digits joined by single spaces or hyphens
+            int start = i;
+            int end = i;
+            int digits = 0;
+            int j = i;
+            while (j < length) {
+                char c = text.charAt(j);
+                if (isDigit(c)) {
+                    digits++;
+                    end = ++j;
+                } else if ((c == ' ' || c == '-') && j + 1 < length && isDigit(text.charAt(j + 1))) {
+                    j++;
+                } else {
+                    break;
+                }
+            }
+            i = end;
+            if (end < length && isWordChar(text.charAt(end))) {
+                continue;
+            }
+
+            if (digits == SSN_DIGITS && isSsn(text, start, end)) {
+                copy = MaskedCopy.of(copy, text);
+                copy.copyUpTo(start).append(MASKED_SSN);
+                copy.copied = end;
+            } else if (digits >= MIN_CARD_DIGITS) {
+                copy = maskCardsInRun(text, start, end, copy);
+            }
+        }
+        return copy != null ? copy.finish() : null;
+    }
+
+    /**
+     * Masks each card number in a digit run. A run can hold more than one number, or a number
+     * followed by other digits, so spans of whole groups are tried from each group onward.
+     */
+    private static MaskedCopy maskCardsInRun(CharSequence text, int start, int end, MaskedCopy copy) {
+        int groupStart = start;
+        while (groupStart < end) {
+            int spanDigits = 0;
+            int spanEnd = -1;
+            int position = groupStart;
+            while (position < end) {
+                int groupEnd = position;
+                while (groupEnd < end && isDigit(text.charAt(groupEnd))) {
+                    groupEnd++;
+                }
+                spanDigits += groupEnd - position;
+                if (spanDigits > MAX_CARD_DIGITS) {
+                    break;
+                }
+                if (spanDigits >= MIN_CARD_DIGITS && isCardNumber(text, groupStart, groupEnd)) {
+                    spanEnd = groupEnd;
+                    break;
+                }
+                position = groupEnd + 1;
+            }
+
+            if (spanEnd < 0) {
+                groupStart = nextGroup(text, groupStart, end);
+                continue;
+            }
+            copy = MaskedCopy.of(copy, text);
+            appendMaskedCard(copy.copyUpTo(groupStart), text, groupStart, spanEnd);
+            copy.copied = spanEnd;
+            groupStart = spanEnd + 1;
+        }
+        return copy;
+    }
+
+    private static int nextGroup(CharSequence text, int position, int end) {
+        while (position < end && isDigit(text.charAt(position))) {
+            position++;
+        }
+        return position + 1;
+    }
+
+    private static boolean isCardNumber(CharSequence text, int start, int end) {
+        char first = text.charAt(start);
+        if (first < '2' || first > '6') {
+            return false;
+        }
+        int sum = 0;
+        boolean doubled = false;
+        for (int i = end - 1; i >= start; i--) {
+            char c = text.charAt(i);
+            if (!isDigit(c)) {
+                continue;
+            }
+            int digit = c - '0';
+            if (doubled) {
+                digit *= 2;
+                if (digit > 9) {
+                    digit -= 9;
+                }
+            }
+            sum += digit;
+            doubled = !doubled;
+        }
+        return sum % 10 == 0;
+    }
+
+    private static void appendMaskedCard(StringBuilder out, CharSequence text, int start, int end) {
+        int digitsLeft = 0;
+        for (int i = start; i < end; i++) {
+            if (isDigit(text.charAt(i))) {
+                digitsLeft++;
+            }
+        }
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (isDigit(c)) {
+                out.append(digitsLeft-- > VISIBLE_CARD_DIGITS ? '*' : c);
+            } else {
+                out.append(c);
+            }
+        }
+    }
+
+    private static boolean isSsn(CharSequence text, int start, int end) {
+        return end - start == 11 && text.charAt(start + 3) == '-' && text.charAt(start + 6) == '-';
+    }
+
+    private static int countDigits(char[] chars, int offset, int length) {
+        int digits = 0;
+        for (int i = offset; i < offset + length; i++) {
+            if (isDigit(chars[i])) {
+                digits++;
+            }
+        }
+        return digits;
+    }
+
+    private static boolean startsLikeJson(byte[] content) {
+        for (byte b : content) {
+            if (b == '{' || b == '[') {
+                return true;
+            }
+            if (b != ' ' && b != '\t' && b != '\r' && b != '\n') {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    private static String truncationNote(int originalLength) {
+        return "... [TRUNCATED - Original size: " + originalLength + " bytes]";
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isWordChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '_';
+    }
+
+    /**
+     * Output of a scan, created at the first masked match. Text between matches is copied lazily.
+     */
+    private static final class MaskedCopy {
+
+        private final CharSequence text;
+        private final StringBuilder out;
+        private int copied;
+
+        private MaskedCopy(CharSequence text) {
+            this.text = text;
+            this.out = new StringBuilder(text.length() + 8);
+        }
+
+        static MaskedCopy of(MaskedCopy copy, CharSequence text) {
+            return copy != null ? copy : new MaskedCopy(text);
+        }
+
+        StringBuilder copyUpTo(int index) {
+            return out.append(text, copied, index);
+        }
+
+        StringBuilder finish() {
+            return copyUpTo(text.length());
+        }
+    }
+}
@@ -9,10 +9,14 @@ import org.springframework.util.StringUtils;
 import javax.crypto.Mac;
 import javax.crypto.spec.SecretKeySpec;
 import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
 import java.security.InvalidKeyException;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 
 /**
  * Utility class for verifying webhook signatures.
@@ -43,6 +47,11 @@ public class WebhookSignatureVerifier {
     
     private final WebhookProperties webhookProperties;
     
+    /**
+     * Keys for the configured algorithm and active secrets, rebuilt when the configuration changes.
+     */
+    private volatile SigningKeys signingKeys;
+    
     /**
      * Verifies webhook signature from HTTP headers.
      * 
@@ -51,6 +60,19 @@ public class WebhookSignatureVerifier {
      * @return true if signature is valid or verification is disabled, false otherwise
      */
     public boolean verifySignature(Map<String, String> headers, String payload) {
+        return verifySignature(headers, payload != null ? payload.getBytes(StandardCharsets.UTF_8) : null);
+    }
+    
+    /**
+     * Verifies webhook signature over the request bytes as received.
+     * The signature is accepted when it matches the primary secret or any additional
+     * secret that is still active during a rotation.
+     * 
+     * @param headers HTTP headers from the webhook request
+     * @param payload Raw webhook request body
+     * @return true if signature is valid or verification is disabled, false otherwise
+     */
+    public boolean verifySignature(Map<String, String> headers, byte[] payload) {
         if (!webhookProperties.getSignature().isEnabled()) {
             log.debug("Webhook signature verification is disabled");
             return true;
@@ -75,16 +97,26 @@ public class WebhookSignatureVerifier {
                 return false;
             }
             
-            // Verify signature using configured algorithm
-            boolean isValid = verifySignatureWithAlgorithm(signature, payload);
+            byte[] received = decodeHex(signature);
+            if (received == null) {
+                log.error("Webhook signature is not valid hex");
+                return false;
+            }
             
-            if (isValid) {
-                log.debug("Webhook signature verification successful");
-            } else {
-                log.error("Webhook signature verification failed");
+            SigningKeys keys = currentSigningKeys();
+            for (int i = 0; i < keys.size(); i++) {
+                // MessageDigest.isEqual runs in constant time for equal-length inputs
+                if (MessageDigest.isEqual(received, keys.sign(i, payload))) {
+                    if (i > 0) {
+                        log.info("Webhook signature matched rotated secret #{}", i);
+                    }
+                    log.debug("Webhook signature verification successful");
+                    return true;
+                }
             }
             
-            return isValid;
+            log.error("Webhook signature verification failed");
+            return false;
             
         } catch (Exception e) {
             log.error("Error verifying webhook signature: {}", e.getMessage(), e);
@@ -254,13 +286,6 @@ public class WebhookSignatureVerifier {
         return null;
     }
     
-    /**
-     * Verifies signature using the configured algorithm.
-     */
-    private boolean verifySignatureWithAlgorithm(String signature, String payload) {
-        return verifySignatureWithAlgorithm(signature, payload, webhookProperties.getSignature().getSecret());
-    }
-    
     /**
      * Verifies signature using the configured algorithm with a specific secret.
      */
@@ -365,6 +390,38 @@ public class WebhookSignatureVerifier {
         return result == 0;
     }
     
+    /**
+     * Decodes a hex signature, accepting either case. Returns null for malformed input.
+     */
+    private static byte[] decodeHex(String hex) {
+        if ((hex.length() & 1) != 0) {
+            return null;
+        }
+        byte[] bytes = new byte[hex.length() / 2];
+        for (int i = 0; i < bytes.length; i++) {
+            int high = Character.digit(hex.charAt(2 * i), 16);
+            int low = Character.digit(hex.charAt(2 * i + 1), 16);
+            if (high < 0 || low < 0) {
+                return null;
+            }
+            bytes[i] = (byte) ((high << 4) | low);
+        }
+        return bytes;
+    }
+    
+    /**
+     * Returns the signing keys for the current configuration, rebuilding them after a change.
+     */
+    private SigningKeys currentSigningKeys() {
+        WebhookProperties.Signature config = webhookProperties.getSignature();
+        SigningKeys keys = signingKeys;
+        if (keys == null || !keys.matches(config)) {
+            keys = new SigningKeys(config);
+            signingKeys = keys;
+        }
+        return keys;
+    }
+    
     /**
      * Validates webhook timestamp to prevent replay attacks.
      * 
@@ -396,4 +453,74 @@ public class WebhookSignatureVerifier {
                            webhookProperties.getSignature().getAlgorithm(), 
                            StringUtils.hasText(webhookProperties.getSignature().getSecret()));
     }
+    
+    /**
+     * Pre-initialised keys for the active secrets, primary first.
+     * Mac instances are not thread-safe, so each thread keeps its own initialised instance
+     * per secret; doFinal resets the Mac so it can be reused for the next payload.
+     */
+    private static final class SigningKeys {
+        
+        private final String algorithm;
+        private final String secret;
+        private final List<String> additionalSecrets;
+        private final String macAlgorithm;
+        private final byte[][] secretBytes;
+        private final SecretKeySpec[] keySpecs;
+        private final ThreadLocal<Mac[]> macs;
+        
+        SigningKeys(WebhookProperties.Signature config) {
+            this.algorithm = config.getAlgorithm();
+            this.secret = config.getSecret();
+            this.additionalSecrets = List.copyOf(config.getAdditionalSecrets());
+            this.macAlgorithm = switch (algorithm.toUpperCase()) {
+                case "HMAC_SHA256" -> HMAC_SHA256_ALGORITHM;
+                case "HMAC_SHA512" -> HMAC_SHA512_ALGORITHM;
+                case "SHA256" -> null;
+                default -> {
+                    log.warn("Unknown signature algorithm: {}, using HMAC_SHA256", algorithm);
+                    yield HMAC_SHA256_ALGORITHM;
+                }
+            };
+            
+            List<String> active = new ArrayList<>();
+            active.add(secret);
+            additionalSecrets.stream().filter(StringUtils::hasText).forEach(active::add);
+            
+            this.secretBytes = new byte[active.size()][];
+            this.keySpecs = new SecretKeySpec[active.size()];
+            for (int i = 0; i < active.size(); i++) {
+                secretBytes[i] = active.get(i).getBytes(StandardCharsets.UTF_8);
+                keySpecs[i] = macAlgorithm != null ? new SecretKeySpec(secretBytes[i], macAlgorithm) : null;
+            }
+            this.macs = ThreadLocal.withInitial(() -> new Mac[keySpecs.length]);
+        }
+        
+        boolean matches(WebhookProperties.Signature config) {
+            return Objects.equals(algorithm, config.getAlgorithm())
+                && Objects.equals(secret, config.getSecret())
+                && additionalSecrets.equals(config.getAdditionalSecrets());
+        }
+        
+        int size() {
+            return secretBytes.length;
+        }
+        
+        byte[] sign(int index, byte[] payload) throws GeneralSecurityException {
+            if (macAlgorithm == null) {
+                MessageDigest digest = MessageDigest.getInstance(SHA256_ALGORITHM);
+                digest.update(payload);
+                return digest.digest(secretBytes[index]);
+            }
+            
+            Mac[] threadMacs = macs.get();
+            Mac mac = threadMacs[index];
+            if (mac == null) {
+                mac = Mac.getInstance(macAlgorithm);
+                mac.init(keySpecs[index]);
+                threadMacs[index] = mac;
+            }
+            return mac.doFinal(payload);
+        }
+    }
 }
@@ -0,0 +1,38 @@
+-- V11__Add_Billing_Runs.sql
+-- Checkpoint tables for SubscriptionBillingRunService. A billing run covers every active
+-- subscription due at its cutoff and is split into UUID ranges (partitions) that nodes
+-- lease one at a time. Each partition records the last subscription id it has billed,
+-- so a run interrupted by a crash or deploy resumes from there instead of from the start.
+CREATE TABLE IF NOT EXISTS billing_runs (
+    run_id VARCHAR(64) PRIMARY KEY,
+    cutoff TIMESTAMP WITH TIME ZONE NOT NULL,
+    status VARCHAR(20) NOT NULL DEFAULT 'RUNNING',
+    partition_count INTEGER NOT NULL,
+    invoices_paid BIGINT NOT NULL DEFAULT 0,
+    invoices_failed BIGINT NOT NULL DEFAULT 0,
+    subscriptions_skipped BIGINT NOT NULL DEFAULT 0,
+    billing_errors BIGINT NOT NULL DEFAULT 0,
+    started_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    completed_at TIMESTAMP WITH TIME ZONE
+);
+
+CREATE INDEX IF NOT EXISTS idx_billing_runs_open ON billing_runs (cutoff) WHERE status = 'RUNNING';
+
+CREATE TABLE IF NOT EXISTS billing_run_partitions (
+    run_id VARCHAR(64) NOT NULL REFERENCES billing_runs(run_id) ON DELETE CASCADE,
+    partition_no INTEGER NOT NULL,
+    range_start UUID NOT NULL,
+    range_end UUID,
+    last_subscription_id UUID,
+    lease_owner VARCHAR(100),
+    lease_until TIMESTAMP WITH TIME ZONE,
+    invoices_paid BIGINT NOT NULL DEFAULT 0,
+    invoices_failed BIGINT NOT NULL DEFAULT 0,
+    subscriptions_skipped BIGINT NOT NULL DEFAULT 0,
+    billing_errors BIGINT NOT NULL DEFAULT 0,
+    completed_at TIMESTAMP WITH TIME ZONE,
+    PRIMARY KEY (run_id, partition_no)
+);
+
+-- Keyset scans over a partition's id range only need the active subscriptions
+CREATE INDEX IF NOT EXISTS idx_subscriptions_active_id ON subscriptions (id) WHERE status = 'ACTIVE';
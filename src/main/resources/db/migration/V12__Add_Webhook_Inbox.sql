@@ -0,0 +1,27 @@
+-- V12__Add_Webhook_Inbox.sql
+-- Durable inbox for inbound Authorize.Net webhooks. The controller verifies the signature,
+-- appends the event here and acknowledges; WebhookInboxService consumers process it later.
+-- Rows are only ever inserted by the controller; consumers record the processing outcome
+-- and processed rows are purged after the retention period.
+CREATE TABLE IF NOT EXISTS webhook_inbox (
+    id BIGSERIAL PRIMARY KEY,
+    event_id VARCHAR(255) NOT NULL,
+    event_type VARCHAR(100) NOT NULL,
+    -- Events sharing an ordering key (the Authorize.Net transaction id) are processed in arrival order
+    ordering_key VARCHAR(255) NOT NULL,
+    payload TEXT NOT NULL,
+    correlation_id VARCHAR(100),
+    received_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    status VARCHAR(20) NOT NULL DEFAULT 'PENDING',
+    attempts INTEGER NOT NULL DEFAULT 0,
+    available_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    lease_owner VARCHAR(100),
+    lease_until TIMESTAMP WITH TIME ZONE,
+    last_error TEXT,
+    processed_at TIMESTAMP WITH TIME ZONE,
+    CONSTRAINT uk_webhook_inbox_event UNIQUE (event_id, event_type)
+);
+
+CREATE INDEX IF NOT EXISTS idx_webhook_inbox_unprocessed ON webhook_inbox (id) WHERE processed_at IS NULL;
+CREATE INDEX IF NOT EXISTS idx_webhook_inbox_unprocessed_key ON webhook_inbox (ordering_key, id) WHERE processed_at IS NULL;
+CREATE INDEX IF NOT EXISTS idx_webhook_inbox_processed_at ON webhook_inbox (processed_at) WHERE processed_at IS NOT NULL;
@@ -0,0 +1,17 @@
+-- V13__Add_Transaction_Search_Indexes.sql
+-- Indexes for keyset-paginated transaction search (TransactionSearchService). Pages are
+-- read in (created_at, id) order and resume after the last row of the previous page, so
+-- each page is one index range scan however deep it is. The filter columns are included
+-- in the indexes, so filtered pages are answered by index-only scans without heap reads.
+--
+-- Built CONCURRENTLY so existing transaction writes are not blocked on large tables.
+-- Flyway runs a script made up only of such statements outside a transaction.
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_transactions_search_created_id
+    ON transactions (created_at DESC, id DESC)
+    INCLUDE (customer_id, status, transaction_type, amount, currency);
+
+-- Per-merchant history, the common case for large customers
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_transactions_search_customer_created_id
+    ON transactions (customer_id, created_at DESC, id DESC)
+    INCLUDE (status, transaction_type, amount, currency);
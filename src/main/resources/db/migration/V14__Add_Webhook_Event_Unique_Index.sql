@@ -0,0 +1,13 @@
+-- V14__Add_Webhook_Event_Unique_Index.sql
+-- One audit row per inbound webhook event. WebhookProcessingService records each event with
+-- INSERT ... ON CONFLICT DO NOTHING on this index and treats a conflict as a duplicate, so an
+-- event is applied once even when Redis is unavailable and the Bloom filter has not seen it.
+
+-- Keep the first row of any event recorded more than once before the index existed
+DELETE FROM webhooks w
+USING webhooks first
+WHERE w.event_id = first.event_id
+  AND w.event_type = first.event_type
+  AND (w.created_at, w.id) > (first.created_at, first.id);
+
+CREATE UNIQUE INDEX IF NOT EXISTS uk_webhooks_event ON webhooks (event_id, event_type);
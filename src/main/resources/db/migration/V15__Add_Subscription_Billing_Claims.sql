@@ -0,0 +1,7 @@
+-- V15__Add_Subscription_Billing_Claims.sql
+-- Billing claims for SubscriptionBillingEngine. An attempt to bill a subscription claims it
+-- with a token and lease in a short transaction, charges it with no transaction open and
+-- releases the claim when it records the result. No row lock is held during the gateway
+-- call; another attempt can only claim the subscription once the lease has run out.
+ALTER TABLE subscriptions ADD COLUMN IF NOT EXISTS billing_claim VARCHAR(64);
+ALTER TABLE subscriptions ADD COLUMN IF NOT EXISTS billing_claimed_until TIMESTAMP WITH TIME ZONE;
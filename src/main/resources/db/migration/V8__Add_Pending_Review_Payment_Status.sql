@@ -0,0 +1,10 @@
+-- V8__Add_Pending_Review_Payment_Status.sql
+-- PENDING_REVIEW marks transactions whose gateway outcome could not be determined
+-- (e.g. the process stopped between persisting the PENDING row and recording the
+-- Authorize.Net result). PaymentStatus already declares it; the database enum did not.
+ALTER TYPE payment_status ADD VALUE IF NOT EXISTS 'PENDING_REVIEW';
+
+-- Supports the stale PENDING sweep performed by PendingTransactionRecoveryService
+CREATE INDEX IF NOT EXISTS idx_transactions_pending_created_at
+    ON transactions(created_at)
+    WHERE status = 'PENDING';
@@ -0,0 +1,11 @@
+-- V9__Add_Webhook_Cleanup_Indexes.sql
+-- Supports the batched purge performed by WebhookCleanupService. Each batch selects
+-- the next N expired rows by these columns, so they must be reachable without a
+-- sequential scan over the whole webhooks table.
+CREATE INDEX IF NOT EXISTS idx_webhooks_delivered_cleanup
+    ON webhooks(delivered_at)
+    WHERE status = 'DELIVERED';
+
+CREATE INDEX IF NOT EXISTS idx_webhooks_failed_cleanup
+    ON webhooks(created_at)
+    WHERE status = 'FAILED';
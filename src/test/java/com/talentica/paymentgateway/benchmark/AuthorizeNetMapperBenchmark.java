@@ -0,0 +1,146 @@
+package com.talentica.paymentgateway.benchmark;
+
+import com.talentica.paymentgateway.dto.payment.AddressRequest;
+import com.talentica.paymentgateway.dto.payment.CustomerRequest;
+import com.talentica.paymentgateway.dto.payment.PaymentMethodRequest;
+import com.talentica.paymentgateway.dto.payment.PaymentRequest;
+import com.talentica.paymentgateway.dto.payment.PaymentResponse;
+import com.talentica.paymentgateway.util.AuthorizeNetMapper;
+import net.authorize.api.contract.v1.CreateTransactionRequest;
+import net.authorize.api.contract.v1.CreateTransactionResponse;
+import net.authorize.api.contract.v1.MerchantAuthenticationType;
+import net.authorize.api.contract.v1.MessageTypeEnum;
+import net.authorize.api.contract.v1.MessagesType;
+import net.authorize.api.contract.v1.TransactionResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Request/response mapping around every Authorize.Net call.
+ *
+ * @author Payment Gateway Team
+ * @version 1.0.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AuthorizeNetMapperBenchmark {
+
+    private AuthorizeNetMapper mapper;
+    private MerchantAuthenticationType merchant;
+    private PaymentRequest purchaseRequest;
+    private PaymentMethodRequest paymentMethod;
+    private CreateTransactionResponse approvedResponse;
+    private CreateTransactionResponse declinedResponse;
+
+    @Setup
+    public void setUp() {
+        mapper = new AuthorizeNetMapper();
+
+        merchant = new MerchantAuthenticationType();
+        merchant.setName("benchmark-login");
+        merchant.setTransactionKey("benchmark-key");
+
+        paymentMethod = PaymentMethodRequest.builder()
+            .type("CREDIT_CARD")
+            .cardNumber("4111111111111111")
+            .expiryMonth("12")
+            .expiryYear("2030")
+            .cvv("123")
+            .cardholderName("Jane Doe")
+            .build();
+
+        AddressRequest billingAddress = new AddressRequest();
+        billingAddress.setFirstName("Jane");
+        billingAddress.setLastName("Doe");
+        billingAddress.setAddress1("1 Market Street");
+        billingAddress.setCity("San Francisco");
+        billingAddress.setState("CA");
+        billingAddress.setZipCode("94105");
+        billingAddress.setCountry("US");
+
+        purchaseRequest = new PaymentRequest();
+        purchaseRequest.setAmount(new BigDecimal("49.99"));
+        purchaseRequest.setCurrency("USD");
+        purchaseRequest.setDescription("Benchmark purchase");
+        purchaseRequest.setInvoiceNumber("INV-0001");
+        purchaseRequest.setPaymentMethod(paymentMethod);
+        purchaseRequest.setBillingAddress(billingAddress);
+        purchaseRequest.setCustomer(CustomerRequest.builder()
+            .email("jane.doe@example.com")
+            .firstName("Jane")
+            .lastName("Doe")
+            .build());
+
+        approvedResponse = approvedResponse();
+        declinedResponse = declinedResponse();
+    }
+
+    @Benchmark
+    public CreateTransactionRequest mapToPurchaseTransaction() {
+        return mapper.mapToPurchaseTransaction(purchaseRequest, merchant);
+    }
+
+    @Benchmark
+    public PaymentResponse mapToPaymentResponseApproved() {
+        return mapper.mapToPaymentResponse(approvedResponse, "txn_benchmark", "PURCHASE", paymentMethod, "corr-benchmark");
+    }
+
+    @Benchmark
+    public PaymentResponse mapToPaymentResponseDeclined() {
+        return mapper.mapToPaymentResponse(declinedResponse, "txn_benchmark", "PURCHASE", paymentMethod, "corr-benchmark");
+    }
+
+    private static CreateTransactionResponse approvedResponse() {
+        MessagesType messages = new MessagesType();
+        messages.setResultCode(MessageTypeEnum.OK);
+
+        TransactionResponse.Messages.Message message = new TransactionResponse.Messages.Message();
+        message.setCode("1");
+        message.setDescription("This transaction has been approved.");
+        TransactionResponse.Messages transactionMessages = new TransactionResponse.Messages();
+        transactionMessages.getMessage().add(message);
+
+        TransactionResponse transactionResponse = new TransactionResponse();
+        transactionResponse.setResponseCode("1");
+        transactionResponse.setTransId("60123456789");
+        transactionResponse.setAuthCode("ABC123");
+        transactionResponse.setAvsResultCode("Y");
+        transactionResponse.setCvvResultCode("M");
+        transactionResponse.setAccountNumber("XXXX1111");
+        transactionResponse.setAccountType("Visa");
+        transactionResponse.setMessages(transactionMessages);
+
+        CreateTransactionResponse response = new CreateTransactionResponse();
+        response.setMessages(messages);
+        response.setTransactionResponse(transactionResponse);
+        return response;
+    }
+
+    private static CreateTransactionResponse declinedResponse() {
+        MessagesType.Message message = new MessagesType.Message();
+        message.setCode("E00027");
+        message.setText("The transaction was unsuccessful.");
+        MessagesType messages = new MessagesType();
+        messages.setResultCode(MessageTypeEnum.ERROR);
+        messages.getMessage().add(message);
+
+        CreateTransactionResponse response = new CreateTransactionResponse();
+        response.setMessages(messages);
+        return response;
+    }
+}
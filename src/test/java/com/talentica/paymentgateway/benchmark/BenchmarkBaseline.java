@@ -0,0 +1,128 @@
+package com.talentica.paymentgateway.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compares a JMH JSON result file against the committed baseline.
+ *
+ * Usage, after {@code mvn -Pbenchmark -DskipTests package}:
+ * <pre>
+ * java -jar target/benchmarks.jar -rf json -rff target/jmh-result.json
+ * java -cp target/benchmarks.jar com.talentica.paymentgateway.benchmark.BenchmarkBaseline \
+ *      target/jmh-result.json src/test/resources/benchmark/baseline.json [maxRegressionPercent]
+ * </pre>
+ * Exits with status 1 when any benchmark is slower than its baseline by more than the
+ * allowed percentage (default 10). Passing {@code --update} as the last argument replaces
+ * the baseline with the given results instead; the baseline should only be refreshed from
+ * runs on the reference machine.
+ *
+ * @author Payment Gateway Team
+ * @version 1.0.0
+ */
+public final class BenchmarkBaseline {
+
+    private static final double DEFAULT_MAX_REGRESSION_PERCENT = 10.0;
+
+    private BenchmarkBaseline() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: BenchmarkBaseline <results.json> <baseline.json> [maxRegressionPercent|--update]");
+            System.exit(2);
+        }
+        Path results = Path.of(args[0]);
+        Path baseline = Path.of(args[1]);
+
+        if (args.length > 2 && "--update".equals(args[2])) {
+            Files.createDirectories(baseline.toAbsolutePath().getParent());
+            Files.copy(results, baseline, StandardCopyOption.REPLACE_EXISTING);
+            System.out.println("Baseline updated from " + results);
+            return;
+        }
+
+        double maxRegressionPercent = args.length > 2 ? Double.parseDouble(args[2]) : DEFAULT_MAX_REGRESSION_PERCENT;
+        List<String> regressions = compare(read(results), read(baseline), maxRegressionPercent);
+        if (!regressions.isEmpty()) {
+            System.err.println(regressions.size() + " benchmark(s) regressed by more than " + maxRegressionPercent + "%");
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Prints a comparison table and returns the keys of regressed benchmarks.
+     */
+    static List<String> compare(Map<String, Score> current, Map<String, Score> baseline, double maxRegressionPercent) {
+        List<String> regressions = new ArrayList<>();
+        System.out.printf("%-90s %14s %14s %9s%n", "Benchmark", "Baseline", "Current", "Change");
+        for (Map.Entry<String, Score> entry : current.entrySet()) {
+            Score now = entry.getValue();
+            Score before = baseline.get(entry.getKey());
+            if (before == null || !before.unit().equals(now.unit())) {
+                System.out.printf("%-90s %14s %14.3f %9s%n", entry.getKey(), "-", now.value(), "new");
+                continue;
+            }
+            double regressionPercent = now.regressionPercentFrom(before);
+            boolean regressed = regressionPercent > maxRegressionPercent;
+            if (regressed) {
+                regressions.add(entry.getKey());
+            }
+            System.out.printf("%-90s %14.3f %14.3f %+8.1f%%%s%n", entry.getKey(), before.value(), now.value(),
+                regressionPercent, regressed ? "  REGRESSION" : "");
+        }
+        return regressions;
+    }
+
+    /**
+     * Reads a JMH JSON result file into scores keyed by benchmark name and parameters.
+     */
+    static Map<String, Score> read(Path path) throws IOException {
+        Map<String, Score> scores = new LinkedHashMap<>();
+        if (!Files.exists(path)) {
+            return scores;
+        }
+        JsonNode root = new ObjectMapper().readTree(path.toFile());
+        for (JsonNode result : root) {
+            StringBuilder key = new StringBuilder(result.path("benchmark").asText());
+            JsonNode params = result.path("params");
+            Iterator<Map.Entry<String, JsonNode>> fields = params.fields();
+            while (fields.hasNext()) {
+                Map.Entry<String, JsonNode> param = fields.next();
+                key.append(key.indexOf(":") < 0 ? ":" : ",").append(param.getKey()).append('=').append(param.getValue().asText());
+            }
+            JsonNode metric = result.path("primaryMetric");
+            scores.put(key.toString(), new Score(result.path("mode").asText(),
+                metric.path("score").asDouble(), metric.path("scoreUnit").asText()));
+        }
+        return scores;
+    }
+
+    /**
+     * Primary metric of one benchmark run.
+     */
+    record Score(String mode, double value, String unit) {
+
+        /**
+         * Positive when this score is worse than the baseline: slower for time modes,
+         * lower for throughput.
+         */
+        double regressionPercentFrom(Score baseline) {
+            if (baseline.value() == 0) {
+                return 0;
+            }
+            double change = (value - baseline.value()) / baseline.value() * 100.0;
+            return "thrpt".equals(mode) ? -change : change;
+        }
+    }
+}
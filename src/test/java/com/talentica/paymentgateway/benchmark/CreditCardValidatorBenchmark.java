@@ -0,0 +1,52 @@
+package com.talentica.paymentgateway.benchmark;
+
+import com.talentica.paymentgateway.validation.CreditCardValidator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Card number validation run on every payment request.
+ *
+ * @author Payment Gateway Team
+ * @version 1.0.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CreditCardValidatorBenchmark {
+
+    private CreditCardValidator validator;
+
+    @Setup
+    public void setUp() {
+        validator = new CreditCardValidator();
+    }
+
+    @Benchmark
+    public boolean validCardNumber() {
+        return validator.isValid("4532015112830366", null);
+    }
+
+    @Benchmark
+    public boolean formattedCardNumber() {
+        return validator.isValid("4532 0151 1283 0366", null);
+    }
+
+    @Benchmark
+    public boolean invalidLuhnCardNumber() {
+        return validator.isValid("4532015112830367", null);
+    }
+}
@@ -0,0 +1,66 @@
+package com.talentica.paymentgateway.benchmark;
+
+import com.talentica.paymentgateway.validation.InputSanitizer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Input sanitization applied to payment and customer fields.
+ *
+ * @author Payment Gateway Team
+ * @version 1.0.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class InputSanitizerBenchmark {
+
+    private static final String DESCRIPTION = "Order #10492 - 2x Premium widgets, gift wrapped for Jane O'Neil";
+    private static final String HOSTILE_DESCRIPTION =
+        "<script>alert('x')</script>Order #10492 <b>gift</b> wrapped'; DROP TABLE transactions; --";
+
+    private InputSanitizer sanitizer;
+
+    @Setup
+    public void setUp() {
+        sanitizer = new InputSanitizer();
+    }
+
+    @Benchmark
+    public String sanitizeText() {
+        return sanitizer.sanitizeText(DESCRIPTION);
+    }
+
+    @Benchmark
+    public String sanitizeHostileText() {
+        return sanitizer.sanitizeText(HOSTILE_DESCRIPTION);
+    }
+
+    @Benchmark
+    public String sanitizeEmail() {
+        return sanitizer.sanitizeEmail("Jane.Doe+orders@Example.com");
+    }
+
+    @Benchmark
+    public String sanitizeCardNumber() {
+        return sanitizer.sanitizeCardNumber("4111-1111-1111-1111");
+    }
+
+    @Benchmark
+    public boolean isSafeInput() {
+        return sanitizer.isSafeInput(DESCRIPTION);
+    }
+}
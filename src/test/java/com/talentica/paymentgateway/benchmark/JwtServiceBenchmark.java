@@ -0,0 +1,146 @@
+package com.talentica.paymentgateway.benchmark;
+
+import com.talentica.paymentgateway.config.ApplicationConfig;
+import com.talentica.paymentgateway.service.JwtClaims;
+import com.talentica.paymentgateway.service.JwtService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token parsing and validation performed by the JWT filter on every authenticated request.
+ *
+ * legacyFilterParses replays the filter before claims were parsed once: four full
+ * verifications, each deriving the key and building a parser. filterParseOnce is the
+ * current filter path for a token seen before; verifyOnce is the cost of a first sighting.
+ *
+ * @author Payment Gateway Team
+ * @version 1.0.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtServiceBenchmark {
+
+    private static final String SECRET = "benchmarkSecretKeyForJwtTokenGenerationAndValidation1234567890";
+
+    private JwtService jwtService;
+    private JwtParser parser;
+    private UserDetails user;
+    private String accessToken;
+
+    @Setup
+    public void setUp() {
+        ApplicationConfig.AppProperties.Jwt jwt = new ApplicationConfig.AppProperties.Jwt();
+        jwt.setSecret(SECRET);
+        jwt.setExpiration(86400000L);
+        jwt.setRefreshExpiration(604800000L);
+        ApplicationConfig.AppProperties appProperties = new ApplicationConfig.AppProperties();
+        appProperties.setJwt(jwt);
+
+        jwtService = new JwtService(appProperties);
+        user = new User("benchmark@example.com", "password",
+            List.of(new SimpleGrantedAuthority("ROLE_USER"), new SimpleGrantedAuthority("ROLE_CUSTOMER")));
+        accessToken = jwtService.generateAccessToken(user);
+        parser = Jwts.parser().verifyWith(signingKey()).build();
+    }
+
+    @Benchmark
+    public String extractUsername() {
+        return jwtService.extractUsername(accessToken);
+    }
+
+    @Benchmark
+    public boolean isTokenValid() {
+        return jwtService.isTokenValid(accessToken, user);
+    }
+
+    /**
+     * Reads each claim through the JwtService accessors, which share one cached verification.
+     */
+    @Benchmark
+    public boolean filterClaimReads() {
+        String username = jwtService.extractUsername(accessToken);
+        String authorities = jwtService.extractAuthorities(accessToken);
+        return username != null && authorities != null
+            && jwtService.isAccessToken(accessToken)
+            && jwtService.isTokenValid(accessToken, user);
+    }
+
+    @Benchmark
+    public String generateAccessToken() {
+        return jwtService.generateAccessToken(user);
+    }
+
+    /**
+     * The filter before this change: one key derivation and full verification per claim read.
+     */
+    @Benchmark
+    public boolean legacyFilterParses() {
+        String username = legacyParse().getSubject();
+        String tokenType = legacyParse().get("token_type", String.class);
+        String authorities = legacyParse().get("authorities", String.class);
+        Claims claims = legacyParse();
+        return username != null && authorities != null && "access".equals(tokenType)
+            && username.equals(claims.getSubject());
+    }
+
+    @Benchmark
+    public boolean filterParseOnce() {
+        JwtClaims claims = jwtService.parseToken(accessToken);
+        return claims.subject() != null && claims.isAccessToken() && !claims.authorities().isEmpty();
+    }
+
+    @Benchmark
+    public Claims verifyOnce() {
+        return parser.parseSignedClaims(accessToken).getPayload();
+    }
+
+    private Claims legacyParse() {
+        return Jwts.parser().verifyWith(signingKey()).build().parseSignedClaims(accessToken).getPayload();
+    }
+
+    /**
+     * Same derivation as JwtService: Base64 if it decodes, else UTF-8, padded to 32 bytes.
+     */
+    private static SecretKey signingKey() {
+        byte[] keyBytes;
+        try {
+            keyBytes = Decoders.BASE64.decode(SECRET);
+        } catch (Exception e) {
+            keyBytes = SECRET.getBytes(StandardCharsets.UTF_8);
+        }
+        if (keyBytes.length < 32) {
+            byte[] paddedKey = new byte[32];
+            System.arraycopy(keyBytes, 0, paddedKey, 0, keyBytes.length);
+            for (int i = keyBytes.length; i < 32; i++) {
+                paddedKey[i] = keyBytes[i % keyBytes.length];
+            }
+            keyBytes = paddedKey;
+        }
+        return Keys.hmacShaKeyFor(keyBytes);
+    }
+}
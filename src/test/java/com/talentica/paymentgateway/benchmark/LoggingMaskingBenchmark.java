@@ -0,0 +1,123 @@
+package com.talentica.paymentgateway.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.talentica.paymentgateway.security.RequestResponseLoggingFilter;
+import com.talentica.paymentgateway.util.SensitiveDataMasker;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Sensitive-data masking applied by {@link RequestResponseLoggingFilter} to logged bodies.
+ *
+ * Compares the streaming {@link SensitiveDataMasker} with the previous approach, kept here:
+ * a JSON tree walk followed by card and SSN regexes over the serialized result. Neither side
+ * truncates, so both mask the whole payload. Run with -prof gc to compare allocation.
+ *
+ * @author Payment Gateway Team
+ * @version 1.0.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LoggingMaskingBenchmark {
+
+    private static final String PAYMENT_ITEM = """
+        {"amount":49.99,"currency":"USD","description":"Order 10492",\
+        "paymentMethod":{"type":"CREDIT_CARD","cardNumber":"4111111111111111","expiryMonth":"12",\
+        "expiryYear":"2030","cvv":"123","cardholderName":"Jane Doe"},\
+        "customer":{"email":"jane.doe@example.com","firstName":"Jane","lastName":"Doe","phone":"415-555-0100"},\
+        "metadata":{"note":"card 4111 1111 1111 1111 on file","ssn":"123-45-6789"}}""";
+
+    private static final Set<String> SENSITIVE_FIELDS = Set.of("cardnumber", "cvv", "ssn");
+    private static final Pattern CREDIT_CARD_PATTERN = Pattern.compile("\\b\\d{4}[\\s-]?\\d{4}[\\s-]?\\d{4}[\\s-]?\\d{4}\\b");
+    private static final Pattern SSN_PATTERN = Pattern.compile("\\b\\d{3}-\\d{2}-\\d{4}\\b");
+
+    @Param({"1", "10", "100"})
+    public int payloadKb;
+
+    private ObjectMapper objectMapper;
+    private SensitiveDataMasker masker;
+    private String jsonBody;
+    private byte[] jsonBytes;
+    private String textBody;
+
+    @Setup
+    public void setUp() {
+        objectMapper = new ObjectMapper();
+        masker = new SensitiveDataMasker(objectMapper.getFactory(), SENSITIVE_FIELDS, Integer.MAX_VALUE);
+
+        StringBuilder json = new StringBuilder("{\"payments\":[");
+        while (json.length() < payloadKb * 1024) {
+            if (json.charAt(json.length() - 1) == '}') {
+                json.append(',');
+            }
+            json.append(PAYMENT_ITEM);
+        }
+        jsonBody = json.append("]}").toString();
+        jsonBytes = jsonBody.getBytes(StandardCharsets.UTF_8);
+        textBody = jsonBody.replace('"', ' ');
+    }
+
+    @Benchmark
+    public String treeMaskJsonBody() throws Exception {
+        // The filter decoded the captured bytes before masking
+        JsonNode node = objectMapper.readTree(new String(jsonBytes, StandardCharsets.UTF_8));
+        maskFields(node);
+        return maskWithPatterns(objectMapper.writeValueAsString(node));
+    }
+
+    @Benchmark
+    public String streamingMaskJsonBody() {
+        return masker.maskBody(jsonBytes);
+    }
+
+    @Benchmark
+    public String regexMaskPlainTextBody() {
+        return maskWithPatterns(textBody);
+    }
+
+    @Benchmark
+    public String scannerMaskPlainTextBody() {
+        return masker.maskText(textBody);
+    }
+
+    private static void maskFields(JsonNode node) {
+        if (node instanceof ObjectNode objectNode) {
+            objectNode.fieldNames().forEachRemaining(fieldName -> {
+                if (SENSITIVE_FIELDS.contains(fieldName.toLowerCase())) {
+                    objectNode.put(fieldName, SensitiveDataMasker.MASKED_VALUE);
+                } else {
+                    maskFields(objectNode.get(fieldName));
+                }
+            });
+        } else if (node.isArray()) {
+            for (JsonNode item : node) {
+                maskFields(item);
+            }
+        }
+    }
+
+    private static String maskWithPatterns(String content) {
+        String masked = CREDIT_CARD_PATTERN.matcher(content).replaceAll("****-****-****-****");
+        return SSN_PATTERN.matcher(masked).replaceAll("***-**-****");
+    }
+}
@@ -0,0 +1,88 @@
+package com.talentica.paymentgateway.benchmark;
+
+import com.talentica.paymentgateway.service.MetricsService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-call cost of tagged counters on the request path.
+ *
+ * The legacy benchmarks build and register the meter on every call, as MetricsService did
+ * before meters tagged with request-supplied values moved to the bounded meter cache.
+ *
+ * @author Payment Gateway Team
+ * @version 1.0.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class MetricsServiceBenchmark {
+
+    private static final String EVENT_TYPE = "net.authorize.payment.authcapture.created";
+
+    private String[] apiKeyIds;
+    private MeterRegistry legacyRegistry;
+    private MetricsService metricsService;
+
+    @Setup
+    public void setUp() {
+        apiKeyIds = new String[32];
+        for (int i = 0; i < apiKeyIds.length; i++) {
+            apiKeyIds[i] = "pk_live_" + i;
+        }
+        legacyRegistry = new SimpleMeterRegistry();
+        metricsService = new MetricsService(new SimpleMeterRegistry());
+    }
+
+    @Benchmark
+    public void legacyApiKeyUsage() {
+        Counter.builder("api.key.usage.by.key")
+                .tag("key_id", nextApiKey())
+                .description("API key usage by key ID")
+                .register(legacyRegistry)
+                .increment();
+    }
+
+    @Benchmark
+    public void boundedApiKeyUsage() {
+        metricsService.recordApiKeyUsage(nextApiKey());
+    }
+
+    @Benchmark
+    public void legacyWebhookProcessed() {
+        Counter.builder("webhook.processed.total")
+                .tag("event_type", EVENT_TYPE)
+                .tag("status", "success")
+                .description("Total webhooks processed by event type and status")
+                .register(legacyRegistry)
+                .increment();
+    }
+
+    @Benchmark
+    public void boundedWebhookProcessed() {
+        metricsService.incrementWebhookProcessed(EVENT_TYPE, "success");
+    }
+
+    private String nextApiKey() {
+        return apiKeyIds[ThreadLocalRandom.current().nextInt(apiKeyIds.length)];
+    }
+}
@@ -0,0 +1,77 @@
+package com.talentica.paymentgateway.benchmark;
+
+import com.talentica.paymentgateway.dto.subscription.ProrationCalculation;
+import com.talentica.paymentgateway.entity.Subscription;
+import com.talentica.paymentgateway.entity.SubscriptionPlan;
+import com.talentica.paymentgateway.service.ProrationService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.time.ZonedDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Proration for mid-period plan changes, run per subscription during plan changes and billing.
+ *
+ * @author Payment Gateway Team
+ * @version 1.0.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProrationServiceBenchmark {
+
+    private ProrationService prorationService;
+    private Subscription subscription;
+    private SubscriptionPlan upgradePlan;
+    private SubscriptionPlan downgradePlan;
+    private ZonedDateTime changeDate;
+
+    @Setup
+    public void setUp() {
+        prorationService = new ProrationService();
+
+        ZonedDateTime periodStart = ZonedDateTime.parse("2024-05-01T00:00:00Z");
+        changeDate = periodStart.plusDays(10).plusHours(7);
+
+        subscription = new Subscription();
+        subscription.setSubscriptionId("sub_benchmark");
+        subscription.setPlan(plan("STANDARD", "100.00"));
+        subscription.setCurrentPeriodStart(periodStart);
+        subscription.setCurrentPeriodEnd(periodStart.plusDays(30));
+
+        upgradePlan = plan("PREMIUM", "249.00");
+        downgradePlan = plan("BASIC", "29.00");
+    }
+
+    @Benchmark
+    public ProrationCalculation upgrade() {
+        return prorationService.calculateProration(subscription, upgradePlan, changeDate);
+    }
+
+    @Benchmark
+    public ProrationCalculation downgrade() {
+        return prorationService.calculateProration(subscription, downgradePlan, changeDate);
+    }
+
+    private static SubscriptionPlan plan(String planCode, String amount) {
+        SubscriptionPlan plan = new SubscriptionPlan();
+        plan.setPlanCode(planCode);
+        plan.setName(planCode);
+        plan.setAmount(new BigDecimal(amount));
+        plan.setCurrency("USD");
+        return plan;
+    }
+}
@@ -0,0 +1,113 @@
+package com.talentica.paymentgateway.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.talentica.paymentgateway.config.properties.WebhookProperties;
+import com.talentica.paymentgateway.dto.webhook.AuthorizeNetWebhookRequest;
+import com.talentica.paymentgateway.util.WebhookSignatureVerifier;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * HMAC verification of incoming Authorize.Net webhooks.
+ *
+ * The legacy benchmark reproduces the previous request path, which re-serialized the parsed
+ * payload with a new ObjectMapper and created a Mac per call, for comparison with verifying
+ * the captured request bytes against pre-initialised per-thread Mac instances.
+ *
+ * @author Payment Gateway Team
+ * @version 1.0.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class WebhookSignatureVerifierBenchmark {
+
+    private static final String PAYLOAD = """
+        {"notificationId":"d0e8e7fe-c3e7-4add-a480-27bc5ce28a18","eventType":"net.authorize.payment.authcapture.created",        "eventDate":"2024-05-01T16:43:12.123Z","webhookId":"63d6fea2-aa13-4b1d-a204-f5fbc15942b7",        "payload":{"responseCode":1,"authCode":"LZ6I19","avsResponse":"Y","authAmount":45.00,        "entityName":"transaction","id":"60020981676"}}""";
+
+    private static final String SECRET = "5AB2C3D4E5F60718293A4B5C6D7E8F90";
+    private static final byte[] RAW_BODY = PAYLOAD.getBytes(StandardCharsets.UTF_8);
+
+    private WebhookSignatureVerifier verifier;
+    private WebhookSignatureVerifier rotatingVerifier;
+    private AuthorizeNetWebhookRequest parsedRequest;
+    private Map<String, String> validHeaders;
+    private Map<String, String> invalidHeaders;
+    private Map<String, String> rotatedHeaders;
+
+    @Setup
+    public void setUp() throws Exception {
+        WebhookProperties properties = new WebhookProperties();
+        properties.getSignature().setSecret(SECRET);
+        properties.getSignature().setEnabled(true);
+        verifier = new WebhookSignatureVerifier(properties);
+
+        validHeaders = Map.of("Content-Type", "application/json", "X-ANET-Signature", verifier.generateSignature(PAYLOAD));
+        invalidHeaders = Map.of("Content-Type", "application/json", "X-ANET-Signature", "0".repeat(64));
+
+        // Mid-rotation: the sender still signs with the previous secret, so every check computes two HMACs
+        WebhookProperties rotating = new WebhookProperties();
+        rotating.getSignature().setSecret("new-" + SECRET);
+        rotating.getSignature().setAdditionalSecrets(List.of(SECRET));
+        rotatingVerifier = new WebhookSignatureVerifier(rotating);
+        rotatedHeaders = validHeaders;
+
+        parsedRequest = new ObjectMapper().registerModule(new JavaTimeModule())
+            .readValue(PAYLOAD, AuthorizeNetWebhookRequest.class);
+    }
+
+    @Benchmark
+    public boolean verifyValidSignature() {
+        return verifier.verifySignature(validHeaders, PAYLOAD);
+    }
+
+    @Benchmark
+    public boolean verifyInvalidSignature() {
+        return verifier.verifySignature(invalidHeaders, PAYLOAD);
+    }
+
+    @Benchmark
+    public boolean verifyRawBody() {
+        return verifier.verifySignature(validHeaders, RAW_BODY);
+    }
+
+    @Benchmark
+    public boolean verifyRawBodyDuringRotation() {
+        return rotatingVerifier.verifySignature(rotatedHeaders, RAW_BODY);
+    }
+
+    @Benchmark
+    public boolean legacyReserializeAndVerify() throws Exception {
+        ObjectMapper mapper = new ObjectMapper();
+        mapper.registerModule(new JavaTimeModule());
+        String payload = mapper.writeValueAsString(parsedRequest);
+
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(SECRET.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+        byte[] hash = mac.doFinal(payload.getBytes(StandardCharsets.UTF_8));
+        StringBuilder expected = new StringBuilder();
+        for (byte b : hash) {
+            expected.append(String.format("%02x", b));
+        }
+        return expected.toString().equalsIgnoreCase(validHeaders.get("X-ANET-Signature"));
+    }
+}
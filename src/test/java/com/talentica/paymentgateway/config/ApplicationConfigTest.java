@@ -0,0 +1,53 @@
+package com.talentica.paymentgateway.config;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.Executor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ApplicationConfigTest {
+
+    private final ApplicationConfig config = new ApplicationConfig();
+
+    @Test
+    @DisplayName("Uses the bounded platform pool by default")
+    void taskExecutor_DefaultMode_UsesPlatformPool() {
+        ApplicationConfig.AppProperties properties = new ApplicationConfig.AppProperties();
+
+        Executor executor = config.taskExecutor(properties);
+
+        assertThat(executor).isInstanceOf(ThreadPoolTaskExecutor.class);
+        ThreadPoolTaskExecutor pool = (ThreadPoolTaskExecutor) executor;
+        assertThat(pool.getMaxPoolSize()).isEqualTo(20);
+        assertThat(pool.getThreadNamePrefix()).isEqualTo("PaymentGateway-Async-");
+        pool.shutdown();
+    }
+
+    @Test
+    @DisplayName("Uses virtual threads when enabled and supported by the runtime")
+    void taskExecutor_VirtualMode_DependsOnRuntime() {
+        ApplicationConfig.AppProperties properties = new ApplicationConfig.AppProperties();
+        properties.getThreads().setVirtualEnabled(true);
+        properties.getThreads().setAsyncConcurrencyLimit(50);
+
+        Executor executor = config.taskExecutor(properties);
+
+        if (Runtime.version().feature() >= 21) {
+            assertThat(executor).isInstanceOf(SimpleAsyncTaskExecutor.class);
+            assertThat(((SimpleAsyncTaskExecutor) executor).getConcurrencyLimit()).isEqualTo(50);
+        } else {
+            assertThat(executor).isInstanceOf(ThreadPoolTaskExecutor.class);
+            ((ThreadPoolTaskExecutor) executor).shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Virtual thread support follows the JVM feature version")
+    void isVirtualThreadRuntime_MatchesJvmVersion() {
+        assertThat(ApplicationConfig.isVirtualThreadRuntime()).isEqualTo(Runtime.version().feature() >= 21);
+    }
+}
@@ -155,6 +155,20 @@ class AuthorizeNetConfigUnitTest {
         assertEquals(Environment.PRODUCTION, environment);
     }
 
+    @Test
+    void authorizeNetEnvironment_WithCustomEnvironment_ShouldUseBaseUrlHost() {
+        // Given
+        config.setEnvironment(AuthorizeNetConfig.AuthNetEnvironment.CUSTOM);
+        config.setBaseUrl("http://localhost:8089/xml/v1/request.api");
+
+        // When
+        Environment environment = config.authorizeNetEnvironment();
+
+        // Then
+        assertEquals(Environment.CUSTOM, environment);
+        assertEquals("http://localhost:8089", environment.getXmlBaseUrl());
+    }
+
     @Test
     void merchantAuthentication_WithValidCredentials_ShouldReturnMerchantAuth() {
         // Given
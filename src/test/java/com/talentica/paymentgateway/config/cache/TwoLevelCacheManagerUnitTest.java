@@ -0,0 +1,144 @@
+package com.talentica.paymentgateway.config.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for TwoLevelCacheManager.
+ * Tests cache wrapping, invalidation publishing and handling, and level metrics.
+ */
+@ExtendWith(MockitoExtension.class)
+class TwoLevelCacheManagerUnitTest {
+
+    private static final String CHANNEL = "cache:invalidation";
+    private static final String CACHE = "apiKeyValidation";
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    private ConcurrentMapCacheManager remote;
+    private SimpleMeterRegistry meterRegistry;
+    private TwoLevelCacheManager cacheManager;
+
+    @BeforeEach
+    void setUp() {
+        remote = new ConcurrentMapCacheManager(CACHE);
+        meterRegistry = new SimpleMeterRegistry();
+        cacheManager = new TwoLevelCacheManager(remote, redisTemplate, CHANNEL,
+            Map.of(CACHE, new TwoLevelCacheManager.LocalCacheSpec(100, Duration.ofMinutes(1))),
+            new TwoLevelCacheManager.LocalCacheSpec(10, Duration.ofMinutes(1)), meterRegistry);
+        cacheManager.afterPropertiesSet();
+    }
+
+    @Test
+    void getCache_WrapsRemoteCaches() {
+        assertThat(cacheManager.getCacheNames()).containsExactly(CACHE);
+        assertThat(cacheManager.getCache(CACHE)).isInstanceOf(TwoLevelCache.class);
+        assertThat(cacheManager.getCache("unknown")).isNull();
+    }
+
+    @Test
+    void evict_PublishesInvalidationFromThisNode() {
+        cacheManager.getCache(CACHE).evict("key_1");
+
+        verify(redisTemplate).convertAndSend(CHANNEL, cacheManager.nodeId() + "|" + CACHE + "|Kkey_1");
+    }
+
+    @Test
+    void evict_WithRedisDown_StillEvictsLocally() {
+        when(redisTemplate.convertAndSend(anyString(), any())).thenThrow(new IllegalStateException("down"));
+        Cache cache = cacheManager.getCache(CACHE);
+        remote.getCache(CACHE).put("key_1", "value");
+        cache.get("key_1");
+
+        cache.evict("key_1");
+
+        assertThat(cache.get("key_1")).isNull();
+    }
+
+    @Test
+    void onMessage_FromOtherNode_DropsLocalEntry() {
+        TwoLevelCache cache = (TwoLevelCache) cacheManager.getCache(CACHE);
+        remote.getCache(CACHE).put("key_1", "old");
+        cache.get("key_1");
+        remote.getCache(CACHE).put("key_1", "new");
+
+        cacheManager.onMessage(message("node_2|" + CACHE + "|Kkey_1"), null);
+
+        assertThat(cache.get("key_1").get()).isEqualTo("new");
+    }
+
+    @Test
+    void onMessage_WithClear_DropsAllLocalEntries() {
+        TwoLevelCache cache = (TwoLevelCache) cacheManager.getCache(CACHE);
+        remote.getCache(CACHE).put("key_1", "value");
+        cache.get("key_1");
+
+        cacheManager.onMessage(message("node_2|" + CACHE + "|C"), null);
+
+        assertThat(cache.localSize()).isZero();
+    }
+
+    @Test
+    void onMessage_FromThisNode_IsIgnored() {
+        TwoLevelCache cache = (TwoLevelCache) cacheManager.getCache(CACHE);
+        remote.getCache(CACHE).put("key_1", "value");
+        cache.get("key_1");
+
+        cacheManager.onMessage(message(cacheManager.nodeId() + "|" + CACHE + "|Kkey_1"), null);
+
+        assertThat(cache.localSize()).isEqualTo(1);
+    }
+
+    @Test
+    void onMessage_WithMalformedBody_IsIgnored() {
+        cacheManager.onMessage(message("garbage"), null);
+        cacheManager.onMessage(message("node_2|" + CACHE + "|X"), null);
+
+        assertThat(cacheManager.getCache(CACHE)).isNotNull();
+    }
+
+    @Test
+    void cacheInvalidation_RoundTripsKeysWithSeparators() {
+        TwoLevelCacheManager.CacheInvalidation invalidation =
+            new TwoLevelCacheManager.CacheInvalidation("node_1", CACHE, "a|b");
+
+        assertThat(TwoLevelCacheManager.CacheInvalidation.decode(invalidation.encode())).isEqualTo(invalidation);
+    }
+
+    @Test
+    void metrics_PublishHitRatioPerLevel() {
+        Cache cache = cacheManager.getCache(CACHE);
+        remote.getCache(CACHE).put("key_1", "value");
+        cache.get("key_1");
+        cache.get("key_1");
+        cache.get("missing");
+
+        assertThat(meterRegistry.get("cache.level.hit.ratio").tag("cache", CACHE).tag("level", "l1")
+            .gauge().value()).isEqualTo(1.0 / 3);
+        assertThat(meterRegistry.get("cache.level.hit.ratio").tag("cache", CACHE).tag("level", "l2")
+            .gauge().value()).isEqualTo(0.5);
+        assertThat(meterRegistry.get("cache.level.requests").tag("cache", CACHE).tag("level", "l2")
+            .tag("result", "miss").functionCounter().count()).isEqualTo(1.0);
+    }
+
+    private static DefaultMessage message(String body) {
+        return new DefaultMessage(CHANNEL.getBytes(StandardCharsets.UTF_8), body.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,130 @@
+package com.talentica.paymentgateway.config.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+import java.util.function.BiConsumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for TwoLevelCache.
+ * Tests read-through from the remote cache, write ordering, invalidation announcements and hit counts.
+ */
+@ExtendWith(MockitoExtension.class)
+class TwoLevelCacheUnitTest {
+
+    @Mock
+    private BiConsumer<String, String> invalidationPublisher;
+
+    private Cache remote;
+    private TwoLevelCache cache;
+
+    @BeforeEach
+    void setUp() {
+        remote = spy(new ConcurrentMapCache("apiKeyValidation", false));
+        cache = new TwoLevelCache("apiKeyValidation", Caffeine.newBuilder().maximumSize(100).build(),
+            remote, invalidationPublisher);
+    }
+
+    @Test
+    void get_WithRemoteHit_KeepsValueLocally() {
+        remote.put("key_1", true);
+
+        assertThat(cache.get("key_1").get()).isEqualTo(true);
+        assertThat(cache.get("key_1").get()).isEqualTo(true);
+
+        verify(remote, times(1)).get("key_1");
+        assertThat(cache.localStats().hits()).isEqualTo(1);
+        assertThat(cache.localStats().misses()).isEqualTo(1);
+        assertThat(cache.remoteStats().hits()).isEqualTo(1);
+        assertThat(cache.localStats().hitRatio()).isEqualTo(0.5);
+    }
+
+    @Test
+    void get_WithMissOnBothLevels_ReturnsNull() {
+        assertThat(cache.get("missing")).isNull();
+
+        assertThat(cache.remoteStats().misses()).isEqualTo(1);
+        assertThat(cache.localSize()).isZero();
+    }
+
+    @Test
+    void getWithType_WithWrongType_Throws() {
+        remote.put("key_1", "text");
+
+        assertThatThrownBy(() -> cache.get("key_1", Integer.class))
+            .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void getWithLoader_LoadsOnceAndCountsRemoteMiss() {
+        assertThat(cache.get("key_1", () -> "loaded")).isEqualTo("loaded");
+        assertThat(cache.get("key_1", () -> "reloaded")).isEqualTo("loaded");
+
+        assertThat(remote.get("key_1").get()).isEqualTo("loaded");
+        assertThat(cache.remoteStats().misses()).isEqualTo(1);
+        assertThat(cache.localStats().hits()).isEqualTo(1);
+        verifyNoInteractions(invalidationPublisher);
+    }
+
+    @Test
+    void put_WritesBothLevelsAndAnnouncesKey() {
+        cache.put("key_1", "value");
+
+        assertThat(remote.get("key_1").get()).isEqualTo("value");
+        assertThat(cache.get("key_1").get()).isEqualTo("value");
+        assertThat(cache.localStats().hits()).isEqualTo(1);
+        verify(invalidationPublisher).accept("apiKeyValidation", "key_1");
+    }
+
+    @Test
+    void evict_RemovesBothLevelsAndAnnouncesKey() {
+        cache.put("key_1", "value");
+
+        cache.evict("key_1");
+
+        assertThat(remote.get("key_1")).isNull();
+        assertThat(cache.get("key_1")).isNull();
+        verify(invalidationPublisher, times(2)).accept("apiKeyValidation", "key_1");
+    }
+
+    @Test
+    void clear_AnnouncesWholeCache() {
+        cache.put("key_1", "value");
+
+        cache.clear();
+
+        assertThat(cache.localSize()).isZero();
+        verify(invalidationPublisher).accept("apiKeyValidation", null);
+    }
+
+    @Test
+    void putIfAbsent_WithExistingRemoteValue_KeepsRemoteValueWithoutAnnouncing() {
+        remote.put("key_1", "existing");
+
+        Cache.ValueWrapper existing = cache.putIfAbsent("key_1", "new");
+
+        assertThat(existing.get()).isEqualTo("existing");
+        assertThat(cache.get("key_1").get()).isEqualTo("existing");
+        verifyNoInteractions(invalidationPublisher);
+    }
+
+    @Test
+    void evictLocal_LeavesRemoteEntry() {
+        cache.put("key_1", "value");
+
+        cache.evictLocal("key_1");
+
+        assertThat(cache.localSize()).isZero();
+        assertThat(remote.get("key_1").get()).isEqualTo("value");
+    }
+}
@@ -7,6 +7,8 @@ import com.talentica.paymentgateway.dto.analytics.ComplianceReport;
 import com.talentica.paymentgateway.dto.analytics.FailedPaymentAnalysis;
 import com.talentica.paymentgateway.dto.analytics.TransactionReportRequest;
 import com.talentica.paymentgateway.dto.analytics.TransactionReportResponse;
+import com.talentica.paymentgateway.dto.analytics.TransactionSearchRequest;
+import com.talentica.paymentgateway.dto.analytics.TransactionSearchResponse;
 import com.talentica.paymentgateway.dto.metrics.DashboardMetrics;
 import com.talentica.paymentgateway.dto.metrics.RevenueMetrics;
 import com.talentica.paymentgateway.dto.metrics.SubscriptionMetrics;
@@ -14,6 +16,10 @@ import com.talentica.paymentgateway.dto.metrics.TransactionMetrics;
 import com.talentica.paymentgateway.exception.GlobalExceptionHandler;
 import com.talentica.paymentgateway.service.AnalyticsService;
 import com.talentica.paymentgateway.service.MetricsService;
+import com.talentica.paymentgateway.service.ReportExportService;
+import com.talentica.paymentgateway.service.TransactionRollupBackfillService;
+import com.talentica.paymentgateway.service.TransactionRollupConsistencyChecker;
+import com.talentica.paymentgateway.service.TransactionSearchService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -21,11 +27,17 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
+import java.io.OutputStream;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.time.ZonedDateTime;
 import java.util.Arrays;
+import java.util.List;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -48,13 +60,26 @@ class AnalyticsControllerUnitTest {
     @Mock
     private MetricsService metricsService;
 
+    @Mock
+    private ReportExportService reportExportService;
+
+    @Mock
+    private TransactionRollupBackfillService rollupBackfillService;
+
+    @Mock
+    private TransactionRollupConsistencyChecker rollupConsistencyChecker;
+
+    @Mock
+    private TransactionSearchService transactionSearchService;
+
     private MockMvc mockMvc;
     private ObjectMapper objectMapper;
     private AnalyticsController analyticsController;
 
     @BeforeEach
     void setUp() {
-        analyticsController = new AnalyticsController(analyticsService, metricsService);
+        analyticsController = new AnalyticsController(analyticsService, metricsService, reportExportService,
+                rollupBackfillService, rollupConsistencyChecker, transactionSearchService);
         mockMvc = MockMvcBuilders.standaloneSetup(analyticsController)
                 .setControllerAdvice(new GlobalExceptionHandler())
                 .build();
@@ -115,6 +140,38 @@ class AnalyticsControllerUnitTest {
         // metricsService is also called before generateTransactionReport
     }
 
+    @Test
+    void searchTransactions_ShouldReturnPageWithCursor() throws Exception {
+        TransactionSearchResponse page = new TransactionSearchResponse();
+        page.setTransactions(List.of());
+        page.setPageSize(50);
+        page.setHasMore(true);
+        page.setNextCursor("next-page");
+        when(transactionSearchService.search(any(TransactionSearchRequest.class))).thenReturn(page);
+
+        mockMvc.perform(post("/analytics/transactions/search")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new TransactionSearchRequest())))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.hasMore").value(true))
+                .andExpect(jsonPath("$.nextCursor").value("next-page"));
+
+        verify(metricsService).recordAnalyticsRequest("transaction_search");
+    }
+
+    @Test
+    void searchTransactions_WithInvalidCursor_ShouldReturnBadRequest() throws Exception {
+        when(transactionSearchService.search(any(TransactionSearchRequest.class)))
+                .thenThrow(new IllegalArgumentException("Invalid search cursor"));
+        TransactionSearchRequest request = new TransactionSearchRequest();
+        request.setCursor("not-a-cursor");
+
+        mockMvc.perform(post("/analytics/transactions/search")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void getDashboardMetrics_ShouldReturnMetrics() throws Exception {
         // Arrange
@@ -323,6 +380,103 @@ class AnalyticsControllerUnitTest {
         verify(metricsService).recordAnalyticsRequest("export");
     }
 
+    @Test
+    void streamTransactionsCsv_ShouldStreamCsvAttachment() throws Exception {
+        // Arrange
+        TransactionReportRequest request = createTransactionReportRequest();
+        when(reportExportService.generateFileName("CSV", "transactions")).thenReturn("transactions_report.csv");
+        when(reportExportService.writeTransactionsCsv(any(TransactionReportRequest.class), any(OutputStream.class), eq(true)))
+                .thenAnswer(invocation -> {
+                    invocation.<OutputStream>getArgument(1).write("csv".getBytes(StandardCharsets.UTF_8));
+                    return 1L;
+                });
+
+        // Act
+        MvcResult result = mockMvc.perform(post("/analytics/export/csv")
+                .param("gzip", "true")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Assert
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", "application/gzip"))
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"transactions_report.csv.gz\""))
+                .andExpect(content().string("csv"));
+
+        verify(reportExportService).validateStreamingRequest(any(TransactionReportRequest.class));
+        verify(metricsService).recordAnalyticsRequest("export_csv");
+    }
+
+    @Test
+    void streamTransactionsCsv_WithInvalidRange_ShouldReturnBadRequest() throws Exception {
+        // Arrange
+        doThrow(new IllegalArgumentException("Start date and end date are required for CSV export"))
+                .when(reportExportService).validateStreamingRequest(any(TransactionReportRequest.class));
+
+        // Act & Assert
+        mockMvc.perform(post("/analytics/export/csv")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{}"))
+                .andExpect(status().isBadRequest());
+
+        verify(reportExportService, never()).writeTransactionsCsv(any(), any(), anyBoolean());
+    }
+
+    @Test
+    void backfillRollups_ShouldReturnResult() throws Exception {
+        // Arrange
+        LocalDateTime from = LocalDateTime.of(2025, 1, 1, 0, 0);
+        when(rollupBackfillService.backfill(any(ZonedDateTime.class), any(ZonedDateTime.class)))
+                .thenReturn(new TransactionRollupBackfillService.BackfillResult(
+                        from, from.plusDays(2), 46, 2, Duration.ofMillis(150)));
+
+        // Act & Assert
+        mockMvc.perform(post("/analytics/rollups/backfill")
+                .param("startDate", "2025-01-01T00:00:00Z")
+                .param("endDate", "2025-01-03T00:00:00Z"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("X-Correlation-ID"))
+                .andExpect(jsonPath("$.hoursRebuilt").value(46))
+                .andExpect(jsonPath("$.hoursSkipped").value(2));
+
+        verify(metricsService).recordAnalyticsRequest("rollup_backfill");
+    }
+
+    @Test
+    void backfillRollups_WhenDisabled_ShouldReturnConflict() throws Exception {
+        // Arrange
+        when(rollupBackfillService.backfill(any(ZonedDateTime.class), any(ZonedDateTime.class)))
+                .thenThrow(new IllegalStateException("Transaction rollups are disabled"));
+
+        // Act & Assert
+        mockMvc.perform(post("/analytics/rollups/backfill")
+                .param("startDate", "2025-01-01T00:00:00Z")
+                .param("endDate", "2025-01-03T00:00:00Z"))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void checkRollupConsistency_ShouldReturnReport() throws Exception {
+        // Arrange
+        LocalDateTime from = LocalDateTime.of(2025, 1, 1, 0, 0);
+        when(rollupConsistencyChecker.check(any(ZonedDateTime.class), any(ZonedDateTime.class)))
+                .thenReturn(new TransactionRollupConsistencyChecker.ConsistencyReport(
+                        from, from.plusDays(1), 24, 0, List.of(from.plusHours(3)), List.of()));
+
+        // Act & Assert
+        mockMvc.perform(get("/analytics/rollups/consistency")
+                .param("startDate", "2025-01-01T00:00:00Z")
+                .param("endDate", "2025-01-02T00:00:00Z"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.checkedHours").value(24))
+                .andExpect(jsonPath("$.driftedHours.length()").value(1));
+
+        verify(metricsService).recordAnalyticsRequest("rollup_consistency");
+    }
+
     @Test
     void analyzeFailedPayments_WithServiceException_ShouldReturnInternalServerError() throws Exception {
         // Arrange
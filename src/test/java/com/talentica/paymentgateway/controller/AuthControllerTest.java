@@ -137,4 +137,15 @@ class AuthControllerTest {
         assertEquals("new-access", refreshResponse.get("access_token"));
         assertEquals("Bearer", refreshResponse.get("token_type"));
     }
+
+    @Test
+    @DisplayName("POST /auth/logout revokes the presented access token")
+    void logout_revokesToken() {
+        // When
+        ResponseEntity<?> response = authController.logout("Bearer access");
+
+        // Then
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        verify(jwtService).revokeToken("access");
+    }
 }
@@ -4,7 +4,9 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import com.talentica.paymentgateway.dto.webhook.AuthorizeNetWebhookRequest;
 import com.talentica.paymentgateway.dto.webhook.WebhookResponse;
+import com.talentica.paymentgateway.filter.RawBodyCaptureFilter;
 import com.talentica.paymentgateway.service.MetricsService;
+import com.talentica.paymentgateway.service.WebhookInboxService;
 import com.talentica.paymentgateway.service.WebhookProcessingService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -15,6 +17,7 @@ import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
@@ -36,6 +39,9 @@ class WebhookControllerUnitTest {
     @Mock
     private WebhookProcessingService webhookProcessingService;
 
+    @Mock
+    private WebhookInboxService webhookInboxService;
+
     @Mock
     private MetricsService metricsService;
 
@@ -52,6 +58,10 @@ class WebhookControllerUnitTest {
             webhookField.setAccessible(true);
             webhookField.set(webhookController, webhookProcessingService);
             
+            java.lang.reflect.Field inboxField = WebhookController.class.getDeclaredField("webhookInboxService");
+            inboxField.setAccessible(true);
+            inboxField.set(webhookController, webhookInboxService);
+            
             java.lang.reflect.Field metricsField = WebhookController.class.getDeclaredField("metricsService");
             metricsField.setAccessible(true);
             metricsField.set(webhookController, metricsService);
@@ -59,7 +69,11 @@ class WebhookControllerUnitTest {
             throw new RuntimeException("Failed to set up test", e);
         }
         
-        mockMvc = MockMvcBuilders.standaloneSetup(webhookController).build();
+        lenient().when(webhookInboxService.isEnabled()).thenReturn(false);
+        
+        mockMvc = MockMvcBuilders.standaloneSetup(webhookController)
+            .addFilters(new RawBodyCaptureFilter())
+            .build();
         objectMapper = new ObjectMapper();
         objectMapper.registerModule(new JavaTimeModule());
     }
@@ -261,6 +275,43 @@ class WebhookControllerUnitTest {
         verify(webhookProcessingService).getProcessingStatistics();
     }
 
+    @Test
+    void handleAuthorizeNetWebhook_WithInboxEnabled_AcknowledgesWithoutProcessing() throws Exception {
+        // Given
+        AuthorizeNetWebhookRequest request = createValidWebhookRequest();
+        when(webhookInboxService.isEnabled()).thenReturn(true);
+        // Whitespace the sender signed over must survive to signature verification
+        String body = objectMapper.writerWithDefaultPrettyPrinter().writeValueAsString(request);
+        when(webhookInboxService.accept(any(), any(), any(), any()))
+            .thenReturn(WebhookResponse.success("evt_123", "corr_123", "Webhook accepted for processing"));
+
+        // When & Then
+        mockMvc.perform(post("/webhooks/authorize-net")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("success"))
+                .andExpect(jsonPath("$.message").value("Webhook accepted for processing"));
+
+        verify(webhookInboxService).accept(any(), any(), aryEq(body.getBytes(StandardCharsets.UTF_8)), any());
+        verify(webhookProcessingService, never()).processWebhookAsync(any(), any(), any());
+    }
+
+    @Test
+    void handleAuthorizeNetWebhook_WithInboxEnabledAndBadSignature_ShouldReturnUnauthorized() throws Exception {
+        // Given
+        AuthorizeNetWebhookRequest request = createValidWebhookRequest();
+        when(webhookInboxService.isEnabled()).thenReturn(true);
+        when(webhookInboxService.accept(any(), any(), any(), any()))
+            .thenReturn(WebhookResponse.signatureError("evt_123", "corr_123"));
+
+        // When & Then
+        mockMvc.perform(post("/webhooks/authorize-net")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isUnauthorized());
+    }
+
     @Test
     void getWebhookHealth_WithDatabaseError_ShouldReturnFallbackStats() throws Exception {
         // Given
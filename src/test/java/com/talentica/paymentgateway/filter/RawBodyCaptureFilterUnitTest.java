@@ -0,0 +1,127 @@
+package com.talentica.paymentgateway.filter;
+
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.ServletRequest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for RawBodyCaptureFilter.
+ * Tests that webhook bodies are captured once and replayed unchanged.
+ *
+ * @author Payment Gateway Team
+ * @version 1.0.0
+ */
+class RawBodyCaptureFilterUnitTest {
+
+    private static final String BODY = "{ \"notificationId\" : \"evt_1\",\n  \"eventType\":\"net.authorize.payment.authcapture.created\" }";
+
+    private RawBodyCaptureFilter filter;
+    private MockHttpServletResponse response;
+
+    @BeforeEach
+    void setUp() {
+        filter = new RawBodyCaptureFilter();
+        response = new MockHttpServletResponse();
+    }
+
+    @Test
+    void doFilter_WithWebhookPost_CapturesBodyAndReplaysIt() throws Exception {
+        // Given
+        MockHttpServletRequest request = webhookRequest(BODY.getBytes(StandardCharsets.UTF_8));
+        MockFilterChain chain = new MockFilterChain();
+
+        // When
+        filter.doFilter(request, response, chain);
+
+        // Then
+        assertThat(RawBodyCaptureFilter.getRawBody(request)).isEqualTo(BODY.getBytes(StandardCharsets.UTF_8));
+        ServletRequest forwarded = chain.getRequest();
+        assertThat(forwarded.getInputStream().readAllBytes()).isEqualTo(BODY.getBytes(StandardCharsets.UTF_8));
+        assertThat(forwarded.getReader().lines()).containsExactly(BODY.split("\n"));
+    }
+
+    @Test
+    void doFilter_WithWebhookPost_ReplaysBodyToReadListener() throws Exception {
+        // Given
+        MockHttpServletRequest request = webhookRequest(BODY.getBytes(StandardCharsets.UTF_8));
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(request, response, chain);
+        ServletInputStream input = chain.getRequest().getInputStream();
+        ByteArrayOutputStream received = new ByteArrayOutputStream();
+        List<String> events = new ArrayList<>();
+
+        // When
+        input.setReadListener(new ReadListener() {
+            @Override
+            public void onDataAvailable() throws IOException {
+                events.add("data");
+                while (input.isReady() && !input.isFinished()) {
+                    received.write(input.read());
+                }
+            }
+
+            @Override
+            public void onAllDataRead() {
+                events.add("done");
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                events.add("error");
+            }
+        });
+
+        // Then
+        assertThat(events).containsExactly("data", "done");
+        assertThat(received.toByteArray()).isEqualTo(BODY.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void doFilter_WithOtherPath_LeavesRequestUntouched() throws Exception {
+        // Given
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/v1/payments/purchase");
+        request.setContent(BODY.getBytes(StandardCharsets.UTF_8));
+        MockFilterChain chain = new MockFilterChain();
+
+        // When
+        filter.doFilter(request, response, chain);
+
+        // Then
+        assertThat(RawBodyCaptureFilter.getRawBody(request)).isNull();
+        assertThat(chain.getRequest()).isSameAs(request);
+    }
+
+    @Test
+    void doFilter_WithOversizedBody_RejectsRequest() throws Exception {
+        // Given
+        MockHttpServletRequest request = webhookRequest(new byte[RawBodyCaptureFilter.MAX_BODY_BYTES + 1]);
+        MockFilterChain chain = new MockFilterChain();
+
+        // When
+        filter.doFilter(request, response, chain);
+
+        // Then
+        assertThat(response.getStatus()).isEqualTo(413);
+        assertThat(chain.getRequest()).isNull();
+    }
+
+    private static MockHttpServletRequest webhookRequest(byte[] body) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/v1/webhooks/authorize-net");
+        request.setContentType("application/json");
+        request.setContent(body);
+        return request;
+    }
+}
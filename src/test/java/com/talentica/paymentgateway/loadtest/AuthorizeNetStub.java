@@ -0,0 +1,137 @@
+package com.talentica.paymentgateway.loadtest;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.client.ResponseDefinitionBuilder;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.containing;
+import static com.github.tomakehurst.wiremock.client.WireMock.post;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.options;
+
+/**
+ * WireMock stand-in for the Authorize.Net XML API used by load tests.
+ *
+ * Transactions are approved unless they carry {@link #DECLINE_CARD_NUMBER}, so the decline
+ * mix is chosen by the scenario. Latency is fixed, or log-normally distributed around the
+ * median when a sigma is given, which gives the long tail seen against the real gateway.
+ *
+ * @author Payment Gateway Team
+ * @version 1.0.0
+ */
+public class AuthorizeNetStub {
+
+    static final String API_PATH = "/xml/v1/request.api";
+
+    /**
+     * Card number the stub always declines.
+     */
+    public static final String DECLINE_CARD_NUMBER = "4000300011112220";
+
+    private static final String CREATE_TRANSACTION_APPROVED = """
+        <?xml version="1.0" encoding="utf-8"?>
+        <createTransactionResponse xmlns="AnetApi/xml/v1/schema/AnetApiSchema.xsd">
+          <messages>
+            <resultCode>Ok</resultCode>
+            <message><code>I00001</code><text>Successful.</text></message>
+          </messages>
+          <transactionResponse>
+            <responseCode>1</responseCode>
+            <authCode>LT0001</authCode>
+            <avsResultCode>Y</avsResultCode>
+            <cvvResultCode>P</cvvResultCode>
+            <transId>60000000001</transId>
+            <accountNumber>XXXX1111</accountNumber>
+            <accountType>Visa</accountType>
+            <messages>
+              <message><code>1</code><description>This transaction has been approved.</description></message>
+            </messages>
+          </transactionResponse>
+        </createTransactionResponse>
+        """;
+
+    private static final String CREATE_TRANSACTION_DECLINED = """
+        <?xml version="1.0" encoding="utf-8"?>
+        <createTransactionResponse xmlns="AnetApi/xml/v1/schema/AnetApiSchema.xsd">
+          <messages>
+            <resultCode>Error</resultCode>
+            <message><code>E00027</code><text>The transaction was unsuccessful.</text></message>
+          </messages>
+          <transactionResponse>
+            <responseCode>2</responseCode>
+            <authCode />
+            <avsResultCode>Y</avsResultCode>
+            <cvvResultCode>P</cvvResultCode>
+            <transId>60000000002</transId>
+            <accountNumber>XXXX2220</accountNumber>
+            <accountType>Visa</accountType>
+            <errors>
+              <error><errorCode>2</errorCode><errorText>This transaction has been declined.</errorText></error>
+            </errors>
+          </transactionResponse>
+        </createTransactionResponse>
+        """;
+
+    private static final String CREATE_CUSTOMER_PROFILE_OK = """
+        <?xml version="1.0" encoding="utf-8"?>
+        <createCustomerProfileResponse xmlns="AnetApi/xml/v1/schema/AnetApiSchema.xsd">
+          <messages>
+            <resultCode>Ok</resultCode>
+            <message><code>I00001</code><text>Successful.</text></message>
+          </messages>
+          <customerProfileId>900000001</customerProfileId>
+        </createCustomerProfileResponse>
+        """;
+
+    private final WireMockServer server;
+
+    public AuthorizeNetStub(int latencyMillis) {
+        this(latencyMillis, 0);
+    }
+
+    /**
+     * @param medianLatencyMillis Median gateway latency
+     * @param latencySigma Log-normal sigma; 0 for a fixed delay
+     */
+    public AuthorizeNetStub(int medianLatencyMillis, double latencySigma) {
+        this.server = new WireMockServer(options().dynamicPort().containerThreads(200));
+        server.start();
+
+        server.stubFor(post(urlEqualTo(API_PATH))
+            .atPriority(1)
+            .withRequestBody(containing("createTransactionRequest"))
+            .withRequestBody(containing(DECLINE_CARD_NUMBER))
+            .willReturn(xmlResponse(CREATE_TRANSACTION_DECLINED, medianLatencyMillis, latencySigma)));
+
+        server.stubFor(post(urlEqualTo(API_PATH))
+            .atPriority(5)
+            .withRequestBody(containing("createTransactionRequest"))
+            .willReturn(xmlResponse(CREATE_TRANSACTION_APPROVED, medianLatencyMillis, latencySigma)));
+
+        server.stubFor(post(urlEqualTo(API_PATH))
+            .atPriority(5)
+            .withRequestBody(containing("createCustomerProfileRequest"))
+            .willReturn(xmlResponse(CREATE_CUSTOMER_PROFILE_OK, medianLatencyMillis, latencySigma)));
+    }
+
+    /**
+     * @return Base URL in the form expected by {@code app.authorize-net.base-url}
+     */
+    public String baseUrl() {
+        return "http://localhost:" + server.port() + API_PATH;
+    }
+
+    private static ResponseDefinitionBuilder xmlResponse(String body, int medianLatencyMillis, double latencySigma) {
+        ResponseDefinitionBuilder response = aResponse()
+            .withStatus(200)
+            .withHeader("Content-Type", "application/xml; charset=utf-8")
+            .withBody(body);
+        return latencySigma > 0
+            ? response.withLogNormalRandomDelay(medianLatencyMillis, latencySigma)
+            : response.withFixedDelay(medianLatencyMillis);
+    }
+
+    public void stop() {
+        server.stop();
+    }
+}
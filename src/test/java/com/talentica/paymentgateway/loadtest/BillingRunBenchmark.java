@@ -0,0 +1,71 @@
+package com.talentica.paymentgateway.loadtest;
+
+import com.talentica.paymentgateway.service.SubscriptionBillingRunService;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Bills a large synthetic subscription book through {@link SubscriptionBillingRunService}
+ * against the {@link AuthorizeNetStub} and reports invoice throughput.
+ *
+ * Tunables (system properties, on top of those of {@link LoadTestEnvironment}):
+ * - {@code loadtest.billing.subscriptions}: due subscriptions to generate (default 500000)
+ *
+ * Run with {@code mvn -Pload-test exec:java@billing-run-benchmark}; raise
+ * {@code loadtest.poolSize} together with {@code loadtest.billing.parallelism}.
+ *
+ * @author Payment Gateway Team
+ * @version 1.0.0
+ */
+public final class BillingRunBenchmark {
+
+    private static final int INSERT_BATCH = 50_000;
+
+    private static final String INSERT_SUBSCRIPTIONS_SQL =
+        "INSERT INTO subscriptions (subscription_id, customer_id, plan_id, payment_method_id, status, " +
+        "current_period_start, current_period_end, next_billing_date, billing_cycle_anchor) " +
+        "SELECT 'bench_' || ? || '_' || g, c.id, p.id, pm.id, CAST('ACTIVE' AS subscription_status), " +
+        "? - INTERVAL '1 month', ?, ?, ? - INTERVAL '1 month' " +
+        "FROM generate_series(1, ?) g " +
+        "JOIN customers c ON c.customer_reference = ? " +
+        "JOIN subscription_plans p ON p.plan_code = ? " +
+        "JOIN payment_methods pm ON pm.payment_token = ?";
+
+    private BillingRunBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        int subscriptions = Integer.getInteger("loadtest.billing.subscriptions", 500_000);
+        try {
+            LoadTestEnvironment environment = LoadTestEnvironment.start();
+            LoadTestEnvironment.SubscriptionFixture fixture = environment.subscriptionFixture();
+            JdbcTemplate jdbcTemplate = environment.bean(JdbcTemplate.class);
+
+            OffsetDateTime cutoff = OffsetDateTime.now(ZoneOffset.UTC).truncatedTo(ChronoUnit.HOURS);
+            OffsetDateTime due = cutoff.minusMinutes(30);
+            for (int inserted = 0; inserted < subscriptions; inserted += INSERT_BATCH) {
+                int batch = Math.min(INSERT_BATCH, subscriptions - inserted);
+                jdbcTemplate.update(INSERT_SUBSCRIPTIONS_SQL, inserted, due, due, due, due, batch,
+                    fixture.customerId(), fixture.planCode(), fixture.paymentMethodId());
+            }
+            jdbcTemplate.execute("ANALYZE subscriptions");
+            System.out.printf("Generated %d due subscriptions%n", subscriptions);
+
+            SubscriptionBillingRunService runService = environment.bean(SubscriptionBillingRunService.class);
+            SubscriptionBillingRunService.BillingRunSummary run = runService.runDueBilling(cutoff.toZonedDateTime())
+                .orElseThrow(() -> new IllegalStateException("No billing run was created"));
+
+            System.out.printf("Billing run %s: %s, %d/%d partitions%n", run.runId(), run.status(),
+                run.completedPartitions(), run.partitions());
+            System.out.printf("  paid=%d failed=%d skipped=%d errors=%d%n", run.invoicesPaid(),
+                run.invoicesFailed(), run.subscriptionsSkipped(), run.billingErrors());
+            System.out.printf("  elapsed=%ds throughput=%.1f invoices/s%n", run.elapsed().toSeconds(),
+                run.invoicesPerSecond());
+        } finally {
+            LoadTestEnvironment.stop();
+        }
+    }
+}
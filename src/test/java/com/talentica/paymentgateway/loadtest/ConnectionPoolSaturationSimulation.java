@@ -0,0 +1,89 @@
+package com.talentica.paymentgateway.loadtest;
+
+import io.gatling.javaapi.core.ChainBuilder;
+import io.gatling.javaapi.core.ScenarioBuilder;
+import io.gatling.javaapi.core.Simulation;
+import io.gatling.javaapi.http.HttpProtocolBuilder;
+
+import java.time.Duration;
+
+import static io.gatling.javaapi.core.CoreDsl.*;
+import static io.gatling.javaapi.http.HttpDsl.*;
+
+/**
+ * Drives purchases at a constant arrival rate against a deliberately small connection
+ * pool (10 by default) and a slow Authorize.Net stand-in.
+ *
+ * With a connection held across the gateway call, throughput is capped at roughly
+ * poolSize / gatewayLatency (about 33 req/s at the defaults) and requests queue on
+ * Hikari. With connections released during the call the target rate is sustained.
+ *
+ * Run with {@code mvn -Pload-test gatling:test}. Tunables (system properties):
+ * {@code loadtest.rate} (req/s, default 100), {@code loadtest.durationSeconds}
+ * (default 60), plus those documented on {@link LoadTestEnvironment}.
+ *
+ * @author Payment Gateway Team
+ * @version 1.0.0
+ */
+public class ConnectionPoolSaturationSimulation extends Simulation {
+
+    private final LoadTestEnvironment environment = LoadTestEnvironment.start();
+
+    private final int rate = Integer.getInteger("loadtest.rate", 100);
+    private final int durationSeconds = Integer.getInteger("loadtest.durationSeconds", 60);
+    private final int gatewayLatencyMs = Integer.getInteger("loadtest.gatewayLatencyMs", 300);
+
+    private final HttpProtocolBuilder httpProtocol = http
+        .baseUrl(environment.baseUrl())
+        .contentTypeHeader("application/json")
+        .acceptHeader("application/json")
+        .authorizationHeader("Bearer " + environment.bearerToken())
+        .shareConnections();
+
+    private final ChainBuilder purchase = exec(http("purchase")
+        .post("/payments/purchase")
+        .body(StringBody("""
+            {
+              "amount": 25.00,
+              "currency": "USD",
+              "description": "Connection pool load test",
+              "paymentMethod": {
+                "type": "CREDIT_CARD",
+                "cardNumber": "4111111111111111",
+                "expiryMonth": "12",
+                "expiryYear": "2030",
+                "cvv": "123",
+                "cardholderName": "Load Test"
+              },
+              "customer": {
+                "email": "pool-saturation@example.com",
+                "firstName": "Load",
+                "lastName": "Test"
+              }
+            }
+            """))
+        .check(status().is(200)));
+
+    // Creates the customer (and its CIM profile) once so the measured phase only exercises payments
+    private final ScenarioBuilder warmUp = scenario("warm-up").exec(purchase);
+
+    private final ScenarioBuilder load = scenario("purchase at constant rate").exec(purchase);
+
+    {
+        setUp(
+            warmUp.injectOpen(atOnceUsers(1))
+                .andThen(load.injectOpen(constantUsersPerSec(rate).during(Duration.ofSeconds(durationSeconds))))
+        )
+            .protocols(httpProtocol)
+            .assertions(
+                global().failedRequests().percent().lt(1.0),
+                details("purchase").requestsPerSec().gte(rate * 0.9),
+                details("purchase").responseTime().percentile(99.0).lt(gatewayLatencyMs * 4)
+            );
+    }
+
+    @Override
+    public void after() {
+        LoadTestEnvironment.stop();
+    }
+}
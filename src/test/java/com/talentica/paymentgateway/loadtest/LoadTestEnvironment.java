@@ -0,0 +1,201 @@
+package com.talentica.paymentgateway.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.talentica.paymentgateway.PaymentGatewayApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Boots the gateway in-process against Testcontainers Postgres/Redis and the
+ * {@link AuthorizeNetStub}, for Gatling simulations.
+ *
+ * Tunables (system properties):
+ * - {@code loadtest.poolSize}: Hikari maximum pool size (default 10)
+ * - {@code loadtest.gatewayLatencyMs}: stubbed Authorize.Net (median) latency (default 300)
+ * - {@code loadtest.gatewayLatencySigma}: log-normal sigma of that latency, 0 for fixed (default 0)
+ * - {@code loadtest.virtualThreads}: run the app in virtual thread mode (default false)
+ * - {@code loadtest.billing.parallelism}: subscriptions billed concurrently by billing runs (default 4)
+ *
+ * Background billing runs are switched off; {@link BillingRunBenchmark} drives them explicitly.
+ *
+ * The load test user is registered with an {@code admin@} address so it holds the roles
+ * needed for captures, refunds and subscription fixtures.
+ *
+ * @author Payment Gateway Team
+ * @version 1.0.0
+ */
+public final class LoadTestEnvironment {
+
+    private static LoadTestEnvironment instance;
+
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final PostgreSQLContainer<?> postgres;
+    private final GenericContainer<?> redis;
+    private final AuthorizeNetStub authorizeNetStub;
+    private final ConfigurableApplicationContext context;
+    private final String baseUrl;
+    private final String bearerToken;
+    private SubscriptionFixture subscriptionFixture;
+
+    private LoadTestEnvironment() {
+        int poolSize = Integer.getInteger("loadtest.poolSize", 10);
+        int gatewayLatencyMs = Integer.getInteger("loadtest.gatewayLatencyMs", 300);
+        double gatewayLatencySigma = Double.parseDouble(System.getProperty("loadtest.gatewayLatencySigma", "0"));
+        boolean virtualThreads = Boolean.getBoolean("loadtest.virtualThreads");
+        int billingParallelism = Integer.getInteger("loadtest.billing.parallelism", 4);
+
+        postgres = new PostgreSQLContainer<>("postgres:15-alpine")
+            .withDatabaseName("payment_gateway")
+            .withUsername("postgres")
+            .withPassword("postgres");
+        postgres.start();
+
+        redis = new GenericContainer<>("redis:7.2-alpine").withExposedPorts(6379);
+        redis.start();
+
+        authorizeNetStub = new AuthorizeNetStub(gatewayLatencyMs, gatewayLatencySigma);
+
+        context = new SpringApplicationBuilder(PaymentGatewayApplication.class)
+            .profiles("dev")
+            .properties(Map.ofEntries(
+                Map.entry("server.port", "0"),
+                Map.entry("spring.devtools.restart.enabled", "false"),
+                Map.entry("spring.jpa.show-sql", "false"),
+                Map.entry("spring.datasource.url", postgres.getJdbcUrl()),
+                Map.entry("spring.datasource.username", postgres.getUsername()),
+                Map.entry("spring.datasource.password", postgres.getPassword()),
+                Map.entry("spring.datasource.hikari.maximum-pool-size", String.valueOf(poolSize)),
+                Map.entry("spring.datasource.hikari.minimum-idle", String.valueOf(poolSize)),
+                Map.entry("spring.datasource.hikari.pool-name", "PaymentGatewayCP"),
+                Map.entry("spring.data.redis.host", redis.getHost()),
+                Map.entry("spring.data.redis.port", String.valueOf(redis.getMappedPort(6379))),
+                Map.entry("app.rate-limit.enabled", "false"),
+                Map.entry("app.threads.virtual-enabled", String.valueOf(virtualThreads)),
+                Map.entry("app.billing.run.enabled", "false"),
+                Map.entry("app.billing.run.parallelism", String.valueOf(billingParallelism)),
+                Map.entry("app.authorize-net.environment", "CUSTOM"),
+                Map.entry("app.authorize-net.base-url", authorizeNetStub.baseUrl()),
+                Map.entry("app.authorize-net.api-login-id", "load-test"),
+                Map.entry("app.authorize-net.transaction-key", "load-test"),
+                Map.entry("logging.level.root", "WARN")))
+            .run();
+
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        baseUrl = "http://localhost:" + port + "/api/v1";
+        bearerToken = registerAndLogin();
+    }
+
+    public static synchronized LoadTestEnvironment start() {
+        if (instance == null) {
+            instance = new LoadTestEnvironment();
+        }
+        return instance;
+    }
+
+    public static synchronized void stop() {
+        if (instance != null) {
+            instance.context.close();
+            instance.authorizeNetStub.stop();
+            instance.redis.stop();
+            instance.postgres.stop();
+            instance = null;
+        }
+    }
+
+    public String baseUrl() {
+        return baseUrl;
+    }
+
+    public String bearerToken() {
+        return bearerToken;
+    }
+
+    public <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    /**
+     * Customer, stored payment method and active plan for subscription scenarios,
+     * created on first use.
+     */
+    public synchronized SubscriptionFixture subscriptionFixture() {
+        if (subscriptionFixture == null) {
+            subscriptionFixture = createSubscriptionFixture();
+        }
+        return subscriptionFixture;
+    }
+
+    private String registerAndLogin() {
+        String email = "admin@loadtest-" + UUID.randomUUID() + ".example.com";
+        String password = "LoadTest#2024";
+        try {
+            post("/auth/register", Map.of(
+                "email", email, "password", password, "firstName", "Load", "lastName", "Test"), null);
+
+            JsonNode login = post("/auth/login", Map.of("email", email, "password", password), null);
+            return login.get("access_token").asText();
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to obtain load test credentials", e);
+        }
+    }
+
+    private SubscriptionFixture createSubscriptionFixture() {
+        String planCode = "LOADTEST_" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
+        try {
+            JsonNode purchase = post("/payments/purchase", Map.of(
+                "amount", 1.00,
+                "currency", "USD",
+                "description", "Subscription fixture",
+                "paymentMethod", Map.of(
+                    "type", "CREDIT_CARD", "cardNumber", "4111111111111111", "expiryMonth", "12",
+                    "expiryYear", "2030", "cvv", "123", "cardholderName", "Load Test"),
+                "customer", Map.of(
+                    "email", "subscriber-" + planCode.toLowerCase() + "@example.com",
+                    "firstName", "Load", "lastName", "Test")), bearerToken);
+            String customerId = purchase.get("customerId").asText();
+
+            JsonNode paymentMethod = post("/api/v1/sandbox/create-test-payment-method?customerId=" + customerId,
+                Map.of(), bearerToken);
+
+            post("/subscription-plans", Map.of(
+                "planCode", planCode, "name", "Load test plan", "amount", 19.99, "currency", "USD",
+                "intervalUnit", "MONTH", "intervalCount", 1, "trialPeriodDays", 0), bearerToken);
+
+            return new SubscriptionFixture(customerId, paymentMethod.get("paymentMethodId").asText(), planCode);
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to create subscription fixture", e);
+        }
+    }
+
+    private JsonNode post(String path, Map<String, Object> body, String token) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body)));
+        if (token != null) {
+            request.header("Authorization", "Bearer " + token);
+        }
+        HttpResponse<String> response = httpClient.send(request.build(), HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() >= 300) {
+            throw new IllegalStateException("POST " + path + " returned " + response.statusCode() + ": " + response.body());
+        }
+        return objectMapper.readTree(response.body());
+    }
+
+    /**
+     * Existing customer, payment method and plan that subscriptions can be created against.
+     */
+    public record SubscriptionFixture(String customerId, String paymentMethodId, String planCode) {
+    }
+}
@@ -0,0 +1,83 @@
+package com.talentica.paymentgateway.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Condenses the latest Gatling report into one per-endpoint table of request count,
+ * error rate, throughput and p50/p99/max latency, printed and written next to the
+ * report as {@code summary.md} for capacity planning notes and PR descriptions.
+ *
+ * Run after a simulation with {@code mvn -Pload-test exec:java@load-test-summary},
+ * optionally passing the Gatling results directory (default {@code target/gatling}).
+ * Percentile columns follow the indicators configured in {@code gatling.conf}.
+ *
+ * @author Payment Gateway Team
+ * @version 1.0.0
+ */
+public final class LoadTestSummary {
+
+    private LoadTestSummary() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path resultsDir = Path.of(args.length > 0 ? args[0] : "target/gatling");
+        Path runDir = latestRun(resultsDir)
+            .orElseThrow(() -> new IllegalStateException("No Gatling report found under " + resultsDir));
+
+        JsonNode root = new ObjectMapper().readTree(runDir.resolve("js/stats.json").toFile());
+        List<String> rows = new ArrayList<>();
+        rows.add(row(root.path("stats")));
+        collectRequests(root.path("contents"), rows);
+
+        StringBuilder table = new StringBuilder()
+            .append("| Request | Count | KO % | Req/s | p50 (ms) | p99 (ms) | Max (ms) |\n")
+            .append("|---|---:|---:|---:|---:|---:|---:|\n");
+        rows.forEach(line -> table.append(line).append('\n'));
+
+        Files.writeString(runDir.resolve("summary.md"), "# " + runDir.getFileName() + "\n\n" + table);
+        System.out.println(table);
+    }
+
+    private static void collectRequests(JsonNode contents, List<String> rows) {
+        contents.forEach(node -> {
+            if ("REQUEST".equals(node.path("type").asText())) {
+                rows.add(row(node.path("stats")));
+            } else {
+                collectRequests(node.path("contents"), rows);
+            }
+        });
+    }
+
+    private static String row(JsonNode stats) {
+        double total = stats.path("numberOfRequests").path("total").asDouble();
+        double ko = stats.path("numberOfRequests").path("ko").asDouble();
+        return String.format("| %s | %.0f | %.2f | %.1f | %.0f | %.0f | %.0f |",
+            stats.path("name").asText(),
+            total,
+            total == 0 ? 0 : ko * 100.0 / total,
+            stats.path("meanNumberOfRequestsPerSecond").path("total").asDouble(),
+            stats.path("percentiles1").path("total").asDouble(),
+            stats.path("percentiles3").path("total").asDouble(),
+            stats.path("maxResponseTime").path("total").asDouble());
+    }
+
+    private static Optional<Path> latestRun(Path resultsDir) throws IOException {
+        if (!Files.isDirectory(resultsDir)) {
+            return Optional.empty();
+        }
+        try (Stream<Path> runs = Files.list(resultsDir)) {
+            return runs.filter(run -> Files.exists(run.resolve("js/stats.json")))
+                .max(Comparator.comparing(run -> run.toFile().lastModified()));
+        }
+    }
+}
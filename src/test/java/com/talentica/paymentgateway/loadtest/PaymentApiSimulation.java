@@ -0,0 +1,180 @@
+package com.talentica.paymentgateway.loadtest;
+
+import io.gatling.javaapi.core.ChainBuilder;
+import io.gatling.javaapi.core.PopulationBuilder;
+import io.gatling.javaapi.core.ScenarioBuilder;
+import io.gatling.javaapi.core.Session;
+import io.gatling.javaapi.core.Simulation;
+import io.gatling.javaapi.http.HttpProtocolBuilder;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static io.gatling.javaapi.core.CoreDsl.*;
+import static io.gatling.javaapi.http.HttpDsl.*;
+
+/**
+ * Mixed workload over the main API flows, each at its own constant arrival rate:
+ * purchase, authorize + capture, purchase + refund, webhook ingest and subscription
+ * creation. Purchases and authorizations are declined by the {@link AuthorizeNetStub}
+ * at the configured percentage.
+ *
+ * Run with {@code mvn -Pload-test gatling:test -Dgatling.simulationClass=...PaymentApiSimulation}.
+ * The Gatling report lists p50/p95/p99/p99.9 (see {@code gatling.conf}), max and
+ * throughput per request; {@link LoadTestSummary} condenses them into one table.
+ *
+ * Tunables (system properties), rates in new users per second:
+ * {@code loadtest.purchaseRate} (20), {@code loadtest.authCaptureRate} (10),
+ * {@code loadtest.refundRate} (5), {@code loadtest.webhookRate} (20),
+ * {@code loadtest.subscriptionRate} (5), {@code loadtest.declinePercent} (10),
+ * {@code loadtest.durationSeconds} (120), plus those documented on {@link LoadTestEnvironment}.
+ *
+ * @author Payment Gateway Team
+ * @version 1.0.0
+ */
+public class PaymentApiSimulation extends Simulation {
+
+    private static final String APPROVE_CARD_NUMBER = "4111111111111111";
+    private static final String WEBHOOK_API_KEY = "authnet_webhook_key_12345";
+
+    private final LoadTestEnvironment environment = LoadTestEnvironment.start();
+    private final LoadTestEnvironment.SubscriptionFixture fixture = environment.subscriptionFixture();
+
+    private final int durationSeconds = Integer.getInteger("loadtest.durationSeconds", 120);
+    private final int declinePercent = Integer.getInteger("loadtest.declinePercent", 10);
+    private final int gatewayLatencyMs = Integer.getInteger("loadtest.gatewayLatencyMs", 300);
+
+    private final HttpProtocolBuilder httpProtocol = http
+        .baseUrl(environment.baseUrl())
+        .contentTypeHeader("application/json")
+        .acceptHeader("application/json")
+        .authorizationHeader("Bearer " + environment.bearerToken())
+        .shareConnections();
+
+    private final ChainBuilder pickCard = exec(session -> session.set("cardNumber",
+        ThreadLocalRandom.current().nextInt(100) < declinePercent ? AuthorizeNetStub.DECLINE_CARD_NUMBER : APPROVE_CARD_NUMBER));
+
+    private final ChainBuilder purchase = pickCard.exec(http("purchase")
+        .post("/payments/purchase")
+        .body(StringBody(paymentBody("Load test purchase")))
+        .check(status().is(200))
+        .check(jsonPath("$.transactionId").saveAs("transactionId"))
+        .check(jsonPath("$.success").ofBoolean().saveAs("approved")));
+
+    private final ChainBuilder authorizeAndCapture = pickCard.exec(http("authorize")
+        .post("/payments/authorize")
+        .body(StringBody(paymentBody("Load test authorization")))
+        .check(status().is(200))
+        .check(jsonPath("$.transactionId").saveAs("transactionId"))
+        .check(jsonPath("$.success").ofBoolean().saveAs("approved")))
+        .doIf(PaymentApiSimulation::approved).then(exec(http("capture")
+            .post("/payments/capture")
+            .body(StringBody("""
+                {"transactionId": "#{transactionId}", "amount": 25.00, "description": "Load test capture"}
+                """))
+            .check(status().is(200))));
+
+    private final ChainBuilder purchaseAndRefund = exec(purchase)
+        .doIf(PaymentApiSimulation::approved).then(exec(http("refund")
+            .post("/payments/refund")
+            .body(StringBody("""
+                {"transactionId": "#{transactionId}", "amount": 10.00, "reason": "Load test refund"}
+                """))
+            .check(status().is(200))));
+
+    private final ChainBuilder webhook = exec(http("webhook")
+        .post("/webhooks/authorize-net")
+        .header("X-API-Key", WEBHOOK_API_KEY)
+        .body(StringBody("""
+            {
+              "notificationId": "#{randomUuid()}",
+              "eventType": "net.authorize.payment.authcapture.created",
+              "eventDate": "2024-05-01T16:43:12.123Z",
+              "webhookId": "63d6fea2-aa13-4b1d-a204-f5fbc15942b7",
+              "payload": {
+                "responseCode": 1,
+                "authCode": "LT0001",
+                "avsResponse": "Y",
+                "authAmount": 25.00,
+                "entityName": "transaction",
+                "id": "#{randomLong()}"
+              }
+            }
+            """))
+        .check(status().is(200)));
+
+    private final ChainBuilder subscription = exec(http("subscription")
+        .post("/subscriptions")
+        .body(StringBody("""
+            {
+              "customerId": "%s",
+              "planCode": "%s",
+              "paymentMethodId": "%s",
+              "startTrial": false,
+              "idempotencyKey": "#{randomUuid()}"
+            }
+            """.formatted(fixture.customerId(), fixture.planCode(), fixture.paymentMethodId())))
+        .check(status().is(201)));
+
+    // Creates the shared payment customer once so concurrent first requests don't race on it
+    private final ScenarioBuilder warmUp = scenario("warm-up").exec(http("warm-up purchase")
+        .post("/payments/purchase")
+        .body(StringBody(paymentBody("Load test warm-up").replace("#{cardNumber}", APPROVE_CARD_NUMBER)))
+        .check(status().is(200)));
+
+    {
+        setUp(
+            warmUp.injectOpen(atOnceUsers(1)).andThen(
+                population("purchase", purchase, "loadtest.purchaseRate", 20),
+                population("authorize + capture", authorizeAndCapture, "loadtest.authCaptureRate", 10),
+                population("purchase + refund", purchaseAndRefund, "loadtest.refundRate", 5),
+                population("webhook ingest", webhook, "loadtest.webhookRate", 20),
+                population("subscription creation", subscription, "loadtest.subscriptionRate", 5))
+        )
+            .protocols(httpProtocol)
+            .assertions(
+                global().failedRequests().percent().lt(1.0),
+                details("purchase").responseTime().percentile(99.0).lt(gatewayLatencyMs * 4),
+                details("webhook").responseTime().percentile(99.0).lt(1000)
+            );
+    }
+
+    @Override
+    public void after() {
+        LoadTestEnvironment.stop();
+    }
+
+    private PopulationBuilder population(String name, ChainBuilder chain, String rateProperty, int defaultRate) {
+        ScenarioBuilder scenario = scenario(name).exec(chain);
+        return scenario.injectOpen(
+            rampUsersPerSec(1).to(Integer.getInteger(rateProperty, defaultRate)).during(Duration.ofSeconds(10)),
+            constantUsersPerSec(Integer.getInteger(rateProperty, defaultRate)).during(Duration.ofSeconds(durationSeconds)));
+    }
+
+    private static boolean approved(Session session) {
+        return session.contains("approved") && session.getBoolean("approved");
+    }
+
+    private static String paymentBody(String description) {
+        return """
+            {
+              "amount": 25.00,
+              "currency": "USD",
+              "description": "%s",
+              "paymentMethod": {
+                "type": "CREDIT_CARD",
+                "cardNumber": "#{cardNumber}",
+                "expiryMonth": "12",
+                "expiryYear": "2030",
+                "cvv": "123",
+                "cardholderName": "Load Test"
+              },
+              "customer": {
+                "email": "payment-api@example.com",
+                "firstName": "Load",
+                "lastName": "Test"
+              }
+            }
+            """.formatted(description);
+    }
+}
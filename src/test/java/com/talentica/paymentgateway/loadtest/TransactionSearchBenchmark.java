@@ -0,0 +1,143 @@
+package com.talentica.paymentgateway.loadtest;
+
+import com.talentica.paymentgateway.dto.analytics.TransactionSearchRequest;
+import com.talentica.paymentgateway.dto.analytics.TransactionSearchResponse;
+import com.talentica.paymentgateway.repository.TransactionRepository;
+import com.talentica.paymentgateway.service.TransactionSearchCursor;
+import com.talentica.paymentgateway.service.TransactionSearchService;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Compares OFFSET pagination ({@code TransactionRepository.findTransactionsWithFilters}, as
+ * used by the transaction report) with keyset pagination ({@link TransactionSearchService})
+ * for one large merchant in a large synthetic transactions table, at increasing page depths.
+ * Also times the optional totals of the search API.
+ *
+ * Tunables (system properties, on top of those of {@link LoadTestEnvironment}):
+ * - {@code loadtest.search.rows}: transactions to generate (default 10000000)
+ * - {@code loadtest.search.customers}: customers they are spread over (default 1000); the
+ *   first one is the large merchant and owns a fifth of all transactions
+ * - {@code loadtest.search.iterations}: timed runs per measurement (default 20)
+ *
+ * Run with {@code mvn -Pload-test exec:java@transaction-search-benchmark}. Generating ten
+ * million rows takes several minutes and a few GB of disk.
+ *
+ * @author Payment Gateway Team
+ * @version 1.0.0
+ */
+public final class TransactionSearchBenchmark {
+
+    private static final int INSERT_BATCH = 1_000_000;
+    private static final int PAGE_SIZE = 50;
+    private static final int WARMUP_RUNS = 3;
+    private static final int[] PAGES = {0, 100, 1_000, 10_000};
+
+    private static final String INSERT_CUSTOMERS_SQL =
+        "INSERT INTO customers (customer_reference, email) " +
+        "SELECT 'search_bench_' || g, 'search' || g || '@bench.example.com' FROM generate_series(1, ?) g";
+
+    // The large merchant (search_bench_1 sorts first) gets every fifth row
+    private static final String INSERT_TRANSACTIONS_SQL =
+        "WITH c AS (SELECT array_agg(id ORDER BY customer_reference) AS ids FROM customers " +
+        "           WHERE customer_reference LIKE 'search\\_bench\\_%') " +
+        "INSERT INTO transactions (transaction_id, customer_id, transaction_type, amount, currency, status, created_at) " +
+        "SELECT 'search_bench_' || g, " +
+        "       c.ids[CASE WHEN g % 5 = 0 THEN 1 ELSE 1 + g % array_length(c.ids, 1) END], " +
+        "       CAST('PURCHASE' AS transaction_type), (g % 500) + 1, 'USD', " +
+        "       CAST(CASE WHEN g % 10 = 3 THEN 'FAILED' ELSE 'SETTLED' END AS payment_status), " +
+        "       now() - g * INTERVAL '3 seconds' " +
+        "FROM generate_series(?, ?) g, c";
+
+    private TransactionSearchBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        long rows = Long.getLong("loadtest.search.rows", 10_000_000L);
+        int customers = Integer.getInteger("loadtest.search.customers", 1000);
+        int iterations = Integer.getInteger("loadtest.search.iterations", 20);
+        try {
+            LoadTestEnvironment environment = LoadTestEnvironment.start();
+            JdbcTemplate jdbcTemplate = environment.bean(JdbcTemplate.class);
+            TransactionRepository transactionRepository = environment.bean(TransactionRepository.class);
+            TransactionSearchService searchService = environment.bean(TransactionSearchService.class);
+
+            jdbcTemplate.update(INSERT_CUSTOMERS_SQL, customers);
+            for (long inserted = 0; inserted < rows; inserted += INSERT_BATCH) {
+                jdbcTemplate.update(INSERT_TRANSACTIONS_SQL, inserted + 1, Math.min(rows, inserted + INSERT_BATCH));
+            }
+            // Sets the visibility map, so covering indexes are read without heap fetches
+            jdbcTemplate.execute("VACUUM ANALYZE transactions");
+            UUID merchantId = jdbcTemplate.queryForObject(
+                "SELECT id FROM customers WHERE customer_reference = 'search_bench_1'", UUID.class);
+            System.out.printf("Generated %d transactions over %d customers%n", rows, customers);
+
+            for (int page : PAGES) {
+                long offset = (long) page * PAGE_SIZE;
+                PageRequest pageRequest = PageRequest.of(page, PAGE_SIZE, Sort.by(Sort.Direction.DESC, "created_at"));
+                double[] offsetMs = time(iterations, () -> transactionRepository.findTransactionsWithFilters(
+                    merchantId, null, null, null, null, null, null, null, pageRequest));
+
+                TransactionSearchRequest request = new TransactionSearchRequest();
+                request.setCustomerId(merchantId);
+                request.setSize(PAGE_SIZE);
+                request.setCursor(page == 0 ? null : cursorBefore(jdbcTemplate, merchantId, offset));
+                double[] keysetMs = time(iterations, () -> searchService.search(request));
+
+                System.out.printf("Page %,d (offset %,d): offset p50=%.1fms p95=%.1fms | keyset p50=%.1fms p95=%.1fms%n",
+                    page, offset, percentile(offsetMs, 50), percentile(offsetMs, 95),
+                    percentile(keysetMs, 50), percentile(keysetMs, 95));
+            }
+
+            for (TransactionSearchRequest.CountMode mode : TransactionSearchRequest.CountMode.values()) {
+                TransactionSearchRequest request = new TransactionSearchRequest();
+                request.setCustomerId(merchantId);
+                request.setSize(PAGE_SIZE);
+                request.setCountMode(mode);
+                TransactionSearchResponse response = searchService.search(request);
+                double[] firstPageMs = time(iterations, () -> searchService.search(request));
+                System.out.printf("First page with count %s: total=%s exact=%s p50=%.1fms p95=%.1fms%n",
+                    mode, response.getTotalCount(), response.isTotalCountExact(),
+                    percentile(firstPageMs, 50), percentile(firstPageMs, 95));
+            }
+        } finally {
+            LoadTestEnvironment.stop();
+        }
+    }
+
+    /**
+     * Cursor of the row just before the given offset, as the previous page would have returned it.
+     */
+    private static String cursorBefore(JdbcTemplate jdbcTemplate, UUID merchantId, long offset) {
+        return jdbcTemplate.queryForObject(
+            "SELECT id, created_at FROM transactions WHERE customer_id = ? " +
+            "ORDER BY created_at DESC, id DESC OFFSET ? LIMIT 1",
+            (rs, rowNum) -> new TransactionSearchCursor(rs.getTimestamp("created_at").toInstant(),
+                rs.getObject("id", UUID.class), false).encode(),
+            merchantId, offset - 1);
+    }
+
+    private static double[] time(int iterations, Supplier<?> query) {
+        for (int i = 0; i < WARMUP_RUNS; i++) {
+            query.get();
+        }
+        double[] millis = new double[iterations];
+        for (int i = 0; i < iterations; i++) {
+            long startedAt = System.nanoTime();
+            query.get();
+            millis[i] = (System.nanoTime() - startedAt) / 1_000_000.0;
+        }
+        Arrays.sort(millis);
+        return millis;
+    }
+
+    private static double percentile(double[] sorted, int percentile) {
+        int index = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+    }
+}
@@ -0,0 +1,87 @@
+package com.talentica.paymentgateway.loadtest;
+
+import io.gatling.javaapi.core.ChainBuilder;
+import io.gatling.javaapi.core.ScenarioBuilder;
+import io.gatling.javaapi.core.Simulation;
+import io.gatling.javaapi.http.HttpProtocolBuilder;
+
+import java.time.Duration;
+
+import static io.gatling.javaapi.core.CoreDsl.*;
+import static io.gatling.javaapi.http.HttpDsl.*;
+
+/**
+ * Holds 2,000 concurrent purchases against the slow Authorize.Net stand-in to compare
+ * the platform and virtual thread execution modes.
+ *
+ * Run once per mode and compare the generated reports (p50/p99, throughput):
+ * <pre>
+ * mvn -Pload-test gatling:test -Dgatling.simulationClass=com.talentica.paymentgateway.loadtest.VirtualThreadComparisonSimulation
+ * mvn -Pload-test gatling:test -Dgatling.simulationClass=com.talentica.paymentgateway.loadtest.VirtualThreadComparisonSimulation -Dloadtest.virtualThreads=true
+ * </pre>
+ * Virtual thread mode needs a JDK 21+ runtime; pinning shows up as
+ * {@code jvm.virtual.threads.pinned} on the actuator metrics endpoint.
+ *
+ * @author Payment Gateway Team
+ * @version 1.0.0
+ */
+public class VirtualThreadComparisonSimulation extends Simulation {
+
+    private final LoadTestEnvironment environment = LoadTestEnvironment.start();
+
+    private final int concurrentUsers = Integer.getInteger("loadtest.concurrentUsers", 2000);
+    private final int durationSeconds = Integer.getInteger("loadtest.durationSeconds", 120);
+    private final String mode = Boolean.getBoolean("loadtest.virtualThreads") ? "virtual" : "platform";
+
+    private final HttpProtocolBuilder httpProtocol = http
+        .baseUrl(environment.baseUrl())
+        .contentTypeHeader("application/json")
+        .acceptHeader("application/json")
+        .authorizationHeader("Bearer " + environment.bearerToken())
+        .shareConnections();
+
+    private final ChainBuilder purchase = exec(http("purchase")
+            .post("/payments/purchase")
+            .body(StringBody("""
+                {
+                  "amount": 10.00,
+                  "currency": "USD",
+                  "description": "Virtual thread comparison",
+                  "paymentMethod": {
+                    "type": "CREDIT_CARD",
+                    "cardNumber": "4111111111111111",
+                    "expiryMonth": "12",
+                    "expiryYear": "2030",
+                    "cvv": "123",
+                    "cardholderName": "Load Test"
+                  },
+                  "customer": {
+                    "email": "thread-comparison@example.com",
+                    "firstName": "Load",
+                    "lastName": "Test"
+                  }
+                }
+                """))
+            .check(status().is(200)));
+
+    // Creates the customer once so concurrent requests do not race on its insert
+    private final ScenarioBuilder warmUp = scenario("warm-up").exec(purchase);
+
+    private final ScenarioBuilder purchases = scenario("concurrent purchases (" + mode + " threads)").exec(purchase);
+
+    {
+        setUp(
+            warmUp.injectOpen(atOnceUsers(1))
+                .andThen(purchases.injectClosed(
+                    rampConcurrentUsers(1).to(concurrentUsers).during(Duration.ofSeconds(30)),
+                    constantConcurrentUsers(concurrentUsers).during(Duration.ofSeconds(durationSeconds))))
+        )
+            .protocols(httpProtocol)
+            .assertions(global().failedRequests().percent().lt(1.0));
+    }
+
+    @Override
+    public void after() {
+        LoadTestEnvironment.stop();
+    }
+}
@@ -1,5 +1,6 @@
 package com.talentica.paymentgateway.security;
 
+import com.talentica.paymentgateway.service.JwtClaims;
 import com.talentica.paymentgateway.service.JwtService;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -14,6 +15,8 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 
 import java.io.IOException;
+import java.time.Instant;
+import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.anyString;
@@ -91,11 +94,9 @@ class JwtAuthenticationFilterTest {
         MockHttpServletResponse res = new MockHttpServletResponse();
         RecordingChain chain = new RecordingChain();
 
-        when(jwtService.extractUsername("token123")).thenReturn("john");
-        when(jwtService.isAccessToken("token123")).thenReturn(true);
-        when(jwtService.extractAuthorities("token123")).thenReturn("[ROLE_USER, ROLE_ADMIN]");
-        when(jwtService.isTokenValid(eq("token123"), any())).thenReturn(true);
-        when(jwtService.extractUserId("token123")).thenReturn("u-1");
+        JwtClaims claims = new JwtClaims("john", "u-1", "access", List.of("ROLE_USER", "ROLE_ADMIN"),
+                Instant.now(), Instant.now().plusSeconds(3600));
+        when(jwtService.parseToken("token123")).thenReturn(claims);
 
         filter.doFilter(req, res, chain);
 
@@ -105,6 +106,8 @@ class JwtAuthenticationFilterTest {
         assertThat(auth.getName()).isEqualTo("john");
         assertThat(auth.getAuthorities()).extracting("authority")
                 .contains("ROLE_USER", "ROLE_ADMIN");
+        assertThat(req.getAttribute(JwtAuthenticationFilter.CLAIMS_ATTRIBUTE)).isSameAs(claims);
+        verify(jwtService, times(1)).parseToken("token123");
     }
 
     @Test
@@ -115,8 +118,8 @@ class JwtAuthenticationFilterTest {
         MockHttpServletResponse res = new MockHttpServletResponse();
         RecordingChain chain = new RecordingChain();
 
-        when(jwtService.extractUsername("token123")).thenReturn("john");
-        when(jwtService.isAccessToken("token123")).thenReturn(false);
+        when(jwtService.parseToken("token123")).thenReturn(new JwtClaims("john", null, "refresh", List.of(),
+                Instant.now(), Instant.now().plusSeconds(3600)));
 
         filter.doFilter(req, res, chain);
 
@@ -132,7 +135,7 @@ class JwtAuthenticationFilterTest {
         MockHttpServletResponse res = new MockHttpServletResponse();
         RecordingChain chain = new RecordingChain();
 
-        when(jwtService.extractUsername(anyString())).thenThrow(new RuntimeException("boom"));
+        when(jwtService.parseToken(anyString())).thenThrow(new RuntimeException("boom"));
 
         filter.doFilter(req, res, chain);
 
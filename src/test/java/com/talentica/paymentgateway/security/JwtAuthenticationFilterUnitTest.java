@@ -1,6 +1,8 @@
 package com.talentica.paymentgateway.security;
 
+import com.talentica.paymentgateway.service.JwtClaims;
 import com.talentica.paymentgateway.service.JwtService;
+import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -13,9 +15,10 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.slf4j.MDC;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 
 import java.io.IOException;
+import java.time.Instant;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -140,20 +143,17 @@ class JwtAuthenticationFilterUnitTest {
         when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
         when(request.getHeader("X-Correlation-ID")).thenReturn("test-correlation-id");
         
-        when(jwtService.extractUsername(token)).thenReturn(username);
-        when(jwtService.extractUserId(token)).thenReturn(userId);
-        when(jwtService.isAccessToken(token)).thenReturn(true);
-        when(jwtService.extractAuthorities(token)).thenReturn("ROLE_USER");
-        when(jwtService.isTokenValid(eq(token), any(UserDetails.class))).thenReturn(true);
+        JwtClaims claims = claims(username, userId, "access", List.of("ROLE_USER"));
+        when(jwtService.parseToken(token)).thenReturn(claims);
 
         // When
         jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
 
         // Then
         verify(filterChain).doFilter(request, response);
-        verify(jwtService).extractUsername(token);
-        verify(jwtService).isAccessToken(token);
-        verify(jwtService).isTokenValid(eq(token), any(UserDetails.class));
+        verify(jwtService, times(1)).parseToken(token);
+        verifyNoMoreInteractions(jwtService);
+        verify(request).setAttribute(JwtAuthenticationFilter.CLAIMS_ATTRIBUTE, claims);
         
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         assertNotNull(authentication);
@@ -173,17 +173,15 @@ class JwtAuthenticationFilterUnitTest {
         when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
         when(request.getHeader("X-Correlation-ID")).thenReturn(null);
         
-        when(jwtService.extractUsername(token)).thenReturn(username);
-        when(jwtService.isAccessToken(token)).thenReturn(false);
+        when(jwtService.parseToken(token)).thenReturn(claims(username, null, "refresh", List.of()));
 
         // When
         jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
 
         // Then
         verify(filterChain).doFilter(request, response);
-        verify(jwtService).extractUsername(token);
-        verify(jwtService).isAccessToken(token);
-        verify(jwtService, never()).isTokenValid(any(), any());
+        verify(jwtService).parseToken(token);
+        verify(request, never()).setAttribute(eq(JwtAuthenticationFilter.CLAIMS_ATTRIBUTE), any());
         
         assertNull(SecurityContextHolder.getContext().getAuthentication());
     }
@@ -192,27 +190,20 @@ class JwtAuthenticationFilterUnitTest {
     void doFilterInternal_WithInvalidToken_ShouldNotAuthenticate() throws ServletException, IOException {
         // Given
         String token = "invalid.jwt.token";
-        String username = "testuser";
         
         when(request.getRequestURI()).thenReturn("/api/v1/payments");
         when(request.getMethod()).thenReturn("POST");
         when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
         when(request.getHeader("X-Correlation-ID")).thenReturn(null);
         
-        when(jwtService.extractUsername(token)).thenReturn(username);
-        when(jwtService.isAccessToken(token)).thenReturn(true);
-        when(jwtService.extractAuthorities(token)).thenReturn("ROLE_USER");
-        when(jwtService.isTokenValid(eq(token), any(UserDetails.class))).thenReturn(false);
+        when(jwtService.parseToken(token)).thenThrow(new JwtException("JWT signature does not match"));
 
         // When
         jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
 
         // Then
         verify(filterChain).doFilter(request, response);
-        verify(jwtService).extractUsername(token);
-        verify(jwtService).isAccessToken(token);
-        verify(jwtService).extractAuthorities(token);
-        verify(jwtService).isTokenValid(eq(token), any(UserDetails.class));
+        verify(jwtService).parseToken(token);
         
         assertNull(SecurityContextHolder.getContext().getAuthentication());
     }
@@ -226,7 +217,7 @@ class JwtAuthenticationFilterUnitTest {
         when(request.getMethod()).thenReturn("POST");
         when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
         
-        when(jwtService.extractUsername(token)).thenThrow(new RuntimeException("Invalid token"));
+        when(jwtService.parseToken(token)).thenThrow(new RuntimeException("Invalid token"));
 
         // When
         jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
@@ -250,14 +241,14 @@ class JwtAuthenticationFilterUnitTest {
         when(request.getMethod()).thenReturn("POST");
         when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
         
-        when(jwtService.extractUsername(token)).thenReturn(username);
+        when(jwtService.parseToken(token)).thenReturn(claims(username, null, "access", List.of("ROLE_USER")));
 
         // When
         jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
 
         // Then
         verify(filterChain).doFilter(request, response);
-        verify(jwtService, never()).isAccessToken(any());
+        verify(request, never()).setAttribute(eq(JwtAuthenticationFilter.CLAIMS_ATTRIBUTE), any());
         assertEquals(existingAuth, SecurityContextHolder.getContext().getAuthentication());
     }
 
@@ -270,14 +261,13 @@ class JwtAuthenticationFilterUnitTest {
         when(request.getMethod()).thenReturn("POST");
         when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
         
-        when(jwtService.extractUsername(token)).thenReturn("");
+        when(jwtService.parseToken(token)).thenReturn(claims("", null, "access", List.of()));
 
         // When
         jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
 
         // Then
         verify(filterChain).doFilter(request, response);
-        verify(jwtService, never()).isAccessToken(any());
         assertNull(SecurityContextHolder.getContext().getAuthentication());
     }
 
@@ -290,14 +280,13 @@ class JwtAuthenticationFilterUnitTest {
         when(request.getMethod()).thenReturn("POST");
         when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
         
-        when(jwtService.extractUsername(token)).thenReturn(null);
+        when(jwtService.parseToken(token)).thenReturn(claims(null, null, "access", List.of()));
 
         // When
         jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
 
         // Then
         verify(filterChain).doFilter(request, response);
-        verify(jwtService, never()).isAccessToken(any());
         assertNull(SecurityContextHolder.getContext().getAuthentication());
     }
 
@@ -312,10 +301,8 @@ class JwtAuthenticationFilterUnitTest {
         when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
         when(request.getHeader("X-Correlation-ID")).thenReturn(null);
         
-        when(jwtService.extractUsername(token)).thenReturn(username);
-        when(jwtService.isAccessToken(token)).thenReturn(true);
-        when(jwtService.extractAuthorities(token)).thenReturn("ROLE_USER,ROLE_ADMIN");
-        when(jwtService.isTokenValid(eq(token), any(UserDetails.class))).thenReturn(true);
+        when(jwtService.parseToken(token))
+            .thenReturn(claims(username, null, "access", List.of("ROLE_USER", "ROLE_ADMIN")));
 
         // When
         jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
@@ -341,10 +328,7 @@ class JwtAuthenticationFilterUnitTest {
         when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
         when(request.getHeader("X-Correlation-ID")).thenReturn(null);
         
-        when(jwtService.extractUsername(token)).thenReturn(username);
-        when(jwtService.isAccessToken(token)).thenReturn(true);
-        when(jwtService.extractAuthorities(token)).thenReturn("");
-        when(jwtService.isTokenValid(eq(token), any(UserDetails.class))).thenReturn(true);
+        when(jwtService.parseToken(token)).thenReturn(claims(username, null, "access", List.of()));
 
         // When
         jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
@@ -368,10 +352,7 @@ class JwtAuthenticationFilterUnitTest {
         when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
         when(request.getHeader("X-Correlation-ID")).thenReturn(null);
         
-        when(jwtService.extractUsername(token)).thenReturn(username);
-        when(jwtService.isAccessToken(token)).thenReturn(true);
-        when(jwtService.extractAuthorities(token)).thenReturn(null);
-        when(jwtService.isTokenValid(eq(token), any(UserDetails.class))).thenReturn(true);
+        when(jwtService.parseToken(token)).thenReturn(claims(username, null, "access", null));
 
         // When
         jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
@@ -442,7 +423,7 @@ class JwtAuthenticationFilterUnitTest {
         when(request.getRequestURI()).thenReturn("/api/v1/payments");
         when(request.getMethod()).thenReturn("POST");
         when(request.getHeader("Authorization")).thenReturn("Bearer token");
-        when(jwtService.extractUsername(any())).thenThrow(new RuntimeException("Service error"));
+        when(jwtService.parseToken(any())).thenThrow(new RuntimeException("Service error"));
 
         // When & Then - should not throw exception
         assertDoesNotThrow(() -> {
@@ -451,4 +432,9 @@ class JwtAuthenticationFilterUnitTest {
         
         verify(filterChain).doFilter(request, response);
     }
+
+    private static JwtClaims claims(String username, String userId, String tokenType, List<String> authorities) {
+        Instant now = Instant.now();
+        return new JwtClaims(username, userId, tokenType, authorities, now, now.plusSeconds(3600));
+    }
 }
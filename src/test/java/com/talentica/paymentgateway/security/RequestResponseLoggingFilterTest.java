@@ -1,16 +1,22 @@
 package com.talentica.paymentgateway.security;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.talentica.paymentgateway.config.properties.RequestLoggingProperties;
+import com.talentica.paymentgateway.service.AuditEvent;
+import com.talentica.paymentgateway.service.AuditLogWriter;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.mock.web.MockHttpServletResponse;
 
 import java.io.IOException;
+import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
 
 class RequestResponseLoggingFilterTest {
 
@@ -58,6 +64,60 @@ class RequestResponseLoggingFilterTest {
         assertThat(res.getStatus()).isEqualTo(200);
     }
 
+    @Test
+    @DisplayName("Sampled-out response bodies still reach the client")
+    void sampledOutBodyIsPreserved() throws ServletException, IOException {
+        RequestLoggingProperties properties = new RequestLoggingProperties();
+        properties.getBodySampling().setEnabled(true);
+        properties.getBodySampling().setPathPrefixes(List.of("/payments/"));
+        properties.getBodySampling().setRate(0.0);
+        RequestResponseLoggingFilter samplingFilter = new RequestResponseLoggingFilter(objectMapper, properties, null);
+
+        MockHttpServletRequest req = new MockHttpServletRequest("GET", "/api/v1/payments/txn_1");
+        req.setContextPath("/api/v1");
+        MockHttpServletResponse res = new MockHttpServletResponse();
+
+        samplingFilter.doFilter(req, res, new WritingChain("{\"cardNumber\":\"4111111111111111\"}", 200));
+
+        assertThat(res.getContentAsString()).isEqualTo("{\"cardNumber\":\"4111111111111111\"}");
+    }
+
+    @Test
+    @DisplayName("Publishes an audit event for auditable endpoints")
+    void publishesAuditEvent() throws ServletException, IOException {
+        AuditLogWriter auditLogWriter = mock(AuditLogWriter.class);
+        when(auditLogWriter.isEnabled()).thenReturn(true);
+        RequestResponseLoggingFilter auditingFilter =
+            new RequestResponseLoggingFilter(objectMapper, new RequestLoggingProperties(), auditLogWriter);
+
+        MockHttpServletRequest req = new MockHttpServletRequest("POST", "/api/v1/payments/purchase");
+        req.addHeader("X-Forwarded-For", "203.0.113.7, 10.0.0.1");
+        MockHttpServletResponse res = new MockHttpServletResponse();
+
+        auditingFilter.doFilter(req, res, new WritingChain("{\"ok\":true}", 201));
+
+        ArgumentCaptor<AuditEvent> event = ArgumentCaptor.forClass(AuditEvent.class);
+        verify(auditLogWriter).publish(event.capture());
+        assertThat(event.getValue().entityType()).isEqualTo("API_REQUEST");
+        assertThat(event.getValue().action()).isEqualTo("POST");
+        assertThat(event.getValue().ipAddress()).isEqualTo("203.0.113.7");
+        assertThat(event.getValue().newValues()).containsEntry("status", 201)
+            .containsEntry("uri", "/api/v1/payments/purchase");
+    }
+
+    @Test
+    @DisplayName("Does not audit ordinary successful requests")
+    void skipsAuditForOrdinaryRequests() throws ServletException, IOException {
+        AuditLogWriter auditLogWriter = mock(AuditLogWriter.class);
+        RequestResponseLoggingFilter auditingFilter =
+            new RequestResponseLoggingFilter(objectMapper, new RequestLoggingProperties(), auditLogWriter);
+
+        auditingFilter.doFilter(new MockHttpServletRequest("GET", "/api/v1/subscription-plans"),
+            new MockHttpServletResponse(), new WritingChain("[]", 200));
+
+        verify(auditLogWriter, never()).publish(any());
+    }
+
     @Test
     @DisplayName("Protected overrides return true for error/async dispatch")
     void protectedOverrides() {
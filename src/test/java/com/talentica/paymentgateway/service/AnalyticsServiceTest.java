@@ -1,6 +1,7 @@
 package com.talentica.paymentgateway.service;
 
 import com.talentica.paymentgateway.dto.analytics.AnalyticsDashboardRequest;
+import com.talentica.paymentgateway.dto.analytics.TransactionRollupTotals;
 import com.talentica.paymentgateway.dto.metrics.DashboardMetrics;
 import com.talentica.paymentgateway.dto.metrics.TransactionMetrics;
 import com.talentica.paymentgateway.entity.Customer;
@@ -18,6 +19,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.math.BigDecimal;
 import java.time.ZonedDateTime;
+import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
@@ -39,6 +41,9 @@ class AnalyticsServiceTest {
     @Mock
     private CustomerRepository customerRepository;
 
+    @Mock
+    private TransactionRollupService transactionRollupService;
+
     private AnalyticsService analyticsService;
 
     @BeforeEach
@@ -46,7 +51,8 @@ class AnalyticsServiceTest {
         analyticsService = new AnalyticsService(
             transactionRepository, 
             subscriptionRepository, 
-            customerRepository
+            customerRepository,
+            transactionRollupService
         );
     }
 
@@ -71,8 +77,9 @@ class AnalyticsServiceTest {
         when(subscriptionRepository.countActiveAtDate(any())).thenReturn(140L);
 
         // Mock revenue data
-        when(transactionRepository.sumAmountByStatus("SETTLED")).thenReturn(new BigDecimal("75000.00"));
-        when(transactionRepository.sumAmountByStatus("REFUNDED")).thenReturn(new BigDecimal("2500.00"));
+        when(transactionRollupService.totals(any(), any())).thenReturn(List.of(
+            new TransactionRollupTotals(PaymentStatus.SETTLED, TransactionType.PURCHASE, "USD", "1", 85L, new BigDecimal("75000.00")),
+            new TransactionRollupTotals(PaymentStatus.REFUNDED, TransactionType.REFUND, "USD", "1", 5L, new BigDecimal("2500.00"))));
 
         // Mock customer count
         when(customerRepository.count()).thenReturn(500L);
@@ -123,10 +130,9 @@ class AnalyticsServiceTest {
         ZonedDateTime startDate = ZonedDateTime.now().minusMonths(1);
         ZonedDateTime endDate = ZonedDateTime.now();
 
-        when(transactionRepository.sumAmountByStatus("SETTLED"))
-            .thenReturn(new BigDecimal("100000.00"));
-        when(transactionRepository.sumAmountByStatus("REFUNDED"))
-            .thenReturn(new BigDecimal("5000.00"));
+        when(transactionRollupService.totals(startDate, endDate)).thenReturn(List.of(
+            new TransactionRollupTotals(PaymentStatus.SETTLED, TransactionType.PURCHASE, "USD", "1", 200L, new BigDecimal("100000.00")),
+            new TransactionRollupTotals(PaymentStatus.REFUNDED, TransactionType.REFUND, "USD", "1", 10L, new BigDecimal("5000.00"))));
         when(subscriptionRepository.calculateActiveMonthlyRevenue())
             .thenReturn(new BigDecimal("20000.00"));
 
@@ -18,6 +18,7 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.time.ZonedDateTime;
 import java.util.*;
 
@@ -37,6 +38,9 @@ class AnalyticsServiceUnitTest {
     @Mock
     private CustomerRepository customerRepository;
 
+    @Mock
+    private TransactionRollupService transactionRollupService;
+
     @InjectMocks
     private AnalyticsService analyticsService;
 
@@ -208,10 +212,10 @@ class AnalyticsServiceUnitTest {
             .thenReturn(new BigDecimal("1500.00"));
         when(subscriptionRepository.countActiveAtDate(any(ZonedDateTime.class)))
             .thenReturn(20L);
-        when(transactionRepository.sumAmountByStatus(PaymentStatus.SETTLED.name()))
-            .thenReturn(new BigDecimal("10000.00"));
-        when(transactionRepository.sumAmountByStatus(PaymentStatus.REFUNDED.name()))
-            .thenReturn(new BigDecimal("500.00"));
+        when(transactionRollupService.totals(any(ZonedDateTime.class), any(ZonedDateTime.class)))
+            .thenReturn(List.of(
+                createTotals(PaymentStatus.SETTLED, "1", 80L, new BigDecimal("10000.00")),
+                createTotals(PaymentStatus.REFUNDED, "1", 4L, new BigDecimal("500.00"))));
         when(customerRepository.count())
             .thenReturn(100L);
 
@@ -292,10 +296,12 @@ class AnalyticsServiceUnitTest {
     @Test
     void generateRevenueMetrics_ShouldReturnMetrics() {
         // Given
-        when(transactionRepository.sumAmountByStatus(PaymentStatus.SETTLED.name()))
-            .thenReturn(new BigDecimal("10000.00"));
-        when(transactionRepository.sumAmountByStatus(PaymentStatus.REFUNDED.name()))
-            .thenReturn(new BigDecimal("500.00"));
+        when(transactionRollupService.totals(startDate, endDate))
+            .thenReturn(List.of(
+                createTotals(PaymentStatus.SETTLED, "1", 80L, new BigDecimal("6000.00")),
+                createTotals(PaymentStatus.SETTLED, "4", 20L, new BigDecimal("4000.00")),
+                createTotals(PaymentStatus.REFUNDED, "1", 4L, new BigDecimal("500.00")),
+                createTotals(PaymentStatus.FAILED, "2", 3L, new BigDecimal("300.00"))));
         when(subscriptionRepository.calculateActiveMonthlyRevenue())
             .thenReturn(new BigDecimal("1500.00"));
 
@@ -312,10 +318,8 @@ class AnalyticsServiceUnitTest {
     @Test
     void generateRevenueMetrics_WithNullValues_ShouldHandleGracefully() {
         // Given
-        when(transactionRepository.sumAmountByStatus(PaymentStatus.SETTLED.name()))
-            .thenReturn(null);
-        when(transactionRepository.sumAmountByStatus(PaymentStatus.REFUNDED.name()))
-            .thenReturn(null);
+        when(transactionRollupService.totals(startDate, endDate))
+            .thenReturn(List.of());
         when(subscriptionRepository.calculateActiveMonthlyRevenue())
             .thenReturn(null);
 
@@ -337,10 +341,13 @@ class AnalyticsServiceUnitTest {
             createFailedTransactionWithErrorCode("txn-2", "3", new BigDecimal("200.00"))
         );
         
-        when(transactionRepository.findTransactionsBetween(any(ZonedDateTime.class), any(ZonedDateTime.class)))
+        when(transactionRollupService.totals(startDate, endDate))
+            .thenReturn(List.of(
+                createTotals(PaymentStatus.FAILED, "2", 1L, new BigDecimal("100.00")),
+                createTotals(PaymentStatus.FAILED, "3", 1L, new BigDecimal("200.00")),
+                createTotals(PaymentStatus.SETTLED, "1", 8L, new BigDecimal("800.00"))));
+        when(transactionRepository.findByStatusInCreatedBetween(anyCollection(), any(LocalDateTime.class), any(LocalDateTime.class)))
             .thenReturn(failedTransactions);
-        when(transactionRepository.countTransactionsCreatedToday())
-            .thenReturn(10L);
 
         try (MockedStatic<CorrelationIdUtil> mockedUtil = mockStatic(CorrelationIdUtil.class)) {
             mockedUtil.when(CorrelationIdUtil::getOrGenerate).thenReturn("test-correlation-id");
@@ -354,6 +361,9 @@ class AnalyticsServiceUnitTest {
             assertEquals(new BigDecimal("300.00"), analysis.getTotalFailedAmount());
             assertEquals(20.0, analysis.getFailureRate(), 0.01); // 2/10 * 100
             assertNotNull(analysis.getErrorCodeBreakdown());
+            assertEquals(2, analysis.getErrorCodeBreakdown().size());
+            assertEquals(50.0, analysis.getErrorCodeBreakdown().get("3").getPercentage(), 0.01);
+            assertEquals(new BigDecimal("200.00"), analysis.getErrorCodeBreakdown().get("3").getTotalAmount());
             assertNotNull(analysis.getPaymentMethodBreakdown());
             assertNotNull(analysis.getRiskIndicators());
             assertNotNull(analysis.getRecommendations());
@@ -364,10 +374,10 @@ class AnalyticsServiceUnitTest {
     void generateComplianceReport_ShouldReturnReport() {
         // Given
         String reportType = "ANNUAL";
-        List<Transaction> transactions = Arrays.asList(successfulTransaction, failedTransaction);
-        
-        when(transactionRepository.findTransactionsBetween(any(ZonedDateTime.class), any(ZonedDateTime.class)))
-            .thenReturn(transactions);
+        when(transactionRollupService.totals(startDate, endDate))
+            .thenReturn(List.of(
+                createTotals(PaymentStatus.SETTLED, "1", 1L, new BigDecimal("100.00")),
+                createTotals(PaymentStatus.FAILED, "2", 1L, new BigDecimal("50.00"))));
 
         try (MockedStatic<CorrelationIdUtil> mockedUtil = mockStatic(CorrelationIdUtil.class)) {
             mockedUtil.when(CorrelationIdUtil::getOrGenerate).thenReturn("test-correlation-id");
@@ -382,6 +392,8 @@ class AnalyticsServiceUnitTest {
             assertEquals(endDate, report.getPeriodEnd());
             assertNotNull(report.getComplianceStatus());
             assertNotNull(report.getTransactionAudit());
+            assertEquals(2L, report.getTransactionAudit().getTotalTransactions());
+            assertEquals(new BigDecimal("150.00"), report.getTransactionAudit().getTotalVolume());
             assertNotNull(report.getSecurityMetrics());
             assertNotNull(report.getDataPrivacy());
             assertNotNull(report.getRiskAssessments());
@@ -469,10 +481,12 @@ class AnalyticsServiceUnitTest {
             createSuspiciousTransaction("txn-2", new BigDecimal("12000.00"))  // High amount
         );
         
-        when(transactionRepository.findTransactionsBetween(any(ZonedDateTime.class), any(ZonedDateTime.class)))
+        when(transactionRollupService.totals(startDate, endDate))
+            .thenReturn(List.of(
+                createTotals(PaymentStatus.FAILED, "2", 2L, new BigDecimal("27000.00")),
+                createTotals(PaymentStatus.SETTLED, "1", 2L, new BigDecimal("200.00"))));
+        when(transactionRepository.findByStatusInCreatedBetween(anyCollection(), any(LocalDateTime.class), any(LocalDateTime.class)))
             .thenReturn(suspiciousTransactions);
-        when(transactionRepository.countTransactionsCreatedToday())
-            .thenReturn(4L);
 
         try (MockedStatic<CorrelationIdUtil> mockedUtil = mockStatic(CorrelationIdUtil.class)) {
             mockedUtil.when(CorrelationIdUtil::getOrGenerate).thenReturn("test-correlation-id");
@@ -526,6 +540,10 @@ class AnalyticsServiceUnitTest {
         return transaction;
     }
 
+    private TransactionRollupTotals createTotals(PaymentStatus status, String responseCode, long count, BigDecimal amount) {
+        return new TransactionRollupTotals(status, TransactionType.PURCHASE, "USD", responseCode, count, amount);
+    }
+
     private Transaction createFailedTransactionWithErrorCode(String id, String errorCode, BigDecimal amount) {
         Transaction transaction = createTransaction(id, PaymentStatus.FAILED, TransactionType.PURCHASE, amount);
         transaction.setAuthnetResponseCode(errorCode);
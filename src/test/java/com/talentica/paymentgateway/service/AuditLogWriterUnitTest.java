@@ -0,0 +1,199 @@
+package com.talentica.paymentgateway.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.talentica.paymentgateway.config.properties.AuditProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for AuditLogWriter.
+ * Tests batching, overflow policies, spilling failed batches and replay on startup.
+ */
+@ExtendWith(MockitoExtension.class)
+class AuditLogWriterUnitTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private MetricsService metricsService;
+
+    @TempDir
+    Path spillDirectory;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private AuditProperties auditProperties;
+    private AuditLogWriter writer;
+
+    @BeforeEach
+    void setUp() {
+        auditProperties = new AuditProperties();
+        auditProperties.getWriter().setBatchSize(3);
+        auditProperties.getWriter().setFlushIntervalMs(20);
+        auditProperties.getWriter().setSpillDirectory(spillDirectory.toString());
+
+        lenient().doAnswer(invocation -> {
+            invocation.<Consumer<TransactionStatus>>getArgument(0).accept(mock(TransactionStatus.class));
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+
+        writer = new AuditLogWriter(jdbcTemplate, transactionTemplate, objectMapper, metricsService, auditProperties);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        writer.stop();
+    }
+
+    @Test
+    void publish_FullBatch_IsWrittenWithOneBatchInsert() throws Exception {
+        auditProperties.getWriter().setFlushIntervalMs(60_000);
+        writer = new AuditLogWriter(jdbcTemplate, transactionTemplate, objectMapper, metricsService, auditProperties);
+        writer.start();
+
+        writer.publish(event());
+        writer.publish(event());
+        writer.publish(event());
+
+        ArgumentCaptor<List<Object[]>> rows = rowsCaptor();
+        verify(jdbcTemplate, timeout(5000)).batchUpdate(eq(AuditLogWriter.INSERT_SQL), rows.capture());
+        assertThat(rows.getValue()).hasSize(3);
+        verify(metricsService, timeout(5000)).recordAuditEvents("written", 3);
+    }
+
+    @Test
+    void publish_PartialBatch_IsWrittenAfterFlushInterval() throws Exception {
+        writer.start();
+        AuditEvent event = event();
+
+        writer.publish(event);
+
+        ArgumentCaptor<List<Object[]>> rows = rowsCaptor();
+        verify(jdbcTemplate, timeout(5000)).batchUpdate(eq(AuditLogWriter.INSERT_SQL), rows.capture());
+        Object[] row = rows.getValue().get(0);
+        assertThat(row[0]).isEqualTo(event.id());
+        assertThat(row[1]).isEqualTo("API_REQUEST");
+        assertThat(row[10]).isEqualTo("{\"status\":200}");
+    }
+
+    @Test
+    void publish_WhenFullWithDropPolicy_CountsDrop() throws Exception {
+        auditProperties.getWriter().setOverflowPolicy(AuditProperties.OverflowPolicy.DROP);
+        writer.start();
+        writer.stop();
+
+        assertThat(writer.publish(event())).isFalse();
+
+        verify(metricsService).recordAuditEvents("dropped", 1);
+    }
+
+    @Test
+    void publish_WhenFullWithSpillPolicy_SpillsToDisk() throws Exception {
+        writer.start();
+        writer.stop();
+
+        assertThat(writer.publish(event())).isTrue();
+
+        verify(metricsService).recordAuditEvents("spilled", 1);
+        assertThat(spillFiles()).hasSize(1);
+    }
+
+    @Test
+    void failedBatch_IsSpilled() throws Exception {
+        when(jdbcTemplate.batchUpdate(eq(AuditLogWriter.INSERT_SQL), anyList()))
+            .thenThrow(new DataAccessResourceFailureException("connection refused"));
+        writer.start();
+
+        writer.publish(event());
+
+        verify(metricsService, timeout(5000)).recordAuditEvents("spilled", 1);
+        verify(metricsService, never()).recordAuditEvents(eq("written"), anyInt());
+        assertThat(spillFiles()).hasSize(1);
+    }
+
+    @Test
+    void start_ReplaysSpilledFilesAndDeletesThem() throws Exception {
+        AuditSpillStore previous = new AuditSpillStore(spillDirectory, 1024 * 1024, objectMapper);
+        previous.open();
+        previous.append(List.of(event(), event()));
+
+        writer.start();
+
+        ArgumentCaptor<List<Object[]>> rows = rowsCaptor();
+        verify(jdbcTemplate, timeout(5000)).batchUpdate(eq(AuditLogWriter.INSERT_SQL), rows.capture());
+        assertThat(rows.getValue()).hasSize(2);
+        verify(metricsService, timeout(5000)).recordAuditEvents("replayed", 2);
+        assertThat(spillFiles()).isEmpty();
+    }
+
+    @Test
+    void write_WithConstraintViolation_InsertsRowsOneByOne() {
+        when(jdbcTemplate.batchUpdate(eq(AuditLogWriter.INSERT_SQL), anyList()))
+            .thenThrow(new DataIntegrityViolationException("user_id fk"));
+        when(jdbcTemplate.update(eq(AuditLogWriter.INSERT_SQL), any(Object[].class)))
+            .thenThrow(new DataIntegrityViolationException("user_id fk"))
+            .thenReturn(1);
+
+        writer.write(List.of(event(), event()));
+
+        verify(jdbcTemplate, times(2)).update(eq(AuditLogWriter.INSERT_SQL), any(Object[].class));
+        verify(metricsService).recordAuditEvents("rejected", 1);
+    }
+
+    @Test
+    void publish_WhenDisabled_IsIgnored() throws Exception {
+        auditProperties.getWriter().setEnabled(false);
+        writer = new AuditLogWriter(jdbcTemplate, transactionTemplate, objectMapper, metricsService, auditProperties);
+        writer.start();
+
+        assertThat(writer.publish(event())).isFalse();
+
+        verifyNoInteractions(jdbcTemplate, metricsService);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static ArgumentCaptor<List<Object[]>> rowsCaptor() {
+        return (ArgumentCaptor) ArgumentCaptor.forClass(List.class);
+    }
+
+    private List<Path> spillFiles() throws Exception {
+        try (var files = Files.list(spillDirectory)) {
+            return files.toList();
+        }
+    }
+
+    private static AuditEvent event() {
+        return AuditEvent.builder()
+            .entityType("API_REQUEST")
+            .entityId(UUID.randomUUID())
+            .action("POST")
+            .ipAddress("203.0.113.7")
+            .newValues(Map.of("status", 200))
+            .build();
+    }
+}
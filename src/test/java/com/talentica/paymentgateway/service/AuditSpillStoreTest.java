@@ -0,0 +1,96 @@
+package com.talentica.paymentgateway.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for AuditSpillStore.
+ * Tests round trips, crash leftovers, the size limit and deletion.
+ */
+class AuditSpillStoreTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    @TempDir
+    Path directory;
+
+    private AuditSpillStore store;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        store = new AuditSpillStore(directory, 1024 * 1024, objectMapper);
+        store.open();
+    }
+
+    @Test
+    void append_ThenRotate_RoundTripsEvents() throws Exception {
+        AuditEvent first = event();
+        AuditEvent second = event();
+
+        assertThat(store.append(List.of(first))).isTrue();
+        assertThat(store.append(List.of(second))).isTrue();
+        List<Path> files = store.rotate();
+
+        assertThat(files).hasSize(1);
+        assertThat(files.get(0).toString()).endsWith(AuditSpillStore.READY_SUFFIX);
+        assertThat(store.read(files.get(0))).containsExactly(first, second);
+    }
+
+    @Test
+    void rotate_PicksUpActiveFileLeftByCrash_AndSkipsCutLine() throws Exception {
+        AuditEvent event = event();
+        String line = objectMapper.writeValueAsString(event);
+        Files.writeString(directory.resolve("audit-1-1" + AuditSpillStore.ACTIVE_SUFFIX),
+            line + "\n" + line.substring(0, line.length() / 2), StandardCharsets.UTF_8);
+
+        AuditSpillStore restarted = new AuditSpillStore(directory, 1024 * 1024, objectMapper);
+        restarted.open();
+        List<Path> files = restarted.rotate();
+
+        assertThat(restarted.hasSpilled()).isTrue();
+        assertThat(files).hasSize(1);
+        assertThat(restarted.read(files.get(0))).containsExactly(event);
+    }
+
+    @Test
+    void append_OverLimit_IsRefused() throws Exception {
+        AuditSpillStore small = new AuditSpillStore(directory, 10, objectMapper);
+        small.open();
+
+        assertThat(small.append(List.of(event()))).isTrue();
+        assertThat(small.append(List.of(event()))).isFalse();
+    }
+
+    @Test
+    void delete_ReleasesSpilledBytes() throws Exception {
+        store.append(List.of(event()));
+        Path file = store.rotate().get(0);
+
+        store.delete(file);
+
+        assertThat(store.hasSpilled()).isFalse();
+        assertThat(store.rotate()).isEmpty();
+    }
+
+    private static AuditEvent event() {
+        return AuditEvent.builder()
+            .entityType("API_REQUEST")
+            .entityId(UUID.randomUUID())
+            .action("POST")
+            .newValues(Map.of("status", 200))
+            .createdAt(Instant.parse("2026-01-01T00:00:00Z"))
+            .build();
+    }
+}
@@ -7,6 +7,7 @@ import com.talentica.paymentgateway.exception.PaymentProcessingException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.math.BigDecimal;
@@ -25,6 +26,9 @@ import static org.junit.jupiter.api.Assertions.*;
 @ExtendWith(MockitoExtension.class)
 class AuthorizeNetARBServiceUnitTest {
 
+    @Mock
+    private AuthorizeNetTransport authorizeNetTransport;
+
     private AuthorizeNetARBService authorizeNetARBService;
     private Customer testCustomer;
     private SubscriptionPlan testPlan;
@@ -36,7 +40,7 @@ class AuthorizeNetARBServiceUnitTest {
         authorizeNetARBService = new AuthorizeNetARBService(
             "test-api-login-id",
             "test-transaction-key", 
-            "sandbox"
+            authorizeNetTransport
         );
 
         // Create test customer
@@ -69,32 +73,10 @@ class AuthorizeNetARBServiceUnitTest {
     }
 
     @Test
-    void constructor_WithSandboxEnvironment_ShouldCreateService() {
-        // Given & When
-        AuthorizeNetARBService service = new AuthorizeNetARBService(
-            "test-login", "test-key", "sandbox"
-        );
-        
-        // Then
-        assertNotNull(service);
-    }
-
-    @Test
-    void constructor_WithProductionEnvironment_ShouldCreateService() {
-        // Given & When
-        AuthorizeNetARBService service = new AuthorizeNetARBService(
-            "test-login", "test-key", "production"
-        );
-        
-        // Then
-        assertNotNull(service);
-    }
-
-    @Test
-    void constructor_WithInvalidEnvironment_ShouldDefaultToProduction() {
+    void constructor_WithTransport_ShouldCreateService() {
         // Given & When
         AuthorizeNetARBService service = new AuthorizeNetARBService(
-            "test-login", "test-key", "invalid"
+            "test-login", "test-key", authorizeNetTransport
         );
         
         // Then
@@ -4,15 +4,11 @@ import com.talentica.paymentgateway.dto.payment.CustomerRequest;
 import com.talentica.paymentgateway.dto.payment.PaymentMethodRequest;
 import com.talentica.paymentgateway.entity.Customer;
 import com.talentica.paymentgateway.exception.PaymentProcessingException;
-import net.authorize.Environment;
 import net.authorize.api.contract.v1.*;
-import net.authorize.api.controller.*;
-import net.authorize.api.controller.base.ApiOperationBase;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
-import org.mockito.MockedStatic;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -35,7 +31,7 @@ class AuthorizeNetCustomerServiceUnitTest {
     private MerchantAuthenticationType merchant;
 
     @Mock
-    private Environment environment;
+    private AuthorizeNetTransport authorizeNetTransport;
 
     private AuthorizeNetCustomerService authorizeNetCustomerService;
     private Customer testCustomer;
@@ -44,7 +40,12 @@ class AuthorizeNetCustomerServiceUnitTest {
 
     @BeforeEach
     void setUp() {
-        authorizeNetCustomerService = new AuthorizeNetCustomerService(merchant, environment);
+        authorizeNetCustomerService = new AuthorizeNetCustomerService(merchant, authorizeNetTransport);
+        // The gateway is unreachable in unit tests
+        lenient().when(authorizeNetTransport.execute(any(), any()))
+            .thenThrow(new PaymentProcessingException("Authorize.Net call failed: Connection refused", "test"));
+        lenient().when(authorizeNetTransport.executeRead(any(), any()))
+            .thenThrow(new PaymentProcessingException("Authorize.Net call failed: Connection refused", "test"));
         setupTestData();
     }
 
@@ -82,7 +83,7 @@ class AuthorizeNetCustomerServiceUnitTest {
     @Test
     void serviceInitialization_ShouldNotThrowException() {
         // Given & When
-        AuthorizeNetCustomerService service = new AuthorizeNetCustomerService(merchant, environment);
+        AuthorizeNetCustomerService service = new AuthorizeNetCustomerService(merchant, authorizeNetTransport);
         
         // Then
         assertNotNull(service);
@@ -0,0 +1,312 @@
+package com.talentica.paymentgateway.service;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.talentica.paymentgateway.config.properties.AuthorizeNetProperties;
+import com.talentica.paymentgateway.exception.PaymentProcessingException;
+import net.authorize.Environment;
+import net.authorize.api.contract.v1.ARBGetSubscriptionRequest;
+import net.authorize.api.contract.v1.CreateTransactionRequest;
+import net.authorize.api.contract.v1.CreateTransactionResponse;
+import net.authorize.api.contract.v1.GetTransactionDetailsRequest;
+import net.authorize.api.contract.v1.GetTransactionDetailsResponse;
+import net.authorize.api.contract.v1.MerchantAuthenticationType;
+import net.authorize.api.contract.v1.MessageTypeEnum;
+import net.authorize.api.contract.v1.TransactionRequestType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.function.Supplier;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.containing;
+import static com.github.tomakehurst.wiremock.client.WireMock.post;
+import static com.github.tomakehurst.wiremock.client.WireMock.postRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
+import static com.github.tomakehurst.wiremock.stubbing.Scenario.STARTED;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.options;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Unit tests for AuthorizeNetTransport against a WireMock stand-in for the XML API.
+ * Tests marshalling, response parsing, gateway errors, timeouts, connection reuse and hedged reads.
+ */
+@ExtendWith(MockitoExtension.class)
+class AuthorizeNetTransportUnitTest {
+
+    private static final String API_PATH = "/xml/v1/request.api";
+
+    private static final String APPROVED = """
+        <?xml version="1.0" encoding="utf-8"?>
+        <createTransactionResponse xmlns="AnetApi/xml/v1/schema/AnetApiSchema.xsd">
+          <messages>
+            <resultCode>Ok</resultCode>
+            <message><code>I00001</code><text>Successful.</text></message>
+          </messages>
+          <transactionResponse>
+            <responseCode>1</responseCode>
+            <transId>60000000001</transId>
+          </transactionResponse>
+        </createTransactionResponse>
+        """;
+
+    private static final String DECLINED = """
+        <?xml version="1.0" encoding="utf-8"?>
+        <createTransactionResponse xmlns="AnetApi/xml/v1/schema/AnetApiSchema.xsd">
+          <messages>
+            <resultCode>Error</resultCode>
+            <message><code>E00027</code><text>The transaction was unsuccessful.</text></message>
+          </messages>
+        </createTransactionResponse>
+        """;
+
+    private static final String MALFORMED_REQUEST = """
+        <?xml version="1.0" encoding="utf-8"?>
+        <ErrorResponse xmlns="AnetApi/xml/v1/schema/AnetApiSchema.xsd">
+          <messages>
+            <resultCode>Error</resultCode>
+            <message><code>E00003</code><text>The element 'transactionRequest' has invalid child element.</text></message>
+          </messages>
+        </ErrorResponse>
+        """;
+
+    private static final String TRANSACTION_DETAILS = """
+        <?xml version="1.0" encoding="utf-8"?>
+        <getTransactionDetailsResponse xmlns="AnetApi/xml/v1/schema/AnetApiSchema.xsd">
+          <messages>
+            <resultCode>Ok</resultCode>
+            <message><code>I00001</code><text>Successful.</text></message>
+          </messages>
+        </getTransactionDetailsResponse>
+        """;
+
+    @Mock
+    private MetricsService metricsService;
+
+    private WireMockServer server;
+    private AuthorizeNetProperties authorizeNetProperties;
+    private AuthorizeNetTransport transport;
+
+    @BeforeEach
+    void setUp() {
+        server = new WireMockServer(options().dynamicPort());
+        server.start();
+
+        authorizeNetProperties = new AuthorizeNetProperties();
+        authorizeNetProperties.getTransport().setReadTimeoutMs(500);
+        authorizeNetProperties.getHedging().setInitialDelayMs(100);
+        authorizeNetProperties.getHedging().setMinDelayMs(10);
+        String baseUrl = "http://localhost:" + server.port();
+        transport = new AuthorizeNetTransport(Environment.createEnvironment(baseUrl, baseUrl),
+            authorizeNetProperties, metricsService);
+    }
+
+    @AfterEach
+    void tearDown() {
+        transport.close();
+        server.stop();
+    }
+
+    @Test
+    void execute_PostsRequestAndParsesResponse() {
+        // The gateway prefixes its responses with a byte order mark
+        stubResponse("\uFEFF" + APPROVED);
+
+        CreateTransactionResponse response = transport.execute(purchaseRequest(), CreateTransactionResponse.class);
+
+        assertThat(response.getMessages().getResultCode()).isEqualTo(MessageTypeEnum.OK);
+        assertThat(response.getTransactionResponse().getTransId()).isEqualTo("60000000001");
+        server.verify(postRequestedFor(urlEqualTo(API_PATH))
+            .withHeader("Content-Type", containing("text/xml"))
+            .withRequestBody(containing("createTransactionRequest"))
+            .withRequestBody(containing(">login<")));
+        verify(metricsService).recordAuthorizeNetCall(eq("CreateTransaction"), eq(AuthorizeNetTransport.OUTCOME_OK),
+            any(Duration.class));
+    }
+
+    @Test
+    void execute_ErrorResultCode_ReturnsResponse() {
+        stubResponse(DECLINED);
+
+        CreateTransactionResponse response = transport.execute(purchaseRequest(), CreateTransactionResponse.class);
+
+        assertThat(response.getMessages().getResultCode()).isEqualTo(MessageTypeEnum.ERROR);
+        verify(metricsService).recordAuthorizeNetCall(eq("CreateTransaction"), eq(AuthorizeNetTransport.OUTCOME_ERROR),
+            any(Duration.class));
+    }
+
+    @Test
+    void execute_ErrorResponse_Throws() {
+        stubResponse(MALFORMED_REQUEST);
+
+        assertThatThrownBy(() -> transport.execute(purchaseRequest(), CreateTransactionResponse.class))
+            .isInstanceOf(PaymentProcessingException.class)
+            .hasMessageContaining("E00003")
+            .matches(AuthorizeNetTransport::isNotProcessed);
+        verify(metricsService).recordAuthorizeNetCall(eq("CreateTransaction"), eq(AuthorizeNetTransport.OUTCOME_ERROR),
+            any(Duration.class));
+    }
+
+    @Test
+    void execute_SlowGateway_TimesOut() {
+        server.stubFor(post(urlEqualTo(API_PATH))
+            .willReturn(aResponse().withStatus(200).withBody(APPROVED).withFixedDelay(2000)));
+
+        assertThatThrownBy(() -> transport.execute(purchaseRequest(), CreateTransactionResponse.class))
+            .isInstanceOf(PaymentProcessingException.class)
+            .hasMessageContaining("timed out")
+            .matches(error -> !AuthorizeNetTransport.isNotProcessed(error));
+        verify(metricsService).recordAuthorizeNetCall(eq("CreateTransaction"), eq(AuthorizeNetTransport.OUTCOME_TIMEOUT),
+            any(Duration.class));
+    }
+
+    @Test
+    void execute_HttpError_Throws() {
+        server.stubFor(post(urlEqualTo(API_PATH)).willReturn(aResponse().withStatus(503)));
+
+        assertThatThrownBy(() -> transport.execute(purchaseRequest(), CreateTransactionResponse.class))
+            .isInstanceOf(PaymentProcessingException.class)
+            .hasMessageContaining("HTTP 503");
+        verify(metricsService).recordAuthorizeNetCall(eq("CreateTransaction"), eq(AuthorizeNetTransport.OUTCOME_FAILED),
+            any(Duration.class));
+    }
+
+    @Test
+    void execute_GatewayUnreachable_IsNotProcessed() {
+        server.stop();
+
+        assertThatThrownBy(() -> transport.execute(purchaseRequest(), CreateTransactionResponse.class))
+            .isInstanceOf(PaymentProcessingException.class)
+            .hasMessageContaining("connect failed")
+            .matches(AuthorizeNetTransport::isNotProcessed);
+        verify(metricsService).recordAuthorizeNetCall(eq("CreateTransaction"), eq(AuthorizeNetTransport.OUTCOME_FAILED),
+            any(Duration.class));
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void execute_ReusesPooledConnection() {
+        stubResponse(APPROVED);
+        ArgumentCaptor<Supplier<Number>> leased = ArgumentCaptor.forClass(Supplier.class);
+        ArgumentCaptor<Supplier<Number>> available = ArgumentCaptor.forClass(Supplier.class);
+        verify(metricsService).registerAuthorizeNetConnectionPoolGauges(leased.capture(), available.capture(), any());
+
+        for (int i = 0; i < 3; i++) {
+            transport.execute(purchaseRequest(), CreateTransactionResponse.class);
+        }
+
+        assertThat(leased.getValue().get().intValue()).isZero();
+        assertThat(available.getValue().get().intValue()).isEqualTo(1);
+        server.verify(3, postRequestedFor(urlEqualTo(API_PATH)));
+    }
+
+    @Test
+    void executeRead_FastResponse_IsNotHedged() {
+        stubResponse(TRANSACTION_DETAILS);
+
+        GetTransactionDetailsResponse response = transport.executeRead(detailsRequest(),
+            GetTransactionDetailsResponse.class);
+
+        assertThat(response.getMessages().getResultCode()).isEqualTo(MessageTypeEnum.OK);
+        server.verify(1, postRequestedFor(urlEqualTo(API_PATH)));
+        verify(metricsService).recordAuthorizeNetRead(eq("GetTransactionDetails"), any(Duration.class));
+        verify(metricsService, never()).recordAuthorizeNetHedge(any(), any());
+    }
+
+    @Test
+    void executeRead_SlowResponse_HedgeWins() {
+        // The first request stalls, the hedge is answered at once
+        server.stubFor(post(urlEqualTo(API_PATH)).inScenario("hedge").whenScenarioStateIs(STARTED)
+            .willReturn(aResponse().withStatus(200).withBody(TRANSACTION_DETAILS).withFixedDelay(400))
+            .willSetStateTo("hedged"));
+        server.stubFor(post(urlEqualTo(API_PATH)).inScenario("hedge").whenScenarioStateIs("hedged")
+            .willReturn(aResponse().withStatus(200).withBody(TRANSACTION_DETAILS)));
+
+        GetTransactionDetailsResponse response = transport.executeRead(detailsRequest(),
+            GetTransactionDetailsResponse.class);
+
+        assertThat(response.getMessages().getResultCode()).isEqualTo(MessageTypeEnum.OK);
+        server.verify(2, postRequestedFor(urlEqualTo(API_PATH)));
+        verify(metricsService).recordAuthorizeNetHedge("GetTransactionDetails", AuthorizeNetTransport.HEDGE_WON);
+        verify(metricsService, timeout(5000)).recordAuthorizeNetHedgeSaving(eq("GetTransactionDetails"),
+            any(Duration.class));
+    }
+
+    @Test
+    void executeRead_BudgetExhausted_WaitsForFirstRequest() {
+        transport.close();
+        authorizeNetProperties.getHedging().setBurst(1);
+        authorizeNetProperties.getHedging().setMaxHedgePercent(0.0);
+        String baseUrl = "http://localhost:" + server.port();
+        transport = new AuthorizeNetTransport(Environment.createEnvironment(baseUrl, baseUrl),
+            authorizeNetProperties, metricsService);
+        server.stubFor(post(urlEqualTo(API_PATH))
+            .willReturn(aResponse().withStatus(200).withBody(TRANSACTION_DETAILS).withFixedDelay(200)));
+
+        transport.executeRead(detailsRequest(), GetTransactionDetailsResponse.class);
+        transport.executeRead(detailsRequest(), GetTransactionDetailsResponse.class);
+
+        verify(metricsService).recordAuthorizeNetHedge(eq("GetTransactionDetails"), eq(AuthorizeNetTransport.HEDGE_LOST));
+        verify(metricsService).recordAuthorizeNetHedge("GetTransactionDetails",
+            AuthorizeNetTransport.HEDGE_BUDGET_EXHAUSTED);
+        server.verify(3, postRequestedFor(urlEqualTo(API_PATH)));
+    }
+
+    @Test
+    void executeRead_Write_IsRejected() {
+        assertThatThrownBy(() -> transport.executeRead(purchaseRequest(), CreateTransactionResponse.class))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("CreateTransaction");
+        server.verify(0, postRequestedFor(urlEqualTo(API_PATH)));
+    }
+
+    @Test
+    void operationName_StripsRequestSuffix() {
+        assertThat(AuthorizeNetTransport.operationName(new CreateTransactionRequest())).isEqualTo("CreateTransaction");
+        assertThat(AuthorizeNetTransport.operationName(new ARBGetSubscriptionRequest())).isEqualTo("ARBGetSubscription");
+    }
+
+    private void stubResponse(String body) {
+        server.stubFor(post(urlEqualTo(API_PATH))
+            .willReturn(aResponse().withStatus(200).withHeader("Content-Type", "application/xml; charset=utf-8")
+                .withBody(body)));
+    }
+
+    private static GetTransactionDetailsRequest detailsRequest() {
+        MerchantAuthenticationType merchant = new MerchantAuthenticationType();
+        merchant.setName("login");
+        merchant.setTransactionKey("key");
+
+        GetTransactionDetailsRequest request = new GetTransactionDetailsRequest();
+        request.setMerchantAuthentication(merchant);
+        request.setTransId("60000000001");
+        return request;
+    }
+
+    private static CreateTransactionRequest purchaseRequest() {
+        MerchantAuthenticationType merchant = new MerchantAuthenticationType();
+        merchant.setName("login");
+        merchant.setTransactionKey("key");
+
+        TransactionRequestType transactionRequest = new TransactionRequestType();
+        transactionRequest.setTransactionType("authCaptureTransaction");
+        transactionRequest.setAmount(new BigDecimal("10.00"));
+
+        CreateTransactionRequest request = new CreateTransactionRequest();
+        request.setMerchantAuthentication(merchant);
+        request.setTransactionRequest(transactionRequest);
+        return request;
+    }
+}
@@ -0,0 +1,149 @@
+package com.talentica.paymentgateway.service;
+
+import com.talentica.paymentgateway.config.properties.MetricsProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for BoundedMeters.
+ * Tests meter caching, top-K folding, allow-lists, the series limit and re-ranking.
+ */
+class BoundedMetersUnitTest {
+
+    private SimpleMeterRegistry registry;
+    private MetricsProperties.Cardinality config;
+    private final AtomicLong clock = new AtomicLong();
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        config = new MetricsProperties.Cardinality();
+        config.setDefaultTopK(2);
+        config.setRebalanceIntervalSeconds(60);
+    }
+
+    @Test
+    void get_WithSameValue_ReturnsCachedMeter() {
+        BoundedMeters.Family<Counter> family = meters().counters("api.key.usage.by.key", "usage", Map.of(), "key_id");
+
+        Counter first = family.get("key_1");
+        Counter second = family.get("key_1");
+
+        assertThat(second).isSameAs(first);
+        assertThat(registry.find("api.key.usage.by.key").counters()).hasSize(1);
+    }
+
+    @Test
+    void get_BeyondTopK_FoldsIntoOther() {
+        BoundedMeters.Family<Counter> family = meters().counters("api.key.usage.by.key", "usage", Map.of(), "key_id");
+
+        family.get("key_1").increment();
+        family.get("key_2").increment();
+        family.get("key_3").increment();
+        family.get("key_4").increment();
+
+        assertThat(registry.find("api.key.usage.by.key").counters()).hasSize(3);
+        assertThat(registry.get("api.key.usage.by.key").tag("key_id", BoundedMeters.OTHER).counter().count())
+            .isEqualTo(2.0);
+        assertThat(registry.get("metrics.cardinality.folded").tag("meter", "api.key.usage.by.key").counter().count())
+            .isEqualTo(2.0);
+    }
+
+    @Test
+    void get_WithAllowList_KeepsListedValuesOnly() {
+        BoundedMeters.Family<Counter> family = meters().counters("rate.limit.exceeded.by.type", "exceeded",
+            Map.of("type", Set.of("api_key", "user", "ip")), "type");
+
+        family.get("api_key").increment();
+        family.get("user").increment();
+        family.get("ip").increment();
+        family.get("unexpected").increment();
+
+        assertThat(registry.get("rate.limit.exceeded.by.type").tag("type", "ip").counter().count()).isEqualTo(1.0);
+        assertThat(registry.get("rate.limit.exceeded.by.type").tag("type", BoundedMeters.OTHER).counter().count())
+            .isEqualTo(1.0);
+    }
+
+    @Test
+    void get_WithConfiguredAllowList_OverridesTopK() {
+        config.setAllowedValues(Map.of("event_type", List.of("net.authorize.payment.void.created")));
+        BoundedMeters.Family<Counter> family = meters().counters("webhook.received.total", "received", Map.of(),
+            "event_type");
+
+        assertThat(family.get("net.authorize.payment.void.created").getId().getTag("event_type"))
+            .isEqualTo("net.authorize.payment.void.created");
+        assertThat(family.get("net.authorize.payment.refund.created").getId().getTag("event_type"))
+            .isEqualTo(BoundedMeters.OTHER);
+    }
+
+    @Test
+    void get_WithTwoTags_BoundsEachTag() {
+        BoundedMeters.Family<Counter> family = meters().counters("payment.errors.by.type", "errors", Map.of(),
+            "error.type", "error.code");
+
+        family.get("CARD_DECLINED", "2").increment();
+        family.get("CARD_DECLINED", "3").increment();
+        family.get("CARD_DECLINED", "4").increment();
+
+        assertThat(registry.get("payment.errors.by.type").tags("error.type", "CARD_DECLINED", "error.code", "other")
+            .counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void get_AtSeriesLimit_RecordsUnderOther() {
+        config.setDefaultTopK(100);
+        config.setMaxSeries(3);
+        BoundedMeters meters = meters();
+        BoundedMeters.Family<Counter> family = meters.counters("api.key.usage.by.key", "usage", Map.of(), "key_id");
+
+        for (int i = 0; i < 10; i++) {
+            family.get("key_" + i).increment();
+        }
+
+        assertThat(meters.seriesCount()).isEqualTo(3);
+        assertThat(registry.get("api.key.usage.by.key").tag("key_id", BoundedMeters.OTHER).counter().count())
+            .isEqualTo(7.0);
+    }
+
+    @Test
+    void get_AfterRebalance_PromotesFrequentValueAndRemovesDemotedSeries() {
+        BoundedMeters meters = meters();
+        BoundedMeters.Family<Counter> family = meters.counters("api.key.usage.by.key", "usage", Map.of(), "key_id");
+        family.get("early_1").increment();
+        family.get("early_2").increment();
+        family.get("early_2").increment();
+        for (int i = 0; i < 5; i++) {
+            family.get("busy").increment();
+        }
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(61));
+        Counter busy = family.get("busy");
+
+        assertThat(busy.getId().getTag("key_id")).isEqualTo("busy");
+        assertThat(registry.find("api.key.usage.by.key").tag("key_id", "early_1").counter()).isNull();
+        assertThat(registry.find("api.key.usage.by.key").tag("key_id", "early_2").counter()).isNotNull();
+        assertThat(family.get("early_1").getId().getTag("key_id")).isEqualTo(BoundedMeters.OTHER);
+    }
+
+    @Test
+    void get_WithNullValue_RecordsUnderOther() {
+        BoundedMeters.Family<Counter> family = meters().counters("webhook.received.total", "received", Map.of(),
+            "event_type");
+
+        assertThat(family.get(null).getId().getTag("event_type")).isEqualTo(BoundedMeters.OTHER);
+    }
+
+    private BoundedMeters meters() {
+        return new BoundedMeters(registry, config, clock::get);
+    }
+}
@@ -0,0 +1,246 @@
+package com.talentica.paymentgateway.service;
+
+import com.talentica.paymentgateway.config.properties.AuthorizeNetProperties;
+import com.talentica.paymentgateway.entity.Customer;
+import com.talentica.paymentgateway.exception.PaymentProcessingException;
+import com.talentica.paymentgateway.repository.CustomerRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for CustomerProfileProvisioningService.
+ * Tests commit-time hand-off, per-customer coalescing, retries, duplicate profiles and the sweep.
+ */
+@ExtendWith(MockitoExtension.class)
+class CustomerProfileProvisioningServiceUnitTest {
+
+    @Mock
+    private CustomerRepository customerRepository;
+
+    @Mock
+    private AuthorizeNetCustomerService authorizeNetCustomerService;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private MetricsService metricsService;
+
+    private AuthorizeNetProperties authorizeNetProperties;
+    private CustomerProfileProvisioningService provisioningService;
+
+    @BeforeEach
+    void setUp() {
+        authorizeNetProperties = new AuthorizeNetProperties();
+        AuthorizeNetProperties.ProfileProvisioning config = authorizeNetProperties.getProfileProvisioning();
+        config.setInitialBackoffMs(1);
+        config.setMaxBackoffMs(5);
+        config.setMaxAttempts(3);
+        config.setSweepIntervalMinutes(0);
+        config.setSweepPageSize(2);
+
+        lenient().when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+            invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(mock(TransactionStatus.class)));
+
+        provisioningService = new CustomerProfileProvisioningService(customerRepository, authorizeNetCustomerService,
+            transactionTemplate, metricsService, authorizeNetProperties);
+        provisioningService.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        provisioningService.stop();
+    }
+
+    @Test
+    void enqueue_CreatesAndRecordsProfile() {
+        Customer customer = customerWithoutProfile();
+        when(customerRepository.findById(customer.getId())).thenReturn(Optional.of(customer));
+        when(authorizeNetCustomerService.createCustomerProfile(customer, null)).thenReturn("901");
+        when(customerRepository.assignAuthorizeNetCustomerProfileId(customer.getId(), "901")).thenReturn(1);
+
+        provisioningService.enqueue(customer.getId());
+
+        verify(metricsService, timeout(5000)).recordCustomerProfileProvisioning(
+            CustomerProfileProvisioningService.OUTCOME_CREATED);
+        awaitIdle();
+    }
+
+    @Test
+    void enqueue_InTransaction_WaitsForCommit() {
+        Customer customer = customerWithoutProfile();
+        when(customerRepository.findById(customer.getId())).thenReturn(Optional.of(customer));
+        when(authorizeNetCustomerService.createCustomerProfile(customer, null)).thenReturn("902");
+        when(customerRepository.assignAuthorizeNetCustomerProfileId(customer.getId(), "902")).thenReturn(1);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            provisioningService.enqueue(customer.getId());
+            assertThat(provisioningService.pending()).isZero();
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        verify(customerRepository, timeout(5000)).assignAuthorizeNetCustomerProfileId(customer.getId(), "902");
+    }
+
+    @Test
+    void submit_WhileInFlight_IsCoalesced() throws Exception {
+        Customer customer = customerWithoutProfile();
+        CountDownLatch calling = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(customerRepository.findById(customer.getId())).thenReturn(Optional.of(customer));
+        when(authorizeNetCustomerService.createCustomerProfile(customer, null)).thenAnswer(invocation -> {
+            calling.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return "903";
+        });
+        when(customerRepository.assignAuthorizeNetCustomerProfileId(customer.getId(), "903")).thenReturn(1);
+
+        assertThat(provisioningService.submit(customer.getId())).isTrue();
+        assertThat(calling.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(provisioningService.submit(customer.getId())).isFalse();
+        release.countDown();
+
+        awaitIdle();
+        verify(authorizeNetCustomerService, times(1)).createCustomerProfile(customer, null);
+        verify(metricsService).recordCustomerProfileProvisioning(CustomerProfileProvisioningService.OUTCOME_COALESCED);
+    }
+
+    @Test
+    void failedAttempt_IsRetriedWithBackoff() {
+        Customer customer = customerWithoutProfile();
+        when(customerRepository.findById(customer.getId())).thenReturn(Optional.of(customer));
+        when(authorizeNetCustomerService.createCustomerProfile(customer, null))
+            .thenThrow(new PaymentProcessingException("Failed to create customer profile: timeout", "corr"))
+            .thenReturn("904");
+        when(customerRepository.assignAuthorizeNetCustomerProfileId(customer.getId(), "904")).thenReturn(1);
+
+        provisioningService.submit(customer.getId());
+
+        verify(customerRepository, timeout(5000)).assignAuthorizeNetCustomerProfileId(customer.getId(), "904");
+        verify(metricsService).recordCustomerProfileProvisioning(CustomerProfileProvisioningService.OUTCOME_RETRIED);
+        awaitIdle();
+    }
+
+    @Test
+    void exhaustedAttempts_AreCountedAndReleased() {
+        Customer customer = customerWithoutProfile();
+        when(customerRepository.findById(customer.getId())).thenReturn(Optional.of(customer));
+        when(authorizeNetCustomerService.createCustomerProfile(customer, null))
+            .thenThrow(new PaymentProcessingException("Failed to create customer profile: E00003", "corr"));
+
+        provisioningService.submit(customer.getId());
+
+        verify(metricsService, timeout(5000)).recordCustomerProfileProvisioning(
+            CustomerProfileProvisioningService.OUTCOME_FAILED);
+        verify(authorizeNetCustomerService, times(3)).createCustomerProfile(customer, null);
+        awaitIdle();
+    }
+
+    @Test
+    void duplicateProfile_RecordsExistingProfileId() {
+        Customer customer = customerWithoutProfile();
+        when(customerRepository.findById(customer.getId())).thenReturn(Optional.of(customer));
+        when(authorizeNetCustomerService.createCustomerProfile(customer, null)).thenThrow(new PaymentProcessingException(
+            "Failed to create customer profile: A duplicate record with ID 5551234 already exists.", "corr"));
+        when(customerRepository.assignAuthorizeNetCustomerProfileId(customer.getId(), "5551234")).thenReturn(1);
+
+        provisioningService.submit(customer.getId());
+
+        verify(metricsService, timeout(5000)).recordCustomerProfileProvisioning(
+            CustomerProfileProvisioningService.OUTCOME_EXISTING);
+        awaitIdle();
+    }
+
+    @Test
+    void customerWithProfile_IsSkipped() {
+        Customer customer = customerWithoutProfile();
+        customer.setAuthorizeNetCustomerProfileId("905");
+        when(customerRepository.findById(customer.getId())).thenReturn(Optional.of(customer));
+
+        provisioningService.submit(customer.getId());
+
+        verify(metricsService, timeout(5000)).recordCustomerProfileProvisioning(
+            CustomerProfileProvisioningService.OUTCOME_SKIPPED);
+        verifyNoInteractions(authorizeNetCustomerService);
+    }
+
+    @Test
+    void sweepOnce_QueuesCustomersPageByPage() {
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        UUID third = UUID.randomUUID();
+        when(customerRepository.findIdsMissingAuthorizeNetProfile(any(ZonedDateTime.class), eq(new UUID(0L, 0L)), eq(2)))
+            .thenReturn(List.of(first, second));
+        when(customerRepository.findIdsMissingAuthorizeNetProfile(any(ZonedDateTime.class), eq(second), eq(2)))
+            .thenReturn(List.of(third));
+        when(customerRepository.findById(any(UUID.class))).thenReturn(Optional.empty());
+
+        assertThat(provisioningService.sweepOnce()).isEqualTo(3);
+
+        verify(customerRepository, timeout(5000).times(3)).findById(any(UUID.class));
+        awaitIdle();
+    }
+
+    @Test
+    void backoff_GrowsAndIsCapped() {
+        AuthorizeNetProperties.ProfileProvisioning config = authorizeNetProperties.getProfileProvisioning();
+        config.setInitialBackoffMs(1000);
+        config.setMaxBackoffMs(60000);
+
+        assertThat(provisioningService.backoffMillis(1)).isBetween(800L, 1200L);
+        assertThat(provisioningService.backoffMillis(3)).isBetween(3200L, 4800L);
+        assertThat(provisioningService.backoffMillis(20)).isBetween(48000L, 72000L);
+    }
+
+    @Test
+    void enqueue_WhenDisabled_IsIgnored() {
+        provisioningService.stop();
+        authorizeNetProperties.getProfileProvisioning().setEnabled(false);
+        provisioningService = new CustomerProfileProvisioningService(customerRepository, authorizeNetCustomerService,
+            transactionTemplate, metricsService, authorizeNetProperties);
+        provisioningService.start();
+
+        provisioningService.enqueue(UUID.randomUUID());
+
+        verifyNoInteractions(customerRepository, authorizeNetCustomerService);
+    }
+
+    private void awaitIdle() {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (provisioningService.pending() > 0 && System.nanoTime() < deadline) {
+            Thread.yield();
+        }
+        assertThat(provisioningService.pending()).isZero();
+    }
+
+    private static Customer customerWithoutProfile() {
+        Customer customer = new Customer();
+        customer.setId(UUID.randomUUID());
+        customer.setEmail("cim@example.com");
+        return customer;
+    }
+}
@@ -0,0 +1,378 @@
+package com.talentica.paymentgateway.service;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.talentica.paymentgateway.config.properties.PaymentProperties;
+import com.talentica.paymentgateway.dto.payment.PaymentResponse;
+import com.talentica.paymentgateway.exception.PaymentProcessingException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for IdempotentRequestCoordinator.
+ * Tests Redis claims, replay of stored responses, joining local attempts and fallbacks.
+ */
+@ExtendWith(MockitoExtension.class)
+class IdempotentRequestCoordinatorUnitTest {
+
+    private static final String KEY = "order-1001-attempt";
+    private static final String REDIS_KEY = IdempotentRequestCoordinator.KEY_PREFIX + KEY;
+
+    @Mock
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Mock
+    private ValueOperations<String, Object> valueOperations;
+
+    @Mock
+    private MetricsService metricsService;
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+        .registerModule(new JavaTimeModule())
+        .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    private PaymentProperties paymentProperties;
+    private IdempotentRequestCoordinator coordinator;
+
+    @BeforeEach
+    void setUp() {
+        paymentProperties = new PaymentProperties();
+        paymentProperties.getIdempotency().setPollIntervalMs(1);
+        paymentProperties.getIdempotency().setLeaseSeconds(5);
+        paymentProperties.getIdempotency().setWaitTimeoutSeconds(5);
+        lenient().when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        coordinator = new IdempotentRequestCoordinator(redisTemplate, objectMapper, metricsService, paymentProperties);
+    }
+
+    @Test
+    void execute_WithoutKey_RunsRequest() {
+        PaymentResponse response = response("txn_1");
+
+        assertThat(coordinator.execute(null, () -> response)).isSameAs(response);
+
+        verifyNoInteractions(redisTemplate, metricsService);
+    }
+
+    @Test
+    void execute_ClaimsKeyAndStoresResponse() throws Exception {
+        ArgumentCaptor<Object> claim = ArgumentCaptor.forClass(Object.class);
+        when(valueOperations.setIfAbsent(eq(REDIS_KEY), claim.capture(), any(Duration.class))).thenReturn(true);
+        when(redisTemplate.execute(eq(IdempotentRequestCoordinator.STORE_IF_CLAIMED), eq(List.of(REDIS_KEY)),
+            any(), any(), any())).thenReturn(1L);
+        PaymentResponse response = response("txn_2");
+
+        assertThat(coordinator.execute(KEY, () -> response)).isSameAs(response);
+
+        assertThat(claim.getValue().toString()).startsWith(IdempotentRequestCoordinator.IN_FLIGHT);
+        verify(redisTemplate).execute(IdempotentRequestCoordinator.STORE_IF_CLAIMED, List.of(REDIS_KEY),
+            claim.getValue(), objectMapper.writeValueAsString(response), Duration.ofMinutes(1440).toMillis());
+        verify(valueOperations, never()).set(anyString(), any(), any(Duration.class));
+        verify(metricsService).recordIdempotentRequest(IdempotentRequestCoordinator.OUTCOME_EXECUTED);
+        assertThat(coordinator.inFlight()).isZero();
+    }
+
+    @Test
+    void execute_EachRequestClaimsWithItsOwnToken() {
+        ArgumentCaptor<Object> claims = ArgumentCaptor.forClass(Object.class);
+        when(valueOperations.setIfAbsent(eq(REDIS_KEY), claims.capture(), any(Duration.class))).thenReturn(true);
+
+        coordinator.execute(KEY, () -> response("txn_8"));
+        coordinator.execute(KEY, () -> response("txn_9"));
+
+        assertThat(claims.getAllValues()).hasSize(2).doesNotHaveDuplicates();
+    }
+
+    @Test
+    void execute_ClaimLostBeforeResponse_LeavesNewOwnerAlone() {
+        when(valueOperations.setIfAbsent(eq(REDIS_KEY), any(), any(Duration.class))).thenReturn(true);
+        // The lease expired mid-request and another request holds the key now
+        when(redisTemplate.execute(eq(IdempotentRequestCoordinator.STORE_IF_CLAIMED), eq(List.of(REDIS_KEY)),
+            any(), any(), any())).thenReturn(0L);
+        PaymentResponse response = response("txn_10");
+
+        assertThat(coordinator.execute(KEY, () -> response)).isSameAs(response);
+
+        verify(valueOperations, never()).set(anyString(), any(), any(Duration.class));
+        verify(redisTemplate, never()).delete(anyString());
+    }
+
+    @Test
+    void execute_KeyClaimedElsewhere_ReplaysStoredResponse() throws Exception {
+        when(valueOperations.setIfAbsent(eq(REDIS_KEY), any(), any(Duration.class))).thenReturn(false);
+        when(valueOperations.get(REDIS_KEY))
+            .thenReturn(IdempotentRequestCoordinator.IN_FLIGHT)
+            .thenReturn(objectMapper.writeValueAsString(response("txn_3")));
+
+        PaymentResponse result = coordinator.execute(KEY, () -> {
+            throw new AssertionError("duplicate must not reach the gateway");
+        });
+
+        assertThat(result.getTransactionId()).isEqualTo("txn_3");
+        assertThat(result.getAmount()).isEqualByComparingTo("25.00");
+        verify(metricsService).recordIdempotentRequest(IdempotentRequestCoordinator.OUTCOME_REPLAYED);
+        verify(redisTemplate, never()).execute(eq(IdempotentRequestCoordinator.STORE_IF_CLAIMED), anyList(), any(), any(), any());
+    }
+
+    @Test
+    void execute_ClaimGoneWithoutResult_FallsBackToRequest() {
+        when(valueOperations.setIfAbsent(eq(REDIS_KEY), any(), any(Duration.class))).thenReturn(false);
+        when(valueOperations.get(REDIS_KEY)).thenReturn(IdempotentRequestCoordinator.IN_FLIGHT).thenReturn(null);
+        PaymentResponse stored = response("txn_4");
+
+        assertThat(coordinator.execute(KEY, () -> stored)).isSameAs(stored);
+
+        verify(metricsService).recordIdempotentRequest(IdempotentRequestCoordinator.OUTCOME_FALLBACK);
+    }
+
+    @Test
+    void execute_KeyMarkedOutcomeUnknown_FailsWithoutRunning() {
+        when(valueOperations.setIfAbsent(eq(REDIS_KEY), any(), any(Duration.class))).thenReturn(false);
+        when(valueOperations.get(REDIS_KEY)).thenReturn(IdempotentRequestCoordinator.OUTCOME_UNKNOWN + "token");
+        AtomicInteger executions = new AtomicInteger();
+
+        assertThatThrownBy(() -> coordinator.execute(KEY, () -> {
+            executions.incrementAndGet();
+            return response("txn_11");
+        })).isInstanceOf(PaymentProcessingException.class)
+            .extracting("errorCode").isEqualTo(IdempotentRequestCoordinator.ERROR_OUTCOME_UNKNOWN);
+
+        assertThat(executions).hasValue(0);
+        verify(metricsService).recordIdempotentRequest(IdempotentRequestCoordinator.OUTCOME_UNRESOLVED);
+    }
+
+    @Test
+    void execute_WaitForOtherNodeTimesOut_FailsWithoutRunning() {
+        paymentProperties.getIdempotency().setWaitTimeoutSeconds(1);
+        when(valueOperations.setIfAbsent(eq(REDIS_KEY), any(), any(Duration.class))).thenReturn(false);
+        when(valueOperations.get(REDIS_KEY)).thenReturn(IdempotentRequestCoordinator.IN_FLIGHT + "token");
+        AtomicInteger executions = new AtomicInteger();
+
+        assertThatThrownBy(() -> coordinator.execute(KEY, () -> {
+            executions.incrementAndGet();
+            return response("txn_12");
+        })).isInstanceOf(PaymentProcessingException.class)
+            .extracting("errorCode").isEqualTo(IdempotentRequestCoordinator.ERROR_IN_PROGRESS);
+
+        assertThat(executions).hasValue(0);
+    }
+
+    @Test
+    void execute_FailedWithUnknownOutcome_MarksKeyInsteadOfReleasing() {
+        when(valueOperations.setIfAbsent(eq(REDIS_KEY), any(), any(Duration.class))).thenReturn(true);
+
+        assertThatThrownBy(() -> coordinator.execute(KEY, () -> {
+            throw new PaymentProcessingException("Purchase transaction failed",
+                new PaymentProcessingException("Read timed out", "corr"), "corr");
+        })).isInstanceOf(PaymentProcessingException.class);
+
+        ArgumentCaptor<Object> claim = ArgumentCaptor.forClass(Object.class);
+        verify(valueOperations).setIfAbsent(eq(REDIS_KEY), claim.capture(), any(Duration.class));
+        String token = claim.getValue().toString().substring(IdempotentRequestCoordinator.IN_FLIGHT.length());
+        verify(redisTemplate).execute(IdempotentRequestCoordinator.STORE_IF_CLAIMED, List.of(REDIS_KEY), claim.getValue(),
+            IdempotentRequestCoordinator.OUTCOME_UNKNOWN + token, Duration.ofSeconds(5).toMillis());
+        verify(redisTemplate, never()).execute(eq(IdempotentRequestCoordinator.RELEASE_IF_CLAIMED), anyList(), any());
+        assertThat(coordinator.inFlight()).isZero();
+    }
+
+    @Test
+    void execute_RequestNotProcessed_ReleasesClaim() {
+        when(valueOperations.setIfAbsent(eq(REDIS_KEY), any(), any(Duration.class))).thenReturn(true);
+
+        assertThatThrownBy(() -> coordinator.execute(KEY, () -> {
+            throw new PaymentProcessingException("Purchase transaction failed", notSent(), "corr");
+        })).isInstanceOf(PaymentProcessingException.class);
+
+        ArgumentCaptor<Object> claim = ArgumentCaptor.forClass(Object.class);
+        verify(valueOperations).setIfAbsent(eq(REDIS_KEY), claim.capture(), any(Duration.class));
+        verify(redisTemplate).execute(IdempotentRequestCoordinator.RELEASE_IF_CLAIMED, List.of(REDIS_KEY), claim.getValue());
+        verify(redisTemplate, never()).delete(anyString());
+        verify(redisTemplate, never()).execute(eq(IdempotentRequestCoordinator.STORE_IF_CLAIMED), anyList(), any(), any(), any());
+        assertThat(coordinator.inFlight()).isZero();
+    }
+
+    @Test
+    void execute_RedisDown_RunsRequest() {
+        when(valueOperations.setIfAbsent(eq(REDIS_KEY), any(), any(Duration.class)))
+            .thenThrow(new RedisConnectionFailureException("Connection refused"));
+        PaymentResponse response = response("txn_5");
+
+        assertThat(coordinator.execute(KEY, () -> response)).isSameAs(response);
+
+        verify(redisTemplate, never()).execute(eq(IdempotentRequestCoordinator.STORE_IF_CLAIMED), anyList(), any(), any(), any());
+    }
+
+    @Test
+    void execute_ConcurrentDuplicateOnNode_JoinsRunningRequest() throws Exception {
+        coordinator = new IdempotentRequestCoordinator(null, objectMapper, metricsService, paymentProperties);
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger executions = new AtomicInteger();
+        PaymentResponse response = response("txn_6");
+
+        CompletableFuture<PaymentResponse> first = CompletableFuture.supplyAsync(() ->
+            coordinator.execute(KEY, () -> {
+                executions.incrementAndGet();
+                running.countDown();
+                await(release);
+                return response;
+            }));
+        assertThat(running.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<PaymentResponse> duplicate = CompletableFuture.supplyAsync(() ->
+            coordinator.execute(KEY, () -> {
+                executions.incrementAndGet();
+                return response("txn_other");
+            }));
+        release.countDown();
+
+        assertThat(first.get(5, TimeUnit.SECONDS)).isSameAs(response);
+        assertThat(duplicate.get(5, TimeUnit.SECONDS)).isSameAs(response);
+        assertThat(executions).hasValue(1);
+        verify(metricsService).recordIdempotentRequest(IdempotentRequestCoordinator.OUTCOME_JOINED);
+    }
+
+    @Test
+    void execute_FirstRequestOnNodeFailsWithUnknownOutcome_DuplicateGetsFailureWithoutRunning() throws Exception {
+        coordinator = new IdempotentRequestCoordinator(null, objectMapper, metricsService, paymentProperties);
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger executions = new AtomicInteger();
+        PaymentProcessingException failure = new PaymentProcessingException("Purchase transaction failed",
+            new PaymentProcessingException("Read timed out", "corr"), "corr");
+
+        CompletableFuture<PaymentResponse> first = CompletableFuture.supplyAsync(() ->
+            coordinator.execute(KEY, () -> {
+                executions.incrementAndGet();
+                running.countDown();
+                await(release);
+                throw failure;
+            }));
+        assertThat(running.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<PaymentResponse> duplicate = CompletableFuture.supplyAsync(() ->
+            coordinator.execute(KEY, () -> {
+                executions.incrementAndGet();
+                return response("txn_other");
+            }));
+        awaitJoined();
+        release.countDown();
+
+        assertThatThrownBy(() -> first.get(5, TimeUnit.SECONDS)).hasCause(failure);
+        assertThatThrownBy(() -> duplicate.get(5, TimeUnit.SECONDS)).hasCause(failure);
+        assertThat(executions).hasValue(1);
+    }
+
+    @Test
+    void execute_FirstRequestOnNodeNotProcessed_DuplicateRuns() throws Exception {
+        coordinator = new IdempotentRequestCoordinator(null, objectMapper, metricsService, paymentProperties);
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger executions = new AtomicInteger();
+        PaymentResponse response = response("txn_13");
+
+        CompletableFuture<PaymentResponse> first = CompletableFuture.supplyAsync(() ->
+            coordinator.execute(KEY, () -> {
+                executions.incrementAndGet();
+                running.countDown();
+                await(release);
+                throw new PaymentProcessingException("Purchase transaction failed", notSent(), "corr");
+            }));
+        assertThat(running.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<PaymentResponse> duplicate = CompletableFuture.supplyAsync(() ->
+            coordinator.execute(KEY, () -> {
+                executions.incrementAndGet();
+                return response;
+            }));
+        awaitJoined();
+        release.countDown();
+
+        assertThatThrownBy(() -> first.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(PaymentProcessingException.class);
+        assertThat(duplicate.get(5, TimeUnit.SECONDS)).isSameAs(response);
+        assertThat(executions).hasValue(2);
+        verify(metricsService).recordIdempotentRequest(IdempotentRequestCoordinator.OUTCOME_FALLBACK);
+    }
+
+    @Test
+    void execute_FirstRequestOnNodeOutlastsWait_DuplicateFailsWithoutRunning() throws Exception {
+        paymentProperties.getIdempotency().setWaitTimeoutSeconds(1);
+        coordinator = new IdempotentRequestCoordinator(null, objectMapper, metricsService, paymentProperties);
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger executions = new AtomicInteger();
+        PaymentResponse response = response("txn_14");
+
+        CompletableFuture<PaymentResponse> first = CompletableFuture.supplyAsync(() ->
+            coordinator.execute(KEY, () -> {
+                executions.incrementAndGet();
+                running.countDown();
+                await(release);
+                return response;
+            }));
+        assertThat(running.await(5, TimeUnit.SECONDS)).isTrue();
+
+        assertThatThrownBy(() -> coordinator.execute(KEY, () -> {
+            executions.incrementAndGet();
+            return response("txn_other");
+        })).isInstanceOf(PaymentProcessingException.class)
+            .extracting("errorCode").isEqualTo(IdempotentRequestCoordinator.ERROR_IN_PROGRESS);
+        release.countDown();
+
+        assertThat(first.get(5, TimeUnit.SECONDS)).isSameAs(response);
+        assertThat(executions).hasValue(1);
+    }
+
+    @Test
+    void execute_WhenDisabled_RunsRequest() {
+        paymentProperties.getIdempotency().setEnabled(false);
+        PaymentResponse response = response("txn_7");
+
+        assertThat(coordinator.execute(KEY, () -> response)).isSameAs(response);
+
+        verifyNoInteractions(redisTemplate);
+    }
+
+    // Lets a duplicate started on another thread reach the running attempt before it completes
+    private static void awaitJoined() throws InterruptedException {
+        Thread.sleep(200);
+    }
+
+    private static PaymentProcessingException notSent() {
+        return new PaymentProcessingException("Connection refused", AuthorizeNetTransport.ERROR_NOT_SENT, "corr");
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static PaymentResponse response(String transactionId) {
+        PaymentResponse response = new PaymentResponse();
+        response.setTransactionId(transactionId);
+        response.setStatus("CAPTURED");
+        response.setAmount(new BigDecimal("25.00"));
+        response.setSuccess(true);
+        return response;
+    }
+}
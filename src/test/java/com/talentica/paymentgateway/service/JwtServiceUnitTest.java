@@ -2,6 +2,7 @@ package com.talentica.paymentgateway.service;
 
 import com.talentica.paymentgateway.config.ApplicationConfig;
 import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
 import io.jsonwebtoken.MalformedJwtException;
 import io.jsonwebtoken.security.SignatureException;
 import org.junit.jupiter.api.BeforeEach;
@@ -416,4 +417,46 @@ class JwtServiceUnitTest {
         // Refresh token should expire later than access token
         assertTrue(refreshExpiration > accessExpiration);
     }
+
+    @Test
+    void parseToken_WithValidToken_ShouldReturnTypedClaims() {
+        Map<String, Object> extraClaims = new HashMap<>();
+        extraClaims.put("user_id", "USER_123");
+        String token = jwtService.generateAccessToken(extraClaims, testUser);
+
+        JwtClaims claims = jwtService.parseToken(token);
+
+        assertEquals("testuser@example.com", claims.subject());
+        assertEquals("USER_123", claims.userId());
+        assertTrue(claims.isAccessToken());
+        assertEquals(List.of("ROLE_USER", "ROLE_CUSTOMER"), claims.authorities());
+        assertNotNull(claims.expiresAt());
+    }
+
+    @Test
+    void parseToken_WithSameTokenTwice_ShouldReuseVerifiedClaims() {
+        String token = jwtService.generateAccessToken(testUser);
+
+        JwtClaims first = jwtService.parseToken(token);
+        JwtClaims second = jwtService.parseToken(token);
+
+        assertSame(first, second);
+    }
+
+    @Test
+    void revokeToken_WithValidToken_ShouldRejectToken() {
+        String token = jwtService.generateAccessToken(testUser);
+        jwtService.parseToken(token);
+
+        assertTrue(jwtService.revokeToken(token));
+
+        assertThrows(JwtException.class, () -> jwtService.parseToken(token));
+        assertFalse(jwtService.isAccessToken(token));
+        assertFalse(jwtService.isTokenValid(token, testUser));
+    }
+
+    @Test
+    void revokeToken_WithMalformedToken_ShouldReturnFalse() {
+        assertFalse(jwtService.revokeToken("invalid.jwt.token"));
+    }
 }
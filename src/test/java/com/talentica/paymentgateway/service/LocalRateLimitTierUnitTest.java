@@ -0,0 +1,175 @@
+package com.talentica.paymentgateway.service;
+
+import com.talentica.paymentgateway.config.ApplicationConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for LocalRateLimitTier.
+ * Uses an in-memory lease source standing in for the Redis bucket.
+ */
+@ExtendWith(MockitoExtension.class)
+class LocalRateLimitTierUnitTest {
+
+    @Mock
+    private MetricsService metricsService;
+
+    private ApplicationConfig.AppProperties.RateLimit.LocalTier config;
+    private FakeGlobalBucket globalBucket;
+    private List<Runnable> pendingRefills;
+
+    @BeforeEach
+    void setUp() {
+        config = new ApplicationConfig.AppProperties.RateLimit.LocalTier();
+        config.setEnabled(true);
+        config.setLeaseSize(10);
+        config.setMaxLeaseFraction(1.0);
+        config.setRefillThreshold(0.2);
+        pendingRefills = new ArrayList<>();
+    }
+
+    @Test
+    void tryAcquire_ConsumesLocalTokensWithoutCallingRedis() {
+        globalBucket = new FakeGlobalBucket(1000, Instant.now().plusSeconds(3600));
+        LocalRateLimitTier tier = new LocalRateLimitTier(globalBucket, pendingRefills::add, metricsService, config);
+
+        for (int i = 0; i < 8; i++) {
+            assertThat(tier.tryAcquire("user:1", 1000, 100).isAllowed()).isTrue();
+        }
+
+        assertThat(globalBucket.leaseCalls.get()).isEqualTo(1);
+        assertThat(tier.heldTokens()).isEqualTo(2);
+        verify(metricsService).recordRateLimitLeaseRefill("sync", 10);
+    }
+
+    @Test
+    void tryAcquire_PrefetchesNextLeaseBelowThreshold() {
+        globalBucket = new FakeGlobalBucket(1000, Instant.now().plusSeconds(3600));
+        LocalRateLimitTier tier = new LocalRateLimitTier(globalBucket, pendingRefills::add, metricsService, config);
+
+        for (int i = 0; i < 8; i++) {
+            tier.tryAcquire("user:1", 1000, 100);
+        }
+        assertThat(pendingRefills).hasSize(1);
+
+        pendingRefills.get(0).run();
+
+        assertThat(globalBucket.leaseCalls.get()).isEqualTo(2);
+        assertThat(tier.heldTokens()).isEqualTo(12);
+        verify(metricsService).recordRateLimitLeaseRefill("async", 10);
+    }
+
+    @Test
+    void tryAcquire_GlobalBucketExhausted_RejectsLocally() {
+        globalBucket = new FakeGlobalBucket(15, Instant.now().plusSeconds(3600));
+        LocalRateLimitTier tier = new LocalRateLimitTier(globalBucket, Runnable::run, metricsService, config);
+
+        int allowed = 0;
+        for (int i = 0; i < 30; i++) {
+            if (tier.tryAcquire("ip:10.0.0.1", 15, 5).isAllowed()) {
+                allowed++;
+            }
+        }
+
+        assertThat(allowed).isEqualTo(15);
+        int callsWhenExhausted = globalBucket.leaseCalls.get();
+        assertThat(tier.tryAcquire("ip:10.0.0.1", 15, 5).isAllowed()).isFalse();
+        assertThat(globalBucket.leaseCalls.get()).isEqualTo(callsWhenExhausted);
+        verify(metricsService, atLeastOnce()).recordRateLimitLocalRejection();
+    }
+
+    @Test
+    void tryAcquire_WindowRollover_DiscardsUnusedLeaseAndLeasesAgain() {
+        globalBucket = new FakeGlobalBucket(1000, Instant.now().minusSeconds(1));
+        LocalRateLimitTier tier = new LocalRateLimitTier(globalBucket, pendingRefills::add, metricsService, config);
+
+        tier.tryAcquire("user:2", 1000, 100);
+        globalBucket.resetTime = Instant.now().plusSeconds(3600);
+        tier.tryAcquire("user:2", 1000, 100);
+
+        assertThat(globalBucket.leaseCalls.get()).isEqualTo(2);
+        verify(metricsService).recordRateLimitLeaseExpired(9);
+    }
+
+    @Test
+    void tryAcquire_LeaseFailure_Propagates() {
+        LocalRateLimitTier tier = new LocalRateLimitTier((id, tokens, limit, burst) -> {
+            throw new IllegalStateException("redis down");
+        }, Runnable::run, metricsService, config);
+
+        org.assertj.core.api.Assertions.assertThatThrownBy(() -> tier.tryAcquire("user:3", 1000, 100))
+            .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void leaseSizeFor_CappedByFractionOfLimit() {
+        config.setLeaseSize(50);
+        config.setMaxLeaseFraction(0.05);
+        LocalRateLimitTier tier = new LocalRateLimitTier(mock(LocalRateLimitTier.LeaseSource.class),
+            Runnable::run, metricsService, config);
+
+        assertThat(tier.leaseSizeFor(100_000)).isEqualTo(50);
+        assertThat(tier.leaseSizeFor(200)).isEqualTo(10);
+        assertThat(tier.leaseSizeFor(5)).isEqualTo(1);
+    }
+
+    @Test
+    void tryAcquire_ConcurrentRequests_NeverExceedGlobalLimit() throws Exception {
+        globalBucket = new FakeGlobalBucket(500, Instant.now().plusSeconds(3600));
+        ExecutorService refills = Executors.newSingleThreadExecutor();
+        LocalRateLimitTier tier = new LocalRateLimitTier(globalBucket, refills, metricsService, config);
+        ExecutorService callers = Executors.newFixedThreadPool(8);
+        AtomicInteger allowed = new AtomicInteger();
+
+        for (int i = 0; i < 2000; i++) {
+            callers.execute(() -> {
+                if (tier.tryAcquire("api:key", 500, 50).isAllowed()) {
+                    allowed.incrementAndGet();
+                }
+            });
+        }
+        callers.shutdown();
+        assertThat(callers.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+        refills.shutdown();
+
+        assertThat(allowed.get()).isLessThanOrEqualTo(500);
+        assertThat(globalBucket.leaseCalls.get()).isLessThan(2000 / 5);
+    }
+
+    /**
+     * In-memory stand-in for the Redis lease script.
+     */
+    private static final class FakeGlobalBucket implements LocalRateLimitTier.LeaseSource {
+        private int remaining;
+        private volatile Instant resetTime;
+        private final AtomicInteger leaseCalls = new AtomicInteger();
+
+        private FakeGlobalBucket(int limit, Instant resetTime) {
+            this.remaining = limit;
+            this.resetTime = resetTime;
+        }
+
+        @Override
+        public synchronized LocalRateLimitTier.Lease lease(String identifier, int tokens, int requestsPerHour, int burstCapacity) {
+            leaseCalls.incrementAndGet();
+            int granted = Math.min(tokens, remaining);
+            remaining -= granted;
+            return new LocalRateLimitTier.Lease(granted, remaining, resetTime);
+        }
+    }
+}
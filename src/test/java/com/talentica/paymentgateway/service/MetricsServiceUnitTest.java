@@ -1,5 +1,6 @@
 package com.talentica.paymentgateway.service;
 
+import com.talentica.paymentgateway.config.properties.MetricsProperties;
 import com.talentica.paymentgateway.entity.PaymentStatus;
 import com.talentica.paymentgateway.entity.TransactionType;
 import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
@@ -266,6 +267,23 @@ class MetricsServiceUnitTest {
         assertNotNull(meterRegistry.find("api.key.usage.by.key").tag("key_id", "key-123").counter());
     }
 
+    @Test
+    void recordApiKeyUsage_WithManyKeys_BoundsSeries() {
+        // Given
+        MetricsProperties properties = new MetricsProperties();
+        properties.getCardinality().setDefaultTopK(10);
+        metricsService = new MetricsService(meterRegistry, properties);
+
+        // When
+        for (int i = 0; i < 1000; i++) {
+            metricsService.recordApiKeyUsage("key-" + i);
+        }
+
+        // Then
+        assertEquals(11, meterRegistry.find("api.key.usage.by.key").counters().size());
+        assertEquals(990.0, meterRegistry.get("api.key.usage.by.key").tag("key_id", "other").counter().count());
+    }
+
     @Test
     void recordSubscriptionCreated_ShouldRecordMetrics() {
         // Given
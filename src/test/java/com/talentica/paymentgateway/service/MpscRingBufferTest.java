@@ -0,0 +1,86 @@
+package com.talentica.paymentgateway.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for MpscRingBuffer.
+ * Tests capacity, full-buffer rejection, ordering and concurrent producers.
+ */
+class MpscRingBufferTest {
+
+    @Test
+    void capacity_RoundsUpToPowerOfTwo() {
+        assertThat(new MpscRingBuffer<String>(16).capacity()).isEqualTo(16);
+        assertThat(new MpscRingBuffer<String>(17).capacity()).isEqualTo(32);
+        assertThatThrownBy(() -> new MpscRingBuffer<String>(1)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void offer_WhenFull_FailsUntilDrained() {
+        MpscRingBuffer<Integer> buffer = new MpscRingBuffer<>(4);
+        for (int i = 0; i < 4; i++) {
+            assertThat(buffer.offer(i)).isTrue();
+        }
+
+        assertThat(buffer.offer(4)).isFalse();
+        assertThat(buffer.size()).isEqualTo(4);
+
+        List<Integer> drained = new ArrayList<>();
+        assertThat(buffer.drain(drained::add, 2)).isEqualTo(2);
+        assertThat(buffer.offer(4)).isTrue();
+        assertThat(buffer.offer(5)).isTrue();
+        buffer.drain(drained::add, Integer.MAX_VALUE);
+
+        assertThat(drained).containsExactly(0, 1, 2, 3, 4, 5);
+        assertThat(buffer.isEmpty()).isTrue();
+    }
+
+    @Test
+    void drain_WithConcurrentProducers_ReceivesEveryElementOnceInProducerOrder() throws Exception {
+        int producers = 4;
+        int perProducer = 10_000;
+        MpscRingBuffer<long[]> buffer = new MpscRingBuffer<>(64);
+        ExecutorService executor = Executors.newFixedThreadPool(producers);
+        CountDownLatch start = new CountDownLatch(1);
+        for (int p = 0; p < producers; p++) {
+            long producer = p;
+            executor.submit(() -> {
+                start.await();
+                for (long i = 0; i < perProducer; i++) {
+                    long[] element = {producer, i};
+                    while (!buffer.offer(element)) {
+                        Thread.yield();
+                    }
+                }
+                return null;
+            });
+        }
+
+        long[] nextExpected = new long[producers];
+        int[] received = {0};
+        start.countDown();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (received[0] < producers * perProducer && System.nanoTime() < deadline) {
+            buffer.drain(element -> {
+                assertThat(element[1]).isEqualTo(nextExpected[(int) element[0]]);
+                nextExpected[(int) element[0]]++;
+                received[0]++;
+            }, 100);
+            Thread.yield();
+        }
+        executor.shutdown();
+
+        assertThat(received[0]).isEqualTo(producers * perProducer);
+        assertThat(buffer.isEmpty()).isTrue();
+    }
+}
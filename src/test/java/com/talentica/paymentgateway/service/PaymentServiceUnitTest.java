@@ -6,24 +6,32 @@ import com.talentica.paymentgateway.entity.*;
 import com.talentica.paymentgateway.exception.PaymentProcessingException;
 import com.talentica.paymentgateway.repository.*;
 import com.talentica.paymentgateway.util.AuthorizeNetMapper;
-import net.authorize.Environment;
 import net.authorize.api.contract.v1.*;
-import net.authorize.api.controller.CreateTransactionController;
-import net.authorize.api.controller.GetTransactionDetailsController;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
-import org.mockito.MockedConstruction;
 import org.mockito.MockedStatic;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.slf4j.MDC;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
 import java.time.ZonedDateTime;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -39,7 +47,7 @@ class PaymentServiceUnitTest {
     private MerchantAuthenticationType merchant;
     
     @Mock
-    private Environment environment;
+    private AuthorizeNetTransport authorizeNetTransport;
     
     @Mock
     private AuthorizeNetMapper mapper;
@@ -60,17 +68,48 @@ class PaymentServiceUnitTest {
     private MetricsService metricsService;
     
     @Mock
-    private AuthorizeNetCustomerService authorizeNetCustomerService;
+    private CustomerProfileProvisioningService profileProvisioningService;
+    
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private TransactionDetailsCache transactionDetailsCache;
+
+    @Mock
+    private IdempotentRequestCoordinator idempotentRequestCoordinator;
     
     @InjectMocks
     private PaymentService paymentService;
     
     private MockedStatic<MDC> mdcMock;
     
+    private final AtomicBoolean inTransaction = new AtomicBoolean();
+    
     @BeforeEach
     void setUp() {
         mdcMock = mockStatic(MDC.class);
         mdcMock.when(() -> MDC.get("correlationId")).thenReturn("test-correlation-id");
+        
+        lenient().when(transactionTemplate.execute(any())).thenAnswer(invocation -> {
+            inTransaction.set(true);
+            try {
+                return invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(mock(TransactionStatus.class));
+            } finally {
+                inTransaction.set(false);
+            }
+        });
+        lenient().doAnswer(invocation -> {
+            inTransaction.set(true);
+            try {
+                invocation.<Consumer<TransactionStatus>>getArgument(0).accept(mock(TransactionStatus.class));
+                return null;
+            } finally {
+                inTransaction.set(false);
+            }
+        }).when(transactionTemplate).executeWithoutResult(any());
+        lenient().when(idempotentRequestCoordinator.execute(any(), any())).thenAnswer(invocation ->
+            invocation.<Supplier<PaymentResponse>>getArgument(1).get());
     }
     
     @AfterEach
@@ -96,17 +135,42 @@ class PaymentServiceUnitTest {
         when(mapper.mapToPurchaseTransaction(any(PurchaseRequest.class), any(MerchantAuthenticationType.class))).thenReturn(new CreateTransactionRequest());
         when(mapper.mapToPaymentResponse(any(CreateTransactionResponse.class), anyString(), anyString(), any(PaymentMethodRequest.class), anyString())).thenReturn(expectedResponse);
         
-        try (MockedConstruction<CreateTransactionController> mockedController = mockConstruction(CreateTransactionController.class, (mock, context) -> {
-            when(mock.getApiResponse()).thenReturn(authNetResponse);
-        })) {
-            PaymentResponse result = paymentService.processPurchase(request);
-            
-            assertNotNull(result);
-            assertEquals(expectedResponse.getTransactionId(), result.getTransactionId());
-            verify(metricsService).recordPaymentRequest();
-            verify(metricsService).recordPaymentMethodUsage("credit_card");
-            verify(transactionRepository, times(2)).save(any(Transaction.class));
-        }
+        when(authorizeNetTransport.execute(any(CreateTransactionRequest.class), eq(CreateTransactionResponse.class))).thenReturn(authNetResponse);
+
+        PaymentResponse result = paymentService.processPurchase(request);
+        
+        assertNotNull(result);
+        assertEquals(expectedResponse.getTransactionId(), result.getTransactionId());
+        verify(metricsService).recordPaymentRequest();
+        verify(metricsService).recordPaymentMethodUsage("credit_card");
+        verify(transactionRepository, times(2)).save(any(Transaction.class));
+    }
+    
+    @Test
+    void testProcessPurchase_GatewayCallRunsOutsideDatabaseTransaction() {
+        PurchaseRequest request = createPurchaseRequest();
+        Transaction transaction = createTransaction();
+        CreateTransactionResponse authNetResponse = createSuccessfulAuthNetResponse();
+        PaymentResponse expectedResponse = createSuccessfulPaymentResponse();
+        AtomicBoolean gatewayCalledInTransaction = new AtomicBoolean();
+        
+        when(mapper.generateTransactionId()).thenReturn("test-transaction-id");
+        when(customerRepository.findByEmailIgnoreCase(anyString())).thenReturn(Optional.of(createCustomer()));
+        when(paymentMethodRepository.save(any(PaymentMethod.class))).thenReturn(createPaymentMethod());
+        when(transactionRepository.save(any(Transaction.class))).thenReturn(transaction);
+        when(mapper.mapToPurchaseTransaction(any(PurchaseRequest.class), any(MerchantAuthenticationType.class))).thenReturn(new CreateTransactionRequest());
+        when(mapper.mapToPaymentResponse(any(CreateTransactionResponse.class), anyString(), anyString(), any(PaymentMethodRequest.class), anyString())).thenReturn(expectedResponse);
+        
+        when(authorizeNetTransport.execute(any(CreateTransactionRequest.class), eq(CreateTransactionResponse.class))).thenAnswer(invocation -> {
+            gatewayCalledInTransaction.set(inTransaction.get());
+            return authNetResponse;
+        });
+
+        paymentService.processPurchase(request);
+        
+        assertFalse(gatewayCalledInTransaction.get());
+        verify(transactionTemplate).execute(any());
+        verify(transactionTemplate).executeWithoutResult(any());
     }
     
     @Test
@@ -126,6 +190,115 @@ class PaymentServiceUnitTest {
         verify(metricsService).recordTransaction(eq(TransactionType.PURCHASE), any());
     }
 
+    @Test
+    void testProcessPurchase_WithIdempotencyKey_RunsThroughCoordinator() {
+        PurchaseRequest request = createPurchaseRequest();
+        request.setIdempotencyKey("test-idempotency-key");
+        PaymentResponse firstResponse = createSuccessfulPaymentResponse();
+        when(idempotentRequestCoordinator.execute(eq("test-idempotency-key"), any())).thenReturn(firstResponse);
+
+        PaymentResponse result = paymentService.processPurchase(request);
+
+        assertSame(firstResponse, result);
+        verifyNoInteractions(transactionRepository, authorizeNetTransport);
+    }
+
+    @Test
+    void testProcessPurchase_PersistsIdempotencyKeyBeforeGatewayCall() {
+        PurchaseRequest request = createPurchaseRequest();
+        request.setIdempotencyKey("test-idempotency-key");
+        List<String> savedKeys = new ArrayList<>();
+
+        when(mapper.generateTransactionId()).thenReturn("test-transaction-id");
+        when(customerRepository.findByEmailIgnoreCase(anyString())).thenReturn(Optional.of(createCustomer()));
+        when(paymentMethodRepository.save(any(PaymentMethod.class))).thenReturn(createPaymentMethod());
+        when(transactionRepository.save(any(Transaction.class))).thenAnswer(invocation -> {
+            savedKeys.add(invocation.<Transaction>getArgument(0).getIdempotencyKey());
+            return createTransaction();
+        });
+        when(mapper.mapToPurchaseTransaction(any(PurchaseRequest.class), any(MerchantAuthenticationType.class))).thenReturn(new CreateTransactionRequest());
+        when(mapper.mapToPaymentResponse(any(CreateTransactionResponse.class), anyString(), anyString(), any(PaymentMethodRequest.class), anyString()))
+            .thenReturn(createSuccessfulPaymentResponse());
+        when(authorizeNetTransport.execute(any(CreateTransactionRequest.class), eq(CreateTransactionResponse.class))).thenAnswer(invocation -> {
+            // The PENDING row holding the key is committed before the gateway sees the request
+            assertEquals(List.of("test-idempotency-key"), savedKeys);
+            return createSuccessfulAuthNetResponse();
+        });
+
+        paymentService.processPurchase(request);
+
+        verify(authorizeNetTransport).execute(any(CreateTransactionRequest.class), eq(CreateTransactionResponse.class));
+    }
+
+    @Test
+    void testProcessPurchase_ConcurrentRequestsWithSameKey_ChargeOnce() throws Exception {
+        Map<String, Transaction> rowsByKey = new ConcurrentHashMap<>();
+        CyclicBarrier bothLookedUp = new CyclicBarrier(2);
+        AtomicInteger lookups = new AtomicInteger();
+        AtomicInteger transactionIds = new AtomicInteger();
+
+        when(mapper.generateTransactionId()).thenAnswer(invocation -> "txn-" + transactionIds.incrementAndGet());
+        when(customerRepository.findByEmailIgnoreCase(anyString())).thenReturn(Optional.of(createCustomer()));
+        when(paymentMethodRepository.save(any(PaymentMethod.class))).thenReturn(createPaymentMethod());
+        // Both requests miss the lookup before either has written its row
+        when(transactionRepository.findByIdempotencyKey("test-idempotency-key")).thenAnswer(invocation -> {
+            if (lookups.incrementAndGet() <= 2) {
+                bothLookedUp.await(5, TimeUnit.SECONDS);
+                return Optional.empty();
+            }
+            return Optional.ofNullable(rowsByKey.get("test-idempotency-key"));
+        });
+        // Unique constraint on the idempotency key
+        when(transactionRepository.save(any(Transaction.class))).thenAnswer(invocation -> {
+            Transaction row = invocation.getArgument(0);
+            if (row.getCreatedAt() == null) {
+                row.setCreatedAt(ZonedDateTime.now().toLocalDateTime());
+            }
+            Transaction existing = rowsByKey.putIfAbsent(row.getIdempotencyKey(), row);
+            if (existing != null && existing != row) {
+                throw new DataIntegrityViolationException("duplicate key value violates unique constraint");
+            }
+            return row;
+        });
+        when(mapper.mapToPurchaseTransaction(any(PurchaseRequest.class), any(MerchantAuthenticationType.class)))
+            .thenAnswer(invocation -> new CreateTransactionRequest());
+        when(mapper.mapToPaymentResponse(any(CreateTransactionResponse.class), anyString(), anyString(), any(PaymentMethodRequest.class), anyString()))
+            .thenReturn(createSuccessfulPaymentResponse());
+        when(authorizeNetTransport.execute(any(CreateTransactionRequest.class), eq(CreateTransactionResponse.class)))
+            .thenReturn(createSuccessfulAuthNetResponse());
+
+        CompletableFuture<PaymentResponse> first = CompletableFuture.supplyAsync(() -> purchaseWithKey("test-idempotency-key"));
+        CompletableFuture<PaymentResponse> second = CompletableFuture.supplyAsync(() -> purchaseWithKey("test-idempotency-key"));
+
+        assertNotNull(first.get(5, TimeUnit.SECONDS));
+        assertNotNull(second.get(5, TimeUnit.SECONDS));
+        assertEquals(1, rowsByKey.size());
+        verify(authorizeNetTransport, times(1)).execute(any(CreateTransactionRequest.class), eq(CreateTransactionResponse.class));
+    }
+
+    private PaymentResponse purchaseWithKey(String idempotencyKey) {
+        PurchaseRequest request = createPurchaseRequest();
+        request.setIdempotencyKey(idempotencyKey);
+        return paymentService.processPurchase(request);
+    }
+
+    private Transaction stubPurchaseGatewayFailure(RuntimeException gatewayError) {
+        return stubPurchaseGatewayFailure(new CreateTransactionRequest(), gatewayError);
+    }
+
+    private Transaction stubPurchaseGatewayFailure(CreateTransactionRequest authNetRequest, RuntimeException gatewayError) {
+        Transaction transaction = createTransaction();
+        when(mapper.generateTransactionId()).thenReturn("test-transaction-id");
+        when(customerRepository.findByEmailIgnoreCase(anyString())).thenReturn(Optional.of(createCustomer()));
+        when(paymentMethodRepository.save(any(PaymentMethod.class))).thenReturn(createPaymentMethod());
+        when(transactionRepository.save(any(Transaction.class))).thenReturn(transaction);
+        when(transactionRepository.findByTransactionId("test-transaction-id")).thenReturn(Optional.of(transaction));
+        when(mapper.mapToPurchaseTransaction(any(PurchaseRequest.class), any(MerchantAuthenticationType.class))).thenReturn(authNetRequest);
+        when(authorizeNetTransport.execute(any(CreateTransactionRequest.class), eq(CreateTransactionResponse.class)))
+            .thenThrow(gatewayError);
+        return transaction;
+    }
+
     private PurchaseRequest createPurchaseRequest() {
         PurchaseRequest request = new PurchaseRequest();
         request.setAmount(new BigDecimal("100.00"));
@@ -324,15 +497,13 @@ class PaymentServiceUnitTest {
         when(mapper.mapToAuthorizeTransaction(any(AuthorizeRequest.class), any(MerchantAuthenticationType.class))).thenReturn(new CreateTransactionRequest());
         when(mapper.mapToPaymentResponse(any(CreateTransactionResponse.class), anyString(), anyString(), any(PaymentMethodRequest.class), anyString())).thenReturn(expectedResponse);
         
-        try (MockedConstruction<CreateTransactionController> mockedController = mockConstruction(CreateTransactionController.class, (mock, context) -> {
-            when(mock.getApiResponse()).thenReturn(authNetResponse);
-        })) {
-            PaymentResponse result = paymentService.processAuthorization(request);
-            
-            assertNotNull(result);
-            assertEquals(expectedResponse.getTransactionId(), result.getTransactionId());
-            verify(transactionRepository, times(2)).save(any(Transaction.class));
-        }
+        when(authorizeNetTransport.execute(any(CreateTransactionRequest.class), eq(CreateTransactionResponse.class))).thenReturn(authNetResponse);
+
+        PaymentResponse result = paymentService.processAuthorization(request);
+        
+        assertNotNull(result);
+        assertEquals(expectedResponse.getTransactionId(), result.getTransactionId());
+        verify(transactionRepository, times(2)).save(any(Transaction.class));
     }
 
     @Test
@@ -349,15 +520,13 @@ class PaymentServiceUnitTest {
         when(mapper.mapToCaptureTransaction(any(CaptureRequest.class), anyString(), any(MerchantAuthenticationType.class))).thenReturn(new CreateTransactionRequest());
         when(mapper.mapToPaymentResponse(any(CreateTransactionResponse.class), eq("test-capture-id"), eq("CAPTURE"), any(), eq("test-correlation-id"))).thenReturn(expectedResponse);
         
-        try (MockedConstruction<CreateTransactionController> mockedController = mockConstruction(CreateTransactionController.class, (mock, context) -> {
-            when(mock.getApiResponse()).thenReturn(authNetResponse);
-        })) {
-            PaymentResponse result = paymentService.processCapture(request);
-            
-            assertNotNull(result);
-            assertEquals(expectedResponse.getTransactionId(), result.getTransactionId());
-            verify(transactionRepository, times(3)).save(any(Transaction.class));
-        }
+        when(authorizeNetTransport.execute(any(CreateTransactionRequest.class), eq(CreateTransactionResponse.class))).thenReturn(authNetResponse);
+
+        PaymentResponse result = paymentService.processCapture(request);
+        
+        assertNotNull(result);
+        assertEquals(expectedResponse.getTransactionId(), result.getTransactionId());
+        verify(transactionRepository, times(3)).save(any(Transaction.class));
     }
 
     @Test
@@ -388,15 +557,13 @@ class PaymentServiceUnitTest {
         when(mapper.mapToVoidTransaction(any(VoidRequest.class), anyString(), any(MerchantAuthenticationType.class))).thenReturn(new CreateTransactionRequest());
         when(mapper.mapToPaymentResponse(any(CreateTransactionResponse.class), anyString(), anyString(), any(), anyString())).thenReturn(expectedResponse);
         
-        try (MockedConstruction<CreateTransactionController> mockedController = mockConstruction(CreateTransactionController.class, (mock, context) -> {
-            when(mock.getApiResponse()).thenReturn(authNetResponse);
-        })) {
-            PaymentResponse result = paymentService.processVoid(request);
-            
-            assertNotNull(result);
-            assertEquals(expectedResponse.getTransactionId(), result.getTransactionId());
-            verify(transactionRepository, times(3)).save(any(Transaction.class));
-        }
+        when(authorizeNetTransport.execute(any(CreateTransactionRequest.class), eq(CreateTransactionResponse.class))).thenReturn(authNetResponse);
+
+        PaymentResponse result = paymentService.processVoid(request);
+        
+        assertNotNull(result);
+        assertEquals(expectedResponse.getTransactionId(), result.getTransactionId());
+        verify(transactionRepository, times(3)).save(any(Transaction.class));
     }
 
     @Test
@@ -414,15 +581,13 @@ class PaymentServiceUnitTest {
         when(mapper.mapToRefundTransaction(any(RefundRequest.class), anyString(), any(PaymentMethod.class), any(MerchantAuthenticationType.class))).thenReturn(new CreateTransactionRequest());
         when(mapper.mapToPaymentResponse(any(CreateTransactionResponse.class), anyString(), anyString(), any(PaymentMethodRequest.class), anyString())).thenReturn(expectedResponse);
         
-        try (MockedConstruction<CreateTransactionController> mockedController = mockConstruction(CreateTransactionController.class, (mock, context) -> {
-            when(mock.getApiResponse()).thenReturn(authNetResponse);
-        })) {
-            PaymentResponse result = paymentService.processRefund(request);
-            
-            assertNotNull(result);
-            assertEquals(expectedResponse.getTransactionId(), result.getTransactionId());
-            verify(transactionRepository, times(3)).save(any(Transaction.class));
-        }
+        when(authorizeNetTransport.execute(any(CreateTransactionRequest.class), eq(CreateTransactionResponse.class))).thenReturn(authNetResponse);
+
+        PaymentResponse result = paymentService.processRefund(request);
+        
+        assertNotNull(result);
+        assertEquals(expectedResponse.getTransactionId(), result.getTransactionId());
+        verify(transactionRepository, times(3)).save(any(Transaction.class));
     }
 
     @Test
@@ -453,14 +618,12 @@ class PaymentServiceUnitTest {
     void testGetAuthNetTransactionDetails_Success() {
         GetTransactionDetailsResponse authNetResponse = createAuthNetDetailsResponse();
         
-        try (MockedConstruction<GetTransactionDetailsController> mockedController = mockConstruction(GetTransactionDetailsController.class, (mock, context) -> {
-            when(mock.getApiResponse()).thenReturn(authNetResponse);
-        })) {
-            PaymentResponse result = paymentService.getAuthNetTransactionDetails("authnet-transaction-id");
-            
-            assertNotNull(result);
-            assertEquals("authnet-transaction-id", result.getAuthnetTransactionId());
-        }
+        when(transactionDetailsCache.lookup("authnet-transaction-id")).thenReturn(authNetResponse);
+
+        PaymentResponse result = paymentService.getAuthNetTransactionDetails("authnet-transaction-id");
+        
+        assertNotNull(result);
+        assertEquals("authnet-transaction-id", result.getAuthnetTransactionId());
     }
 
     @Test
@@ -543,16 +706,115 @@ class PaymentServiceUnitTest {
         when(transactionRepository.save(any(Transaction.class))).thenReturn(transaction);
         when(mapper.mapToPurchaseTransaction(any(PurchaseRequest.class), any(MerchantAuthenticationType.class))).thenReturn(new CreateTransactionRequest());
         
-        try (MockedConstruction<CreateTransactionController> mockedController = mockConstruction(CreateTransactionController.class, (mock, context) -> {
-            doThrow(new RuntimeException("Authorize.Net API Error")).when(mock).execute();
-        })) {
-            PaymentProcessingException exception = assertThrows(PaymentProcessingException.class, () -> {
-                paymentService.processPurchase(request);
-            });
-            
-            assertTrue(exception.getMessage().contains("Purchase transaction failed"));
-            verify(metricsService).recordPaymentCompletion(eq(PaymentStatus.FAILED), any(BigDecimal.class), any());
-        }
+        when(authorizeNetTransport.execute(any(CreateTransactionRequest.class), eq(CreateTransactionResponse.class))).thenThrow(new RuntimeException("Authorize.Net API Error"));
+
+        PaymentProcessingException exception = assertThrows(PaymentProcessingException.class, () -> {
+            paymentService.processPurchase(request);
+        });
+        
+        assertTrue(exception.getMessage().contains("Purchase transaction failed"));
+        verify(metricsService).recordPaymentCompletion(eq(PaymentStatus.FAILED), any(BigDecimal.class), any());
+    }
+
+    @Test
+    void testProcessPurchase_GatewayTimeout_LeavesTransactionPending() {
+        Transaction transaction = stubPurchaseGatewayFailure(new PaymentProcessingException(
+            "Authorize.Net CreateTransaction call timed out", "test-correlation-id"));
+
+        assertThrows(PaymentProcessingException.class, () -> paymentService.processPurchase(createPurchaseRequest()));
+
+        assertEquals(PaymentStatus.PENDING, transaction.getStatus());
+        assertEquals("Authorize.Net CreateTransaction call timed out", transaction.getResponseData().get("errorMessage"));
+        assertNull(transaction.getProcessedAt());
+    }
+
+    @Test
+    void testProcessPurchase_GatewayRejected_MarksTransactionFailed() {
+        Transaction transaction = stubPurchaseGatewayFailure(new PaymentProcessingException(
+            "Authorize.Net rejected CreateTransaction: E00003", AuthorizeNetTransport.ERROR_REJECTED, "test-correlation-id"));
+
+        assertThrows(PaymentProcessingException.class, () -> paymentService.processPurchase(createPurchaseRequest()));
+
+        assertEquals(PaymentStatus.FAILED, transaction.getStatus());
+    }
+
+    @Test
+    void testProcessPurchase_GatewayUnreachable_MarksTransactionFailed() {
+        Transaction transaction = stubPurchaseGatewayFailure(new PaymentProcessingException(
+            "Authorize.Net CreateTransaction connect failed", AuthorizeNetTransport.ERROR_NOT_SENT,
+            new java.net.ConnectException("Connection refused"), "test-correlation-id"));
+
+        assertThrows(PaymentProcessingException.class, () -> paymentService.processPurchase(createPurchaseRequest()));
+
+        assertEquals(PaymentStatus.FAILED, transaction.getStatus());
+    }
+
+    @Test
+    void testProcessPurchase_WithoutInvoiceNumber_SendsAndRecordsTransactionId() {
+        CreateTransactionRequest authNetRequest = new CreateTransactionRequest();
+        authNetRequest.setTransactionRequest(new TransactionRequestType());
+        Transaction transaction = stubPurchaseGatewayFailure(authNetRequest, new PaymentProcessingException(
+            "Authorize.Net CreateTransaction call timed out", "test-correlation-id"));
+
+        assertThrows(PaymentProcessingException.class, () -> paymentService.processPurchase(createPurchaseRequest()));
+
+        assertEquals("test-transaction-id", authNetRequest.getTransactionRequest().getOrder().getInvoiceNumber());
+        verify(transactionRepository).save(argThat(saved ->
+            "test-transaction-id".equals(saved.getResponseData().get(PaymentService.GATEWAY_INVOICE_NUMBER))));
+        assertEquals(PaymentStatus.PENDING, transaction.getStatus());
+    }
+
+    @Test
+    void testFindUnsettledAuthNetTransactions_StopsAtSubmittedAfter() throws Exception {
+        ZonedDateTime now = ZonedDateTime.now();
+        ArrayOfTransactionSummaryType page = new ArrayOfTransactionSummaryType();
+        page.getTransaction().add(unsettledTransaction("70001", now.minusMinutes(5)));
+        page.getTransaction().add(unsettledTransaction("70002", now.minusMinutes(30)));
+        page.getTransaction().add(unsettledTransaction("70003", now.minusHours(3)));
+        GetUnsettledTransactionListResponse response = new GetUnsettledTransactionListResponse();
+        MessagesType messages = new MessagesType();
+        messages.setResultCode(MessageTypeEnum.OK);
+        response.setMessages(messages);
+        response.setTransactions(page);
+        when(authorizeNetTransport.execute(any(GetUnsettledTransactionListRequest.class),
+            eq(GetUnsettledTransactionListResponse.class))).thenReturn(response);
+
+        List<TransactionSummaryType> result = paymentService.findUnsettledAuthNetTransactions(now.minusHours(1));
+
+        assertEquals(List.of("70001", "70002"), result.stream().map(TransactionSummaryType::getTransId).toList());
+        verify(authorizeNetTransport, times(1)).execute(any(GetUnsettledTransactionListRequest.class),
+            eq(GetUnsettledTransactionListResponse.class));
+    }
+
+    private static TransactionSummaryType unsettledTransaction(String transId, ZonedDateTime submittedAt) throws Exception {
+        TransactionSummaryType transaction = new TransactionSummaryType();
+        transaction.setTransId(transId);
+        transaction.setSubmitTimeUTC(javax.xml.datatype.DatatypeFactory.newInstance()
+            .newXMLGregorianCalendar(GregorianCalendar.from(submittedAt)));
+        return transaction;
+    }
+
+    @Test
+    void testProcessPurchase_ResultWriteFails_LeavesTransactionPending() {
+        Transaction transaction = createTransaction();
+        when(mapper.generateTransactionId()).thenReturn("test-transaction-id");
+        when(customerRepository.findByEmailIgnoreCase(anyString())).thenReturn(Optional.of(createCustomer()));
+        when(paymentMethodRepository.save(any(PaymentMethod.class))).thenReturn(createPaymentMethod());
+        when(transactionRepository.save(any(Transaction.class)))
+            .thenReturn(transaction)
+            .thenThrow(new org.springframework.dao.QueryTimeoutException("statement timeout"))
+            .thenReturn(transaction);
+        when(transactionRepository.findByTransactionId("test-transaction-id")).thenReturn(Optional.of(transaction));
+        when(mapper.mapToPurchaseTransaction(any(PurchaseRequest.class), any(MerchantAuthenticationType.class))).thenReturn(new CreateTransactionRequest());
+        when(authorizeNetTransport.execute(any(CreateTransactionRequest.class), eq(CreateTransactionResponse.class)))
+            .thenReturn(createSuccessfulAuthNetResponse());
+        when(mapper.mapToPaymentResponse(any(CreateTransactionResponse.class), anyString(), anyString(), any(PaymentMethodRequest.class), anyString()))
+            .thenReturn(createSuccessfulPaymentResponse());
+
+        assertThrows(PaymentProcessingException.class, () -> paymentService.processPurchase(createPurchaseRequest()));
+
+        // The charge went through; the recovery sweep records it
+        assertEquals(PaymentStatus.PENDING, transaction.getStatus());
     }
 
     @Test
@@ -646,15 +908,13 @@ class PaymentServiceUnitTest {
         when(mapper.mapToRefundTransaction(any(RefundRequest.class), anyString(), any(PaymentMethod.class), any(MerchantAuthenticationType.class))).thenReturn(new CreateTransactionRequest());
         when(mapper.mapToPaymentResponse(any(CreateTransactionResponse.class), anyString(), anyString(), any(PaymentMethodRequest.class), anyString())).thenReturn(expectedResponse);
         
-        try (MockedConstruction<CreateTransactionController> mockedController = mockConstruction(CreateTransactionController.class, (mock, context) -> {
-            when(mock.getApiResponse()).thenReturn(authNetResponse);
-        })) {
-            PaymentResponse result = paymentService.processRefund(request);
-            
-            assertNotNull(result);
-            assertEquals(expectedResponse.getTransactionId(), result.getTransactionId());
-            verify(transactionRepository, times(3)).save(any(Transaction.class));
-        }
+        when(authorizeNetTransport.execute(any(CreateTransactionRequest.class), eq(CreateTransactionResponse.class))).thenReturn(authNetResponse);
+
+        PaymentResponse result = paymentService.processRefund(request);
+        
+        assertNotNull(result);
+        assertEquals(expectedResponse.getTransactionId(), result.getTransactionId());
+        verify(transactionRepository, times(3)).save(any(Transaction.class));
     }
 
     @Test
@@ -731,43 +991,37 @@ class PaymentServiceUnitTest {
 
     @Test
     void testGetAuthNetTransactionDetails_NoResponse() {
-        try (MockedConstruction<GetTransactionDetailsController> mockedController = mockConstruction(GetTransactionDetailsController.class, (mock, context) -> {
-            when(mock.getApiResponse()).thenReturn(null);
-        })) {
-            PaymentProcessingException exception = assertThrows(PaymentProcessingException.class, () -> {
-                paymentService.getAuthNetTransactionDetails("authnet-transaction-id");
-            });
-            
-            assertTrue(exception.getMessage().contains("No response from Authorize.Net"));
-        }
+        when(transactionDetailsCache.lookup("authnet-transaction-id")).thenReturn(null);
+
+        PaymentProcessingException exception = assertThrows(PaymentProcessingException.class, () -> {
+            paymentService.getAuthNetTransactionDetails("authnet-transaction-id");
+        });
+        
+        assertTrue(exception.getMessage().contains("No response from Authorize.Net"));
     }
 
     @Test
     void testGetAuthNetTransactionDetails_ErrorResponse() {
         GetTransactionDetailsResponse authNetResponse = createErrorAuthNetDetailsResponse();
         
-        try (MockedConstruction<GetTransactionDetailsController> mockedController = mockConstruction(GetTransactionDetailsController.class, (mock, context) -> {
-            when(mock.getApiResponse()).thenReturn(authNetResponse);
-        })) {
-            PaymentProcessingException exception = assertThrows(PaymentProcessingException.class, () -> {
-                paymentService.getAuthNetTransactionDetails("authnet-transaction-id");
-            });
-            
-            assertTrue(exception.getMessage().contains("Authorize.Net error"));
-        }
+        when(transactionDetailsCache.lookup("authnet-transaction-id")).thenReturn(authNetResponse);
+
+        PaymentProcessingException exception = assertThrows(PaymentProcessingException.class, () -> {
+            paymentService.getAuthNetTransactionDetails("authnet-transaction-id");
+        });
+        
+        assertTrue(exception.getMessage().contains("Authorize.Net error"));
     }
 
     @Test
     void testGetAuthNetTransactionDetails_Exception() {
-        try (MockedConstruction<GetTransactionDetailsController> mockedController = mockConstruction(GetTransactionDetailsController.class, (mock, context) -> {
-            doThrow(new RuntimeException("API Error")).when(mock).execute();
-        })) {
-            PaymentProcessingException exception = assertThrows(PaymentProcessingException.class, () -> {
-                paymentService.getAuthNetTransactionDetails("authnet-transaction-id");
-            });
-            
-            assertTrue(exception.getMessage().contains("Failed to retrieve transaction from Authorize.Net"));
-        }
+        when(transactionDetailsCache.lookup("authnet-transaction-id")).thenThrow(new RuntimeException("API Error"));
+
+        PaymentProcessingException exception = assertThrows(PaymentProcessingException.class, () -> {
+            paymentService.getAuthNetTransactionDetails("authnet-transaction-id");
+        });
+        
+        assertTrue(exception.getMessage().contains("Failed to retrieve transaction from Authorize.Net"));
     }
 
     @Test
@@ -870,15 +1124,13 @@ class PaymentServiceUnitTest {
         when(mapper.mapToPurchaseTransaction(any(PurchaseRequest.class), any(MerchantAuthenticationType.class))).thenReturn(new CreateTransactionRequest());
         when(mapper.mapToPaymentResponse(any(CreateTransactionResponse.class), anyString(), anyString(), any(PaymentMethodRequest.class), anyString())).thenReturn(expectedResponse);
         
-        try (MockedConstruction<CreateTransactionController> mockedController = mockConstruction(CreateTransactionController.class, (mock, context) -> {
-            when(mock.getApiResponse()).thenReturn(authNetResponse);
-        })) {
-            PaymentResponse result = paymentService.processPurchase(request);
-            
-            assertNotNull(result);
-            assertEquals(expectedResponse.getTransactionId(), result.getTransactionId());
-            verify(orderRepository).findByOrderNumber("ORDER-123");
-        }
+        when(authorizeNetTransport.execute(any(CreateTransactionRequest.class), eq(CreateTransactionResponse.class))).thenReturn(authNetResponse);
+
+        PaymentResponse result = paymentService.processPurchase(request);
+        
+        assertNotNull(result);
+        assertEquals(expectedResponse.getTransactionId(), result.getTransactionId());
+        verify(orderRepository).findByOrderNumber("ORDER-123");
     }
 
     @Test
@@ -888,27 +1140,54 @@ class PaymentServiceUnitTest {
         CreateTransactionResponse authNetResponse = createSuccessfulAuthNetResponse();
         PaymentResponse expectedResponse = createSuccessfulPaymentResponse();
         Customer newCustomer = createCustomer();
+        newCustomer.setId(UUID.randomUUID());
+        newCustomer.setAuthorizeNetCustomerProfileId(null);
         PaymentMethod paymentMethod = createPaymentMethod();
         
         when(mapper.generateTransactionId()).thenReturn("test-transaction-id");
         when(customerRepository.findByEmailIgnoreCase(anyString())).thenReturn(Optional.empty());
         when(customerRepository.save(any(Customer.class))).thenReturn(newCustomer);
-        when(authorizeNetCustomerService.createCustomerProfile(any(Customer.class), any(CustomerRequest.class))).thenReturn("profile-123");
         when(paymentMethodRepository.save(any(PaymentMethod.class))).thenReturn(paymentMethod);
         when(transactionRepository.save(any(Transaction.class))).thenReturn(transaction);
         when(mapper.mapToPurchaseTransaction(any(PurchaseRequest.class), any(MerchantAuthenticationType.class))).thenReturn(new CreateTransactionRequest());
         when(mapper.mapToPaymentResponse(any(CreateTransactionResponse.class), anyString(), anyString(), any(PaymentMethodRequest.class), anyString())).thenReturn(expectedResponse);
         
-        try (MockedConstruction<CreateTransactionController> mockedController = mockConstruction(CreateTransactionController.class, (mock, context) -> {
-            when(mock.getApiResponse()).thenReturn(authNetResponse);
-        })) {
-            PaymentResponse result = paymentService.processPurchase(request);
-            
-            assertNotNull(result);
-            assertEquals(expectedResponse.getTransactionId(), result.getTransactionId());
-            verify(customerRepository, times(2)).save(any(Customer.class));
-            verify(authorizeNetCustomerService).createCustomerProfile(any(Customer.class), any(CustomerRequest.class));
-        }
+        when(authorizeNetTransport.execute(any(CreateTransactionRequest.class), eq(CreateTransactionResponse.class))).thenReturn(authNetResponse);
+
+        PaymentResponse result = paymentService.processPurchase(request);
+        
+        assertNotNull(result);
+        assertEquals(expectedResponse.getTransactionId(), result.getTransactionId());
+        verify(customerRepository).save(any(Customer.class));
+        verify(profileProvisioningService).enqueue(newCustomer.getId());
+    }
+
+    @Test
+    void testProcessPurchase_ExistingCustomerWithoutProfile_QueuesProfileCreation() {
+        PurchaseRequest request = createPurchaseRequest();
+        Transaction transaction = createTransaction();
+        CreateTransactionResponse authNetResponse = createSuccessfulAuthNetResponse();
+        PaymentResponse expectedResponse = createSuccessfulPaymentResponse();
+        Customer customer = createCustomer();
+        customer.setId(UUID.randomUUID());
+        customer.setAuthorizeNetCustomerProfileId(null);
+        PaymentMethod paymentMethod = createPaymentMethod();
+        
+        when(mapper.generateTransactionId()).thenReturn("test-transaction-id");
+        when(customerRepository.findByEmailIgnoreCase(anyString())).thenReturn(Optional.of(customer));
+        when(paymentMethodRepository.save(any(PaymentMethod.class))).thenReturn(paymentMethod);
+        when(transactionRepository.save(any(Transaction.class))).thenReturn(transaction);
+        when(mapper.mapToPurchaseTransaction(any(PurchaseRequest.class), any(MerchantAuthenticationType.class))).thenReturn(new CreateTransactionRequest());
+        when(mapper.mapToPaymentResponse(any(CreateTransactionResponse.class), anyString(), anyString(), any(PaymentMethodRequest.class), anyString())).thenReturn(expectedResponse);
+        
+        when(authorizeNetTransport.execute(any(CreateTransactionRequest.class), eq(CreateTransactionResponse.class))).thenReturn(authNetResponse);
+
+        PaymentResponse result = paymentService.processPurchase(request);
+        
+        assertNotNull(result);
+        verify(profileProvisioningService).enqueue(customer.getId());
+        verify(customerRepository, never()).save(any(Customer.class));
+        verify(authorizeNetTransport).execute(any(CreateTransactionRequest.class), eq(CreateTransactionResponse.class));
     }
 
     @Test
@@ -931,19 +1210,16 @@ class PaymentServiceUnitTest {
         when(mapper.generateTransactionId()).thenReturn("test-transaction-id");
         when(customerRepository.findByEmailIgnoreCase(anyString())).thenReturn(Optional.empty());
         when(customerRepository.save(any(Customer.class))).thenReturn(newCustomer);
-        when(authorizeNetCustomerService.createCustomerProfile(any(Customer.class), any(CustomerRequest.class))).thenReturn("profile-123");
         when(paymentMethodRepository.save(any(PaymentMethod.class))).thenReturn(paymentMethod);
         when(transactionRepository.save(any(Transaction.class))).thenReturn(transaction);
         when(mapper.mapToPurchaseTransaction(any(PurchaseRequest.class), any(MerchantAuthenticationType.class))).thenReturn(new CreateTransactionRequest());
         when(mapper.mapToPaymentResponse(any(CreateTransactionResponse.class), anyString(), anyString(), any(PaymentMethodRequest.class), anyString())).thenReturn(expectedResponse);
         
-        try (MockedConstruction<CreateTransactionController> mockedController = mockConstruction(CreateTransactionController.class, (mock, context) -> {
-            when(mock.getApiResponse()).thenReturn(authNetResponse);
-        })) {
-            PaymentResponse result = paymentService.processPurchase(request);
-            
-            assertNotNull(result);
-            verify(customerRepository, times(2)).save(any(Customer.class));
-        }
+        when(authorizeNetTransport.execute(any(CreateTransactionRequest.class), eq(CreateTransactionResponse.class))).thenReturn(authNetResponse);
+
+        PaymentResponse result = paymentService.processPurchase(request);
+        
+        assertNotNull(result);
+        verify(customerRepository).save(any(Customer.class));
     }
 }
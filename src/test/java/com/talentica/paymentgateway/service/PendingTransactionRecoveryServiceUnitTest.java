@@ -0,0 +1,242 @@
+package com.talentica.paymentgateway.service;
+
+import com.talentica.paymentgateway.dto.payment.PaymentResponse;
+import com.talentica.paymentgateway.entity.PaymentStatus;
+import com.talentica.paymentgateway.entity.Transaction;
+import com.talentica.paymentgateway.entity.TransactionType;
+import com.talentica.paymentgateway.exception.PaymentProcessingException;
+import com.talentica.paymentgateway.repository.TransactionRepository;
+import net.authorize.api.contract.v1.TransactionSummaryType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.ZonedDateTime;
+import java.util.Collections;
+import java.util.GregorianCalendar;
+import java.util.List;
+import java.util.Optional;
+import javax.xml.datatype.DatatypeFactory;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PendingTransactionRecoveryServiceUnitTest {
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @Mock
+    private PaymentService paymentService;
+
+    @Mock
+    private MetricsService metricsService;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @InjectMocks
+    private PendingTransactionRecoveryService recoveryService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(recoveryService, "recoveryEnabled", true);
+        ReflectionTestUtils.setField(recoveryService, "staleAfterMinutes", 15);
+        ReflectionTestUtils.setField(recoveryService, "batchSize", 100);
+
+        lenient().when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+            invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(mock(TransactionStatus.class)));
+    }
+
+    @Test
+    void recoverStalePendingTransactions_Disabled_DoesNothing() {
+        ReflectionTestUtils.setField(recoveryService, "recoveryEnabled", false);
+
+        recoveryService.recoverStalePendingTransactions();
+
+        verifyNoInteractions(transactionRepository, paymentService, metricsService);
+    }
+
+    @Test
+    void recoverStalePendingTransactions_NoStaleTransactions_DoesNothing() {
+        when(transactionRepository.findPendingTransactionsOlderThan(any(ZonedDateTime.class), any(Pageable.class)))
+            .thenReturn(Collections.emptyList());
+
+        recoveryService.recoverStalePendingTransactions();
+
+        verify(transactionRepository, never()).save(any());
+        verifyNoInteractions(paymentService, metricsService);
+    }
+
+    @Test
+    void recoverStalePendingTransactions_WithGatewayId_ReconcilesWithAuthorizeNet() {
+        Transaction stale = createPendingTransaction("txn-1", "authnet-1");
+        PaymentResponse gatewayState = new PaymentResponse();
+        gatewayState.setStatus("CAPTURED");
+
+        when(transactionRepository.findPendingTransactionsOlderThan(any(ZonedDateTime.class), any(Pageable.class))).thenReturn(List.of(stale));
+        when(paymentService.getAuthNetTransactionDetails("authnet-1")).thenReturn(gatewayState);
+        when(transactionRepository.findByTransactionId("txn-1")).thenReturn(Optional.of(stale));
+
+        recoveryService.recoverStalePendingTransactions();
+
+        assertEquals(PaymentStatus.CAPTURED, stale.getStatus());
+        verify(transactionRepository).save(stale);
+        verify(metricsService).recordPendingTransactionRecovery("reconciled");
+    }
+
+    @Test
+    void recoverStalePendingTransactions_WithoutGatewayId_MovesToPendingReview() {
+        Transaction stale = createPendingTransaction("txn-2", null);
+
+        when(transactionRepository.findPendingTransactionsOlderThan(any(ZonedDateTime.class), any(Pageable.class))).thenReturn(List.of(stale));
+        when(transactionRepository.findByTransactionId("txn-2")).thenReturn(Optional.of(stale));
+
+        recoveryService.recoverStalePendingTransactions();
+
+        assertEquals(PaymentStatus.PENDING_REVIEW, stale.getStatus());
+        assertNotNull(stale.getResponseData().get("recoveryNote"));
+        verify(paymentService, never()).getAuthNetTransactionDetails(any());
+        verify(metricsService).recordPendingTransactionRecovery("pending_review");
+    }
+
+    @Test
+    void recoverStalePendingTransactions_PurchaseWithoutGatewayId_FoundByInvoiceNumber() throws Exception {
+        Transaction stale = createPendingPurchase("txn_0000000000000008");
+        PaymentResponse gatewayState = new PaymentResponse();
+        gatewayState.setStatus("CAPTURED");
+
+        when(transactionRepository.findPendingTransactionsOlderThan(any(ZonedDateTime.class), any(Pageable.class)))
+            .thenReturn(List.of(stale));
+        when(paymentService.findUnsettledAuthNetTransactions(any(ZonedDateTime.class))).thenReturn(List.of(
+            summary("authnet-8", "txn_0000000000000008", ZonedDateTime.now().minusMinutes(20)),
+            summary("authnet-9", "txn_0000000000000009", ZonedDateTime.now().minusMinutes(20))));
+        when(paymentService.getAuthNetTransactionDetails("authnet-8")).thenReturn(gatewayState);
+        when(transactionRepository.findByTransactionId("txn_0000000000000008")).thenReturn(Optional.of(stale));
+
+        recoveryService.recoverStalePendingTransactions();
+
+        assertEquals(PaymentStatus.CAPTURED, stale.getStatus());
+        assertEquals("authnet-8", stale.getAuthnetTransactionId());
+        verify(metricsService).recordPendingTransactionRecovery("reconciled");
+    }
+
+    @Test
+    void recoverStalePendingTransactions_InvoiceNumberOnlyOnOlderTransaction_MovesToPendingReview() throws Exception {
+        Transaction stale = createPendingPurchase("txn_0000000000000010");
+
+        when(transactionRepository.findPendingTransactionsOlderThan(any(ZonedDateTime.class), any(Pageable.class)))
+            .thenReturn(List.of(stale));
+        when(paymentService.findUnsettledAuthNetTransactions(any(ZonedDateTime.class))).thenReturn(List.of(
+            summary("authnet-10", "txn_0000000000000010", ZonedDateTime.now().minusHours(2))));
+        when(transactionRepository.findByTransactionId("txn_0000000000000010")).thenReturn(Optional.of(stale));
+
+        recoveryService.recoverStalePendingTransactions();
+
+        assertEquals(PaymentStatus.PENDING_REVIEW, stale.getStatus());
+        verify(paymentService, never()).getAuthNetTransactionDetails(any());
+    }
+
+    @Test
+    void recoverStalePendingTransactions_UnsettledListUnavailable_LeavesPending() {
+        Transaction stale = createPendingPurchase("txn_0000000000000011");
+
+        when(transactionRepository.findPendingTransactionsOlderThan(any(ZonedDateTime.class), any(Pageable.class)))
+            .thenReturn(List.of(stale));
+        when(paymentService.findUnsettledAuthNetTransactions(any(ZonedDateTime.class)))
+            .thenThrow(new PaymentProcessingException("Authorize.Net getUnsettledTransactionList call timed out", "corr"));
+
+        recoveryService.recoverStalePendingTransactions();
+
+        assertEquals(PaymentStatus.PENDING, stale.getStatus());
+        verify(transactionRepository, never()).save(any());
+        verify(metricsService).recordPendingTransactionRecovery("failed");
+    }
+
+    @Test
+    void recoverStalePendingTransactions_CompletedConcurrently_IsNotOverwritten() {
+        Transaction stale = createPendingTransaction("txn-3", null);
+        Transaction current = createPendingTransaction("txn-3", "authnet-3");
+        current.setStatus(PaymentStatus.CAPTURED);
+
+        when(transactionRepository.findPendingTransactionsOlderThan(any(ZonedDateTime.class), any(Pageable.class))).thenReturn(List.of(stale));
+        when(transactionRepository.findByTransactionId("txn-3")).thenReturn(Optional.of(current));
+
+        recoveryService.recoverStalePendingTransactions();
+
+        assertEquals(PaymentStatus.CAPTURED, current.getStatus());
+        verify(transactionRepository, never()).save(any());
+        verifyNoInteractions(metricsService);
+    }
+
+    @Test
+    void recoverStalePendingTransactions_GatewayError_RecordsFailureAndContinues() {
+        Transaction failing = createPendingTransaction("txn-4", "authnet-4");
+        Transaction unknown = createPendingTransaction("txn-5", null);
+
+        when(transactionRepository.findPendingTransactionsOlderThan(any(ZonedDateTime.class), any(Pageable.class)))
+            .thenReturn(List.of(failing, unknown));
+        when(paymentService.getAuthNetTransactionDetails("authnet-4"))
+            .thenThrow(new PaymentProcessingException("Authorize.Net error", "corr"));
+        when(transactionRepository.findByTransactionId("txn-5")).thenReturn(Optional.of(unknown));
+
+        recoveryService.recoverStalePendingTransactions();
+
+        assertEquals(PaymentStatus.PENDING, failing.getStatus());
+        assertEquals(PaymentStatus.PENDING_REVIEW, unknown.getStatus());
+        verify(metricsService).recordPendingTransactionRecovery("failed");
+        verify(metricsService).recordPendingTransactionRecovery("pending_review");
+    }
+
+    @Test
+    void recoverStalePendingTransactions_LoadsOneBatch() {
+        ReflectionTestUtils.setField(recoveryService, "batchSize", 1);
+        Transaction first = createPendingTransaction("txn-6", null);
+
+        when(transactionRepository.findPendingTransactionsOlderThan(any(ZonedDateTime.class), eq(PageRequest.of(0, 1))))
+            .thenReturn(List.of(first));
+        when(transactionRepository.findByTransactionId("txn-6")).thenReturn(Optional.of(first));
+
+        recoveryService.recoverStalePendingTransactions();
+
+        assertEquals(PaymentStatus.PENDING_REVIEW, first.getStatus());
+    }
+
+    private Transaction createPendingPurchase(String transactionId) {
+        Transaction transaction = createPendingTransaction(transactionId, null);
+        transaction.setTransactionType(TransactionType.PURCHASE);
+        transaction.setCreatedAt(LocalDateTime.now().minusMinutes(20));
+        transaction.getResponseData().put(PaymentService.GATEWAY_INVOICE_NUMBER, transactionId);
+        return transaction;
+    }
+
+    private static TransactionSummaryType summary(String transId, String invoiceNumber, ZonedDateTime submittedAt)
+            throws Exception {
+        TransactionSummaryType summary = new TransactionSummaryType();
+        summary.setTransId(transId);
+        summary.setInvoiceNumber(invoiceNumber);
+        summary.setSubmitTimeUTC(DatatypeFactory.newInstance().newXMLGregorianCalendar(GregorianCalendar.from(submittedAt)));
+        return summary;
+    }
+
+    private Transaction createPendingTransaction(String transactionId, String authnetTransactionId) {
+        Transaction transaction = new Transaction();
+        transaction.setTransactionId(transactionId);
+        transaction.setAuthnetTransactionId(authnetTransactionId);
+        transaction.setStatus(PaymentStatus.PENDING);
+        return transaction;
+    }
+}
@@ -8,9 +8,12 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
 import java.time.Instant;
+import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
 /**
@@ -104,6 +107,28 @@ class RateLimitServiceUnitTest {
         assertThat(result.getRemaining()).isEqualTo(10);
     }
 
+    @Test
+    void isAllowed_WithLocalTierEnabled_ShouldCallRedisOncePerLease() {
+        // Given
+        ApplicationConfig.AppProperties.RateLimit.LocalTier localTier = new ApplicationConfig.AppProperties.RateLimit.LocalTier();
+        localTier.setEnabled(true);
+        localTier.setLeaseSize(50);
+        localTier.setMaxLeaseFraction(0.5);
+        when(rateLimitConfig.getLocalTier()).thenReturn(localTier);
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(), any(), any()))
+                .thenReturn(List.of(50L, 950L, 3600L));
+        RateLimitService tieredService = new RateLimitService(redisTemplate, appProperties);
+
+        // When
+        for (int i = 0; i < 30; i++) {
+            assertThat(tieredService.isAllowed("user:tiered", 1000, 100).isAllowed()).isTrue();
+        }
+
+        // Then
+        verify(redisTemplate, times(1)).execute(any(RedisScript.class), anyList(), any(), any(), any());
+        tieredService.shutdown();
+    }
+
     @Test
     void resetRateLimit_WithRedis_ShouldDeleteKey() {
         // Given
@@ -0,0 +1,129 @@
+package com.talentica.paymentgateway.service;
+
+import com.talentica.paymentgateway.config.properties.AuthorizeNetProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for ReadHedgingPolicy.
+ * Tests the adaptive hedge delay, its bounds and the hedge budget.
+ */
+class ReadHedgingPolicyUnitTest {
+
+    private AuthorizeNetProperties.Hedging config;
+    private Map<String, Supplier<Number>> delayGauges;
+    private ReadHedgingPolicy policy;
+
+    @BeforeEach
+    void setUp() {
+        config = new AuthorizeNetProperties.Hedging();
+        config.setMinSamples(10);
+        config.setWindowSize(100);
+        config.setMinDelayMs(50);
+        config.setMaxDelayMs(2000);
+        config.setInitialDelayMs(1000);
+        delayGauges = new HashMap<>();
+        policy = new ReadHedgingPolicy(config, delayGauges::put);
+    }
+
+    @Test
+    void hedgeDelay_BeforeMinSamples_UsesInitialDelay() {
+        for (int i = 0; i < 9; i++) {
+            policy.recordLatency("GetTransactionDetails", millis(100));
+        }
+
+        assertThat(policy.hedgeDelayNanos("GetTransactionDetails")).isEqualTo(millis(1000));
+        assertThat(policy.hedgeDelayNanos("GetCustomerProfile")).isEqualTo(millis(1000));
+    }
+
+    @Test
+    void hedgeDelay_FollowsPercentile() {
+        for (int i = 1; i <= 100; i++) {
+            policy.recordLatency("GetTransactionDetails", millis(i * 10));
+        }
+
+        assertThat(policy.hedgeDelayNanos("GetTransactionDetails")).isEqualTo(millis(950));
+        assertThat(delayGauges).containsOnlyKeys("GetTransactionDetails");
+        assertThat(delayGauges.get("GetTransactionDetails").get().longValue()).isEqualTo(950L);
+    }
+
+    @Test
+    void hedgeDelay_IsClampedToBounds() {
+        for (int i = 0; i < 20; i++) {
+            policy.recordLatency("GetCustomerProfile", millis(5));
+            policy.recordLatency("GetCustomerPaymentProfile", millis(5000));
+        }
+
+        assertThat(policy.hedgeDelayNanos("GetCustomerProfile")).isEqualTo(millis(50));
+        assertThat(policy.hedgeDelayNanos("GetCustomerPaymentProfile")).isEqualTo(millis(2000));
+    }
+
+    @Test
+    void hedgeDelay_WindowForgetsOldResponses() {
+        for (int i = 0; i < 100; i++) {
+            policy.recordLatency("GetTransactionDetails", millis(1500));
+        }
+        for (int i = 0; i < 100; i++) {
+            policy.recordLatency("GetTransactionDetails", millis(200));
+        }
+
+        assertThat(policy.hedgeDelayNanos("GetTransactionDetails")).isEqualTo(millis(200));
+    }
+
+    @Test
+    void budget_AllowsBurstThenRefillsFromReads() {
+        config.setBurst(2);
+        config.setMaxHedgePercent(25.0);
+        policy = new ReadHedgingPolicy(config, delayGauges::put);
+
+        assertThat(policy.tryAcquireHedge()).isTrue();
+        assertThat(policy.tryAcquireHedge()).isTrue();
+        assertThat(policy.tryAcquireHedge()).isFalse();
+
+        for (int i = 0; i < 3; i++) {
+            policy.recordRead();
+        }
+        assertThat(policy.tryAcquireHedge()).isFalse();
+
+        policy.recordRead();
+        assertThat(policy.tryAcquireHedge()).isTrue();
+    }
+
+    @Test
+    void budget_IsCappedAtBurst() {
+        config.setBurst(1);
+        config.setMaxHedgePercent(100.0);
+        policy = new ReadHedgingPolicy(config, delayGauges::put);
+
+        for (int i = 0; i < 10; i++) {
+            policy.recordRead();
+        }
+
+        assertThat(policy.tryAcquireHedge()).isTrue();
+        assertThat(policy.tryAcquireHedge()).isFalse();
+    }
+
+    @Test
+    void budget_ZeroPercent_NeverRefills() {
+        config.setBurst(1);
+        config.setMaxHedgePercent(0.0);
+        policy = new ReadHedgingPolicy(config, delayGauges::put);
+
+        assertThat(policy.tryAcquireHedge()).isTrue();
+        for (int i = 0; i < 1000; i++) {
+            policy.recordRead();
+        }
+        assertThat(policy.tryAcquireHedge()).isFalse();
+    }
+
+    private static long millis(long millis) {
+        return TimeUnit.MILLISECONDS.toNanos(millis);
+    }
+}
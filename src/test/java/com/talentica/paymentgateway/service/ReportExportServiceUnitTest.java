@@ -1,18 +1,32 @@
 package com.talentica.paymentgateway.service;
 
+import com.talentica.paymentgateway.dto.analytics.TransactionExportRow;
+import com.talentica.paymentgateway.dto.analytics.TransactionReportRequest;
 import com.talentica.paymentgateway.dto.analytics.TransactionReportResponse;
 import com.talentica.paymentgateway.entity.*;
+import com.talentica.paymentgateway.repository.TransactionRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.time.ZonedDateTime;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
 
 /**
  * Unit tests for ReportExportService.
@@ -21,6 +35,8 @@ import static org.junit.jupiter.api.Assertions.*;
 class ReportExportServiceUnitTest {
 
     private ReportExportService reportExportService;
+    private TransactionRepository transactionRepository;
+    private MetricsService metricsService;
     private List<Transaction> testTransactions;
     private Transaction testTransaction1;
     private Transaction testTransaction2;
@@ -28,7 +44,9 @@ class ReportExportServiceUnitTest {
 
     @BeforeEach
     void setUp() {
-        reportExportService = new ReportExportService();
+        transactionRepository = mock(TransactionRepository.class);
+        metricsService = mock(MetricsService.class);
+        reportExportService = new ReportExportService(transactionRepository, metricsService);
         
         // Create test customer
         testCustomer = new Customer();
@@ -413,4 +431,103 @@ class ReportExportServiceUnitTest {
         assertEquals(-200L, reportExportService.estimateFileSize(-1, "CSV"));
         assertEquals(-30000L, reportExportService.estimateFileSize(-100, "PDF"));
     }
+
+    @Test
+    void writeTransactionsCsv_StreamsRowsMatchingListExport() throws Exception {
+        // Given
+        AtomicBoolean streamClosed = new AtomicBoolean();
+        when(transactionRepository.streamForExport(any(), any(), any(), any(), any(), any(), any(), any()))
+            .thenReturn(Stream.of(exportRow(testTransaction1), exportRow(testTransaction2))
+                .onClose(() -> streamClosed.set(true)));
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        // When
+        long rows = reportExportService.writeTransactionsCsv(exportRequest(), outputStream, false);
+
+        // Then
+        assertEquals(2, rows);
+        assertTrue(streamClosed.get());
+        assertEquals(new String(reportExportService.exportToCSV(testTransactions), StandardCharsets.UTF_8),
+            outputStream.toString(StandardCharsets.UTF_8));
+        verify(metricsService).recordReportExport(eq("csv"), eq(2L), any(Duration.class));
+    }
+
+    @Test
+    void writeTransactionsCsv_WithGzip_ProducesDecompressibleCsv() throws Exception {
+        // Given
+        when(transactionRepository.streamForExport(any(), any(), any(), any(), any(), any(), any(), any()))
+            .thenReturn(Stream.of(exportRow(testTransaction1)));
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        // When
+        reportExportService.writeTransactionsCsv(exportRequest(), outputStream, true);
+
+        // Then
+        String csvContent;
+        try (GZIPInputStream gzipInputStream = new GZIPInputStream(new ByteArrayInputStream(outputStream.toByteArray()))) {
+            csvContent = new String(gzipInputStream.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        assertTrue(csvContent.startsWith("Transaction ID,Customer ID,Amount,Currency,Status,Type,Created At,Processed At\n"));
+        assertTrue(csvContent.contains("TXN_001," + testCustomer.getId() + ",100.50,USD,CAPTURED,PURCHASE,"));
+        verify(metricsService).recordReportExport(eq("csv_gzip"), eq(1L), any(Duration.class));
+    }
+
+    @Test
+    void writeTransactionsCsv_PassesFiltersToRepository() throws Exception {
+        // Given
+        TransactionReportRequest request = exportRequest();
+        request.setStatus(PaymentStatus.CAPTURED);
+        request.setCurrency("USD");
+        request.setMinAmount(new BigDecimal("10.00"));
+        when(transactionRepository.streamForExport(any(), any(), any(), any(), any(), any(), any(), any()))
+            .thenReturn(Stream.empty());
+
+        // When
+        reportExportService.writeTransactionsCsv(request, new ByteArrayOutputStream(), false);
+
+        // Then
+        verify(transactionRepository).streamForExport(any(LocalDateTime.class), any(LocalDateTime.class),
+            eq(PaymentStatus.CAPTURED), isNull(), isNull(), eq("USD"), eq(new BigDecimal("10.00")), isNull());
+    }
+
+    @Test
+    void writeTransactionsCsv_WithoutDateRange_ShouldThrowIllegalArgumentException() {
+        // Given
+        TransactionReportRequest request = new TransactionReportRequest();
+
+        // When & Then
+        assertThrows(IllegalArgumentException.class,
+            () -> reportExportService.writeTransactionsCsv(request, new ByteArrayOutputStream(), false));
+        verifyNoInteractions(transactionRepository);
+    }
+
+    @Test
+    void validateStreamingRequest_WithInvertedRange_ShouldThrowIllegalArgumentException() {
+        // Given
+        TransactionReportRequest request = new TransactionReportRequest();
+        request.setStartDate(ZonedDateTime.now());
+        request.setEndDate(ZonedDateTime.now().minusDays(1));
+
+        // When & Then
+        assertThrows(IllegalArgumentException.class, () -> reportExportService.validateStreamingRequest(request));
+    }
+
+    private TransactionReportRequest exportRequest() {
+        TransactionReportRequest request = new TransactionReportRequest();
+        request.setStartDate(ZonedDateTime.now().minusDays(7));
+        request.setEndDate(ZonedDateTime.now());
+        return request;
+    }
+
+    private TransactionExportRow exportRow(Transaction transaction) {
+        return new TransactionExportRow(
+            transaction.getTransactionId(),
+            transaction.getCustomer() != null ? transaction.getCustomer().getId() : null,
+            transaction.getAmount(),
+            transaction.getCurrency(),
+            transaction.getStatus(),
+            transaction.getTransactionType(),
+            transaction.getCreatedAt(),
+            transaction.getProcessedAt());
+    }
 }
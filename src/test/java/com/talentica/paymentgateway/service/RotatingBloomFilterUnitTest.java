@@ -0,0 +1,91 @@
+package com.talentica.paymentgateway.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for RotatingBloomFilter.
+ * Tests membership within the window, expiry across rotations and the false-positive rate.
+ */
+class RotatingBloomFilterUnitTest {
+
+    private static final Duration WINDOW = Duration.ofMinutes(60);
+
+    private final AtomicLong clock = new AtomicLong();
+
+    @Test
+    void mightContain_WithAddedKeys_HasNoFalseNegatives() {
+        RotatingBloomFilter filter = new RotatingBloomFilter(10_000, 0.001, WINDOW, clock::get);
+
+        for (int i = 0; i < 10_000; i++) {
+            filter.put("evt_" + i);
+        }
+
+        for (int i = 0; i < 10_000; i++) {
+            assertThat(filter.mightContain("evt_" + i)).isTrue();
+        }
+    }
+
+    @Test
+    void mightContain_WithUnseenKeys_StaysNearConfiguredRate() {
+        RotatingBloomFilter filter = new RotatingBloomFilter(10_000, 0.01, WINDOW, clock::get);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put("evt_" + i);
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filter.mightContain("other_" + i)) {
+                falsePositives++;
+            }
+        }
+
+        assertThat(falsePositives / 100_000.0).isLessThan(0.02);
+        assertThat(filter.expectedFalsePositiveRate()).isBetween(0.005, 0.015);
+    }
+
+    @Test
+    void mightContain_AfterOneRotation_StillRemembersKey() {
+        RotatingBloomFilter filter = new RotatingBloomFilter(1_000, 0.001, WINDOW, clock::get);
+        filter.put("evt_1");
+
+        clock.addAndGet(WINDOW.toNanos());
+
+        assertThat(filter.mightContain("evt_1")).isTrue();
+    }
+
+    @Test
+    void mightContain_AfterTwoRotations_ForgetsKey() {
+        RotatingBloomFilter filter = new RotatingBloomFilter(1_000, 0.001, WINDOW, clock::get);
+        filter.put("evt_1");
+
+        clock.addAndGet(WINDOW.toNanos());
+        filter.mightContain("evt_2");
+        clock.addAndGet(WINDOW.toNanos());
+
+        assertThat(filter.mightContain("evt_1")).isFalse();
+    }
+
+    @Test
+    void mightContain_AfterIdleGapLongerThanWindow_ForgetsKey() {
+        RotatingBloomFilter filter = new RotatingBloomFilter(1_000, 0.001, WINDOW, clock::get);
+        filter.put("evt_1");
+
+        clock.addAndGet(WINDOW.toNanos() * 2);
+
+        assertThat(filter.mightContain("evt_1")).isFalse();
+    }
+
+    @Test
+    void constructor_SizesFilterForRate() {
+        RotatingBloomFilter filter = new RotatingBloomFilter(100_000, 0.001, WINDOW, clock::get);
+
+        // ~14.4 bits and 10 hashes per key for a 0.1% rate
+        assertThat(filter.bitCount()).isBetween(1_430_000, 1_450_000);
+        assertThat(filter.hashCount()).isEqualTo(10);
+    }
+}
@@ -1,5 +1,6 @@
 package com.talentica.paymentgateway.service;
 
+import com.talentica.paymentgateway.config.properties.BillingProperties;
 import com.talentica.paymentgateway.dto.payment.PaymentResponse;
 import com.talentica.paymentgateway.dto.payment.PurchaseRequest;
 import com.talentica.paymentgateway.entity.*;
@@ -9,9 +10,12 @@ import com.talentica.paymentgateway.repository.SubscriptionRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
 import java.time.ZonedDateTime;
@@ -19,8 +23,12 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -48,7 +56,12 @@ class SubscriptionBillingEngineUnitTest {
     @Mock
     private NotificationService notificationService;
 
-    @InjectMocks
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private final AtomicBoolean inTransaction = new AtomicBoolean();
+
+    private BillingProperties billingProperties;
     private SubscriptionBillingEngine billingEngine;
 
     private Subscription activeSubscription;
@@ -59,6 +72,29 @@ class SubscriptionBillingEngineUnitTest {
 
     @BeforeEach
     void setUp() {
+        billingProperties = new BillingProperties();
+        billingProperties.getRun().setEnabled(false);
+        billingEngine = new SubscriptionBillingEngine(subscriptionRepository, invoiceRepository, paymentService,
+            metricsService, notificationService, transactionTemplate, billingProperties);
+
+        lenient().when(transactionTemplate.execute(any())).thenAnswer(invocation -> {
+            inTransaction.set(true);
+            try {
+                return invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(mock(TransactionStatus.class));
+            } finally {
+                inTransaction.set(false);
+            }
+        });
+        lenient().doAnswer(invocation -> {
+            inTransaction.set(true);
+            try {
+                invocation.<Consumer<TransactionStatus>>getArgument(0).accept(mock(TransactionStatus.class));
+                return null;
+            } finally {
+                inTransaction.set(false);
+            }
+        }).when(transactionTemplate).executeWithoutResult(any());
+
         // Create test customer
         customer = new Customer();
         customer.setCustomerReference("CUST_123");
@@ -86,6 +122,7 @@ class SubscriptionBillingEngineUnitTest {
 
         // Create test subscription
         activeSubscription = new Subscription();
+        activeSubscription.setId(UUID.randomUUID());
         activeSubscription.setSubscriptionId("SUB_123");
         activeSubscription.setCustomer(customer);
         activeSubscription.setPlan(subscriptionPlan);
@@ -97,6 +134,7 @@ class SubscriptionBillingEngineUnitTest {
 
         // Create test invoice
         invoice = new SubscriptionInvoice();
+        invoice.setId(UUID.randomUUID());
         invoice.setInvoiceNumber("INV_123");
         invoice.setSubscription(activeSubscription);
         invoice.setCustomer(customer);
@@ -115,6 +153,8 @@ class SubscriptionBillingEngineUnitTest {
         List<Subscription> dueSubscriptions = Arrays.asList(activeSubscription);
         when(subscriptionRepository.findSubscriptionsDueForBilling(any(ZonedDateTime.class)))
             .thenReturn(dueSubscriptions);
+        stubClaimed(activeSubscription);
+        stubRecorded();
         when(invoiceRepository.findBySubscriptionAndPeriodStartAndPeriodEnd(
             any(Subscription.class), any(ZonedDateTime.class), any(ZonedDateTime.class)))
             .thenReturn(Collections.emptyList());
@@ -133,6 +173,34 @@ class SubscriptionBillingEngineUnitTest {
         verify(metricsService).recordSuccessfulBilling(eq("BASIC_MONTHLY"), eq(new BigDecimal("29.99")));
     }
 
+    @Test
+    void testProcessDueBilling_WithSubscriptionClaimedElsewhere_SkipsIt() {
+        // Given
+        when(subscriptionRepository.findSubscriptionsDueForBilling(any(ZonedDateTime.class)))
+            .thenReturn(List.of(activeSubscription));
+        when(subscriptionRepository.claimForBilling(eq(activeSubscription.getId()), any(ZonedDateTime.class),
+            anyString(), anyInt())).thenReturn(0);
+
+        // When
+        billingEngine.processDueBilling();
+
+        // Then
+        verify(invoiceRepository, never()).save(any(SubscriptionInvoice.class));
+        verify(paymentService, never()).processPurchase(any(PurchaseRequest.class));
+    }
+
+    @Test
+    void testProcessDueBilling_WithBillingRunsEnabled_DoesNothing() {
+        // Given
+        billingProperties.getRun().setEnabled(true);
+
+        // When
+        billingEngine.processDueBilling();
+
+        // Then
+        verifyNoInteractions(subscriptionRepository, invoiceRepository, paymentService);
+    }
+
     @Test
     void testProcessDueBilling_WithNoDueSubscriptions_CompletesWithoutProcessing() {
         // Given
@@ -212,6 +280,8 @@ class SubscriptionBillingEngineUnitTest {
     @Test
     void testProcessSubscriptionBilling_WithActiveSubscription_ProcessesSuccessfully() throws Exception {
         // Given
+        stubClaimed(activeSubscription);
+        stubRecorded();
         when(invoiceRepository.findBySubscriptionAndPeriodStartAndPeriodEnd(
             any(Subscription.class), any(ZonedDateTime.class), any(ZonedDateTime.class)))
             .thenReturn(Collections.emptyList());
@@ -235,6 +305,7 @@ class SubscriptionBillingEngineUnitTest {
     void testProcessSubscriptionBilling_WithInactiveSubscription_SkipsProcessing() throws Exception {
         // Given
         activeSubscription.setStatus(SubscriptionStatus.CANCELLED);
+        stubClaimed(activeSubscription);
 
         // When
         CompletableFuture<Void> result = billingEngine.processSubscriptionBilling(activeSubscription);
@@ -243,6 +314,7 @@ class SubscriptionBillingEngineUnitTest {
         // Then
         verify(invoiceRepository, never()).save(any(SubscriptionInvoice.class));
         verify(paymentService, never()).processPurchase(any(PurchaseRequest.class));
+        verify(subscriptionRepository).releaseBillingClaim(eq(activeSubscription.getId()), anyString());
     }
 
     @Test
@@ -250,6 +322,7 @@ class SubscriptionBillingEngineUnitTest {
         // Given
         SubscriptionInvoice existingInvoice = new SubscriptionInvoice();
         existingInvoice.setStatus("PAID");
+        stubClaimed(activeSubscription);
         when(invoiceRepository.findBySubscriptionAndPeriodStartAndPeriodEnd(
             any(Subscription.class), any(ZonedDateTime.class), any(ZonedDateTime.class)))
             .thenReturn(Arrays.asList(existingInvoice));
@@ -260,11 +333,14 @@ class SubscriptionBillingEngineUnitTest {
 
         // Then
         verify(paymentService, never()).processPurchase(any(PurchaseRequest.class));
+        verify(subscriptionRepository).releaseBillingClaim(eq(activeSubscription.getId()), anyString());
     }
 
     @Test
     void testProcessSubscriptionBilling_WithPaymentFailure_HandlesFailedPayment() throws Exception {
         // Given
+        stubClaimed(activeSubscription);
+        stubRecorded();
         when(invoiceRepository.findBySubscriptionAndPeriodStartAndPeriodEnd(
             any(Subscription.class), any(ZonedDateTime.class), any(ZonedDateTime.class)))
             .thenReturn(Collections.emptyList());
@@ -285,6 +361,7 @@ class SubscriptionBillingEngineUnitTest {
     @Test
     void testProcessSubscriptionBilling_WithException_ThrowsPaymentProcessingException() {
         // Given
+        stubClaimed(activeSubscription);
         when(invoiceRepository.findBySubscriptionAndPeriodStartAndPeriodEnd(
             any(Subscription.class), any(ZonedDateTime.class), any(ZonedDateTime.class)))
             .thenThrow(new RuntimeException("Database error"));
@@ -299,6 +376,118 @@ class SubscriptionBillingEngineUnitTest {
         verify(metricsService).recordBillingError("BASIC_MONTHLY");
     }
 
+    @Test
+    void testBillDueSubscription_WithClaimedDueSubscription_ReturnsPaid() {
+        // Given
+        UUID subscriptionId = activeSubscription.getId();
+        ZonedDateTime cutoff = ZonedDateTime.now();
+        stubClaimed(activeSubscription);
+        stubRecorded();
+        when(invoiceRepository.findBySubscriptionAndPeriodStartAndPeriodEnd(
+            any(Subscription.class), any(ZonedDateTime.class), any(ZonedDateTime.class)))
+            .thenReturn(Collections.emptyList());
+        when(invoiceRepository.save(any(SubscriptionInvoice.class))).thenReturn(invoice);
+        when(paymentService.processPurchase(any(PurchaseRequest.class)))
+            .thenReturn(createSuccessfulPaymentResponse());
+
+        // When
+        SubscriptionBillingEngine.BillingOutcome outcome = billingEngine.billDueSubscription(subscriptionId, cutoff);
+
+        // Then
+        assertThat(outcome).isEqualTo(SubscriptionBillingEngine.BillingOutcome.PAID);
+        verify(paymentService).processPurchase(any(PurchaseRequest.class));
+    }
+
+    @Test
+    void testBillDueSubscription_WhenNoLongerDueOrClaimed_ReturnsSkipped() {
+        // Given
+        UUID subscriptionId = UUID.randomUUID();
+        ZonedDateTime cutoff = ZonedDateTime.now();
+        when(subscriptionRepository.claimForBilling(eq(subscriptionId), eq(cutoff), anyString(), anyInt())).thenReturn(0);
+
+        // When
+        SubscriptionBillingEngine.BillingOutcome outcome = billingEngine.billDueSubscription(subscriptionId, cutoff);
+
+        // Then
+        assertThat(outcome).isEqualTo(SubscriptionBillingEngine.BillingOutcome.SKIPPED);
+        verifyNoInteractions(paymentService, invoiceRepository);
+    }
+
+    @Test
+    void testBillDueSubscription_ChargesOutsideTransactionAndReleasesClaimWithResult() {
+        // Given
+        ZonedDateTime cutoff = ZonedDateTime.now();
+        AtomicBoolean chargedInTransaction = new AtomicBoolean();
+        stubClaimed(activeSubscription);
+        stubRecorded();
+        when(invoiceRepository.findBySubscriptionAndPeriodStartAndPeriodEnd(
+            any(Subscription.class), any(ZonedDateTime.class), any(ZonedDateTime.class)))
+            .thenReturn(Collections.emptyList());
+        when(invoiceRepository.save(any(SubscriptionInvoice.class))).thenReturn(invoice);
+        when(paymentService.processPurchase(any(PurchaseRequest.class))).thenAnswer(invocation -> {
+            chargedInTransaction.set(inTransaction.get());
+            return createSuccessfulPaymentResponse();
+        });
+
+        // When
+        SubscriptionBillingEngine.BillingOutcome outcome = billingEngine.billDueSubscription(activeSubscription.getId(), cutoff);
+
+        // Then
+        assertThat(outcome).isEqualTo(SubscriptionBillingEngine.BillingOutcome.PAID);
+        assertThat(chargedInTransaction).isFalse();
+        ArgumentCaptor<String> claim = ArgumentCaptor.forClass(String.class);
+        verify(subscriptionRepository).claimForBilling(eq(activeSubscription.getId()), eq(cutoff), claim.capture(), eq(300));
+        verify(subscriptionRepository).releaseBillingClaim(activeSubscription.getId(), claim.getValue());
+        assertThat(invoice.getStatus()).isEqualTo("PAID");
+    }
+
+    @Test
+    void testBillDueSubscription_WithInvoiceLeftProcessing_ResumesItUnderSameIdempotencyKey() {
+        // Given
+        invoice.markAsProcessing();
+        stubClaimed(activeSubscription);
+        stubRecorded();
+        when(invoiceRepository.findBySubscriptionAndPeriodStartAndPeriodEnd(
+            any(Subscription.class), any(ZonedDateTime.class), any(ZonedDateTime.class)))
+            .thenReturn(List.of(invoice));
+        when(paymentService.processPurchase(any(PurchaseRequest.class)))
+            .thenReturn(createSuccessfulPaymentResponse());
+
+        // When
+        SubscriptionBillingEngine.BillingOutcome outcome =
+            billingEngine.billDueSubscription(activeSubscription.getId(), ZonedDateTime.now());
+
+        // Then
+        assertThat(outcome).isEqualTo(SubscriptionBillingEngine.BillingOutcome.PAID);
+        ArgumentCaptor<PurchaseRequest> request = ArgumentCaptor.forClass(PurchaseRequest.class);
+        verify(paymentService).processPurchase(request.capture());
+        assertThat(request.getValue().getIdempotencyKey()).isEqualTo("billing_INV_123_attempt_2");
+        verify(invoiceRepository, times(1)).save(invoice); // Only the result; no new invoice
+    }
+
+    @Test
+    void testBillDueSubscription_WhenClaimLostBeforeRecording_LeavesResultToLaterAttempt() {
+        // Given
+        stubClaimed(activeSubscription);
+        when(invoiceRepository.findBySubscriptionAndPeriodStartAndPeriodEnd(
+            any(Subscription.class), any(ZonedDateTime.class), any(ZonedDateTime.class)))
+            .thenReturn(Collections.emptyList());
+        when(invoiceRepository.save(any(SubscriptionInvoice.class))).thenReturn(invoice);
+        when(paymentService.processPurchase(any(PurchaseRequest.class)))
+            .thenReturn(createSuccessfulPaymentResponse());
+        when(subscriptionRepository.releaseBillingClaim(eq(activeSubscription.getId()), anyString())).thenReturn(0);
+
+        // When
+        SubscriptionBillingEngine.BillingOutcome outcome =
+            billingEngine.billDueSubscription(activeSubscription.getId(), ZonedDateTime.now());
+
+        // Then
+        assertThat(outcome).isEqualTo(SubscriptionBillingEngine.BillingOutcome.SKIPPED);
+        assertThat(invoice.getStatus()).isEqualTo("PROCESSING");
+        verify(subscriptionRepository, never()).save(any(Subscription.class));
+        verify(notificationService, never()).sendBillingSuccessNotification(any(), any());
+    }
+
     @Test
     void testRetryFailedPayment_WithSuccessfulRetry_ReactivatesSubscription() {
         // Given
@@ -356,6 +545,8 @@ class SubscriptionBillingEngineUnitTest {
         Subscription trialSubscription = createTrialSubscription();
         when(subscriptionRepository.findSubscriptionsEndingTrial(any(ZonedDateTime.class)))
             .thenReturn(Arrays.asList(trialSubscription));
+        stubClaimed(trialSubscription);
+        stubRecorded();
         lenient().when(invoiceRepository.findBySubscriptionAndPeriodStartAndPeriodEnd(
             any(Subscription.class), any(ZonedDateTime.class), any(ZonedDateTime.class)))
             .thenReturn(Collections.emptyList());
@@ -367,7 +558,7 @@ class SubscriptionBillingEngineUnitTest {
         billingEngine.processSubscriptionLifecycle();
 
         // Then
-        verify(subscriptionRepository, times(2)).save(trialSubscription); // Saved in both handleTrialExpirations and processSubscriptionBilling
+        verify(subscriptionRepository, times(2)).save(trialSubscription); // Saved in both handleTrialExpirations and when billed
         verify(notificationService).sendTrialExpirationNotification(trialSubscription);
         verify(invoiceRepository, atLeastOnce()).save(any(SubscriptionInvoice.class));
     }
@@ -427,6 +618,16 @@ class SubscriptionBillingEngineUnitTest {
 
     // Helper methods
 
+    private void stubClaimed(Subscription subscription) {
+        when(subscriptionRepository.claimForBilling(eq(subscription.getId()), any(), anyString(), anyInt())).thenReturn(1);
+        when(subscriptionRepository.findById(subscription.getId())).thenReturn(Optional.of(subscription));
+    }
+
+    private void stubRecorded() {
+        when(subscriptionRepository.releaseBillingClaim(any(UUID.class), anyString())).thenReturn(1);
+        when(invoiceRepository.findById(invoice.getId())).thenReturn(Optional.of(invoice));
+    }
+
     private PaymentResponse createSuccessfulPaymentResponse() {
         PaymentResponse response = new PaymentResponse();
         response.setSuccess(true);
@@ -445,6 +646,7 @@ class SubscriptionBillingEngineUnitTest {
 
     private Subscription createTrialSubscription() {
         Subscription trialSub = new Subscription();
+        trialSub.setId(UUID.randomUUID());
         trialSub.setSubscriptionId("SUB_TRIAL_123");
         trialSub.setCustomer(customer);
         trialSub.setPlan(subscriptionPlan);
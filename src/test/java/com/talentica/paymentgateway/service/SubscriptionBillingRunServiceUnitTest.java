@@ -0,0 +1,185 @@
+package com.talentica.paymentgateway.service;
+
+import com.talentica.paymentgateway.config.properties.BillingProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for SubscriptionBillingRunService.
+ * Tests partition ranges, keyset paging with checkpoints and lease loss.
+ */
+@ExtendWith(MockitoExtension.class)
+class SubscriptionBillingRunServiceUnitTest {
+
+    private static final OffsetDateTime CUTOFF = OffsetDateTime.of(2025, 1, 1, 10, 0, 0, 0, ZoneOffset.UTC);
+    private static final String RUN_ID = "billing-20250101T1000Z";
+    private static final String CHECKPOINT_PREFIX = "UPDATE billing_run_partitions SET last_subscription_id";
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private SubscriptionBillingEngine billingEngine;
+
+    @Mock
+    private MetricsService metricsService;
+
+    private SubscriptionBillingRunService runService;
+
+    @BeforeEach
+    void setUp() {
+        BillingProperties billingProperties = new BillingProperties();
+        billingProperties.getRun().setChunkSize(2);
+        billingProperties.getRun().setParallelism(2);
+
+        lenient().when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+            invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(mock(TransactionStatus.class)));
+
+        runService = new SubscriptionBillingRunService(jdbcTemplate, transactionTemplate, billingEngine,
+            metricsService, billingProperties);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        runService.stop();
+    }
+
+    @Test
+    void partitionRanges_SplitsUuidSpaceContiguously() {
+        List<SubscriptionBillingRunService.PartitionRange> ranges = SubscriptionBillingRunService.partitionRanges(4);
+
+        assertThat(ranges).extracting(range -> range.start().toString()).containsExactly(
+            "00000000-0000-0000-0000-000000000000", "40000000-0000-0000-0000-000000000000",
+            "80000000-0000-0000-0000-000000000000", "c0000000-0000-0000-0000-000000000000");
+        assertThat(ranges.get(0).end()).isEqualTo(ranges.get(1).start());
+        assertThat(ranges.get(3).end()).isNull();
+    }
+
+    @Test
+    void runId_UsesUtcCutoff() {
+        OffsetDateTime cutoff = OffsetDateTime.of(2025, 1, 1, 15, 30, 0, 0, ZoneOffset.ofHoursMinutes(5, 30));
+
+        assertThat(SubscriptionBillingRunService.runId(cutoff)).isEqualTo(RUN_ID);
+    }
+
+    @Test
+    void processPartition_BillsPagesAndCheckpointsAfterEach() {
+        UUID first = UUID.fromString("40000000-0000-0000-0000-000000000001");
+        UUID second = UUID.fromString("40000000-0000-0000-0000-000000000002");
+        UUID third = UUID.fromString("40000000-0000-0000-0000-000000000003");
+        SubscriptionBillingRunService.PartitionLease lease = lease(null);
+        when(jdbcTemplate.queryForList(anyString(), eq(UUID.class), any(), any(), any(), any()))
+            .thenReturn(List.of(first, second), List.of(third));
+        when(billingEngine.billDueSubscription(eq(first), any(ZonedDateTime.class)))
+            .thenReturn(SubscriptionBillingEngine.BillingOutcome.PAID);
+        when(billingEngine.billDueSubscription(eq(second), any(ZonedDateTime.class)))
+            .thenReturn(SubscriptionBillingEngine.BillingOutcome.FAILED);
+        when(billingEngine.billDueSubscription(eq(third), any(ZonedDateTime.class)))
+            .thenThrow(new IllegalStateException("gateway unavailable"));
+        when(jdbcTemplate.update(startsWith(CHECKPOINT_PREFIX), any(), any(), any(), any(), any(), any(), any(),
+            any(), any(), any())).thenReturn(1);
+
+        int processed = runService.processPartition(RUN_ID, CUTOFF, lease);
+
+        assertThat(processed).isEqualTo(3);
+        ArgumentCaptor<String> pageSql = ArgumentCaptor.forClass(String.class);
+        verify(jdbcTemplate, times(2)).queryForList(pageSql.capture(), eq(UUID.class), any(), any(), any(), any());
+        assertThat(pageSql.getAllValues().get(0)).contains("id >= ?").contains("id < ?")
+            .contains("billing_claimed_until").doesNotContain("FOR UPDATE");
+        assertThat(pageSql.getAllValues().get(1)).contains("id > ?");
+        verify(jdbcTemplate).update(startsWith(CHECKPOINT_PREFIX), eq(second), eq(300), eq(1), eq(1), eq(0), eq(0),
+            eq(false), eq(RUN_ID), eq(1), anyString());
+        verify(jdbcTemplate).update(startsWith(CHECKPOINT_PREFIX), eq(third), eq(300), eq(0), eq(0), eq(0), eq(1),
+            eq(true), eq(RUN_ID), eq(1), anyString());
+        verify(metricsService).recordBillingRunPage(eq(0), eq(0), eq(0), eq(1), any(Duration.class));
+    }
+
+    @Test
+    void processPartition_ResumesAfterCheckpointedId() {
+        UUID checkpoint = UUID.fromString("40000000-0000-0000-0000-000000000002");
+        when(jdbcTemplate.queryForList(anyString(), eq(UUID.class), any(), any(), any(), any()))
+            .thenReturn(List.of());
+        when(jdbcTemplate.update(startsWith(CHECKPOINT_PREFIX), any(), any(), any(), any(), any(), any(), any(),
+            any(), any(), any())).thenReturn(1);
+
+        runService.processPartition(RUN_ID, CUTOFF, lease(checkpoint));
+
+        verify(jdbcTemplate).queryForList(contains("id > ?"), eq(UUID.class), eq(CUTOFF), eq(checkpoint), any(), eq(2));
+        verify(jdbcTemplate).update(startsWith(CHECKPOINT_PREFIX), eq(checkpoint), eq(300), eq(0), eq(0), eq(0), eq(0),
+            eq(true), eq(RUN_ID), eq(1), anyString());
+        verifyNoInteractions(billingEngine);
+    }
+
+    @Test
+    void processPartition_StopsWhenLeaseIsLost() {
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        when(jdbcTemplate.queryForList(anyString(), eq(UUID.class), any(), any(), any(), any()))
+            .thenReturn(List.of(first, second));
+        when(billingEngine.billDueSubscription(any(UUID.class), any(ZonedDateTime.class)))
+            .thenReturn(SubscriptionBillingEngine.BillingOutcome.PAID);
+        when(jdbcTemplate.update(startsWith(CHECKPOINT_PREFIX), any(), any(), any(), any(), any(), any(), any(),
+            any(), any(), any())).thenReturn(0);
+
+        int processed = runService.processPartition(RUN_ID, CUTOFF, lease(null));
+
+        assertThat(processed).isZero();
+        verify(jdbcTemplate, times(1)).queryForList(anyString(), eq(UUID.class), any(), any(), any(), any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void runDueBilling_WithNothingDue_DoesNotCreateRun() {
+        when(jdbcTemplate.queryForObject(anyString(), eq(Boolean.class), any())).thenReturn(false);
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), eq(RUN_ID))).thenReturn(List.of());
+
+        Optional<SubscriptionBillingRunService.BillingRunSummary> run =
+            runService.runDueBilling(CUTOFF.toZonedDateTime());
+
+        assertThat(run).isEmpty();
+        verify(jdbcTemplate, never()).update(startsWith("INSERT INTO billing_runs"), any(), any(), any());
+        verifyNoInteractions(billingEngine);
+    }
+
+    @Test
+    void billingRunSummary_ComputesThroughput() {
+        SubscriptionBillingRunService.BillingRunSummary summary = new SubscriptionBillingRunService.BillingRunSummary(
+            RUN_ID, CUTOFF, SubscriptionBillingRunService.STATUS_COMPLETED, 16, 16, 900, 100, 5, 0,
+            CUTOFF, CUTOFF.plusSeconds(10));
+
+        assertThat(summary.invoices()).isEqualTo(1000);
+        assertThat(summary.invoicesPerSecond()).isEqualTo(100.0);
+    }
+
+    private static SubscriptionBillingRunService.PartitionLease lease(UUID lastSubscriptionId) {
+        return new SubscriptionBillingRunService.PartitionLease(1,
+            UUID.fromString("40000000-0000-0000-0000-000000000000"),
+            UUID.fromString("80000000-0000-0000-0000-000000000000"),
+            lastSubscriptionId);
+    }
+}
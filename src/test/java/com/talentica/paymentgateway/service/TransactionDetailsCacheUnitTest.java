@@ -0,0 +1,217 @@
+package com.talentica.paymentgateway.service;
+
+import com.talentica.paymentgateway.config.properties.AuthorizeNetProperties;
+import com.talentica.paymentgateway.exception.PaymentProcessingException;
+import net.authorize.api.contract.v1.GetTransactionDetailsRequest;
+import net.authorize.api.contract.v1.GetTransactionDetailsResponse;
+import net.authorize.api.contract.v1.MerchantAuthenticationType;
+import net.authorize.api.contract.v1.MessageTypeEnum;
+import net.authorize.api.contract.v1.MessagesType;
+import net.authorize.api.contract.v1.TransactionDetailsType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.stubbing.OngoingStubbing;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for TransactionDetailsCache.
+ * Tests final and pending transactions, error responses and loading for webhooks.
+ */
+@ExtendWith(MockitoExtension.class)
+class TransactionDetailsCacheUnitTest {
+
+    @Mock
+    private AuthorizeNetTransport authorizeNetTransport;
+
+    @Mock
+    private MetricsService metricsService;
+
+    private AuthorizeNetProperties authorizeNetProperties;
+    private TransactionDetailsCache detailsCache;
+
+    @BeforeEach
+    void setUp() {
+        authorizeNetProperties = new AuthorizeNetProperties();
+        detailsCache = newCache();
+    }
+
+    @AfterEach
+    void tearDown() {
+        detailsCache.stop();
+    }
+
+    @Test
+    void lookup_SettledTransaction_IsCached() {
+        GetTransactionDetailsResponse settled = details("settledSuccessfully");
+        stubGateway().thenReturn(settled);
+
+        assertThat(detailsCache.lookup("60001")).isSameAs(settled);
+        assertThat(detailsCache.lookup("60001")).isSameAs(settled);
+
+        verify(authorizeNetTransport, times(1)).executeRead(any(), eq(GetTransactionDetailsResponse.class));
+        verify(metricsService).recordTransactionDetailsCache(TransactionDetailsCache.RESULT_MISS);
+        verify(metricsService).recordTransactionDetailsCache(TransactionDetailsCache.RESULT_HIT);
+    }
+
+    @Test
+    void lookup_PendingTransaction_IsCachedForTtl() {
+        stubGateway().thenReturn(details("capturedPendingSettlement"));
+
+        detailsCache.lookup("60002");
+        detailsCache.lookup("60002");
+
+        verify(authorizeNetTransport, times(1)).executeRead(any(), eq(GetTransactionDetailsResponse.class));
+    }
+
+    @Test
+    void lookup_PendingTransactionWithoutTtl_IsNotCached() {
+        detailsCache.stop();
+        authorizeNetProperties.getDetailsCache().setPendingTtlSeconds(0);
+        detailsCache = newCache();
+        stubGateway().thenReturn(details("authorizedPendingCapture"));
+
+        detailsCache.lookup("60003");
+        detailsCache.lookup("60003");
+
+        verify(authorizeNetTransport, times(2)).executeRead(any(), eq(GetTransactionDetailsResponse.class));
+    }
+
+    @Test
+    void lookup_ErrorResponse_IsNotCached() {
+        GetTransactionDetailsResponse notFound = new GetTransactionDetailsResponse();
+        notFound.setMessages(messages(MessageTypeEnum.ERROR));
+        stubGateway().thenReturn(notFound);
+
+        assertThat(detailsCache.lookup("60004")).isSameAs(notFound);
+        detailsCache.lookup("60004");
+
+        verify(authorizeNetTransport, times(2)).executeRead(any(), eq(GetTransactionDetailsResponse.class));
+        verify(metricsService, never()).recordTransactionDetailsCache(TransactionDetailsCache.RESULT_HIT);
+    }
+
+    @Test
+    void lookup_SendsTransactionIdWithMerchant() {
+        stubGateway().thenReturn(details("voided"));
+
+        detailsCache.lookup("60005");
+
+        verify(authorizeNetTransport).executeRead(argThat(request ->
+            "60005".equals(((GetTransactionDetailsRequest) request).getTransId())
+                && request.getMerchantAuthentication() != null), eq(GetTransactionDetailsResponse.class));
+    }
+
+    @Test
+    void warm_ReplacesCachedDetails() {
+        GetTransactionDetailsResponse pending = details("capturedPendingSettlement");
+        GetTransactionDetailsResponse voided = details("voided");
+        stubGateway().thenReturn(pending).thenReturn(voided);
+        detailsCache.lookup("60006");
+
+        detailsCache.warm("60006");
+
+        verify(metricsService, timeout(5000)).recordTransactionDetailsCache(TransactionDetailsCache.RESULT_WARMED);
+        awaitWarmed();
+        assertThat(detailsCache.lookup("60006")).isSameAs(voided);
+        verify(authorizeNetTransport, times(2)).executeRead(any(), eq(GetTransactionDetailsResponse.class));
+    }
+
+    @Test
+    void warm_GatewayFailure_IsCountedAndLeavesNothingCached() {
+        stubGateway()
+            .thenThrow(new PaymentProcessingException("Authorize.Net call failed: Connection refused", "test"))
+            .thenReturn(details("settledSuccessfully"));
+
+        detailsCache.warm("60007");
+
+        verify(metricsService, timeout(5000)).recordTransactionDetailsCache(TransactionDetailsCache.RESULT_WARM_FAILED);
+        awaitWarmed();
+        detailsCache.lookup("60007");
+        verify(metricsService).recordTransactionDetailsCache(TransactionDetailsCache.RESULT_MISS);
+    }
+
+    @Test
+    void warm_WithoutWebhookLoading_OnlyInvalidates() {
+        detailsCache.stop();
+        authorizeNetProperties.getDetailsCache().setWarmFromWebhooks(false);
+        detailsCache = newCache();
+        stubGateway().thenReturn(details("authorizedPendingCapture"));
+        detailsCache.lookup("60008");
+
+        detailsCache.warm("60008");
+        detailsCache.lookup("60008");
+
+        verify(authorizeNetTransport, times(2)).executeRead(any(), eq(GetTransactionDetailsResponse.class));
+        verify(metricsService, times(2)).recordTransactionDetailsCache(TransactionDetailsCache.RESULT_MISS);
+    }
+
+    @Test
+    void lookup_WhenDisabled_AlwaysCallsGateway() {
+        detailsCache.stop();
+        authorizeNetProperties.getDetailsCache().setEnabled(false);
+        detailsCache = newCache();
+        stubGateway().thenReturn(details("settledSuccessfully"));
+
+        detailsCache.lookup("60009");
+        detailsCache.lookup("60009");
+        detailsCache.warm("60009");
+
+        verify(authorizeNetTransport, times(2)).executeRead(any(), eq(GetTransactionDetailsResponse.class));
+        verify(metricsService, never()).recordTransactionDetailsCache(anyString());
+    }
+
+    @Test
+    void isFinal_RecognisesTerminalStatuses() {
+        assertThat(TransactionDetailsCache.isFinal(details("settledSuccessfully"))).isTrue();
+        assertThat(TransactionDetailsCache.isFinal(details("refundSettledSuccessfully"))).isTrue();
+        assertThat(TransactionDetailsCache.isFinal(details("voided"))).isTrue();
+        assertThat(TransactionDetailsCache.isFinal(details("capturedPendingSettlement"))).isFalse();
+        assertThat(TransactionDetailsCache.isFinal(details("refundPendingSettlement"))).isFalse();
+        assertThat(TransactionDetailsCache.isFinal(details("FDSPendingReview"))).isFalse();
+    }
+
+    private TransactionDetailsCache newCache() {
+        TransactionDetailsCache cache = new TransactionDetailsCache(new MerchantAuthenticationType(),
+            authorizeNetTransport, metricsService, authorizeNetProperties);
+        cache.start();
+        return cache;
+    }
+
+    private OngoingStubbing<GetTransactionDetailsResponse> stubGateway() {
+        return when(authorizeNetTransport.executeRead(any(GetTransactionDetailsRequest.class),
+            eq(GetTransactionDetailsResponse.class)));
+    }
+
+    private void awaitWarmed() {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (detailsCache.warming() > 0 && System.nanoTime() < deadline) {
+            Thread.yield();
+        }
+        assertThat(detailsCache.warming()).isZero();
+    }
+
+    private static GetTransactionDetailsResponse details(String status) {
+        TransactionDetailsType transaction = new TransactionDetailsType();
+        transaction.setTransId("60000");
+        transaction.setTransactionStatus(status);
+
+        GetTransactionDetailsResponse response = new GetTransactionDetailsResponse();
+        response.setMessages(messages(MessageTypeEnum.OK));
+        response.setTransaction(transaction);
+        return response;
+    }
+
+    private static MessagesType messages(MessageTypeEnum resultCode) {
+        MessagesType messages = new MessagesType();
+        messages.setResultCode(resultCode);
+        return messages;
+    }
+}
@@ -0,0 +1,137 @@
+package com.talentica.paymentgateway.service;
+
+import com.talentica.paymentgateway.config.properties.AnalyticsProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for TransactionRollupBackfillService.
+ * Tests chunked rebuilds, quiet-period skips and repair of drifted buckets.
+ */
+@ExtendWith(MockitoExtension.class)
+class TransactionRollupBackfillServiceUnitTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private TransactionRollupService rollupService;
+
+    @Mock
+    private TransactionRollupConsistencyChecker consistencyChecker;
+
+    @Mock
+    private MetricsService metricsService;
+
+    private AnalyticsProperties analyticsProperties;
+    private TransactionRollupBackfillService backfillService;
+
+    @BeforeEach
+    void setUp() {
+        analyticsProperties = new AnalyticsProperties();
+        analyticsProperties.getRollups().setBackfillChunkHours(24);
+
+        lenient().when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+            invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(mock(TransactionStatus.class)));
+        lenient().doAnswer(invocation -> {
+            invocation.<Consumer<TransactionStatus>>getArgument(0).accept(mock(TransactionStatus.class));
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        lenient().when(rollupService.isEnabled()).thenReturn(true);
+
+        backfillService = new TransactionRollupBackfillService(jdbcTemplate, transactionTemplate, rollupService,
+            consistencyChecker, metricsService, analyticsProperties);
+    }
+
+    @Test
+    void backfill_RebuildsRangeInChunks() {
+        when(jdbcTemplate.queryForObject(anyString(), eq(Integer.class), any(), any(), any()))
+            .thenReturn(0, 0, 2);
+        ZonedDateTime start = ZonedDateTime.of(2025, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+        ZonedDateTime end = ZonedDateTime.of(2025, 1, 3, 11, 30, 0, 0, ZoneOffset.UTC);
+
+        TransactionRollupBackfillService.BackfillResult result = backfillService.backfill(start, end);
+
+        assertThat(result.from()).isEqualTo(LocalDateTime.of(2025, 1, 1, 0, 0));
+        assertThat(result.to()).isEqualTo(LocalDateTime.of(2025, 1, 3, 12, 0));
+        assertThat(result.hoursRebuilt()).isEqualTo(58);
+        assertThat(result.hoursSkipped()).isEqualTo(2);
+        verify(transactionTemplate, times(3)).execute(any());
+        verify(jdbcTemplate, times(3)).execute(contains("pg_advisory_xact_lock("));
+        verify(jdbcTemplate).update(startsWith("DELETE FROM transaction_rollups_hourly"),
+            eq(LocalDateTime.of(2025, 1, 3, 0, 0)), eq(LocalDateTime.of(2025, 1, 3, 12, 0)), any(), any(), any());
+        verify(jdbcTemplate).update(startsWith("DELETE FROM transaction_rollups_daily"),
+            eq(LocalDateTime.of(2025, 1, 3, 0, 0)), eq(LocalDateTime.of(2025, 1, 4, 0, 0)));
+        verify(metricsService).recordTransactionRollupBackfill(eq(58), any(Duration.class));
+    }
+
+    @Test
+    void backfill_WhenDisabled_ThrowsIllegalState() {
+        when(rollupService.isEnabled()).thenReturn(false);
+
+        assertThatThrownBy(() -> backfillService.backfill(ZonedDateTime.now().minusDays(1), ZonedDateTime.now()))
+            .isInstanceOf(IllegalStateException.class);
+
+        verifyNoInteractions(transactionTemplate);
+    }
+
+    @Test
+    void backfill_WithInvertedRange_ThrowsIllegalArgument() {
+        ZonedDateTime now = ZonedDateTime.now();
+
+        assertThatThrownBy(() -> backfillService.backfill(now, now.minusHours(1)))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void checkAndRepair_RebuildsDriftedBuckets() {
+        LocalDateTime hour = LocalDateTime.of(2025, 1, 1, 10, 0);
+        LocalDateTime day = LocalDateTime.of(2024, 12, 31, 0, 0);
+        when(consistencyChecker.check(any(ZonedDateTime.class), any(ZonedDateTime.class)))
+            .thenReturn(new TransactionRollupConsistencyChecker.ConsistencyReport(
+                hour.minusHours(48), hour, 48, 0, List.of(hour), List.of(day)));
+
+        backfillService.checkAndRepair();
+
+        verify(jdbcTemplate).update(startsWith("DELETE FROM transaction_rollups_hourly"),
+            eq(hour), eq(hour.plusHours(1)), any(), any(), any());
+        verify(jdbcTemplate).update(startsWith("DELETE FROM transaction_rollups_daily"),
+            eq(day), eq(day.plusDays(1)));
+    }
+
+    @Test
+    void checkAndRepair_WithRepairDisabled_OnlyReports() {
+        analyticsProperties.getRollups().setRepairEnabled(false);
+        LocalDateTime hour = LocalDateTime.of(2025, 1, 1, 10, 0);
+        when(consistencyChecker.check(any(ZonedDateTime.class), any(ZonedDateTime.class)))
+            .thenReturn(new TransactionRollupConsistencyChecker.ConsistencyReport(
+                hour.minusHours(48), hour, 48, 0, List.of(hour), List.of()));
+
+        TransactionRollupConsistencyChecker.ConsistencyReport report = backfillService.checkAndRepair();
+
+        assertThat(report.isConsistent()).isFalse();
+        verifyNoInteractions(transactionTemplate, jdbcTemplate);
+    }
+}
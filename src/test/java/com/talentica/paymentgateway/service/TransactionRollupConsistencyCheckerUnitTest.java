@@ -0,0 +1,133 @@
+package com.talentica.paymentgateway.service;
+
+import com.talentica.paymentgateway.config.properties.AnalyticsProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for TransactionRollupConsistencyChecker.
+ * Tests bucket comparison and the exclusion of hours still inside the quiet period.
+ */
+@ExtendWith(MockitoExtension.class)
+class TransactionRollupConsistencyCheckerUnitTest {
+
+    private static final LocalDateTime HOUR = LocalDateTime.of(2025, 1, 1, 10, 0);
+    private static final ZonedDateTime START = ZonedDateTime.of(2025, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+    private static final ZonedDateTime END = START.plusDays(1);
+    private static final String ROLLUP_HOURLY_PREFIX = "SELECT bucket_start, status, transaction_type, currency, " +
+        "response_code, transaction_count, total_amount FROM transaction_rollups_hourly";
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private MetricsService metricsService;
+
+    private AnalyticsProperties analyticsProperties;
+    private TransactionRollupConsistencyChecker checker;
+
+    @BeforeEach
+    void setUp() {
+        analyticsProperties = new AnalyticsProperties();
+        checker = new TransactionRollupConsistencyChecker(jdbcTemplate, metricsService, analyticsProperties);
+    }
+
+    @Test
+    void diffBuckets_ReportsMissingExtraAndDifferentRows() {
+        Map<TransactionRollupService.RollupKey, TransactionRollupService.Delta> expected = Map.of(
+            key(HOUR, "SETTLED"), delta(2, "20.00"),
+            key(HOUR.plusHours(1), "SETTLED"), delta(1, "10.00"),
+            key(HOUR.plusHours(2), "SETTLED"), delta(1, "10.00"));
+        Map<TransactionRollupService.RollupKey, TransactionRollupService.Delta> actual = Map.of(
+            key(HOUR, "SETTLED"), delta(2, "20.0"),
+            key(HOUR.plusHours(1), "SETTLED"), delta(1, "12.00"),
+            key(HOUR.plusHours(3), "FAILED"), delta(1, "5.00"));
+
+        assertThat(TransactionRollupConsistencyChecker.diffBuckets(expected, actual))
+            .containsExactly(HOUR.plusHours(1), HOUR.plusHours(2), HOUR.plusHours(3));
+    }
+
+    @Test
+    void check_ReportsDriftedHour() throws Exception {
+        stubRows("SELECT date_trunc('hour'", HOUR, 3L, "30.00");
+        stubRows(ROLLUP_HOURLY_PREFIX, HOUR, 2L, "20.00");
+        when(jdbcTemplate.queryForList(anyString(), eq(LocalDateTime.class), any(), any(), any()))
+            .thenReturn(List.of());
+
+        TransactionRollupConsistencyChecker.ConsistencyReport report = checker.check(START, END);
+
+        assertThat(report.driftedHours()).containsExactly(HOUR);
+        assertThat(report.checkedHours()).isEqualTo(24);
+        assertThat(report.isConsistent()).isFalse();
+        verify(metricsService).recordTransactionRollupCheck(eq(1), eq(0), any(Duration.class));
+    }
+
+    @Test
+    void check_SkipsHoursInsideQuietPeriod() throws Exception {
+        stubRows("SELECT date_trunc('hour'", HOUR, 3L, "30.00");
+        when(jdbcTemplate.queryForList(anyString(), eq(LocalDateTime.class), any(), any(), any()))
+            .thenReturn(List.of(HOUR));
+
+        TransactionRollupConsistencyChecker.ConsistencyReport report = checker.check(START, END);
+
+        assertThat(report.isConsistent()).isTrue();
+        assertThat(report.checkedHours()).isEqualTo(23);
+        assertThat(report.skippedHours()).isEqualTo(1);
+    }
+
+    @Test
+    void check_WhenDisabled_ThrowsIllegalState() {
+        analyticsProperties.getRollups().setEnabled(false);
+
+        assertThatThrownBy(() -> checker.check(START, END))
+            .isInstanceOf(IllegalStateException.class);
+
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    /**
+     * Feeds one row to the row callback of the query whose SQL starts with the given prefix.
+     */
+    private void stubRows(String sqlPrefix, LocalDateTime bucketStart, long count, String amount) throws Exception {
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getObject("bucket_start", LocalDateTime.class)).thenReturn(bucketStart);
+        when(rs.getString("status")).thenReturn("SETTLED");
+        when(rs.getString("transaction_type")).thenReturn("PURCHASE");
+        when(rs.getString("currency")).thenReturn("USD");
+        when(rs.getString("response_code")).thenReturn("1");
+        when(rs.getLong("transaction_count")).thenReturn(count);
+        when(rs.getBigDecimal("total_amount")).thenReturn(new BigDecimal(amount));
+
+        lenient().doAnswer(invocation -> {
+            invocation.<RowCallbackHandler>getArgument(1).processRow(rs);
+            return null;
+        }).when(jdbcTemplate).query(startsWith(sqlPrefix), any(RowCallbackHandler.class), any(), any());
+    }
+
+    private static TransactionRollupService.RollupKey key(LocalDateTime bucketStart, String status) {
+        return new TransactionRollupService.RollupKey(bucketStart, status, "PURCHASE", "USD", "1");
+    }
+
+    private static TransactionRollupService.Delta delta(long count, String amount) {
+        return new TransactionRollupService.Delta(count, new BigDecimal(amount));
+    }
+}
@@ -0,0 +1,144 @@
+package com.talentica.paymentgateway.service;
+
+import com.talentica.paymentgateway.entity.PaymentStatus;
+import com.talentica.paymentgateway.entity.Transaction;
+import com.talentica.paymentgateway.entity.TransactionType;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.tuple.entity.EntityMetamodel;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for TransactionRollupListener.
+ * Tests how committed inserts, updates and deletes are turned into rollup deltas.
+ */
+@ExtendWith(MockitoExtension.class)
+class TransactionRollupListenerUnitTest {
+
+    private static final List<String> PROPERTIES =
+        List.of("createdAt", "status", "transactionType", "currency", "authnetResponseCode", "amount");
+    private static final LocalDateTime CREATED_AT = LocalDateTime.of(2025, 1, 1, 10, 15);
+
+    @Mock
+    private EntityManagerFactory entityManagerFactory;
+
+    @Mock
+    private TransactionRollupService rollupService;
+
+    @Mock
+    private MetricsService metricsService;
+
+    @Mock
+    private EntityPersister persister;
+
+    @Mock
+    private EntityMetamodel entityMetamodel;
+
+    private TransactionRollupListener listener;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(persister.getEntityMetamodel()).thenReturn(entityMetamodel);
+        lenient().when(entityMetamodel.getPropertyIndex(anyString()))
+            .thenAnswer(invocation -> PROPERTIES.indexOf(invocation.<String>getArgument(0)));
+
+        listener = new TransactionRollupListener(entityManagerFactory, rollupService, metricsService);
+    }
+
+    @Test
+    void onPostInsert_AddsOneToBucket() {
+        PostInsertEvent event = mock(PostInsertEvent.class);
+        when(event.getEntity()).thenReturn(new Transaction());
+        when(event.getPersister()).thenReturn(persister);
+        when(event.getState()).thenReturn(state(PaymentStatus.PENDING, "25.00"));
+
+        listener.onPostInsert(event);
+
+        verify(rollupService).addDelta(key(PaymentStatus.PENDING), 1, new BigDecimal("25.00"));
+    }
+
+    @Test
+    void onPostUpdate_WithStatusChange_MovesTransactionBetweenBuckets() {
+        PostUpdateEvent event = updateEvent(state(PaymentStatus.AUTHORIZED, "25.00"), state(PaymentStatus.SETTLED, "25.00"));
+
+        listener.onPostUpdate(event);
+
+        verify(rollupService).addDelta(key(PaymentStatus.AUTHORIZED), -1, new BigDecimal("-25.00"));
+        verify(rollupService).addDelta(key(PaymentStatus.SETTLED), 1, new BigDecimal("25.00"));
+    }
+
+    @Test
+    void onPostUpdate_WithSameBucket_AddsAmountDifferenceOnly() {
+        PostUpdateEvent event = updateEvent(state(PaymentStatus.SETTLED, "25.00"), state(PaymentStatus.SETTLED, "20.00"));
+
+        listener.onPostUpdate(event);
+
+        verify(rollupService).addDelta(key(PaymentStatus.SETTLED), 0, new BigDecimal("-5.00"));
+        verifyNoMoreInteractions(rollupService);
+    }
+
+    @Test
+    void onPostUpdate_WithoutOldState_RecordsSkip() {
+        PostUpdateEvent event = mock(PostUpdateEvent.class);
+        when(event.getEntity()).thenReturn(new Transaction());
+        when(event.getOldState()).thenReturn(null);
+
+        listener.onPostUpdate(event);
+
+        verify(metricsService).recordTransactionRollupDeltaSkipped(TransactionRollupListener.SKIPPED_NO_OLD_STATE);
+        verifyNoInteractions(rollupService);
+    }
+
+    @Test
+    void onPostUpdate_IgnoresOtherEntities() {
+        PostUpdateEvent event = mock(PostUpdateEvent.class);
+        when(event.getEntity()).thenReturn(new Object());
+
+        listener.onPostUpdate(event);
+
+        verifyNoInteractions(rollupService, metricsService);
+    }
+
+    @Test
+    void onPostDelete_RemovesTransactionFromBucket() {
+        PostDeleteEvent event = mock(PostDeleteEvent.class);
+        when(event.getEntity()).thenReturn(new Transaction());
+        when(event.getPersister()).thenReturn(persister);
+        when(event.getDeletedState()).thenReturn(state(PaymentStatus.FAILED, "12.50"));
+
+        listener.onPostDelete(event);
+
+        verify(rollupService).addDelta(key(PaymentStatus.FAILED), -1, new BigDecimal("-12.50"));
+    }
+
+    private PostUpdateEvent updateEvent(Object[] oldState, Object[] newState) {
+        PostUpdateEvent event = mock(PostUpdateEvent.class);
+        when(event.getEntity()).thenReturn(new Transaction());
+        when(event.getPersister()).thenReturn(persister);
+        when(event.getOldState()).thenReturn(oldState);
+        when(event.getState()).thenReturn(newState);
+        return event;
+    }
+
+    private static Object[] state(PaymentStatus status, String amount) {
+        return new Object[] {CREATED_AT, status, TransactionType.PURCHASE, "USD", "1", new BigDecimal(amount)};
+    }
+
+    private static TransactionRollupService.RollupKey key(PaymentStatus status) {
+        return TransactionRollupService.RollupKey.of(CREATED_AT, status, TransactionType.PURCHASE, "USD", "1");
+    }
+}
@@ -0,0 +1,209 @@
+package com.talentica.paymentgateway.service;
+
+import com.talentica.paymentgateway.config.properties.AnalyticsProperties;
+import com.talentica.paymentgateway.dto.analytics.TransactionRollupTotals;
+import com.talentica.paymentgateway.entity.PaymentStatus;
+import com.talentica.paymentgateway.entity.TransactionType;
+import com.talentica.paymentgateway.repository.TransactionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for TransactionRollupService.
+ * Tests delta buffering, flush ordering and requeueing, bucketing and totals range splitting.
+ */
+@ExtendWith(MockitoExtension.class)
+class TransactionRollupServiceUnitTest {
+
+    private static final LocalDateTime HOUR = LocalDateTime.of(2025, 1, 1, 10, 0);
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @Mock
+    private MetricsService metricsService;
+
+    private AnalyticsProperties analyticsProperties;
+    private TransactionRollupService rollupService;
+
+    @BeforeEach
+    void setUp() {
+        analyticsProperties = new AnalyticsProperties();
+
+        lenient().doAnswer(invocation -> {
+            invocation.<Consumer<TransactionStatus>>getArgument(0).accept(mock(TransactionStatus.class));
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+
+        rollupService = new TransactionRollupService(jdbcTemplate, transactionTemplate, transactionRepository,
+            metricsService, analyticsProperties);
+    }
+
+    @Test
+    void addDelta_MergesDeltasForSameBucket() {
+        TransactionRollupService.RollupKey key = key(HOUR, "SETTLED");
+
+        rollupService.addDelta(key, 1, new BigDecimal("10.00"));
+        rollupService.addDelta(key, 1, new BigDecimal("15.00"));
+        rollupService.addDelta(key(HOUR, "FAILED"), 1, new BigDecimal("5.00"));
+
+        assertThat(rollupService.pendingKeys()).isEqualTo(2);
+    }
+
+    @Test
+    void addDelta_IgnoresEmptyDelta() {
+        rollupService.addDelta(key(HOUR, "SETTLED"), 0, BigDecimal.ZERO);
+
+        assertThat(rollupService.pendingKeys()).isZero();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void flush_WritesHourlyRowsInKeyOrderAndSumsDailyRows() {
+        rollupService.addDelta(key(HOUR.plusHours(2), "SETTLED"), 2, new BigDecimal("30.00"));
+        rollupService.addDelta(key(HOUR, "SETTLED"), 1, new BigDecimal("10.00"));
+        rollupService.addDelta(key(HOUR, "AUTHORIZED"), 1, new BigDecimal("20.00"));
+
+        int written = rollupService.flush();
+
+        ArgumentCaptor<List<Object[]>> hourly = ArgumentCaptor.forClass(List.class);
+        ArgumentCaptor<List<Object[]>> daily = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).execute(contains("pg_advisory_xact_lock_shared"));
+        verify(jdbcTemplate).batchUpdate(contains("transaction_rollups_hourly"), hourly.capture());
+        verify(jdbcTemplate).batchUpdate(contains("transaction_rollups_daily"), daily.capture());
+
+        assertThat(written).isEqualTo(3);
+        assertThat(hourly.getValue()).extracting(row -> row[0] + "/" + row[1])
+            .containsExactly(HOUR + "/AUTHORIZED", HOUR + "/SETTLED", HOUR.plusHours(2) + "/SETTLED");
+        assertThat(daily.getValue()).hasSize(2);
+        Object[] settledDay = daily.getValue().get(1);
+        assertThat(settledDay[0]).isEqualTo(HOUR.truncatedTo(ChronoUnit.DAYS));
+        assertThat(settledDay[5]).isEqualTo(3L);
+        assertThat(settledDay[6]).isEqualTo(new BigDecimal("40.00"));
+        assertThat(rollupService.pendingKeys()).isZero();
+        verify(metricsService).recordTransactionRollupFlush(eq(3), any(Duration.class));
+    }
+
+    @Test
+    void flush_WithNothingPending_DoesNotOpenTransaction() {
+        assertThat(rollupService.flush()).isZero();
+
+        verifyNoInteractions(transactionTemplate, jdbcTemplate);
+    }
+
+    @Test
+    void flush_SkipsDeltasThatNettedOut() {
+        TransactionRollupService.RollupKey key = key(HOUR, "AUTHORIZED");
+        rollupService.addDelta(key, 1, new BigDecimal("10.00"));
+        rollupService.addDelta(key, -1, new BigDecimal("-10.00"));
+
+        assertThat(rollupService.flush()).isZero();
+
+        verifyNoInteractions(transactionTemplate);
+    }
+
+    @Test
+    void flush_WhenWriteFails_RequeuesDeltas() {
+        TransactionRollupService.RollupKey key = key(HOUR, "SETTLED");
+        rollupService.addDelta(key, 1, new BigDecimal("10.00"));
+        doThrow(new DataAccessResourceFailureException("connection refused"))
+            .when(jdbcTemplate).batchUpdate(anyString(), anyList());
+
+        assertThatThrownBy(() -> rollupService.flush())
+            .isInstanceOf(DataAccessResourceFailureException.class);
+
+        assertThat(rollupService.pendingKeys()).isEqualTo(1);
+        verify(metricsService).recordTransactionRollupFlushFailure();
+        verify(metricsService, never()).recordTransactionRollupFlush(anyInt(), any());
+    }
+
+    @Test
+    void rollupKeyOf_BucketsByUtcHourAndDefaultsMissingDimensions() {
+        LocalDateTime createdAt = LocalDateTime.of(2025, 3, 15, 14, 47, 12);
+
+        TransactionRollupService.RollupKey key =
+            TransactionRollupService.RollupKey.of(createdAt, null, TransactionType.PURCHASE, null, null);
+
+        LocalDateTime expectedBucket = createdAt.atZone(ZoneId.systemDefault())
+            .withZoneSameInstant(ZoneOffset.UTC).toLocalDateTime().truncatedTo(ChronoUnit.HOURS);
+        assertThat(key.bucketStart()).isEqualTo(expectedBucket);
+        assertThat(key.status()).isEqualTo(TransactionRollupService.UNKNOWN);
+        assertThat(key.transactionType()).isEqualTo("PURCHASE");
+        assertThat(key.currency()).isEqualTo("USD");
+        assertThat(key.responseCode()).isEmpty();
+        assertThat(key.toDaily().bucketStart()).isEqualTo(expectedBucket.truncatedTo(ChronoUnit.DAYS));
+    }
+
+    @Test
+    void totals_SplitsRangeIntoWholeDaysAndEdgeHours() {
+        ZonedDateTime start = ZonedDateTime.of(2025, 1, 1, 10, 30, 0, 0, ZoneOffset.UTC);
+        ZonedDateTime end = ZonedDateTime.of(2025, 1, 4, 5, 10, 0, 0, ZoneOffset.UTC);
+
+        rollupService.totals(start, end);
+
+        verify(jdbcTemplate).query(anyString(), any(RowMapper.class),
+            eq(LocalDateTime.of(2025, 1, 2, 0, 0)), eq(LocalDateTime.of(2025, 1, 4, 0, 0)),
+            eq(LocalDateTime.of(2025, 1, 1, 10, 0)), eq(LocalDateTime.of(2025, 1, 2, 0, 0)),
+            eq(LocalDateTime.of(2025, 1, 4, 0, 0)), eq(LocalDateTime.of(2025, 1, 4, 6, 0)));
+    }
+
+    @Test
+    void totals_WithinOneDay_ReadsOnlyHourlyRows() {
+        ZonedDateTime start = ZonedDateTime.of(2025, 1, 1, 10, 30, 0, 0, ZoneOffset.UTC);
+        ZonedDateTime end = ZonedDateTime.of(2025, 1, 1, 20, 0, 0, 0, ZoneOffset.UTC);
+        LocalDateTime to = LocalDateTime.of(2025, 1, 1, 20, 0);
+
+        rollupService.totals(start, end);
+
+        verify(jdbcTemplate).query(anyString(), any(RowMapper.class),
+            eq(to), eq(to), eq(LocalDateTime.of(2025, 1, 1, 10, 0)), eq(to), eq(to), eq(to));
+    }
+
+    @Test
+    void totals_WhenDisabled_AggregatesTransactionsTable() {
+        analyticsProperties.getRollups().setEnabled(false);
+        List<TransactionRollupTotals> expected = List.of(new TransactionRollupTotals(
+            PaymentStatus.SETTLED, TransactionType.PURCHASE, "USD", "1", 3L, new BigDecimal("30.00")));
+        when(transactionRepository.aggregateBetween(any(LocalDateTime.class), any(LocalDateTime.class)))
+            .thenReturn(expected);
+
+        List<TransactionRollupTotals> totals = rollupService.totals(ZonedDateTime.now().minusDays(1), ZonedDateTime.now());
+
+        assertThat(totals).isEqualTo(expected);
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    private static TransactionRollupService.RollupKey key(LocalDateTime bucketStart, String status) {
+        return new TransactionRollupService.RollupKey(bucketStart, status, "PURCHASE", "USD", "1");
+    }
+}
@@ -0,0 +1,218 @@
+package com.talentica.paymentgateway.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.talentica.paymentgateway.config.properties.AnalyticsProperties;
+import com.talentica.paymentgateway.dto.analytics.TransactionSearchRequest;
+import com.talentica.paymentgateway.dto.analytics.TransactionSearchResponse;
+import com.talentica.paymentgateway.entity.PaymentStatus;
+import com.talentica.paymentgateway.entity.Transaction;
+import com.talentica.paymentgateway.repository.TransactionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.BadSqlGrammarException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for TransactionSearchService.
+ * Tests cursor encoding, keyset query construction, page boundaries and total counts.
+ */
+@ExtendWith(MockitoExtension.class)
+class TransactionSearchServiceUnitTest {
+
+    private static final Instant NOW = Instant.parse("2025-03-01T12:00:00.123456Z");
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    private AnalyticsProperties analyticsProperties;
+    private TransactionSearchService searchService;
+
+    @BeforeEach
+    void setUp() {
+        analyticsProperties = new AnalyticsProperties();
+        searchService = new TransactionSearchService(jdbcTemplate, transactionRepository, new ObjectMapper(),
+            analyticsProperties);
+    }
+
+    @Test
+    void cursor_RoundTripsPositionAndDirection() {
+        TransactionSearchCursor cursor = new TransactionSearchCursor(NOW, UUID.randomUUID(), true);
+
+        assertThat(TransactionSearchCursor.decode(cursor.encode())).isEqualTo(cursor);
+    }
+
+    @Test
+    void cursor_WithGarbage_IsRejectedAsIllegalArgument() {
+        assertThatThrownBy(() -> TransactionSearchCursor.decode("not a cursor"))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessage("Invalid search cursor");
+        assertThatThrownBy(() -> TransactionSearchCursor.decode("MTpYOjE6Mjpmb28"))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void filterSql_AddsOnlyPredicatesForSetFilters() {
+        TransactionSearchRequest request = new TransactionSearchRequest();
+        UUID customerId = UUID.randomUUID();
+        request.setCustomerId(customerId);
+        request.setStatus(PaymentStatus.SETTLED);
+        List<Object> args = new ArrayList<>();
+
+        String sql = TransactionSearchService.filterSql(request, args);
+
+        assertThat(sql).isEqualTo("t.created_at IS NOT NULL AND t.customer_id = ? "
+            + "AND t.status = CAST(? AS payment_status)");
+        assertThat(args).containsExactly(customerId, "SETTLED");
+    }
+
+    @Test
+    void pageSql_ResumesAfterCursorInSortDirection() {
+        assertThat(TransactionSearchService.pageSql("f", true, false))
+            .isEqualTo("SELECT t.id, t.created_at FROM transactions t WHERE f AND (t.created_at, t.id) < (?, ?) "
+                + "ORDER BY t.created_at DESC, t.id DESC LIMIT ?");
+        assertThat(TransactionSearchService.pageSql("f", false, true))
+            .isEqualTo("SELECT t.id, t.created_at FROM transactions t WHERE f "
+                + "ORDER BY t.created_at ASC, t.id ASC LIMIT ?");
+    }
+
+    @Test
+    void search_WithMoreRows_ReturnsPageInKeyOrderAndNextCursor() {
+        List<TransactionSearchCursor> keys = keys(3);
+        stubKeys(keys);
+        Transaction first = transaction(keys.get(0).id());
+        Transaction second = transaction(keys.get(1).id());
+        when(transactionRepository.findAllById(List.of(first.getId(), second.getId())))
+            .thenReturn(List.of(second, first));
+
+        TransactionSearchResponse response = searchService.search(request(2, null));
+
+        assertThat(response.getTransactions()).containsExactly(first, second);
+        assertThat(response.isHasMore()).isTrue();
+        assertThat(TransactionSearchCursor.decode(response.getNextCursor())).isEqualTo(keys.get(1));
+        assertThat(response.getTotalCount()).isNull();
+    }
+
+    @Test
+    void search_OnLastPage_HasNoNextCursor() {
+        List<TransactionSearchCursor> keys = keys(1);
+        stubKeys(keys);
+        when(transactionRepository.findAllById(anyIterable())).thenReturn(List.of(transaction(keys.get(0).id())));
+
+        TransactionSearchResponse response = searchService.search(request(2, null));
+
+        assertThat(response.isHasMore()).isFalse();
+        assertThat(response.getNextCursor()).isNull();
+    }
+
+    @Test
+    void search_WithCursor_BindsPositionAndSkipsCount() {
+        stubKeys(List.of());
+        TransactionSearchCursor after = new TransactionSearchCursor(NOW, UUID.randomUUID(), false);
+        TransactionSearchRequest request = request(10, after.encode());
+        request.setCountMode(TransactionSearchRequest.CountMode.EXACT);
+
+        TransactionSearchResponse response = searchService.search(request);
+
+        ArgumentCaptor<Object[]> args = ArgumentCaptor.forClass(Object[].class);
+        verify(jdbcTemplate).query(contains("(t.created_at, t.id) < (?, ?)"), any(RowMapper.class), args.capture());
+        assertThat(args.getValue()).containsExactly(Timestamp.from(NOW), after.id(), 11);
+        assertThat(response.getTransactions()).isEmpty();
+        verify(jdbcTemplate, never()).queryForObject(anyString(), eq(Long.class), any(Object[].class));
+    }
+
+    @Test
+    void search_WithCursorForOtherDirection_IsRejected() {
+        TransactionSearchCursor ascending = new TransactionSearchCursor(NOW, UUID.randomUUID(), true);
+
+        assertThatThrownBy(() -> searchService.search(request(10, ascending.encode())))
+            .isInstanceOf(IllegalArgumentException.class);
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void search_WithExactCountOverLimit_ReportsLowerBound() {
+        analyticsProperties.getSearch().setExactCountLimit(100);
+        stubKeys(List.of());
+        when(jdbcTemplate.queryForObject(anyString(), eq(Long.class), any(Object[].class))).thenReturn(101L);
+        TransactionSearchRequest request = request(10, null);
+        request.setCountMode(TransactionSearchRequest.CountMode.EXACT);
+
+        TransactionSearchResponse response = searchService.search(request);
+
+        assertThat(response.getTotalCount()).isEqualTo(100L);
+        assertThat(response.isTotalCountExact()).isFalse();
+    }
+
+    @Test
+    void search_WithEstimate_ReadsPlannerRows() {
+        stubKeys(List.of());
+        when(jdbcTemplate.queryForObject(startsWith("EXPLAIN (FORMAT JSON)"), eq(String.class), any(Object[].class)))
+            .thenReturn("[{\"Plan\":{\"Node Type\":\"Index Only Scan\",\"Plan Rows\":2480311}}]");
+        TransactionSearchRequest request = request(10, null);
+        request.setCountMode(TransactionSearchRequest.CountMode.ESTIMATE);
+
+        TransactionSearchResponse response = searchService.search(request);
+
+        assertThat(response.getTotalCount()).isEqualTo(2480311L);
+        assertThat(response.isTotalCountExact()).isFalse();
+    }
+
+    @Test
+    void search_WhenEstimateFails_ReturnsPageWithoutTotal() {
+        stubKeys(List.of());
+        when(jdbcTemplate.queryForObject(anyString(), eq(String.class), any(Object[].class)))
+            .thenThrow(new BadSqlGrammarException("estimate", "EXPLAIN", new SQLException("syntax error")));
+        TransactionSearchRequest request = request(10, null);
+        request.setCountMode(TransactionSearchRequest.CountMode.ESTIMATE);
+
+        TransactionSearchResponse response = searchService.search(request);
+
+        assertThat(response.getTotalCount()).isNull();
+    }
+
+    @SuppressWarnings("unchecked")
+    private void stubKeys(List<TransactionSearchCursor> keys) {
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), any(Object[].class))).thenReturn(keys);
+    }
+
+    private static List<TransactionSearchCursor> keys(int count) {
+        List<TransactionSearchCursor> keys = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            keys.add(new TransactionSearchCursor(NOW.minusSeconds(i), UUID.randomUUID(), false));
+        }
+        return keys;
+    }
+
+    private static TransactionSearchRequest request(int size, String cursor) {
+        TransactionSearchRequest request = new TransactionSearchRequest();
+        request.setSize(size);
+        request.setCursor(cursor);
+        return request;
+    }
+
+    private static Transaction transaction(UUID id) {
+        Transaction transaction = new Transaction();
+        transaction.setId(id);
+        return transaction;
+    }
+}
@@ -0,0 +1,114 @@
+package com.talentica.paymentgateway.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for VerifiedTokenCache.
+ * Tests hashed keys, expiry at the token's exp, and revocation.
+ */
+class VerifiedTokenCacheUnitTest {
+
+    private static final String TOKEN = "header.payload.signature";
+    private static final Instant NOW = Instant.parse("2026-01-01T00:00:00Z");
+
+    private MutableClock clock;
+    private VerifiedTokenCache cache;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(NOW);
+        cache = new VerifiedTokenCache(100, clock);
+    }
+
+    @Test
+    void key_IsStableAndDoesNotContainToken() {
+        String key = VerifiedTokenCache.key(TOKEN);
+
+        assertThat(VerifiedTokenCache.key(TOKEN)).isEqualTo(key);
+        assertThat(VerifiedTokenCache.key(TOKEN + "x")).isNotEqualTo(key);
+        assertThat(key).doesNotContain("payload");
+    }
+
+    @Test
+    void get_ReturnsCachedClaimsUntilExpiry() {
+        String key = VerifiedTokenCache.key(TOKEN);
+        JwtClaims claims = claims(NOW.plusSeconds(60));
+        cache.put(key, claims);
+
+        assertThat(cache.get(key)).isSameAs(claims);
+
+        clock.now = NOW.plusSeconds(60);
+        assertThat(cache.get(key)).isNull();
+    }
+
+    @Test
+    void put_WithoutExpiry_IsNotCached() {
+        String key = VerifiedTokenCache.key(TOKEN);
+        cache.put(key, claims(null));
+
+        assertThat(cache.get(key)).isNull();
+    }
+
+    @Test
+    void revoke_DropsClaimsAndBlocksRecaching() {
+        String key = VerifiedTokenCache.key(TOKEN);
+        JwtClaims claims = claims(NOW.plusSeconds(60));
+        cache.put(key, claims);
+
+        cache.revoke(key, claims.expiresAt());
+        cache.put(key, claims);
+
+        assertThat(cache.get(key)).isNull();
+        assertThat(cache.isRevoked(key)).isTrue();
+        assertThat(cache.isRevoked(VerifiedTokenCache.key("other.token.value"))).isFalse();
+    }
+
+    @Test
+    void clearVerified_KeepsRevocations() {
+        String key = VerifiedTokenCache.key(TOKEN);
+        cache.revoke(key, NOW.plusSeconds(60));
+        cache.put(VerifiedTokenCache.key("other"), claims(NOW.plusSeconds(60)));
+
+        cache.clearVerified();
+
+        assertThat(cache.size()).isZero();
+        assertThat(cache.isRevoked(key)).isTrue();
+    }
+
+    private static JwtClaims claims(Instant expiresAt) {
+        return new JwtClaims("user@example.com", "u-1", "access", List.of("ROLE_USER"), NOW, expiresAt);
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.talentica.paymentgateway.service;
+
+import com.talentica.paymentgateway.config.ApplicationConfig;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@ExtendWith(MockitoExtension.class)
+class VirtualThreadPinningMonitorUnitTest {
+
+    @Mock
+    private MetricsService metricsService;
+
+    @Test
+    void classifyPinningSource_SdkFrameBeforeApplicationFrame_AttributesToSdk() {
+        String source = VirtualThreadPinningMonitor.classifyPinningSource(List.of(
+            "java.net.SocketInputStream",
+            "net.authorize.util.HttpUtility",
+            "net.authorize.api.controller.base.ApiOperationBase",
+            "com.talentica.paymentgateway.service.PaymentService"));
+
+        assertEquals(VirtualThreadPinningMonitor.SOURCE_SDK, source);
+    }
+
+    @Test
+    void classifyPinningSource_ApplicationFrame_AttributesToApplication() {
+        String source = VirtualThreadPinningMonitor.classifyPinningSource(List.of(
+            "java.lang.Object",
+            "com.talentica.paymentgateway.service.WebhookRetryService"));
+
+        assertEquals(VirtualThreadPinningMonitor.SOURCE_APPLICATION, source);
+    }
+
+    @Test
+    void classifyPinningSource_UnknownFrames_AttributesToOther() {
+        assertEquals(VirtualThreadPinningMonitor.SOURCE_OTHER,
+            VirtualThreadPinningMonitor.classifyPinningSource(List.of("java.lang.Object", "org.postgresql.core.PGStream")));
+        assertEquals(VirtualThreadPinningMonitor.SOURCE_OTHER,
+            VirtualThreadPinningMonitor.classifyPinningSource(List.of()));
+    }
+
+    @Test
+    void start_DiagnosticsDisabled_DoesNotRecord() {
+        ApplicationConfig.AppProperties properties = new ApplicationConfig.AppProperties();
+        properties.getThreads().setPinningDiagnosticsEnabled(false);
+        VirtualThreadPinningMonitor monitor = new VirtualThreadPinningMonitor(metricsService, properties);
+
+        monitor.start();
+        monitor.stop();
+
+        verifyNoInteractions(metricsService);
+    }
+}
@@ -0,0 +1,269 @@
+package com.talentica.paymentgateway.service;
+
+import com.talentica.paymentgateway.config.properties.WebhookProperties;
+import io.micrometer.core.instrument.Meter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for WebhookCircuitBreakerRegistry.
+ * Tests sliding-window evaluation, half-open probing and the per-endpoint bulkhead.
+ */
+@ExtendWith(MockitoExtension.class)
+class WebhookCircuitBreakerRegistryUnitTest {
+
+    private static final String ENDPOINT = "https://merchant.example.com/hooks?token=secret";
+    private static final String ENDPOINT_KEY = "https://merchant.example.com/hooks";
+    private static final Duration FAST = Duration.ofMillis(50);
+    private static final Duration SLOW = Duration.ofSeconds(10);
+
+    @Mock
+    private MetricsService metricsService;
+
+    private final AtomicLong nanoTime = new AtomicLong();
+
+    private WebhookProperties.CircuitBreaker config;
+    private WebhookCircuitBreakerRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        WebhookProperties webhookProperties = new WebhookProperties();
+        config = webhookProperties.getCircuitBreaker();
+        config.setSlidingWindowSize(10);
+        config.setMinimumCalls(4);
+        config.setFailureRateThreshold(50);
+        config.setSlowCallDurationMs(5000);
+        config.setSlowCallRateThreshold(80);
+        config.setWaitDurationOpenSeconds(300);
+        config.setHalfOpenPermits(2);
+        config.setMaxConcurrentCallsPerEndpoint(2);
+        config.setIdleEvictionMinutes(60);
+        registry = new WebhookCircuitBreakerRegistry(webhookProperties, metricsService, nanoTime::get);
+    }
+
+    @Test
+    void failureRateBelowThreshold_StaysClosed() {
+        registry.recordFailure(ENDPOINT, FAST);
+        registry.recordSuccess(ENDPOINT, FAST);
+        registry.recordSuccess(ENDPOINT, FAST);
+        registry.recordSuccess(ENDPOINT, FAST);
+
+        assertThat(registry.stateOf(ENDPOINT)).isEqualTo(WebhookCircuitBreakerRegistry.State.CLOSED);
+    }
+
+    @Test
+    void failureRateAtThreshold_OpensAndRejects() {
+        registry.recordFailure(ENDPOINT, FAST);
+        registry.recordSuccess(ENDPOINT, FAST);
+        registry.recordFailure(ENDPOINT, FAST);
+        registry.recordSuccess(ENDPOINT, FAST);
+
+        assertThat(registry.stateOf(ENDPOINT)).isEqualTo(WebhookCircuitBreakerRegistry.State.OPEN);
+        WebhookCircuitBreakerRegistry.Permit permit = registry.tryAcquire(ENDPOINT);
+        assertThat(permit.isGranted()).isFalse();
+        assertThat(permit.getRejectionReason()).isEqualTo(WebhookCircuitBreakerRegistry.REJECTED_CIRCUIT_OPEN);
+        verify(metricsService).recordWebhookCircuitBreakerTransition("OPEN");
+        verify(metricsService).recordWebhookCircuitBreakerRejection(WebhookCircuitBreakerRegistry.REJECTED_CIRCUIT_OPEN);
+    }
+
+    @Test
+    void slowCallsAboveThreshold_OpenEvenWhenSuccessful() {
+        for (int i = 0; i < 4; i++) {
+            registry.recordSuccess(ENDPOINT, SLOW);
+        }
+
+        assertThat(registry.stateOf(ENDPOINT)).isEqualTo(WebhookCircuitBreakerRegistry.State.OPEN);
+    }
+
+    @Test
+    void slidingWindow_OldFailuresAgeOut() {
+        for (int i = 0; i < 3; i++) {
+            registry.recordFailure(ENDPOINT, FAST);
+            registry.recordSuccess(ENDPOINT, FAST);
+            registry.recordSuccess(ENDPOINT, FAST);
+            registry.recordSuccess(ENDPOINT, FAST);
+        }
+        for (int i = 0; i < 10; i++) {
+            registry.recordSuccess(ENDPOINT, FAST);
+        }
+
+        WebhookCircuitBreakerRegistry.BreakerSnapshot snapshot = registry.snapshot().get(ENDPOINT_KEY);
+        assertThat(snapshot.state()).isEqualTo(WebhookCircuitBreakerRegistry.State.CLOSED);
+        assertThat(snapshot.bufferedCalls()).isEqualTo(10);
+        assertThat(snapshot.failedCalls()).isZero();
+    }
+
+    @Test
+    void halfOpen_LimitsProbesAndClosesWhenTheySucceed() {
+        config.setWaitDurationOpenSeconds(0);
+        openBreaker();
+
+        WebhookCircuitBreakerRegistry.Permit first = registry.tryAcquire(ENDPOINT);
+        WebhookCircuitBreakerRegistry.Permit second = registry.tryAcquire(ENDPOINT);
+        WebhookCircuitBreakerRegistry.Permit third = registry.tryAcquire(ENDPOINT);
+
+        assertThat(registry.stateOf(ENDPOINT)).isEqualTo(WebhookCircuitBreakerRegistry.State.HALF_OPEN);
+        assertThat(first.isGranted()).isTrue();
+        assertThat(second.isGranted()).isTrue();
+        assertThat(third.isGranted()).isFalse();
+
+        registry.recordSuccess(ENDPOINT, FAST);
+        first.close();
+        registry.recordSuccess(ENDPOINT, FAST);
+        second.close();
+
+        assertThat(registry.stateOf(ENDPOINT)).isEqualTo(WebhookCircuitBreakerRegistry.State.CLOSED);
+    }
+
+    @Test
+    void halfOpen_FailedProbesReopen() {
+        config.setWaitDurationOpenSeconds(0);
+        openBreaker();
+
+        registry.tryAcquire(ENDPOINT).close();
+        registry.recordFailure(ENDPOINT, FAST);
+        registry.tryAcquire(ENDPOINT).close();
+        registry.recordSuccess(ENDPOINT, FAST);
+
+        assertThat(registry.stateOf(ENDPOINT)).isEqualTo(WebhookCircuitBreakerRegistry.State.OPEN);
+    }
+
+    @Test
+    void halfOpen_IgnoredOutcomeReturnsProbePermit() {
+        config.setWaitDurationOpenSeconds(0);
+        config.setHalfOpenPermits(1);
+        openBreaker();
+
+        WebhookCircuitBreakerRegistry.Permit probe = registry.tryAcquire(ENDPOINT);
+        registry.recordIgnored(ENDPOINT);
+        probe.close();
+
+        assertThat(registry.tryAcquire(ENDPOINT).isGranted()).isTrue();
+    }
+
+    @Test
+    void bulkhead_RejectsBeyondConcurrencyLimitAndFreesSlotsOnClose() {
+        WebhookCircuitBreakerRegistry.Permit first = registry.tryAcquire(ENDPOINT);
+        WebhookCircuitBreakerRegistry.Permit second = registry.tryAcquire(ENDPOINT);
+        WebhookCircuitBreakerRegistry.Permit rejected = registry.tryAcquire(ENDPOINT);
+
+        assertThat(rejected.isGranted()).isFalse();
+        assertThat(rejected.getRejectionReason()).isEqualTo(WebhookCircuitBreakerRegistry.REJECTED_BULKHEAD_FULL);
+        assertThat(registry.tryAcquire("https://other.example.com/hooks").isGranted()).isTrue();
+
+        first.close();
+        first.close();
+        second.close();
+
+        assertThat(registry.snapshot().get(ENDPOINT_KEY).bulkheadInUse()).isZero();
+    }
+
+    @Test
+    void gaugesRegisteredOncePerEndpointWithoutQueryString() {
+        registry.tryAcquire(ENDPOINT).close();
+        registry.recordSuccess(ENDPOINT, FAST);
+
+        verify(metricsService, times(1)).registerWebhookCircuitBreakerGauges(
+            eq(ENDPOINT_KEY), any(), any(), any());
+    }
+
+    @Test
+    void urlsDifferingOnlyInQueryString_ShareBreaker() {
+        registry.recordFailure(ENDPOINT, FAST);
+        registry.recordFailure(ENDPOINT_KEY + "?token=other", FAST);
+        registry.recordFailure(ENDPOINT_KEY, FAST);
+        registry.recordFailure(ENDPOINT_KEY + "?retry=1", FAST);
+
+        assertThat(registry.stateOf(ENDPOINT)).isEqualTo(WebhookCircuitBreakerRegistry.State.OPEN);
+        assertThat(registry.snapshot()).containsOnlyKeys(ENDPOINT_KEY);
+        verify(metricsService, times(1)).registerWebhookCircuitBreakerGauges(anyString(), any(), any(), any());
+    }
+
+    @Test
+    void idleBreaker_IsDroppedWithItsGauges() {
+        List<Meter> gauges = List.of(mock(Meter.class));
+        when(metricsService.registerWebhookCircuitBreakerGauges(eq(ENDPOINT_KEY), any(), any(), any()))
+            .thenReturn(gauges);
+        openBreaker();
+
+        nanoTime.addAndGet(TimeUnit.MINUTES.toNanos(61));
+        registry.evictIdle();
+
+        verify(metricsService).removeMeters(gauges);
+        assertThat(registry.snapshot()).isEmpty();
+        assertThat(registry.tryAcquire(ENDPOINT).isGranted()).isTrue();
+        verify(metricsService, times(2)).registerWebhookCircuitBreakerGauges(eq(ENDPOINT_KEY), any(), any(), any());
+    }
+
+    @Test
+    void recentlyUsedBreaker_IsKept() {
+        openBreaker();
+
+        nanoTime.addAndGet(TimeUnit.MINUTES.toNanos(50));
+        registry.tryAcquire(ENDPOINT).close();
+        nanoTime.addAndGet(TimeUnit.MINUTES.toNanos(50));
+        registry.evictIdle();
+
+        assertThat(registry.stateOf(ENDPOINT)).isEqualTo(WebhookCircuitBreakerRegistry.State.OPEN);
+        verify(metricsService, never()).removeMeters(any());
+    }
+
+    @Test
+    void concurrentCallers_NeverExceedBulkheadLimit() throws Exception {
+        config.setMaxConcurrentCallsPerEndpoint(3);
+        WebhookCircuitBreakerRegistry concurrentRegistry = new WebhookCircuitBreakerRegistry(
+            propertiesWith(config), metricsService);
+        ExecutorService callers = Executors.newFixedThreadPool(8);
+        AtomicInteger concurrent = new AtomicInteger();
+        AtomicInteger maxConcurrent = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(400);
+
+        for (int i = 0; i < 400; i++) {
+            callers.execute(() -> {
+                try (WebhookCircuitBreakerRegistry.Permit permit = concurrentRegistry.tryAcquire(ENDPOINT)) {
+                    if (permit.isGranted()) {
+                        maxConcurrent.accumulateAndGet(concurrent.incrementAndGet(), Math::max);
+                        concurrentRegistry.recordSuccess(ENDPOINT, FAST);
+                        concurrent.decrementAndGet();
+                    }
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+
+        assertThat(done.await(10, TimeUnit.SECONDS)).isTrue();
+        callers.shutdown();
+        assertThat(maxConcurrent.get()).isLessThanOrEqualTo(3);
+        assertThat(concurrentRegistry.snapshot().get(ENDPOINT_KEY).bulkheadInUse()).isZero();
+    }
+
+    private void openBreaker() {
+        for (int i = 0; i < 4; i++) {
+            registry.recordFailure(ENDPOINT, FAST);
+        }
+        assertThat(registry.stateOf(ENDPOINT)).isEqualTo(WebhookCircuitBreakerRegistry.State.OPEN);
+    }
+
+    private static WebhookProperties propertiesWith(WebhookProperties.CircuitBreaker circuitBreaker) {
+        WebhookProperties webhookProperties = new WebhookProperties();
+        webhookProperties.setCircuitBreaker(circuitBreaker);
+        return webhookProperties;
+    }
+}
@@ -0,0 +1,174 @@
+package com.talentica.paymentgateway.service;
+
+import com.talentica.paymentgateway.config.properties.WebhookProperties;
+import com.talentica.paymentgateway.repository.WebhookRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for WebhookCleanupService.
+ * Tests batch looping, time budget handling and partition dropping.
+ */
+@ExtendWith(MockitoExtension.class)
+class WebhookCleanupServiceUnitTest {
+
+    @Mock
+    private WebhookRepository webhookRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private MetricsService metricsService;
+
+    private WebhookProperties webhookProperties;
+    private WebhookCleanupService cleanupService;
+
+    @BeforeEach
+    void setUp() {
+        webhookProperties = new WebhookProperties();
+        webhookProperties.getCleanup().setBatchSize(100);
+        webhookProperties.getCleanup().setBatchPauseMs(0);
+        webhookProperties.getCleanup().setMaxRunMinutes(60);
+        webhookProperties.getCleanup().setPartitionDropEnabled(true);
+
+        lenient().when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+            invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(mock(TransactionStatus.class)));
+        lenient().doAnswer(invocation -> {
+            invocation.<Consumer<TransactionStatus>>getArgument(0).accept(mock(TransactionStatus.class));
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        lenient().when(jdbcTemplate.queryForObject(anyString(), eq(Boolean.class))).thenReturn(false);
+
+        cleanupService = new WebhookCleanupService(webhookRepository, jdbcTemplate, transactionTemplate,
+            metricsService, webhookProperties);
+    }
+
+    @Test
+    void purgeExpiredWebhooks_DeletesInBatchesUntilShortBatch() {
+        when(webhookRepository.deleteDeliveredWebhooksBatch(any(ZonedDateTime.class), eq(100)))
+            .thenReturn(100, 100, 42);
+        when(webhookRepository.deleteFailedWebhooksBatch(any(ZonedDateTime.class), eq(100)))
+            .thenReturn(7);
+
+        WebhookCleanupService.CleanupResult result = cleanupService.purgeExpiredWebhooks();
+
+        assertThat(result.deliveredRows()).isEqualTo(242);
+        assertThat(result.failedRows()).isEqualTo(7);
+        assertThat(result.totalRows()).isEqualTo(249);
+        verify(webhookRepository, times(3)).deleteDeliveredWebhooksBatch(any(ZonedDateTime.class), eq(100));
+        verify(transactionTemplate, times(4)).execute(any());
+        verify(metricsService, times(3)).recordWebhookCleanupBatch(eq("delivered"), anyLong(), any(Duration.class));
+        verify(metricsService).recordWebhookCleanupBatch(eq("failed"), eq(7L), any(Duration.class));
+        verify(metricsService).recordWebhookCleanupRun(eq(249L), any(Duration.class));
+    }
+
+    @Test
+    void purgeExpiredWebhooks_UsesConfiguredRetention() {
+        webhookProperties.getCleanup().setDeliveredRetentionDays(7);
+        webhookProperties.getCleanup().setFailedRetentionDays(30);
+        ZonedDateTime now = ZonedDateTime.now();
+
+        cleanupService.purgeExpiredWebhooks();
+
+        verify(webhookRepository).deleteDeliveredWebhooksBatch(
+            argThat(cutoff -> Duration.between(cutoff, now.minusDays(7)).abs().toMinutes() < 1), eq(100));
+        verify(webhookRepository).deleteFailedWebhooksBatch(
+            argThat(cutoff -> Duration.between(cutoff, now.minusDays(30)).abs().toMinutes() < 1), eq(100));
+    }
+
+    @Test
+    void purgeInBatches_DeadlinePassed_StopsAfterCurrentBatch() {
+        long total = cleanupService.purgeInBatches("delivered", Instant.now().minusSeconds(1), batchSize -> batchSize);
+
+        assertThat(total).isEqualTo(100);
+        verify(transactionTemplate, times(1)).execute(any());
+    }
+
+    @Test
+    void purgeInBatches_Interrupted_StopsAndKeepsInterruptFlag() {
+        webhookProperties.getCleanup().setBatchPauseMs(50);
+        Thread.currentThread().interrupt();
+        try {
+            long total = cleanupService.purgeInBatches("failed", Instant.now().plusSeconds(60), batchSize -> batchSize);
+
+            assertThat(total).isEqualTo(100);
+            assertThat(Thread.currentThread().isInterrupted()).isTrue();
+        } finally {
+            Thread.interrupted();
+        }
+    }
+
+    @Test
+    void purgeExpiredWebhooks_PartitionDropDisabled_DoesNotInspectCatalog() {
+        webhookProperties.getCleanup().setPartitionDropEnabled(false);
+
+        cleanupService.purgeExpiredWebhooks();
+
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void dropExpiredPartitions_FullyExpiredPartition_DetachesAndDrops() {
+        when(jdbcTemplate.queryForObject(anyString(), eq(Boolean.class))).thenReturn(true);
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class), any(Timestamp.class)))
+            .thenReturn(List.of("public.webhooks_2024_01", "public.webhooks_2024_02"));
+        when(jdbcTemplate.queryForMap(contains("public.webhooks_2024_01"), any(), any()))
+            .thenReturn(Map.of("total", 1200L, "retained", 0L));
+        when(jdbcTemplate.queryForMap(contains("public.webhooks_2024_02"), any(), any()))
+            .thenReturn(Map.of("total", 900L, "retained", 3L));
+
+        long dropped = cleanupService.dropExpiredPartitions(ZonedDateTime.now().minusDays(7),
+            ZonedDateTime.now().minusDays(30));
+
+        assertThat(dropped).isEqualTo(1200);
+        verify(jdbcTemplate).execute("ALTER TABLE webhooks DETACH PARTITION public.webhooks_2024_01");
+        verify(jdbcTemplate).execute("DROP TABLE public.webhooks_2024_01");
+        verify(jdbcTemplate, never()).execute("DROP TABLE public.webhooks_2024_02");
+        verify(metricsService).recordWebhookPartitionDropped();
+    }
+
+    @Test
+    void dropExpiredPartitions_NotPartitioned_ReturnsZero() {
+        long dropped = cleanupService.dropExpiredPartitions(ZonedDateTime.now().minusDays(7),
+            ZonedDateTime.now().minusDays(30));
+
+        assertThat(dropped).isZero();
+        verify(jdbcTemplate, never()).queryForList(anyString(), eq(String.class), any());
+    }
+
+    @Test
+    void dropExpiredPartitions_CatalogQueryFails_ReturnsZero() {
+        when(jdbcTemplate.queryForObject(anyString(), eq(Boolean.class)))
+            .thenThrow(new QueryTimeoutException("canceling statement due to lock timeout"));
+
+        long dropped = cleanupService.dropExpiredPartitions(ZonedDateTime.now().minusDays(7),
+            ZonedDateTime.now().minusDays(30));
+
+        assertThat(dropped).isZero();
+        verify(metricsService, never()).recordWebhookPartitionDropped();
+    }
+}
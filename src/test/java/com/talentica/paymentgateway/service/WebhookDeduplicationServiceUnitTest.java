@@ -0,0 +1,133 @@
+package com.talentica.paymentgateway.service;
+
+import com.talentica.paymentgateway.config.properties.WebhookProperties;
+import com.talentica.paymentgateway.repository.WebhookRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for WebhookDeduplicationService.
+ * Tests which layer decides each event and how Bloom filter false positives are counted.
+ */
+@ExtendWith(MockitoExtension.class)
+class WebhookDeduplicationServiceUnitTest {
+
+    private static final String EVENT_TYPE = "net.authorize.payment.authcapture.created";
+    private static final String REDIS_KEY = WebhookDeduplicationService.KEY_PREFIX + EVENT_TYPE + ":evt_1";
+
+    @Mock
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Mock
+    private ValueOperations<String, Object> valueOperations;
+
+    @Mock
+    private WebhookRepository webhookRepository;
+
+    @Mock
+    private MetricsService metricsService;
+
+    private WebhookProperties webhookProperties;
+
+    @BeforeEach
+    void setUp() {
+        webhookProperties = new WebhookProperties();
+        webhookProperties.getDuplicateDetection().setBloomExpectedInsertions(1000);
+        lenient().when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+    }
+
+    @Test
+    void isDuplicate_WithFirstTimeEvent_ClaimsInRedisWithoutDatabase() {
+        when(valueOperations.setIfAbsent(REDIS_KEY, "1", Duration.ofMinutes(60))).thenReturn(true);
+
+        assertThat(service().isDuplicate("evt_1", EVENT_TYPE)).isFalse();
+
+        verify(metricsService).recordWebhookDedupeDecision(WebhookDeduplicationService.LAYER_REDIS, false);
+        verifyNoInteractions(webhookRepository);
+    }
+
+    @Test
+    void isDuplicate_WithEventClaimedElsewhere_ReturnsTrue() {
+        when(valueOperations.setIfAbsent(anyString(), any(), any(Duration.class))).thenReturn(false);
+
+        assertThat(service().isDuplicate("evt_1", EVENT_TYPE)).isTrue();
+
+        verify(metricsService).recordWebhookDedupeDecision(WebhookDeduplicationService.LAYER_REDIS, true);
+        verifyNoInteractions(webhookRepository);
+    }
+
+    @Test
+    void isDuplicate_WithRedisDown_DecidesFirstTimeEventInMemory() {
+        when(valueOperations.setIfAbsent(anyString(), any(), any(Duration.class)))
+            .thenThrow(new RedisConnectionFailureException("connection refused"));
+
+        assertThat(service().isDuplicate("evt_1", EVENT_TYPE)).isFalse();
+
+        verify(metricsService).recordWebhookDedupeDecision(WebhookDeduplicationService.LAYER_BLOOM, false);
+        verifyNoInteractions(webhookRepository);
+    }
+
+    @Test
+    void isDuplicate_WithoutRedisAndBloomHit_ConfirmsAgainstDatabase() {
+        WebhookDeduplicationService service = new WebhookDeduplicationService(null, webhookRepository,
+            metricsService, webhookProperties);
+        when(webhookRepository.existsByEventIdAndEventTypeAndCreatedAtAfter(eq("evt_1"), eq(EVENT_TYPE),
+            any(ZonedDateTime.class))).thenReturn(true);
+
+        assertThat(service.isDuplicate("evt_1", EVENT_TYPE)).isFalse();
+        assertThat(service.isDuplicate("evt_1", EVENT_TYPE)).isTrue();
+
+        verify(metricsService).recordWebhookDedupeDecision(WebhookDeduplicationService.LAYER_DATABASE, true);
+        assertThat(service.observedFalsePositiveRate()).isZero();
+    }
+
+    @Test
+    void isDuplicate_WithBloomHitNotConfirmed_CountsFalsePositive() {
+        // Released after a failed attempt: the filter still has the key, Redis does not
+        when(valueOperations.setIfAbsent(anyString(), any(), any(Duration.class))).thenReturn(true);
+        WebhookDeduplicationService service = service();
+
+        service.isDuplicate("evt_1", EVENT_TYPE);
+        service.release("evt_1", EVENT_TYPE);
+        assertThat(service.isDuplicate("evt_1", EVENT_TYPE)).isFalse();
+
+        verify(redisTemplate).delete(REDIS_KEY);
+        verify(metricsService).incrementWebhookDedupeBloomFalsePositive();
+        assertThat(service.observedFalsePositiveRate()).isEqualTo(0.5);
+    }
+
+    @Test
+    void isDuplicate_WithRedisDisabled_DoesNotCallRedis() {
+        webhookProperties.getDuplicateDetection().setRedisEnabled(false);
+
+        assertThat(service().isDuplicate("evt_1", EVENT_TYPE)).isFalse();
+
+        verifyNoInteractions(redisTemplate);
+    }
+
+    @Test
+    void release_WithRedisError_DoesNotThrow() {
+        when(redisTemplate.delete(anyString())).thenThrow(new RedisConnectionFailureException("connection refused"));
+
+        service().release("evt_1", EVENT_TYPE);
+
+        verify(redisTemplate).delete(REDIS_KEY);
+    }
+
+    private WebhookDeduplicationService service() {
+        return new WebhookDeduplicationService(redisTemplate, webhookRepository, metricsService, webhookProperties);
+    }
+}
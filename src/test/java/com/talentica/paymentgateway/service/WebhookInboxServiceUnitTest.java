@@ -0,0 +1,239 @@
+package com.talentica.paymentgateway.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.talentica.paymentgateway.config.properties.WebhookProperties;
+import com.talentica.paymentgateway.dto.webhook.AuthorizeNetWebhookRequest;
+import com.talentica.paymentgateway.dto.webhook.WebhookResponse;
+import com.talentica.paymentgateway.util.WebhookSignatureVerifier;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for WebhookInboxService.
+ * Tests signature checks and deduplication on accept, and batch draining with retries.
+ */
+@ExtendWith(MockitoExtension.class)
+class WebhookInboxServiceUnitTest {
+
+    private static final String EVENT_TYPE = "net.authorize.payment.authcapture.created";
+    private static final String PAYLOAD = "{\"notificationId\":\"evt_1\",\"eventType\":\"" + EVENT_TYPE + "\"," +
+        "\"webhookId\":\"wh_1\",\"payload\":{\"id\":\"txn_1\",\"responseCode\":1}}";
+    private static final byte[] RAW_BODY = PAYLOAD.getBytes(StandardCharsets.UTF_8);
+    private static final String CLAIM_PREFIX = "UPDATE webhook_inbox SET lease_owner = ?";
+    private static final String COMPLETE_PREFIX = "UPDATE webhook_inbox SET status = 'PROCESSED'";
+    private static final String FAIL_PREFIX = "UPDATE webhook_inbox SET lease_owner = NULL";
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private WebhookProcessingService webhookProcessingService;
+
+    @Mock
+    private WebhookDeduplicationService webhookDeduplicationService;
+
+    @Mock
+    private WebhookSignatureVerifier signatureVerifier;
+
+    @Mock
+    private MetricsService metricsService;
+
+    private WebhookProperties webhookProperties;
+    private WebhookInboxService inboxService;
+
+    @BeforeEach
+    void setUp() {
+        webhookProperties = new WebhookProperties();
+        webhookProperties.getInbox().setMaxAttempts(3);
+        webhookProperties.getInbox().setInitialBackoffMs(1000);
+        webhookProperties.getInbox().setMaxBackoffMs(60000);
+
+        lenient().doAnswer(invocation -> {
+            invocation.<Consumer<TransactionStatus>>getArgument(0).accept(mock(TransactionStatus.class));
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+
+        ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        inboxService = new WebhookInboxService(jdbcTemplate, transactionTemplate, webhookProcessingService,
+            webhookDeduplicationService, signatureVerifier, objectMapper, metricsService, webhookProperties);
+    }
+
+    @Test
+    void accept_StoresEventKeyedByTransactionId() {
+        when(signatureVerifier.verifySignature(any(), aryEq(RAW_BODY))).thenReturn(true);
+        when(jdbcTemplate.update(startsWith("INSERT INTO webhook_inbox"), any(), any(), any(), any(), any()))
+            .thenReturn(1);
+
+        WebhookResponse response = inboxService.accept(request(), Map.of(), RAW_BODY, "corr_1");
+
+        assertThat(response.getStatus()).isEqualTo("success");
+        verify(jdbcTemplate).update(startsWith("INSERT INTO webhook_inbox"), eq("evt_1"), eq(EVENT_TYPE),
+            eq("txn_1"), eq(PAYLOAD), eq("corr_1"));
+        verifyNoInteractions(webhookProcessingService);
+    }
+
+    @Test
+    void accept_WithInvalidSignature_DoesNotStoreEvent() {
+        when(signatureVerifier.verifySignature(any(), any(byte[].class))).thenReturn(false);
+
+        WebhookResponse response = inboxService.accept(request(), Map.of(), RAW_BODY, "corr_1");
+
+        assertThat(response.getStatus()).isEqualTo("signature_error");
+        verify(metricsService).incrementWebhookSignatureFailure();
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void accept_WithEventAlreadyInInbox_ReturnsDuplicate() {
+        when(signatureVerifier.verifySignature(any(), any(byte[].class))).thenReturn(true);
+        when(jdbcTemplate.update(startsWith("INSERT INTO webhook_inbox"), any(), any(), any(), any(), any()))
+            .thenReturn(0);
+
+        WebhookResponse response = inboxService.accept(request(), Map.of(), RAW_BODY, "corr_1");
+
+        assertThat(response.getStatus()).isEqualTo("duplicate");
+        verify(metricsService).incrementWebhookDuplicate(EVENT_TYPE);
+    }
+
+    @Test
+    void accept_WithDuplicateSeenByFastPath_DoesNotWriteInbox() {
+        when(signatureVerifier.verifySignature(any(), any(byte[].class))).thenReturn(true);
+        when(webhookDeduplicationService.isDuplicate("evt_1", EVENT_TYPE)).thenReturn(true);
+
+        WebhookResponse response = inboxService.accept(request(), Map.of(), RAW_BODY, "corr_1");
+
+        assertThat(response.getStatus()).isEqualTo("duplicate");
+        verify(metricsService).incrementWebhookDuplicate(EVENT_TYPE);
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void accept_WhenInboxWriteFails_ReleasesDedupeRecord() {
+        when(signatureVerifier.verifySignature(any(), any(byte[].class))).thenReturn(true);
+        when(jdbcTemplate.update(startsWith("INSERT INTO webhook_inbox"), any(), any(), any(), any(), any()))
+            .thenThrow(new IllegalStateException("database unavailable"));
+
+        assertThatThrownBy(() -> inboxService.accept(request(), Map.of(), RAW_BODY, "corr_1"))
+            .isInstanceOf(IllegalStateException.class);
+
+        verify(webhookDeduplicationService).release("evt_1", EVENT_TYPE);
+    }
+
+    @Test
+    void accept_WithDuplicateDetectionDisabled_ReliesOnInboxKey() {
+        webhookProperties.getDuplicateDetection().setEnabled(false);
+        inboxService = new WebhookInboxService(jdbcTemplate, transactionTemplate, webhookProcessingService,
+            webhookDeduplicationService, signatureVerifier, new ObjectMapper(), metricsService, webhookProperties);
+        when(signatureVerifier.verifySignature(any(), any(byte[].class))).thenReturn(true);
+        when(jdbcTemplate.update(startsWith("INSERT INTO webhook_inbox"), any(), any(), any(), any(), any()))
+            .thenReturn(0);
+
+        WebhookResponse response = inboxService.accept(request(), Map.of(), RAW_BODY, "corr_1");
+
+        assertThat(response.getStatus()).isEqualTo("duplicate");
+        verifyNoInteractions(webhookDeduplicationService);
+    }
+
+    @Test
+    void drainOnce_ProcessesClaimedEventsAndMarksThemProcessed() {
+        stubClaim(event(1));
+        when(jdbcTemplate.update(startsWith(COMPLETE_PREFIX), any(), any())).thenReturn(1);
+
+        int drained = inboxService.drainOnce();
+
+        assertThat(drained).isEqualTo(1);
+        verify(webhookProcessingService).processWebhookEvent(
+            argThat(request -> "evt_1".equals(request.getNotificationId()) && "txn_1".equals(request.getTransactionId())),
+            eq("corr_1"));
+        verify(jdbcTemplate).update(startsWith(COMPLETE_PREFIX), eq(42L), anyString());
+        verify(metricsService).recordWebhookInboxBatch(1);
+        verify(metricsService).recordWebhookInboxEvent(eq(WebhookInboxService.OUTCOME_PROCESSED), any(Duration.class));
+    }
+
+    @Test
+    void drainOnce_WithProcessingFailure_SchedulesRetryWithBackoff() {
+        stubClaim(event(2));
+        when(webhookProcessingService.processWebhookEvent(any(), any()))
+            .thenThrow(new IllegalStateException("database unavailable"));
+
+        inboxService.drainOnce();
+
+        verify(jdbcTemplate).update(startsWith(FAIL_PREFIX), eq("database unavailable"), eq(2000L),
+            eq(false), eq(false), eq(42L), anyString());
+        verify(metricsService).recordWebhookInboxEvent(eq(WebhookInboxService.OUTCOME_RETRY), any(Duration.class));
+        verify(jdbcTemplate, never()).update(startsWith(COMPLETE_PREFIX), any(), any());
+    }
+
+    @Test
+    void drainOnce_WithLastAttemptFailing_DeadLettersEvent() {
+        stubClaim(event(3));
+        when(webhookProcessingService.processWebhookEvent(any(), any()))
+            .thenThrow(new IllegalStateException("database unavailable"));
+
+        inboxService.drainOnce();
+
+        verify(jdbcTemplate).update(startsWith(FAIL_PREFIX), any(), any(), eq(true), eq(true), eq(42L), anyString());
+        verify(metricsService).recordWebhookInboxEvent(eq(WebhookInboxService.OUTCOME_DEAD_LETTERED),
+            any(Duration.class));
+    }
+
+    @Test
+    void drainOnce_WithEmptyInbox_ReturnsZero() {
+        stubClaim();
+
+        assertThat(inboxService.drainOnce()).isZero();
+        verifyNoInteractions(webhookProcessingService);
+    }
+
+    @Test
+    void backoffMs_DoublesUpToMaximum() {
+        assertThat(inboxService.backoffMs(1)).isEqualTo(1000);
+        assertThat(inboxService.backoffMs(2)).isEqualTo(2000);
+        assertThat(inboxService.backoffMs(4)).isEqualTo(8000);
+        assertThat(inboxService.backoffMs(40)).isEqualTo(60000);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void stubClaim(WebhookInboxService.InboxEvent... events) {
+        when(jdbcTemplate.query(startsWith(CLAIM_PREFIX), any(RowMapper.class), any(), any(), any()))
+            .thenReturn(List.of(events));
+    }
+
+    private static WebhookInboxService.InboxEvent event(int attempts) {
+        return new WebhookInboxService.InboxEvent(42L, "evt_1", EVENT_TYPE, PAYLOAD, "corr_1",
+            Instant.now().minusSeconds(1), attempts);
+    }
+
+    private static AuthorizeNetWebhookRequest request() {
+        AuthorizeNetWebhookRequest.AuthorizeNetPayload payload = new AuthorizeNetWebhookRequest.AuthorizeNetPayload();
+        payload.setId("txn_1");
+        AuthorizeNetWebhookRequest request = new AuthorizeNetWebhookRequest();
+        request.setNotificationId("evt_1");
+        request.setEventType(EVENT_TYPE);
+        request.setPayload(payload);
+        return request;
+    }
+}
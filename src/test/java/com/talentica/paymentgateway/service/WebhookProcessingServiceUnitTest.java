@@ -1,5 +1,7 @@
 package com.talentica.paymentgateway.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import com.talentica.paymentgateway.dto.webhook.AuthorizeNetWebhookRequest;
 import com.talentica.paymentgateway.dto.webhook.WebhookResponse;
 import com.talentica.paymentgateway.entity.*;
@@ -11,8 +13,11 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.math.BigDecimal;
 import java.time.ZonedDateTime;
@@ -42,6 +47,15 @@ class WebhookProcessingServiceUnitTest {
     @Mock
     private MetricsService metricsService;
 
+    @Mock
+    private WebhookDeduplicationService webhookDeduplicationService;
+
+    @Mock
+    private TransactionDetailsCache transactionDetailsCache;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
     @InjectMocks
     private WebhookProcessingService webhookProcessingService;
 
@@ -54,8 +68,8 @@ class WebhookProcessingServiceUnitTest {
     void setUp() {
         // Set configuration values
         ReflectionTestUtils.setField(webhookProcessingService, "duplicateDetectionEnabled", true);
-        ReflectionTestUtils.setField(webhookProcessingService, "duplicateDetectionWindowMinutes", 60);
         ReflectionTestUtils.setField(webhookProcessingService, "processingTimeoutSeconds", 30);
+        lenient().when(webhookRepository.insertInboundEventIfAbsent(any(), any(), any(), any(), any(), any(), any(), any())).thenReturn(1);
 
         // Create test webhook request
         testWebhookRequest = new AuthorizeNetWebhookRequest();
@@ -94,9 +108,7 @@ class WebhookProcessingServiceUnitTest {
     void processWebhookAsync_WithValidSignature_ShouldProcessSuccessfully() throws Exception {
         // Given
         when(signatureVerifier.verifySignature(testHeaders, testRawPayload)).thenReturn(true);
-        when(webhookRepository.findByEventIdAndEventTypeAndCreatedAtAfter(anyString(), anyString(), any(ZonedDateTime.class)))
-            .thenReturn(Collections.emptyList());
-        when(webhookRepository.save(any(Webhook.class))).thenReturn(new Webhook());
+        when(webhookDeduplicationService.isDuplicate(anyString(), anyString())).thenReturn(false);
         when(transactionRepository.findByAuthnetTransactionId("AUTH_TXN_001"))
             .thenReturn(Optional.of(testTransaction));
         when(transactionRepository.save(any(Transaction.class))).thenReturn(testTransaction);
@@ -141,10 +153,7 @@ class WebhookProcessingServiceUnitTest {
         // Given
         when(signatureVerifier.verifySignature(testHeaders, testRawPayload)).thenReturn(true);
         
-        Webhook existingWebhook = new Webhook();
-        existingWebhook.setEventId("NOTIF_001");
-        when(webhookRepository.findByEventIdAndEventTypeAndCreatedAtAfter(anyString(), anyString(), any(ZonedDateTime.class)))
-            .thenReturn(Arrays.asList(existingWebhook));
+        when(webhookDeduplicationService.isDuplicate(anyString(), anyString())).thenReturn(true);
 
         // When
         CompletableFuture<WebhookResponse> future = webhookProcessingService.processWebhookAsync(
@@ -165,7 +174,6 @@ class WebhookProcessingServiceUnitTest {
         // Given
         ReflectionTestUtils.setField(webhookProcessingService, "duplicateDetectionEnabled", false);
         when(signatureVerifier.verifySignature(testHeaders, testRawPayload)).thenReturn(true);
-        when(webhookRepository.save(any(Webhook.class))).thenReturn(new Webhook());
         when(transactionRepository.findByAuthnetTransactionId("AUTH_TXN_001"))
             .thenReturn(Optional.of(testTransaction));
         when(transactionRepository.save(any(Transaction.class))).thenReturn(testTransaction);
@@ -177,7 +185,7 @@ class WebhookProcessingServiceUnitTest {
 
         // Then
         assertThat(response.isSuccess()).isTrue();
-        verify(webhookRepository, never()).findByEventIdAndEventTypeAndCreatedAtAfter(anyString(), anyString(), any());
+        verify(webhookDeduplicationService, never()).isDuplicate(anyString(), anyString());
         verify(transactionRepository).save(testTransaction);
     }
 
@@ -185,9 +193,8 @@ class WebhookProcessingServiceUnitTest {
     void processWebhookAsync_WithProcessingException_ShouldReturnErrorResponse() throws Exception {
         // Given
         when(signatureVerifier.verifySignature(testHeaders, testRawPayload)).thenReturn(true);
-        when(webhookRepository.findByEventIdAndEventTypeAndCreatedAtAfter(anyString(), anyString(), any(ZonedDateTime.class)))
-            .thenReturn(Collections.emptyList());
-        when(webhookRepository.save(any(Webhook.class))).thenThrow(new RuntimeException("Database error"));
+        when(webhookDeduplicationService.isDuplicate(anyString(), anyString())).thenReturn(false);
+        when(webhookRepository.insertInboundEventIfAbsent(any(), any(), any(), any(), any(), any(), any(), any())).thenThrow(new RuntimeException("Database error"));
 
         // When
         CompletableFuture<WebhookResponse> future = webhookProcessingService.processWebhookAsync(
@@ -198,6 +205,7 @@ class WebhookProcessingServiceUnitTest {
         assertThat(response.isSuccess()).isFalse();
         assertThat(response.getEventId()).isEqualTo("NOTIF_001");
         assertThat(response.getMessage()).contains("Internal processing error");
+        verify(webhookDeduplicationService).release("NOTIF_001", "net.authorize.payment.authcapture.created");
         
         verify(metricsService).incrementWebhookProcessed("net.authorize.payment.authcapture.created", "error");
     }
@@ -420,7 +428,6 @@ class WebhookProcessingServiceUnitTest {
     void processWebhookEvent_WithUnsupportedEventType_ShouldReturnSuccessWithMessage() {
         // Given
         testWebhookRequest.setEventType("net.authorize.payment.unknown.created");
-        when(webhookRepository.save(any(Webhook.class))).thenReturn(new Webhook());
 
         // When
         WebhookResponse response = webhookProcessingService.processWebhookEvent(testWebhookRequest, "CORR_001");
@@ -431,35 +438,107 @@ class WebhookProcessingServiceUnitTest {
         verify(transactionRepository, never()).findByAuthnetTransactionId(anyString());
     }
 
+    @Test
+    void processWebhookEvent_WithPaymentEvent_ShouldWarmDetailsCache() {
+        // Given
+        testWebhookRequest.setEventType("net.authorize.payment.void.created");
+        when(transactionRepository.findByAuthnetTransactionId("AUTH_TXN_001"))
+            .thenReturn(Optional.of(testTransaction));
+
+        // When
+        webhookProcessingService.processWebhookEvent(testWebhookRequest, "CORR_001");
+
+        // Then
+        verify(transactionDetailsCache).warm("AUTH_TXN_001");
+    }
+
+    @Test
+    void processWebhookEvent_InsideTransaction_ShouldWarmDetailsCacheAfterCommit() {
+        // Given
+        testWebhookRequest.setEventType("net.authorize.payment.void.created");
+        when(transactionRepository.findByAuthnetTransactionId("AUTH_TXN_001"))
+            .thenReturn(Optional.of(testTransaction));
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            // When
+            webhookProcessingService.processWebhookEvent(testWebhookRequest, "CORR_001");
+
+            // Then
+            verifyNoInteractions(transactionDetailsCache);
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        verify(transactionDetailsCache).warm("AUTH_TXN_001");
+    }
+
+    @Test
+    void processWebhookEvent_WithNonPaymentEvent_ShouldNotWarmDetailsCache() {
+        // Given
+        testWebhookRequest.setEventType("net.authorize.customer.created");
+
+        // When
+        webhookProcessingService.processWebhookEvent(testWebhookRequest, "CORR_001");
+
+        // Then
+        verifyNoInteractions(transactionDetailsCache);
+    }
+
+    @Test
+    void processWebhookEvent_WithEventAlreadyRecorded_ShouldSkipEvent() {
+        // Given
+        when(webhookRepository.insertInboundEventIfAbsent(any(), any(), any(), any(), any(), any(), any(), any()))
+            .thenReturn(0);
+
+        // When
+        WebhookResponse response = webhookProcessingService.processWebhookEvent(testWebhookRequest, "CORR_001");
+
+        // Then
+        assertThat(response.isDuplicate()).isTrue();
+        verify(metricsService).incrementWebhookDuplicate("net.authorize.payment.authcapture.created");
+        verifyNoInteractions(transactionRepository, transactionDetailsCache);
+    }
+
+    @Test
+    void processWebhookAsync_WithEventRecordedByAnotherInstance_ShouldReturnDuplicateResponse() throws Exception {
+        // Given: Redis was unavailable, so only the database insert sees the duplicate
+        when(signatureVerifier.verifySignature(testHeaders, testRawPayload)).thenReturn(true);
+        when(webhookDeduplicationService.isDuplicate(anyString(), anyString())).thenReturn(false);
+        when(webhookRepository.insertInboundEventIfAbsent(any(), any(), any(), any(), any(), any(), any(), any()))
+            .thenReturn(0);
+
+        // When
+        WebhookResponse response = webhookProcessingService.processWebhookAsync(
+            testWebhookRequest, testHeaders, testRawPayload).get();
+
+        // Then
+        assertThat(response.isDuplicate()).isTrue();
+        verify(transactionRepository, never()).save(any());
+        verify(metricsService, never()).incrementWebhookProcessed(anyString(), eq("success"));
+        verify(webhookDeduplicationService, never()).release(anyString(), anyString());
+    }
+
     @Test
     void createWebhookRecord_ShouldCreateWebhookWithCorrectData() {
         // Given
-        when(webhookRepository.save(any(Webhook.class))).thenReturn(new Webhook());
 
         // When
         webhookProcessingService.processWebhookEvent(testWebhookRequest, "CORR_001");
 
         // Then
-        verify(webhookRepository).save(argThat(webhook -> {
-            assertThat(webhook.getEventType()).isEqualTo("net.authorize.payment.authcapture.created");
-            assertThat(webhook.getEventId()).isEqualTo("NOTIF_001");
-            assertThat(webhook.getEndpointUrl()).isEqualTo("/api/v1/webhooks/authorize-net");
-            assertThat(webhook.getCorrelationId()).isEqualTo("CORR_001");
-            assertThat(webhook.getStatus()).isEqualTo(WebhookStatus.PROCESSING);
-            assertThat(webhook.getRequestBody()).isNotNull();
-            assertThat(webhook.getScheduledAt()).isNotNull();
-            return true;
-        }));
+        verify(webhookRepository).insertInboundEventIfAbsent(anyString(),
+            eq("net.authorize.payment.authcapture.created"), eq("NOTIF_001"), eq("/api/v1/webhooks/authorize-net"),
+            contains("X-Correlation-ID"), contains("\"notificationId\":\"NOTIF_001\""), eq("CORR_001"),
+            any(ZonedDateTime.class));
     }
 
     @Test
     void isDuplicateEvent_WithRecentDuplicate_ShouldReturnTrue() {
         // Given
-        Webhook existingWebhook = new Webhook();
-        existingWebhook.setEventId("NOTIF_001");
-        when(webhookRepository.findByEventIdAndEventTypeAndCreatedAtAfter(
-            eq("NOTIF_001"), eq("net.authorize.payment.authcapture.created"), any(ZonedDateTime.class)))
-            .thenReturn(Arrays.asList(existingWebhook));
+        when(webhookDeduplicationService.isDuplicate("NOTIF_001", "net.authorize.payment.authcapture.created"))
+            .thenReturn(true);
         when(signatureVerifier.verifySignature(testHeaders, testRawPayload)).thenReturn(true);
 
         // When
@@ -473,10 +552,8 @@ class WebhookProcessingServiceUnitTest {
     @Test
     void isDuplicateEvent_WithNoDuplicates_ShouldReturnFalse() {
         // Given
-        when(webhookRepository.findByEventIdAndEventTypeAndCreatedAtAfter(anyString(), anyString(), any(ZonedDateTime.class)))
-            .thenReturn(Collections.emptyList());
+        when(webhookDeduplicationService.isDuplicate(anyString(), anyString())).thenReturn(false);
         when(signatureVerifier.verifySignature(testHeaders, testRawPayload)).thenReturn(true);
-        when(webhookRepository.save(any(Webhook.class))).thenReturn(new Webhook());
         when(transactionRepository.findByAuthnetTransactionId("AUTH_TXN_001"))
             .thenReturn(Optional.of(testTransaction));
         when(transactionRepository.save(any(Transaction.class))).thenReturn(testTransaction);
@@ -514,7 +591,7 @@ class WebhookProcessingServiceUnitTest {
     @Test
     void processWebhookEvent_WithRepositoryException_ShouldThrowException() {
         // Given
-        when(webhookRepository.save(any(Webhook.class))).thenThrow(new RuntimeException("Database connection failed"));
+        when(webhookRepository.insertInboundEventIfAbsent(any(), any(), any(), any(), any(), any(), any(), any())).thenThrow(new RuntimeException("Database connection failed"));
 
         // When & Then
         try {
@@ -533,9 +610,6 @@ class WebhookProcessingServiceUnitTest {
         payload.setSettleAmount(null);
         testWebhookRequest.setPayload(payload);
         
-        // No stubbing needed for null payload test - service should handle gracefully
-        when(webhookRepository.save(any(Webhook.class))).thenReturn(new Webhook());
-
         // When
         WebhookResponse response = webhookProcessingService.processWebhookEvent(testWebhookRequest, "CORR_001");
 
@@ -562,8 +636,7 @@ class WebhookProcessingServiceUnitTest {
             testTransaction.setProcessedAt(null);
             testWebhookRequest.setEventType(eventType);
             
-            when(webhookRepository.save(any(Webhook.class))).thenReturn(new Webhook());
-            when(transactionRepository.findByAuthnetTransactionId("AUTH_TXN_001"))
+                when(transactionRepository.findByAuthnetTransactionId("AUTH_TXN_001"))
                 .thenReturn(Optional.of(testTransaction));
             when(transactionRepository.save(any(Transaction.class))).thenReturn(testTransaction);
 
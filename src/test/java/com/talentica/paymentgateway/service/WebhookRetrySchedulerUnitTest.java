@@ -0,0 +1,209 @@
+package com.talentica.paymentgateway.service;
+
+import com.talentica.paymentgateway.config.properties.WebhookProperties;
+import com.talentica.paymentgateway.entity.Webhook;
+import com.talentica.paymentgateway.entity.WebhookStatus;
+import com.talentica.paymentgateway.repository.WebhookRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for WebhookRetryScheduler.
+ * Tests claiming in pages, leasing and concurrency-capped dispatch.
+ */
+@ExtendWith(MockitoExtension.class)
+class WebhookRetrySchedulerUnitTest {
+
+    @Mock
+    private WebhookRepository webhookRepository;
+
+    @Mock
+    private WebhookRetryService webhookRetryService;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private MetricsService metricsService;
+
+    private WebhookProperties webhookProperties;
+    private WebhookRetryScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        webhookProperties = new WebhookProperties();
+        WebhookProperties.Scheduler config = webhookProperties.getRetry().getScheduler();
+        config.setPageSize(2);
+        config.setMaxQueued(10);
+        config.setMaxInFlight(4);
+        config.setMaxConcurrentPerEndpoint(1);
+        config.setLookaheadSeconds(60);
+        config.setLeaseSeconds(300);
+        config.setEndpointBusyDelayMs(1000);
+
+        lenient().when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+            invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(mock(TransactionStatus.class)));
+
+        scheduler = new WebhookRetryScheduler(webhookRepository, webhookRetryService, transactionTemplate,
+            metricsService, webhookProperties);
+    }
+
+    @Test
+    void pollOnce_ClaimsPagesUntilShortPageAndLeasesRows() {
+        when(webhookRepository.claimWebhooksDueBefore(any(ZonedDateTime.class), eq(2)))
+            .thenReturn(List.of(webhook("https://a.example.com"), webhook("https://b.example.com")))
+            .thenReturn(List.of(webhook("https://c.example.com")));
+
+        int claimed = scheduler.pollOnce();
+
+        assertThat(claimed).isEqualTo(3);
+        assertThat(scheduler.queueDepth()).isEqualTo(3);
+        verify(webhookRepository, times(2)).leaseForRetry(anyCollection(),
+            argThat(leaseUntil -> leaseUntil.isAfter(ZonedDateTime.now().plusSeconds(290))));
+        verify(metricsService).recordWebhookRetriesClaimed(2);
+        verify(metricsService).recordWebhookRetriesClaimed(1);
+    }
+
+    @Test
+    void pollOnce_NothingDue_DoesNotLease() {
+        when(webhookRepository.claimWebhooksDueBefore(any(ZonedDateTime.class), anyInt()))
+            .thenReturn(Collections.emptyList());
+
+        assertThat(scheduler.pollOnce()).isZero();
+
+        verify(webhookRepository, never()).leaseForRetry(anyCollection(), any());
+    }
+
+    @Test
+    void pollOnce_QueueFull_StopsClaiming() {
+        webhookProperties.getRetry().getScheduler().setMaxQueued(2);
+        when(webhookRepository.claimWebhooksDueBefore(any(ZonedDateTime.class), eq(2)))
+            .thenReturn(List.of(webhook("https://a.example.com"), webhook("https://b.example.com")));
+
+        scheduler.pollOnce();
+
+        verify(webhookRepository, times(1)).claimWebhooksDueBefore(any(ZonedDateTime.class), anyInt());
+        assertThat(scheduler.queueDepth()).isEqualTo(2);
+    }
+
+    @Test
+    void scheduledRetry_DelayAndOrderingFollowNotBefore() {
+        Instant now = Instant.now();
+        WebhookRetryScheduler.ScheduledRetry later = new WebhookRetryScheduler.ScheduledRetry(
+            webhook("https://a.example.com"), now, now.plusSeconds(300), now.plusSeconds(30));
+        WebhookRetryScheduler.ScheduledRetry sooner = new WebhookRetryScheduler.ScheduledRetry(
+            webhook("https://b.example.com"), now, now.plusSeconds(300), now.plusSeconds(5));
+
+        assertThat(later.getDelay(TimeUnit.SECONDS)).isBetween(25L, 30L);
+        assertThat(sooner.compareTo(later)).isNegative();
+    }
+
+    @Test
+    void dispatch_HandsRetryToAsyncDeliveryAndReleasesSlotOnCompletion() throws Exception {
+        CompletableFuture<Void> delivery = new CompletableFuture<>();
+        Webhook webhook = webhook("https://a.example.com");
+        when(webhookRetryService.retryWebhookDeliveryAsync(webhook)).thenReturn(delivery);
+
+        scheduler.dispatch(dueNow(webhook));
+
+        assertThat(scheduler.inFlight()).isEqualTo(1);
+        verify(metricsService).recordWebhookRetryDispatchLag(any(Duration.class));
+
+        delivery.complete(null);
+
+        assertThat(scheduler.inFlight()).isZero();
+    }
+
+    @Test
+    void dispatch_EndpointAtCap_RequeuesInsteadOfDelivering() throws Exception {
+        Webhook first = webhook("https://slow.example.com");
+        Webhook second = webhook("https://slow.example.com");
+        when(webhookRetryService.retryWebhookDeliveryAsync(first)).thenReturn(new CompletableFuture<>());
+
+        scheduler.dispatch(dueNow(first));
+        scheduler.dispatch(dueNow(second));
+
+        verify(webhookRetryService, never()).retryWebhookDeliveryAsync(second);
+        verify(metricsService).recordWebhookRetryDeferred(WebhookRetryScheduler.DEFERRED_ENDPOINT_BUSY);
+        assertThat(scheduler.queueDepth()).isEqualTo(1);
+        assertThat(scheduler.inFlight()).isEqualTo(1);
+    }
+
+    @Test
+    void dispatch_OtherEndpointsAreNotBlockedBySlowEndpoint() throws Exception {
+        List<Webhook> dispatched = new ArrayList<>();
+        when(webhookRetryService.retryWebhookDeliveryAsync(any(Webhook.class))).thenAnswer(invocation -> {
+            dispatched.add(invocation.getArgument(0));
+            return new CompletableFuture<Void>();
+        });
+
+        scheduler.dispatch(dueNow(webhook("https://slow.example.com")));
+        scheduler.dispatch(dueNow(webhook("https://fast.example.com")));
+
+        assertThat(dispatched).extracting(Webhook::getEndpointUrl)
+            .containsExactly("https://slow.example.com", "https://fast.example.com");
+    }
+
+    @Test
+    void dispatch_ExecutorRejects_ReleasesSlotAndRequeues() throws Exception {
+        Webhook webhook = webhook("https://a.example.com");
+        when(webhookRetryService.retryWebhookDeliveryAsync(webhook))
+            .thenThrow(new TaskRejectedException("queue full"));
+
+        scheduler.dispatch(dueNow(webhook));
+
+        assertThat(scheduler.inFlight()).isZero();
+        assertThat(scheduler.queueDepth()).isEqualTo(1);
+        verify(metricsService).recordWebhookRetryDeferred(WebhookRetryScheduler.DEFERRED_REJECTED);
+    }
+
+    @Test
+    void dispatch_LeaseExpired_DropsRetryWithoutDelivering() throws Exception {
+        Webhook webhook = webhook("https://a.example.com");
+        Instant past = Instant.now().minusSeconds(1);
+
+        scheduler.dispatch(new WebhookRetryScheduler.ScheduledRetry(webhook, past, past, past));
+
+        verifyNoInteractions(webhookRetryService);
+        verify(metricsService).recordWebhookRetryDeferred(WebhookRetryScheduler.DEFERRED_LEASE_EXPIRED);
+        assertThat(scheduler.queueDepth()).isZero();
+    }
+
+    private WebhookRetryScheduler.ScheduledRetry dueNow(Webhook webhook) {
+        Instant now = Instant.now();
+        return new WebhookRetryScheduler.ScheduledRetry(webhook, now, now.plusSeconds(300), now);
+    }
+
+    private Webhook webhook(String endpointUrl) {
+        Webhook webhook = new Webhook();
+        webhook.setId(UUID.randomUUID());
+        webhook.setWebhookId("WEBHOOK_" + UUID.randomUUID());
+        webhook.setEventType("payment.created");
+        webhook.setEndpointUrl(endpointUrl);
+        webhook.setStatus(WebhookStatus.RETRYING);
+        webhook.setAttempts(1);
+        webhook.setNextAttemptAt(ZonedDateTime.now().minusSeconds(5));
+        return webhook;
+    }
+}
@@ -1,5 +1,6 @@
 package com.talentica.paymentgateway.service;
 
+import com.talentica.paymentgateway.config.properties.WebhookProperties;
 import com.talentica.paymentgateway.entity.Webhook;
 import com.talentica.paymentgateway.entity.WebhookStatus;
 import com.talentica.paymentgateway.repository.WebhookRepository;
@@ -16,6 +17,7 @@ import org.springframework.web.client.HttpServerErrorException;
 import org.springframework.web.client.ResourceAccessException;
 import org.springframework.web.client.RestTemplate;
 
+import java.time.Duration;
 import java.time.ZonedDateTime;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
@@ -40,13 +42,20 @@ class WebhookRetryServiceUnitTest {
     @Mock
     private RestTemplate restTemplate;
 
+    @Mock
+    private WebhookCleanupService webhookCleanupService;
+
     @InjectMocks
     private WebhookRetryService webhookRetryService;
 
     private Webhook testWebhook;
+    private WebhookProperties webhookProperties;
 
     @BeforeEach
     void setUp() {
+        webhookProperties = new WebhookProperties();
+        ReflectionTestUtils.setField(webhookRetryService, "circuitBreakerRegistry",
+            new WebhookCircuitBreakerRegistry(webhookProperties, metricsService));
         // Set configuration values
         ReflectionTestUtils.setField(webhookRetryService, "maxRetryAttempts", 5);
         ReflectionTestUtils.setField(webhookRetryService, "initialDelayMinutes", 1);
@@ -55,8 +64,6 @@ class WebhookRetryServiceUnitTest {
         ReflectionTestUtils.setField(webhookRetryService, "jitterEnabled", true);
         ReflectionTestUtils.setField(webhookRetryService, "timeoutSeconds", 30);
         ReflectionTestUtils.setField(webhookRetryService, "cleanupEnabled", true);
-        ReflectionTestUtils.setField(webhookRetryService, "deliveredRetentionDays", 7);
-        ReflectionTestUtils.setField(webhookRetryService, "failedRetentionDays", 30);
 
         // Create test webhook
         testWebhook = new Webhook();
@@ -125,19 +132,18 @@ class WebhookRetryServiceUnitTest {
     }
 
     @Test
-    void cleanupOldWebhooks_WithCleanupEnabled_ShouldCleanupOldRecords() {
+    void cleanupOldWebhooks_WithCleanupEnabled_ShouldDelegateToPurgeEngine() {
         // Given
-        List<Webhook> webhooksToCleanup = Arrays.asList(testWebhook);
-        when(webhookRepository.findWebhooksForCleanup(any(ZonedDateTime.class), any(ZonedDateTime.class)))
-            .thenReturn(webhooksToCleanup);
+        when(webhookCleanupService.purgeExpiredWebhooks())
+            .thenReturn(new WebhookCleanupService.CleanupResult(1, 0, 0, Duration.ofMillis(5)));
 
         // When
         webhookRetryService.cleanupOldWebhooks();
 
         // Then
-        verify(webhookRepository).findWebhooksForCleanup(any(ZonedDateTime.class), any(ZonedDateTime.class));
-        verify(webhookRepository).delete(testWebhook);
-        verify(metricsService).incrementWebhookCleanup(1);
+        verify(webhookCleanupService).purgeExpiredWebhooks();
+        verify(webhookRepository, never()).findWebhooksForCleanup(any(), any());
+        verify(webhookRepository, never()).delete(any());
     }
 
     @Test
@@ -149,23 +155,20 @@ class WebhookRetryServiceUnitTest {
         webhookRetryService.cleanupOldWebhooks();
 
         // Then
-        verify(webhookRepository, never()).findWebhooksForCleanup(any(), any());
+        verify(webhookCleanupService, never()).purgeExpiredWebhooks();
         verify(webhookRepository, never()).delete(any());
     }
 
     @Test
-    void cleanupOldWebhooks_WithNoWebhooksToCleanup_ShouldNotDeleteAnything() {
+    void cleanupOldWebhooks_WhenPurgeFails_ShouldNotPropagate() {
         // Given
-        when(webhookRepository.findWebhooksForCleanup(any(ZonedDateTime.class), any(ZonedDateTime.class)))
-            .thenReturn(Collections.emptyList());
+        when(webhookCleanupService.purgeExpiredWebhooks()).thenThrow(new RuntimeException("lock timeout"));
 
         // When
         webhookRetryService.cleanupOldWebhooks();
 
         // Then
-        verify(webhookRepository).findWebhooksForCleanup(any(ZonedDateTime.class), any(ZonedDateTime.class));
-        verify(webhookRepository, never()).delete(any());
-        verify(metricsService, never()).incrementWebhookCleanup(anyInt());
+        verify(webhookCleanupService).purgeExpiredWebhooks();
     }
 
     @Test
@@ -478,8 +481,12 @@ class WebhookRetryServiceUnitTest {
     }
 
     @Test
-    void circuitBreaker_ShouldCloseAfterSuccess() {
-        // Given
+    void circuitBreaker_ShouldCloseAfterSuccessfulHalfOpenProbe() throws Exception {
+        // Given - breaker that allows a single probe as soon as it opens
+        webhookProperties.getCircuitBreaker().setWaitDurationOpenSeconds(0);
+        webhookProperties.getCircuitBreaker().setHalfOpenPermits(1);
+        ReflectionTestUtils.setField(webhookRetryService, "circuitBreakerRegistry",
+            new WebhookCircuitBreakerRegistry(webhookProperties, metricsService));
         when(webhookRepository.save(any(Webhook.class))).thenReturn(testWebhook);
 
         // First, trigger failures to open circuit breaker
@@ -492,24 +499,50 @@ class WebhookRetryServiceUnitTest {
             webhookRetryService.deliverWebhook(testWebhook);
         }
 
-        // Then, simulate success
+        // Then, simulate a successful probe
         ResponseEntity<String> successResponse = new ResponseEntity<>("OK", HttpStatus.OK);
         when(restTemplate.exchange(anyString(), any(HttpMethod.class), any(HttpEntity.class), eq(String.class)))
             .thenReturn(successResponse);
 
         testWebhook.setAttempts(0);
-        webhookRetryService.deliverWebhook(testWebhook);
+        webhookRetryService.retryWebhookDeliveryAsync(testWebhook).get();
 
         // Then - circuit breaker should be closed
         Map<String, Object> stats = webhookRetryService.getRetryStatistics();
         @SuppressWarnings("unchecked")
         Map<String, Object> circuitBreakers = (Map<String, Object>) stats.get("circuitBreakers");
         
-        if (!circuitBreakers.isEmpty()) {
-            @SuppressWarnings("unchecked")
-            Map<String, Object> cbState = (Map<String, Object>) circuitBreakers.values().iterator().next();
-            assertThat(cbState.get("state")).isEqualTo("CLOSED");
+        assertThat(circuitBreakers).hasSize(1);
+        @SuppressWarnings("unchecked")
+        Map<String, Object> cbState = (Map<String, Object>) circuitBreakers.values().iterator().next();
+        assertThat(cbState.get("state")).isEqualTo("CLOSED");
+    }
+
+    @Test
+    void circuitBreaker_SuccessWhileOpen_ShouldNotCloseBreaker() {
+        // Given
+        when(webhookRepository.save(any(Webhook.class))).thenReturn(testWebhook);
+        HttpServerErrorException serverError = new HttpServerErrorException(HttpStatus.INTERNAL_SERVER_ERROR);
+        when(restTemplate.exchange(anyString(), any(HttpMethod.class), any(HttpEntity.class), eq(String.class)))
+            .thenThrow(serverError)
+            .thenThrow(serverError)
+            .thenThrow(serverError)
+            .thenThrow(serverError)
+            .thenThrow(serverError)
+            .thenReturn(new ResponseEntity<>("OK", HttpStatus.OK));
+
+        // When - five failures open the breaker, then a call started earlier completes
+        for (int i = 0; i < 6; i++) {
+            webhookRetryService.deliverWebhook(testWebhook);
         }
+
+        // Then
+        Map<String, Object> stats = webhookRetryService.getRetryStatistics();
+        @SuppressWarnings("unchecked")
+        Map<String, Object> circuitBreakers = (Map<String, Object>) stats.get("circuitBreakers");
+        @SuppressWarnings("unchecked")
+        Map<String, Object> cbState = (Map<String, Object>) circuitBreakers.values().iterator().next();
+        assertThat(cbState.get("state")).isEqualTo("OPEN");
     }
 
     @Test
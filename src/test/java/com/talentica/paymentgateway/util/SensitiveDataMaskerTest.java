@@ -0,0 +1,93 @@
+package com.talentica.paymentgateway.util;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SensitiveDataMaskerTest {
+
+    private static final Set<String> FIELDS = Set.of("cardNumber", "cvv", "password");
+
+    private final SensitiveDataMasker masker = new SensitiveDataMasker(new JsonFactory(), FIELDS, 10000);
+
+    @Test
+    @DisplayName("Masks sensitive fields ignoring case, including object values")
+    void masksSensitiveFields() {
+        String masked = mask("{\"cardNumber\":\"4111111111111111\",\"CVV\":\"123\","
+            + "\"nested\":{\"password\":{\"old\":\"a\",\"new\":\"b\"}},\"ok\":true}");
+
+        assertThat(masked).isEqualTo("{\"cardNumber\":\"***MASKED***\",\"CVV\":\"***MASKED***\","
+            + "\"nested\":{\"password\":\"***MASKED***\"},\"ok\":true}");
+    }
+
+    @Test
+    @DisplayName("Masks Luhn-valid card numbers in string values, keeping the last four digits")
+    void masksCardNumbersInStrings() {
+        String masked = mask("{\"note\":\"card 4111 1111 1111 1111 on file\",\"order\":\"4111111111111112\"}");
+
+        assertThat(masked).isEqualTo("{\"note\":\"card **** **** **** 1111 on file\",\"order\":\"4111111111111112\"}");
+    }
+
+    @Test
+    @DisplayName("Masks card numbers sent as JSON numbers but not timestamps")
+    void masksCardNumbersInNumbers() {
+        String masked = mask("{\"pan\":5555555555554444,\"createdAt\":1700000000000,\"amount\":49.99}");
+
+        assertThat(masked).isEqualTo("{\"pan\":\"************4444\",\"createdAt\":1700000000000,\"amount\":49.99}");
+    }
+
+    @Test
+    @DisplayName("Masks SSNs and leaves phone numbers")
+    void masksSsns() {
+        assertThat(masker.maskText("ssn 123-45-6789, phone 415-555-0100"))
+            .isEqualTo("ssn ***-**-****, phone 415-555-0100");
+    }
+
+    @Test
+    @DisplayName("Masks a card number followed by other digits")
+    void masksCardNumberFollowedByDigits() {
+        assertThat(masker.maskText("4111111111111111 2030")).isEqualTo("************1111 2030");
+    }
+
+    @Test
+    @DisplayName("Returns the same text when nothing is masked")
+    void returnsSameTextWhenClean() {
+        String text = "id=12345&ref=ABC4111111111111111";
+
+        assertThat(masker.maskText(text)).isSameAs(text);
+        assertThat(masker.maskText(null)).isNull();
+    }
+
+    @Test
+    @DisplayName("Truncated JSON is still masked up to the cut")
+    void masksTruncatedJson() {
+        SensitiveDataMasker truncating = new SensitiveDataMasker(new JsonFactory(), FIELDS, 40);
+        byte[] body = ("{\"items\":[{\"cardNumber\":\"4111111111111111\"},"
+            + "{\"cardNumber\":\"5555555555554444\"}]}").getBytes(StandardCharsets.UTF_8);
+
+        String masked = truncating.maskBody(body);
+
+        assertThat(masked)
+            .startsWith("{\"items\":[{\"cardNumber\":\"***MASKED***\"")
+            .endsWith("... [TRUNCATED - Original size: " + body.length + " bytes]")
+            .doesNotContain("4111")
+            .doesNotContain("5555");
+    }
+
+    @Test
+    @DisplayName("Falls back to text masking for bodies that are not JSON")
+    void masksNonJsonBodies() {
+        assertThat(mask("pan=4111111111111111")).isEqualTo("pan=************1111");
+        assertThat(mask("{not json 4111111111111111")).isEqualTo("{not json ************1111");
+        assertThat(masker.maskBody(new byte[0])).isNull();
+    }
+
+    private String mask(String body) {
+        return masker.maskBody(body.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -5,7 +5,9 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -107,6 +109,73 @@ class WebhookSignatureVerifierTest {
         assertThat(verifier.verifySignature(stripe, "payload")).isTrue();
     }
 
+    @Test
+    @DisplayName("Raw bytes verified with either hex case")
+    void rawBytesValid() {
+        // Given - Signature computed over bytes that differ from a re-serialized payload
+        webhookProperties.getSignature().setSecret("secret");
+        verifier = new WebhookSignatureVerifier(webhookProperties);
+        String body = "{ \"eventType\" : \"net.authorize.payment.authcapture.created\" }\n";
+        String sig = verifier.generateSignatureWithSecret(body, "secret");
+        
+        // When
+        byte[] raw = body.getBytes(StandardCharsets.UTF_8);
+        
+        // Then
+        assertThat(verifier.verifySignature(Map.of("X-ANET-Signature", sig), raw)).isTrue();
+        assertThat(verifier.verifySignature(Map.of("X-ANET-Signature", sig.toUpperCase()), raw)).isTrue();
+        assertThat(verifier.verifySignature(Map.of("X-ANET-Signature", sig), body.trim().getBytes(StandardCharsets.UTF_8)))
+            .isFalse();
+    }
+
+    @Test
+    @DisplayName("Previous secret accepted during rotation")
+    void rotatedSecretAccepted() {
+        // Given - New primary secret with the old one still active
+        webhookProperties.getSignature().setSecret("new-secret");
+        webhookProperties.getSignature().setAdditionalSecrets(List.of("old-secret"));
+        verifier = new WebhookSignatureVerifier(webhookProperties);
+        
+        // When
+        Map<String, String> oldSigned = Map.of("X-ANET-Signature", verifier.generateSignatureWithSecret("payload", "old-secret"));
+        Map<String, String> newSigned = Map.of("X-ANET-Signature", verifier.generateSignatureWithSecret("payload", "new-secret"));
+        Map<String, String> otherSigned = Map.of("X-ANET-Signature", verifier.generateSignatureWithSecret("payload", "other"));
+        
+        // Then
+        assertThat(verifier.verifySignature(oldSigned, "payload")).isTrue();
+        assertThat(verifier.verifySignature(newSigned, "payload")).isTrue();
+        assertThat(verifier.verifySignature(otherSigned, "payload")).isFalse();
+    }
+
+    @Test
+    @DisplayName("Retired secret rejected once removed from configuration")
+    void retiredSecretRejected() {
+        // Given - Rotation in progress
+        webhookProperties.getSignature().setSecret("new-secret");
+        webhookProperties.getSignature().setAdditionalSecrets(List.of("old-secret"));
+        verifier = new WebhookSignatureVerifier(webhookProperties);
+        Map<String, String> oldSigned = Map.of("X-ANET-Signature", verifier.generateSignatureWithSecret("payload", "old-secret"));
+        assertThat(verifier.verifySignature(oldSigned, "payload")).isTrue();
+        
+        // When - Rotation completed
+        webhookProperties.getSignature().setAdditionalSecrets(List.of());
+        
+        // Then
+        assertThat(verifier.verifySignature(oldSigned, "payload")).isFalse();
+    }
+
+    @Test
+    @DisplayName("Malformed hex signature returns false")
+    void malformedSignature() {
+        // Given
+        webhookProperties.getSignature().setSecret("secret");
+        verifier = new WebhookSignatureVerifier(webhookProperties);
+        
+        // Then
+        assertThat(verifier.verifySignature(Map.of("X-ANET-Signature", "not-a-signature"), "payload")).isFalse();
+        assertThat(verifier.verifySignature(Map.of("X-ANET-Signature", "abc"), "payload")).isFalse();
+    }
+
     @Test
     @DisplayName("Invalid signature returns false")
     void invalidSignature() {